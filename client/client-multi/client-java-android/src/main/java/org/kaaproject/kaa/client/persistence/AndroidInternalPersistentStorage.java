@@ -25,7 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-public class AndroidInternalPersistentStorage implements PersistentStorage {
+public class AndroidInternalPersistentStorage implements AppendablePersistentStorage {
 
   private Context context;
 
@@ -48,6 +48,15 @@ public class AndroidInternalPersistentStorage implements PersistentStorage {
     return new FileOutputStream(file);
   }
 
+  @Override
+  public OutputStream openForAppend(String path) throws IOException {
+    File file = new File(context.getFilesDir(), path);
+    if (file.getParentFile() != null && !file.getParentFile().exists()) {
+      file.getParentFile().mkdirs();
+    }
+    return new FileOutputStream(file, true);
+  }
+
   @Override
   public boolean renameTo(String oldPath, String newPath) throws IOException {
     File src = new File(context.getFilesDir(), oldPath);
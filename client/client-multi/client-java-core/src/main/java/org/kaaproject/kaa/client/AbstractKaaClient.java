@@ -87,6 +87,7 @@ import org.kaaproject.kaa.client.profile.ProfileContainer;
 import org.kaaproject.kaa.client.profile.ProfileManager;
 import org.kaaproject.kaa.client.transport.AbstractHttpClient;
 import org.kaaproject.kaa.client.transport.TransportException;
+import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.common.endpoint.gen.Topic;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.slf4j.Logger;
@@ -662,7 +663,10 @@ public abstract class AbstractKaaClient implements GenericKaaClient {
     channelManager.addChannel(bootstrapChannel);
 
     KaaDataChannel operationsChannel = new DefaultOperationTcpChannel(
-            kaaClientState, failoverManager, failureListener);
+            kaaClientState, failoverManager, failureListener,
+            properties.isLogCompressionEnabled()
+                ? Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V3
+                : Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2);
     operationsChannel.setMultiplexer(operationsDataProcessor);
     operationsChannel.setDemultiplexer(operationsDataProcessor);
     channelManager.addChannel(operationsChannel);
@@ -679,8 +683,10 @@ public abstract class AbstractKaaClient implements GenericKaaClient {
   }
 
   protected DefaultLogCollector buildLogCollector(TransportContext transportContext) {
-    return new DefaultLogCollector(transportContext.getLogTransport(), context.getExecutorContext(),
-            channelManager, failoverManager);
+    DefaultLogCollector logCollector = new DefaultLogCollector(transportContext.getLogTransport(),
+            context.getExecutorContext(), channelManager, failoverManager);
+    logCollector.setLogCompressionEnabled(properties.isLogCompressionEnabled());
+    return logCollector;
   }
 
   protected DefaultEndpointRegistrationManager buildRegistrationManager(
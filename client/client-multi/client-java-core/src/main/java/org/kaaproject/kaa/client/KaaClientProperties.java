@@ -24,6 +24,7 @@ import org.kaaproject.kaa.client.channel.ServerType;
 import org.kaaproject.kaa.client.channel.TransportConnectionInfo;
 import org.kaaproject.kaa.client.channel.TransportProtocolId;
 import org.kaaproject.kaa.client.util.Base64;
+import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.common.endpoint.gen.ProtocolMetaData;
 import org.kaaproject.kaa.common.endpoint.gen.ProtocolVersionPair;
 import org.slf4j.Logger;
@@ -52,6 +53,7 @@ public class KaaClientProperties extends Properties {
   public static final String TRANSPORT_POLL_DELAY = "transport.poll.initial_delay";
   public static final String TRANSPORT_POLL_PERIOD = "transport.poll.period";
   public static final String TRANSPORT_POLL_UNIT = "transport.poll.unit";
+  public static final String TRANSPORT_LOG_COMPRESSION = "transport.log.compression";
   public static final String BOOTSTRAP_SERVERS = "transport.bootstrap.servers";
   public static final String CONFIG_DATA_DEFAULT = "config.data.default";
   public static final String CONFIG_SCHEMA_DEFAULT = "config.schema.default";
@@ -167,6 +169,17 @@ public class KaaClientProperties extends Properties {
     return TimeUnit.valueOf(getProperty(KaaClientProperties.TRANSPORT_POLL_UNIT));
   }
 
+  /**
+   * Returns whether log records are uploaded in compressed blocks. Compression requires
+   * Operations servers that support the
+   * {@link Constants#KAA_PLATFORM_PROTOCOL_AVRO_ID_V3} platform protocol.
+   *
+   * @return true if log compression is enabled
+   */
+  public boolean isLogCompressionEnabled() {
+    return Boolean.parseBoolean(getProperty(KaaClientProperties.TRANSPORT_LOG_COMPRESSION));
+  }
+
   private Map<TransportProtocolId, List<TransportConnectionInfo>> parseBootstrapServers(
           String serversStr) throws InvalidKeySpecException, NoSuchAlgorithmException {
     Map<TransportProtocolId, List<TransportConnectionInfo>> servers = new HashMap<>();
@@ -191,6 +191,14 @@ public interface KaaChannelManager {
    */
   TransportConnectionInfo getActiveServer(TransportType type);
 
+  /**
+   * Returns the channel that is used for data transfer for specified {@link TransportType}.
+   *
+   * @param type - type that is used to identify active channel
+   * @return KaaDataChannel active channel or null if there is none
+   */
+  KaaDataChannel getActiveChannel(TransportType type);
+
   /**
    * Sets a new failover manager.
    *
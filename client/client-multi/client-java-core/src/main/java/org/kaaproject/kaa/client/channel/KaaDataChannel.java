@@ -85,6 +85,14 @@ public interface KaaDataChannel {
    */
   TransportProtocolId getTransportProtocolId();
 
+  /**
+   * Retrieves the id of the platform protocol the channel encodes its requests with.
+   *
+   * @return the platform protocol id.
+   * @see org.kaaproject.kaa.common.Constants#KAA_PLATFORM_PROTOCOL_AVRO_ID_V2
+   */
+  int getPlatformProtocolId();
+
   /**
    * Retrieves the channel's server type (i.e. OPERATIONS or BOOTSTRAP).
    *
@@ -230,6 +230,11 @@ public class DefaultChannelManager implements KaaInternalChannelManager {
     return channel.getServer();
   }
 
+  @Override
+  public KaaDataChannel getActiveChannel(TransportType type) {
+    return upChannels.get(type);
+  }
+
   private KaaDataChannel getChannel(TransportType type) {
     KaaDataChannel result = upChannels.get(type);
     if (result == null) {
@@ -98,54 +98,87 @@ public class DefaultOperationDataProcessor implements KaaDataMultiplexer, KaaDat
     this.logTransport = logTransport;
   }
 
+  /**
+   * Decodes and dispatches a response. Both steps run under the processor lock, so responses
+   * received by different channels are applied in the order they are decoded.
+   */
   @Override
   public synchronized void processResponse(byte[] response) throws Exception {
     if (response != null) {
+      SyncResponse syncResponse;
       try {
-        SyncResponse syncResponse = responseConverter.fromByteArray(response);
-
-        LOG.info("Received Sync response: {}", syncResponse);
-        if (syncResponse.getConfigurationSyncResponse() != null && configurationTransport != null) {
-          configurationTransport.onConfigurationResponse(
-                  syncResponse.getConfigurationSyncResponse());
-        }
-        if (eventTransport != null) {
-          eventTransport.onSyncResposeIdReceived(syncResponse.getRequestId());
-          if (syncResponse.getEventSyncResponse() != null) {
-            eventTransport.onEventResponse(syncResponse.getEventSyncResponse());
-          }
-        }
-        if (syncResponse.getNotificationSyncResponse() != null && notificationTransport != null) {
-          notificationTransport.onNotificationResponse(syncResponse.getNotificationSyncResponse());
-        }
-        if (syncResponse.getUserSyncResponse() != null && userTransport != null) {
-          userTransport.onUserResponse(syncResponse.getUserSyncResponse());
-        }
-        if (syncResponse.getRedirectSyncResponse() != null && redirectionTransport != null) {
-          redirectionTransport.onRedirectionResponse(syncResponse.getRedirectSyncResponse());
-        }
-        if (syncResponse.getProfileSyncResponse() != null && profileTransport != null) {
-          profileTransport.onProfileResponse(syncResponse.getProfileSyncResponse());
-        }
-        if (syncResponse.getLogSyncResponse() != null && logTransport != null) {
-          logTransport.onLogResponse(syncResponse.getLogSyncResponse());
+        synchronized (responseConverter) {
+          syncResponse = responseConverter.fromByteArray(response);
         }
+      } catch (Exception ex) {
+        state.persist();
+        throw ex;
+      }
+      dispatchResponse(syncResponse);
+    }
+  }
 
-        boolean needProfileResync = syncResponse.getStatus() == SyncResponseResultType
-                .PROFILE_RESYNC;
-        state.setIfNeedProfileResync(needProfileResync);
-        if (needProfileResync) {
-          LOG.info("Going to resync profile...");
-          profileTransport.sync();
+  /**
+   * Hands the decoded response to the transports.
+   */
+  private synchronized void dispatchResponse(SyncResponse syncResponse) throws Exception {
+    try {
+      LOG.info("Received Sync response: {}", syncResponse);
+      if (syncResponse.getConfigurationSyncResponse() != null && configurationTransport != null) {
+        configurationTransport.onConfigurationResponse(
+                syncResponse.getConfigurationSyncResponse());
+      }
+      if (eventTransport != null) {
+        eventTransport.onSyncResposeIdReceived(syncResponse.getRequestId());
+        if (syncResponse.getEventSyncResponse() != null) {
+          eventTransport.onEventResponse(syncResponse.getEventSyncResponse());
         }
-      } finally {
-        state.persist();
       }
+      if (syncResponse.getNotificationSyncResponse() != null && notificationTransport != null) {
+        notificationTransport.onNotificationResponse(syncResponse.getNotificationSyncResponse());
+      }
+      if (syncResponse.getUserSyncResponse() != null && userTransport != null) {
+        userTransport.onUserResponse(syncResponse.getUserSyncResponse());
+      }
+      if (syncResponse.getRedirectSyncResponse() != null && redirectionTransport != null) {
+        redirectionTransport.onRedirectionResponse(syncResponse.getRedirectSyncResponse());
+      }
+      if (syncResponse.getProfileSyncResponse() != null && profileTransport != null) {
+        profileTransport.onProfileResponse(syncResponse.getProfileSyncResponse());
+      }
+      if (syncResponse.getLogSyncResponse() != null && logTransport != null) {
+        logTransport.onLogResponse(syncResponse.getLogSyncResponse());
+      }
+
+      boolean needProfileResync = syncResponse.getStatus() == SyncResponseResultType
+              .PROFILE_RESYNC;
+      state.setIfNeedProfileResync(needProfileResync);
+      if (needProfileResync) {
+        LOG.info("Going to resync profile...");
+        profileTransport.sync();
+      }
+    } finally {
+      state.persist();
     }
   }
 
   @Override
-  public synchronized byte[] compileRequest(Map<TransportType, ChannelDirection> types)
+  public byte[] compileRequest(Map<TransportType, ChannelDirection> types)
+          throws Exception {
+    SyncRequest request = createRequest(types);
+    if (request == null) {
+      return null; //NOSONAR
+    }
+    synchronized (requestConverter) {
+      return requestConverter.toByteArray(request);
+    }
+  }
+
+  /**
+   * Collects the transport requests into a sync request. Only this step needs the processor
+   * lock; the request is encoded by the caller so that serialization does not block responses.
+   */
+  private synchronized SyncRequest createRequest(Map<TransportType, ChannelDirection> types)
           throws Exception {
     if (types != null) {
       SyncRequest request = new SyncRequest();
@@ -207,7 +240,7 @@ public class DefaultOperationDataProcessor implements KaaDataMultiplexer, KaaDat
         }
       }
       LOG.info("Created Sync request: {}", request);
-      return requestConverter.toByteArray(request);
+      return request;
     }
     return null; //NOSONAR
   }
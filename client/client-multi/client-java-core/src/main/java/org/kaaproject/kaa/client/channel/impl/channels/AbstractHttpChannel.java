@@ -30,6 +30,7 @@ import org.kaaproject.kaa.client.channel.failover.FailoverManager;
 import org.kaaproject.kaa.client.channel.failover.FailoverStatus;
 import org.kaaproject.kaa.client.persistence.KaaClientState;
 import org.kaaproject.kaa.client.transport.AbstractHttpClient;
+import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.common.TransportType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -81,6 +82,11 @@ public abstract class AbstractHttpChannel implements KaaDataChannel {
     return TransportProtocolIdConstants.HTTP_TRANSPORT_ID;
   }
 
+  @Override
+  public int getPlatformProtocolId() {
+    return Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2;
+  }
+
   @Override
   public synchronized void sync(TransportType type) {
     sync(Collections.singleton(type));
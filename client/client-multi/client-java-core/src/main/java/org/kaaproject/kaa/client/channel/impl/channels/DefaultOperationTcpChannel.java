@@ -88,6 +88,7 @@ public class DefaultOperationTcpChannel implements KaaDataChannel {
 
   private final KaaClientState state;
   private final FailoverManager failoverManager;
+  private final int platformProtocolId;
   private final PingResponseListener pingResponseListener = new PingResponseListener() {
 
     @Override
@@ -215,12 +216,18 @@ public class DefaultOperationTcpChannel implements KaaDataChannel {
     }
   };
 
+  public DefaultOperationTcpChannel(KaaClientState state, FailoverManager failoverManager,
+                                    FailureListener failureListener) {
+    this(state, failoverManager, failureListener, Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2);
+  }
+
   /**
    * All-args constructor.
    */
   public DefaultOperationTcpChannel(KaaClientState state, FailoverManager failoverManager,
-                                    FailureListener failureListener) {
+                                    FailureListener failureListener, int platformProtocolId) {
     this.state = state;
+    this.platformProtocolId = platformProtocolId;
     this.failoverManager = failoverManager;
     this.failureListener = failureListener;
     messageFactory.registerMessageListener(connAckListener);
@@ -260,7 +267,7 @@ public class DefaultOperationTcpChannel implements KaaDataChannel {
     byte[] requestBodyEncoded = encDec.encodeData(body);
     byte[] sessionKey = encDec.getEncodedSessionKey();
     byte[] signature = encDec.sign(sessionKey);
-    sendFrame(new Connect(CHANNEL_TIMEOUT, Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2,
+    sendFrame(new Connect(CHANNEL_TIMEOUT, platformProtocolId,
             sessionKey, requestBodyEncoded, signature));
   }
 
@@ -605,6 +612,11 @@ public class DefaultOperationTcpChannel implements KaaDataChannel {
     return TransportProtocolIdConstants.TCP_TRANSPORT_ID;
   }
 
+  @Override
+  public int getPlatformProtocolId() {
+    return platformProtocolId;
+  }
+
   @Override
   public ServerType getServerType() {
     return ServerType.OPERATIONS;
@@ -36,6 +36,7 @@ import org.kaaproject.kaa.client.channel.impl.channels.polling.PollCommand;
 import org.kaaproject.kaa.client.channel.impl.channels.polling.RawDataProcessor;
 import org.kaaproject.kaa.client.persistence.KaaClientState;
 import org.kaaproject.kaa.client.transport.AbstractHttpClient;
+import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.common.TransportType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -296,6 +297,11 @@ public class DefaultOperationsChannel implements KaaDataChannel, RawDataProcesso
     return TransportProtocolIdConstants.HTTP_TRANSPORT_ID;
   }
 
+  @Override
+  public int getPlatformProtocolId() {
+    return Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2;
+  }
+
   @Override
   public ServerType getServerType() {
     return ServerType.OPERATIONS;
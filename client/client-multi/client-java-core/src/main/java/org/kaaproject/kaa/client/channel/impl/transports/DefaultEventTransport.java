@@ -141,10 +141,7 @@ public class DefaultEventTransport extends AbstractKaaTransport implements Event
       if (response.getEvents() != null && !response.getEvents().isEmpty()) {
         List<Event> events = new ArrayList<>(response.getEvents());
         Collections.sort(events, eventSeqNumberComparator);
-        for (Event event : events) {
-          eventManager.onGenericEvent(event.getEventClassFQN(), event.getEventData().array(),
-                  event.getSource());
-        }
+        eventManager.onGenericEvents(events);
       }
       if (response.getEventListenersResponses() != null
               && !response.getEventListenersResponses().isEmpty()) {
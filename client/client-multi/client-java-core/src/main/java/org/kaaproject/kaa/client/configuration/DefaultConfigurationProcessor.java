@@ -24,8 +24,10 @@ import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of {@link ConfigurationProcessor} using avro decoding mechanisms.
@@ -39,6 +41,8 @@ public class DefaultConfigurationProcessor implements
   private final List<GenericDeltaReceiver> onDeltaReceived = new LinkedList<>();
   private final List<ConfigurationProcessedObserver> onProcessed = new LinkedList<>();
   private Schema schema;
+  private GenericAvroConverter<GenericArray<GenericRecord>> converter;
+  private Map<Schema, Integer> deltaTypeIndexes;
 
   public DefaultConfigurationProcessor() {
 
@@ -52,14 +56,24 @@ public class DefaultConfigurationProcessor implements
         throw new ConfigurationRuntimeException(
                 "Can't process configuration update. Schema is null");
       }
-      GenericAvroConverter<GenericArray<GenericRecord>> converter =
-              new GenericAvroConverter<>(schema);
-      GenericArray<GenericRecord> deltaArray = converter.decodeBinary(buffer.array());
+      if (converter == null) {
+        converter = new GenericAvroConverter<>(schema);
+        deltaTypeIndexes = new IdentityHashMap<>();
+        List<Schema> deltaTypes = schema.getElementType().getField("delta").schema().getTypes();
+        for (int i = 0; i < deltaTypes.size(); i++) {
+          deltaTypeIndexes.put(deltaTypes.get(i), i);
+        }
+      }
+      GenericArray<GenericRecord> deltaArray = converter.decodeBinary(buffer.array(),
+              buffer.arrayOffset() + buffer.position(), buffer.remaining(), null);
 
       for (GenericRecord delta : deltaArray) {
         GenericRecord record = (GenericRecord) delta.get("delta");
-        int index = delta.getSchema().getField("delta").schema().getTypes().indexOf(
-                record.getSchema());
+        Integer index = deltaTypeIndexes.get(record.getSchema());
+        if (index == null) {
+          index = delta.getSchema().getField("delta").schema().getTypes().indexOf(
+                  record.getSchema());
+        }
         for (GenericDeltaReceiver subscriber : onDeltaReceived) {
           subscriber.onDeltaReceived(index, record, fullResync);
         }
@@ -75,6 +89,7 @@ public class DefaultConfigurationProcessor implements
   public synchronized void onSchemaUpdated(Schema schema) {
     if (schema != null) {
       this.schema = schema;
+      this.converter = null;
     }
   }
 
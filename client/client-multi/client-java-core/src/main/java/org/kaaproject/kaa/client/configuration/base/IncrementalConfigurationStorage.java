@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.configuration.base;
+
+import org.kaaproject.kaa.client.configuration.storage.ConfigurationStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * File based {@link ConfigurationStorage} that rewrites only the changed parts of the stored
+ * configuration.
+ *
+ * <p>The file is split into fixed-size blocks. On save every block of the new configuration is
+ * compared with the last saved or loaded snapshot (or with the file itself if there is none yet)
+ * and only blocks that differ are written, followed by a truncate if the configuration shrank.
+ * A small change in a large configuration therefore costs a few block writes instead of a full
+ * rewrite. If the process dies in the middle of a save the file may mix old and new blocks; its
+ * hash then no longer matches any configuration known to the server, which makes the server send
+ * the full configuration again on the next sync.</p>
+ */
+public class IncrementalConfigurationStorage implements ConfigurationStorage {
+  private static final int DEFAULT_BLOCK_SIZE = 4 * 1024;
+  private static final Logger LOG = LoggerFactory.getLogger(IncrementalConfigurationStorage.class);
+
+  private final File file;
+  private final int blockSize;
+  private byte[] snapshot;
+
+  public IncrementalConfigurationStorage(String path) {
+    this(path, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Creates storage that compares and writes configuration in blocks of the given size.
+   *
+   * @param path      the configuration file path
+   * @param blockSize the block size in bytes
+   */
+  public IncrementalConfigurationStorage(String path, int blockSize) {
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size should be positive");
+    }
+    this.file = new File(path);
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  public synchronized void clearConfiguration() throws IOException {
+    snapshot = null;
+    if (file.exists()) {
+      if (!file.delete()) {
+        throw new IOException("Failed to delete configuration file " + file);
+      }
+    } else {
+      LOG.trace("There is no configuration to clear yet");
+    }
+  }
+
+  @Override
+  public synchronized void saveConfiguration(ByteBuffer buffer) throws IOException {
+    byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    if (file.getParentFile() != null && !file.getParentFile().exists()) {
+      file.getParentFile().mkdirs();
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      FileChannel channel = raf.getChannel();
+      long oldLength = channel.size();
+      byte[] previous = snapshot != null && snapshot.length == oldLength ? snapshot : null;
+      ByteBuffer stored = previous == null ? ByteBuffer.allocate(blockSize) : null;
+      int written = 0;
+      for (int offset = 0; offset < data.length; offset += blockSize) {
+        int length = Math.min(blockSize, data.length - offset);
+        boolean changed;
+        if (offset + length > oldLength) {
+          changed = true;
+        } else if (previous != null) {
+          changed = !regionEquals(data, previous, offset, length);
+        } else {
+          stored.clear();
+          stored.limit(length);
+          while (stored.hasRemaining()) {
+            if (channel.read(stored, offset + stored.position()) < 0) {
+              break;
+            }
+          }
+          changed = stored.position() != length
+              || !regionEquals(data, stored.array(), offset, length, 0);
+        }
+        if (changed) {
+          ByteBuffer block = ByteBuffer.wrap(data, offset, length);
+          long position = offset;
+          while (block.hasRemaining()) {
+            position += channel.write(block, position);
+          }
+          written++;
+        }
+      }
+      if (oldLength > data.length) {
+        channel.truncate(data.length);
+      }
+      if (written > 0 || oldLength != data.length) {
+        channel.force(false);
+      }
+      LOG.trace("Written {} changed blocks of {} bytes configuration", written, data.length);
+    } catch (IOException ex) {
+      snapshot = null;
+      throw ex;
+    }
+    snapshot = data;
+  }
+
+  @Override
+  public synchronized ByteBuffer loadConfiguration() throws IOException {
+    if (!file.exists()) {
+      LOG.trace("There is no configuration in storage yet");
+      return null;
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      FileChannel channel = raf.getChannel();
+      long size = channel.size();
+      if (size == 0) {
+        snapshot = null;
+        return null;
+      }
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Configuration file is too large: " + size);
+      }
+      ByteBuffer data = ByteBuffer.allocate((int) size);
+      while (data.hasRemaining()) {
+        if (channel.read(data) < 0) {
+          break;
+        }
+      }
+      data.flip();
+      snapshot = data.remaining() == size ? data.array().clone() : null;
+      return data;
+    }
+  }
+
+  private static boolean regionEquals(byte[] data, byte[] other, int offset, int length) {
+    return regionEquals(data, other, offset, length, offset);
+  }
+
+  private static boolean regionEquals(byte[] data, byte[] other, int offset, int length,
+                                      int otherOffset) {
+    for (int i = 0; i < length; i++) {
+      if (data[offset + i] != other[otherOffset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -30,33 +30,46 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Default {@link EventManager} implementation.
  *
+ * <p>Outgoing events are kept in a concurrent queue that is drained into the next event sync
+ * request, and transactions are tracked in a concurrent map. Producers take the sequence number
+ * and enqueue the event under a short lock, so the queue is always in sequence number order and
+ * the server never sees an event overtaken by a later one. Incoming events are grouped by event
+ * family and each family gets its batch in a single callback task.</p>
+ *
  * @author Taras Lemkin
  */
 public class DefaultEventManager implements EventManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultEventManager.class);
   private final Set<EventFamily> registeredEventFamilies = new HashSet<EventFamily>();
-  private final List<Event> currentEvents = new LinkedList<Event>();
-  private final Object eventsGuard = new Object();
-  private final Object trxGuard = new Object();
-  private final Map<Integer, EventListenersRequestBinding> eventListenersRequests =
-          new HashMap<Integer, EventListenersRequestBinding>();
+  private final Queue<Event> currentEvents = new ConcurrentLinkedQueue<Event>();
+  private final Object sequenceLock = new Object();
+  private final ConcurrentMap<Integer, EventListenersRequestBinding> eventListenersRequests =
+          new ConcurrentHashMap<Integer, EventListenersRequestBinding>();
   private final EventTransport transport;
   private final KaaClientState state;
   private final ExecutorContext executorContext;
-  private final Map<TransactionId, List<Event>> transactions = new HashMap<>();
-  private Boolean isEngaged = false;
+  private final ConcurrentMap<TransactionId, Queue<Event>> transactions =
+          new ConcurrentHashMap<>();
+  private final Random random = new Random();
+  private volatile Map<String, List<EventFamily>> familiesByFqn;
+  private volatile boolean isEngaged = false;
 
   /**
    * All-args constructor.
@@ -88,9 +101,7 @@ public class DefaultEventManager implements EventManager {
 
   @Override
   public void clearState() {
-    synchronized (eventsGuard) {
-      currentEvents.clear();
-    }
+    currentEvents.clear();
   }
 
   @Override
@@ -101,54 +112,115 @@ public class DefaultEventManager implements EventManager {
   @Override
   public void produceEvent(String eventFqn, byte[] data, String target, TransactionId trxId) {
     if (trxId == null) {
-      LOG.info("Producing event [eventClassFQN: {}, target: {}]", eventFqn,
+      LOG.debug("Producing event [eventClassFQN: {}, target: {}]", eventFqn,
               (target != null ? target : "broadcast")); // NOSONAR
-      synchronized (eventsGuard) {
-        currentEvents.add(new Event(state.getAndIncrementEventSeqNum(), eventFqn,
-                ByteBuffer.wrap(data), null, target));
+      Event event = new Event(-1, eventFqn, ByteBuffer.wrap(data), null, target);
+      synchronized (sequenceLock) {
+        event.setSeqNum(state.getAndIncrementEventSeqNum());
+        currentEvents.offer(event);
       }
       if (!isEngaged) {
         transport.sync();
       }
     } else {
-      LOG.info("Adding event [eventClassFQN: {}, target: {}] to transaction {}",
+      LOG.debug("Adding event [eventClassFQN: {}, target: {}] to transaction {}",
               eventFqn, target != null ? target : "broadcast", trxId); // NOSONAR
-      synchronized (trxGuard) {
-        List<Event> events = transactions.get(trxId);
-        if (events != null) {
-          events.add(new Event(-1, eventFqn, ByteBuffer.wrap(data), null, target));
-        } else {
-          LOG.warn("Transaction with id {} is missing. Ignoring event");
-        }
+      Queue<Event> events = transactions.get(trxId);
+      if (events != null) {
+        events.offer(new Event(-1, eventFqn, ByteBuffer.wrap(data), null, target));
+      } else {
+        LOG.warn("Transaction with id {} is missing. Ignoring event", trxId);
       }
     }
   }
 
   @Override
   public void registerEventFamily(EventFamily eventFamily) {
-    registeredEventFamilies.add(eventFamily);
+    synchronized (registeredEventFamilies) {
+      registeredEventFamilies.add(eventFamily);
+      familiesByFqn = null;
+    }
   }
 
   @Override
   public void onGenericEvent(final String eventFqn, final byte[] data, final String source) {
     LOG.info("Received event [eventClassFQN: {}]", eventFqn);
-    for (final EventFamily family : registeredEventFamilies) {
-      LOG.info("Lookup event fqn {} in family {}", eventFqn, family);
-      if (family.getSupportedEventFqns().contains(eventFqn)) {
-        LOG.info("Event fqn {} found in family {}", eventFqn, family);
-        executorContext.getCallbackExecutor().submit(new Runnable() {
-          @Override
-          public void run() {
-            family.onGenericEvent(eventFqn, data, source);
+    for (final EventFamily family : getFamilies(eventFqn)) {
+      LOG.debug("Event fqn {} found in family {}", eventFqn, family);
+      executorContext.getCallbackExecutor().submit(new Runnable() {
+        @Override
+        public void run() {
+          family.onGenericEvent(eventFqn, data, source);
+        }
+      });
+    }
+  }
+
+  @Override
+  public void onGenericEvents(List<Event> events) {
+    LOG.info("Received {} event{}", events.size(), (events.size() == 1 ? "" : "s")); // NOSONAR
+    Map<EventFamily, List<Event>> batches = new LinkedHashMap<>();
+    for (Event event : events) {
+      for (EventFamily family : getFamilies(event.getEventClassFQN())) {
+        List<Event> batch = batches.get(family);
+        if (batch == null) {
+          batch = new ArrayList<>();
+          batches.put(family, batch);
+        }
+        batch.add(event);
+      }
+    }
+    for (final Map.Entry<EventFamily, List<Event>> batch : batches.entrySet()) {
+      LOG.debug("Delivering {} events to family {}", batch.getValue().size(), batch.getKey());
+      executorContext.getCallbackExecutor().submit(new Runnable() {
+        @Override
+        public void run() {
+          EventFamily family = batch.getKey();
+          for (Event event : batch.getValue()) {
+            family.onGenericEvent(event.getEventClassFQN(), event.getEventData().array(),
+                    event.getSource());
           }
-        });
+        }
+      });
+    }
+  }
+
+  /**
+   * Returns the registered families that support the event class, building the lookup index on
+   * first use after a family was registered.
+   */
+  private List<EventFamily> getFamilies(String eventFqn) {
+    Map<String, List<EventFamily>> index = familiesByFqn;
+    if (index == null) {
+      synchronized (registeredEventFamilies) {
+        index = familiesByFqn;
+        if (index == null) {
+          index = new HashMap<>();
+          for (EventFamily family : registeredEventFamilies) {
+            Set<String> fqns = family.getSupportedEventFqns();
+            if (fqns == null) {
+              continue;
+            }
+            for (String fqn : fqns) {
+              List<EventFamily> families = index.get(fqn);
+              if (families == null) {
+                families = new ArrayList<>(1);
+                index.put(fqn, families);
+              }
+              families.add(family);
+            }
+          }
+          familiesByFqn = index;
+        }
       }
     }
+    List<EventFamily> families = index.get(eventFqn);
+    return families != null ? families : Collections.<EventFamily>emptyList();
   }
 
   @Override
   public int findEventListeners(List<String> eventFqns, FindEventListenersCallback listener) {
-    int requestId = new Random().nextInt();
+    int requestId = random.nextInt();
     EventListenersRequest request = new EventListenersRequest(requestId, eventFqns);
     EventListenersRequestBinding bind = new EventListenersRequestBinding(listener, request);
     eventListenersRequests.put(requestId, bind);
@@ -192,11 +264,13 @@ public class DefaultEventManager implements EventManager {
 
   private List<Event> getPendingEvents(boolean clear) {
     List<Event> pendingEvents = new ArrayList<Event>();
-    synchronized (eventsGuard) {
-      pendingEvents.addAll(currentEvents);
-      if (clear) {
-        currentEvents.clear();
+    if (clear) {
+      Event event;
+      while ((event = currentEvents.poll()) != null) {
+        pendingEvents.add(event);
       }
+    } else {
+      pendingEvents.addAll(currentEvents);
     }
     return pendingEvents;
   }
@@ -204,11 +278,8 @@ public class DefaultEventManager implements EventManager {
   @Override
   public TransactionId beginTransaction() {
     TransactionId trxId = new TransactionId();
-    synchronized (trxGuard) {
-      if (!transactions.containsKey(trxId)) {
-        LOG.debug("Creating events transaction with id {}", trxId);
-        transactions.put(trxId, new LinkedList<Event>());
-      }
+    if (transactions.putIfAbsent(trxId, new ConcurrentLinkedQueue<Event>()) == null) {
+      LOG.debug("Creating events transaction with id {}", trxId);
     }
     return trxId;
   }
@@ -216,43 +287,42 @@ public class DefaultEventManager implements EventManager {
   @Override
   public void commit(TransactionId trxId) {
     LOG.debug("Commiting events transaction with id {}", trxId);
-    synchronized (trxGuard) {
-      List<Event> eventsToCommit = transactions.remove(trxId);
-      synchronized (eventsGuard) {
-        for (Event e : eventsToCommit) {
-          e.setSeqNum(state.getAndIncrementEventSeqNum());
-          currentEvents.add(e);
-        }
-      }
-      if (!isEngaged) {
-        transport.sync();
+    Queue<Event> eventsToCommit = transactions.remove(trxId);
+    if (eventsToCommit == null) {
+      LOG.debug("Transaction with id {} was not created", trxId);
+      return;
+    }
+    synchronized (sequenceLock) {
+      for (Event e : eventsToCommit) {
+        e.setSeqNum(state.getAndIncrementEventSeqNum());
+        currentEvents.offer(e);
       }
-
+    }
+    if (!isEngaged) {
+      transport.sync();
     }
   }
 
   @Override
   public void rollback(TransactionId trxId) {
     LOG.debug("Rolling back events transaction with id {}", trxId);
-    synchronized (trxGuard) {
-      List<Event> eventsToRemove = transactions.remove(trxId);
-      if (eventsToRemove != null) {
-        for (Event e : eventsToRemove) {
-          LOG.trace("Removing event {}", e);
-        }
-      } else {
-        LOG.debug("Transaction with id {} was not created", trxId);
+    Queue<Event> eventsToRemove = transactions.remove(trxId);
+    if (eventsToRemove != null) {
+      for (Event e : eventsToRemove) {
+        LOG.trace("Removing event {}", e);
       }
+    } else {
+      LOG.debug("Transaction with id {} was not created", trxId);
     }
   }
 
   @Override
-  public synchronized void engageDataChannel() {
+  public void engageDataChannel() {
     isEngaged = true;
   }
 
   @Override
-  public synchronized boolean releaseDataChannel() {
+  public boolean releaseDataChannel() {
     isEngaged = false;
     boolean needSync = !currentEvents.isEmpty();
     if (!needSync) {
@@ -266,7 +336,7 @@ public class DefaultEventManager implements EventManager {
   private class EventListenersRequestBinding {
     private final FindEventListenersCallback listener;
     private final EventListenersRequest request;
-    private Boolean sent;
+    private volatile Boolean sent;
 
     public EventListenersRequestBinding(
             FindEventListenersCallback listener, EventListenersRequest request) {
@@ -67,6 +67,14 @@ public interface EventManager extends EventListenersResolver, Transactable {
    */
   void onGenericEvent(String eventFqn, byte[] data, String source);
 
+  /**
+   * Retrieves a batch of events. Each event family receives its events in the given order
+   * within a single callback task.
+   *
+   * @param events Events received in one sync response
+   */
+  void onGenericEvents(List<Event> events);
+
   /**
    * Called when SyncResponse contains resolved list of endpoints which
    * support FQNs given in a request before.
@@ -17,6 +17,7 @@
 package org.kaaproject.kaa.client.logging;
 
 import org.kaaproject.kaa.client.channel.KaaChannelManager;
+import org.kaaproject.kaa.client.channel.KaaDataChannel;
 import org.kaaproject.kaa.client.channel.LogTransport;
 import org.kaaproject.kaa.client.channel.TransportConnectionInfo;
 import org.kaaproject.kaa.client.channel.failover.FailoverManager;
@@ -24,7 +25,9 @@ import org.kaaproject.kaa.client.channel.failover.FailoverStatus;
 import org.kaaproject.kaa.client.context.ExecutorContext;
 import org.kaaproject.kaa.client.logging.future.RecordFuture;
 import org.kaaproject.kaa.client.logging.memory.MemLogStorage;
+import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.common.TransportType;
+import org.kaaproject.kaa.common.endpoint.compression.LogEntryCompressor;
 import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryErrorCode;
 import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryStatus;
 import org.kaaproject.kaa.common.endpoint.gen.LogEntry;
@@ -36,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -57,6 +61,7 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
   protected final Map<Integer, BucketInfo> bucketInfoMap = new ConcurrentHashMap<>();
   private final LogTransport transport;
   private final ConcurrentHashMap<Integer, Future<?>> timeouts = new ConcurrentHashMap<>();
+  private final Map<Integer, Long> uploadStartTimes = new ConcurrentHashMap<>();
   private final KaaChannelManager channelManager;
   private final FailoverManager failoverManager;
   private final LogFailoverCommand controller;
@@ -65,6 +70,7 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
   private LogUploadStrategy strategy;
   private LogDeliveryListener logDeliveryListener;
   private boolean uploadCheckInProgress = false;
+  private volatile boolean logCompressionEnabled;
 
   /**
    * All-args constructor.
@@ -98,6 +104,24 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
     LOG.info("New log storage was set {}", storage);
   }
 
+  /**
+   * Enables uploading the records of each bucket as a single compressed log entry. Buckets are
+   * only compressed while the channel that carries logs uses the
+   * {@link Constants#KAA_PLATFORM_PROTOCOL_AVRO_ID_V3} platform protocol; other channels get
+   * the records as is.
+   *
+   * @param logCompressionEnabled true to compress log records
+   */
+  public void setLogCompressionEnabled(boolean logCompressionEnabled) {
+    this.logCompressionEnabled = logCompressionEnabled;
+  }
+
+  private boolean isCompressionSupported() {
+    KaaDataChannel channel = channelManager.getActiveChannel(TransportType.LOGGING);
+    return channel != null
+        && channel.getPlatformProtocolId() == Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V3;
+  }
+
   @Override
   public void fillSyncRequest(LogSyncRequest request) {
     if (!isUploadAllowed()) {
@@ -116,8 +140,22 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
     LOG.trace("Sending {} log records", recordList.size());
 
     List<LogEntry> logs = new LinkedList<>();
-    for (LogRecord record : recordList) {
-      logs.add(new LogEntry(ByteBuffer.wrap(record.getData())));
+    if (logCompressionEnabled && isCompressionSupported()) {
+      List<byte[]> records = new ArrayList<>(recordList.size());
+      for (LogRecord record : recordList) {
+        records.add(record.getData());
+      }
+      try {
+        logs.add(new LogEntry(ByteBuffer.wrap(LogEntryCompressor.compress(records))));
+      } catch (IOException ex) {
+        LOG.error("Failed to compress log bucket [{}]", bucket.getBucketId(), ex);
+        storage.rollbackBucket(bucket.getBucketId());
+        return;
+      }
+    } else {
+      for (LogRecord record : recordList) {
+        logs.add(new LogEntry(ByteBuffer.wrap(record.getData())));
+      }
     }
 
     request.setRequestId(bucket.getBucketId());
@@ -137,6 +175,7 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
 
     LOG.info("Adding following bucket id [{}] for timeout tracking", bucket.getBucketId());
     timeouts.put(bucket.getBucketId(), timeoutFuture);
+    uploadStartTimes.put(bucket.getBucketId(), System.currentTimeMillis());
   }
 
   @Override
@@ -147,6 +186,7 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
         final int requestId = response.getRequestId();
         final BucketInfo bucketInfo = bucketInfoMap.get(requestId);
         final long arriveTime = System.currentTimeMillis();
+        final Long uploadStartTime = uploadStartTimes.remove(requestId);
         if (bucketInfo != null) {
           bucketInfoMap.remove(requestId);
           if (response.getResult() == SyncResponseResultType.SUCCESS) {
@@ -161,6 +201,17 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
               });
             }
 
+            if (uploadStartTime != null && strategy instanceof LogDeliveryStatisticsListener) {
+              final LogDeliveryStatisticsListener statisticsListener =
+                  (LogDeliveryStatisticsListener) strategy;
+              executorContext.getCallbackExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                  statisticsListener.onLogDelivered(bucketInfo, arriveTime - uploadStartTime);
+                }
+              });
+            }
+
             executorContext.getCallbackExecutor().execute(new Runnable() {
               @Override
               public void run() {
@@ -218,6 +269,7 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
       timeoutFuture.cancel(true);
     }
     timeouts.clear();
+    uploadStartTimes.clear();
   }
 
   private void processUploadDecision(LogUploadStrategyDecision decision) {
@@ -264,6 +316,7 @@ public abstract class AbstractLogCollector implements LogCollector, LogProcessor
     Future<?> timeoutFuture = timeouts.remove(bucketId);
 
     if (timeoutFuture != null) {
+      uploadStartTimes.remove(bucketId);
       LOG.info("Log delivery timeout detected for the bucket with id: [{}]", bucketId);
 
       storage.rollbackBucket(bucketId);
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.logging;
+
+/**
+ * Receives the delivery times of log buckets. A {@link LogUploadStrategy} that implements this
+ * interface is notified by the log collector each time a bucket is delivered, so it can adapt
+ * its upload decisions to the observed network conditions.
+ */
+public interface LogDeliveryStatisticsListener {
+
+  /**
+   * Called when the server confirms the delivery of a log bucket.
+   *
+   * @param bucketInfo   the delivered bucket
+   * @param deliveryTime the time between sending the bucket and receiving the confirmation,
+   *                     in milliseconds
+   */
+  void onLogDelivered(BucketInfo bucketInfo, long deliveryTime);
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.logging.strategies;
+
+import org.kaaproject.kaa.client.logging.BucketInfo;
+import org.kaaproject.kaa.client.logging.DefaultLogUploadStrategy;
+import org.kaaproject.kaa.client.logging.LogDeliveryStatisticsListener;
+import org.kaaproject.kaa.client.logging.LogFailoverCommand;
+import org.kaaproject.kaa.client.logging.LogStorageStatus;
+import org.kaaproject.kaa.client.logging.LogUploadStrategy;
+import org.kaaproject.kaa.client.logging.LogUploadStrategyDecision;
+import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LogUploadStrategy} that tunes the upload thresholds from the observed delivery time,
+ * the failure rate and the storage backlog.
+ *
+ * <p>While buckets are delivered within the target delivery time, the count and volume
+ * thresholds grow additively, so that records are uploaded in fewer, larger requests. When the
+ * average delivery time exceeds the target, the thresholds shrink by a quarter, unless the
+ * storage backlog holds at least twice the count threshold: the delivery of such a backlog is
+ * delayed by queueing rather than by the request size, so larger requests drain it faster. On
+ * every failure or timeout the thresholds are halved. Failed uploads are retried with an
+ * exponential backoff that starts at the minimum retry period and is capped by the retry period.
+ * While the failure rate is high, only one upload is kept in flight.
+ *
+ * <p>Since each upload request carries a single log bucket, the maximum thresholds default to
+ * the bucket limits of {@link org.kaaproject.kaa.client.logging.memory.MemLogStorage} and
+ * should be kept in line with the limits of the storage in use.
+ *
+ * <p>Records are uploaded regardless of the thresholds once the storage backlog exceeds the
+ * maximum backlog volume, or once no upload was started for the upload time limit.
+ */
+public class AdaptiveLogUploadStrategy extends DefaultLogUploadStrategy
+        implements LogDeliveryStatisticsListener {
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveLogUploadStrategy.class);
+
+  private static final int DEFAULT_MIN_COUNT_THRESHOLD = 8;
+  private static final int DEFAULT_MAX_COUNT_THRESHOLD = 256;
+  private static final int DEFAULT_MIN_VOLUME_THRESHOLD = 1024;
+  private static final int DEFAULT_MAX_VOLUME_THRESHOLD = 16 * 1024;
+  private static final long DEFAULT_TARGET_DELIVERY_TIME = 5000;
+  private static final long DEFAULT_MAX_BACKLOG_VOLUME = 512 * 1024;
+  private static final int DEFAULT_UPLOAD_TIME_LIMIT = 5 * 60;
+  private static final int DEFAULT_MIN_RETRY_PERIOD = 5;
+  private static final double HIGH_FAILURE_RATE = 0.5;
+  private static final double SMOOTHING = 0.2;
+
+  protected int minCountThreshold = DEFAULT_MIN_COUNT_THRESHOLD;
+  protected int maxCountThreshold = DEFAULT_MAX_COUNT_THRESHOLD;
+  protected int minVolumeThreshold = DEFAULT_MIN_VOLUME_THRESHOLD;
+  protected int maxVolumeThreshold = DEFAULT_MAX_VOLUME_THRESHOLD;
+  protected long targetDeliveryTime = DEFAULT_TARGET_DELIVERY_TIME;
+  protected long maxBacklogVolume = DEFAULT_MAX_BACKLOG_VOLUME;
+  protected int uploadTimeLimit = DEFAULT_UPLOAD_TIME_LIMIT;
+  protected int minRetryPeriod = DEFAULT_MIN_RETRY_PERIOD;
+
+  private int configuredMaxParallelUploads = maxParallelUploads;
+  private double averageDeliveryTime;
+  private double failureRate;
+  private int consecutiveFailures;
+  private long lastUploadTime = -1;
+  private long backlogCount;
+
+  @Override
+  protected synchronized LogUploadStrategyDecision checkUploadNeeded(LogStorageStatus status) {
+    LogUploadStrategyDecision decision = super.checkUploadNeeded(status);
+    backlogCount = status.getRecordCount();
+    long currentTime = currentTimeMillis();
+    if (lastUploadTime < 0) {
+      lastUploadTime = currentTime;
+    }
+    if (decision == LogUploadStrategyDecision.NOOP && status.getRecordCount() > 0) {
+      if (status.getConsumedVolume() >= maxBacklogVolume) {
+        LOG.info("Need to upload logs - backlog volume: {}, limit: {}",
+                status.getConsumedVolume(), maxBacklogVolume);
+        decision = LogUploadStrategyDecision.UPLOAD;
+      } else if ((currentTime - lastUploadTime) / 1000 >= uploadTimeLimit) {
+        LOG.info("Need to upload logs - last upload time: {}, time limit: {}",
+                lastUploadTime, uploadTimeLimit);
+        decision = LogUploadStrategyDecision.UPLOAD;
+      }
+    }
+    if (decision == LogUploadStrategyDecision.UPLOAD) {
+      lastUploadTime = currentTime;
+    }
+    return decision;
+  }
+
+  @Override
+  public synchronized void onLogDelivered(BucketInfo bucketInfo, long deliveryTime) {
+    averageDeliveryTime = averageDeliveryTime == 0
+        ? deliveryTime : smooth(averageDeliveryTime, deliveryTime);
+    failureRate = smooth(failureRate, 0);
+    consecutiveFailures = 0;
+    if (averageDeliveryTime <= targetDeliveryTime || backlogCount >= 2L * countThreshold) {
+      setThresholds(countThreshold + minCountThreshold, volumeThreshold + minVolumeThreshold);
+    } else {
+      setThresholds(countThreshold * 3 / 4, volumeThreshold * 3 / 4);
+    }
+    updateMaxParallelUploads();
+    LOG.debug("Log bucket [{}] delivered in {} ms, average: {} ms, "
+            + "thresholds: {} records, {} bytes", bucketInfo.getBucketId(), deliveryTime,
+            (long) averageDeliveryTime, countThreshold, volumeThreshold);
+  }
+
+  @Override
+  public void onTimeout(LogFailoverCommand controller) {
+    controller.retryLogUpload(onDeliveryFailed());
+  }
+
+  @Override
+  public void onFailure(LogFailoverCommand controller, LogDeliveryErrorCode code) {
+    int retryDelay = onDeliveryFailed();
+    switch (code) {
+      case NO_APPENDERS_CONFIGURED:
+      case APPENDER_INTERNAL_ERROR:
+      case REMOTE_CONNECTION_ERROR:
+      case REMOTE_INTERNAL_ERROR:
+        controller.retryLogUpload(retryDelay);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private synchronized int onDeliveryFailed() {
+    failureRate = smooth(failureRate, 1);
+    consecutiveFailures++;
+    setThresholds(countThreshold / 2, volumeThreshold / 2);
+    updateMaxParallelUploads();
+    int retryDelay = retryPeriod;
+    if (consecutiveFailures < 31 && (minRetryPeriod << (consecutiveFailures - 1)) < retryPeriod) {
+      retryDelay = minRetryPeriod << (consecutiveFailures - 1);
+    }
+    LOG.info("Log delivery failed {} times in a row, failure rate: {}, retry in {} sec",
+            consecutiveFailures, failureRate, retryDelay);
+    return retryDelay;
+  }
+
+  private void setThresholds(int count, int volume) {
+    countThreshold = Math.max(minCountThreshold, Math.min(maxCountThreshold, count));
+    volumeThreshold = Math.max(minVolumeThreshold, Math.min(maxVolumeThreshold, volume));
+  }
+
+  private void updateMaxParallelUploads() {
+    super.setMaxParallelUploads(failureRate >= HIGH_FAILURE_RATE
+        ? 1 : configuredMaxParallelUploads);
+  }
+
+  private static double smooth(double average, double value) {
+    return average + SMOOTHING * (value - average);
+  }
+
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public synchronized void setMaxParallelUploads(int maxParallelUploads) {
+    configuredMaxParallelUploads = maxParallelUploads;
+    updateMaxParallelUploads();
+  }
+
+  @Override
+  public synchronized int getCountThreshold() {
+    return countThreshold;
+  }
+
+  @Override
+  public synchronized int getVolumeThreshold() {
+    return volumeThreshold;
+  }
+
+  public synchronized double getAverageDeliveryTime() {
+    return averageDeliveryTime;
+  }
+
+  public synchronized double getFailureRate() {
+    return failureRate;
+  }
+
+  public void setCountThresholdRange(int minCountThreshold, int maxCountThreshold) {
+    this.minCountThreshold = minCountThreshold;
+    this.maxCountThreshold = maxCountThreshold;
+  }
+
+  public void setVolumeThresholdRange(int minVolumeThreshold, int maxVolumeThreshold) {
+    this.minVolumeThreshold = minVolumeThreshold;
+    this.maxVolumeThreshold = maxVolumeThreshold;
+  }
+
+  public void setTargetDeliveryTime(long targetDeliveryTime) {
+    this.targetDeliveryTime = targetDeliveryTime;
+  }
+
+  public void setMaxBacklogVolume(long maxBacklogVolume) {
+    this.maxBacklogVolume = maxBacklogVolume;
+  }
+
+  public void setUploadTimeLimit(int uploadTimeLimit) {
+    this.uploadTimeLimit = uploadTimeLimit;
+  }
+
+  public void setMinRetryPeriod(int minRetryPeriod) {
+    this.minRetryPeriod = minRetryPeriod;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link PersistentStorage} that is able to append data to the end of an existing file. Storages
+ * implementing this interface let {@link KaaClientPropertiesState} keep a state journal instead of
+ * rewriting the whole state file on every change.
+ */
+public interface AppendablePersistentStorage extends PersistentStorage {
+
+  /**
+   * Opens the file for appending. The file is created if it does not exist.
+   *
+   * @param path the file path
+   * @return stream positioned at the end of the file
+   * @throws IOException if the file can't be opened
+   */
+  OutputStream openForAppend(String path) throws IOException;
+}
@@ -23,7 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-public class FilePersistentStorage implements PersistentStorage {
+public class FilePersistentStorage implements AppendablePersistentStorage {
 
   @Override
   public InputStream openForRead(String path) throws IOException {
@@ -39,6 +39,15 @@ public class FilePersistentStorage implements PersistentStorage {
     return new FileOutputStream(file);
   }
 
+  @Override
+  public OutputStream openForAppend(String path) throws IOException {
+    File file = new File(path);
+    if (file.getParentFile() != null && !file.getParentFile().exists()) {
+      file.getParentFile().mkdirs();
+    }
+    return new FileOutputStream(file, true);
+  }
+
   @Override
   public boolean exists(String path) {
     return new File(path).exists();
@@ -55,9 +55,11 @@ import java.security.PublicKey;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -86,6 +88,22 @@ public class KaaClientPropertiesState implements KaaClientState {
 
   private static final String NEED_PROFILE_RESYNC = "need.profile.resync";
 
+  private static final String JOURNAL_EPOCH = "journal.epoch";
+
+  private static final String BACKUP_SUFFIX = "_bckp";
+  private static final String JOURNAL_SUFFIX = "_journal";
+
+  /**
+   * Size of the state journal in bytes after which the next {@link #persist()} call compacts it
+   * into a new state snapshot.
+   */
+  private static final long JOURNAL_COMPACTION_THRESHOLD = 32 * 1024;
+
+  /**
+   * Number of journal appends after which the journal is synced to the storage device.
+   */
+  private static final int JOURNAL_SYNC_INTERVAL = 16;
+
   private final PersistentStorage storage;
   private final Base64 base64;
   private final Properties state;
@@ -98,6 +116,21 @@ public class KaaClientPropertiesState implements KaaClientState {
   private final AtomicInteger eventSequence = new AtomicInteger();
   private Integer topicListHash;
 
+  private final KaaClientStateJournal journal;
+  private final Random epochGenerator = new Random();
+  /**
+   * Guards the tracked state and the set of changes not yet persisted. {@link #persist()}
+   * swaps the changes out under this lock and writes them without holding it.
+   */
+  private final Object changesLock = new Object();
+  private final Map<String, String> changedProperties = new LinkedHashMap<>();
+  private final Map<Long, Integer> changedSubscriptions = new LinkedHashMap<>();
+  private boolean topicsChanged = false;
+  private boolean attachedEndpointsChanged = false;
+  private boolean eventSeqNumChanged = false;
+  private boolean topicListHashChanged = false;
+  private boolean snapshotRequired = true;
+
   private KeyPair keyPair;
   private EndpointKeyHash keyHash;
   private boolean isConfigVersionUpdated = false;
@@ -135,6 +168,13 @@ public class KaaClientPropertiesState implements KaaClientState {
 
     clientPublicKeyFileLocation = properties.getPublicKeyFileFullName();
 
+    if (storage instanceof AppendablePersistentStorage) {
+      journal = new KaaClientStateJournal((AppendablePersistentStorage) storage,
+          stateFileLocation + JOURNAL_SUFFIX, JOURNAL_SYNC_INTERVAL);
+    } else {
+      journal = null;
+    }
+
     LOG.info("Version: '{}', commit hash: '{}'", properties.getBuildVersion(),
             properties.getCommitHash());
 
@@ -144,6 +184,7 @@ public class KaaClientPropertiesState implements KaaClientState {
       try {
         stream = storage.openForRead(stateFileLocation);
         state.load(stream);
+        Map<Long, Integer> journaledSubscriptions = replayJournal();
 
         if (isSdkPropertiesUpdated(properties)) {
           LOG.info("SDK properties were updated");
@@ -157,6 +198,13 @@ public class KaaClientPropertiesState implements KaaClientState {
 
         parseTopics();
         parseNfSubscriptions();
+        for (Map.Entry<Long, Integer> subscription : journaledSubscriptions.entrySet()) {
+          if (subscription.getValue() != null) {
+            nfSubscriptions.put(subscription.getKey(), subscription.getValue());
+          } else {
+            nfSubscriptions.remove(subscription.getKey());
+          }
+        }
 
         String attachedEndpointsString = state.getProperty(ATTACHED_ENDPOINTS);
         if (attachedEndpointsString != null) {
@@ -202,6 +250,37 @@ public class KaaClientPropertiesState implements KaaClientState {
     }
   }
 
+  /**
+   * Applies the state journal on top of the loaded state snapshot. A state file without journal
+   * epoch (e.g. one written by a previous SDK version) is imported as is and compacted into a new
+   * snapshot on the next {@link #persist()} call.
+   *
+   * @return notification subscription changes found in the journal
+   */
+  private Map<Long, Integer> replayJournal() {
+    final Map<Long, Integer> subscriptions = new LinkedHashMap<>();
+    String epoch = state.getProperty(JOURNAL_EPOCH);
+    if (journal != null && epoch != null) {
+      try {
+        snapshotRequired = !journal.replay(Long.parseLong(epoch),
+            new KaaClientStateJournal.Listener() {
+              @Override
+              public void onProperty(String key, String value) {
+                state.setProperty(key, value);
+              }
+
+              @Override
+              public void onSubscription(Long topicId, Integer seqNum) {
+                subscriptions.put(topicId, seqNum);
+              }
+            });
+      } catch (NumberFormatException ex) {
+        LOG.error("Can't parse state journal epoch: {}", epoch);
+      }
+    }
+    return subscriptions;
+  }
+
   private void parseTopics() {
     if (state.getProperty(TOPIC_LIST) != null) {
       byte[] data = base64.decodeBase64(state.getProperty(TOPIC_LIST));
@@ -247,15 +326,44 @@ public class KaaClientPropertiesState implements KaaClientState {
   }
 
   private void setStateStringValue(String propertyKey, String value) {
-    Object previous = state.setProperty(propertyKey, value);
-    String previousString = previous == null ? null : previous.toString();
-    hasUpdate |= !value.equals(previousString);
+    synchronized (changesLock) {
+      Object previous = state.setProperty(propertyKey, value);
+      String previousString = previous == null ? null : previous.toString();
+      if (!value.equals(previousString)) {
+        changedProperties.put(propertyKey, value);
+        hasUpdate = true;
+      }
+    }
   }
 
   private void setStateBooleanValue(String propertyKey, boolean value) {
-    Object previous = state.setProperty(propertyKey, Boolean.toString(value));
-    boolean previousBoolean = previous == null ? false : Boolean.valueOf(previous.toString());
-    hasUpdate |= value != previousBoolean;
+    synchronized (changesLock) {
+      Object previous = state.setProperty(propertyKey, Boolean.toString(value));
+      boolean previousBoolean = previous == null ? false : Boolean.valueOf(previous.toString());
+      if (value != previousBoolean) {
+        changedProperties.put(propertyKey, Boolean.toString(value));
+        hasUpdate = true;
+      }
+    }
+  }
+
+  private void putSubscription(Long topicId, Integer seqNum) {
+    synchronized (changesLock) {
+      nfSubscriptions.put(topicId, seqNum);
+      changedSubscriptions.put(topicId, seqNum);
+      hasUpdate = true;
+    }
+  }
+
+  private boolean removeSubscription(Long topicId) {
+    synchronized (changesLock) {
+      if (nfSubscriptions.remove(topicId) != null) {
+        changedSubscriptions.put(topicId, null);
+        hasUpdate = true;
+        return true;
+      }
+      return false;
+    }
   }
 
   private void setPropertiesHash(byte[] hash) {
@@ -288,60 +396,163 @@ public class KaaClientPropertiesState implements KaaClientState {
   }
 
   @Override
-  public void persist() {
-    if (hasUpdate) {
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(baos, null);
-      SpecificDatumWriter<Topic> datumWriter = new SpecificDatumWriter<>(Topic.class);
+  public synchronized void persist() {
+    synchronized (changesLock) {
+      if (!hasUpdate) {
+        return;
+      }
+    }
+    if (journal != null && !snapshotRequired
+        && journal.getSize() < JOURNAL_COMPACTION_THRESHOLD && appendChanges()) {
+      return;
+    }
+    persistSnapshot();
+  }
+
+  /**
+   * Swaps out the pending changes and appends them to the journal. Changes made while the
+   * journal is written stay pending for the next {@link #persist()} call.
+   *
+   * @return false if the changes could not be journaled and a full snapshot is required
+   */
+  private boolean appendChanges() {
+    Map<String, String> properties;
+    Map<Long, Integer> subscriptions;
+    synchronized (changesLock) {
       try {
-        for (Topic topic : topicMap.values()) {
-          datumWriter.write(topic, encoder);
-          LOG.info("Persisted {}", topic);
-        }
-        encoder.flush();
-        String base64Str = new String(base64.encodeBase64(baos.toByteArray()),
-                Charset.forName("UTF-8"));
-        state.setProperty(TOPIC_LIST, base64Str);
+        properties = collectChangedProperties();
+      } catch (IOException ex) {
+        LOG.error("Can't encode state changes, persisting full state", ex);
+        return false;
+      }
+      subscriptions = new LinkedHashMap<>(changedSubscriptions);
+      resetChanges();
+    }
+    try {
+      journal.append(properties, subscriptions);
+      return true;
+    } catch (IOException ex) {
+      LOG.error("Can't append to state journal, persisting full state", ex);
+      return false;
+    }
+  }
+
+  private Map<String, String> collectChangedProperties() throws IOException {
+    Map<String, String> changed = new LinkedHashMap<>(changedProperties);
+    if (topicsChanged) {
+      changed.put(TOPIC_LIST, encodeTopics());
+    }
+    if (attachedEndpointsChanged) {
+      changed.put(ATTACHED_ENDPOINTS, encodeAttachedEndpoints());
+    }
+    if (eventSeqNumChanged) {
+      changed.put(EVENT_SEQ_NUM, "" + eventSequence.get());
+    }
+    if (topicListHashChanged && topicListHash != null) {
+      changed.put(TOPIC_LIST_HASH, "" + topicListHash);
+    }
+    return changed;
+  }
+
+  private void persistSnapshot() {
+    long epoch = epochGenerator.nextLong();
+    synchronized (changesLock) {
+      try {
+        state.setProperty(TOPIC_LIST, encodeTopics());
       } catch (IOException ex) {
         LOG.error("Can't persist topic list info", ex);
       }
 
-      baos = new ByteArrayOutputStream();
-      try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-        oos.writeObject(nfSubscriptions);
-        String base64Str = new String(base64.encodeBase64(baos.toByteArray()),
-                Charset.forName("UTF-8"));
-        state.setProperty(NF_SUBSCRIPTIONS, base64Str);
+      try {
+        state.setProperty(NF_SUBSCRIPTIONS, encodeNfSubscriptions());
       } catch (IOException ex) {
         LOG.error("Can't persist notification subscription info", ex);
       }
 
-      StringBuilder attachedEndpointsString = new StringBuilder();
-      for (Map.Entry<EndpointAccessToken, EndpointKeyHash> attached : attachedEndpoints
-              .entrySet()) {
-        attachedEndpointsString.append(attached.getKey().getToken()).append(":")
-                .append(attached.getValue().getKeyHash()).append(',');
-      }
-      state.setProperty(ATTACHED_ENDPOINTS, attachedEndpointsString.toString());
+      state.setProperty(ATTACHED_ENDPOINTS, encodeAttachedEndpoints());
       state.setProperty(EVENT_SEQ_NUM, "" + eventSequence.get());
       if (topicListHash != null) {
         state.setProperty(TOPIC_LIST_HASH, "" + topicListHash);
       }
 
-      OutputStream os = null;
+      if (journal != null) {
+        state.setProperty(JOURNAL_EPOCH, Long.toString(epoch));
+      }
+      // Everything changed so far is in the properties now. Changes made while the file
+      // is written stay pending for the next persist call.
+      resetChanges();
+    }
+
+    OutputStream os = null;
+    try {
+      storage.renameTo(stateFileLocation, stateFileLocation + BACKUP_SUFFIX);
+      os = storage.openForWrite(stateFileLocation);
+      state.store(os, null);
+      if (journal != null) {
+        KaaClientStateJournal.sync(os);
+      }
+    } catch (IOException ex) {
+      LOG.error("Can't persist state file", ex);
+      synchronized (changesLock) {
+        hasUpdate = true;
+      }
+      snapshotRequired = true;
+      return;
+    } finally {
+      IOUtils.closeQuietly(os);
+    }
+
+    if (journal != null) {
       try {
-        storage.renameTo(stateFileLocation, stateFileLocation + "_bckp");
-        os = storage.openForWrite(stateFileLocation);
-        state.store(os, null);
-        hasUpdate = false;
+        journal.reset(epoch);
+        snapshotRequired = false;
       } catch (IOException ex) {
-        LOG.error("Can't persist state file", ex);
-      } finally {
-        IOUtils.closeQuietly(os);
+        LOG.error("Can't reset state journal", ex);
+        snapshotRequired = true;
       }
     }
   }
 
+  private void resetChanges() {
+    changedProperties.clear();
+    changedSubscriptions.clear();
+    topicsChanged = false;
+    attachedEndpointsChanged = false;
+    eventSeqNumChanged = false;
+    topicListHashChanged = false;
+    hasUpdate = false;
+  }
+
+  private String encodeTopics() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(baos, null);
+    SpecificDatumWriter<Topic> datumWriter = new SpecificDatumWriter<>(Topic.class);
+    for (Topic topic : topicMap.values()) {
+      datumWriter.write(topic, encoder);
+      LOG.info("Persisted {}", topic);
+    }
+    encoder.flush();
+    return new String(base64.encodeBase64(baos.toByteArray()), Charset.forName("UTF-8"));
+  }
+
+  private String encodeNfSubscriptions() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(nfSubscriptions);
+    }
+    return new String(base64.encodeBase64(baos.toByteArray()), Charset.forName("UTF-8"));
+  }
+
+  private String encodeAttachedEndpoints() {
+    StringBuilder attachedEndpointsString = new StringBuilder();
+    for (Map.Entry<EndpointAccessToken, EndpointKeyHash> attached : attachedEndpoints
+            .entrySet()) {
+      attachedEndpointsString.append(attached.getKey().getToken()).append(":")
+              .append(attached.getValue().getKeyHash()).append(',');
+    }
+    return attachedEndpointsString.toString();
+  }
+
   @Override
   public String refreshEndpointAccessToken() {
     String newAccessToken = UUID.randomUUID().toString();
@@ -451,59 +662,66 @@ public class KaaClientPropertiesState implements KaaClientState {
 
   @Override
   public void addTopic(Topic topic) {
-    if (topicMap.get(topic.getId()) == null) {
-      topicMap.put(topic.getId(), topic);
-      if (topic.getSubscriptionType() == SubscriptionType.MANDATORY_SUBSCRIPTION) {
-        nfSubscriptions.put(topic.getId(), 0);
-        LOG.info("Adding new seqNumber 0 for {} subscription", topic.getId());
+    synchronized (changesLock) {
+      if (topicMap.get(topic.getId()) == null) {
+        topicMap.put(topic.getId(), topic);
+        if (topic.getSubscriptionType() == SubscriptionType.MANDATORY_SUBSCRIPTION) {
+          putSubscription(topic.getId(), 0);
+          LOG.info("Adding new seqNumber 0 for {} subscription", topic.getId());
+        }
+        topicsChanged = true;
+        hasUpdate = true;
+        LOG.info("Adding new topic with id {}", topic.getId());
       }
-      hasUpdate = true;
-      LOG.info("Adding new topic with id {}", topic.getId());
     }
   }
 
   @Override
   public void removeTopic(Long topicId) {
-    if (topicMap.remove(topicId) != null) {
-      if (nfSubscriptions.remove(topicId) != null) {
-        LOG.info("Removed subscription info for {}", topicId);
+    synchronized (changesLock) {
+      if (topicMap.remove(topicId) != null) {
+        if (removeSubscription(topicId)) {
+          LOG.info("Removed subscription info for {}", topicId);
+        }
+        topicsChanged = true;
+        hasUpdate = true;
+        LOG.info("Removed topic with id {}", topicId);
       }
-      hasUpdate = true;
-      LOG.info("Removed topic with id {}", topicId);
     }
   }
 
   @Override
   public void addTopicSubscription(Long topicId) {
-    Integer seqNum = nfSubscriptions.get(topicId);
-    if (seqNum == null) {
-      nfSubscriptions.put(topicId, 0);
-      LOG.info("Adding new seqNumber 0 for {} subscription", topicId);
-      hasUpdate = true;
+    synchronized (changesLock) {
+      Integer seqNum = nfSubscriptions.get(topicId);
+      if (seqNum == null) {
+        putSubscription(topicId, 0);
+        LOG.info("Adding new seqNumber 0 for {} subscription", topicId);
+      }
     }
   }
 
   @Override
   public void removeTopicSubscription(Long topicId) {
-    if (nfSubscriptions.remove(topicId) != null) {
+    if (removeSubscription(topicId)) {
       LOG.info("Removed subscription info for {}", topicId);
-      hasUpdate = true;
     }
   }
 
   @Override
   public boolean updateTopicSubscriptionInfo(Long topicId, Integer sequenceNumber) {
-    Integer seqNum = nfSubscriptions.get(topicId);
-    boolean updated = false;
-    if (seqNum != null) {
-      if (sequenceNumber > seqNum) {
-        updated = true;
-        nfSubscriptions.put(topicId, sequenceNumber);
-        hasUpdate = true;
-        LOG.debug("Updated seqNumber to {} for {} subscription", sequenceNumber, topicId);
+    synchronized (changesLock) {
+      Integer seqNum = nfSubscriptions.get(topicId);
+      boolean updated = false;
+      if (seqNum != null) {
+        if (sequenceNumber > seqNum) {
+          updated = true;
+          putSubscription(topicId, sequenceNumber);
+          LOG.debug("Updated seqNumber to {} for {} subscription", sequenceNumber, topicId);
+        }
       }
+      return updated;
     }
-    return updated;
   }
 
   @Override
@@ -527,9 +745,12 @@ public class KaaClientPropertiesState implements KaaClientState {
 
   @Override
   public void setTopicListHash(Integer topicListHash) {
-    if (!Objects.equals(this.topicListHash, topicListHash)) {
-      this.topicListHash = topicListHash;
-      hasUpdate = true;
+    synchronized (changesLock) {
+      if (!Objects.equals(this.topicListHash, topicListHash)) {
+        this.topicListHash = topicListHash;
+        topicListHashChanged = true;
+        hasUpdate = true;
+      }
     }
   }
 
@@ -541,9 +762,12 @@ public class KaaClientPropertiesState implements KaaClientState {
   @Override
   public void setAttachedEndpointsList(
           Map<EndpointAccessToken, EndpointKeyHash> attachedEndpoints) {
-    this.attachedEndpoints.clear();
-    this.attachedEndpoints.putAll(attachedEndpoints);
-    hasUpdate = true;
+    synchronized (changesLock) {
+      this.attachedEndpoints.clear();
+      this.attachedEndpoints.putAll(attachedEndpoints);
+      attachedEndpointsChanged = true;
+      hasUpdate = true;
+    }
   }
 
   @Override
@@ -558,8 +782,11 @@ public class KaaClientPropertiesState implements KaaClientState {
 
   @Override
   public int getAndIncrementEventSeqNum() {
-    hasUpdate = true;
-    return eventSequence.getAndIncrement();
+    synchronized (changesLock) {
+      eventSeqNumChanged = true;
+      hasUpdate = true;
+      return eventSequence.getAndIncrement();
+    }
   }
 
   @Override
@@ -569,9 +796,12 @@ public class KaaClientPropertiesState implements KaaClientState {
 
   @Override
   public void setEventSeqNum(int newSeqNum) {
-    if (eventSequence.get() != newSeqNum) {
-      eventSequence.set(newSeqNum);
-      hasUpdate = true;
+    synchronized (changesLock) {
+      if (eventSequence.get() != newSeqNum) {
+        eventSequence.set(newSeqNum);
+        eventSeqNumChanged = true;
+        hasUpdate = true;
+      }
     }
   }
 
@@ -590,9 +820,13 @@ public class KaaClientPropertiesState implements KaaClientState {
     setRegistered(false);
     setIfNeedProfileResync(false);
     saveFileDelete(stateFileLocation);
-    saveFileDelete(stateFileLocation + "_bckp");
+    saveFileDelete(stateFileLocation + BACKUP_SUFFIX);
+    saveFileDelete(stateFileLocation + JOURNAL_SUFFIX);
     keyPair = null;
-    hasUpdate = true;
+    snapshotRequired = true;
+    synchronized (changesLock) {
+      hasUpdate = true;
+    }
   }
 
   private void saveFileDelete(String fileName) {
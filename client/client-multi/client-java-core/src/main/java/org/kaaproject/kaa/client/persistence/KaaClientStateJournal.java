@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.client.persistence;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of client state changes stored next to the state properties file.
+ *
+ * <p>The journal starts with a header that holds the epoch of the state snapshot it belongs to.
+ * Every {@link #append(Map, Map)} call writes a single record that consists of the payload length,
+ * the CRC32 checksum of the payload and the payload itself, so a batch of changes is either
+ * replayed completely or not at all. Replay stops at the first truncated or corrupted record.
+ * Data is synced to the storage device every {@code syncInterval} appends and on every reset.
+ */
+class KaaClientStateJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KaaClientStateJournal.class);
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final int MAGIC = 0x4B534A31;
+  private static final int HEADER_SIZE = 4 + 8;
+  private static final int RECORD_HEADER_SIZE = 4 + 8;
+
+  private static final byte PROPERTY_OP = 1;
+  private static final byte SUBSCRIPTION_OP = 2;
+
+  private final AppendablePersistentStorage storage;
+  private final String path;
+  private final int syncInterval;
+
+  private long size;
+  private int unsyncedAppends;
+
+  KaaClientStateJournal(AppendablePersistentStorage storage, String path, int syncInterval) {
+    this.storage = storage;
+    this.path = path;
+    this.syncInterval = syncInterval;
+  }
+
+  /**
+   * Forces the data written to the stream down to the storage device, if the stream supports it.
+   */
+  static void sync(OutputStream os) throws IOException {
+    os.flush();
+    if (os instanceof FileOutputStream) {
+      ((FileOutputStream) os).getFD().sync();
+    }
+  }
+
+  /**
+   * Returns the number of bytes in the journal that are known to be valid.
+   */
+  long getSize() {
+    return size;
+  }
+
+  /**
+   * Replays the journal records that belong to the snapshot with the given epoch.
+   *
+   * @param epoch    the epoch of the loaded state snapshot
+   * @param listener receives the replayed changes
+   * @return true if the whole journal was replayed and new records can be appended to it, false
+   *         if the journal is missing, belongs to another snapshot or has a corrupted tail
+   */
+  boolean replay(long epoch, Listener listener) {
+    size = 0;
+    if (!storage.exists(path)) {
+      LOG.info("State journal {} not found", path);
+      return false;
+    }
+    byte[] data;
+    InputStream is = null;
+    try {
+      is = storage.openForRead(path);
+      data = IOUtils.toByteArray(is);
+    } catch (IOException ex) {
+      LOG.error("Can't read state journal {}", path, ex);
+      return false;
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    try {
+      if (data.length < HEADER_SIZE || in.readInt() != MAGIC || in.readLong() != epoch) {
+        LOG.info("State journal {} doesn't match the state snapshot, ignoring it", path);
+        return false;
+      }
+      int position = HEADER_SIZE;
+      int records = 0;
+      CRC32 crc = new CRC32();
+      while (position < data.length) {
+        if (data.length - position < RECORD_HEADER_SIZE) {
+          break;
+        }
+        int length = in.readInt();
+        long checksum = in.readLong();
+        if (length < 0 || length > data.length - position - RECORD_HEADER_SIZE) {
+          break;
+        }
+        crc.reset();
+        crc.update(data, position + RECORD_HEADER_SIZE, length);
+        if (crc.getValue() != checksum) {
+          break;
+        }
+        applyRecord(new DataInputStream(
+            new ByteArrayInputStream(data, position + RECORD_HEADER_SIZE, length)), listener);
+        in.skipBytes(length);
+        position += RECORD_HEADER_SIZE + length;
+        records++;
+      }
+      LOG.info("Replayed {} state journal records", records);
+      if (position < data.length) {
+        LOG.warn("State journal {} has {} bytes of corrupted data at the end", path,
+            data.length - position);
+        return false;
+      }
+      size = position;
+      return true;
+    } catch (IOException ex) {
+      LOG.error("Can't replay state journal {}", path, ex);
+      return false;
+    }
+  }
+
+  private void applyRecord(DataInputStream in, Listener listener) throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      byte op = in.readByte();
+      if (op == PROPERTY_OP) {
+        String key = in.readUTF();
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        listener.onProperty(key, new String(value, UTF8));
+      } else if (op == SUBSCRIPTION_OP) {
+        long topicId = in.readLong();
+        boolean present = in.readBoolean();
+        int seqNum = in.readInt();
+        listener.onSubscription(topicId, present ? seqNum : null);
+      } else {
+        throw new EOFException("Unknown state journal operation " + op);
+      }
+    }
+  }
+
+  /**
+   * Appends a single record with the given changes to the journal.
+   *
+   * @param properties    changed state properties
+   * @param subscriptions changed notification subscriptions, a null value marks a removed one
+   * @throws IOException if the record can't be written
+   */
+  void append(Map<String, String> properties, Map<Long, Integer> subscriptions)
+      throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(payload);
+    out.writeInt(properties.size() + subscriptions.size());
+    for (Map.Entry<String, String> entry : properties.entrySet()) {
+      byte[] value = entry.getValue().getBytes(UTF8);
+      out.writeByte(PROPERTY_OP);
+      out.writeUTF(entry.getKey());
+      out.writeInt(value.length);
+      out.write(value);
+    }
+    for (Map.Entry<Long, Integer> entry : subscriptions.entrySet()) {
+      out.writeByte(SUBSCRIPTION_OP);
+      out.writeLong(entry.getKey());
+      out.writeBoolean(entry.getValue() != null);
+      out.writeInt(entry.getValue() != null ? entry.getValue() : 0);
+    }
+    out.flush();
+
+    byte[] payloadData = payload.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(payloadData);
+    ByteArrayOutputStream record = new ByteArrayOutputStream(
+        RECORD_HEADER_SIZE + payloadData.length);
+    DataOutputStream recordOut = new DataOutputStream(record);
+    recordOut.writeInt(payloadData.length);
+    recordOut.writeLong(crc.getValue());
+    recordOut.write(payloadData);
+    recordOut.flush();
+
+    OutputStream os = storage.openForAppend(path);
+    try {
+      record.writeTo(os);
+      if (++unsyncedAppends >= syncInterval) {
+        sync(os);
+        unsyncedAppends = 0;
+      } else {
+        os.flush();
+      }
+    } finally {
+      IOUtils.closeQuietly(os);
+    }
+    size += record.size();
+  }
+
+  /**
+   * Truncates the journal and binds it to the state snapshot with the given epoch.
+   *
+   * @param epoch the epoch of the state snapshot that was just written
+   * @throws IOException if the journal can't be written
+   */
+  void reset(long epoch) throws IOException {
+    OutputStream os = storage.openForWrite(path);
+    try {
+      DataOutputStream out = new DataOutputStream(os);
+      out.writeInt(MAGIC);
+      out.writeLong(epoch);
+      out.flush();
+      sync(os);
+    } finally {
+      IOUtils.closeQuietly(os);
+    }
+    size = HEADER_SIZE;
+    unsyncedAppends = 0;
+  }
+
+  /**
+   * Receives changes replayed from the journal.
+   */
+  interface Listener {
+
+    void onProperty(String key, String value);
+
+    void onSubscription(Long topicId, Integer seqNum);
+  }
+}
@@ -289,5 +289,10 @@ public class DefaultBootstrapManagerTest {
       // TODO Auto-generated method stub
       return null;
     }
+
+    @Override
+    public KaaDataChannel getActiveChannel(TransportType type) {
+      return null;
+    }
   }
 }
@@ -28,6 +28,7 @@ import org.kaaproject.kaa.common.endpoint.gen.EventListenersResponse;
 import org.kaaproject.kaa.common.endpoint.gen.EventSequenceNumberResponse;
 import org.kaaproject.kaa.common.endpoint.gen.EventSyncRequest;
 import org.kaaproject.kaa.common.endpoint.gen.EventSyncResponse;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.nio.ByteBuffer;
@@ -101,7 +102,15 @@ public class DefaultEventTransportTest {
     listeners.add(new EventListenersResponse());
     transport.onEventResponse(response);
 
-    Mockito.verify(manager, Mockito.times(3)).onGenericEvent(Mockito.eq("eventClassFQN"), Mockito.eq(new byte[]{1, 2, 3}), Mockito.eq("source"));
+    ArgumentCaptor<List> batches = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(manager, Mockito.times(3)).onGenericEvents(batches.capture());
+    for (List<?> batch : batches.getAllValues()) {
+      Assert.assertEquals(1, batch.size());
+      Event event = (Event) batch.get(0);
+      Assert.assertEquals("eventClassFQN", event.getEventClassFQN());
+      Assert.assertArrayEquals(new byte[]{1, 2, 3}, event.getEventData().array());
+      Assert.assertEquals("source", event.getSource());
+    }
     Mockito.verify(manager, Mockito.times(1)).eventListenersResponseReceived(listeners);
   }
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.configuration.base;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class IncrementalConfigurationStorageTest {
+
+  private static final int BLOCK_SIZE = 1024;
+
+  private File file;
+
+  @Before
+  public void before() throws IOException {
+    file = File.createTempFile("configuration", ".data");
+    file.delete();
+  }
+
+  @After
+  public void after() {
+    file.delete();
+  }
+
+  @Test
+  public void saveAndLoadTest() throws IOException {
+    IncrementalConfigurationStorage storage =
+        new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE);
+    Assert.assertNull(storage.loadConfiguration());
+
+    byte[] data = createTestData(BLOCK_SIZE * 8 + 100);
+    storage.saveConfiguration(ByteBuffer.wrap(data));
+    Assert.assertArrayEquals(data, toArray(storage.loadConfiguration()));
+
+    data[BLOCK_SIZE * 3 + 5]++;
+    storage.saveConfiguration(ByteBuffer.wrap(data));
+    Assert.assertArrayEquals(data, toArray(
+        new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE).loadConfiguration()));
+  }
+
+  @Test
+  public void saveWithoutSnapshotTest() throws IOException {
+    byte[] data = createTestData(BLOCK_SIZE * 4);
+    new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE)
+        .saveConfiguration(ByteBuffer.wrap(data));
+
+    data[0]++;
+    data[data.length - 1]++;
+    new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE)
+        .saveConfiguration(ByteBuffer.wrap(data));
+    Assert.assertArrayEquals(data, toArray(
+        new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE).loadConfiguration()));
+  }
+
+  @Test
+  public void resizeTest() throws IOException {
+    IncrementalConfigurationStorage storage =
+        new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE);
+    byte[] data = createTestData(BLOCK_SIZE * 4);
+    storage.saveConfiguration(ByteBuffer.wrap(data));
+
+    byte[] smaller = Arrays.copyOf(data, BLOCK_SIZE + 10);
+    storage.saveConfiguration(ByteBuffer.wrap(smaller));
+    Assert.assertEquals(smaller.length, file.length());
+    Assert.assertArrayEquals(smaller, toArray(storage.loadConfiguration()));
+
+    byte[] bigger = createTestData(BLOCK_SIZE * 6 + 1);
+    storage.saveConfiguration(ByteBuffer.wrap(bigger));
+    Assert.assertArrayEquals(bigger, toArray(storage.loadConfiguration()));
+  }
+
+  @Test
+  public void clearTest() throws IOException {
+    IncrementalConfigurationStorage storage =
+        new IncrementalConfigurationStorage(file.getPath(), BLOCK_SIZE);
+    storage.saveConfiguration(ByteBuffer.wrap(createTestData(BLOCK_SIZE)));
+    storage.clearConfiguration();
+    Assert.assertFalse(file.exists());
+    Assert.assertNull(storage.loadConfiguration());
+  }
+
+  private static byte[] createTestData(int size) {
+    byte[] data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = (byte) (i * 31);
+    }
+    return data;
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    return data;
+  }
+}
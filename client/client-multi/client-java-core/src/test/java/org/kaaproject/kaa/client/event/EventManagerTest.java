@@ -37,18 +37,23 @@ import org.kaaproject.kaa.client.persistence.FilePersistentStorage;
 import org.kaaproject.kaa.client.persistence.KaaClientPropertiesState;
 import org.kaaproject.kaa.client.transact.TransactionId;
 import org.kaaproject.kaa.client.util.CommonsBase64;
+import org.kaaproject.kaa.common.endpoint.gen.Event;
 import org.kaaproject.kaa.common.endpoint.gen.EventListenersResponse;
 import org.kaaproject.kaa.common.endpoint.gen.EventSyncRequest;
 import org.kaaproject.kaa.common.endpoint.gen.SyncResponseResultType;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EventManagerTest {
 
@@ -233,6 +238,102 @@ public class EventManagerTest {
     verify(fetchListener, times(1)).onRequestFailed();
   }
 
+  @Test
+  public void testConcurrentProducersKeepSequenceOrder() throws Exception {
+    KaaClientPropertiesState state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), KaaClientPropertiesStateTest.getProperties());
+    EventTransport transport = Mockito.mock(EventTransport.class);
+    ExecutorContext executorContext = Mockito.mock(ExecutorContext.class);
+    final EventManager eventManager = new DefaultEventManager(state, executorContext, transport);
+    eventManager.engageDataChannel();
+
+    final int producers = 8;
+    final int eventsPerProducer = 2000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(producers);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    for (int i = 0; i < producers; i++) {
+      final boolean transactional = i % 2 == 0;
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int j = 0; j < eventsPerProducer; j += 2) {
+              if (transactional) {
+                TransactionId trxId = eventManager.beginTransaction();
+                eventManager.produceEvent("kaa.test.event.PlayEvent", new byte[0], null, trxId);
+                eventManager.produceEvent("kaa.test.event.PlayEvent", new byte[0], null, trxId);
+                eventManager.commit(trxId);
+              } else {
+                eventManager.produceEvent("kaa.test.event.PlayEvent", new byte[0], null);
+                eventManager.produceEvent("kaa.test.event.PlayEvent", new byte[0], null);
+              }
+            }
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        }
+      });
+    }
+
+    // drain concurrently with the producers, as the sync thread does
+    final List<Event> sent = new ArrayList<>();
+    final AtomicBoolean producing = new AtomicBoolean(true);
+    Thread sync = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (producing.get()) {
+          sent.addAll(eventManager.pollPendingEvents());
+        }
+        sent.addAll(eventManager.pollPendingEvents());
+      }
+    });
+    sync.start();
+    start.countDown();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    producing.set(false);
+    sync.join();
+    executor.shutdown();
+
+    assertEquals(producers * eventsPerProducer, sent.size());
+    for (int i = 1; i < sent.size(); i++) {
+      assertTrue("Event " + sent.get(i).getSeqNum() + " sent after " + sent.get(i - 1).getSeqNum(),
+          sent.get(i).getSeqNum() > sent.get(i - 1).getSeqNum());
+    }
+  }
+
+  @Test
+  public void testEventBatchDeliveredPerFamily() throws Exception {
+    KaaClientPropertiesState state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), KaaClientPropertiesStateTest.getProperties());
+
+    EventTransport transport = Mockito.mock(EventTransport.class);
+    ConcreteEventFamily eventFamily = new ConcreteEventFamily("kaa.test.event.PlayEvent");
+    ConcreteEventFamily eventFamily2 = new ConcreteEventFamily("kaa.test.event.StopEvent");
+
+    ExecutorContext executorContext = Mockito.mock(ExecutorContext.class);
+    ExecutorService executor = Mockito.spy(Executors.newSingleThreadExecutor());
+    Mockito.when(executorContext.getCallbackExecutor()).thenReturn(executor);
+
+    EventManager eventManager = new DefaultEventManager(state, executorContext, transport);
+    eventManager.registerEventFamily(eventFamily);
+    eventManager.registerEventFamily(eventFamily2);
+
+    List<Event> events = new ArrayList<>();
+    events.add(new Event(1, "kaa.test.event.PlayEvent", ByteBuffer.wrap(new byte[0]), null, null));
+    events.add(new Event(2, "kaa.test.event.PlayEvent", ByteBuffer.wrap(new byte[0]), null, null));
+    events.add(new Event(3, "kaa.test.event.StopEvent", ByteBuffer.wrap(new byte[0]), null, null));
+    events.add(new Event(4, "kaa.test.event.NoSuchEvent", ByteBuffer.wrap(new byte[0]), null, null));
+    eventManager.onGenericEvents(events);
+
+    Thread.sleep(500);
+
+    verify(executor, times(2)).submit(any(Runnable.class));
+    assertEquals("Events count doesn't match", new Integer(2), eventFamily.getEventsCount());
+    assertEquals("Events count doesn't match", new Integer(1), eventFamily2.getEventsCount());
+  }
+
   private class ConcreteEventFamily implements EventFamily {
 
     Set<String> supportedEventFQNs = new HashSet<String>();
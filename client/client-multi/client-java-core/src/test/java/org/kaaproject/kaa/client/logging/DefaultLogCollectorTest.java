@@ -26,10 +26,15 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.kaaproject.kaa.client.channel.KaaChannelManager;
+import org.kaaproject.kaa.client.channel.KaaDataChannel;
 import org.kaaproject.kaa.client.channel.LogTransport;
 import org.kaaproject.kaa.client.channel.failover.FailoverManager;
 import org.kaaproject.kaa.client.context.ExecutorContext;
 import org.kaaproject.kaa.client.logging.future.RecordFuture;
+import org.kaaproject.kaa.client.logging.strategies.AdaptiveLogUploadStrategy;
+import org.kaaproject.kaa.common.Constants;
+import org.kaaproject.kaa.common.TransportType;
+import org.kaaproject.kaa.common.endpoint.compression.LogEntryCompressor;
 import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryErrorCode;
 import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryStatus;
 import org.kaaproject.kaa.common.endpoint.gen.LogSyncRequest;
@@ -241,6 +246,82 @@ public class DefaultLogCollectorTest {
     verify(transport, Mockito.timeout(1000).times(2)).sync();
   }
 
+  @Test
+  public void testCompressedLogUploadAndDeliveryStatistics() throws Exception {
+    KaaChannelManager channelManager = Mockito.mock(KaaChannelManager.class);
+    FailoverManager failoverManager = Mockito.mock(FailoverManager.class);
+    LogTransport transport = Mockito.mock(LogTransport.class);
+
+    KaaDataChannel channel = Mockito.mock(KaaDataChannel.class);
+    Mockito.when(channel.getPlatformProtocolId()).thenReturn(Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V3);
+    Mockito.when(channelManager.getActiveChannel(TransportType.LOGGING)).thenReturn(channel);
+
+    AbstractLogCollector logCollector = new DefaultLogCollector(transport, executorContext, channelManager, failoverManager);
+    AdaptiveLogUploadStrategy strategy = Mockito.spy(new AdaptiveLogUploadStrategy());
+    logCollector.setStrategy(strategy);
+    logCollector.setLogCompressionEnabled(true);
+    LogStorage storage = Mockito.mock(LogStorage.class);
+    logCollector.setStorage(storage);
+
+    Log record = new Log();
+    Mockito.when(storage.addLogRecord(Mockito.any(LogRecord.class))).thenReturn(new BucketInfo(1, 2));
+    Mockito.when(storage.getStatus()).thenReturn(new LogStorageStatus() {
+      @Override
+      public long getRecordCount() {
+        return 1;
+      }
+
+      @Override
+      public long getConsumedVolume() {
+        return 1;
+      }
+    });
+    logCollector.addLogRecord(record);
+
+    LogRecord logRecord = new LogRecord(record);
+    Mockito.when(storage.getNextBucket()).thenReturn(
+        new LogBucket(1, Arrays.asList(logRecord, logRecord)));
+
+    LogSyncRequest request = new LogSyncRequest();
+    logCollector.fillSyncRequest(request);
+
+    Assert.assertEquals(1, request.getLogEntries().size());
+    List<byte[]> records = LogEntryCompressor.decompress(request.getLogEntries().get(0).getData().array());
+    Assert.assertEquals(2, records.size());
+    Assert.assertArrayEquals(logRecord.getData(), records.get(1));
+
+    LogSyncResponse response = new LogSyncResponse();
+    response.setDeliveryStatuses(Collections.singletonList(
+        new LogDeliveryStatus(request.getRequestId(), SyncResponseResultType.SUCCESS, null)));
+    logCollector.onLogResponse(response);
+
+    verify(strategy, Mockito.timeout(1000)).onLogDelivered(Mockito.any(BucketInfo.class), Mockito.anyLong());
+  }
+
+  @Test
+  public void testNoCompressionWithoutV3Channel() throws Exception {
+    KaaChannelManager channelManager = Mockito.mock(KaaChannelManager.class);
+    KaaDataChannel channel = Mockito.mock(KaaDataChannel.class);
+    Mockito.when(channel.getPlatformProtocolId()).thenReturn(Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2);
+    Mockito.when(channelManager.getActiveChannel(TransportType.LOGGING)).thenReturn(channel);
+
+    AbstractLogCollector logCollector = new DefaultLogCollector(Mockito.mock(LogTransport.class),
+        executorContext, channelManager, Mockito.mock(FailoverManager.class));
+    logCollector.setLogCompressionEnabled(true);
+    LogStorage storage = Mockito.mock(LogStorage.class);
+    logCollector.setStorage(storage);
+
+    LogRecord logRecord = new LogRecord(new Log());
+    Mockito.when(storage.getNextBucket()).thenReturn(
+        new LogBucket(1, Arrays.asList(logRecord, logRecord)));
+
+    LogSyncRequest request = new LogSyncRequest();
+    logCollector.fillSyncRequest(request);
+
+    Assert.assertEquals(2, request.getLogEntries().size());
+    Assert.assertArrayEquals(logRecord.getData(), request.getLogEntries().get(0).getData().array());
+  }
+
   @Test
   public void testLogUploadAndFailureResponse() throws IOException, InterruptedException {
     KaaChannelManager channelManager = Mockito.mock(KaaChannelManager.class);
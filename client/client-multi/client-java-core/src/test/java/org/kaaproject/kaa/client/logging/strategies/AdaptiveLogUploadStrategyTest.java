@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.logging.strategies;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.client.logging.BucketInfo;
+import org.kaaproject.kaa.client.logging.LogFailoverCommand;
+import org.kaaproject.kaa.client.logging.LogStorageStatus;
+import org.kaaproject.kaa.client.logging.LogUploadStrategyDecision;
+import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryErrorCode;
+import org.mockito.Mockito;
+
+public class AdaptiveLogUploadStrategyTest {
+
+  private long currentTime;
+
+  private final AdaptiveLogUploadStrategy strategy = new AdaptiveLogUploadStrategy() {
+    @Override
+    protected long currentTimeMillis() {
+      return currentTime;
+    }
+  };
+
+  @Test
+  public void growThresholdsOnFastDeliveryTest() {
+    int countThreshold = strategy.getCountThreshold();
+    int volumeThreshold = strategy.getVolumeThreshold();
+    strategy.onLogDelivered(new BucketInfo(1, 10), 100);
+    Assert.assertTrue(strategy.getCountThreshold() > countThreshold);
+    Assert.assertTrue(strategy.getVolumeThreshold() > volumeThreshold);
+
+    for (int i = 0; i < 100; i++) {
+      strategy.onLogDelivered(new BucketInfo(i, 10), 100);
+    }
+    Assert.assertEquals(256, strategy.getCountThreshold());
+    Assert.assertEquals(16 * 1024, strategy.getVolumeThreshold());
+  }
+
+  @Test
+  public void shrinkThresholdsOnSlowDeliveryTest() {
+    int countThreshold = strategy.getCountThreshold();
+    strategy.setTargetDeliveryTime(1000);
+    strategy.onLogDelivered(new BucketInfo(1, 10), 4000);
+    Assert.assertEquals(countThreshold * 3 / 4, strategy.getCountThreshold());
+  }
+
+  @Test
+  public void keepGrowingWithLargeBacklogTest() {
+    int countThreshold = strategy.getCountThreshold();
+    strategy.setTargetDeliveryTime(1000);
+    strategy.isUploadNeeded(status(countThreshold * 2, 1));
+    strategy.onLogDelivered(new BucketInfo(1, 10), 4000);
+    Assert.assertTrue(strategy.getCountThreshold() > countThreshold);
+  }
+
+  @Test
+  public void backOffOnFailuresTest() {
+    LogFailoverCommand controller = Mockito.mock(LogFailoverCommand.class);
+    int countThreshold = strategy.getCountThreshold();
+    strategy.setMinRetryPeriod(5);
+    strategy.setRetryPeriod(30);
+
+    strategy.onFailure(controller, LogDeliveryErrorCode.REMOTE_CONNECTION_ERROR);
+    Mockito.verify(controller).retryLogUpload(5);
+    Assert.assertEquals(countThreshold / 2, strategy.getCountThreshold());
+    strategy.onTimeout(controller);
+    Mockito.verify(controller).retryLogUpload(10);
+    strategy.onFailure(controller, LogDeliveryErrorCode.REMOTE_INTERNAL_ERROR);
+    Mockito.verify(controller).retryLogUpload(20);
+    strategy.onFailure(controller, LogDeliveryErrorCode.APPENDER_INTERNAL_ERROR);
+    Mockito.verify(controller).retryLogUpload(30);
+    Assert.assertEquals(1, strategy.getMaxParallelUploads());
+
+    strategy.onLogDelivered(new BucketInfo(1, 10), 100);
+    strategy.onFailure(controller, LogDeliveryErrorCode.REMOTE_CONNECTION_ERROR);
+    Mockito.verify(controller, Mockito.times(2)).retryLogUpload(5);
+  }
+
+  @Test
+  public void uploadLargeBacklogTest() {
+    strategy.setMaxBacklogVolume(1000);
+    Assert.assertEquals(LogUploadStrategyDecision.NOOP, strategy.isUploadNeeded(status(1, 999)));
+    Assert.assertEquals(LogUploadStrategyDecision.UPLOAD, strategy.isUploadNeeded(status(1, 1000)));
+  }
+
+  @Test
+  public void uploadAfterTimeLimitTest() {
+    strategy.setUploadTimeLimit(60);
+    Assert.assertEquals(LogUploadStrategyDecision.NOOP, strategy.isUploadNeeded(status(1, 1)));
+    currentTime += 59 * 1000;
+    Assert.assertEquals(LogUploadStrategyDecision.NOOP, strategy.isUploadNeeded(status(1, 1)));
+    currentTime += 1000;
+    Assert.assertEquals(LogUploadStrategyDecision.UPLOAD, strategy.isUploadNeeded(status(1, 1)));
+    Assert.assertEquals(LogUploadStrategyDecision.NOOP, strategy.isUploadNeeded(status(1, 1)));
+  }
+
+  private static LogStorageStatus status(final long recordCount, final long consumedVolume) {
+    return new LogStorageStatus() {
+      @Override
+      public long getConsumedVolume() {
+        return consumedVolume;
+      }
+
+      @Override
+      public long getRecordCount() {
+        return recordCount;
+      }
+    };
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.client.logging.strategies;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.client.logging.BucketInfo;
+import org.kaaproject.kaa.client.logging.DefaultLogUploadStrategy;
+import org.kaaproject.kaa.client.logging.LogDeliveryStatisticsListener;
+import org.kaaproject.kaa.client.logging.LogFailoverCommand;
+import org.kaaproject.kaa.client.logging.LogStorageStatus;
+import org.kaaproject.kaa.client.logging.LogUploadStrategy;
+import org.kaaproject.kaa.client.logging.LogUploadStrategyDecision;
+import org.kaaproject.kaa.common.endpoint.gen.LogDeliveryErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Compares log upload strategies on simulated links. The simulation runs in virtual time:
+ * records are produced at a fixed rate, each upload carries one bucket limited like the
+ * default memory storage, and the link delivers it after its latency plus the transfer time,
+ * or fails it with the given probability.
+ */
+public class LogUploadStrategySimulationTest {
+  private static final Logger LOG = LoggerFactory.getLogger(LogUploadStrategySimulationTest.class);
+
+  private static final long TICK = 100;
+  private static final long DURATION = 60 * 60 * 1000;
+  private static final long DRAIN_LIMIT = 60 * 60 * 1000;
+  private static final int BUCKET_RECORD_COUNT = 256;
+  private static final int BUCKET_SIZE = 16 * 1024;
+  private static final int REQUEST_OVERHEAD = 256;
+
+  @Test
+  public void fastLinkTest() {
+    Link link = new Link(100, 100 * 1024, 0.0);
+    SimulationResult fixed = simulate(new DefaultLogUploadStrategy(), link, 5, 100);
+    SimulationResult adaptive = simulate(adaptiveStrategy(), link, 5, 100);
+
+    assertAllDelivered(fixed);
+    assertAllDelivered(adaptive);
+    Assert.assertTrue(adaptive.requests < fixed.requests * 2 / 3);
+    Assert.assertTrue(adaptive.bytesSent < fixed.bytesSent);
+  }
+
+  @Test
+  public void slowLossyLinkTest() {
+    Link link = new Link(2000, 1024, 0.2);
+    SimulationResult fixed = simulate(new DefaultLogUploadStrategy(), link, 2, 100);
+    SimulationResult adaptive = simulate(adaptiveStrategy(), link, 2, 100);
+
+    assertAllDelivered(fixed);
+    assertAllDelivered(adaptive);
+    Assert.assertTrue(adaptive.averageRecordDelay() < fixed.averageRecordDelay());
+    Assert.assertTrue(adaptive.maxBacklog <= fixed.maxBacklog);
+  }
+
+  @Test
+  public void overloadedLinkTest() {
+    Link link = new Link(500, 2 * 1024, 0.05);
+    SimulationResult fixed = simulate(new DefaultLogUploadStrategy(), link, 15, 100);
+    SimulationResult adaptive = simulate(adaptiveStrategy(), link, 15, 100);
+
+    assertAllDelivered(fixed);
+    assertAllDelivered(adaptive);
+    Assert.assertTrue(adaptive.requests < fixed.requests);
+    Assert.assertTrue(adaptive.bytesSent < fixed.bytesSent);
+  }
+
+  private static AdaptiveLogUploadStrategy adaptiveStrategy() {
+    return new AdaptiveLogUploadStrategy() {
+      @Override
+      protected long currentTimeMillis() {
+        return Simulation.now;
+      }
+    };
+  }
+
+  private static void assertAllDelivered(SimulationResult result) {
+    Assert.assertEquals(result.produced, result.delivered);
+  }
+
+  private static SimulationResult simulate(LogUploadStrategy strategy, Link link,
+                                           int recordsPerSecond, int recordSize) {
+    SimulationResult result = new Simulation(strategy, link, recordsPerSecond, recordSize).run();
+    LOG.info("{} on {}: {}", strategy instanceof AdaptiveLogUploadStrategy ? "adaptive" : "fixed",
+        link, result);
+    return result;
+  }
+
+  private static final class Link {
+    private final long latency;
+    private final int bandwidth;
+    private final double failureProbability;
+
+    private Link(long latency, int bandwidth, double failureProbability) {
+      this.latency = latency;
+      this.bandwidth = bandwidth;
+      this.failureProbability = failureProbability;
+    }
+
+    private long deliveryTime(long bytes) {
+      return latency + bytes * 1000 / bandwidth;
+    }
+
+    @Override
+    public String toString() {
+      return "link{latency=" + latency + " ms, bandwidth=" + bandwidth
+          + " B/s, failures=" + failureProbability + "}";
+    }
+  }
+
+  private static final class SimulationResult {
+    private long produced;
+    private long delivered;
+    private long requests;
+    private long failures;
+    private long bytesSent;
+    private long maxBacklog;
+    private long totalRecordDelay;
+
+    private long averageRecordDelay() {
+      return delivered > 0 ? totalRecordDelay / delivered : 0;
+    }
+
+    @Override
+    public String toString() {
+      return "produced=" + produced + ", delivered=" + delivered + ", requests=" + requests
+          + ", failures=" + failures + ", bytes=" + bytesSent + ", maxBacklog=" + maxBacklog
+          + ", averageDelay=" + averageRecordDelay() + " ms";
+    }
+  }
+
+  private static final class Simulation implements LogStorageStatus, LogFailoverCommand {
+    private static long now;
+
+    private final LogUploadStrategy strategy;
+    private final Link link;
+    private final int recordsPerSecond;
+    private final int recordSize;
+    private final Random random = new Random(42);
+    private final Deque<Long> backlog = new ArrayDeque<>();
+    private final SimulationResult result = new SimulationResult();
+
+    private int inFlight;
+    private long inFlightStart;
+    private long inFlightUntil;
+    private boolean inFlightFails;
+    private int bucketId;
+
+    private Simulation(LogUploadStrategy strategy, Link link, int recordsPerSecond,
+                       int recordSize) {
+      this.strategy = strategy;
+      this.link = link;
+      this.recordsPerSecond = recordsPerSecond;
+      this.recordSize = recordSize;
+    }
+
+    private SimulationResult run() {
+      long produceDebt = 0;
+      for (now = 0; now < DURATION + DRAIN_LIMIT; now += TICK) {
+        if (now < DURATION) {
+          produceDebt += recordsPerSecond * TICK;
+          for (; produceDebt >= 1000; produceDebt -= 1000) {
+            backlog.addLast(now);
+            result.produced++;
+          }
+        } else if (backlog.isEmpty() && inFlight == 0) {
+          break;
+        }
+        result.maxBacklog = Math.max(result.maxBacklog, backlog.size());
+        if (inFlight > 0 && now >= inFlightUntil) {
+          complete();
+        }
+        boolean draining = now >= DURATION && !backlog.isEmpty();
+        if (inFlight == 0 && (draining
+            || strategy.isUploadNeeded(this) == LogUploadStrategyDecision.UPLOAD)) {
+          upload();
+        }
+      }
+      return result;
+    }
+
+    private void upload() {
+      inFlight = Math.min(backlog.size(), Math.min(BUCKET_RECORD_COUNT, BUCKET_SIZE / recordSize));
+      if (inFlight == 0) {
+        return;
+      }
+      long bytes = (long) inFlight * recordSize + REQUEST_OVERHEAD;
+      long deliveryTime = link.deliveryTime(bytes);
+      inFlightFails = random.nextDouble() < link.failureProbability
+          || deliveryTime > strategy.getTimeout() * 1000L;
+      inFlightStart = now;
+      inFlightUntil = now + Math.min(deliveryTime, strategy.getTimeout() * 1000L);
+      result.requests++;
+      result.bytesSent += bytes;
+      bucketId++;
+    }
+
+    private void complete() {
+      if (inFlightFails) {
+        result.failures++;
+        strategy.onFailure(this, LogDeliveryErrorCode.REMOTE_CONNECTION_ERROR);
+      } else {
+        for (int i = 0; i < inFlight; i++) {
+          result.totalRecordDelay += now - backlog.removeFirst();
+        }
+        result.delivered += inFlight;
+        if (strategy instanceof LogDeliveryStatisticsListener) {
+          ((LogDeliveryStatisticsListener) strategy).onLogDelivered(
+              new BucketInfo(bucketId, inFlight), now - inFlightStart);
+        }
+      }
+      inFlight = 0;
+    }
+
+    @Override
+    public long getConsumedVolume() {
+      return (long) backlog.size() * recordSize;
+    }
+
+    @Override
+    public long getRecordCount() {
+      return backlog.size();
+    }
+
+    @Override
+    public void switchAccessPoint() {
+    }
+
+    @Override
+    public void retryLogUpload() {
+    }
+
+    @Override
+    public void retryLogUpload(int delay) {
+    }
+  }
+}
@@ -43,11 +43,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class KaaClientPropertiesStateTest {
 
@@ -56,6 +59,7 @@ public class KaaClientPropertiesStateTest {
   private static final String KEY_PRIVATE = "key.private";
   private static final String STATE_PROPERTIES = "state.properties";
   private static final String STATE_PROPERTIES_BCKP = "state.properties_bckp";
+  private static final String STATE_PROPERTIES_JOURNAL = "state.properties_journal";
 
   public static KaaClientProperties getProperties() throws IOException {
     KaaClientProperties props = new KaaClientProperties();
@@ -71,6 +75,8 @@ public class KaaClientPropertiesStateTest {
     priv.deleteOnExit();
     File state = new File(WORK_DIR + STATE_PROPERTIES);
     state.deleteOnExit();
+    File journal = new File(WORK_DIR + STATE_PROPERTIES_JOURNAL);
+    journal.deleteOnExit();
     props.setProperty(KaaClientProperties.TRANSPORT_POLL_DELAY, "0");
     props.setProperty(KaaClientProperties.TRANSPORT_POLL_PERIOD, "1");
     props.setProperty(KaaClientProperties.TRANSPORT_POLL_UNIT, "SECONDS");
@@ -288,13 +294,105 @@ public class KaaClientPropertiesStateTest {
     File stateProps = new File(WORK_DIR + STATE_PROPERTIES);
     File statePropsBckp = new File(WORK_DIR + STATE_PROPERTIES_BCKP);
     statePropsBckp.deleteOnExit();
+    File stateJournal = new File(WORK_DIR + STATE_PROPERTIES_JOURNAL);
+    state.clean();
     state.persist();
     state.setRegistered(true);
     state.persist();
     assertTrue(stateProps.exists());
-    assertTrue(statePropsBckp.exists());
+    assertTrue(stateJournal.exists());
     state.clean();
     assertFalse(stateProps.exists());
     assertFalse(statePropsBckp.exists());
+    assertFalse(stateJournal.exists());
+  }
+
+  @Test
+  public void testStateJournal() throws Exception {
+    Files.deleteIfExists(Paths.get(WORK_DIR + STATE_PROPERTIES));
+    Files.deleteIfExists(Paths.get(WORK_DIR + STATE_PROPERTIES_JOURNAL));
+    KaaClientState state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), getProperties());
+    File stateProps = new File(WORK_DIR + STATE_PROPERTIES);
+    File stateJournal = new File(WORK_DIR + STATE_PROPERTIES_JOURNAL);
+    new File(WORK_DIR + STATE_PROPERTIES_BCKP).deleteOnExit();
+    state.persist();
+    long snapshotLength = stateProps.length();
+
+    Topic topic = Topic.newBuilder().setId(1234).setName("testName")
+        .setSubscriptionType(SubscriptionType.MANDATORY_SUBSCRIPTION).build();
+    state.addTopic(topic);
+    state.persist();
+    state.updateTopicSubscriptionInfo(topic.getId(), 7);
+    state.setEventSeqNum(10);
+    state.persist();
+
+    assertEquals(snapshotLength, stateProps.length());
+    assertTrue(stateJournal.length() > 0);
+
+    Map<Long, Integer> expected = new HashMap<>();
+    expected.put(topic.getId(), 7);
+
+    state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), getProperties());
+    assertEquals(expected, state.getNfSubscriptions());
+    assertEquals(10, state.getEventSeqNum());
+    assertEquals(1, state.getTopics().size());
+
+    Files.write(Paths.get(WORK_DIR + STATE_PROPERTIES_JOURNAL), new byte[]{0, 0, 0, 42, 1, 2},
+        StandardOpenOption.APPEND);
+
+    state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), getProperties());
+    assertEquals(expected, state.getNfSubscriptions());
+    assertEquals(10, state.getEventSeqNum());
+
+    state.setEventSeqNum(11);
+    state.persist();
+
+    state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), getProperties());
+    assertEquals(expected, state.getNfSubscriptions());
+    assertEquals(11, state.getEventSeqNum());
+    assertEquals(1, state.getTopics().size());
+  }
+
+  @Test
+  public void testPersistWhileMutating() throws Exception {
+    Files.deleteIfExists(Paths.get(WORK_DIR + STATE_PROPERTIES));
+    Files.deleteIfExists(Paths.get(WORK_DIR + STATE_PROPERTIES_JOURNAL));
+    final KaaClientState state = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), getProperties());
+    new File(WORK_DIR + STATE_PROPERTIES_BCKP).deleteOnExit();
+    state.persist();
+
+    final int updates = 5000;
+    final Topic topic = Topic.newBuilder().setId(4321).setName("testName")
+        .setSubscriptionType(SubscriptionType.MANDATORY_SUBSCRIPTION).build();
+    state.addTopic(topic);
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread persister = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          while (!done.get()) {
+            state.persist();
+          }
+        } catch (Throwable ex) {
+          failure.set(ex);
+        }
+      }
+    });
+    persister.start();
+    for (int i = 1; i <= updates; i++) {
+      state.getAndIncrementEventSeqNum();
+      state.updateTopicSubscriptionInfo(topic.getId(), i);
+    }
+    done.set(true);
+    persister.join();
+    assertNull(failure.get());
+    state.persist();
+
+    Map<Long, Integer> expected = new HashMap<>();
+    expected.put(topic.getId(), updates);
+    KaaClientState restored = new KaaClientPropertiesState(new FilePersistentStorage(), CommonsBase64.getInstance(), getProperties());
+    assertEquals(updates, restored.getEventSeqNum());
+    assertEquals(expected, restored.getNfSubscriptions());
   }
 }
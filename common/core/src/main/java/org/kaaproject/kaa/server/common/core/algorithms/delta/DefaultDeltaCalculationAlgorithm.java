@@ -16,12 +16,7 @@
 
 package org.kaaproject.kaa.server.common.core.algorithms.delta;
 
-import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.DELTA;
-import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.KAA_NAMESPACE;
-import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.RESET;
-import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.UNCHANGED;
 import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.UUID_FIELD;
-import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.UUID_TYPE;
 
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
@@ -33,7 +28,6 @@ import org.apache.avro.generic.GenericEnumSymbol;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.GenericRecord;
 import org.kaaproject.kaa.common.avro.AvroDataCanonizationUtils;
-import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.server.common.core.configuration.BaseData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,11 +57,9 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
       .getLogger(DefaultDeltaCalculationAlgorithm.class);
 
   /**
-   * The delta schema.
+   * The compiled delta and base schemas.
    */
-  private final Schema deltaSchema;
-
-  private final Schema baseSchema;
+  private final DeltaSchemaPlan plan;
 
   private Set<RecordTuple> processedRecords;
 
@@ -93,8 +85,16 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param baseSchema  the schema
    */
   public DefaultDeltaCalculationAlgorithm(Schema deltaSchema, Schema baseSchema) {
-    this.deltaSchema = deltaSchema;
-    this.baseSchema = baseSchema;
+    this(new DeltaSchemaPlan(deltaSchema, baseSchema));
+  }
+
+  /**
+   * Instantiates a new default delta calculator.
+   *
+   * @param plan the compiled delta and base schemas
+   */
+  DefaultDeltaCalculationAlgorithm(DeltaSchemaPlan plan) {
+    this.plan = plan;
   }
 
   /**
@@ -114,30 +114,8 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param field the field
    * @return the array schema
    */
-  private static Schema getArraySchema(GenericRecord delta, String field) {
-    List<Schema> fieldTypes = delta.getSchema().getField(field).schema().getTypes();
-    for (Schema type : fieldTypes) {
-      if (type.getType() == Schema.Type.ARRAY) {
-        return type;
-      }
-    }
-    return null;
-  }
-
-  /**
-   * Gets the schema by full name.
-   *
-   * @param types    the types
-   * @param fullName the full name
-   * @return the schema by full name
-   */
-  private static Schema getSchemaByFullName(List<Schema> types, String fullName) {
-    for (Schema type : types) {
-      if (type.getFullName().equals(fullName)) {
-        return type;
-      }
-    }
-    return null;
+  private Schema getArraySchema(GenericRecord delta, String field) {
+    return plan.getField(delta.getSchema(), field).getArraySchema();
   }
 
   /**
@@ -148,31 +126,8 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param fullName the full name
    * @return the schema by full name
    */
-  private static Schema getSchemaByFullName(GenericRecord delta, String field, String fullName) {
-    Schema fieldSchema = delta.getSchema().getField(field).schema();
-    if (fieldSchema.getType() == Schema.Type.UNION) {
-      List<Schema> fieldTypes = fieldSchema.getTypes();
-      return getSchemaByFullName(fieldTypes, fullName);
-    } else {
-      return fieldSchema.getFullName().equals(fullName) ? fieldSchema : null;
-    }
-  }
-
-  /**
-   * Gets the schema by full name.
-   *
-   * @param arraySchema the array schema
-   * @param fullName    the full name
-   * @return the schema by full name
-   */
-  private static Schema getSchemaByFullName(Schema arraySchema, String fullName) {
-    if (arraySchema.getElementType().getType() == Schema.Type.UNION) {
-      List<Schema> itemTypes = arraySchema.getElementType().getTypes();
-      return getSchemaByFullName(itemTypes, fullName);
-    } else {
-      return arraySchema.getElementType().getFullName().equals(
-              fullName) ? arraySchema.getElementType() : null;
-    }
+  private Schema getSchemaByFullName(GenericRecord delta, String field, String fullName) {
+    return plan.getField(delta.getSchema(), field).getBranch(fullName);
   }
 
   /**
@@ -182,12 +137,10 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param field the field
    * @throws DeltaCalculatorException the delta calculator exception
    */
-  private static void putUnchanged(GenericRecord delta, String field)
+  private void putUnchanged(GenericRecord delta, String field)
           throws DeltaCalculatorException {
-    Schema unchangedSchema = getSchemaByFullName(
-            delta, field, KAA_NAMESPACE + "." + UNCHANGED + "T");
-    if (unchangedSchema != null) {
-      GenericEnumSymbol unchanged = new GenericData.EnumSymbol(unchangedSchema, UNCHANGED);
+    GenericEnumSymbol unchanged = plan.getField(delta.getSchema(), field).getUnchanged();
+    if (unchanged != null) {
       delta.put(field, unchanged);
     } else {
       throw new DeltaCalculatorException(new StringBuilder()
@@ -203,10 +156,9 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param field the field
    * @throws DeltaCalculatorException the delta calculator exception
    */
-  private static void putReset(GenericRecord delta, String field) throws DeltaCalculatorException {
-    Schema resetSchema = getSchemaByFullName(delta, field, KAA_NAMESPACE + "." + RESET + "T");
-    if (resetSchema != null) {
-      GenericEnumSymbol reset = new GenericData.EnumSymbol(resetSchema, RESET);
+  private void putReset(GenericRecord delta, String field) throws DeltaCalculatorException {
+    GenericEnumSymbol reset = plan.getField(delta.getSchema(), field).getReset();
+    if (reset != null) {
       delta.put(field, reset);
     } else {
       throw new DeltaCalculatorException(new StringBuilder().append(
@@ -223,7 +175,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param record the record
    * @return the generic record
    */
-  private static GenericRecord createSubDelta(
+  private GenericRecord createSubDelta(
           GenericRecord delta, String field, GenericRecord record) {
     Schema recordType = getSchemaByFullName(delta, field, getFullName(record));
     return recordType == null ? null : new GenericData.Record(recordType);
@@ -238,7 +190,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param fieldQueue  the field queue
    * @throws DeltaCalculatorException the delta calculator exception
    */
-  private static void fillDeltaArrayFields(GenericRecord delta, Set<String> resetFields,
+  private void fillDeltaArrayFields(GenericRecord delta, Set<String> resetFields,
                                            Map<String, List<byte[]>> uuidFields,
                                            Queue<FieldAttribute> fieldQueue)
           throws DeltaCalculatorException {
@@ -249,8 +201,9 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
         if (resetFields.contains(field.name())) {
           putReset(delta, field.name());
         } else if (uuidFields.containsKey(field.name())) {
-          Schema arraySchema = getArraySchema(delta, field.name());
-          Schema uuidSchema = getSchemaByFullName(arraySchema, KAA_NAMESPACE + "." + UUID_TYPE);
+          DeltaSchemaPlan.FieldPlan fieldPlan = plan.getField(delta.getSchema(), field.name());
+          Schema arraySchema = fieldPlan.getArraySchema();
+          Schema uuidSchema = fieldPlan.getUuidSchema();
 
           List<byte[]> uuids = uuidFields.get(field.name());
           GenericArray arrayField = new GenericData.Array(uuids.size(), arraySchema);
@@ -284,15 +237,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @return the delta schema by full name
    */
   private Schema getDeltaSchemaByFullName(String fullName) {
-    Schema deltaT = deltaSchema.getElementType();
-    Schema deltaUnion = deltaT.getField(DELTA).schema();
-    List<Schema> deltas = deltaUnion.getTypes();
-    for (Schema delta : deltas) {
-      if (delta.getFullName().equals(fullName)) {
-        return delta;
-      }
-    }
-    return null;
+    return plan.getDeltaSchemaByFullName(fullName);
   }
 
   /**
@@ -304,7 +249,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    */
   private void addComplexItemToArray(GenericContainer container, GenericArray array)
           throws DeltaCalculatorException {
-    Schema itemSchema = getSchemaByFullName(array.getSchema(), getFullName(container));
+    Schema itemSchema = plan.getArrayItemSchema(array.getSchema(), getFullName(container));
     if (itemSchema.getType() == Type.RECORD) {
       GenericRecord subDelta = new GenericData.Record(itemSchema);
       fillDeltaWithoutMerge(subDelta, (GenericRecord) container);
@@ -693,12 +638,14 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
   @Override
   public RawBinaryDelta calculate(BaseData endpointConfiguration, BaseData newConfigurationBody)
       throws IOException, DeltaCalculatorException {
-    GenericRecord oldRoot = getRootNode(endpointConfiguration, baseSchema);
-    GenericRecord newRoot = getRootNode(newConfigurationBody, baseSchema);
+    if (endpointConfiguration.getRawData().equals(newConfigurationBody.getRawData())) {
+      return new AvroBinaryDelta(plan.getDeltaSchema());
+    }
+    GenericRecord oldRoot = getRootNode(endpointConfiguration);
+    GenericRecord newRoot = getRootNode(newConfigurationBody);
     return calculate(oldRoot, newRoot);
   }
 
-
   /**
    *  Calculates a delta.
    *
@@ -710,7 +657,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
   @Override
   public RawBinaryDelta calculate(BaseData newConfigurationBody)
           throws IOException, DeltaCalculatorException {
-    GenericRecord newRoot = getRootNode(newConfigurationBody, baseSchema);
+    GenericRecord newRoot = getRootNode(newConfigurationBody);
     return calculate(newRoot);
   }
 
@@ -724,7 +671,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    */
   public RawBinaryDelta calculate(GenericRecord oldConfig, GenericRecord newConfig)
           throws DeltaCalculatorException {
-    resultDelta = new AvroBinaryDelta(deltaSchema);
+    resultDelta = new AvroBinaryDelta(plan.getDeltaSchema());
     processedRecords = new HashSet<>();
     processDifferences(oldConfig, newConfig);
     return resultDelta;
@@ -738,7 +685,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @throws DeltaCalculatorException the delta calculation exception
    */
   public RawBinaryDelta calculate(GenericRecord newConfig) throws DeltaCalculatorException {
-    resultDelta = new AvroBinaryDelta(deltaSchema);
+    resultDelta = new AvroBinaryDelta(plan.getDeltaSchema());
     Schema deltaSubSchema = getDeltaSchemaByFullName(getFullName(newConfig));
     if (deltaSubSchema == null) {
       throw new DeltaCalculatorException(new StringBuilder().append("Failed to find schema for \"")
@@ -757,9 +704,8 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @param data the base data object
    * @return the root node
    */
-  private GenericRecord getRootNode(BaseData data, Schema schema) throws IOException {
-    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<GenericRecord>(schema);
-    return converter.decodeJson(data.getRawData());
+  private GenericRecord getRootNode(BaseData data) throws IOException {
+    return plan.getBaseConverter().decodeJson(data.getRawData());
   }
 
   /**
@@ -909,17 +855,13 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
       return newRecord;
     }
 
-    /* (non-Javadoc)
-     * @see java.lang.Object#hashCode()
+    /**
+     * Tuples are compared by identity of the records, as each pair of records is visited
+     * once and comparing record trees by value is expensive.
      */
     @Override
     public int hashCode() {
-      final int prime = 31;
-      int result = 1;
-      result = prime * result + getOuterType().hashCode();
-      result = prime * result + ((newRecord == null) ? 0 : newRecord.hashCode());
-      result = prime * result + ((oldRecord == null) ? 0 : oldRecord.hashCode());
-      return result;
+      return 31 * System.identityHashCode(oldRecord) + System.identityHashCode(newRecord);
     }
 
     /* (non-Javadoc)
@@ -930,31 +872,12 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
       if (this == obj) {
         return true;
       }
-      if (obj == null) {
-        return false;
-      }
-      if (getClass() != obj.getClass()) {
+      if (obj == null || getClass() != obj.getClass()) {
         return false;
       }
       RecordTuple other = (RecordTuple) obj;
-      if (!getOuterType().equals(other.getOuterType())) {
-        return false;
-      }
-      if (newRecord == null) {
-        if (other.newRecord != null) {
-          return false;
-        }
-      } else if (!newRecord.equals(other.newRecord)) {
-        return false;
-      }
-      if (oldRecord == null) {
-        if (other.oldRecord != null) {
-          return false;
-        }
-      } else if (!oldRecord.equals(other.oldRecord)) {
-        return false;
-      }
-      return true;
+      return getOuterType() == other.getOuterType()
+          && oldRecord == other.oldRecord && newRecord == other.newRecord;
     }
 
     /**
@@ -20,12 +20,21 @@ import org.apache.avro.Schema;
 import org.kaaproject.kaa.server.common.core.schema.BaseSchema;
 import org.kaaproject.kaa.server.common.core.schema.ProtocolSchema;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 
 /**
  * A factory for creating DefaultDeltaCalculator objects.
  */
 public class DefaultDeltaCalculatorFactory implements DeltaCalculatorFactory {
 
+  /**
+   * Compiled schemas by protocol and base schemas. There are few of them per configuration
+   * schema version, so they are kept for the lifetime of the factory.
+   */
+  private final ConcurrentMap<String, DeltaSchemaPlan> plans = new ConcurrentHashMap<>();
+
   /* (non-Javadoc)
    * @see org.kaaproject.kaa.server.operations.service.delta.DeltaCalculatorFactory
    * #createDeltaCalculator(java.lang.String)
@@ -33,9 +42,18 @@ public class DefaultDeltaCalculatorFactory implements DeltaCalculatorFactory {
   @Override
   public DeltaCalculationAlgorithm createDeltaCalculator(
           ProtocolSchema protocolSchemaBody, BaseSchema baseDataSchema) {
-    Schema protocolSchema = new Schema.Parser().parse(protocolSchemaBody.getRawSchema());
-    Schema baseSchema = new Schema.Parser().parse(baseDataSchema.getRawSchema());
-    return new DefaultDeltaCalculationAlgorithm(protocolSchema, baseSchema);
+    String key = protocolSchemaBody.getRawSchema() + "\n" + baseDataSchema.getRawSchema();
+    DeltaSchemaPlan plan = plans.get(key);
+    if (plan == null) {
+      Schema protocolSchema = new Schema.Parser().parse(protocolSchemaBody.getRawSchema());
+      Schema baseSchema = new Schema.Parser().parse(baseDataSchema.getRawSchema());
+      plan = new DeltaSchemaPlan(protocolSchema, baseSchema);
+      DeltaSchemaPlan existing = plans.putIfAbsent(key, plan);
+      if (existing != null) {
+        plan = existing;
+      }
+    }
+    return new DefaultDeltaCalculationAlgorithm(plan);
   }
 
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.core.algorithms.delta;
+
+import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.DELTA;
+import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.KAA_NAMESPACE;
+import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.RESET;
+import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.UNCHANGED;
+import static org.kaaproject.kaa.server.common.core.algorithms.CommonConstants.UUID_TYPE;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericEnumSymbol;
+import org.apache.avro.generic.GenericRecord;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup tables the delta calculation needs, compiled once per pair of protocol and base
+ * schemas: delta record types by name, union branches and array item types of every delta
+ * field and the shared "unchanged" and "reset" symbols. Immutable once built, so a plan
+ * is shared by all calculations for the same configuration schema version.
+ */
+final class DeltaSchemaPlan {
+
+  private static final String UNCHANGED_TYPE = KAA_NAMESPACE + "." + UNCHANGED + "T";
+  private static final String RESET_TYPE = KAA_NAMESPACE + "." + RESET + "T";
+  private static final String UUID_FULL_TYPE = KAA_NAMESPACE + "." + UUID_TYPE;
+
+  private final Schema deltaSchema;
+  private final Schema baseSchema;
+  private final GenericAvroConverter<GenericRecord> baseConverter;
+  private final Map<String, Schema> deltaTypes = new HashMap<>();
+  private final Map<Schema, Map<String, FieldPlan>> recordFields = new IdentityHashMap<>();
+  private final Map<Schema, Map<String, Schema>> arrayItemTypes = new IdentityHashMap<>();
+
+  DeltaSchemaPlan(Schema deltaSchema, Schema baseSchema) {
+    this.deltaSchema = deltaSchema;
+    this.baseSchema = baseSchema;
+    this.baseConverter = new GenericAvroConverter<>(baseSchema);
+    Schema deltaUnion = deltaSchema.getElementType().getField(DELTA).schema();
+    for (Schema delta : deltaUnion.getTypes()) {
+      deltaTypes.put(delta.getFullName(), delta);
+      compile(delta);
+    }
+  }
+
+  Schema getDeltaSchema() {
+    return deltaSchema;
+  }
+
+  Schema getBaseSchema() {
+    return baseSchema;
+  }
+
+  GenericAvroConverter<GenericRecord> getBaseConverter() {
+    return baseConverter;
+  }
+
+  Schema getDeltaSchemaByFullName(String fullName) {
+    return deltaTypes.get(fullName);
+  }
+
+  FieldPlan getField(Schema recordSchema, String field) {
+    Map<String, FieldPlan> fields = recordFields.get(recordSchema);
+    if (fields != null) {
+      FieldPlan plan = fields.get(field);
+      if (plan != null) {
+        return plan;
+      }
+    }
+    // a schema which is not a part of the delta schema, not expected to happen
+    return new FieldPlan(recordSchema.getField(field).schema());
+  }
+
+  Schema getArrayItemSchema(Schema arraySchema, String fullName) {
+    Map<String, Schema> itemTypes = arrayItemTypes.get(arraySchema);
+    if (itemTypes == null) {
+      itemTypes = branchesOf(arraySchema.getElementType());
+    }
+    return itemTypes.get(fullName);
+  }
+
+  private void compile(Schema schema) {
+    switch (schema.getType()) {
+      case RECORD:
+        if (recordFields.containsKey(schema)) {
+          return;
+        }
+        Map<String, FieldPlan> fields = new HashMap<>();
+        recordFields.put(schema, fields);
+        for (Schema.Field field : schema.getFields()) {
+          fields.put(field.name(), new FieldPlan(field.schema()));
+          compile(field.schema());
+        }
+        break;
+      case UNION:
+        for (Schema type : schema.getTypes()) {
+          compile(type);
+        }
+        break;
+      case ARRAY:
+        if (!arrayItemTypes.containsKey(schema)) {
+          arrayItemTypes.put(schema, branchesOf(schema.getElementType()));
+          compile(schema.getElementType());
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private static Map<String, Schema> branchesOf(Schema schema) {
+    List<Schema> types = schema.getType() == Schema.Type.UNION
+        ? schema.getTypes() : Collections.singletonList(schema);
+    Map<String, Schema> branches = new HashMap<>();
+    for (Schema type : types) {
+      if (!branches.containsKey(type.getFullName())) {
+        branches.put(type.getFullName(), type);
+      }
+    }
+    return branches;
+  }
+
+  /**
+   * Compiled schema of a single delta record field.
+   */
+  static final class FieldPlan {
+
+    private final Map<String, Schema> branches;
+    private final Schema arraySchema;
+    private final Schema uuidSchema;
+    private final GenericEnumSymbol unchanged;
+    private final GenericEnumSymbol reset;
+
+    private FieldPlan(Schema fieldSchema) {
+      this.branches = branchesOf(fieldSchema);
+      Schema array = null;
+      for (Schema type : branches.values()) {
+        if (type.getType() == Schema.Type.ARRAY) {
+          array = type;
+          break;
+        }
+      }
+      this.arraySchema = fieldSchema.getType() == Schema.Type.UNION ? array : null;
+      this.uuidSchema = arraySchema != null ? branchesOf(arraySchema.getElementType()).get(
+          UUID_FULL_TYPE) : null;
+      Schema unchangedSchema = branches.get(UNCHANGED_TYPE);
+      this.unchanged = unchangedSchema != null
+          ? new GenericData.EnumSymbol(unchangedSchema, UNCHANGED) : null;
+      Schema resetSchema = branches.get(RESET_TYPE);
+      this.reset = resetSchema != null ? new GenericData.EnumSymbol(resetSchema, RESET) : null;
+    }
+
+    Schema getBranch(String fullName) {
+      return branches.get(fullName);
+    }
+
+    Schema getArraySchema() {
+      return arraySchema;
+    }
+
+    Schema getUuidSchema() {
+      return uuidSchema;
+    }
+
+    GenericEnumSymbol getUnchanged() {
+      return unchanged;
+    }
+
+    GenericEnumSymbol getReset() {
+      return reset;
+    }
+  }
+}
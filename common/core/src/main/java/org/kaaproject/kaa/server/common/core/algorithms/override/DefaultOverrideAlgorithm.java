@@ -27,10 +27,7 @@ import org.apache.avro.generic.GenericEnumSymbol;
 import org.apache.avro.generic.GenericRecord;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.server.common.core.algorithms.generation.ConfigurationGenerationException;
-import org.kaaproject.kaa.server.common.core.algorithms.generation.DefaultRecordGenerationAlgorithm;
-import org.kaaproject.kaa.server.common.core.algorithms.generation.DefaultRecordGenerationAlgorithmImpl;
 import org.kaaproject.kaa.server.common.core.configuration.BaseData;
-import org.kaaproject.kaa.server.common.core.configuration.BaseDataFactory;
 import org.kaaproject.kaa.server.common.core.configuration.OverrideData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +38,9 @@ import java.util.List;
 
 /**
  * Default implementation of {@link OverrideAlgorithm}.
+ * Override layers are applied copy-on-write: nodes that are not touched by an override
+ * are shared with the previous merge result, which is never modified. This allows to keep
+ * partially merged configurations in the {@link OverrideMergeCache}.
  */
 public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
 
@@ -49,8 +49,28 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
    */
   private static final Logger LOG = LoggerFactory.getLogger(DefaultOverrideAlgorithm.class);
 
-  private DefaultRecordGenerationAlgorithm confGenerator;
-  private Schema.Parser baseSchemaParser;
+  private final OverrideMergeCache mergeCache;
+  private final boolean cacheMergeResults;
+
+  private OverrideMergeContext context;
+
+  /**
+   * Instantiates a new override algorithm that doesn't cache anything between merges.
+   */
+  public DefaultOverrideAlgorithm() {
+    this(null, false);
+  }
+
+  /**
+   * Instantiates a new override algorithm.
+   *
+   * @param mergeCache        the cache of parsed schemas and merge results
+   * @param cacheMergeResults whether merge results should be cached and reused
+   */
+  public DefaultOverrideAlgorithm(OverrideMergeCache mergeCache, boolean cacheMergeResults) {
+    this.mergeCache = mergeCache;
+    this.cacheMergeResults = mergeCache != null && cacheMergeResults;
+  }
 
   /* (non-Javadoc)
    * @see org.kaaproject.kaa.server.operations.service.delta.merge.ConfigurationMerger#merge(
@@ -72,59 +92,73 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
       return baseConfiguration;
     }
 
-    try {
-      confGenerator = new DefaultRecordGenerationAlgorithmImpl(baseConfiguration.getSchema(),
-              new BaseDataFactory());
-    } catch (ConfigurationGenerationException ex) {
-      throw new OverrideException(ex);
-    }
+    context = mergeCache != null
+        ? mergeCache.getContext(baseConfiguration.getSchema())
+        : new OverrideMergeContext(baseConfiguration.getSchema());
+    GenericAvroConverter<GenericRecord> baseConverter = context.getBaseConverter();
+    GenericAvroConverter<GenericRecord> overrideConverter = context.getOverrideConverter(
+            overrideConfigurations.get(0).getSchema());
 
-    baseSchemaParser = new Schema.Parser();
-    Schema baseAvroSchema = baseSchemaParser.parse(baseConfiguration.getSchema().getRawSchema());
-    Schema.Parser overrideSchemaParser = new Schema.Parser();
-    Schema overrideAvroSchema = overrideSchemaParser.parse(
-            overrideConfigurations.get(0).getSchema().getRawSchema());
-
-    LOG.info("converter: {}", baseAvroSchema.toString());
-    GenericAvroConverter<GenericRecord> baseConverter = new GenericAvroConverter(baseAvroSchema);
-    GenericAvroConverter<GenericRecord> overrideConverter = new GenericAvroConverter(
-            overrideAvroSchema);
-    GenericRecord mergedConfiguration = baseConverter.decodeJson(baseConfiguration.getRawData());
+    OverrideMergeCache.Node node = cacheMergeResults
+        ? mergeCache.getRoot(context, baseConfiguration.getRawData()) : null;
+    GenericRecord mergedConfiguration = node != null
+        ? node.getRecord() : baseConverter.decodeJson(baseConfiguration.getRawData());
 
     try {
-      ArrayOverrideStrategyResolver arrayMergeStrategyResolver = new ArrayOverrideStrategyResolver(
-              baseSchemaParser.getTypes());
+      int cachedLayers = 0;
       for (OverrideData entry : overrideConfigurations) {
         String configurationToApply = entry.getRawData();
-        // else execute merge
-        LOG.debug("Override schema {}", entry.getSchema());
-        GenericRecord nodeToApply = overrideConverter.decodeJson(configurationToApply);
-        LOG.info("configurationToApply: {}", nodeToApply);
-        applyNode(mergedConfiguration, nodeToApply, arrayMergeStrategyResolver);
+        OverrideMergeCache.Node child = node != null
+            ? mergeCache.getChild(node, configurationToApply) : null;
+        if (child != null) {
+          cachedLayers++;
+          mergedConfiguration = child.getRecord();
+        } else {
+          // else execute merge
+          LOG.debug("Override schema {}", entry.getSchema());
+          GenericRecord nodeToApply = overrideConverter.decodeJson(configurationToApply);
+          LOG.trace("configurationToApply: {}", nodeToApply);
+          mergedConfiguration = applyNode(mergedConfiguration, nodeToApply);
+          if (node != null) {
+            child = mergeCache.addChild(node, configurationToApply, mergedConfiguration);
+          }
+        }
+        node = child;
+      }
+      LOG.debug("Reused {} of {} merged override layers", cachedLayers,
+              overrideConfigurations.size());
+
+      String rawData = node != null ? node.getRawData() : null;
+      if (rawData == null) {
+        rawData = baseConverter.encodeToJson(mergedConfiguration);
+        if (node != null) {
+          node.setRawData(rawData);
+        }
       }
-      return new BaseData(baseConfiguration.getSchema(),
-              baseConverter.encodeToJson(mergedConfiguration));
+      return new BaseData(baseConfiguration.getSchema(), rawData);
     } catch (IOException | ConfigurationGenerationException ex) {
       throw new OverrideException(ex);
     }
   }
 
   private Schema getSchemaByName(String fullName) {
-    return baseSchemaParser.getTypes().get(fullName);
+    return context.getSchemaByName(fullName);
   }
 
   /**
-   * Apply node.
+   * Apply node. Neither destination nor source nodes are modified.
    *
-   * @param destinationRoot            the destination root
-   * @param sourceRoot                 the source root
-   * @param arrayMergeStrategyResolver the array merge strategy resolver
+   * @param destinationRoot the destination root, or null if there is no such node yet
+   * @param sourceRoot      the source root
+   * @return the copy of destination root with the source root applied
    * @throws OverrideException the merge exception
    */
-  private void applyNode(GenericRecord destinationRoot, GenericRecord sourceRoot,
-                         ArrayOverrideStrategyResolver arrayMergeStrategyResolver)
+  private GenericRecord applyNode(GenericRecord destinationRoot, GenericRecord sourceRoot)
           throws OverrideException, ConfigurationGenerationException {
     Schema sourceRootSchema = sourceRoot.getSchema();
+    GenericRecord resultRoot = destinationRoot != null
+        ? copyOf(destinationRoot)
+        : new GenericData.Record(getSchemaByName(sourceRootSchema.getFullName()));
 
     // iterate over each child node and try to apply it
     for (Schema.Field field : sourceRootSchema.getFields()) {
@@ -136,10 +170,10 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
         // If the field's value is "unchanged" and this field is empty
         // in destination data we should generate the default value for it
         if (sourceEnum.toString().equals(UNCHANGED)) {
-          if (destinationRoot.get(field.pos()) == null) {
-            GenericRecord defRec = confGenerator.getConfigurationByName(
+          if (resultRoot.get(field.pos()) == null) {
+            GenericRecord defRec = context.getDefaultRecord(
                     sourceRootSchema.getName(), sourceRootSchema.getNamespace());
-            destinationRoot.put(field.pos(), defRec.get(field.pos()));
+            resultRoot.put(field.pos(), defRec.get(field.pos()));
           }
           continue;
         }
@@ -147,7 +181,7 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
 
       // if they are then try to merge them
       // else override destination's node with source's node
-      Object destinationChild = destinationRoot.get(field.pos());
+      Object destinationChild = resultRoot.get(field.pos());
       // avro type is different - override destination's node with source's node
       if (sourceChild instanceof GenericRecord) {
         // checking schema types
@@ -159,13 +193,8 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
             destinationRecord = tempRecord;
           }
         }
-        if (destinationRecord == null) {
-          destinationRecord = new GenericData.Record(
-                  getSchemaByName(sourceRecord.getSchema().getFullName()));
-          destinationRoot.put(field.pos(), destinationRecord);
-        }
         // merge nodes
-        applyNode(destinationRecord, sourceRecord, arrayMergeStrategyResolver);
+        resultRoot.put(field.pos(), applyNode(destinationRecord, sourceRecord));
       } else if (sourceChild instanceof GenericArray) {
         // merge array
         GenericArray sourceArray = (GenericArray) sourceChild;
@@ -188,7 +217,7 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
               resolveStrategy = true;
             }
             if (resolveStrategy) {
-              mergeStrategy = arrayMergeStrategyResolver.resolve(
+              mergeStrategy = context.getArrayOverrideStrategyResolver().resolve(
                       sourceRootSchema.getName(), sourceRootSchema.getNamespace(), sourceChildname);
             }
           }
@@ -199,39 +228,47 @@ public class DefaultOverrideAlgorithm implements OverrideAlgorithm {
               GenericArray destArray = new GenericData.Array<>(sourceArray.size(),
                       sourceArray.getSchema());
               for (Object item : sourceArray) {
-                GenericRecord recordItem = (GenericRecord) item;
-                GenericRecord destRecord = new GenericData.Record(
-                        getSchemaByName(recordItem.getSchema().getFullName()));
-                applyNode(destRecord, recordItem, arrayMergeStrategyResolver);
-                destArray.add(destRecord);
+                destArray.add(applyNode(null, (GenericRecord) item));
               }
-              destinationRoot.put(sourceChildname, destArray);
+              resultRoot.put(sourceChildname, destArray);
             } else {
-              destinationRoot.put(sourceChildname, sourceChild);
+              resultRoot.put(sourceChildname, sourceChild);
             }
             break;
           case APPEND:
-            GenericArray destArray = (GenericArray) destinationChild;
+            GenericArray previousArray = (GenericArray) destinationChild;
+            GenericArray destArray = new GenericData.Array<>(
+                    previousArray.size() + sourceArray.size(), previousArray.getSchema());
+            destArray.addAll(previousArray);
             if (sourceArray.getSchema().getElementType().getType() == Schema.Type.RECORD) {
               for (Object item : sourceArray) {
-                GenericRecord recordItem = (GenericRecord) item;
-                GenericRecord destRecord = new GenericData.Record(
-                        getSchemaByName(recordItem.getSchema().getFullName()));
-                applyNode(destRecord, recordItem, arrayMergeStrategyResolver);
-                destArray.add(destRecord);
+                destArray.add(applyNode(null, (GenericRecord) item));
               }
             } else {
               destArray.addAll(sourceArray);
             }
+            resultRoot.put(sourceChildname, destArray);
             break;
           default:
             break;
         }
-      } else if (!UUID_FIELD.equals(field.name()) || destinationRoot.get(field.pos()) == null) {
+      } else if (!UUID_FIELD.equals(field.name()) || resultRoot.get(field.pos()) == null) {
         // simple node is just copied to destination node
-        destinationRoot.put(sourceChildname, sourceChild);
+        resultRoot.put(sourceChildname, sourceChild);
       }
     }
+    return resultRoot;
+  }
+
+  /**
+   * Shallow copy of the record, child nodes are shared with the original one.
+   */
+  private static GenericRecord copyOf(GenericRecord record) {
+    GenericRecord copy = new GenericData.Record(record.getSchema());
+    for (Schema.Field field : record.getSchema().getFields()) {
+      copy.put(field.pos(), record.get(field.pos()));
+    }
+    return copy;
   }
 
 }
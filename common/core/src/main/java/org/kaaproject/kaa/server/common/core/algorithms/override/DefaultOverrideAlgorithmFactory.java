@@ -22,10 +22,31 @@ package org.kaaproject.kaa.server.common.core.algorithms.override;
  */
 public class DefaultOverrideAlgorithmFactory implements OverrideAlgorithmFactory {
 
+  private final OverrideMergeCache mergeCache;
+
+  public DefaultOverrideAlgorithmFactory() {
+    this(OverrideMergeCache.DEFAULT_MAX_CACHED_BYTES);
+  }
+
+  /**
+   * Instantiates a new factory.
+   *
+   * @param maxCachedBytes the approximate max size in bytes of the merged configurations shared
+   *                       by created algorithms
+   */
+  public DefaultOverrideAlgorithmFactory(long maxCachedBytes) {
+    this.mergeCache = new OverrideMergeCache(maxCachedBytes);
+  }
+
   /* (non-Javadoc)
    */
   @Override
   public OverrideAlgorithm createConfigurationOverrideAlgorithm() {
-    return new DefaultOverrideAlgorithm();
+    return new DefaultOverrideAlgorithm(mergeCache, true);
+  }
+
+  @Override
+  public OverrideAlgorithm createTransientConfigurationOverrideAlgorithm() {
+    return new DefaultOverrideAlgorithm(mergeCache, false);
   }
 }
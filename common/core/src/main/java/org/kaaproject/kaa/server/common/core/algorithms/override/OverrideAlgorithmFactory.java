@@ -28,4 +28,12 @@ public interface OverrideAlgorithmFactory {
    * @return the override algorithm
    */
   OverrideAlgorithm createConfigurationOverrideAlgorithm();
+
+  /**
+   * Creates a new OverrideAlgorithm object for one-off merges, e.g. with user specific
+   * configurations, whose results are not worth caching.
+   *
+   * @return the override algorithm
+   */
+  OverrideAlgorithm createTransientConfigurationOverrideAlgorithm();
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.core.algorithms.override;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+import org.apache.avro.generic.GenericRecord;
+import org.kaaproject.kaa.server.common.core.schema.BaseSchema;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of partially merged configurations shared by {@link DefaultOverrideAlgorithm}
+ * instances. For each base configuration it keeps a trie whose edges are the override
+ * bodies in the order they are applied, so merging a new combination of endpoint groups
+ * only applies the override layers after the longest already merged prefix.
+ *
+ * <p>Trie nodes are entries of a single LRU cache bounded by their approximate size in bytes.
+ * A node is keyed by its parent and the override body that leads to it, so evicting a node
+ * only costs the merges below it, which are then redone and cached again on demand.
+ *
+ * <p>Merged records are shared between trie nodes and threads, thus they are never
+ * modified after they are put into the cache.
+ */
+public class OverrideMergeCache {
+
+  public static final long DEFAULT_MAX_CACHED_BYTES = 64L * 1024 * 1024;
+
+  /**
+   * Approximate per entry overhead of the key, the node and the cache entry itself.
+   */
+  private static final int ENTRY_OVERHEAD = 128;
+
+  private final ConcurrentMap<String, OverrideMergeContext> contexts = new ConcurrentHashMap<>();
+  private final AtomicLong nodeIds = new AtomicLong();
+  private final Cache<MergeKey, Node> nodes;
+
+  public OverrideMergeCache() {
+    this(DEFAULT_MAX_CACHED_BYTES);
+  }
+
+  /**
+   * Instantiates a new merge cache.
+   *
+   * @param maxCachedBytes the approximate max size in bytes of the merged configurations kept
+   *                       in the cache, least recently used ones are evicted once it is exceeded
+   */
+  public OverrideMergeCache(long maxCachedBytes) {
+    this.nodes = CacheBuilder.newBuilder()
+        .maximumWeight(maxCachedBytes)
+        .weigher(new Weigher<MergeKey, Node>() {
+          @Override
+          public int weigh(MergeKey key, Node node) {
+            return node.getWeight();
+          }
+        })
+        .build();
+  }
+
+  OverrideMergeContext getContext(BaseSchema baseSchema) throws IOException {
+    String rawSchema = baseSchema.getRawSchema();
+    OverrideMergeContext context = contexts.get(rawSchema);
+    if (context == null) {
+      context = new OverrideMergeContext(baseSchema);
+      OverrideMergeContext existing = contexts.putIfAbsent(rawSchema, context);
+      if (existing != null) {
+        context = existing;
+      }
+    }
+    return context;
+  }
+
+  Node getRoot(OverrideMergeContext context, String rawData) throws IOException {
+    MergeKey key = new MergeKey(context, rawData);
+    Node root = nodes.getIfPresent(key);
+    if (root == null) {
+      root = new Node(nodeIds.incrementAndGet(),
+          context.getBaseConverter().decodeJson(rawData), rawData, rawData.length());
+      root = putIfAbsent(key, root);
+    }
+    return root;
+  }
+
+  Node getChild(Node parent, String overrideRawData) {
+    return nodes.getIfPresent(new MergeKey(parent.id, overrideRawData));
+  }
+
+  Node addChild(Node parent, String overrideRawData, GenericRecord merged) {
+    // The merged record is at most as large as its parent with the override applied.
+    Node child = new Node(nodeIds.incrementAndGet(), merged, null,
+        parent.size + overrideRawData.length());
+    return putIfAbsent(new MergeKey(parent.id, overrideRawData), child);
+  }
+
+  /**
+   * Removes all cached merge results and parsed schemas.
+   */
+  public void clear() {
+    nodes.invalidateAll();
+    contexts.clear();
+  }
+
+  public long size() {
+    return nodes.size();
+  }
+
+  private Node putIfAbsent(MergeKey key, Node node) {
+    Node existing = nodes.asMap().putIfAbsent(key, node);
+    return existing != null ? existing : node;
+  }
+
+  /**
+   * Identifies a trie node by its parent and the raw data of the edge leading to it. The parent
+   * of a root node is its merge context, the parent of any other node is the id of its parent
+   * node, so an evicted parent is not kept reachable by the keys of its children.
+   */
+  private static final class MergeKey {
+
+    private final Object parent;
+    private final String rawData;
+
+    private MergeKey(Object parent, String rawData) {
+      this.parent = parent;
+      this.rawData = rawData;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof MergeKey)) {
+        return false;
+      }
+      MergeKey other = (MergeKey) obj;
+      return parent.equals(other.parent) && rawData.equals(other.rawData);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * parent.hashCode() + rawData.hashCode();
+    }
+  }
+
+  static final class Node {
+
+    private final Long id;
+    private final GenericRecord record;
+    private final long size;
+    private volatile String rawData;
+
+    private Node(long id, GenericRecord record, String rawData, long size) {
+      this.id = id;
+      this.record = record;
+      this.rawData = rawData;
+      this.size = size;
+    }
+
+    GenericRecord getRecord() {
+      return record;
+    }
+
+    String getRawData() {
+      return rawData;
+    }
+
+    void setRawData(String rawData) {
+      this.rawData = rawData;
+    }
+
+    /**
+     * Approximates the memory held by the node as two bytes per character of the merged
+     * configuration, which is counted twice: once for the record and once for its raw data.
+     */
+    private int getWeight() {
+      return (int) Math.min(Integer.MAX_VALUE, 4L * size + ENTRY_OVERHEAD);
+    }
+  }
+}
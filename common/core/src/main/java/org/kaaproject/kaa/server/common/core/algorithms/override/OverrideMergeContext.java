@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.core.algorithms.override;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.server.common.core.algorithms.generation.ConfigurationGenerationException;
+import org.kaaproject.kaa.server.common.core.algorithms.generation.DefaultRecordGenerationAlgorithm;
+import org.kaaproject.kaa.server.common.core.algorithms.generation.DefaultRecordGenerationAlgorithmImpl;
+import org.kaaproject.kaa.server.common.core.configuration.BaseDataFactory;
+import org.kaaproject.kaa.server.common.core.schema.BaseSchema;
+import org.kaaproject.kaa.server.common.core.schema.OverrideSchema;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Everything the override algorithm derives from the base schema: parsed types, converters
+ * and default records. Parsed once per schema and shared between merges.
+ */
+class OverrideMergeContext {
+
+  private final BaseSchema baseSchema;
+  private final Map<String, Schema> baseTypes;
+  private final GenericAvroConverter<GenericRecord> baseConverter;
+  private final ArrayOverrideStrategyResolver arrayOverrideStrategyResolver;
+  private final ConcurrentMap<String, GenericAvroConverter<GenericRecord>> overrideConverters =
+          new ConcurrentHashMap<>();
+
+  private DefaultRecordGenerationAlgorithm confGenerator;
+
+  OverrideMergeContext(BaseSchema baseSchema) throws IOException {
+    this.baseSchema = baseSchema;
+    Schema.Parser baseSchemaParser = new Schema.Parser();
+    Schema baseAvroSchema = baseSchemaParser.parse(baseSchema.getRawSchema());
+    this.baseTypes = baseSchemaParser.getTypes();
+    this.baseConverter = new GenericAvroConverter<>(baseAvroSchema);
+    this.arrayOverrideStrategyResolver = new ArrayOverrideStrategyResolver(baseTypes);
+  }
+
+  Schema getSchemaByName(String fullName) {
+    return baseTypes.get(fullName);
+  }
+
+  GenericAvroConverter<GenericRecord> getBaseConverter() {
+    return baseConverter;
+  }
+
+  ArrayOverrideStrategyResolver getArrayOverrideStrategyResolver() {
+    return arrayOverrideStrategyResolver;
+  }
+
+  GenericAvroConverter<GenericRecord> getOverrideConverter(OverrideSchema overrideSchema) {
+    String rawSchema = overrideSchema.getRawSchema();
+    GenericAvroConverter<GenericRecord> converter = overrideConverters.get(rawSchema);
+    if (converter == null) {
+      converter = new GenericAvroConverter<>(new Schema.Parser().parse(rawSchema));
+      GenericAvroConverter<GenericRecord> existing = overrideConverters.putIfAbsent(rawSchema,
+              converter);
+      if (existing != null) {
+        converter = existing;
+      }
+    }
+    return converter;
+  }
+
+  /**
+   * Returns the record with default values for the given type. The record is shared,
+   * so it must not be modified.
+   */
+  synchronized GenericRecord getDefaultRecord(String name, String namespace)
+          throws ConfigurationGenerationException {
+    if (confGenerator == null) {
+      confGenerator = new DefaultRecordGenerationAlgorithmImpl(baseSchema,
+              new BaseDataFactory());
+    }
+    return confGenerator.getConfigurationByName(name, namespace);
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.commons.compress.utils.IOUtils;
 import org.junit.Test;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.server.common.core.configuration.BaseData;
 import org.kaaproject.kaa.server.common.core.schema.BaseSchema;
 
@@ -310,4 +311,35 @@ public class DefaultDeltaCalculatorTest {
     assertNull(deltaResult.getData());
     assertFalse(deltaResult.hasChanges());
   }
+
+  @Test
+  public void testBinaryConfigurationsDelta() throws IOException, URISyntaxException, DeltaCalculatorException {
+    URL protocolSchemaUrl = Thread.currentThread().getContextClassLoader().getResource(COMPLEX_PROTOCOL_SCHEMA);
+    URL schemaUrl = Thread.currentThread().getContextClassLoader().getResource(COMPLEX_SCHEMA);
+    Schema protocolSchema = new Schema.Parser().parse(new File(protocolSchemaUrl.getPath()));
+    Schema schema = new Schema.Parser().parse(new File(schemaUrl.getPath()));
+    DefaultDeltaCalculationAlgorithm calculator = new DefaultDeltaCalculationAlgorithm(protocolSchema, schema);
+
+    ByteArrayOutputStream baosOld = new ByteArrayOutputStream();
+    URL oldConfigUrl = Thread.currentThread().getContextClassLoader().getResource(OLD_COMPLEX_CONFIG);
+    IOUtils.copy(new FileInputStream(oldConfigUrl.getPath()), baosOld, 1024);
+    String oldStr = new String(baosOld.toByteArray(), "UTF-8");
+
+    ByteArrayOutputStream baosNew = new ByteArrayOutputStream();
+    URL newConfigUrl = Thread.currentThread().getContextClassLoader().getResource(NEW_COMPLEX_CONFIG);
+    IOUtils.copy(new FileInputStream(newConfigUrl.getPath()), baosNew, 1024);
+    String newStr = new String(baosNew.toByteArray(), "UTF-8");
+
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(schema);
+    byte[] oldBinary = converter.encode(converter.decodeJson(oldStr));
+    byte[] newBinary = converter.encode(converter.decodeJson(newStr));
+
+    RawBinaryDelta deltaResult = calculator.calculate(oldBinary, newBinary);
+    assertTrue(deltaResult.hasChanges());
+    assertArrayEquals(getComplexFieldDelta(protocolSchema).getData(), deltaResult.getData());
+
+    RawBinaryDelta emptyDelta = calculator.calculate(oldBinary, oldBinary.clone());
+    assertFalse(emptyDelta.hasChanges());
+    assertNull(emptyDelta.getData());
+  }
 }
@@ -33,6 +33,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class DefaultOverrideAlgorithmTest {
@@ -94,4 +96,77 @@ public class DefaultOverrideAlgorithmTest {
     Assert.assertNull(mergeResult);
   }
 
+  @Test
+  public void testCachedMergeOfConfigurationPrefixes() throws Exception {
+    Path schemaUrl = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/schema.json").toURI());
+    DataSchema configuraionSchema = new DataSchema(new String(Files.readAllBytes(schemaUrl)));
+
+    SchemaGenerationAlgorithmFactory factory = new SchemaGenerationAlgorithmFactoryImpl();
+    SchemaGenerationAlgorithm generator = factory.createSchemaGenerator(configuraionSchema);
+
+    BaseSchema baseSchemaString = generator.getBaseSchema();
+    OverrideSchema overrideSchemaString = generator.getOverrideSchema();
+
+    Path configuraionWeight0Path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/config_weight_0.json").toURI());
+    BaseData baseData = new BaseData(baseSchemaString, new String(Files.readAllBytes(configuraionWeight0Path)));
+    Path configuraionWeight1Path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/config_weight_1.json").toURI());
+    OverrideData data1 = new OverrideData(overrideSchemaString, new String(Files.readAllBytes(configuraionWeight1Path)));
+    Path configuraionWeight2Path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/config_weight_2.json").toURI());
+    OverrideData data2 = new OverrideData(overrideSchemaString, new String(Files.readAllBytes(configuraionWeight2Path)));
+
+    OverrideMergeCache cache = new OverrideMergeCache();
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(baseSchemaString.getRawSchema());
+
+    List<List<OverrideData>> combinations = Arrays.asList(
+        Arrays.asList(data1, data2),
+        Collections.singletonList(data1),
+        Collections.singletonList(data2),
+        Arrays.asList(data1, data2));
+    for (List<OverrideData> combination : combinations) {
+      BaseData expected = new DefaultOverrideAlgorithm().override(baseData, combination);
+      BaseData actual = new DefaultOverrideAlgorithm(cache, true).override(baseData, combination);
+      Assert.assertEquals(converter.decodeJson(expected.getRawData()), converter.decodeJson(actual.getRawData()));
+    }
+    // base, [data1], [data1, data2] and [data2]
+    Assert.assertEquals(4, cache.size());
+
+    new DefaultOverrideAlgorithm(cache, false).override(baseData, Collections.singletonList(data1));
+    Assert.assertEquals(4, cache.size());
+  }
+
+  @Test
+  public void testCachedMergeWithinMaxCachedBytes() throws Exception {
+    Path schemaUrl = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/schema.json").toURI());
+    DataSchema configuraionSchema = new DataSchema(new String(Files.readAllBytes(schemaUrl)));
+
+    SchemaGenerationAlgorithmFactory factory = new SchemaGenerationAlgorithmFactoryImpl();
+    SchemaGenerationAlgorithm generator = factory.createSchemaGenerator(configuraionSchema);
+
+    BaseSchema baseSchemaString = generator.getBaseSchema();
+    OverrideSchema overrideSchemaString = generator.getOverrideSchema();
+
+    Path configuraionWeight0Path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/config_weight_0.json").toURI());
+    BaseData baseData = new BaseData(baseSchemaString, new String(Files.readAllBytes(configuraionWeight0Path)));
+    Path configuraionWeight1Path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/config_weight_1.json").toURI());
+    OverrideData data1 = new OverrideData(overrideSchemaString, new String(Files.readAllBytes(configuraionWeight1Path)));
+    Path configuraionWeight2Path = Paths.get(Thread.currentThread().getContextClassLoader().getResource("override/config_weight_2.json").toURI());
+    OverrideData data2 = new OverrideData(overrideSchemaString, new String(Files.readAllBytes(configuraionWeight2Path)));
+
+    // Too small to hold the base configuration and all of its merges.
+    OverrideMergeCache cache = new OverrideMergeCache(baseData.getRawData().length() * 8L);
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(baseSchemaString.getRawSchema());
+
+    List<List<OverrideData>> combinations = Arrays.asList(
+        Arrays.asList(data1, data2),
+        Collections.singletonList(data1),
+        Collections.singletonList(data2),
+        Arrays.asList(data1, data2));
+    for (List<OverrideData> combination : combinations) {
+      BaseData expected = new DefaultOverrideAlgorithm().override(baseData, combination);
+      BaseData actual = new DefaultOverrideAlgorithm(cache, true).override(baseData, combination);
+      Assert.assertEquals(converter.decodeJson(expected.getRawData()), converter.decodeJson(actual.getRawData()));
+    }
+    Assert.assertTrue(cache.size() < 4);
+  }
+
 }
@@ -40,6 +40,9 @@ public interface Constants { //NOSONAR
   //cvc32 of AvroEncDecUseRawChema
   int KAA_PLATFORM_PROTOCOL_AVRO_ID_V2 = 0xe0c0c178;
 
+  //crc32 of AvroEncDecCompressedLogs, V2 with compressed log entries
+  int KAA_PLATFORM_PROTOCOL_AVRO_ID_V3 = 0xd5df638a;
+
 
   //The identifier for the Binary platform protocol
   int KAA_PLATFORM_PROTOCOL_BINARY_ID = 0x3553c66f;
@@ -36,10 +36,17 @@ import java.io.IOException;
  * @author Andrew Shvayka
  */
 public class AvroByteArrayConverter<T extends SpecificRecordBase> {
+  /**
+   * Largest output buffer kept between calls; a buffer grown by an unusually large record is
+   * dropped rather than retained.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
   SpecificDatumReader<T> avroReader;
   SpecificDatumWriter<T> avroWriter;
   BinaryEncoder encoder;
   BinaryDecoder decoder;
+  ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
   /**
    * Instantiates a new Avro byte array converter based on class.
@@ -60,11 +67,17 @@ public class AvroByteArrayConverter<T extends SpecificRecordBase> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public byte[] toByteArray(T avroObject) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    // Reconfiguring the encoder flushes anything left over from a failed call, so the buffer is
+    // reset only afterwards.
     encoder = EncoderFactory.get().binaryEncoder(baos, encoder);
+    baos.reset();
     avroWriter.write(avroObject, encoder);
     encoder.flush();
-    return baos.toByteArray();
+    byte[] result = baos.toByteArray();
+    if (result.length > MAX_RETAINED_BUFFER_SIZE) {
+      baos = new ByteArrayOutputStream();
+    }
+    return result;
   }
 
   /**
@@ -33,12 +33,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /**
  * The Class AvroByteArrayConverter is used to convert
  * {#link org.apache.avro.generic.GenericContainer specific avro records} to/from bytes.
- * NOT Thread safe.
+ * Thread safe: datum reader and writer are shared, while encoders, decoders and output
+ * buffers are kept per thread and reused between calls.
  *
  * @param <T> the generic type that extends GenericContainer
  */
@@ -50,13 +54,27 @@ public class GenericAvroConverter<T extends GenericContainer> {
   private static final Charset ENCODING_CHARSET = Charset.forName("UTF-8");
   private static final Charset DECODING_CHARSET = Charset.forName("ISO-8859-1");
 
-  private Schema schema;
-  private DatumReader<T> datumReader;
-  private DatumWriter<T> datumWriter;
-  private BinaryDecoder binaryDecoder;
-  private BinaryEncoder binaryEncoder;
-  private JsonDecoder jsonDecoder;
-  private JsonEncoder jsonEncoder;
+  /**
+   * Per thread output buffers larger than this size are not retained between calls.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  private static final ThreadLocal<BinaryDecoder> BINARY_DECODER =
+      new ThreadLocal<BinaryDecoder>();
+  private static final ThreadLocal<BinaryEncoder> BINARY_ENCODER =
+      new ThreadLocal<BinaryEncoder>();
+  private static final ThreadLocal<ReusableByteArrayOutputStream> OUTPUT_BUFFER =
+      new ThreadLocal<ReusableByteArrayOutputStream>() {
+        @Override
+        protected ReusableByteArrayOutputStream initialValue() {
+          return new ReusableByteArrayOutputStream();
+        }
+      };
+
+  private final Schema schema;
+  private final DatumReader<T> datumReader;
+  private final DatumWriter<T> datumWriter;
 
   /**
    * Instantiates a new generic Avro converter.
@@ -146,8 +164,24 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public T decodeBinary(byte[] data, T reuse) throws IOException {
-    binaryDecoder = DecoderFactory.get().binaryDecoder(data, binaryDecoder);
-    return datumReader.read(reuse, binaryDecoder);
+    return decodeBinary(data, 0, data.length, reuse);
+  }
+
+  /**
+   * Decode binary data from the given region of the array.
+   *
+   * @param data   the data
+   * @param offset the offset of the encoded record
+   * @param length the length of the encoded record
+   * @param reuse  the reuse
+   * @return the decoded object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public T decodeBinary(byte[] data, int offset, int length, T reuse) throws IOException {
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, offset, length,
+        BINARY_DECODER.get());
+    BINARY_DECODER.set(decoder);
+    return datumReader.read(reuse, decoder);
   }
 
   /**
@@ -181,8 +215,8 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public T decodeJson(String data, T reuse) throws IOException {
-    jsonDecoder = DecoderFactory.get().jsonDecoder(this.schema, data, true);
-    return datumReader.read(null, jsonDecoder);
+    JsonDecoder decoder = DecoderFactory.get().jsonDecoder(this.schema, data, true);
+    return datumReader.read(reuse, decoder);
   }
 
   /**
@@ -193,7 +227,12 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public String encodeToJson(T record) throws IOException {
-    return new String(encodeToJsonBytes(record), ENCODING_CHARSET);
+    ReusableByteArrayOutputStream out = writeJson(record);
+    try {
+      return new String(out.array(), 0, out.size(), ENCODING_CHARSET);
+    } finally {
+      out.release();
+    }
   }
 
   /**
@@ -204,12 +243,12 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public byte[] encodeToJsonBytes(T record) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    jsonEncoder = EncoderFactory.get().jsonEncoder(this.schema, baos, true);
-    datumWriter.write(record, jsonEncoder);
-    jsonEncoder.flush();
-    baos.flush();
-    return baos.toByteArray();
+    ReusableByteArrayOutputStream out = writeJson(record);
+    try {
+      return out.toByteArray();
+    } finally {
+      out.release();
+    }
   }
 
   /**
@@ -220,12 +259,112 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public byte[] encode(T record) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    binaryEncoder = EncoderFactory.get().binaryEncoder(baos, binaryEncoder);
-    datumWriter.write(record, binaryEncoder);
-    binaryEncoder.flush();
-    baos.flush();
-    return baos.toByteArray();
+    ReusableByteArrayOutputStream out = OUTPUT_BUFFER.get().acquire();
+    try {
+      writeBinary(record, out);
+      return out.toByteArray();
+    } finally {
+      out.release();
+    }
+  }
+
+  /**
+   * Encode record directly into the target buffer, starting at its current position.
+   * On success the position of the target is advanced by the number of written bytes.
+   *
+   * @param record the object to encode
+   * @param target the target buffer
+   * @return the number of written bytes
+   * @throws IOException Signals that an I/O exception has occurred.
+   * @throws java.nio.BufferOverflowException if the record does not fit into the target
+   */
+  public int encode(T record, ByteBuffer target) throws IOException {
+    int start = target.position();
+    writeBinary(record, new ByteBufferOutputStream(target));
+    return target.position() - start;
+  }
+
+  private void writeBinary(T record, OutputStream out) throws IOException {
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, BINARY_ENCODER.get());
+    try {
+      datumWriter.write(record, encoder);
+      encoder.flush();
+      BINARY_ENCODER.set(encoder);
+    } catch (IOException | RuntimeException ex) {
+      // the encoder may still buffer a part of the record, so it can't be reused
+      BINARY_ENCODER.remove();
+      throw ex;
+    }
+  }
+
+  private ReusableByteArrayOutputStream writeJson(T record) throws IOException {
+    ReusableByteArrayOutputStream out = OUTPUT_BUFFER.get().acquire();
+    try {
+      JsonEncoder encoder = EncoderFactory.get().jsonEncoder(this.schema, out, true);
+      datumWriter.write(record, encoder);
+      encoder.flush();
+    } catch (IOException | RuntimeException ex) {
+      out.release();
+      throw ex;
+    }
+    return out;
+  }
+
+  /**
+   * Per thread output buffer. If it is already in use by the current thread (e.g. a
+   * converter is called while serializing with another one), a temporary buffer is used.
+   */
+  private static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private boolean inUse;
+
+    ReusableByteArrayOutputStream() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    ReusableByteArrayOutputStream acquire() {
+      if (inUse) {
+        return new ReusableByteArrayOutputStream();
+      }
+      inUse = true;
+      return this;
+    }
+
+    void release() {
+      reset();
+      if (buf.length > MAX_RETAINED_BUFFER_SIZE) {
+        buf = new byte[INITIAL_BUFFER_SIZE];
+      }
+      inUse = false;
+    }
+
+    byte[] array() {
+      return buf;
+    }
+
+    @Override
+    public synchronized byte[] toByteArray() {
+      return Arrays.copyOf(buf, count);
+    }
+  }
+
+  private static final class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer target;
+
+    ByteBufferOutputStream(ByteBuffer target) {
+      this.target = target;
+    }
+
+    @Override
+    public void write(int value) {
+      target.put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+      target.put(data, offset, length);
+    }
   }
 
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.common.endpoint.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Packs log records into compressed blocks for the
+ * {@link org.kaaproject.kaa.common.Constants#KAA_PLATFORM_PROTOCOL_AVRO_ID_V3} platform
+ * protocol.
+ *
+ * <p>A block is the zlib-compressed number of records followed by the records, each prefixed
+ * with its length; the numbers are four-byte big-endian integers. Compressing the records of a log bucket together rather than
+ * one by one lets the encoder use the redundancy between records, which is where most of the
+ * savings on small log records come from.
+ */
+public final class LogEntryCompressor {
+
+  /**
+   * The default maximum number of records in a single block.
+   */
+  public static final int MAX_BLOCK_RECORDS = 64 * 1024;
+
+  /**
+   * The default maximum total size in bytes of the records restored from a single block.
+   */
+  public static final long MAX_BLOCK_SIZE = 16L * 1024 * 1024;
+
+  private LogEntryCompressor() {
+  }
+
+  /**
+   * Compresses the records into a single block.
+   *
+   * @param records the records
+   * @return the compressed block
+   * @throws IOException if the records can't be compressed
+   */
+  public static byte[] compress(List<byte[]> records) throws IOException {
+    ByteArrayOutputStream block = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    try {
+      DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(block, deflater));
+      output.writeInt(records.size());
+      for (byte[] record : records) {
+        output.writeInt(record.length);
+        output.write(record);
+      }
+      output.close();
+    } finally {
+      deflater.end();
+    }
+    return block.toByteArray();
+  }
+
+  /**
+   * Restores the records of a compressed block, within the default per-block limits.
+   *
+   * @param block the compressed block
+   * @return the records
+   * @throws IOException if the block is malformed or exceeds the limits
+   */
+  public static List<byte[]> decompress(byte[] block) throws IOException {
+    return decompress(block, MAX_BLOCK_RECORDS, MAX_BLOCK_SIZE);
+  }
+
+  /**
+   * Restores the records of a compressed block. A small block can inflate to a huge one, so
+   * the record count and the total size of the restored records are checked before anything
+   * is allocated.
+   *
+   * @param block      the compressed block
+   * @param maxRecords the maximum number of records
+   * @param maxSize    the maximum total size in bytes of the records
+   * @return the records
+   * @throws IOException if the block is malformed or exceeds the limits
+   */
+  public static List<byte[]> decompress(byte[] block, int maxRecords, long maxSize)
+      throws IOException {
+    DataInputStream input = new DataInputStream(
+        new InflaterInputStream(new ByteArrayInputStream(block)));
+    try {
+      int count = input.readInt();
+      if (count < 0) {
+        throw new IOException("Invalid log record count: " + count);
+      }
+      if (count > maxRecords) {
+        throw new IOException("Log record count " + count + " exceeds the limit " + maxRecords);
+      }
+      List<byte[]> records = new ArrayList<>(Math.min(count, 1024));
+      long remaining = maxSize;
+      for (int i = 0; i < count; i++) {
+        int size = input.readInt();
+        if (size < 0) {
+          throw new IOException("Invalid log record size: " + size);
+        }
+        if (size > remaining) {
+          throw new IOException("Log records exceed the size limit " + maxSize);
+        }
+        remaining -= size;
+        byte[] record = new byte[size];
+        input.readFully(record);
+        records.add(record);
+      }
+      return records;
+    } finally {
+      input.close();
+    }
+  }
+}
@@ -16,15 +16,113 @@
 
 package org.kaaproject.kaa.common.avro;
 
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Assert;
 import org.junit.Test;
 import org.kaaproject.kaa.common.endpoint.gen.BasicEndpointProfile;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class GenericAvroConverterTest {
 
+  private static final Schema SCHEMA = new Schema.Parser().parse("{\"type\":\"record\","
+      + "\"name\":\"Test\",\"fields\":[{\"name\":\"id\",\"type\":\"int\"},"
+      + "{\"name\":\"text\",\"type\":\"string\"}]}");
+
   @Test(expected = RuntimeException.class)
   public void testStaticMethod() throws Exception {
     GenericAvroConverter.toJson("Expected to fail with this invalid input".getBytes(), BasicEndpointProfile.SCHEMA$.toString());
   }
 
+  @Test
+  public void testEncodeToByteBuffer() throws Exception {
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(SCHEMA);
+    GenericRecord record = newRecord(1);
+    byte[] expected = converter.encode(record);
+
+    ByteBuffer buffer = ByteBuffer.allocate(expected.length + 4);
+    buffer.putInt(42);
+    Assert.assertEquals(expected.length, converter.encode(record, buffer));
+    Assert.assertEquals(buffer.capacity(), buffer.position());
+
+    byte[] actual = new byte[expected.length];
+    buffer.position(4);
+    buffer.get(actual);
+    Assert.assertArrayEquals(expected, actual);
+    Assert.assertEquals(record, converter.decodeBinary(actual));
+  }
+
+  @Test
+  public void testEncodeAfterBufferOverflow() throws Exception {
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(SCHEMA);
+    GenericRecord record = newRecord(2);
+    byte[] expected = converter.encode(record);
+    try {
+      converter.encode(record, ByteBuffer.allocate(1));
+      Assert.fail("Expected buffer overflow");
+    } catch (RuntimeException ex) {
+      // expected
+    }
+    Assert.assertArrayEquals(expected, converter.encode(record));
+  }
+
+  @Test
+  public void testDecodeReuse() throws Exception {
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(SCHEMA);
+    GenericRecord reuse = newRecord(3);
+
+    GenericRecord decoded = converter.decodeBinary(converter.encode(newRecord(4)), reuse);
+    Assert.assertSame(reuse, decoded);
+    Assert.assertEquals(newRecord(4), decoded);
+
+    decoded = converter.decodeJson(converter.encodeToJson(newRecord(5)), reuse);
+    Assert.assertSame(reuse, decoded);
+    Assert.assertEquals(newRecord(5), decoded);
+  }
+
+  @Test
+  public void testConcurrentUsage() throws Exception {
+    final GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(SCHEMA);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final int thread = i;
+        results.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            for (int j = 0; j < 1000; j++) {
+              GenericRecord record = newRecord(thread * 1000 + j);
+              if (!record.equals(converter.decodeBinary(converter.encode(record)))
+                  || !record.equals(converter.decodeJson(converter.encodeToJson(record)))) {
+                return false;
+              }
+            }
+            return true;
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static GenericRecord newRecord(int id) {
+    GenericRecord record = new GenericData.Record(SCHEMA);
+    record.put("id", id);
+    record.put("text", "record-" + id);
+    return record;
+  }
 
 }
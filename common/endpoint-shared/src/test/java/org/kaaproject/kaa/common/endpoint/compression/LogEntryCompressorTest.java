@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.common.endpoint.compression;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+public class LogEntryCompressorTest {
+
+  @Test
+  public void compressAndDecompressTest() throws IOException {
+    List<byte[]> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      records.add(("{\"level\":\"INFO\",\"tag\":\"sensor\",\"value\":" + i + "}").getBytes("UTF-8"));
+    }
+    records.add(new byte[0]);
+
+    byte[] block = LogEntryCompressor.compress(records);
+    int size = 0;
+    for (byte[] record : records) {
+      size += record.length;
+    }
+    Assert.assertTrue(block.length < size / 2);
+
+    List<byte[]> restored = LogEntryCompressor.decompress(block);
+    Assert.assertEquals(records.size(), restored.size());
+    for (int i = 0; i < records.size(); i++) {
+      Assert.assertArrayEquals(records.get(i), restored.get(i));
+    }
+  }
+
+  @Test
+  public void emptyBlockTest() throws IOException {
+    byte[] block = LogEntryCompressor.compress(Collections.<byte[]>emptyList());
+    Assert.assertTrue(LogEntryCompressor.decompress(block).isEmpty());
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedBlockTest() throws IOException {
+    byte[] block = LogEntryCompressor.compress(Arrays.asList(new byte[] {1, 2, 3}, new byte[64]));
+    LogEntryCompressor.decompress(Arrays.copyOf(block, block.length / 2));
+  }
+
+  @Test(expected = IOException.class)
+  public void oversizedBlockTest() throws IOException {
+    byte[] bomb = zeroBlock(1, (int) LogEntryCompressor.MAX_BLOCK_SIZE + 1);
+    Assert.assertTrue(bomb.length < 64 * 1024);
+    LogEntryCompressor.decompress(bomb);
+  }
+
+  @Test(expected = IOException.class)
+  public void tooManyRecordsTest() throws IOException {
+    LogEntryCompressor.decompress(zeroBlock(LogEntryCompressor.MAX_BLOCK_RECORDS + 1, 0));
+  }
+
+  @Test
+  public void customLimitsTest() throws IOException {
+    byte[] block = LogEntryCompressor.compress(Arrays.asList(new byte[10], new byte[10]));
+    Assert.assertEquals(2, LogEntryCompressor.decompress(block, 2, 20).size());
+    try {
+      LogEntryCompressor.decompress(block, 1, 20);
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+    try {
+      LogEntryCompressor.decompress(block, 2, 19);
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+  }
+
+  /**
+   * Writes a block of zero-filled records without materializing them, the way a zlib bomb
+   * is crafted.
+   */
+  private static byte[] zeroBlock(int count, int recordSize) throws IOException {
+    ByteArrayOutputStream block = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(block));
+    byte[] chunk = new byte[64 * 1024];
+    output.writeInt(count);
+    for (int i = 0; i < count; i++) {
+      output.writeInt(recordSize);
+      for (int written = 0; written < recordSize; written += chunk.length) {
+        output.write(chunk, 0, Math.min(chunk.length, recordSize - written));
+      }
+    }
+    output.close();
+    return block.toByteArray();
+  }
+}
@@ -41,9 +41,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -68,16 +66,6 @@ public class CassandraLogAppender extends AbstractLogAppender<CassandraConfig> {
   private boolean closed = false;
   private CassandraExecuteRequestType executeRequestType;
 
-
-  private ThreadLocal<Map<String, GenericAvroConverter<GenericRecord>>> converters = new ThreadLocal<Map<String, GenericAvroConverter<GenericRecord>>>() {
-
-    @Override
-    protected Map<String, GenericAvroConverter<GenericRecord>> initialValue() {
-      return new HashMap<String, GenericAvroConverter<GenericRecord>>();
-    }
-
-  };
-
   /**
    * Instantiates a new CassandraLogAppender.
    */
@@ -249,26 +237,6 @@ public class CassandraLogAppender extends AbstractLogAppender<CassandraConfig> {
     }
   }
 
-  /**
-   * Gets the converter.
-   *
-   * @param schema the schema
-   * @return the converter
-   */
-  private GenericAvroConverter<GenericRecord> getConverter(String schema) {
-    LOG.trace("Get converter for schema [{}]", schema);
-    Map<String, GenericAvroConverter<GenericRecord>> converterMap = converters.get();
-    GenericAvroConverter<GenericRecord> genAvroConverter = converterMap.get(schema);
-    if (genAvroConverter == null) {
-      LOG.trace("Create new converter for schema [{}]", schema);
-      genAvroConverter = new GenericAvroConverter<GenericRecord>(schema);
-      converterMap.put(schema, genAvroConverter);
-      converters.set(converterMap);
-    }
-    LOG.trace("Get converter [{}] from map.", genAvroConverter);
-    return genAvroConverter;
-  }
-
   private static final class Callback implements FutureCallback<ResultSet> {
 
     private final LogDeliveryCallback callback;
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.couchbase.appender;
+
+import com.couchbase.client.java.document.JsonDocument;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func1;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes batches of documents through an asynchronous insert operation.
+ *
+ * <p>All documents of a batch are inserted concurrently, and the batch completes once every
+ * insert is acknowledged or with the first failure. The number of documents in flight is
+ * bounded by <code>maxInFlight</code>: batches that don't fit wait in a queue until
+ * earlier batches complete, so a busy cluster delays the completion of the batches
+ * instead of blocking their callers. A batch larger than the limit is started alone.
+ */
+class BulkDocumentWriter {
+
+  private final Func1<JsonDocument, Observable<JsonDocument>> insert;
+  private final int maxInFlight;
+  private final Queue<PendingBatch> pending = new ArrayDeque<>();
+
+  private int inFlight;
+  private boolean closed;
+
+  /**
+   * Create new instance of <code>BulkDocumentWriter</code>.
+   *
+   * @param insert      the asynchronous insert of a single document
+   * @param maxInFlight the maximum number of documents written concurrently
+   */
+  BulkDocumentWriter(Func1<JsonDocument, Observable<JsonDocument>> insert, int maxInFlight) {
+    this.insert = insert;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Schedules the documents of a batch.
+   *
+   * @param documents the documents to insert
+   * @return the future that completes once all documents are inserted
+   */
+  CompletableFuture<Void> write(List<JsonDocument> documents) {
+    PendingBatch batch = new PendingBatch(documents);
+    synchronized (this) {
+      if (closed) {
+        batch.future.completeExceptionally(new IllegalStateException("Writer is closed"));
+        return batch.future;
+      }
+      pending.add(batch);
+    }
+    startPending();
+    return batch.future;
+  }
+
+  /**
+   * Fails the batches that are not started yet and rejects new ones.
+   */
+  void close() {
+    List<PendingBatch> rejected;
+    synchronized (this) {
+      closed = true;
+      rejected = new ArrayList<>(pending);
+      pending.clear();
+    }
+    for (PendingBatch batch : rejected) {
+      batch.future.completeExceptionally(new IllegalStateException("Writer is closed"));
+    }
+  }
+
+  private void startPending() {
+    List<PendingBatch> ready = new ArrayList<>();
+    synchronized (this) {
+      while (!pending.isEmpty()) {
+        int size = pending.peek().documents.size();
+        if (inFlight > 0 && inFlight + size > maxInFlight) {
+          break;
+        }
+        inFlight += size;
+        ready.add(pending.poll());
+      }
+    }
+    for (PendingBatch batch : ready) {
+      start(batch);
+    }
+  }
+
+  private void start(final PendingBatch batch) {
+    Observable.from(batch.documents).flatMap(insert).subscribe(new Subscriber<JsonDocument>() {
+      @Override
+      public void onNext(JsonDocument document) {
+      }
+
+      @Override
+      public void onCompleted() {
+        complete(batch, null);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        complete(batch, throwable);
+      }
+    });
+  }
+
+  private void complete(PendingBatch batch, Throwable throwable) {
+    synchronized (this) {
+      inFlight -= batch.documents.size();
+    }
+    if (throwable == null) {
+      batch.future.complete(null);
+    } else {
+      batch.future.completeExceptionally(throwable);
+    }
+    startPending();
+  }
+
+  private static final class PendingBatch {
+    private final List<JsonDocument> documents;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private PendingBatch(List<JsonDocument> documents) {
+      this.documents = documents;
+    }
+  }
+}
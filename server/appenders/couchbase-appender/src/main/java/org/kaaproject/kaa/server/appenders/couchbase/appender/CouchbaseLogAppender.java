@@ -55,10 +55,18 @@ public class CouchbaseLogAppender extends AbstractLogAppender<CouchbaseConfig> {
         List<LogEventDto> dtos = generateLogEvent(logEventPack, header);
         LOG.debug("[{}] saving {} objects", getApplicationToken(), dtos.size());
         if (!dtos.isEmpty()) {
-          logEventDao.save(header, dtos);
-          LOG.debug("[{}] appended {} logs to couchbase bucket", getApplicationToken(), logEventPack.getEvents().size());
+          logEventDao.save(header, dtos).whenComplete((result, ex) -> {
+            if (ex == null) {
+              LOG.debug("[{}] appended {} logs to couchbase bucket", getApplicationToken(), dtos.size());
+              listener.onSuccess();
+            } else {
+              LOG.error(MessageFormat.format("[{0}] Failed to save logs to couchbase bucket", getName()), ex);
+              listener.onRemoteError();
+            }
+          });
+        } else {
+          listener.onSuccess();
         }
-        listener.onSuccess();
       } catch (Exception ex) {
         LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed due to internal error", getName()), ex);
         listener.onInternalError();
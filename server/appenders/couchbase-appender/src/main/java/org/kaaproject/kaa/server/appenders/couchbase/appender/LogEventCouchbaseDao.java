@@ -16,28 +16,38 @@
 
 package org.kaaproject.kaa.server.appenders.couchbase.appender;
 
+import com.couchbase.client.java.AsyncBucket;
+import com.couchbase.client.java.PersistTo;
+import com.couchbase.client.java.ReplicateTo;
+import com.couchbase.client.java.document.JsonDocument;
+import com.couchbase.client.java.document.json.JsonObject;
+
 import org.kaaproject.kaa.common.dto.logs.LogEventDto;
 import org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig;
 import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.couchbase.core.CouchbaseTemplate;
-import org.springframework.data.couchbase.core.WriteResultChecking;
+import org.springframework.data.couchbase.core.mapping.CouchbaseDocument;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class LogEventCouchbaseDao implements LogEventDao {
 
   private static final Logger LOG = LoggerFactory.getLogger(LogEventCouchbaseDao.class);
 
+  private static final int DEFAULT_MAX_IN_FLIGHT_DOCUMENTS = 1024;
+
   private final Random random = new Random();
 
   private KaaCouchbaseCluster couchbaseConfiguration;
   private CouchbaseTemplate couchbaseTemplate;
+  private BulkDocumentWriter documentWriter;
 
   /**
    * Instantiates a new Log event couchbase dao.
@@ -53,24 +63,33 @@ public class LogEventCouchbaseDao implements LogEventDao {
         configuration.getBucket(),
         configuration.getPassword());
     couchbaseTemplate = couchbaseConfiguration.connect();
-    couchbaseTemplate.setWriteResultChecking(WriteResultChecking.EXCEPTION);
+
+    AsyncBucket bucket = couchbaseTemplate.getCouchbaseBucket().async();
+    PersistTo persistTo = configuration.getPersistTo() != null
+        ? PersistTo.valueOf(configuration.getPersistTo().name()) : PersistTo.NONE;
+    Integer maxInFlight = configuration.getMaxInFlightDocuments();
+    documentWriter = new BulkDocumentWriter(
+        document -> bucket.insert(document, persistTo, ReplicateTo.NONE),
+        maxInFlight != null && maxInFlight > 0 ? maxInFlight : DEFAULT_MAX_IN_FLIGHT_DOCUMENTS);
   }
 
   @Override
-  public List<LogEvent> save(RecordHeader recordHeader, List<LogEventDto> logEventDtos) {
-    List<LogEvent> logEvents = new ArrayList<>(logEventDtos.size());
+  public CompletableFuture<Void> save(RecordHeader recordHeader, List<LogEventDto> logEventDtos) {
+    List<JsonDocument> documents = new ArrayList<>(logEventDtos.size());
     for (LogEventDto logEventDto : logEventDtos) {
       LogEvent logEvent = new LogEvent(recordHeader, logEventDto);
       logEvent.setId(getId(logEventDto.getId()));
-      logEvents.add(logEvent);
+      documents.add(toDocument(logEvent));
     }
-    LOG.debug("Saving {} log events", logEvents.size());
-    couchbaseTemplate.insert(logEvents);
-    return logEvents;
+    LOG.debug("Saving {} log events", documents.size());
+    return documentWriter.write(documents);
   }
 
   @Override
   public void close() {
+    if (documentWriter != null) {
+      documentWriter.close();
+    }
     if (couchbaseConfiguration != null) {
       try {
         couchbaseConfiguration.disconnect();
@@ -80,6 +99,17 @@ public class LogEventCouchbaseDao implements LogEventDao {
     }
   }
 
+  /**
+   * Converts the event with the template mapping, so that the stored documents are the
+   * same as the ones written by the template itself.
+   */
+  private JsonDocument toDocument(LogEvent logEvent) {
+    CouchbaseDocument converted = new CouchbaseDocument();
+    couchbaseTemplate.getConverter().write(logEvent, converted);
+    return JsonDocument.create(converted.getId(), converted.getExpiration(),
+        JsonObject.from(converted.export()));
+  }
+
   private String getId(String id) {
     if (id == null || id.length() == 0) {
       id = new UUID(System.currentTimeMillis(), random.nextLong()).toString();
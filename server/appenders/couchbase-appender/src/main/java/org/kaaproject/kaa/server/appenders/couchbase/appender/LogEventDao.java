@@ -20,10 +20,18 @@ import org.kaaproject.kaa.common.dto.logs.LogEventDto;
 import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface LogEventDao {
 
-  List<LogEvent> save(RecordHeader header, List<LogEventDto> logEventDtos);
+  /**
+   * Saves the events of a log batch.
+   *
+   * @param header       the record header
+   * @param logEventDtos the events to save
+   * @return the future that completes once all events are saved
+   */
+  CompletableFuture<Void> save(RecordHeader header, List<LogEventDto> logEventDtos);
 
   void close();
 
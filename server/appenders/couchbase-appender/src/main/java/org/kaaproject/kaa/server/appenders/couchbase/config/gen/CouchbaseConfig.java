@@ -8,11 +8,13 @@ package org.kaaproject.kaa.server.appenders.couchbase.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"CouchbaseConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.couchbase.config.gen\",\"fields\":[{\"name\":\"couchbaseServerUris\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"CouchbaseServerUri\",\"fields\":[{\"name\":\"serverUri\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Server URI\",\"by_default\":\"http://127.0.0.1:8091\"}]}},\"displayName\":\"Couchbase servers list\",\"minRowCount\":1},{\"name\":\"bucket\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Couchbase bucket name\",\"by_default\":\"default\"},{\"name\":\"password\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Couchbase bucket password\",\"inputType\":\"password\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"CouchbaseConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.couchbase.config.gen\",\"fields\":[{\"name\":\"couchbaseServerUris\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"CouchbaseServerUri\",\"fields\":[{\"name\":\"serverUri\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Server URI\",\"by_default\":\"http://127.0.0.1:8091\"}]}},\"displayName\":\"Couchbase servers list\",\"minRowCount\":1},{\"name\":\"bucket\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Couchbase bucket name\",\"by_default\":\"default\"},{\"name\":\"password\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Couchbase bucket password\",\"inputType\":\"password\"},{\"name\":\"maxInFlightDocuments\",\"type\":[\"int\",\"null\"],\"displayName\":\"Max documents written concurrently\",\"by_default\":1024},{\"name\":\"persistTo\",\"type\":[{\"type\":\"enum\",\"name\":\"CouchbasePersistTo\",\"symbols\":[\"NONE\",\"MASTER\",\"ONE\",\"TWO\",\"THREE\",\"FOUR\"]},\"null\"],\"displayName\":\"Persist to\",\"by_default\":\"NONE\"}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
    private java.util.List<org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseServerUri> couchbaseServerUris;
    private java.lang.String bucket;
    private java.lang.String password;
+   private java.lang.Integer maxInFlightDocuments;
+   private org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo persistTo;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -24,10 +26,12 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
   /**
    * All-args constructor.
    */
-  public CouchbaseConfig(java.util.List<org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseServerUri> couchbaseServerUris, java.lang.String bucket, java.lang.String password) {
+  public CouchbaseConfig(java.util.List<org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseServerUri> couchbaseServerUris, java.lang.String bucket, java.lang.String password, java.lang.Integer maxInFlightDocuments, org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo persistTo) {
     this.couchbaseServerUris = couchbaseServerUris;
     this.bucket = bucket;
     this.password = password;
+    this.maxInFlightDocuments = maxInFlightDocuments;
+    this.persistTo = persistTo;
   }
 
   public org.apache.avro.Schema getSchema() { return SCHEMA$; }
@@ -37,6 +41,8 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
     case 0: return couchbaseServerUris;
     case 1: return bucket;
     case 2: return password;
+    case 3: return maxInFlightDocuments;
+    case 4: return persistTo;
     default: throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
   }
@@ -47,6 +53,8 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
     case 0: couchbaseServerUris = (java.util.List<org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseServerUri>)value$; break;
     case 1: bucket = (java.lang.String)value$; break;
     case 2: password = (java.lang.String)value$; break;
+    case 3: maxInFlightDocuments = (java.lang.Integer)value$; break;
+    case 4: persistTo = (org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo)value$; break;
     default: throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
   }
@@ -96,6 +104,36 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
     this.password = value;
   }
 
+  /**
+   * Gets the value of the 'maxInFlightDocuments' field.
+   */
+  public java.lang.Integer getMaxInFlightDocuments() {
+    return maxInFlightDocuments;
+  }
+
+  /**
+   * Sets the value of the 'maxInFlightDocuments' field.
+   * @param value the value to set.
+   */
+  public void setMaxInFlightDocuments(java.lang.Integer value) {
+    this.maxInFlightDocuments = value;
+  }
+
+  /**
+   * Gets the value of the 'persistTo' field.
+   */
+  public org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo getPersistTo() {
+    return persistTo;
+  }
+
+  /**
+   * Sets the value of the 'persistTo' field.
+   * @param value the value to set.
+   */
+  public void setPersistTo(org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo value) {
+    this.persistTo = value;
+  }
+
   /** Creates a new CouchbaseConfig RecordBuilder */
   public static org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig.Builder newBuilder() {
     return new org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig.Builder();
@@ -120,6 +158,8 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
     private java.util.List<org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseServerUri> couchbaseServerUris;
     private java.lang.String bucket;
     private java.lang.String password;
+    private java.lang.Integer maxInFlightDocuments;
+    private org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo persistTo;
 
     /** Creates a new Builder */
     private Builder() {
@@ -141,6 +181,14 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
         this.password = data().deepCopy(fields()[2].schema(), other.password);
         fieldSetFlags()[2] = true;
       }
+      if (isValidValue(fields()[3], other.maxInFlightDocuments)) {
+        this.maxInFlightDocuments = data().deepCopy(fields()[3].schema(), other.maxInFlightDocuments);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.persistTo)) {
+        this.persistTo = data().deepCopy(fields()[4].schema(), other.persistTo);
+        fieldSetFlags()[4] = true;
+      }
     }
     
     /** Creates a Builder by copying an existing CouchbaseConfig instance */
@@ -158,6 +206,14 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
         this.password = data().deepCopy(fields()[2].schema(), other.password);
         fieldSetFlags()[2] = true;
       }
+      if (isValidValue(fields()[3], other.maxInFlightDocuments)) {
+        this.maxInFlightDocuments = data().deepCopy(fields()[3].schema(), other.maxInFlightDocuments);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.persistTo)) {
+        this.persistTo = data().deepCopy(fields()[4].schema(), other.persistTo);
+        fieldSetFlags()[4] = true;
+      }
     }
 
     /** Gets the value of the 'couchbaseServerUris' field */
@@ -235,6 +291,56 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
       return this;
     }
 
+    /** Gets the value of the 'maxInFlightDocuments' field */
+    public java.lang.Integer getMaxInFlightDocuments() {
+      return maxInFlightDocuments;
+    }
+    
+    /** Sets the value of the 'maxInFlightDocuments' field */
+    public org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig.Builder setMaxInFlightDocuments(java.lang.Integer value) {
+      validate(fields()[3], value);
+      this.maxInFlightDocuments = value;
+      fieldSetFlags()[3] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'maxInFlightDocuments' field has been set */
+    public boolean hasMaxInFlightDocuments() {
+      return fieldSetFlags()[3];
+    }
+    
+    /** Clears the value of the 'maxInFlightDocuments' field */
+    public org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig.Builder clearMaxInFlightDocuments() {
+      maxInFlightDocuments = null;
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'persistTo' field */
+    public org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo getPersistTo() {
+      return persistTo;
+    }
+    
+    /** Sets the value of the 'persistTo' field */
+    public org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig.Builder setPersistTo(org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo value) {
+      validate(fields()[4], value);
+      this.persistTo = value;
+      fieldSetFlags()[4] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'persistTo' field has been set */
+    public boolean hasPersistTo() {
+      return fieldSetFlags()[4];
+    }
+    
+    /** Clears the value of the 'persistTo' field */
+    public org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig.Builder clearPersistTo() {
+      persistTo = null;
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
     @Override
     public CouchbaseConfig build() {
       try {
@@ -242,6 +348,8 @@ public class CouchbaseConfig extends org.apache.avro.specific.SpecificRecordBase
         record.couchbaseServerUris = fieldSetFlags()[0] ? this.couchbaseServerUris : (java.util.List<org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseServerUri>) defaultValue(fields()[0]);
         record.bucket = fieldSetFlags()[1] ? this.bucket : (java.lang.String) defaultValue(fields()[1]);
         record.password = fieldSetFlags()[2] ? this.password : (java.lang.String) defaultValue(fields()[2]);
+        record.maxInFlightDocuments = fieldSetFlags()[3] ? this.maxInFlightDocuments : (java.lang.Integer) defaultValue(fields()[3]);
+        record.persistTo = fieldSetFlags()[4] ? this.persistTo : (org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbasePersistTo) defaultValue(fields()[4]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
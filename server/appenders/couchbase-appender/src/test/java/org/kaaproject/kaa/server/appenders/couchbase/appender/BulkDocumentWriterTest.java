@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.couchbase.appender;
+
+import com.couchbase.client.java.document.JsonDocument;
+import com.couchbase.client.java.document.json.JsonObject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import rx.Observable;
+import rx.subjects.PublishSubject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+public class BulkDocumentWriterTest {
+
+  /**
+   * In-memory document store. Inserts are acknowledged when {@link #acknowledge()} is
+   * called, or immediately when the store is not delayed.
+   */
+  private static final class InMemoryStore {
+
+    private final Map<String, JsonDocument> documents = new ConcurrentHashMap<>();
+    private final List<PublishSubject<JsonDocument>> unacknowledged = new ArrayList<>();
+    private final boolean delayed;
+
+    private InMemoryStore(boolean delayed) {
+      this.delayed = delayed;
+    }
+
+    private synchronized Observable<JsonDocument> insert(JsonDocument document) {
+      if (documents.putIfAbsent(document.id(), document) != null) {
+        return Observable.error(new IllegalStateException("Document exists: " + document.id()));
+      }
+      if (!delayed) {
+        return Observable.just(document);
+      }
+      PublishSubject<JsonDocument> result = PublishSubject.create();
+      unacknowledged.add(result);
+      return result.asObservable();
+    }
+
+    private void acknowledge() {
+      List<PublishSubject<JsonDocument>> results;
+      synchronized (this) {
+        results = new ArrayList<>(unacknowledged);
+        unacknowledged.clear();
+      }
+      for (PublishSubject<JsonDocument> result : results) {
+        result.onCompleted();
+      }
+    }
+
+    private synchronized int unacknowledgedCount() {
+      return unacknowledged.size();
+    }
+  }
+
+  @Test
+  public void writeBatchTest() throws Exception {
+    InMemoryStore store = new InMemoryStore(false);
+    BulkDocumentWriter writer = new BulkDocumentWriter(store::insert, 16);
+
+    CompletableFuture<Void> future = writer.write(documents("batch", 5));
+    Assert.assertTrue(future.isDone());
+    future.get();
+    Assert.assertEquals(5, store.documents.size());
+  }
+
+  @Test
+  public void boundInFlightDocumentsTest() throws Exception {
+    InMemoryStore store = new InMemoryStore(true);
+    BulkDocumentWriter writer = new BulkDocumentWriter(store::insert, 4);
+
+    CompletableFuture<Void> first = writer.write(documents("first", 3));
+    CompletableFuture<Void> second = writer.write(documents("second", 3));
+    Assert.assertEquals(3, store.unacknowledgedCount());
+    Assert.assertFalse(first.isDone());
+    Assert.assertFalse(second.isDone());
+
+    store.acknowledge();
+    Assert.assertTrue(first.isDone());
+    Assert.assertFalse(second.isDone());
+    Assert.assertEquals(3, store.unacknowledgedCount());
+
+    store.acknowledge();
+    Assert.assertTrue(second.isDone());
+    Assert.assertEquals(6, store.documents.size());
+  }
+
+  @Test
+  public void startOversizedBatchAloneTest() throws Exception {
+    InMemoryStore store = new InMemoryStore(true);
+    BulkDocumentWriter writer = new BulkDocumentWriter(store::insert, 2);
+
+    CompletableFuture<Void> future = writer.write(documents("large", 5));
+    Assert.assertEquals(5, store.unacknowledgedCount());
+    store.acknowledge();
+    Assert.assertTrue(future.isDone());
+  }
+
+  @Test
+  public void failBatchTest() throws Exception {
+    InMemoryStore store = new InMemoryStore(false);
+    BulkDocumentWriter writer = new BulkDocumentWriter(store::insert, 16);
+    writer.write(documents("batch", 1)).get();
+
+    CompletableFuture<Void> failed = writer.write(documents("batch", 2));
+    try {
+      failed.get();
+      Assert.fail("Exception expected");
+    } catch (ExecutionException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+
+    writer.write(documents("next", 2)).get();
+    Assert.assertTrue(store.documents.containsKey("next0"));
+    Assert.assertTrue(store.documents.containsKey("next1"));
+  }
+
+  @Test
+  public void closeFailsQueuedBatchesTest() throws Exception {
+    InMemoryStore store = new InMemoryStore(true);
+    BulkDocumentWriter writer = new BulkDocumentWriter(store::insert, 1);
+
+    CompletableFuture<Void> started = writer.write(documents("started", 1));
+    CompletableFuture<Void> queued = writer.write(documents("queued", 1));
+    writer.close();
+    Assert.assertTrue(queued.isCompletedExceptionally());
+    Assert.assertTrue(writer.write(documents("rejected", 1)).isCompletedExceptionally());
+
+    store.acknowledge();
+    started.get();
+  }
+
+  private static List<JsonDocument> documents(String prefix, int count) {
+    List<JsonDocument> documents = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      documents.add(JsonDocument.create(prefix + i, JsonObject.create().put("index", i)));
+    }
+    return documents;
+  }
+}
@@ -19,6 +19,7 @@ package org.kaaproject.kaa.server.appenders.file.appender;
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.common.dto.logs.LogEventDto;
 import org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig;
+import org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat;
 import org.kaaproject.kaa.server.common.log.shared.appender.AbstractLogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
@@ -56,14 +57,19 @@ public class FileSystemLogAppender extends AbstractLogAppender<FileConfig> {
     if (!closed) {
       try {
         String path = logsRootPath + "/" + tenantDirName + "/" + applicationDirName;
-        LOG.debug("[{}] appending {} logs to directory", path, logEventPack.getEvents().size());
+        int size = logEventPack.getEvents().size();
+        LOG.debug("[{}] appending {} logs to directory", path, size);
         List<String> dtos = eventsToStrings(generateLogEvent(logEventPack, header));
         LOG.debug("[{}] saving {} objects", path, dtos.size());
-        for (String event : dtos) {
-          logger.append(event);
-        }
-        LOG.debug("[{}] appended {} logs to directory", path, logEventPack.getEvents().size());
-        listener.onSuccess();
+        logger.append(dtos).whenComplete((result, ex) -> {
+          if (ex == null) {
+            LOG.debug("[{}] appended {} logs to directory", path, size);
+            listener.onSuccess();
+          } else {
+            LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed", getName()), ex);
+            listener.onInternalError();
+          }
+        });
       } catch (Exception ex) {
         LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed", getName()), ex);
         listener.onInternalError();
@@ -96,7 +102,8 @@ public class FileSystemLogAppender extends AbstractLogAppender<FileConfig> {
         fileSystemLogEventService = new FileSystemLogEventServiceImpl();
       }
       if (logger == null) {
-        logger = new LogbackFileSystemLogger();
+        logger = configuration.getFileFormat() == FileFormat.SEGMENTED_BINARY
+            ? new SegmentedFileSystemLogger() : new LogbackFileSystemLogger();
       }
       initLogDirectories(appenderDto);
       logger.init(appenderDto, configuration,
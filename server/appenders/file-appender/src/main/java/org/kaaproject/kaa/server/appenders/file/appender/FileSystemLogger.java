@@ -21,6 +21,8 @@ import org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig;
 
 import java.io.Closeable;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface FileSystemLogger extends Closeable {
 
@@ -28,4 +30,13 @@ public interface FileSystemLogger extends Closeable {
 
   void append(String event);
 
+  /**
+   * Appends the events of a single log event pack. Implementations may write them
+   * as one unit, so the events either all reach the log or the returned future fails.
+   *
+   * @param events the events to append
+   * @return the future that is completed once the events are written
+   */
+  CompletableFuture<Void> append(List<String> events);
+
 }
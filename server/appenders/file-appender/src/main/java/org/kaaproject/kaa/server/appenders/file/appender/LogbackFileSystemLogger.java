@@ -30,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class LogbackFileSystemLogger implements FileSystemLogger {
   private static final Logger LOG = LoggerFactory.getLogger(LogbackFileSystemLogger.class);
@@ -91,4 +93,12 @@ public class LogbackFileSystemLogger implements FileSystemLogger {
   public void append(String event) {
     logger.info(event);
   }
+
+  @Override
+  public CompletableFuture<Void> append(List<String> events) {
+    for (String event : events) {
+      logger.info(event);
+    }
+    return CompletableFuture.completedFuture(null);
+  }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.file.appender;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the segment files written by {@link SegmentedFileSystemLogger}.
+ *
+ * <p>Reading stops at the end of the written data or at the first batch that fails its
+ * checksum, which is where a crash may have left a partially written batch. Run the
+ * class with a log directory, or a single segment file, to print the records to the
+ * standard output one per line.
+ */
+public class SegmentFileReader {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Receives the records read from a segment.
+   */
+  public interface RecordHandler {
+
+    /**
+     * Handles a single record.
+     *
+     * @param record the record
+     */
+    void onRecord(String record) throws IOException;
+  }
+
+  private SegmentFileReader() {
+  }
+
+  /**
+   * Reads all records of a single segment.
+   *
+   * @param segment the segment file
+   * @param handler the record handler
+   * @return the number of records read
+   */
+  public static long read(Path segment, RecordHandler handler) throws IOException {
+    try (InputStream is = Files.newInputStream(segment)) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(is, BUFFER_SIZE));
+      if (in.readInt() != SegmentedLogFormat.MAGIC) {
+        throw new IOException("Not a log segment: " + segment);
+      }
+      int version = in.readInt();
+      if (version != SegmentedLogFormat.VERSION) {
+        throw new IOException("Unsupported log segment version " + version + ": " + segment);
+      }
+      in.readLong();
+
+      CRC32 crc = new CRC32();
+      byte[] payload = new byte[0];
+      long count = 0;
+      while (true) {
+        int size;
+        int records;
+        long checksum;
+        try {
+          size = in.readInt();
+          if (size <= 0) {
+            break;
+          }
+          records = in.readInt();
+          checksum = in.readLong();
+          if (payload.length < size) {
+            payload = new byte[size];
+          }
+          in.readFully(payload, 0, size);
+        } catch (EOFException ex) {
+          break;
+        }
+        crc.reset();
+        crc.update(payload, 0, size);
+        if (crc.getValue() != checksum) {
+          break;
+        }
+        int offset = 0;
+        for (int i = 0; i < records; i++) {
+          int length = ((payload[offset] & 0xFF) << 24) | ((payload[offset + 1] & 0xFF) << 16)
+              | ((payload[offset + 2] & 0xFF) << 8) | (payload[offset + 3] & 0xFF);
+          offset += SegmentedLogFormat.RECORD_HEADER_SIZE;
+          handler.onRecord(new String(payload, offset, length, StandardCharsets.UTF_8));
+          offset += length;
+        }
+        count += records;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Reads all records of a log, oldest segment first.
+   *
+   * @param directory the log directory
+   * @param prefix    the segment name prefix, i.e. the log file name without extension
+   * @param handler   the record handler
+   * @return the number of records read
+   */
+  public static long readAll(Path directory, String prefix, RecordHandler handler)
+      throws IOException {
+    long count = 0;
+    for (Path segment : SegmentedLogFormat.listSegments(directory, prefix)) {
+      count += read(segment, handler);
+    }
+    return count;
+  }
+
+  /**
+   * Prints the records of a log directory or a single segment file.
+   *
+   * @param args the log directory or segment file and, for a directory, an optional
+   *             segment name prefix
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: SegmentFileReader <log directory> [prefix] | <segment file>");
+      return;
+    }
+    final PrintStream out = System.out;
+    RecordHandler printer = new RecordHandler() {
+      @Override
+      public void onRecord(String record) {
+        out.println(record);
+      }
+    };
+    Path path = Paths.get(args[0]);
+    if (Files.isDirectory(path)) {
+      readAll(path, args.length > 1 ? args[1] : "application", printer);
+    } else {
+      read(path, printer);
+    }
+    out.flush();
+  }
+}
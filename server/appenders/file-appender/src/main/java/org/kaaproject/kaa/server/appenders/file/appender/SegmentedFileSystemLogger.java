@@ -0,0 +1,346 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.file.appender;
+
+import ch.qos.logback.core.util.FileSize;
+
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * File system logger that writes length-prefixed binary records into preallocated
+ * segment files.
+ *
+ * <p>Callers hand their events over to a single writer thread and get a future that is
+ * completed once they are committed, so a caller can keep handing over log packs while
+ * earlier ones are being written. The writer drains all pending appends, up to the
+ * configured number of records, and commits them as one batch with a single write and,
+ * if enabled, a single sync, so queued packs share the cost of the disk flush. Callers
+ * block only when {@value #MAX_PENDING_APPENDS} appends are already waiting for the writer.
+ *
+ * <p>A segment is rolled once it reaches the configured trigger size or is a day old.
+ * Rolled segments are removed once they are older than the configured history in days
+ * or the total size of the log exceeds the retention limit. Use
+ * {@link SegmentFileReader} to read the segments back.
+ */
+public class SegmentedFileSystemLogger implements FileSystemLogger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SegmentedFileSystemLogger.class);
+
+  private static final long MAX_SEGMENT_AGE = TimeUnit.DAYS.toMillis(1);
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+  static final int MAX_PENDING_APPENDS = 1024;
+  private static final PendingAppend CLOSE = new PendingAppend(new byte[0][], 0);
+
+  private final BlockingQueue<PendingAppend> queue =
+      new LinkedBlockingQueue<>(MAX_PENDING_APPENDS);
+  private final CRC32 crc = new CRC32();
+
+  private Path directory;
+  private String prefix;
+  private long segmentSize;
+  private long retentionSize;
+  private long retentionAge;
+  private int groupCommitMaxRecords;
+  private boolean syncOnCommit;
+
+  private Thread writer;
+  private volatile boolean closed;
+
+  private FileChannel channel;
+  private long sequence;
+  private long segmentCreated;
+  private long position;
+  private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+  @Override
+  public void init(LogAppenderDto appenderDto, FileConfig config, Path filePath) {
+    LOG.info("[{}][{}] Initializing with triggerMaxFileSize: {}, rollingMaxHistory: {},"
+            + " retentionMaxTotalSize: {}, groupCommitMaxRecords: {}, syncOnCommit: {}",
+        appenderDto.getTenantId(), appenderDto.getApplicationId(),
+        config.getTriggerMaxFileSize(), config.getRollingMaxHistory(),
+        config.getRetentionMaxTotalSize(), config.getGroupCommitMaxRecords(),
+        config.getSyncOnCommit());
+
+    directory = filePath.toAbsolutePath().getParent();
+    prefix = segmentPrefix(filePath);
+    segmentSize = FileSize.valueOf(config.getTriggerMaxFileSize()).getSize();
+    retentionSize = FileSize.valueOf(config.getRetentionMaxTotalSize()).getSize();
+    retentionAge = TimeUnit.DAYS.toMillis(config.getRollingMaxHistory());
+    groupCommitMaxRecords = Math.max(1, config.getGroupCommitMaxRecords());
+    syncOnCommit = config.getSyncOnCommit();
+
+    try {
+      Files.createDirectories(directory);
+      List<Path> segments = SegmentedLogFormat.listSegments(directory, prefix);
+      if (!segments.isEmpty()) {
+        sequence = SegmentedLogFormat.segmentSequence(prefix,
+            segments.get(segments.size() - 1).getFileName().toString());
+      }
+      openSegment();
+    } catch (IOException ex) {
+      throw new RuntimeException("Can't open log segment in " + directory, ex);
+    }
+
+    writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "file-appender-" + appenderDto.getApplicationToken());
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  static String segmentPrefix(Path filePath) {
+    String fileName = filePath.getFileName().toString();
+    int extension = fileName.lastIndexOf('.');
+    return extension > 0 ? fileName.substring(0, extension) : fileName;
+  }
+
+  @Override
+  public void append(String event) {
+    try {
+      append(Collections.singletonList(event)).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for log commit", ex);
+    } catch (ExecutionException ex) {
+      throw new RuntimeException("Failed to commit log records", ex.getCause());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> append(List<String> events) {
+    if (events.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    byte[][] records = new byte[events.size()][];
+    int size = 0;
+    for (int i = 0; i < records.length; i++) {
+      records[i] = events.get(i).getBytes(StandardCharsets.UTF_8);
+      size += SegmentedLogFormat.RECORD_HEADER_SIZE + records[i].length;
+    }
+    PendingAppend pending = new PendingAppend(records, size);
+    if (closed) {
+      throw new IllegalStateException("Logger is closed");
+    }
+    try {
+      queue.put(pending);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the log writer", ex);
+    }
+    if (closed) {
+      // close() may have drained the queue before this append was added
+      pending.result.completeExceptionally(new IllegalStateException("Logger is closed"));
+    }
+    return pending.result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (writer != null) {
+      // the writer commits everything queued before the marker; it is not interrupted
+      // because an interrupt would close the segment channel in the middle of a write
+      try {
+        queue.put(CLOSE);
+        writer.join();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    failPending(new IllegalStateException("Logger is closed"));
+    if (channel != null) {
+      closeSegment();
+    }
+  }
+
+  private void writeLoop() {
+    List<PendingAppend> group = new ArrayList<>();
+    boolean stop = false;
+    while (!stop) {
+      PendingAppend first;
+      try {
+        first = queue.take();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (first == CLOSE) {
+        return;
+      }
+      group.add(first);
+      int records = first.records.length;
+      int size = first.size;
+      PendingAppend next;
+      while (records < groupCommitMaxRecords && (next = queue.poll()) != null) {
+        if (next == CLOSE) {
+          stop = true;
+          break;
+        }
+        group.add(next);
+        records += next.records.length;
+        size += next.size;
+      }
+      try {
+        commit(group, records, size);
+        for (PendingAppend pending : group) {
+          pending.result.complete(null);
+        }
+      } catch (IOException | RuntimeException ex) {
+        LOG.error("[{}] Failed to commit {} log records", directory, records, ex);
+        for (PendingAppend pending : group) {
+          pending.result.completeExceptionally(ex);
+        }
+      }
+      group.clear();
+    }
+  }
+
+  private void commit(List<PendingAppend> group, int records, int size) throws IOException {
+    int batchSize = SegmentedLogFormat.BATCH_HEADER_SIZE + size;
+    long now = System.currentTimeMillis();
+    if (position > SegmentedLogFormat.HEADER_SIZE
+        && (position + batchSize > segmentSize || now - segmentCreated >= MAX_SEGMENT_AGE)) {
+      closeSegment();
+      openSegment();
+      applyRetention(now);
+    }
+
+    if (buffer.capacity() < batchSize) {
+      buffer = ByteBuffer.allocate(Math.max(batchSize, buffer.capacity() * 2));
+    }
+    buffer.clear();
+    buffer.position(SegmentedLogFormat.BATCH_HEADER_SIZE);
+    for (PendingAppend pending : group) {
+      for (byte[] record : pending.records) {
+        buffer.putInt(record.length);
+        buffer.put(record);
+      }
+    }
+    crc.reset();
+    crc.update(buffer.array(), SegmentedLogFormat.BATCH_HEADER_SIZE, size);
+    buffer.putInt(0, size);
+    buffer.putInt(4, records);
+    buffer.putLong(8, crc.getValue());
+    buffer.flip();
+
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+    position += batchSize;
+    if (syncOnCommit) {
+      channel.force(false);
+    }
+  }
+
+  private void openSegment() throws IOException {
+    sequence++;
+    Path path = directory.resolve(SegmentedLogFormat.segmentName(prefix, sequence));
+    RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+    channel = file.getChannel();
+    segmentCreated = System.currentTimeMillis();
+    file.setLength(segmentSize);
+
+    ByteBuffer header = ByteBuffer.allocate(SegmentedLogFormat.HEADER_SIZE);
+    header.putInt(SegmentedLogFormat.MAGIC);
+    header.putInt(SegmentedLogFormat.VERSION);
+    header.putLong(segmentCreated);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+    position = SegmentedLogFormat.HEADER_SIZE;
+    LOG.debug("[{}] Opened log segment {}", directory, path.getFileName());
+  }
+
+  private void closeSegment() throws IOException {
+    try {
+      channel.truncate(position);
+      channel.force(true);
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void applyRetention(long now) {
+    try {
+      List<Path> segments = SegmentedLogFormat.listSegments(directory, prefix);
+      long totalSize = 0;
+      for (Path segment : segments) {
+        totalSize += Files.size(segment);
+      }
+      // the last segment is the one being written
+      for (int i = 0; i < segments.size() - 1; i++) {
+        Path segment = segments.get(i);
+        long segmentLength = Files.size(segment);
+        if (totalSize > retentionSize
+            || now - Files.getLastModifiedTime(segment).toMillis() > retentionAge) {
+          Files.deleteIfExists(segment);
+          totalSize -= segmentLength;
+          LOG.debug("[{}] Removed log segment {}", directory, segment.getFileName());
+        } else {
+          break;
+        }
+      }
+    } catch (IOException ex) {
+      LOG.warn("[{}] Failed to apply log segment retention", directory, ex);
+    }
+  }
+
+  private void failPending(Exception cause) {
+    PendingAppend pending;
+    while ((pending = queue.poll()) != null) {
+      pending.result.completeExceptionally(cause);
+    }
+  }
+
+  private static final class PendingAppend {
+    private final byte[][] records;
+    private final int size;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private PendingAppend(byte[][] records, int size) {
+      this.records = records;
+      this.size = size;
+    }
+  }
+}
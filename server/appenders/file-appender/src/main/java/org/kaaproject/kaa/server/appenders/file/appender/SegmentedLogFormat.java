@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.file.appender;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Layout of the segment files written by {@link SegmentedFileSystemLogger}.
+ *
+ * <p>A segment starts with a header of {@link #HEADER_SIZE} bytes: the {@link #MAGIC}
+ * number, the format {@link #VERSION} and the creation time in milliseconds. The header
+ * is followed by batches, each committed with a single write: the payload length,
+ * the record count, the CRC32 of the payload and the payload itself, which is a
+ * sequence of length-prefixed UTF-8 records. Segments are preallocated, so a zero
+ * payload length marks the end of the data.
+ */
+final class SegmentedLogFormat {
+
+  static final int MAGIC = 0x4B414153;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+  static final int BATCH_HEADER_SIZE = 16;
+  static final int RECORD_HEADER_SIZE = 4;
+
+  static final String SEGMENT_EXTENSION = ".seg";
+
+  private static final int SEQUENCE_DIGITS = 20;
+
+  private SegmentedLogFormat() {
+  }
+
+  static String segmentName(String prefix, long sequence) {
+    return String.format("%s-%0" + SEQUENCE_DIGITS + "d%s", prefix, sequence, SEGMENT_EXTENSION);
+  }
+
+  static long segmentSequence(String prefix, String fileName) {
+    int start = prefix.length() + 1;
+    if (!fileName.startsWith(prefix + "-") || !fileName.endsWith(SEGMENT_EXTENSION)
+        || fileName.length() != start + SEQUENCE_DIGITS + SEGMENT_EXTENSION.length()) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(fileName.substring(start, start + SEQUENCE_DIGITS));
+    } catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
+
+  /**
+   * Lists the segments of the given log in the order they were written.
+   *
+   * @param directory the log directory
+   * @param prefix    the segment name prefix
+   * @return the segment paths, oldest first
+   */
+  static List<Path> listSegments(Path directory, String prefix) throws IOException {
+    List<Path> segments = new ArrayList<>();
+    try (DirectoryStream<Path> stream =
+             Files.newDirectoryStream(directory, prefix + "-*" + SEGMENT_EXTENSION)) {
+      for (Path path : stream) {
+        if (segmentSequence(prefix, path.getFileName().toString()) >= 0) {
+          segments.add(path);
+        }
+      }
+    }
+    Collections.sort(segments);
+    return segments;
+  }
+}
@@ -8,13 +8,17 @@ package org.kaaproject.kaa.server.appenders.file.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class FileConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"FileConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.file.config.gen\",\"fields\":[{\"name\":\"publicKey\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Public Key\",\"maxLength\":1000,\"by_default\":\"\"},{\"name\":\"logsRootPath\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Logs root path\",\"by_default\":\"/kaa_log_uploads\"},{\"name\":\"rollingFileNamePatern\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Rolling file name pattern\",\"by_default\":\"logFile.%d{yyyy-MM-dd}.log\"},{\"name\":\"rollingMaxHistory\",\"type\":\"int\",\"displayName\":\"Rolling max history\",\"by_default\":30},{\"name\":\"triggerMaxFileSize\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Trigger max file size\",\"by_default\":\"1GB\"},{\"name\":\"encoderPattern\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Encoder pattern\",\"by_default\":\"%-4relative [%thread] %-5level %logger{35} - %msg%n\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"FileConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.file.config.gen\",\"fields\":[{\"name\":\"publicKey\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Public Key\",\"maxLength\":1000,\"by_default\":\"\"},{\"name\":\"logsRootPath\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Logs root path\",\"by_default\":\"/kaa_log_uploads\"},{\"name\":\"rollingFileNamePatern\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Rolling file name pattern\",\"by_default\":\"logFile.%d{yyyy-MM-dd}.log\"},{\"name\":\"rollingMaxHistory\",\"type\":\"int\",\"displayName\":\"Rolling max history\",\"by_default\":30},{\"name\":\"triggerMaxFileSize\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Trigger max file size\",\"by_default\":\"1GB\"},{\"name\":\"encoderPattern\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Encoder pattern\",\"by_default\":\"%-4relative [%thread] %-5level %logger{35} - %msg%n\"},{\"name\":\"fileFormat\",\"type\":{\"type\":\"enum\",\"name\":\"FileFormat\",\"namespace\":\"org.kaaproject.kaa.server.appenders.file.config.gen\",\"symbols\":[\"TEXT\",\"SEGMENTED_BINARY\"]},\"displayName\":\"File format\",\"by_default\":\"TEXT\",\"displayNames\":[\"Text\",\"Segmented binary\"]},{\"name\":\"groupCommitMaxRecords\",\"type\":\"int\",\"displayName\":\"Group commit max records\",\"by_default\":4096},{\"name\":\"retentionMaxTotalSize\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Retention max total size\",\"by_default\":\"10GB\"},{\"name\":\"syncOnCommit\",\"type\":\"boolean\",\"displayName\":\"Sync on commit\",\"by_default\":true}]}");
   private java.lang.String publicKey;
   private java.lang.String logsRootPath;
   private java.lang.String rollingFileNamePatern;
   private int rollingMaxHistory;
   private java.lang.String triggerMaxFileSize;
   private java.lang.String encoderPattern;
+  private org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat fileFormat;
+  private int groupCommitMaxRecords;
+  private java.lang.String retentionMaxTotalSize;
+  private boolean syncOnCommit;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -27,13 +31,17 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
   /**
    * All-args constructor.
    */
-  public FileConfig(java.lang.String publicKey, java.lang.String logsRootPath, java.lang.String rollingFileNamePatern, java.lang.Integer rollingMaxHistory, java.lang.String triggerMaxFileSize, java.lang.String encoderPattern) {
+  public FileConfig(java.lang.String publicKey, java.lang.String logsRootPath, java.lang.String rollingFileNamePatern, java.lang.Integer rollingMaxHistory, java.lang.String triggerMaxFileSize, java.lang.String encoderPattern, org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat fileFormat, java.lang.Integer groupCommitMaxRecords, java.lang.String retentionMaxTotalSize, java.lang.Boolean syncOnCommit) {
     this.publicKey = publicKey;
     this.logsRootPath = logsRootPath;
     this.rollingFileNamePatern = rollingFileNamePatern;
     this.rollingMaxHistory = rollingMaxHistory;
     this.triggerMaxFileSize = triggerMaxFileSize;
     this.encoderPattern = encoderPattern;
+    this.fileFormat = fileFormat;
+    this.groupCommitMaxRecords = groupCommitMaxRecords;
+    this.retentionMaxTotalSize = retentionMaxTotalSize;
+    this.syncOnCommit = syncOnCommit;
   }
 
   public static org.apache.avro.Schema getClassSchema() {
@@ -80,6 +88,14 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
         return triggerMaxFileSize;
       case 5:
         return encoderPattern;
+      case 6:
+        return fileFormat;
+      case 7:
+        return groupCommitMaxRecords;
+      case 8:
+        return retentionMaxTotalSize;
+      case 9:
+        return syncOnCommit;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -107,6 +123,18 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
       case 5:
         encoderPattern = (java.lang.String) value$;
         break;
+      case 6:
+        fileFormat = (org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat) value$;
+        break;
+      case 7:
+        groupCommitMaxRecords = (java.lang.Integer) value$;
+        break;
+      case 8:
+        retentionMaxTotalSize = (java.lang.String) value$;
+        break;
+      case 9:
+        syncOnCommit = (java.lang.Boolean) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -208,6 +236,70 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
     this.encoderPattern = value;
   }
 
+  /**
+   * Gets the value of the 'fileFormat' field.
+   */
+  public org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat getFileFormat() {
+    return fileFormat;
+  }
+
+  /**
+   * Sets the value of the 'fileFormat' field.
+   *
+   * @param value the value to set.
+   */
+  public void setFileFormat(org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat value) {
+    this.fileFormat = value;
+  }
+
+  /**
+   * Gets the value of the 'groupCommitMaxRecords' field.
+   */
+  public java.lang.Integer getGroupCommitMaxRecords() {
+    return groupCommitMaxRecords;
+  }
+
+  /**
+   * Sets the value of the 'groupCommitMaxRecords' field.
+   *
+   * @param value the value to set.
+   */
+  public void setGroupCommitMaxRecords(java.lang.Integer value) {
+    this.groupCommitMaxRecords = value;
+  }
+
+  /**
+   * Gets the value of the 'retentionMaxTotalSize' field.
+   */
+  public java.lang.String getRetentionMaxTotalSize() {
+    return retentionMaxTotalSize;
+  }
+
+  /**
+   * Sets the value of the 'retentionMaxTotalSize' field.
+   *
+   * @param value the value to set.
+   */
+  public void setRetentionMaxTotalSize(java.lang.String value) {
+    this.retentionMaxTotalSize = value;
+  }
+
+  /**
+   * Gets the value of the 'syncOnCommit' field.
+   */
+  public java.lang.Boolean getSyncOnCommit() {
+    return syncOnCommit;
+  }
+
+  /**
+   * Sets the value of the 'syncOnCommit' field.
+   *
+   * @param value the value to set.
+   */
+  public void setSyncOnCommit(java.lang.Boolean value) {
+    this.syncOnCommit = value;
+  }
+
   /**
    * RecordBuilder for FileConfig instances.
    */
@@ -220,6 +312,10 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
     private int rollingMaxHistory;
     private java.lang.String triggerMaxFileSize;
     private java.lang.String encoderPattern;
+    private org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat fileFormat;
+    private int groupCommitMaxRecords;
+    private java.lang.String retentionMaxTotalSize;
+    private boolean syncOnCommit;
 
     /**
      * Creates a new Builder
@@ -257,6 +353,22 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
         this.encoderPattern = data().deepCopy(fields()[5].schema(), other.encoderPattern);
         fieldSetFlags()[5] = true;
       }
+      if (isValidValue(fields()[6], other.fileFormat)) {
+        this.fileFormat = data().deepCopy(fields()[6].schema(), other.fileFormat);
+        fieldSetFlags()[6] = true;
+      }
+      if (isValidValue(fields()[7], other.groupCommitMaxRecords)) {
+        this.groupCommitMaxRecords = data().deepCopy(fields()[7].schema(), other.groupCommitMaxRecords);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.retentionMaxTotalSize)) {
+        this.retentionMaxTotalSize = data().deepCopy(fields()[8].schema(), other.retentionMaxTotalSize);
+        fieldSetFlags()[8] = true;
+      }
+      if (isValidValue(fields()[9], other.syncOnCommit)) {
+        this.syncOnCommit = data().deepCopy(fields()[9].schema(), other.syncOnCommit);
+        fieldSetFlags()[9] = true;
+      }
     }
 
     /**
@@ -288,6 +400,22 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
         this.encoderPattern = data().deepCopy(fields()[5].schema(), other.encoderPattern);
         fieldSetFlags()[5] = true;
       }
+      if (isValidValue(fields()[6], other.fileFormat)) {
+        this.fileFormat = data().deepCopy(fields()[6].schema(), other.fileFormat);
+        fieldSetFlags()[6] = true;
+      }
+      if (isValidValue(fields()[7], other.groupCommitMaxRecords)) {
+        this.groupCommitMaxRecords = data().deepCopy(fields()[7].schema(), other.groupCommitMaxRecords);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.retentionMaxTotalSize)) {
+        this.retentionMaxTotalSize = data().deepCopy(fields()[8].schema(), other.retentionMaxTotalSize);
+        fieldSetFlags()[8] = true;
+      }
+      if (isValidValue(fields()[9], other.syncOnCommit)) {
+        this.syncOnCommit = data().deepCopy(fields()[9].schema(), other.syncOnCommit);
+        fieldSetFlags()[9] = true;
+      }
     }
 
     /**
@@ -487,6 +615,136 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
       return this;
     }
 
+    /**
+     * Gets the value of the 'fileFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat getFileFormat() {
+      return fileFormat;
+    }
+
+    /**
+     * Sets the value of the 'fileFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder setFileFormat(org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat value) {
+      validate(fields()[6], value);
+      this.fileFormat = value;
+      fieldSetFlags()[6] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'fileFormat' field has been set
+     */
+    public boolean hasFileFormat() {
+      return fieldSetFlags()[6];
+    }
+
+    /**
+     * Clears the value of the 'fileFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder clearFileFormat() {
+      fileFormat = null;
+      fieldSetFlags()[6] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'groupCommitMaxRecords' field
+     */
+    public java.lang.Integer getGroupCommitMaxRecords() {
+      return groupCommitMaxRecords;
+    }
+
+    /**
+     * Sets the value of the 'groupCommitMaxRecords' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder setGroupCommitMaxRecords(java.lang.Integer value) {
+      validate(fields()[7], value);
+      this.groupCommitMaxRecords = value;
+      fieldSetFlags()[7] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'groupCommitMaxRecords' field has been set
+     */
+    public boolean hasGroupCommitMaxRecords() {
+      return fieldSetFlags()[7];
+    }
+
+    /**
+     * Clears the value of the 'groupCommitMaxRecords' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder clearGroupCommitMaxRecords() {
+      fieldSetFlags()[7] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'retentionMaxTotalSize' field
+     */
+    public java.lang.String getRetentionMaxTotalSize() {
+      return retentionMaxTotalSize;
+    }
+
+    /**
+     * Sets the value of the 'retentionMaxTotalSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder setRetentionMaxTotalSize(java.lang.String value) {
+      validate(fields()[8], value);
+      this.retentionMaxTotalSize = value;
+      fieldSetFlags()[8] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'retentionMaxTotalSize' field has been set
+     */
+    public boolean hasRetentionMaxTotalSize() {
+      return fieldSetFlags()[8];
+    }
+
+    /**
+     * Clears the value of the 'retentionMaxTotalSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder clearRetentionMaxTotalSize() {
+      retentionMaxTotalSize = null;
+      fieldSetFlags()[8] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'syncOnCommit' field
+     */
+    public java.lang.Boolean getSyncOnCommit() {
+      return syncOnCommit;
+    }
+
+    /**
+     * Sets the value of the 'syncOnCommit' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder setSyncOnCommit(java.lang.Boolean value) {
+      validate(fields()[9], value);
+      this.syncOnCommit = value;
+      fieldSetFlags()[9] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'syncOnCommit' field has been set
+     */
+    public boolean hasSyncOnCommit() {
+      return fieldSetFlags()[9];
+    }
+
+    /**
+     * Clears the value of the 'syncOnCommit' field
+     */
+    public org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig.Builder clearSyncOnCommit() {
+      fieldSetFlags()[9] = false;
+      return this;
+    }
+
     @Override
     public FileConfig build() {
       try {
@@ -497,6 +755,10 @@ public class FileConfig extends org.apache.avro.specific.SpecificRecordBase impl
         record.rollingMaxHistory = fieldSetFlags()[3] ? this.rollingMaxHistory : (java.lang.Integer) defaultValue(fields()[3]);
         record.triggerMaxFileSize = fieldSetFlags()[4] ? this.triggerMaxFileSize : (java.lang.String) defaultValue(fields()[4]);
         record.encoderPattern = fieldSetFlags()[5] ? this.encoderPattern : (java.lang.String) defaultValue(fields()[5]);
+        record.fileFormat = fieldSetFlags()[6] ? this.fileFormat : (org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat) defaultValue(fields()[6]);
+        record.groupCommitMaxRecords = fieldSetFlags()[7] ? this.groupCommitMaxRecords : (java.lang.Integer) defaultValue(fields()[7]);
+        record.retentionMaxTotalSize = fieldSetFlags()[8] ? this.retentionMaxTotalSize : (java.lang.String) defaultValue(fields()[8]);
+        record.syncOnCommit = fieldSetFlags()[9] ? this.syncOnCommit : (java.lang.Boolean) defaultValue(fields()[9]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
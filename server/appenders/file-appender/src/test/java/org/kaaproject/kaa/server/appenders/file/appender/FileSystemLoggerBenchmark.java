@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.file.appender;
+
+import org.apache.commons.io.FileUtils;
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig;
+import org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the append throughput of the Logback and the segmented binary file system
+ * loggers. Log packs are handed to the logger from a single dispatch thread, the way the
+ * operations server queues them for an appender, and the run ends once every pack is
+ * written. It is not run as part of the build; start it from the test classpath with
+ * optional arguments: packs, records per pack and record size.
+ */
+public class FileSystemLoggerBenchmark {
+
+  private static final int WARMUP_PACKS = 200;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args packs, records per pack, record size in bytes
+   */
+  public static void main(String[] args) throws Exception {
+    int packs = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int records = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int recordSize = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+    char[] chars = new char[recordSize];
+    Arrays.fill(chars, 'x');
+    List<String> pack = new ArrayList<>();
+    for (int i = 0; i < records; i++) {
+      pack.add(new String(chars));
+    }
+
+    System.out.printf("packs: %d, records per pack: %d, record size: %d%n",
+        packs, records, recordSize);
+    run("logback", FileFormat.TEXT, false, packs, pack);
+    run("segmented", FileFormat.SEGMENTED_BINARY, false, packs, pack);
+    run("segmented+sync", FileFormat.SEGMENTED_BINARY, true, packs, pack);
+  }
+
+  private static void run(String name, FileFormat format, boolean sync, final int packs,
+                          final List<String> pack) throws Exception {
+    Path directory = Files.createTempDirectory("file_logger_benchmark");
+    final FileSystemLogger logger = format == FileFormat.SEGMENTED_BINARY
+        ? new SegmentedFileSystemLogger() : new LogbackFileSystemLogger();
+    ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+    try {
+      logger.init(appender(name), config(directory, format, sync),
+          directory.resolve("application.log"));
+      dispatch(dispatcher, logger, WARMUP_PACKS, pack);
+
+      long started = System.nanoTime();
+      dispatch(dispatcher, logger, packs, pack);
+      double seconds = (System.nanoTime() - started) / 1e9;
+
+      long total = (long) packs * pack.size();
+      long bytes = total * pack.get(0).length();
+      System.out.printf("%-16s %12.0f records/s %10.1f MB/s%n", name, total / seconds,
+          bytes / seconds / (1024 * 1024));
+    } finally {
+      dispatcher.shutdown();
+      logger.close();
+      FileUtils.deleteQuietly(directory.toFile());
+    }
+  }
+
+  private static void dispatch(ExecutorService dispatcher, final FileSystemLogger logger,
+                               int packs, final List<String> pack) throws Exception {
+    final List<CompletableFuture<Void>> written = new ArrayList<>(packs);
+    Future<?> dispatched = null;
+    for (int i = 0; i < packs; i++) {
+      dispatched = dispatcher.submit(new Runnable() {
+        @Override
+        public void run() {
+          written.add(logger.append(pack));
+        }
+      });
+    }
+    dispatched.get();
+    CompletableFuture.allOf(written.toArray(new CompletableFuture[written.size()])).get();
+  }
+
+  private static LogAppenderDto appender(String name) {
+    LogAppenderDto appenderDto = new LogAppenderDto();
+    appenderDto.setTenantId("benchmark");
+    appenderDto.setApplicationId(name);
+    appenderDto.setApplicationToken(name);
+    return appenderDto;
+  }
+
+  private static FileConfig config(Path directory, FileFormat format, boolean sync) {
+    FileConfig config = new FileConfig();
+    config.setLogsRootPath(directory.toString());
+    config.setRollingFileNamePatern(directory.resolve("logFile.%d{yyyy-MM-dd}.log").toString());
+    config.setRollingMaxHistory(30);
+    config.setTriggerMaxFileSize("1GB");
+    config.setEncoderPattern("%msg%n");
+    config.setFileFormat(format);
+    config.setGroupCommitMaxRecords(4096);
+    config.setRetentionMaxTotalSize("10GB");
+    config.setSyncOnCommit(sync);
+    return config;
+  }
+}
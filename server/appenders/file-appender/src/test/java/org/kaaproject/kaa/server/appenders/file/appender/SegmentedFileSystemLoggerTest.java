@@ -0,0 +1,227 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.file.appender;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.server.appenders.file.config.gen.FileConfig;
+import org.kaaproject.kaa.server.appenders.file.config.gen.FileFormat;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SegmentedFileSystemLoggerTest {
+
+  private static final String PREFIX = "application";
+
+  private Path directory;
+
+  @Before
+  public void before() throws Exception {
+    directory = Files.createTempDirectory("segmented_logs");
+  }
+
+  @After
+  public void after() throws Exception {
+    for (Path segment : SegmentedLogFormat.listSegments(directory, PREFIX)) {
+      Files.delete(segment);
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testAppendAndRead() throws Exception {
+    SegmentedFileSystemLogger logger = createLogger("1MB", "1GB");
+    try {
+      logger.append("first");
+      logger.append(Arrays.asList("second", "third ж"));
+    } finally {
+      logger.close();
+    }
+
+    List<String> records = readAll();
+    Assert.assertEquals(Arrays.asList("first", "second", "third ж"), records);
+
+    List<Path> segments = SegmentedLogFormat.listSegments(directory, PREFIX);
+    Assert.assertEquals(1, segments.size());
+    Assert.assertTrue(Files.size(segments.get(0)) < 1024);
+  }
+
+  @Test
+  public void testConcurrentAppend() throws Exception {
+    final SegmentedFileSystemLogger logger = createLogger("1MB", "1GB");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final int thread = i;
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (int j = 0; j < 100; j++) {
+              logger.append(Arrays.asList(thread + ":" + j + ":a", thread + ":" + j + ":b"));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      logger.close();
+    }
+
+    List<String> records = readAll();
+    Assert.assertEquals(1600, records.size());
+    Assert.assertEquals(1600, new HashSet<>(records).size());
+    for (int i = 0; i < records.size(); i += 2) {
+      String pack = records.get(i).substring(0, records.get(i).length() - 1);
+      Assert.assertEquals(pack + "b", records.get(i + 1));
+    }
+  }
+
+  @Test
+  public void testAsyncAppendFromSingleThread() throws Exception {
+    SegmentedFileSystemLogger logger = createLogger("1MB", "1GB");
+    List<String> expected = new ArrayList<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < 500; i++) {
+        List<String> pack = Arrays.asList(i + ":a", i + ":b");
+        expected.addAll(pack);
+        futures.add(logger.append(pack));
+      }
+      for (CompletableFuture<Void> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      logger.close();
+    }
+
+    Assert.assertEquals(expected, readAll());
+  }
+
+  @Test
+  public void testRollAndRetention() throws Exception {
+    SegmentedFileSystemLogger logger = createLogger("1KB", "3KB");
+    char[] chars = new char[200];
+    Arrays.fill(chars, 'x');
+    String record = new String(chars);
+    try {
+      for (int i = 0; i < 100; i++) {
+        logger.append(i + record);
+      }
+    } finally {
+      logger.close();
+    }
+
+    List<Path> segments = SegmentedLogFormat.listSegments(directory, PREFIX);
+    Assert.assertTrue(segments.size() > 1);
+    long totalSize = 0;
+    for (Path segment : segments) {
+      totalSize += Files.size(segment);
+    }
+    Assert.assertTrue(totalSize <= 4 * 1024);
+
+    List<String> records = readAll();
+    Assert.assertFalse(records.isEmpty());
+    Assert.assertEquals(99 + record, records.get(records.size() - 1));
+  }
+
+  @Test
+  public void testReopenContinuesSequence() throws Exception {
+    SegmentedFileSystemLogger logger = createLogger("1MB", "1GB");
+    logger.append("before");
+    logger.close();
+    logger = createLogger("1MB", "1GB");
+    logger.append("after");
+    logger.close();
+
+    Assert.assertEquals(2, SegmentedLogFormat.listSegments(directory, PREFIX).size());
+    Assert.assertEquals(Arrays.asList("before", "after"), readAll());
+  }
+
+  @Test
+  public void testReadStopsAtCorruptBatch() throws Exception {
+    SegmentedFileSystemLogger logger = createLogger("1MB", "1GB");
+    try {
+      logger.append("committed");
+      logger.append("torn");
+    } finally {
+      logger.close();
+    }
+    Path segment = SegmentedLogFormat.listSegments(directory, PREFIX).get(0);
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      file.seek(file.length() - 1);
+      file.write('X');
+    }
+    Assert.assertEquals(Collections.singletonList("committed"), readAll());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAppendToClosedLogger() throws Exception {
+    SegmentedFileSystemLogger logger = createLogger("1MB", "1GB");
+    logger.close();
+    logger.append("event");
+  }
+
+  private SegmentedFileSystemLogger createLogger(String segmentSize, String retentionSize) {
+    FileConfig config = new FileConfig();
+    config.setLogsRootPath(directory.toString());
+    config.setRollingMaxHistory(30);
+    config.setTriggerMaxFileSize(segmentSize);
+    config.setRetentionMaxTotalSize(retentionSize);
+    config.setFileFormat(FileFormat.SEGMENTED_BINARY);
+    config.setGroupCommitMaxRecords(64);
+    config.setSyncOnCommit(false);
+
+    LogAppenderDto appenderDto = new LogAppenderDto();
+    appenderDto.setTenantId("tenant_id");
+    appenderDto.setApplicationId("application_id");
+    appenderDto.setApplicationToken("application_token");
+
+    SegmentedFileSystemLogger logger = new SegmentedFileSystemLogger();
+    logger.init(appenderDto, config, directory.resolve(PREFIX + ".log"));
+    return logger;
+  }
+
+  private List<String> readAll() throws Exception {
+    final List<String> records = new ArrayList<>();
+    SegmentFileReader.readAll(directory, PREFIX, new SegmentFileReader.RecordHandler() {
+      @Override
+      public void onRecord(String record) {
+        records.add(record);
+      }
+    });
+    return records;
+  }
+}
@@ -16,11 +16,9 @@
 
 package org.kaaproject.kaa.server.appenders.flume.appender;
 
-import org.apache.avro.generic.GenericDatumWriter;
-import org.apache.avro.io.BinaryEncoder;
-import org.apache.avro.io.EncoderFactory;
 import org.apache.flume.Event;
 import org.apache.flume.event.EventBuilder;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeConfig;
 import org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeEventFormat;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
@@ -31,7 +29,6 @@ import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -47,6 +44,9 @@ public class FlumeAvroEventBuilder extends FlumeEventBuilder {
   private static final String CLIENT_PROFILE_NOT_SET = "Client profile is not set!";
   private static final String SERVER_PROFILE_NOT_SET = "Server profile is not set!";
 
+  private static final GenericAvroConverter<RecordData> RECORD_DATA_CONVERTER =
+      new GenericAvroConverter<>(RecordData.SCHEMA$);
+
   private FlumeEventFormat flumeEventFormat;
   private boolean includeClientProfile;
   private boolean includeServerProfile;
@@ -122,22 +122,13 @@ public class FlumeAvroEventBuilder extends FlumeEventBuilder {
     }
 
     logData.setEventRecords(bytes);
-    EncoderFactory factory = EncoderFactory.get();
-
-    GenericDatumWriter<RecordData> writer = new GenericDatumWriter<>(logData.getSchema());
     LOG.debug("Convert load data [{}] to bytes.", logData);
-
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    factory.binaryEncoder(baos, null);
-    BinaryEncoder encoder = factory.binaryEncoder(baos, null);
     try {
-      writer.write(logData, encoder);
-      encoder.flush();
-      event = EventBuilder.withBody(baos.toByteArray());
+      event = EventBuilder.withBody(RECORD_DATA_CONVERTER.encode(logData));
     } catch (IOException ex) {
       LOG.warn("Can't convert avro object {} to binary. Exception catched: {}", logData, ex);
     }
-    LOG.trace("Build flume event with array body [{}]", baos);
+    LOG.trace("Build flume event [{}]", event);
     return event;
   }
 
@@ -24,6 +24,7 @@ import org.apache.flume.Event;
 import org.apache.flume.EventDeliveryException;
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.FlumeClientManager;
+import org.kaaproject.kaa.server.appenders.flume.appender.client.FlumeEventBatcher;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendBatchAsyncResultPojo;
 import org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeConfig;
 import org.kaaproject.kaa.server.common.log.shared.appender.AbstractLogAppender;
@@ -60,6 +61,7 @@ public class FlumeLogAppender extends AbstractLogAppender<FlumeConfig> {
 
   private FlumeEventBuilder flumeEventBuilder;
   private FlumeClientManager<?> flumeClientManager;
+  private FlumeEventBatcher eventBatcher;
 
   /**
    * Instantiates a new FlumeLogAppender.
@@ -102,8 +104,9 @@ public class FlumeLogAppender extends AbstractLogAppender<FlumeConfig> {
                 if (flumeClientManager != null) {
                   int logCount = events.size();
                   inputLogCount.getAndAdd(logCount);
-                  ListenableFuture<AppendBatchAsyncResultPojo> result = flumeClientManager
-                      .sendEventsToFlumeAsync(events);
+                  FlumeEventBatcher batcher = eventBatcher;
+                  ListenableFuture<AppendBatchAsyncResultPojo> result = batcher != null
+                      ? batcher.append(events) : flumeClientManager.sendEventsToFlumeAsync(events);
                   Futures.addCallback(result, new Callback(listener, flumeSuccessLogCount,
                       flumeFailureLogCount, logCount), callbackExecutor);
                   LOG.debug("Appended {} logs to flume", logEventPack.getEvents().size());
@@ -147,6 +150,7 @@ public class FlumeLogAppender extends AbstractLogAppender<FlumeConfig> {
       executor = Executors.newFixedThreadPool(executorPoolSize);
       callbackExecutor = Executors.newFixedThreadPool(callbackPoolSize);
       flumeClientManager = FlumeClientManager.getInstance(configuration);
+      eventBatcher = createEventBatcher(configuration, flumeClientManager);
     } catch (Exception ex) {
       LOG.error("Failed to init Flume log appender: ", ex);
     }
@@ -179,13 +183,28 @@ public class FlumeLogAppender extends AbstractLogAppender<FlumeConfig> {
     }
     if (flumeClientManager == null) {
       flumeClientManager = FlumeClientManager.getInstance(configuration);
+      eventBatcher = createEventBatcher(configuration, flumeClientManager);
     }
   }
 
+  private FlumeEventBatcher createEventBatcher(FlumeConfig configuration,
+                                               FlumeClientManager<?> clientManager) {
+    Integer maxBatchDelay = configuration.getMaxBatchDelay();
+    if (clientManager == null || maxBatchDelay == null || maxBatchDelay <= 0) {
+      return null;
+    }
+    return new FlumeEventBatcher(clientManager, scheduler,
+        FlumeClientManager.getMaxBatchSize(configuration), maxBatchDelay);
+  }
+
   @Override
   public void close() {
     if (!closed) {
       closed = true;
+      if (eventBatcher != null) {
+        eventBatcher.flush();
+        eventBatcher = null;
+      }
       if (flumeClientManager != null) {
         flumeClientManager.cleanUp();
       }
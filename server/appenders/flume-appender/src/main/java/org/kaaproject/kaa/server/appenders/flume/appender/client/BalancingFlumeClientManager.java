@@ -20,6 +20,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.flume.Event;
 import org.apache.flume.EventDeliveryException;
+import org.apache.flume.api.RpcClientConfigurationConstants;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendAsyncResultPojo;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendBatchAsyncResultPojo;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AsyncRpcClient;
@@ -81,6 +82,7 @@ public class BalancingFlumeClientManager extends FlumeClientManager<FlumeNodes>
     props.put(HOST_SELECTOR, ROUND_ROBIN);
     props.put(CONNECT_TIMEOUT, 2000);
     props.put(REQUEST_TIMEOUT, 2000);
+    props.put(RpcClientConfigurationConstants.CONFIG_BATCH_SIZE, Integer.toString(rpcBatchSize));
 
     LOG.debug("Generated properties: {}", props);
 
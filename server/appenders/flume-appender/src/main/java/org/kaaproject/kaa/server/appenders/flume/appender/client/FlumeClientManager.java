@@ -20,6 +20,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.flume.Event;
 import org.apache.flume.EventDeliveryException;
+import org.apache.flume.api.RpcClientConfigurationConstants;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendAsyncResultPojo;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendBatchAsyncResultPojo;
 import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AsyncRpcClient;
@@ -41,6 +42,7 @@ public abstract class FlumeClientManager<T> {
   protected static final int MAX_RETRY_COUNT = 3;
   private static final Logger LOG = LoggerFactory.getLogger(FlumeClientManager.class);
   protected AsyncRpcClient currentClient = null;
+  protected int rpcBatchSize = RpcClientConfigurationConstants.DEFAULT_BATCH_SIZE;
 
   /**
    * Create new instance of <code>FlumeClientManager</code>.
@@ -57,12 +59,14 @@ public abstract class FlumeClientManager<T> {
       LOG.debug("Init priority client manager");
       PrioritizedFlumeNodes flumeNodesConfig = (PrioritizedFlumeNodes) hostsBalancing;
       PriorityFlumeClientManager priorityClientManager = new PriorityFlumeClientManager();
+      priorityClientManager.setRpcBatchSize(getMaxBatchSize(configuration));
       priorityClientManager.init(flumeNodesConfig, configuration.getClientsThreadPoolSize());
       clientManager = priorityClientManager;
     } else if (hostsBalancing instanceof FlumeNodes) {
       LOG.debug("Init round robin client manager");
       FlumeNodes flumeNodesConfig = (FlumeNodes) hostsBalancing;
       BalancingFlumeClientManager balancingClientManager = new BalancingFlumeClientManager();
+      balancingClientManager.setRpcBatchSize(getMaxBatchSize(configuration));
       balancingClientManager.init(flumeNodesConfig, configuration.getClientsThreadPoolSize());
       clientManager = balancingClientManager;
     } else {
@@ -71,6 +75,28 @@ public abstract class FlumeClientManager<T> {
     return (FlumeClientManager<T>) clientManager;
   }
 
+  /**
+   * Returns the maximum number of events the appender merges into one batch.
+   *
+   * @param configuration the appender configuration
+   * @return the configured batch size or the Flume RPC client default
+   */
+  public static int getMaxBatchSize(FlumeConfig configuration) {
+    Integer maxBatchSize = configuration.getMaxBatchSize();
+    return maxBatchSize != null && maxBatchSize > 0
+        ? maxBatchSize : RpcClientConfigurationConstants.DEFAULT_BATCH_SIZE;
+  }
+
+  /**
+   * Sets the maximum number of events sent in a single RPC call, so a merged batch
+   * is not split into several sequential calls by the RPC client.
+   *
+   * @param rpcBatchSize the RPC batch size
+   */
+  public void setRpcBatchSize(int rpcBatchSize) {
+    this.rpcBatchSize = rpcBatchSize;
+  }
+
   protected abstract AsyncRpcClient initManager(T parameters);
 
   protected abstract AsyncRpcClient initManager(T parameters, int maxClientThreads);
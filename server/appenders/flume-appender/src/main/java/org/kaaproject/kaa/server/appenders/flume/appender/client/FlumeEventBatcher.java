@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.flume.appender.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import org.apache.flume.Event;
+import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendBatchAsyncResultPojo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges small Kaa log batches into larger Flume batches.
+ *
+ * <p>Batches are accumulated until they hold at least <code>maxBatchSize</code> events or
+ * the oldest of them has waited for <code>maxBatchDelay</code> milliseconds, and are then
+ * sent with a single <code>appendBatch</code> call. Each Kaa batch gets its own future that
+ * completes with the result of the call that carried its events, so the delivery callbacks
+ * of the appender are not affected by the merging.
+ */
+public class FlumeEventBatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FlumeEventBatcher.class);
+
+  private final FlumeClientManager<?> clientManager;
+  private final ScheduledExecutorService scheduler;
+  private final int maxBatchSize;
+  private final long maxBatchDelay;
+
+  private final Runnable flushTask = new Runnable() {
+    @Override
+    public void run() {
+      flush();
+    }
+  };
+
+  private List<PendingBatch> pending = new ArrayList<>();
+  private int pendingEvents;
+  private ScheduledFuture<?> scheduledFlush;
+
+  /**
+   * Create new instance of <code>FlumeEventBatcher</code>.
+   *
+   * @param clientManager the client manager used to send merged batches
+   * @param scheduler     the scheduler used to flush batches after the delay
+   * @param maxBatchSize  the number of events that triggers an immediate flush
+   * @param maxBatchDelay the maximum time in milliseconds a batch waits for others
+   */
+  public FlumeEventBatcher(FlumeClientManager<?> clientManager,
+                           ScheduledExecutorService scheduler,
+                           int maxBatchSize, long maxBatchDelay) {
+    this.clientManager = clientManager;
+    this.scheduler = scheduler;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchDelay = maxBatchDelay;
+  }
+
+  /**
+   * Adds the events of a Kaa log batch to the current Flume batch.
+   *
+   * @param events the events to send
+   * @return the future that completes once the events are delivered
+   */
+  public ListenableFuture<AppendBatchAsyncResultPojo> append(List<Event> events) {
+    PendingBatch batch = new PendingBatch(events);
+    List<PendingBatch> ready = null;
+    synchronized (this) {
+      pending.add(batch);
+      pendingEvents += events.size();
+      if (pendingEvents >= maxBatchSize) {
+        ready = drain();
+      } else if (scheduledFlush == null) {
+        scheduledFlush = scheduler.schedule(flushTask, maxBatchDelay, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (ready != null) {
+      send(ready);
+    }
+    return batch.future;
+  }
+
+  /**
+   * Sends all accumulated events.
+   */
+  public void flush() {
+    List<PendingBatch> ready;
+    synchronized (this) {
+      ready = drain();
+    }
+    if (!ready.isEmpty()) {
+      send(ready);
+    }
+  }
+
+  private List<PendingBatch> drain() {
+    List<PendingBatch> ready = pending;
+    pending = new ArrayList<>();
+    pendingEvents = 0;
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    return ready;
+  }
+
+  private void send(final List<PendingBatch> batches) {
+    List<Event> events;
+    if (batches.size() == 1) {
+      events = batches.get(0).events;
+    } else {
+      events = new ArrayList<>();
+      for (PendingBatch batch : batches) {
+        events.addAll(batch.events);
+      }
+    }
+    LOG.debug("Sending {} events of {} log batches to flume", events.size(), batches.size());
+    try {
+      Futures.addCallback(clientManager.sendEventsToFlumeAsync(events),
+          new FutureCallback<AppendBatchAsyncResultPojo>() {
+            @Override
+            public void onSuccess(AppendBatchAsyncResultPojo result) {
+              for (PendingBatch batch : batches) {
+                batch.future.set(new AppendBatchAsyncResultPojo(result.isSuccessful(),
+                    batch.events));
+              }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+              fail(batches, throwable);
+            }
+          }, MoreExecutors.directExecutor());
+    } catch (Exception ex) {
+      fail(batches, ex);
+    }
+  }
+
+  private static void fail(List<PendingBatch> batches, Throwable throwable) {
+    for (PendingBatch batch : batches) {
+      batch.future.setException(throwable);
+    }
+  }
+
+  private static final class PendingBatch {
+    private final List<Event> events;
+    private final SettableFuture<AppendBatchAsyncResultPojo> future = SettableFuture.create();
+
+    private PendingBatch(List<Event> events) {
+      this.events = events;
+    }
+  }
+}
@@ -110,7 +110,8 @@ public class PriorityFlumeClientManager extends FlumeClientManager<PrioritizedFl
     }
     try {
       LOG.warn("Initialize new flume client.");
-      client = new AvroAsyncRpcClient(node.getHost(), node.getPort(), maxClientThreads);
+      client = new AvroAsyncRpcClient(node.getHost(), node.getPort(), maxClientThreads,
+          rpcBatchSize);
     } catch (FlumeException ex) {
       LOG.warn("Can't initialize flume client.", ex);
       if (retryCount <= MAX_RETRY_COUNT) {
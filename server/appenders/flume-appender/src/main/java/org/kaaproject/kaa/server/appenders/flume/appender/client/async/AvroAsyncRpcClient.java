@@ -24,6 +24,7 @@ import org.apache.flume.Event;
 import org.apache.flume.EventDeliveryException;
 import org.apache.flume.FlumeException;
 import org.apache.flume.api.RpcClient;
+import org.apache.flume.api.RpcClientConfigurationConstants;
 import org.apache.flume.api.RpcClientFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,14 +34,22 @@ import java.util.Properties;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class AvroAsyncRpcClient implements AsyncRpcClient {
 
   public static final String ASYNC_MAX_THREADS = "async-mx-threads";
   private static final Logger LOG = LoggerFactory.getLogger(AvroAsyncRpcClient.class);
+  private static final long CLOSE_TIMEOUT = 5000;
   ArrayBlockingQueue<RpcClient> clientQueue;
   ListeningExecutorService executorService;
 
+  private final Properties starterProp;
+  private final String hostname;
+  private final Integer port;
+  private final int batchSize;
+  private volatile boolean closed;
+
   /**
    * Create new instance of <code>AvroAsyncRpcClient</code>.
    *
@@ -48,16 +57,13 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
    * @param numberOfClientThreads is number of client's threads
    */
   public AvroAsyncRpcClient(Properties starterProp, int numberOfClientThreads) {
-    clientQueue = new ArrayBlockingQueue<RpcClient>(numberOfClientThreads);
-
-    for (int i = 0; i < numberOfClientThreads; i++) {
-      RpcClient client = RpcClientFactory.getInstance(starterProp);
-      clientQueue.add(client);
-    }
-
-    LOG.info("Number of Threads:" + numberOfClientThreads);
-    executorService = MoreExecutors
-        .listeningDecorator(Executors.newFixedThreadPool(numberOfClientThreads));
+    this.starterProp = starterProp;
+    this.hostname = null;
+    this.port = null;
+    this.batchSize = Integer.parseInt(starterProp.getProperty(
+        RpcClientConfigurationConstants.CONFIG_BATCH_SIZE,
+        Integer.toString(RpcClientConfigurationConstants.DEFAULT_BATCH_SIZE)));
+    init(numberOfClientThreads);
   }
 
   /**
@@ -68,13 +74,30 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
    * @param numberOfThreads is number of client's threads
    */
   public AvroAsyncRpcClient(String hostname, Integer port, int numberOfThreads) {
-    int numberOfClientThreads = numberOfThreads;
+    this(hostname, port, numberOfThreads, RpcClientConfigurationConstants.DEFAULT_BATCH_SIZE);
+  }
 
+  /**
+   * Create new instance of <code>AvroAsyncRpcClient</code>.
+   *
+   * @param hostname        the RPC hostname, use it to create RPC client
+   * @param port            the RPC port, use it to create RPC client
+   * @param numberOfThreads is number of client's threads
+   * @param batchSize       the maximum number of events sent in a single RPC call
+   */
+  public AvroAsyncRpcClient(String hostname, Integer port, int numberOfThreads, int batchSize) {
+    this.starterProp = null;
+    this.hostname = hostname;
+    this.port = port;
+    this.batchSize = batchSize;
+    init(numberOfThreads);
+  }
+
+  private void init(int numberOfClientThreads) {
     clientQueue = new ArrayBlockingQueue<RpcClient>(numberOfClientThreads);
 
     for (int i = 0; i < numberOfClientThreads; i++) {
-      RpcClient client = RpcClientFactory.getDefaultInstance(hostname, port);
-      clientQueue.add(client);
+      clientQueue.add(createClient());
     }
 
     LOG.info("Number of Threads:" + numberOfClientThreads);
@@ -82,6 +105,31 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
         .listeningDecorator(Executors.newFixedThreadPool(numberOfClientThreads));
   }
 
+  private RpcClient createClient() {
+    if (starterProp != null) {
+      return RpcClientFactory.getInstance(starterProp);
+    } else {
+      return RpcClientFactory.getDefaultInstance(hostname, port, batchSize);
+    }
+  }
+
+  /**
+   * Returns the client to the pool. A client that lost its connection is replaced with a
+   * new one, so a single failed call does not take the connection out of the pool for good.
+   */
+  private void releaseClient(RpcClient client) {
+    if (!closed && !client.isActive()) {
+      try {
+        RpcClient newClient = createClient();
+        client.close();
+        client = newClient;
+      } catch (FlumeException ex) {
+        LOG.warn("Can't reconnect flume rpc client, will retry on the next call", ex);
+      }
+    }
+    clientQueue.add(client);
+  }
+
   /**
    * Async append event to RPC client, return listenable future.
    *
@@ -93,9 +141,12 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
     ListenableFuture<AppendAsyncResultPojo> future = executorService.submit(
         new Callable<AppendAsyncResultPojo>() {
           public AppendAsyncResultPojo call() throws Exception {
-            RpcClient client = clientQueue.poll();
-            client.append(event);
-            clientQueue.add(client);
+            RpcClient client = clientQueue.take();
+            try {
+              client.append(event);
+            } finally {
+              releaseClient(client);
+            }
             return new AppendAsyncResultPojo(true, event);
           }
         });
@@ -113,9 +164,12 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
     ListenableFuture<AppendBatchAsyncResultPojo> future = executorService
         .submit(new Callable<AppendBatchAsyncResultPojo>() {
           public AppendBatchAsyncResultPojo call() throws Exception {
-            RpcClient client = clientQueue.poll();
-            client.appendBatch(events);
-            clientQueue.add(client);
+            RpcClient client = clientQueue.take();
+            try {
+              client.appendBatch(events);
+            } finally {
+              releaseClient(client);
+            }
             return new AppendBatchAsyncResultPojo(true, events);
           }
         });
@@ -125,7 +179,7 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
 
   @Override
   public int getBatchSize() {
-    return 0;
+    return batchSize;
   }
 
   @Override
@@ -148,12 +202,28 @@ public class AvroAsyncRpcClient implements AsyncRpcClient {
 
   @Override
   public boolean isActive() {
-    // TODO Auto-generated method stub
-    return true;
+    return !closed;
   }
 
   @Override
   public void close() throws FlumeException {
-    // Do nothing
+    if (closed) {
+      return;
+    }
+    closed = true;
+    executorService.shutdown();
+    try {
+      // let the calls already submitted complete before their clients are closed
+      if (!executorService.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        executorService.shutdownNow();
+      }
+    } catch (InterruptedException ex) {
+      executorService.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    RpcClient client;
+    while ((client = clientQueue.poll()) != null) {
+      client.close();
+    }
   }
 }
@@ -8,7 +8,7 @@ package org.kaaproject.kaa.server.appenders.flume.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"FlumeConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.flume.config.gen\",\"fields\":[{\"name\":\"executorThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Executor thread pool size\",\"by_default\":1},{\"name\":\"callbackThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Callback thread pool size\",\"by_default\":2},{\"name\":\"clientsThreadPoolSize\",\"type\":\"int\",\"displayName\":\"RPC client max thread pool size\",\"by_default\":2},{\"name\":\"includeClientProfile\",\"type\":[\"boolean\",\"null\"],\"displayName\":\"Include client profile data\",\"by_default\":false},{\"name\":\"includeServerProfile\",\"type\":[\"boolean\",\"null\"],\"displayName\":\"Include server profile data\",\"by_default\":false},{\"name\":\"flumeEventFormat\",\"type\":{\"type\":\"enum\",\"name\":\"FlumeEventFormat\",\"symbols\":[\"RECORDS_CONTAINER\",\"GENERIC\"]},\"displayName\":\"Flume event format\",\"by_default\":\"RECORDS_CONTAINER\",\"displayNames\":[\"Records container\",\"Generic\"]},{\"name\":\"hostsBalancing\",\"type\":[{\"type\":\"record\",\"name\":\"PrioritizedFlumeNodes\",\"fields\":[{\"name\":\"flumeNodes\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"PrioritizedFlumeNode\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.8,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.1,\"by_default\":7070},{\"name\":\"priority\",\"type\":\"int\",\"displayName\":\"Priority\",\"weight\":0.1,\"by_default\":1}]}},\"displayName\":\"Flume nodes\",\"minRowCount\":1}],\"displayName\":\"Prioritized\"},{\"type\":\"record\",\"name\":\"FlumeNodes\",\"fields\":[{\"name\":\"flumeNodes\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"FlumeNode\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":7070}]}},\"displayName\":\"Flume nodes\",\"minRowCount\":2}],\"displayName\":\"Round Robin\"}],\"displayName\":\"Hosts balancing\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"FlumeConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.flume.config.gen\",\"fields\":[{\"name\":\"executorThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Executor thread pool size\",\"by_default\":1},{\"name\":\"callbackThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Callback thread pool size\",\"by_default\":2},{\"name\":\"clientsThreadPoolSize\",\"type\":\"int\",\"displayName\":\"RPC client max thread pool size\",\"by_default\":2},{\"name\":\"includeClientProfile\",\"type\":[\"boolean\",\"null\"],\"displayName\":\"Include client profile data\",\"by_default\":false},{\"name\":\"includeServerProfile\",\"type\":[\"boolean\",\"null\"],\"displayName\":\"Include server profile data\",\"by_default\":false},{\"name\":\"flumeEventFormat\",\"type\":{\"type\":\"enum\",\"name\":\"FlumeEventFormat\",\"symbols\":[\"RECORDS_CONTAINER\",\"GENERIC\"]},\"displayName\":\"Flume event format\",\"by_default\":\"RECORDS_CONTAINER\",\"displayNames\":[\"Records container\",\"Generic\"]},{\"name\":\"hostsBalancing\",\"type\":[{\"type\":\"record\",\"name\":\"PrioritizedFlumeNodes\",\"fields\":[{\"name\":\"flumeNodes\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"PrioritizedFlumeNode\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.8,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.1,\"by_default\":7070},{\"name\":\"priority\",\"type\":\"int\",\"displayName\":\"Priority\",\"weight\":0.1,\"by_default\":1}]}},\"displayName\":\"Flume nodes\",\"minRowCount\":1}],\"displayName\":\"Prioritized\"},{\"type\":\"record\",\"name\":\"FlumeNodes\",\"fields\":[{\"name\":\"flumeNodes\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"FlumeNode\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":7070}]}},\"displayName\":\"Flume nodes\",\"minRowCount\":2}],\"displayName\":\"Round Robin\"}],\"displayName\":\"Hosts balancing\"},{\"name\":\"maxBatchSize\",\"type\":[\"int\",\"null\"],\"displayName\":\"Max batch size\",\"by_default\":1000},{\"name\":\"maxBatchDelay\",\"type\":[\"int\",\"null\"],\"displayName\":\"Max batch delay (ms)\",\"by_default\":10}]}");
   private int executorThreadPoolSize;
   private int callbackThreadPoolSize;
   private int clientsThreadPoolSize;
@@ -16,6 +16,8 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
   private java.lang.Boolean includeServerProfile;
   private org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeEventFormat flumeEventFormat;
   private java.lang.Object hostsBalancing;
+  private java.lang.Integer maxBatchSize;
+  private java.lang.Integer maxBatchDelay;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -84,6 +86,10 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
         return flumeEventFormat;
       case 6:
         return hostsBalancing;
+      case 7:
+        return maxBatchSize;
+      case 8:
+        return maxBatchDelay;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -114,6 +120,12 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
       case 6:
         hostsBalancing = (java.lang.Object) value$;
         break;
+      case 7:
+        maxBatchSize = (java.lang.Integer) value$;
+        break;
+      case 8:
+        maxBatchDelay = (java.lang.Integer) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -231,6 +243,38 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
     this.hostsBalancing = value;
   }
 
+  /**
+   * Gets the value of the 'maxBatchSize' field.
+   */
+  public java.lang.Integer getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Sets the value of the 'maxBatchSize' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMaxBatchSize(java.lang.Integer value) {
+    this.maxBatchSize = value;
+  }
+
+  /**
+   * Gets the value of the 'maxBatchDelay' field.
+   */
+  public java.lang.Integer getMaxBatchDelay() {
+    return maxBatchDelay;
+  }
+
+  /**
+   * Sets the value of the 'maxBatchDelay' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMaxBatchDelay(java.lang.Integer value) {
+    this.maxBatchDelay = value;
+  }
+
   /**
    * RecordBuilder for FlumeConfig instances.
    */
@@ -244,6 +288,8 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
     private java.lang.Boolean includeServerProfile;
     private org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeEventFormat flumeEventFormat;
     private java.lang.Object hostsBalancing;
+    private java.lang.Integer maxBatchSize;
+    private java.lang.Integer maxBatchDelay;
 
     /**
      * Creates a new Builder
@@ -285,6 +331,14 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
         this.hostsBalancing = data().deepCopy(fields()[6].schema(), other.hostsBalancing);
         fieldSetFlags()[6] = true;
       }
+      if (isValidValue(fields()[7], other.maxBatchSize)) {
+        this.maxBatchSize = data().deepCopy(fields()[7].schema(), other.maxBatchSize);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.maxBatchDelay)) {
+        this.maxBatchDelay = data().deepCopy(fields()[8].schema(), other.maxBatchDelay);
+        fieldSetFlags()[8] = true;
+      }
     }
 
     /**
@@ -320,6 +374,14 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
         this.hostsBalancing = data().deepCopy(fields()[6].schema(), other.hostsBalancing);
         fieldSetFlags()[6] = true;
       }
+      if (isValidValue(fields()[7], other.maxBatchSize)) {
+        this.maxBatchSize = data().deepCopy(fields()[7].schema(), other.maxBatchSize);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.maxBatchDelay)) {
+        this.maxBatchDelay = data().deepCopy(fields()[8].schema(), other.maxBatchDelay);
+        fieldSetFlags()[8] = true;
+      }
     }
 
     /**
@@ -550,6 +612,72 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
       return this;
     }
 
+    /**
+     * Gets the value of the 'maxBatchSize' field
+     */
+    public java.lang.Integer getMaxBatchSize() {
+      return maxBatchSize;
+    }
+
+    /**
+     * Sets the value of the 'maxBatchSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeConfig.Builder setMaxBatchSize(java.lang.Integer value) {
+      validate(fields()[7], value);
+      this.maxBatchSize = value;
+      fieldSetFlags()[7] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'maxBatchSize' field has been set
+     */
+    public boolean hasMaxBatchSize() {
+      return fieldSetFlags()[7];
+    }
+
+    /**
+     * Clears the value of the 'maxBatchSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeConfig.Builder clearMaxBatchSize() {
+      maxBatchSize = null;
+      fieldSetFlags()[7] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'maxBatchDelay' field
+     */
+    public java.lang.Integer getMaxBatchDelay() {
+      return maxBatchDelay;
+    }
+
+    /**
+     * Sets the value of the 'maxBatchDelay' field
+     */
+    public org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeConfig.Builder setMaxBatchDelay(java.lang.Integer value) {
+      validate(fields()[8], value);
+      this.maxBatchDelay = value;
+      fieldSetFlags()[8] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'maxBatchDelay' field has been set
+     */
+    public boolean hasMaxBatchDelay() {
+      return fieldSetFlags()[8];
+    }
+
+    /**
+     * Clears the value of the 'maxBatchDelay' field
+     */
+    public org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeConfig.Builder clearMaxBatchDelay() {
+      maxBatchDelay = null;
+      fieldSetFlags()[8] = false;
+      return this;
+    }
+
     @Override
     public FlumeConfig build() {
       try {
@@ -561,6 +689,8 @@ public class FlumeConfig extends org.apache.avro.specific.SpecificRecordBase imp
         record.includeServerProfile = fieldSetFlags()[4] ? this.includeServerProfile : (java.lang.Boolean) defaultValue(fields()[4]);
         record.flumeEventFormat = fieldSetFlags()[5] ? this.flumeEventFormat : (org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeEventFormat) defaultValue(fields()[5]);
         record.hostsBalancing = fieldSetFlags()[6] ? this.hostsBalancing : (java.lang.Object) defaultValue(fields()[6]);
+        record.maxBatchSize = fieldSetFlags()[7] ? this.maxBatchSize : (java.lang.Integer) defaultValue(fields()[7]);
+        record.maxBatchDelay = fieldSetFlags()[8] ? this.maxBatchDelay : (java.lang.Integer) defaultValue(fields()[8]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.flume.appender.client;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.flume.Event;
+import org.apache.flume.EventDeliveryException;
+import org.apache.flume.event.EventBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.appenders.flume.appender.client.async.AppendBatchAsyncResultPojo;
+import org.kaaproject.kaa.server.appenders.flume.config.gen.PrioritizedFlumeNode;
+import org.kaaproject.kaa.server.appenders.flume.config.gen.PrioritizedFlumeNodes;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class FlumeEventBatcherTest {
+
+  private static final int PORT = 12125;
+
+  private ScheduledExecutorService scheduler;
+  private FlumeSourceRunner flumeSourceRunner;
+  private FlumeClientManager<PrioritizedFlumeNodes> clientManager;
+
+  @Before
+  public void before() throws Exception {
+    scheduler = Executors.newScheduledThreadPool(1);
+    flumeSourceRunner = FlumeSourceRunner.getInstance();
+  }
+
+  @After
+  public void after() throws Exception {
+    scheduler.shutdownNow();
+    if (clientManager != null) {
+      clientManager.cleanUp();
+    }
+    if (flumeSourceRunner.isRunning()) {
+      flumeSourceRunner.stopFlumeSource();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void mergeBatchesUntilDelayTest() throws Exception {
+    FlumeClientManager<?> manager = mock(FlumeClientManager.class);
+    when(manager.sendEventsToFlumeAsync(anyListOf(Event.class))).thenAnswer(
+        new Answer<ListenableFuture<AppendBatchAsyncResultPojo>>() {
+          @Override
+          public ListenableFuture<AppendBatchAsyncResultPojo> answer(InvocationOnMock invocation) {
+            List<Event> events = (List<Event>) invocation.getArguments()[0];
+            return Futures.immediateFuture(new AppendBatchAsyncResultPojo(true, events));
+          }
+        });
+    FlumeEventBatcher batcher = new FlumeEventBatcher(manager, scheduler, 100, 50);
+
+    List<ListenableFuture<AppendBatchAsyncResultPojo>> futures = new ArrayList<>();
+    List<List<Event>> batches = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      List<Event> events = events(i, 2);
+      batches.add(events);
+      futures.add(batcher.append(events));
+    }
+    for (int i = 0; i < 3; i++) {
+      AppendBatchAsyncResultPojo result = futures.get(i).get(1, TimeUnit.SECONDS);
+      Assert.assertTrue(result.isSuccessful());
+      Assert.assertSame(batches.get(i), result.getEvents());
+    }
+
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    verify(manager, times(1)).sendEventsToFlumeAsync(captor.capture());
+    Assert.assertEquals(6, captor.getValue().size());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void flushWhenBatchIsFullTest() throws Exception {
+    FlumeClientManager<?> manager = mock(FlumeClientManager.class);
+    when(manager.sendEventsToFlumeAsync(anyListOf(Event.class))).thenReturn(
+        Futures.immediateFuture(new AppendBatchAsyncResultPojo(true, null)));
+    FlumeEventBatcher batcher = new FlumeEventBatcher(manager, scheduler, 4, 60000);
+
+    ListenableFuture<AppendBatchAsyncResultPojo> first = batcher.append(events(0, 2));
+    Assert.assertFalse(first.isDone());
+    ListenableFuture<AppendBatchAsyncResultPojo> second = batcher.append(events(1, 2));
+    Assert.assertTrue(first.isDone());
+    Assert.assertTrue(second.isDone());
+    verify(manager, times(1)).sendEventsToFlumeAsync(anyListOf(Event.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void failAllMergedBatchesTest() throws Exception {
+    FlumeClientManager<?> manager = mock(FlumeClientManager.class);
+    when(manager.sendEventsToFlumeAsync(anyListOf(Event.class))).thenThrow(
+        new EventDeliveryException("test"));
+    FlumeEventBatcher batcher = new FlumeEventBatcher(manager, scheduler, 100, 60000);
+
+    ListenableFuture<AppendBatchAsyncResultPojo> first = batcher.append(events(0, 1));
+    ListenableFuture<AppendBatchAsyncResultPojo> second = batcher.append(events(1, 1));
+    batcher.flush();
+    for (ListenableFuture<AppendBatchAsyncResultPojo> future : Arrays.asList(first, second)) {
+      try {
+        future.get();
+        Assert.fail("Exception expected");
+      } catch (ExecutionException ex) {
+        Assert.assertTrue(ex.getCause() instanceof EventDeliveryException);
+      }
+    }
+  }
+
+  @Test
+  public void deliverToEmbeddedAvroSourceTest() throws Exception {
+    flumeSourceRunner.startFlumeSource("agent", "localhost", PORT);
+    PrioritizedFlumeNodes nodes = PrioritizedFlumeNodes.newBuilder()
+        .setFlumeNodes(Arrays.asList(new PrioritizedFlumeNode("localhost", PORT, 1))).build();
+    clientManager = new PriorityFlumeClientManager();
+    clientManager.setRpcBatchSize(50);
+    clientManager.init(nodes, 4);
+    FlumeEventBatcher batcher = new FlumeEventBatcher(clientManager, scheduler, 50, 20);
+
+    List<ListenableFuture<AppendBatchAsyncResultPojo>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      futures.add(batcher.append(events(i, 3)));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      AppendBatchAsyncResultPojo result = futures.get(i).get(5, TimeUnit.SECONDS);
+      Assert.assertTrue(result.isSuccessful());
+      Assert.assertEquals(3, result.getEvents().size());
+      Assert.assertEquals(i, result.getEvents().get(0).getBody()[0]);
+    }
+  }
+
+  private static List<Event> events(int batch, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      events.add(EventBuilder.withBody(new byte[]{(byte) batch, (byte) i}));
+    }
+    return events;
+  }
+}
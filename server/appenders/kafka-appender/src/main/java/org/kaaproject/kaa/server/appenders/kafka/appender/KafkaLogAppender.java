@@ -32,9 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -57,15 +55,6 @@ public class KafkaLogAppender extends AbstractLogAppender<KafkaConfig> {
   private String topicName;
   private boolean closed = false;
 
-  private ThreadLocal<Map<String, GenericAvroConverter<GenericRecord>>> converters = new ThreadLocal<Map<String, GenericAvroConverter<GenericRecord>>>() {
-
-    @Override
-    protected Map<String, GenericAvroConverter<GenericRecord>> initialValue() {
-      return new HashMap<String, GenericAvroConverter<GenericRecord>>();
-    }
-
-  };
-
   /**
    * Instantiates a new KafkaLogAppender.
    */
@@ -120,7 +109,7 @@ public class KafkaLogAppender extends AbstractLogAppender<KafkaConfig> {
               int logCount = dtoList.size();
               inputLogCount.getAndAdd(logCount);
               logEventDao.save(dtoList, eventConverter, headerConverter, new LogAppenderCallback(
-                  listener, kafkaSuccessLogCount, kafkaFailureLogCount));
+                  listener, kafkaSuccessLogCount, kafkaFailureLogCount, logCount));
               LOG.debug("[{}] appended {} logs to kafka collection", topicName, logEventPack.getEvents()
                   .size());
             } else {
@@ -175,26 +164,6 @@ public class KafkaLogAppender extends AbstractLogAppender<KafkaConfig> {
     return events;
   }
 
-  /**
-   * Gets the converter.
-   *
-   * @param schema the schema
-   * @return the converter
-   */
-  private GenericAvroConverter<GenericRecord> getConverter(String schema) {
-    LOG.trace("Get converter for schema [{}]", schema);
-    Map<String, GenericAvroConverter<GenericRecord>> converterMap = converters.get();
-    GenericAvroConverter<GenericRecord> genAvroConverter = converterMap.get(schema);
-    if (genAvroConverter == null) {
-      LOG.trace("Create new converter for schema [{}]", schema);
-      genAvroConverter = new GenericAvroConverter<GenericRecord>(schema);
-      converterMap.put(schema, genAvroConverter);
-      converters.set(converterMap);
-    }
-    LOG.trace("Get converter [{}] from map.", genAvroConverter);
-    return genAvroConverter;
-  }
-
   private static final class LogAppenderCallback implements Callback {
 
     private final LogDeliveryCallback callback;
@@ -203,11 +172,11 @@ public class KafkaLogAppender extends AbstractLogAppender<KafkaConfig> {
     private final int size;
 
     private LogAppenderCallback(LogDeliveryCallback callback, AtomicInteger kafkaSuccessLogCount,
-                                AtomicInteger kafkaFailureLogCount) {
+                                AtomicInteger kafkaFailureLogCount, int size) {
       this.callback = callback;
       this.kafkaSuccessLogCount = kafkaSuccessLogCount;
       this.kafkaFailureLogCount = kafkaFailureLogCount;
-      this.size = 1;
+      this.size = size;
     }
 
     @Override
@@ -16,44 +16,79 @@
 
 package org.kaaproject.kaa.server.appenders.kafka.appender;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer;
+import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat;
+import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class KafkaLogEventDao implements LogEventDao {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaLogEventDao.class);
 
-  private static final String KEY_SERIALIZER = "org.apache.kafka.common.serialization.StringSerializer";
-  private static final String VALUE_SERIALIZER = "org.apache.kafka.common.serialization.StringSerializer";
+  private static final String KEY_SERIALIZER = "org.apache.kafka.common.serialization.ByteArraySerializer";
+  private static final String VALUE_SERIALIZER = "org.apache.kafka.common.serialization.ByteArraySerializer";
+
+  /**
+   * The marker of the Avro single object encoding that prefixes binary values.
+   */
+  static final byte[] AVRO_BINARY_MARKER = new byte[]{(byte) 0xC3, (byte) 0x01};
+  static final int AVRO_BINARY_PREFIX_SIZE = AVRO_BINARY_MARKER.length + 8;
+
+  private static final String RECORD_NAME = "KafkaLogRecord";
+  private static final String RECORD_NAMESPACE = "org.kaaproject.kaa.server.appenders.kafka";
+  private static final Charset UTF8 = StandardCharsets.UTF_8;
 
   private static final Random RANDOM = new Random();
 
-  private KafkaProducer<String, String> producer;
+  private final ConcurrentMap<List<Schema>, byte[]> binaryPrefixes = new ConcurrentHashMap<>();
+
+  private Producer<byte[], byte[]> producer;
   private KafkaConfig configuration;
   private String topicName;
   private int partitionCount;
+  private boolean binaryFormat;
 
   /**
    * Instantiates a new KafkaLogEventDao.
    */
   public KafkaLogEventDao(KafkaConfig configuration) {
+    this(configuration, null);
+  }
+
+  /**
+   * Instantiates a new KafkaLogEventDao that sends records through the given producer.
+   *
+   * @param configuration the appender configuration
+   * @param producer      the producer, or null to create one from the configuration
+   */
+  KafkaLogEventDao(KafkaConfig configuration, Producer<byte[], byte[]> producer) {
     if (configuration == null) {
       throw new IllegalArgumentException("Configuration shouldn't be null");
     }
@@ -61,6 +96,11 @@ public class KafkaLogEventDao implements LogEventDao {
     this.configuration = configuration;
     this.topicName = configuration.getTopic();
     this.partitionCount = configuration.getPartitionCount();
+    this.binaryFormat = configuration.getValueFormat() == KafkaValueFormat.AVRO_BINARY;
+    if (producer != null) {
+      this.producer = producer;
+      return;
+    }
     StringBuilder serverList = new StringBuilder();
     for (KafkaServer server : configuration.getKafkaServers()) {
       serverList.append(server.getHost() + ":" + server.getPort() + ",");
@@ -82,33 +122,66 @@ public class KafkaLogEventDao implements LogEventDao {
         .toLowerCase());
     LOG.info("Init kafka cluster with property {}={}", ProducerConfig.RETRIES_CONFIG, configuration.getRetries());
     kafkaProperties.put(ProducerConfig.RETRIES_CONFIG, configuration.getRetries());
+    if (configuration.getLingerMs() != null) {
+      LOG.info("Init kafka cluster with property {}={}", ProducerConfig.LINGER_MS_CONFIG,
+          configuration.getLingerMs());
+      kafkaProperties.put(ProducerConfig.LINGER_MS_CONFIG, configuration.getLingerMs());
+    }
+    if (configuration.getBatchSize() != null) {
+      LOG.info("Init kafka cluster with property {}={}", ProducerConfig.BATCH_SIZE_CONFIG,
+          configuration.getBatchSize());
+      kafkaProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, configuration.getBatchSize());
+    }
     LOG.info("Init kafka cluster with property {}={}", ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, KEY_SERIALIZER);
     kafkaProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, KEY_SERIALIZER);
     LOG.info("Init kafka cluster with property {}={}", ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
         VALUE_SERIALIZER);
     kafkaProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VALUE_SERIALIZER);
-    producer = new KafkaProducer<String, String>(kafkaProperties);
+    this.producer = new KafkaProducer<byte[], byte[]>(kafkaProperties);
   }
 
   @Override
-  public List<Future<RecordMetadata>> save(List<KafkaLogEventDto> logEventDtoList,
-                                           GenericAvroConverter<GenericRecord> eventConverter, GenericAvroConverter<GenericRecord> headerConverter,
-                                           Callback callback) throws IOException {
-    List<Future<RecordMetadata>> results = new ArrayList<Future<RecordMetadata>>();
-    LOG.info("[{}] Sending events to Kafka using {} key defining strategy", topicName, configuration
-        .getKafkaKeyType().toString());
+  public void save(List<KafkaLogEventDto> logEventDtoList,
+                   GenericAvroConverter<GenericRecord> eventConverter,
+                   GenericAvroConverter<GenericRecord> headerConverter,
+                   Callback callback) throws IOException {
+    LOG.debug("[{}] Sending events to Kafka using {} key defining strategy", topicName, configuration
+        .getKafkaKeyType());
+    if (logEventDtoList.isEmpty()) {
+      callback.onCompletion(null, null);
+      return;
+    }
+    BatchCallback batchCallback = new BatchCallback(callback, logEventDtoList.size());
+    RecordHeader encodedHeader = null;
+    byte[] headerData = null;
     for (KafkaLogEventDto dto : logEventDtoList) {
-      ProducerRecord<String, String> recordToWrite;
+      byte[] value;
+      if (binaryFormat) {
+        if (encodedHeader != dto.getHeader()) {
+          encodedHeader = dto.getHeader();
+          headerData = headerConverter.encode(encodedHeader);
+        }
+        value = formKafkaBinary(dto, headerData, eventConverter);
+      } else {
+        value = formKafkaJson(dto, eventConverter, headerConverter).getBytes(UTF8);
+      }
+      String key = getKey(dto);
+      byte[] keyData = key != null ? key.getBytes(UTF8) : null;
+      ProducerRecord<byte[], byte[]> recordToWrite;
       if (configuration.getUseDefaultPartitioner()) {
-        recordToWrite = new ProducerRecord<String, String>(topicName, getKey(dto), formKafkaJson(dto,
-            eventConverter, headerConverter));
+        recordToWrite = new ProducerRecord<byte[], byte[]>(topicName, keyData, value);
       } else {
-        recordToWrite = new ProducerRecord<String, String>(topicName, calculatePartitionId(dto), getKey(dto),
-            formKafkaJson(dto, eventConverter, headerConverter));
+        recordToWrite = new ProducerRecord<byte[], byte[]>(topicName, calculatePartitionId(dto),
+            keyData, value);
+      }
+      try {
+        producer.send(recordToWrite, batchCallback);
+      } catch (RuntimeException ex) {
+        // the records already sent may still complete, the batch is reported failed once
+        batchCallback.onCompletion(null, ex);
+        return;
       }
-      results.add(producer.send(recordToWrite, callback));
     }
-    return results;
   }
 
   @Override
@@ -138,6 +211,52 @@ public class KafkaLogEventDao implements LogEventDao {
     }
   }
 
+  /**
+   * Forms the value in the Avro single object encoding: a two byte marker, the
+   * little-endian CRC-64-AVRO fingerprint of the writer schema and the binary encoded
+   * record. The writer schema is a record of the header and the event, the binary
+   * counterpart of the JSON value.
+   */
+  private byte[] formKafkaBinary(KafkaLogEventDto dto, byte[] headerData,
+                                 GenericAvroConverter<GenericRecord> eventConverter)
+      throws IOException {
+    byte[] prefix = getBinaryPrefix(dto.getHeader().getSchema(), dto.getEvent().getSchema());
+    byte[] eventData = eventConverter.encode(dto.getEvent());
+    byte[] value = new byte[prefix.length + headerData.length + eventData.length];
+    System.arraycopy(prefix, 0, value, 0, prefix.length);
+    System.arraycopy(headerData, 0, value, prefix.length, headerData.length);
+    System.arraycopy(eventData, 0, value, prefix.length + headerData.length, eventData.length);
+    return value;
+  }
+
+  private byte[] getBinaryPrefix(Schema headerSchema, Schema eventSchema) {
+    List<Schema> key = Arrays.asList(headerSchema, eventSchema);
+    byte[] prefix = binaryPrefixes.get(key);
+    if (prefix == null) {
+      long fingerprint = SchemaNormalization.parsingFingerprint64(
+          getRecordSchema(headerSchema, eventSchema));
+      prefix = ByteBuffer.allocate(AVRO_BINARY_PREFIX_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+          .put(AVRO_BINARY_MARKER).putLong(fingerprint).array();
+      binaryPrefixes.put(key, prefix);
+    }
+    return prefix;
+  }
+
+  /**
+   * Returns the writer schema of binary values.
+   *
+   * @param headerSchema the record header schema
+   * @param eventSchema  the log schema
+   * @return the schema of a record with the header and the event fields
+   */
+  static Schema getRecordSchema(Schema headerSchema, Schema eventSchema) {
+    Schema schema = Schema.createRecord(RECORD_NAME, null, RECORD_NAMESPACE, false);
+    schema.setFields(Arrays.asList(
+        new Schema.Field("header", headerSchema, null, null),
+        new Schema.Field("event", eventSchema, null, null)));
+    return schema;
+  }
+
   private String formKafkaJson(KafkaLogEventDto dto, GenericAvroConverter<GenericRecord> eventConverter,
                                GenericAvroConverter<GenericRecord> headerConverter) throws IOException {
     String eventJson = eventConverter.encodeToJson(dto.getEvent());
@@ -162,4 +281,31 @@ public class KafkaLogEventDao implements LogEventDao {
         return null;
     }
   }
+
+  /**
+   * Completes the callback of a log batch once: with the first failure, or after all
+   * records of the batch are acknowledged.
+   */
+  static final class BatchCallback implements Callback {
+
+    private final Callback callback;
+    private final AtomicInteger remaining;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    BatchCallback(Callback callback, int size) {
+      this.callback = callback;
+      this.remaining = new AtomicInteger(size);
+    }
+
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+      if (exception != null) {
+        if (completed.compareAndSet(false, true)) {
+          callback.onCompletion(metadata, exception);
+        }
+      } else if (remaining.decrementAndGet() == 0 && completed.compareAndSet(false, true)) {
+        callback.onCompletion(metadata, null);
+      }
+    }
+  }
 }
@@ -18,18 +18,25 @@ package org.kaaproject.kaa.server.appenders.kafka.appender;
 
 import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.producer.Callback;
-import org.apache.kafka.clients.producer.RecordMetadata;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.Future;
 
 public interface LogEventDao {
 
-  List<Future<RecordMetadata>> save(List<KafkaLogEventDto> logEventDtoList,
-                                    GenericAvroConverter<GenericRecord> eventConverter, GenericAvroConverter<GenericRecord> headerConverter,
-                                    Callback callback) throws IOException;
+  /**
+   * Sends the events of a log batch. The callback is completed once for the whole batch:
+   * after all records are acknowledged or with the first failure.
+   *
+   * @param logEventDtoList the events to send
+   * @param eventConverter  the log event converter
+   * @param headerConverter the record header converter
+   * @param callback        the batch callback
+   */
+  void save(List<KafkaLogEventDto> logEventDtoList,
+            GenericAvroConverter<GenericRecord> eventConverter, GenericAvroConverter<GenericRecord> headerConverter,
+            Callback callback) throws IOException;
 
   void close();
 }
\ No newline at end of file
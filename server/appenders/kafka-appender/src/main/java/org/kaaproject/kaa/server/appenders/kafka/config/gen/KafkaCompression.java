@@ -8,8 +8,8 @@ package org.kaaproject.kaa.server.appenders.kafka.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public enum KafkaCompression {
-  NONE, SNAPPY, GZIP;
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"enum\",\"name\":\"KafkaCompression\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"symbols\":[\"NONE\",\"SNAPPY\",\"GZIP\"]}");
+  NONE, SNAPPY, GZIP, LZ4;
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"enum\",\"name\":\"KafkaCompression\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"symbols\":[\"NONE\",\"SNAPPY\",\"GZIP\",\"LZ4\"]}");
 
   public static org.apache.avro.Schema getClassSchema() {
     return SCHEMA$;
@@ -8,7 +8,7 @@ package org.kaaproject.kaa.server.appenders.kafka.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"KafkaConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"fields\":[{\"name\":\"kafkaServers\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"KafkaServer\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":9092}]}},\"displayName\":\"Kafka bootstrap servers\",\"minRowCount\":1},{\"name\":\"topic\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Topic name\",\"by_default\":\"kaa\"},{\"name\":\"useDefaultPartitioner\",\"type\":\"boolean\",\"displayName\":\"Use default partitioner\",\"by_default\":true},{\"name\":\"partitionCount\",\"type\":\"int\",\"displayName\":\"Partition count\",\"by_default\":1},{\"name\":\"kafkaKeyType\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaKeyType\",\"symbols\":[\"ENDPOINTHASHKEY\",\"HASH\",\"UUID\",\"NULL\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NULL\",\"optional\":true,\"displayName\":\"Key type\"},{\"name\":\"executorThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Executor thread pool size\",\"by_default\":1},{\"name\":\"bufferMemorySize\",\"type\":\"long\",\"displayName\":\"Buffer memory size\",\"by_default\":33554432},{\"name\":\"kafkaCompression\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaCompression\",\"symbols\":[\"NONE\",\"SNAPPY\",\"GZIP\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NONE\",\"optional\":true,\"displayName\":\"Compression type\"},{\"name\":\"kafkaAcknowledgement\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaAcknowledgement\",\"symbols\":[\"ALL\",\"ZERO\",\"ONE\",\"TWO\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"ONE\",\"optional\":true,\"displayName\":\"Acknowledgement type\"},{\"name\":\"retries\",\"type\":\"int\",\"displayName\":\"Retries\",\"by_default\":0}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"KafkaConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"fields\":[{\"name\":\"kafkaServers\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"KafkaServer\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":9092}]}},\"displayName\":\"Kafka bootstrap servers\",\"minRowCount\":1},{\"name\":\"topic\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Topic name\",\"by_default\":\"kaa\"},{\"name\":\"useDefaultPartitioner\",\"type\":\"boolean\",\"displayName\":\"Use default partitioner\",\"by_default\":true},{\"name\":\"partitionCount\",\"type\":\"int\",\"displayName\":\"Partition count\",\"by_default\":1},{\"name\":\"kafkaKeyType\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaKeyType\",\"symbols\":[\"ENDPOINTHASHKEY\",\"HASH\",\"UUID\",\"NULL\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NULL\",\"optional\":true,\"displayName\":\"Key type\"},{\"name\":\"executorThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Executor thread pool size\",\"by_default\":1},{\"name\":\"bufferMemorySize\",\"type\":\"long\",\"displayName\":\"Buffer memory size\",\"by_default\":33554432},{\"name\":\"kafkaCompression\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaCompression\",\"symbols\":[\"NONE\",\"SNAPPY\",\"GZIP\",\"LZ4\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NONE\",\"optional\":true,\"displayName\":\"Compression type\"},{\"name\":\"kafkaAcknowledgement\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaAcknowledgement\",\"symbols\":[\"ALL\",\"ZERO\",\"ONE\",\"TWO\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"ONE\",\"optional\":true,\"displayName\":\"Acknowledgement type\"},{\"name\":\"retries\",\"type\":\"int\",\"displayName\":\"Retries\",\"by_default\":0},{\"name\":\"valueFormat\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaValueFormat\",\"symbols\":[\"JSON\",\"AVRO_BINARY\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"JSON\",\"optional\":true,\"displayName\":\"Value format\"},{\"name\":\"lingerMs\",\"type\":[\"int\",\"null\"],\"displayName\":\"Linger (ms)\",\"by_default\":5},{\"name\":\"batchSize\",\"type\":[\"int\",\"null\"],\"displayName\":\"Batch size (bytes)\",\"by_default\":16384}]}");
   private java.util.List<org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer> kafkaServers;
   private java.lang.String topic;
   private boolean useDefaultPartitioner;
@@ -19,6 +19,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
   private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression kafkaCompression;
   private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement kafkaAcknowledgement;
   private int retries;
+  private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat valueFormat;
+  private java.lang.Integer lingerMs;
+  private java.lang.Integer batchSize;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -96,6 +99,12 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         return kafkaAcknowledgement;
       case 9:
         return retries;
+      case 10:
+        return valueFormat;
+      case 11:
+        return lingerMs;
+      case 12:
+        return batchSize;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -135,6 +144,15 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
       case 9:
         retries = (java.lang.Integer) value$;
         break;
+      case 10:
+        valueFormat = (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat) value$;
+        break;
+      case 11:
+        lingerMs = (java.lang.Integer) value$;
+        break;
+      case 12:
+        batchSize = (java.lang.Integer) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -300,6 +318,54 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     this.retries = value;
   }
 
+  /**
+   * Gets the value of the 'valueFormat' field.
+   */
+  public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat getValueFormat() {
+    return valueFormat;
+  }
+
+  /**
+   * Sets the value of the 'valueFormat' field.
+   *
+   * @param value the value to set.
+   */
+  public void setValueFormat(org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat value) {
+    this.valueFormat = value;
+  }
+
+  /**
+   * Gets the value of the 'lingerMs' field.
+   */
+  public java.lang.Integer getLingerMs() {
+    return lingerMs;
+  }
+
+  /**
+   * Sets the value of the 'lingerMs' field.
+   *
+   * @param value the value to set.
+   */
+  public void setLingerMs(java.lang.Integer value) {
+    this.lingerMs = value;
+  }
+
+  /**
+   * Gets the value of the 'batchSize' field.
+   */
+  public java.lang.Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the value of the 'batchSize' field.
+   *
+   * @param value the value to set.
+   */
+  public void setBatchSize(java.lang.Integer value) {
+    this.batchSize = value;
+  }
+
   /**
    * RecordBuilder for KafkaConfig instances.
    */
@@ -316,6 +382,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression kafkaCompression;
     private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement kafkaAcknowledgement;
     private int retries;
+    private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat valueFormat;
+    private java.lang.Integer lingerMs;
+    private java.lang.Integer batchSize;
 
     /**
      * Creates a new Builder
@@ -369,6 +438,18 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         this.retries = data().deepCopy(fields()[9].schema(), other.retries);
         fieldSetFlags()[9] = true;
       }
+      if (isValidValue(fields()[10], other.valueFormat)) {
+        this.valueFormat = data().deepCopy(fields()[10].schema(), other.valueFormat);
+        fieldSetFlags()[10] = true;
+      }
+      if (isValidValue(fields()[11], other.lingerMs)) {
+        this.lingerMs = data().deepCopy(fields()[11].schema(), other.lingerMs);
+        fieldSetFlags()[11] = true;
+      }
+      if (isValidValue(fields()[12], other.batchSize)) {
+        this.batchSize = data().deepCopy(fields()[12].schema(), other.batchSize);
+        fieldSetFlags()[12] = true;
+      }
     }
 
     /**
@@ -416,6 +497,18 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         this.retries = data().deepCopy(fields()[9].schema(), other.retries);
         fieldSetFlags()[9] = true;
       }
+      if (isValidValue(fields()[10], other.valueFormat)) {
+        this.valueFormat = data().deepCopy(fields()[10].schema(), other.valueFormat);
+        fieldSetFlags()[10] = true;
+      }
+      if (isValidValue(fields()[11], other.lingerMs)) {
+        this.lingerMs = data().deepCopy(fields()[11].schema(), other.lingerMs);
+        fieldSetFlags()[11] = true;
+      }
+      if (isValidValue(fields()[12], other.batchSize)) {
+        this.batchSize = data().deepCopy(fields()[12].schema(), other.batchSize);
+        fieldSetFlags()[12] = true;
+      }
     }
 
     /**
@@ -743,6 +836,105 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
       return this;
     }
 
+    /**
+     * Gets the value of the 'valueFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat getValueFormat() {
+      return valueFormat;
+    }
+
+    /**
+     * Sets the value of the 'valueFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder setValueFormat(org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat value) {
+      validate(fields()[10], value);
+      this.valueFormat = value;
+      fieldSetFlags()[10] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'valueFormat' field has been set
+     */
+    public boolean hasValueFormat() {
+      return fieldSetFlags()[10];
+    }
+
+    /**
+     * Clears the value of the 'valueFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder clearValueFormat() {
+      valueFormat = null;
+      fieldSetFlags()[10] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'lingerMs' field
+     */
+    public java.lang.Integer getLingerMs() {
+      return lingerMs;
+    }
+
+    /**
+     * Sets the value of the 'lingerMs' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder setLingerMs(java.lang.Integer value) {
+      validate(fields()[11], value);
+      this.lingerMs = value;
+      fieldSetFlags()[11] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'lingerMs' field has been set
+     */
+    public boolean hasLingerMs() {
+      return fieldSetFlags()[11];
+    }
+
+    /**
+     * Clears the value of the 'lingerMs' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder clearLingerMs() {
+      lingerMs = null;
+      fieldSetFlags()[11] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'batchSize' field
+     */
+    public java.lang.Integer getBatchSize() {
+      return batchSize;
+    }
+
+    /**
+     * Sets the value of the 'batchSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder setBatchSize(java.lang.Integer value) {
+      validate(fields()[12], value);
+      this.batchSize = value;
+      fieldSetFlags()[12] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'batchSize' field has been set
+     */
+    public boolean hasBatchSize() {
+      return fieldSetFlags()[12];
+    }
+
+    /**
+     * Clears the value of the 'batchSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder clearBatchSize() {
+      batchSize = null;
+      fieldSetFlags()[12] = false;
+      return this;
+    }
+
     @Override
     public KafkaConfig build() {
       try {
@@ -757,6 +949,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         record.kafkaCompression = fieldSetFlags()[7] ? this.kafkaCompression : (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression) defaultValue(fields()[7]);
         record.kafkaAcknowledgement = fieldSetFlags()[8] ? this.kafkaAcknowledgement : (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement) defaultValue(fields()[8]);
         record.retries = fieldSetFlags()[9] ? this.retries : (java.lang.Integer) defaultValue(fields()[9]);
+        record.valueFormat = fieldSetFlags()[10] ? this.valueFormat : (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat) defaultValue(fields()[10]);
+        record.lingerMs = fieldSetFlags()[11] ? this.lingerMs : (java.lang.Integer) defaultValue(fields()[11]);
+        record.batchSize = fieldSetFlags()[12] ? this.batchSize : (java.lang.Integer) defaultValue(fields()[12]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
@@ -146,7 +146,7 @@ public class KafkaLogAppenderTest {
     consumer.subscribe(TOPIC_NAME);
     consumer.poll(100);
     consumer.close();
-    Assert.assertEquals(20, callback.getSuccessCount());
+    Assert.assertEquals(1, callback.getSuccessCount());
   }
 
   class DeliveryCallback implements LogDeliveryCallback {
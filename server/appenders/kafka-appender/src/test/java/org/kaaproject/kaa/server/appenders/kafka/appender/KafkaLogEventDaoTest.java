@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.kafka.appender;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.server.appenders.kafka.appender.gen.Level;
+import org.kaaproject.kaa.server.appenders.kafka.appender.gen.LogData;
+import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig;
+import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaKeyType;
+import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat;
+import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KafkaLogEventDaoTest {
+
+  private static final String TOPIC_NAME = "kaa_test";
+  private static final String ENDPOINT_KEY_HASH = "endpoint_key_hash";
+
+  private GenericAvroConverter<GenericRecord> eventConverter;
+  private GenericAvroConverter<GenericRecord> headerConverter;
+  private RecordHeader header;
+  private MockProducer producer;
+
+  @Before
+  public void beforeTest() {
+    eventConverter = new GenericAvroConverter<>(LogData.getClassSchema());
+    headerConverter = new GenericAvroConverter<>(RecordHeader.getClassSchema());
+    header = new RecordHeader();
+    header.setApplicationToken("application_token");
+    header.setEndpointKeyHash(ENDPOINT_KEY_HASH);
+    header.setHeaderVersion(1);
+    header.setTimestamp(System.currentTimeMillis());
+  }
+
+  @Test
+  public void binaryValueTest() throws Exception {
+    KafkaLogEventDao dao = createDao(KafkaValueFormat.AVRO_BINARY, true);
+    CountingCallback callback = new CountingCallback();
+    dao.save(generateEvents(3), eventConverter, headerConverter, callback);
+
+    List<ProducerRecord<byte[], byte[]>> records = producer.history();
+    Assert.assertEquals(3, records.size());
+    Schema recordSchema = KafkaLogEventDao.getRecordSchema(RecordHeader.getClassSchema(),
+        LogData.getClassSchema());
+    GenericAvroConverter<GenericRecord> recordConverter = new GenericAvroConverter<>(recordSchema);
+    for (int i = 0; i < records.size(); i++) {
+      byte[] value = records.get(i).value();
+      ByteBuffer prefix = ByteBuffer.wrap(value, 0, KafkaLogEventDao.AVRO_BINARY_PREFIX_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      Assert.assertEquals((byte) 0xC3, prefix.get());
+      Assert.assertEquals((byte) 0x01, prefix.get());
+      Assert.assertEquals(SchemaNormalization.parsingFingerprint64(recordSchema), prefix.getLong());
+
+      GenericRecord record = recordConverter.decodeBinary(value,
+          KafkaLogEventDao.AVRO_BINARY_PREFIX_SIZE,
+          value.length - KafkaLogEventDao.AVRO_BINARY_PREFIX_SIZE, null);
+      GenericRecord decodedHeader = (GenericRecord) record.get("header");
+      GenericRecord decodedEvent = (GenericRecord) record.get("event");
+      Assert.assertEquals(ENDPOINT_KEY_HASH, decodedHeader.get("endpointKeyHash").toString());
+      Assert.assertEquals("message" + i, decodedEvent.get("message").toString());
+      Assert.assertArrayEquals(ENDPOINT_KEY_HASH.getBytes(StandardCharsets.UTF_8),
+          records.get(i).key());
+    }
+    Assert.assertEquals(1, callback.getSuccessCount());
+    Assert.assertEquals(0, callback.getFailureCount());
+  }
+
+  @Test
+  public void jsonValueTest() throws Exception {
+    KafkaLogEventDao dao = createDao(KafkaValueFormat.JSON, true);
+    List<KafkaLogEventDto> events = generateEvents(1);
+    dao.save(events, eventConverter, headerConverter, new CountingCallback());
+
+    String expected = "{\"header\":" + headerConverter.encodeToJson(header) + ",\"event\":"
+        + eventConverter.encodeToJson(events.get(0).getEvent()) + "}";
+    byte[] value = producer.history().get(0).value();
+    Assert.assertEquals(expected, new String(value, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void callbackPerBatchTest() throws Exception {
+    KafkaLogEventDao dao = createDao(KafkaValueFormat.AVRO_BINARY, false);
+    CountingCallback callback = new CountingCallback();
+    dao.save(generateEvents(5), eventConverter, headerConverter, callback);
+
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(producer.completeNext());
+      Assert.assertEquals(0, callback.getSuccessCount());
+    }
+    Assert.assertTrue(producer.completeNext());
+    Assert.assertEquals(1, callback.getSuccessCount());
+    Assert.assertEquals(0, callback.getFailureCount());
+  }
+
+  @Test
+  public void failBatchOnceTest() throws Exception {
+    KafkaLogEventDao dao = createDao(KafkaValueFormat.JSON, false);
+    CountingCallback callback = new CountingCallback();
+    dao.save(generateEvents(3), eventConverter, headerConverter, callback);
+
+    Assert.assertTrue(producer.completeNext());
+    Assert.assertTrue(producer.errorNext(new RuntimeException("test")));
+    Assert.assertTrue(producer.errorNext(new RuntimeException("test")));
+    Assert.assertEquals(0, callback.getSuccessCount());
+    Assert.assertEquals(1, callback.getFailureCount());
+  }
+
+  private KafkaLogEventDao createDao(KafkaValueFormat valueFormat, boolean autoComplete) {
+    KafkaConfig configuration = new KafkaConfig();
+    configuration.setTopic(TOPIC_NAME);
+    configuration.setPartitionCount(1);
+    configuration.setUseDefaultPartitioner(true);
+    configuration.setKafkaKeyType(KafkaKeyType.ENDPOINTHASHKEY);
+    configuration.setValueFormat(valueFormat);
+    producer = new MockProducer(autoComplete);
+    return new KafkaLogEventDao(configuration, producer);
+  }
+
+  private List<KafkaLogEventDto> generateEvents(int count) throws Exception {
+    AvroByteArrayConverter<LogData> logDataConverter = new AvroByteArrayConverter<>(LogData.class);
+    List<KafkaLogEventDto> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] data = logDataConverter.toByteArray(new LogData(Level.INFO, "message" + i));
+      events.add(new KafkaLogEventDto(header, eventConverter.decodeBinary(data)));
+    }
+    return events;
+  }
+
+  private static final class CountingCallback implements Callback {
+
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    @Override
+    public void onCompletion(RecordMetadata metadata, Exception exception) {
+      if (exception == null) {
+        successCount.incrementAndGet();
+      } else {
+        failureCount.incrementAndGet();
+      }
+    }
+
+    int getSuccessCount() {
+      return successCount.get();
+    }
+
+    int getFailureCount() {
+      return failureCount.get();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.oraclenosql.appender;
+
+import oracle.kv.FaultException;
+import oracle.kv.KVStore;
+import oracle.kv.Operation;
+
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the operations of log batches against a KVStore off the calling thread.
+ *
+ * <p>Each batch is executed as a single multi-operation request, and at most
+ * <code>maxInFlightBatches</code> requests run at the same time. Batches beyond the limit
+ * wait in the queue, so a slow store delays the delivery callbacks instead of blocking the
+ * appender callers. The callback of a batch is completed once the store has committed all
+ * of its operations.
+ */
+class KvStoreBatchWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KvStoreBatchWriter.class);
+
+  private static final long CLOSE_TIMEOUT = 5000;
+
+  private final KVStore kvStore;
+  private final ExecutorService executor;
+
+  /**
+   * Create new instance of <code>KvStoreBatchWriter</code>.
+   *
+   * @param kvStore            the store to write to
+   * @param maxInFlightBatches the maximum number of batches executed concurrently
+   */
+  KvStoreBatchWriter(KVStore kvStore, int maxInFlightBatches) {
+    this.kvStore = kvStore;
+    this.executor = Executors.newFixedThreadPool(maxInFlightBatches);
+  }
+
+  /**
+   * Schedules the operations of a log batch.
+   *
+   * @param operations the operations of the batch
+   * @param callback   the delivery callback of the batch
+   */
+  void write(final List<Operation> operations, final LogDeliveryCallback callback) {
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            kvStore.execute(operations);
+            callback.onSuccess();
+          } catch (FaultException ex) {
+            LOG.error("Unable to append logs due to remote exception!", ex);
+            callback.onRemoteError();
+          } catch (Exception ex) {
+            LOG.error("Unable to append logs!", ex);
+            callback.onInternalError();
+          }
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      LOG.info("Attempted to write logs to closed kvStore writer.");
+      callback.onInternalError();
+    }
+  }
+
+  /**
+   * Waits for the scheduled batches to complete and stops the writer.
+   */
+  void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        LOG.warn("Log batches were not written to kvStore in {} ms", CLOSE_TIMEOUT);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException ex) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
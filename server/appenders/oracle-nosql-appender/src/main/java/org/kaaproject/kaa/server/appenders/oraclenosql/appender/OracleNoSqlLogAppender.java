@@ -67,9 +67,12 @@ public class OracleNoSqlLogAppender extends AbstractLogAppender<OracleNoSqlConfi
 
   private static final Logger LOG = LoggerFactory.getLogger(OracleNoSqlLogAppender.class);
 
+  private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
   private boolean closed = false;
 
   private KVStore kvStore;
+  private KvStoreBatchWriter batchWriter;
   private String username;
   private GenericAvroBinding binding;
   private GenericRecord wrapperRecord;
@@ -94,8 +97,7 @@ public class OracleNoSqlLogAppender extends AbstractLogAppender<OracleNoSqlConfi
       if (kvStore != null) {
         LOG.debug("[{}] appending {} logs to Oracle NoSQL kvStore", this.getApplicationToken(), logEventPack.getEvents().size());
         try {
-          doAppendGenericAvro(logEventPack, header);
-          listener.onSuccess();
+          batchWriter.write(createOperations(logEventPack, header), listener);
         } catch (FaultException ex) {
           LOG.error("Unable to append logs due to remote exception!", ex);
           listener.onRemoteError();
@@ -117,12 +119,15 @@ public class OracleNoSqlLogAppender extends AbstractLogAppender<OracleNoSqlConfi
   protected void initFromConfiguration(LogAppenderDto appender, OracleNoSqlConfig configuration) {
     try {
       kvStore = initKvStore(configuration);
+      Integer maxInFlightBatches = configuration.getMaxInFlightBatches();
+      batchWriter = new KvStoreBatchWriter(kvStore, maxInFlightBatches != null && maxInFlightBatches > 0
+          ? maxInFlightBatches : DEFAULT_MAX_IN_FLIGHT_BATCHES);
     } catch (Exception ex) {
       LOG.error("Failed to init kvStore: ", ex);
     }
   }
 
-  private void doAppendGenericAvro(LogEventPack logEventPack, RecordHeader header) throws Exception {
+  private List<Operation> createOperations(LogEventPack logEventPack, RecordHeader header) throws Exception {
     if (binding == null) {
       initialize(logEventPack);
     }
@@ -130,7 +135,7 @@ public class OracleNoSqlLogAppender extends AbstractLogAppender<OracleNoSqlConfi
     GenericRecord recordData = null;
 
     OperationFactory of = kvStore.getOperationFactory();
-    ArrayList<Operation> opList = new ArrayList<Operation>();
+    List<Operation> opList = new ArrayList<Operation>(logEventPack.getEvents().size());
 
     List<String> majorPath = Arrays.asList(getApplicationToken(), logEventPack.getLogSchema().getVersion() + "",
         logEventPack.getEndpointKey(), System.currentTimeMillis() + "");
@@ -153,7 +158,7 @@ public class OracleNoSqlLogAppender extends AbstractLogAppender<OracleNoSqlConfi
       opList.add(of.createPut(key, binding.toValue(wrapperRecord)));
     }
 
-    kvStore.execute(opList);
+    return opList;
   }
 
   private void initialize(LogEventPack logEventPack) throws Exception {
@@ -215,6 +220,10 @@ public class OracleNoSqlLogAppender extends AbstractLogAppender<OracleNoSqlConfi
   public void close() {
     if (!closed) {
       closed = true;
+      if (batchWriter != null) {
+        batchWriter.close();
+        batchWriter = null;
+      }
       if (kvStore != null) {
         kvStore.close();
         kvStore = null;
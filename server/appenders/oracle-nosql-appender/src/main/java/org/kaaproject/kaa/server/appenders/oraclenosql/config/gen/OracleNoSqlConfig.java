@@ -8,7 +8,7 @@ package org.kaaproject.kaa.server.appenders.oraclenosql.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"OracleNoSqlConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.oraclenosql.config.gen\",\"fields\":[{\"name\":\"storeName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"KVStore name\",\"by_default\":\"kvstore\"},{\"name\":\"kvStoreNodes\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"KvStoreNode\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":5000}]}},\"displayName\":\"KVStore nodes\",\"minRowCount\":1},{\"name\":\"username\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Username\"},{\"name\":\"walletDir\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Oracle Wallet directory\"},{\"name\":\"pwdFile\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Password store file\"},{\"name\":\"securityFile\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Security properties file\"},{\"name\":\"transport\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"KVStore communication transport\"},{\"name\":\"ssl\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Security transport\"},{\"name\":\"sslCipherSuites\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"SSL/TLS cipher suites\"},{\"name\":\"sslProtocols\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"SSL/TLS procotols\"},{\"name\":\"sslHostnameVerifier\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"SSL/TLS hostname verifier\"},{\"name\":\"sslTrustStore\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Java truststore file location\"},{\"name\":\"sslTrustStoreType\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Java truststore type\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"OracleNoSqlConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.oraclenosql.config.gen\",\"fields\":[{\"name\":\"storeName\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"KVStore name\",\"by_default\":\"kvstore\"},{\"name\":\"kvStoreNodes\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"KvStoreNode\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":5000}]}},\"displayName\":\"KVStore nodes\",\"minRowCount\":1},{\"name\":\"username\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Username\"},{\"name\":\"walletDir\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Oracle Wallet directory\"},{\"name\":\"pwdFile\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Password store file\"},{\"name\":\"securityFile\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Security properties file\"},{\"name\":\"transport\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"KVStore communication transport\"},{\"name\":\"ssl\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Security transport\"},{\"name\":\"sslCipherSuites\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"SSL/TLS cipher suites\"},{\"name\":\"sslProtocols\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"SSL/TLS procotols\"},{\"name\":\"sslHostnameVerifier\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"SSL/TLS hostname verifier\"},{\"name\":\"sslTrustStore\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Java truststore file location\"},{\"name\":\"sslTrustStoreType\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Java truststore type\"},{\"name\":\"maxInFlightBatches\",\"type\":[\"int\",\"null\"],\"displayName\":\"Max log batches written concurrently\",\"by_default\":4}]}");
   private java.lang.String storeName;
   private java.util.List<org.kaaproject.kaa.server.appenders.oraclenosql.config.gen.KvStoreNode> kvStoreNodes;
   private java.lang.String username;
@@ -22,6 +22,7 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
   private java.lang.String sslHostnameVerifier;
   private java.lang.String sslTrustStore;
   private java.lang.String sslTrustStoreType;
+  private java.lang.Integer maxInFlightBatches;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -108,6 +109,8 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
         return sslTrustStore;
       case 12:
         return sslTrustStoreType;
+      case 13:
+        return maxInFlightBatches;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -156,6 +159,9 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
       case 12:
         sslTrustStoreType = (java.lang.String) value$;
         break;
+      case 13:
+        maxInFlightBatches = (java.lang.Integer) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -369,6 +375,22 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
     this.sslTrustStoreType = value;
   }
 
+  /**
+   * Gets the value of the 'maxInFlightBatches' field.
+   */
+  public java.lang.Integer getMaxInFlightBatches() {
+    return maxInFlightBatches;
+  }
+
+  /**
+   * Sets the value of the 'maxInFlightBatches' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMaxInFlightBatches(java.lang.Integer value) {
+    this.maxInFlightBatches = value;
+  }
+
   /**
    * RecordBuilder for OracleNoSqlConfig instances.
    */
@@ -388,6 +410,7 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
     private java.lang.String sslHostnameVerifier;
     private java.lang.String sslTrustStore;
     private java.lang.String sslTrustStoreType;
+    private java.lang.Integer maxInFlightBatches;
 
     /**
      * Creates a new Builder
@@ -453,6 +476,10 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
         this.sslTrustStoreType = data().deepCopy(fields()[12].schema(), other.sslTrustStoreType);
         fieldSetFlags()[12] = true;
       }
+      if (isValidValue(fields()[13], other.maxInFlightBatches)) {
+        this.maxInFlightBatches = data().deepCopy(fields()[13].schema(), other.maxInFlightBatches);
+        fieldSetFlags()[13] = true;
+      }
     }
 
     /**
@@ -512,6 +539,10 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
         this.sslTrustStoreType = data().deepCopy(fields()[12].schema(), other.sslTrustStoreType);
         fieldSetFlags()[12] = true;
       }
+      if (isValidValue(fields()[13], other.maxInFlightBatches)) {
+        this.maxInFlightBatches = data().deepCopy(fields()[13].schema(), other.maxInFlightBatches);
+        fieldSetFlags()[13] = true;
+      }
     }
 
     /**
@@ -943,6 +974,39 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
       return this;
     }
 
+    /**
+     * Gets the value of the 'maxInFlightBatches' field
+     */
+    public java.lang.Integer getMaxInFlightBatches() {
+      return maxInFlightBatches;
+    }
+
+    /**
+     * Sets the value of the 'maxInFlightBatches' field
+     */
+    public org.kaaproject.kaa.server.appenders.oraclenosql.config.gen.OracleNoSqlConfig.Builder setMaxInFlightBatches(java.lang.Integer value) {
+      validate(fields()[13], value);
+      this.maxInFlightBatches = value;
+      fieldSetFlags()[13] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'maxInFlightBatches' field has been set
+     */
+    public boolean hasMaxInFlightBatches() {
+      return fieldSetFlags()[13];
+    }
+
+    /**
+     * Clears the value of the 'maxInFlightBatches' field
+     */
+    public org.kaaproject.kaa.server.appenders.oraclenosql.config.gen.OracleNoSqlConfig.Builder clearMaxInFlightBatches() {
+      maxInFlightBatches = null;
+      fieldSetFlags()[13] = false;
+      return this;
+    }
+
     @Override
     public OracleNoSqlConfig build() {
       try {
@@ -960,6 +1024,7 @@ public class OracleNoSqlConfig extends org.apache.avro.specific.SpecificRecordBa
         record.sslHostnameVerifier = fieldSetFlags()[10] ? this.sslHostnameVerifier : (java.lang.String) defaultValue(fields()[10]);
         record.sslTrustStore = fieldSetFlags()[11] ? this.sslTrustStore : (java.lang.String) defaultValue(fields()[11]);
         record.sslTrustStoreType = fieldSetFlags()[12] ? this.sslTrustStoreType : (java.lang.String) defaultValue(fields()[12]);
+        record.maxInFlightBatches = fieldSetFlags()[13] ? this.maxInFlightBatches : (java.lang.Integer) defaultValue(fields()[13]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.oraclenosql.appender;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import oracle.kv.FaultException;
+import oracle.kv.KVStore;
+import oracle.kv.Operation;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class KvStoreBatchWriterTest {
+
+  private final List<Operation> stored = new CopyOnWriteArrayList<>();
+  private final CountDownLatch storeAvailable = new CountDownLatch(1);
+
+  private KVStore kvStore;
+
+  /**
+   * Backs the store with an in-memory list that accepts writes once the store is available.
+   */
+  @Before
+  @SuppressWarnings("unchecked")
+  public void before() throws Exception {
+    kvStore = mock(KVStore.class);
+    when(kvStore.execute(anyListOf(Operation.class))).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        Assert.assertTrue(storeAvailable.await(10, TimeUnit.SECONDS));
+        stored.addAll((List<Operation>) invocation.getArguments()[0]);
+        return null;
+      }
+    });
+  }
+
+  @Test
+  public void delayCallbacksUntilBatchesAreStoredTest() throws Exception {
+    KvStoreBatchWriter writer = new KvStoreBatchWriter(kvStore, 2);
+    List<TestCallback> callbacks = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      TestCallback callback = new TestCallback();
+      callbacks.add(callback);
+      writer.write(operations(3), callback);
+    }
+    for (TestCallback callback : callbacks) {
+      Assert.assertEquals(1, callback.completed.getCount());
+    }
+    Assert.assertTrue(stored.isEmpty());
+
+    storeAvailable.countDown();
+    for (TestCallback callback : callbacks) {
+      Assert.assertTrue(callback.completed.await(10, TimeUnit.SECONDS));
+      Assert.assertTrue(callback.success);
+    }
+    Assert.assertEquals(15, stored.size());
+    writer.close();
+  }
+
+  @Test
+  public void reportRemoteErrorTest() throws Exception {
+    doThrow(mock(FaultException.class)).when(kvStore).execute(anyListOf(Operation.class));
+    KvStoreBatchWriter writer = new KvStoreBatchWriter(kvStore, 1);
+    TestCallback callback = new TestCallback();
+    writer.write(operations(2), callback);
+    Assert.assertTrue(callback.completed.await(10, TimeUnit.SECONDS));
+    Assert.assertTrue(callback.remoteError);
+    Assert.assertFalse(callback.success);
+    writer.close();
+  }
+
+  @Test
+  public void writeAfterCloseTest() throws Exception {
+    storeAvailable.countDown();
+    KvStoreBatchWriter writer = new KvStoreBatchWriter(kvStore, 1);
+    writer.close();
+    TestCallback callback = new TestCallback();
+    writer.write(operations(1), callback);
+    Assert.assertTrue(callback.internalError);
+  }
+
+  private static List<Operation> operations(int count) {
+    List<Operation> operations = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      operations.add(mock(Operation.class));
+    }
+    return operations;
+  }
+
+  private static class TestCallback implements LogDeliveryCallback {
+
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile boolean success;
+    private volatile boolean internalError;
+    private volatile boolean remoteError;
+
+    @Override
+    public void onSuccess() {
+      success = true;
+      completed.countDown();
+    }
+
+    @Override
+    public void onInternalError() {
+      internalError = true;
+      completed.countDown();
+    }
+
+    @Override
+    public void onConnectionError() {
+      completed.countDown();
+    }
+
+    @Override
+    public void onRemoteError() {
+      remoteError = true;
+      completed.countDown();
+    }
+  }
+}
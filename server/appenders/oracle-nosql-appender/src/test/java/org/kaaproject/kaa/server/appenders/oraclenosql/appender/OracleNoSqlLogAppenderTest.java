@@ -64,6 +64,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class OracleNoSqlLogAppenderTest {
 
@@ -252,7 +254,7 @@ public class OracleNoSqlLogAppenderTest {
     GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<GenericRecord>(schema.getSchema()) {
 
       @Override
-      public GenericRecord decodeBinary(byte[] bytes) {
+      public GenericRecord decodeBinary(byte[] bytes, GenericRecord reuse) {
         return null;
       }
 
@@ -268,6 +270,7 @@ public class OracleNoSqlLogAppenderTest {
     Assert.assertEquals(0, getKeyValuesCount());
     TestLogDeliveryCallback callback = new TestLogDeliveryCallback();
     logAppender.doAppend(logEventPack, callback);
+    Assert.assertTrue(callback.await());
     Assert.assertTrue(callback.success);
     Assert.assertEquals(3, getKeyValuesCount());
   }
@@ -292,25 +295,34 @@ public class OracleNoSqlLogAppenderTest {
     private volatile boolean internallError;
     private volatile boolean connectionError;
     private volatile boolean remoteError;
+    private final CountDownLatch completed = new CountDownLatch(1);
 
     @Override
     public void onSuccess() {
       success = true;
+      completed.countDown();
     }
 
     @Override
     public void onInternalError() {
       internallError = true;
+      completed.countDown();
     }
 
     @Override
     public void onConnectionError() {
       connectionError = true;
+      completed.countDown();
     }
 
     @Override
     public void onRemoteError() {
       remoteError = true;
+      completed.countDown();
+    }
+
+    boolean await() throws InterruptedException {
+      return completed.await(10, TimeUnit.SECONDS);
     }
 
   }
@@ -194,6 +194,29 @@ public class AdminClient {
     return entity.getBody();
   }
 
+  /**
+   * Streams all endpoint profile bodies of the endpoint group to the given output stream.
+   *
+   * @param endpointGroupId the endpoint group id
+   * @param format          the export format, either "json" or "avro"
+   * @param out             the stream the export is copied to, it is not closed
+   */
+  public void exportEndpointProfileBodyByEndpointGroupId(String endpointGroupId, String format,
+                                                         final OutputStream out) {
+    restTemplate.execute(restTemplate.getUrl()
+        + "endpointProfileBodyByGroupId/export?endpointGroupId=" + endpointGroupId
+        + "&format=" + format,
+        HttpMethod.GET, null, new ResponseExtractor<Object>() {
+          @Override
+          public Object extractData(ClientHttpResponse response) throws IOException {
+            InputStream is = response.getBody();
+            IOUtils.copyLarge(is, out);
+            IOUtils.closeQuietly(is);
+            return null;
+          }
+        });
+  }
+
 
   /**
    * Gets the endpoint profile by endpoint key hash.
@@ -561,6 +584,52 @@ public class AdminClient {
         params, EndpointNotificationDto.class);
   }
 
+  /**
+   * Send unicast notification with the same body to each of the clients identified
+   * by endpointKeyHashes.
+   *
+   * @param notification        the notification
+   * @param clientKeyHashes     the client key hashes
+   * @param notificationMessage the body of notification
+   * @return the number of endpoints the notification is sent to
+   */
+  public Integer sendUnicastNotifications(NotificationDto notification,
+                                          List<String> clientKeyHashes,
+                                          String notificationMessage)
+      throws Exception {
+    StringBuilder keyHashes = new StringBuilder();
+    for (String clientKeyHash : clientKeyHashes) {
+      keyHashes.append(clientKeyHash).append('\n');
+    }
+    MultiValueMap<String, Object> params = new LinkedMultiValueMap<>();
+    params.add("notification", notification);
+    params.add("endpointKeyHashes", getStringResource("endpointKeyHashes",
+        keyHashes.toString()));
+    params.add("file", getStringResource("notification", notificationMessage));
+    return restTemplate.postForObject(restTemplate.getUrl() + "sendUnicastNotifications",
+        params, Integer.class);
+  }
+
+  /**
+   * Send unicast notification with the same body to each of the clients in endpoint group.
+   *
+   * @param notification        the notification
+   * @param endpointGroupId     the endpoint group id
+   * @param notificationMessage the body of notification
+   * @return the number of endpoints the notification is sent to
+   */
+  public Integer sendUnicastNotificationsToEndpointGroup(NotificationDto notification,
+                                                         String endpointGroupId,
+                                                         String notificationMessage)
+      throws Exception {
+    MultiValueMap<String, Object> params = new LinkedMultiValueMap<>();
+    params.add("notification", notification);
+    params.add("endpointGroupId", endpointGroupId);
+    params.add("file", getStringResource("notification", notificationMessage));
+    return restTemplate.postForObject(restTemplate.getUrl()
+        + "sendUnicastNotificationsToEndpointGroup", params, Integer.class);
+  }
+
   public ConfigurationSchemaDto getConfigurationSchema(String configurationSchemaId)
       throws Exception {
     return restTemplate.getForObject(restTemplate.getUrl() + "configurationSchema/"
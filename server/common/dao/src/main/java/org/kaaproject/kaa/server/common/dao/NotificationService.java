@@ -17,12 +17,14 @@
 package org.kaaproject.kaa.server.common.dao;
 
 import org.kaaproject.kaa.common.dto.EndpointNotificationDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
 import org.kaaproject.kaa.common.dto.NotificationDto;
 import org.kaaproject.kaa.common.dto.NotificationSchemaDto;
 import org.kaaproject.kaa.common.dto.NotificationTypeDto;
 import org.kaaproject.kaa.common.dto.UpdateNotificationDto;
 import org.kaaproject.kaa.common.dto.VersionDto;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -71,6 +73,28 @@ public interface NotificationService {
   UpdateNotificationDto<EndpointNotificationDto> saveUnicastNotification(
       EndpointNotificationDto dto);
 
+  /**
+   * Save unicast notification with the same body for each of the given endpoints.
+   * Endpoints that are not found or not subscribed to the notification topic are skipped.
+   *
+   * @param dto               the notification
+   * @param endpointKeyHashes the endpoint key hashes
+   * @return the saved endpoint notifications
+   */
+  List<EndpointNotificationDto> saveUnicastNotifications(
+      NotificationDto dto, Collection<byte[]> endpointKeyHashes);
+
+  /**
+   * Save unicast notification with the same body for each of the given endpoint profiles.
+   * Endpoints that are not subscribed to the notification topic are skipped.
+   *
+   * @param dto              the notification
+   * @param endpointProfiles the endpoint profiles
+   * @return the saved endpoint notifications
+   */
+  List<EndpointNotificationDto> saveUnicastNotificationsForProfiles(
+      NotificationDto dto, Collection<EndpointProfileDto> endpointProfiles);
+
   /**
    * Find notifications by topic id.
    *
@@ -36,6 +36,14 @@ public interface EndpointNotificationDao<T extends EndpointNotification> extends
    */
   T save(EndpointNotificationDto dto);
 
+  /**
+   * Save notification objects in bulk.
+   *
+   * @param dtos the notification objects
+   * @return saved notification objects
+   */
+  List<T> saveAll(List<EndpointNotificationDto> dtos);
+
   /**
    * Find notifications by key hash.
    *
@@ -24,6 +24,7 @@ import org.kaaproject.kaa.common.dto.PageLinkDto;
 import org.kaaproject.kaa.server.common.dao.model.EndpointProfile;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -49,6 +50,14 @@ public interface EndpointProfileDao<T extends EndpointProfile> extends Dao<T, By
    */
   T findByKeyHash(byte[] endpointKeyHash);
 
+  /**
+   * Find endpoint profiles by key hashes. Key hashes without a profile are skipped.
+   *
+   * @param endpointKeyHashes the endpoint key hashes
+   * @return the list of endpoint profiles
+   */
+  List<T> findByKeyHashes(Collection<byte[]> endpointKeyHashes);
+
   /**
    * Find endpoint profile by endpoint group id.
    *
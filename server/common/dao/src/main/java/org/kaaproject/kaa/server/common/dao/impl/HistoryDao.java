@@ -61,4 +61,11 @@ public interface HistoryDao<T> extends SqlDao<T> {
    */
   List<T> findBySeqNumberRange(String appId, int startSeqNum, int endSeqNum);
 
+  /**
+   * Remove history by application id.
+   *
+   * @param applicationId the application id
+   */
+  void removeByApplicationId(String applicationId);
+
 }
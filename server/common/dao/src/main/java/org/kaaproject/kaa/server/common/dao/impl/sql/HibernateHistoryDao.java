@@ -22,23 +22,50 @@ import static org.kaaproject.kaa.server.common.dao.DaoConstants.APPLICATION_PROP
 import static org.kaaproject.kaa.server.common.dao.DaoConstants.APPLICATION_REFERENCE;
 import static org.kaaproject.kaa.server.common.dao.DaoConstants.SEQUENCE_NUMBER_PROPERTY;
 
+import org.hibernate.Query;
 import org.hibernate.criterion.Restrictions;
+import org.kaaproject.kaa.common.dto.ChangeType;
 import org.kaaproject.kaa.server.common.dao.impl.HistoryDao;
 import org.kaaproject.kaa.server.common.dao.model.sql.History;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * The history entries returned by {@link #findBySeqNumberStart(String, int)} and
+ * {@link #findBySeqNumberRange(String, int, int)} are served from a {@link HistoryRangeIndex}.
+ * Only the sequence numbers that are not cached are read from the database, and the query
+ * selects just the columns of the history and its change. The returned entries are detached,
+ * and their application only has the id set.
+ */
 @Repository
 public class HibernateHistoryDao extends HibernateAbstractDao<History>
     implements HistoryDao<History> {
 
   private static final Logger LOG = LoggerFactory.getLogger(HibernateHistoryDao.class);
 
+  /**
+   * The maximum number of missing ranges read by a single query. More fragmented ranges are
+   * read as one range from the first missing to the last missing sequence number.
+   */
+  private static final int MAX_MISSING_RANGES = 32;
+
+  private static final String FIND_ENTRIES_HQL =
+      "select h.id, h.sequenceNumber, h.lastModifyTime, c.id, c.type, c.configurationVersion,"
+          + " c.groupId, c.topicId, c.configurationId, c.profileFilterId"
+          + " from History h join h.change c where h.application.id = :appId and (";
+
+  private final HistoryRangeIndex index = new HistoryRangeIndex();
+
   @Override
   public List<History> findByAppId(String appId) {
     List<History> histories = Collections.emptyList();
@@ -79,10 +106,7 @@ public class HibernateHistoryDao extends HibernateAbstractDao<History>
     LOG.debug("Searching history by application id [{}] start sequence number [{}]",
         appId, startSeqNum);
     if (isNotBlank(appId)) {
-      histories = findListByCriterionWithAlias(APPLICATION_PROPERTY, APPLICATION_ALIAS,
-          Restrictions.and(
-              Restrictions.eq(APPLICATION_REFERENCE, Long.valueOf(appId)),
-              Restrictions.gt(SEQUENCE_NUMBER_PROPERTY, startSeqNum)));
+      histories = findCachedRange(Long.valueOf(appId), startSeqNum, Integer.MAX_VALUE);
     }
 
     if (LOG.isTraceEnabled()) {
@@ -101,11 +125,7 @@ public class HibernateHistoryDao extends HibernateAbstractDao<History>
     LOG.debug("Searching history by application id {} start sequence number {} and end {}",
         appId, startSeqNum, endSeqNum);
     if (isNotBlank(appId)) {
-      histories = findListByCriterionWithAlias(APPLICATION_PROPERTY, APPLICATION_ALIAS,
-          Restrictions.and(
-              Restrictions.eq(APPLICATION_REFERENCE, Long.valueOf(appId)),
-              Restrictions.gt(SEQUENCE_NUMBER_PROPERTY, startSeqNum),
-              Restrictions.le(SEQUENCE_NUMBER_PROPERTY, endSeqNum)));
+      histories = findCachedRange(Long.valueOf(appId), startSeqNum, endSeqNum);
     }
 
     if (LOG.isTraceEnabled()) {
@@ -118,6 +138,119 @@ public class HibernateHistoryDao extends HibernateAbstractDao<History>
     return histories;
   }
 
+  @Override
+  public void removeByApplicationId(String applicationId) {
+    if (isNotBlank(applicationId)) {
+      long appId = Long.valueOf(applicationId);
+      removeList(findListByCriterionWithAlias(APPLICATION_PROPERTY, APPLICATION_ALIAS,
+          Restrictions.eq(APPLICATION_REFERENCE, appId)));
+      index.remove(appId);
+      evictOnCommit(appId);
+    }
+    LOG.debug("Removed history by application id [{}] ", applicationId);
+  }
+
+  @Override
+  public void removeAll() {
+    super.removeAll();
+    index.clear();
+  }
+
+  @Override
+  public void removeById(String id) {
+    super.removeById(id);
+    index.clear();
+  }
+
+  private List<History> findCachedRange(long appId, int startSeqNum, int endSeqNum) {
+    Map<Integer, HistoryRangeIndex.Entry> entries = new TreeMap<>();
+    for (HistoryRangeIndex.Entry entry : index.find(appId, startSeqNum, endSeqNum)) {
+      entries.put(entry.getSequenceNumber(), entry);
+    }
+    List<int[]> missing = index.findMissingRanges(appId, startSeqNum, endSeqNum);
+    if (!missing.isEmpty()) {
+      List<HistoryRangeIndex.Entry> loaded = findEntries(appId, missing);
+      LOG.trace("[{}] Loaded {} history entries for {} missing ranges",
+          appId, loaded.size(), missing.size());
+      for (HistoryRangeIndex.Entry entry : loaded) {
+        entries.put(entry.getSequenceNumber(), entry);
+      }
+      cacheOnCommit(appId, loaded);
+    }
+    List<History> histories = new ArrayList<>(entries.size());
+    for (HistoryRangeIndex.Entry entry : entries.values()) {
+      histories.add(entry.toHistory(appId));
+    }
+    return histories;
+  }
+
+  private List<HistoryRangeIndex.Entry> findEntries(long appId, List<int[]> ranges) {
+    if (ranges.size() > MAX_MISSING_RANGES) {
+      ranges = Collections.singletonList(
+          new int[]{ranges.get(0)[0], ranges.get(ranges.size() - 1)[1]});
+    }
+    StringBuilder hql = new StringBuilder(FIND_ENTRIES_HQL);
+    for (int i = 0; i < ranges.size(); i++) {
+      if (i > 0) {
+        hql.append(" or ");
+      }
+      hql.append("(h.sequenceNumber > :start").append(i)
+          .append(" and h.sequenceNumber <= :end").append(i).append(')');
+    }
+    hql.append(')');
+    Query query = getQuery(hql.toString()).setLong("appId", appId);
+    for (int i = 0; i < ranges.size(); i++) {
+      query.setInteger("start" + i, ranges.get(i)[0]);
+      query.setInteger("end" + i, ranges.get(i)[1]);
+    }
+    List<?> rows = query.list();
+    List<HistoryRangeIndex.Entry> entries = new ArrayList<>(rows.size());
+    for (Object row : rows) {
+      Object[] columns = (Object[]) row;
+      entries.add(new HistoryRangeIndex.Entry((Long) columns[0], (Integer) columns[1],
+          (Long) columns[2], (Long) columns[3], (ChangeType) columns[4], (Integer) columns[5],
+          (Long) columns[6], (Long) columns[7], (Long) columns[8], (Long) columns[9]));
+    }
+    return entries;
+  }
+
+  /**
+   * Adds the entries to the index once the current transaction commits, so that entries
+   * written by a transaction that is rolled back later are never cached.
+   */
+  private void cacheOnCommit(final long appId, final List<HistoryRangeIndex.Entry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              index.putAll(appId, entries);
+            }
+          });
+    } else {
+      index.putAll(appId, entries);
+    }
+  }
+
+  /**
+   * Evicts the application once more after the current transaction commits, in case a
+   * concurrent read has cached its entries again in the meantime.
+   */
+  private void evictOnCommit(final long appId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              index.remove(appId);
+            }
+          });
+    }
+  }
+
   @Override
   protected Class<History> getEntityClass() {
     return History.class;
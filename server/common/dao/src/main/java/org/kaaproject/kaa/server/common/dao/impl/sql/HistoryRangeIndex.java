@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.common.dao.impl.sql;
+
+import org.kaaproject.kaa.common.dto.ChangeType;
+import org.kaaproject.kaa.server.common.dao.model.sql.Application;
+import org.kaaproject.kaa.server.common.dao.model.sql.Change;
+import org.kaaproject.kaa.server.common.dao.model.sql.History;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the history entries of applications ordered by sequence number.
+ *
+ * <p>History entries never change once they are committed, so an entry cached for an
+ * application and a sequence number stays valid until the application is removed. The index
+ * stores only the columns needed to rebuild the history and its change, and reports the
+ * sequence number ranges that are not cached yet, so that only those are read from the
+ * database.
+ *
+ * <p>The index is bounded. It keeps the most recently used applications only, and for each
+ * application only the entries with the highest sequence numbers, which are the ones requested
+ * by endpoints that are nearly up to date. Evicted entries are read from the database again
+ * when they are requested.
+ */
+final class HistoryRangeIndex {
+
+  static final int DEFAULT_MAX_APPLICATIONS = 1024;
+
+  static final int DEFAULT_MAX_ENTRIES_PER_APPLICATION = 8192;
+
+  private final Map<Long, ConcurrentNavigableMap<Integer, Entry>> applications;
+
+  private final int maxEntriesPerApplication;
+
+  HistoryRangeIndex() {
+    this(DEFAULT_MAX_APPLICATIONS, DEFAULT_MAX_ENTRIES_PER_APPLICATION);
+  }
+
+  /**
+   * Instantiates a new index.
+   *
+   * @param maxApplications          the max number of applications, the least recently used
+   *                                 application is evicted once it is exceeded
+   * @param maxEntriesPerApplication the max number of entries per application, the entries
+   *                                 with the lowest sequence numbers are evicted once it is
+   *                                 exceeded
+   */
+  HistoryRangeIndex(final int maxApplications, int maxEntriesPerApplication) {
+    this.maxEntriesPerApplication = maxEntriesPerApplication;
+    this.applications = Collections.synchronizedMap(
+        new LinkedHashMap<Long, ConcurrentNavigableMap<Integer, Entry>>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(
+              Map.Entry<Long, ConcurrentNavigableMap<Integer, Entry>> eldest) {
+            return size() > maxApplications;
+          }
+        });
+  }
+
+  /**
+   * Returns the cached entries with sequence numbers in the range
+   * (<code>startSeqNum</code>, <code>endSeqNum</code>], ordered by sequence number.
+   *
+   * @param appId       the application id
+   * @param startSeqNum the start sequence number, exclusive
+   * @param endSeqNum   the end sequence number, inclusive
+   * @return the cached entries
+   */
+  List<Entry> find(long appId, int startSeqNum, int endSeqNum) {
+    ConcurrentNavigableMap<Integer, Entry> entries = applications.get(appId);
+    if (entries == null || endSeqNum <= startSeqNum) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(entries.subMap(startSeqNum, false, endSeqNum, true).values());
+  }
+
+  /**
+   * Returns the ranges of sequence numbers in (<code>startSeqNum</code>,
+   * <code>endSeqNum</code>] that are not cached. Each range is an array of the exclusive
+   * start and the inclusive end of the range.
+   *
+   * @param appId       the application id
+   * @param startSeqNum the start sequence number, exclusive
+   * @param endSeqNum   the end sequence number, inclusive
+   * @return the missing ranges, ordered by sequence number
+   */
+  List<int[]> findMissingRanges(long appId, int startSeqNum, int endSeqNum) {
+    List<int[]> missing = new ArrayList<>();
+    if (endSeqNum <= startSeqNum) {
+      return missing;
+    }
+    long expected = (long) startSeqNum + 1;
+    ConcurrentNavigableMap<Integer, Entry> entries = applications.get(appId);
+    if (entries != null) {
+      for (Integer seqNum : entries.subMap(startSeqNum, false, endSeqNum, true).keySet()) {
+        if (seqNum > expected) {
+          missing.add(new int[]{(int) (expected - 1), seqNum - 1});
+        }
+        expected = (long) seqNum + 1;
+      }
+    }
+    if (expected <= endSeqNum) {
+      missing.add(new int[]{(int) (expected - 1), endSeqNum});
+    }
+    return missing;
+  }
+
+  /**
+   * Adds the entries of an application to the index.
+   *
+   * @param appId   the application id
+   * @param entries the committed history entries of the application
+   */
+  void putAll(long appId, Collection<Entry> entries) {
+    ConcurrentNavigableMap<Integer, Entry> cached;
+    synchronized (applications) {
+      cached = applications.get(appId);
+      if (cached == null) {
+        cached = new ConcurrentSkipListMap<>();
+        applications.put(appId, cached);
+      }
+    }
+    for (Entry entry : entries) {
+      cached.putIfAbsent(entry.sequenceNumber, entry);
+    }
+    for (int excess = cached.size() - maxEntriesPerApplication; excess > 0; excess--) {
+      cached.pollFirstEntry();
+    }
+  }
+
+  /**
+   * Removes the entries of an application.
+   *
+   * @param appId the application id
+   */
+  void remove(long appId) {
+    applications.remove(appId);
+  }
+
+  /**
+   * Removes the entries of all applications.
+   */
+  void clear() {
+    applications.clear();
+  }
+
+  /**
+   * The columns of a history entry and its change.
+   */
+  static final class Entry {
+
+    private final long id;
+    private final int sequenceNumber;
+    private final long lastModifyTime;
+    private final long changeId;
+    private final ChangeType type;
+    private final int configurationVersion;
+    private final Long groupId;
+    private final Long topicId;
+    private final Long configurationId;
+    private final Long profileFilterId;
+
+    Entry(long id, int sequenceNumber, long lastModifyTime, long changeId, ChangeType type,
+          int configurationVersion, Long groupId, Long topicId, Long configurationId,
+          Long profileFilterId) {
+      this.id = id;
+      this.sequenceNumber = sequenceNumber;
+      this.lastModifyTime = lastModifyTime;
+      this.changeId = changeId;
+      this.type = type;
+      this.configurationVersion = configurationVersion;
+      this.groupId = groupId;
+      this.topicId = topicId;
+      this.configurationId = configurationId;
+      this.profileFilterId = profileFilterId;
+    }
+
+    int getSequenceNumber() {
+      return sequenceNumber;
+    }
+
+    /**
+     * Creates a detached history with the cached columns. The application of the history
+     * only has the id set.
+     *
+     * @param appId the application id
+     * @return the history
+     */
+    History toHistory(long appId) {
+      Change change = new Change(changeId);
+      change.setType(type);
+      change.setConfigurationVersion(configurationVersion);
+      change.setGroupId(groupId);
+      change.setTopicId(topicId);
+      change.setConfigurationId(configurationId);
+      change.setProfileFilterId(profileFilterId);
+      History history = new History(id);
+      history.setSequenceNumber(sequenceNumber);
+      history.setLastModifyTime(lastModifyTime);
+      history.setApplication(new Application(appId));
+      history.setChange(change);
+      return history;
+    }
+  }
+}
@@ -25,6 +25,8 @@ public interface EndpointProfile extends ToDto<EndpointProfileDto>, HasVersion {
 
   byte[] getEndpointKey();
 
+  byte[] getEndpointKeyHashBytes();
+
   String getId();
 
   String getEndpointUserId();
@@ -47,8 +47,10 @@ import org.kaaproject.kaa.server.common.dao.ServerProfileService;
 import org.kaaproject.kaa.server.common.dao.TopicService;
 import org.kaaproject.kaa.server.common.dao.exception.IncorrectParameterException;
 import org.kaaproject.kaa.server.common.dao.impl.ApplicationDao;
+import org.kaaproject.kaa.server.common.dao.impl.HistoryDao;
 import org.kaaproject.kaa.server.common.dao.impl.UserDao;
 import org.kaaproject.kaa.server.common.dao.model.sql.Application;
+import org.kaaproject.kaa.server.common.dao.model.sql.History;
 import org.kaaproject.kaa.server.common.dao.model.sql.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -107,6 +109,9 @@ public class ApplicationServiceImpl implements ApplicationService {
   @Autowired
   private UserDao<User> userDao;
 
+  @Autowired
+  private HistoryDao<History> historyDao;
+
   @Override
   public List<ApplicationDto> findAppsByTenantId(String tenantId) {
     List<ApplicationDto> applicationDto;
@@ -304,6 +309,7 @@ public class ApplicationServiceImpl implements ApplicationService {
   }
 
   private void removeCascadeApplication(String id) {
+    historyDao.removeByApplicationId(id);
     applicationDao.removeById(id);
   }
 
@@ -30,6 +30,7 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.commons.lang.StringUtils;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.common.dto.EndpointNotificationDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
 import org.kaaproject.kaa.common.dto.NotificationDto;
 import org.kaaproject.kaa.common.dto.NotificationSchemaDto;
 import org.kaaproject.kaa.common.dto.NotificationTypeDto;
@@ -56,11 +57,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 @Service
@@ -287,61 +293,140 @@ public class NotificationServiceImpl implements NotificationService {
     validateObject(dto, "Can't save unicast notification. Invalid endpoint notification object.");
     UpdateNotificationDto<EndpointNotificationDto> updateNotificationDto = null;
     NotificationDto notificationDto = dto.getNotificationDto();
+    validateUnicastNotification(notificationDto);
+    String topicId = notificationDto.getTopicId();
+    byte[] endpointKeyHash = dto.getEndpointKeyHash();
+    if (endpointKeyHash != null) {
+      EndpointProfile ep = endpointProfileDao.findByKeyHash(endpointKeyHash);
+      if (ep == null) {
+        throw new DatabaseProcessingException("Can't find endpoint profile by hash "
+                                              + endpointKeyHash);
+      }
+      if (ep.getSubscriptions() == null || !ep.getSubscriptions().contains(topicId)) {
+        //TODO Error code?
+        throw new DatabaseProcessingException("Endpoint profile is not subscribed to this topic");
+      }
+    } else {
+      throw new IncorrectParameterException("Invalid endpointKeyHash: " + endpointKeyHash);
+    }
+    prepareUnicastNotification(notificationDto);
+
+    EndpointNotificationDto unicast = getDto(unicastNotificationDao.save(dto));
+    if (unicast != null && unicast.getNotificationDto() != null) {
+      LOG.trace("Saved unicast notifications {}", unicast);
+      updateNotificationDto = new UpdateNotificationDto<EndpointNotificationDto>();
+      NotificationDto savedDto = unicast.getNotificationDto();
+      updateNotificationDto.setAppId(savedDto.getApplicationId());
+      updateNotificationDto.setTopicId(savedDto.getTopicId());
+      updateNotificationDto.setPayload(unicast);
+    }
+    return updateNotificationDto;
+  }
+
+  @Override
+  public List<EndpointNotificationDto> saveUnicastNotifications(
+          NotificationDto dto, Collection<byte[]> endpointKeyHashes) {
+    validateObject(dto, "Can't save unicast notifications. Invalid notification object.");
+    validateUnicastNotification(dto);
+    Set<ByteBuffer> subscribed = new HashSet<>();
+    for (EndpointProfile ep : endpointProfileDao.findByKeyHashes(endpointKeyHashes)) {
+      if (ep.getSubscriptions() != null && ep.getSubscriptions().contains(dto.getTopicId())) {
+        subscribed.add(ByteBuffer.wrap(ep.getEndpointKeyHashBytes()));
+      }
+    }
+    List<byte[]> subscribers = new ArrayList<>(subscribed.size());
+    for (byte[] endpointKeyHash : endpointKeyHashes) {
+      if (endpointKeyHash != null && subscribed.contains(ByteBuffer.wrap(endpointKeyHash))) {
+        subscribers.add(endpointKeyHash);
+      } else {
+        LOG.debug("Skip unicast notification for endpoint [{}] not subscribed to topic [{}]",
+            endpointKeyHash, dto.getTopicId());
+      }
+    }
+    return saveUnicastNotificationsForSubscribers(dto, subscribers);
+  }
+
+  @Override
+  public List<EndpointNotificationDto> saveUnicastNotificationsForProfiles(
+          NotificationDto dto, Collection<EndpointProfileDto> endpointProfiles) {
+    validateObject(dto, "Can't save unicast notifications. Invalid notification object.");
+    validateUnicastNotification(dto);
+    List<byte[]> subscribers = new ArrayList<>(endpointProfiles.size());
+    for (EndpointProfileDto ep : endpointProfiles) {
+      if (ep.getSubscriptions() != null && ep.getSubscriptions().contains(dto.getTopicId())) {
+        subscribers.add(ep.getEndpointKeyHash());
+      }
+    }
+    return saveUnicastNotificationsForSubscribers(dto, subscribers);
+  }
+
+  private List<EndpointNotificationDto> saveUnicastNotificationsForSubscribers(
+          NotificationDto notificationDto, List<byte[]> endpointKeyHashes) {
+    if (endpointKeyHashes.isEmpty()) {
+      return Collections.emptyList();
+    }
+    notificationDto = copyNotification(notificationDto);
+    prepareUnicastNotification(notificationDto);
+    List<EndpointNotificationDto> unicasts = new ArrayList<>(endpointKeyHashes.size());
+    for (byte[] endpointKeyHash : endpointKeyHashes) {
+      EndpointNotificationDto unicast = new EndpointNotificationDto();
+      unicast.setEndpointKeyHash(endpointKeyHash);
+      unicast.setNotificationDto(notificationDto);
+      unicasts.add(unicast);
+    }
+    List<EndpointNotificationDto> saved = convertDtoList(unicastNotificationDao.saveAll(unicasts));
+    LOG.trace("Saved {} unicast notifications", saved.size());
+    return saved;
+  }
+
+  /**
+   * Bulk callers reuse the same notification for several batches, so the body is
+   * serialized on a copy to keep the original one untouched.
+   */
+  private NotificationDto copyNotification(NotificationDto dto) {
+    NotificationDto copy = new NotificationDto();
+    copy.setApplicationId(dto.getApplicationId());
+    copy.setSchemaId(dto.getSchemaId());
+    copy.setTopicId(dto.getTopicId());
+    copy.setType(dto.getType());
+    copy.setBody(dto.getBody());
+    copy.setExpiredAt(dto.getExpiredAt());
+    return copy;
+  }
+
+  private void validateUnicastNotification(NotificationDto notificationDto) {
     String schemaId = notificationDto.getSchemaId();
     String topicId = notificationDto.getTopicId();
     if (isBlank(schemaId)) {
       throw new IncorrectParameterException("Invalid notification schema id: " + schemaId);
     } else if (isBlank(topicId)) {
       throw new IncorrectParameterException("Invalid notification topic id: " + schemaId);
-    } else {
-      byte[] endpointKeyHash = dto.getEndpointKeyHash();
-      if (endpointKeyHash != null) {
-        EndpointProfile ep = endpointProfileDao.findByKeyHash(endpointKeyHash);
-        if (ep == null) {
-          throw new DatabaseProcessingException("Can't find endpoint profile by hash "
-                                                + endpointKeyHash);
-        }
-        if (ep.getSubscriptions() == null || !ep.getSubscriptions().contains(topicId)) {
-          //TODO Error code?
-          throw new DatabaseProcessingException("Endpoint profile is not subscribed to this topic");
-        }
-      } else {
-        throw new IncorrectParameterException("Invalid endpointKeyHash: " + endpointKeyHash);
-      }
-      notificationDto.setId(null);
-      notificationDto.setTopicId(topicId);
-      notificationDto.setSecNum(-1);
-      NotificationSchema schema = notificationSchemaDao.findById(schemaId);
-      if (schema != null) {
-        notificationDto.setNfVersion(schema.getVersion());
-        notificationDto.setApplicationId(schema.getApplicationId());
-        notificationDto.setType(schema.getType());
-        try {
-          notificationDto.setBody(serializeNotificationBody(notificationDto, schema));
-        } catch (IOException ex) {
-          LOG.error("Can't serialize notification body using schema. ", ex);
-          throw new DatabaseProcessingException("Can't serialize notification body using schema: "
-                                                + schemaId);
-        }
-      } else {
-        throw new DatabaseProcessingException("Can't find notification schema by id " + schemaId);
-      }
-      long currentTime = new GregorianCalendar(TimeZone.getTimeZone("UTC")).getTimeInMillis();
-      Date expiredAt = notificationDto.getExpiredAt();
-      notificationDto.setExpiredAt(expiredAt != null ? expiredAt : new Date(currentTime + ttl));
-      notificationDto.setLastTimeModify(new Date(currentTime));
-
-      EndpointNotificationDto unicast = getDto(unicastNotificationDao.save(dto));
-      if (unicast != null && unicast.getNotificationDto() != null) {
-        LOG.trace("Saved unicast notifications {}", unicast);
-        updateNotificationDto = new UpdateNotificationDto<EndpointNotificationDto>();
-        NotificationDto savedDto = unicast.getNotificationDto();
-        updateNotificationDto.setAppId(savedDto.getApplicationId());
-        updateNotificationDto.setTopicId(savedDto.getTopicId());
-        updateNotificationDto.setPayload(unicast);
+    }
+  }
+
+  private void prepareUnicastNotification(NotificationDto notificationDto) {
+    String schemaId = notificationDto.getSchemaId();
+    notificationDto.setId(null);
+    notificationDto.setSecNum(-1);
+    NotificationSchema schema = notificationSchemaDao.findById(schemaId);
+    if (schema != null) {
+      notificationDto.setNfVersion(schema.getVersion());
+      notificationDto.setApplicationId(schema.getApplicationId());
+      notificationDto.setType(schema.getType());
+      try {
+        notificationDto.setBody(serializeNotificationBody(notificationDto, schema));
+      } catch (IOException ex) {
+        LOG.error("Can't serialize notification body using schema. ", ex);
+        throw new DatabaseProcessingException("Can't serialize notification body using schema: "
+                                              + schemaId);
       }
-      return updateNotificationDto;
+    } else {
+      throw new DatabaseProcessingException("Can't find notification schema by id " + schemaId);
     }
+    long currentTime = new GregorianCalendar(TimeZone.getTimeZone("UTC")).getTimeInMillis();
+    Date expiredAt = notificationDto.getExpiredAt();
+    notificationDto.setExpiredAt(expiredAt != null ? expiredAt : new Date(currentTime + ttl));
+    notificationDto.setLastTimeModify(new Date(currentTime));
   }
 
   @Override
@@ -19,11 +19,18 @@ package org.kaaproject.kaa.server.common.dao.impl.sql;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.kaaproject.kaa.server.common.dao.model.sql.Application;
 import org.kaaproject.kaa.server.common.dao.model.sql.History;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -33,6 +40,9 @@ import java.util.List;
 @Transactional
 public class HibernateHistoryDaoTest extends HibernateAbstractTest {
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   @Test
   public void findByAppIdTest() {
     List<History> histories = generateHistory(null, 3);
@@ -59,7 +69,7 @@ public class HibernateHistoryDaoTest extends HibernateAbstractTest {
     History third = histories.get(2);
     List<History> found = historyDao.findBySeqNumberStart(third.getApplication().getId().toString(), 2);
     Assert.assertEquals(1, found.size());
-    Assert.assertEquals(third, found.get(0));
+    Assert.assertEquals(third.toDto(), found.get(0).toDto());
 
   }
 
@@ -70,6 +80,99 @@ public class HibernateHistoryDaoTest extends HibernateAbstractTest {
     History second = histories.get(1);
     List<History> found = historyDao.findBySeqNumberRange(second.getApplication().getId().toString(), 1, 2);
     Assert.assertEquals(1, found.size());
-    Assert.assertEquals(second, found.get(0));
+    Assert.assertEquals(second.toDto(), found.get(0).toDto());
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void findCachedBySeqNumberRangeTest() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    final List<History> histories = transaction.execute(new TransactionCallback<List<History>>() {
+      @Override
+      public List<History> doInTransaction(TransactionStatus status) {
+        return generateHistory(null, 6);
+      }
+    });
+    final String appId = histories.get(0).getApplication().getId().toString();
+    transaction.execute(new TransactionCallback<Void>() {
+      @Override
+      public Void doInTransaction(TransactionStatus status) {
+        Assert.assertEquals(2, historyDao.findBySeqNumberRange(appId, 0, 2).size());
+        Assert.assertEquals(1, historyDao.findBySeqNumberRange(appId, 3, 4).size());
+        return null;
+      }
+    });
+    transaction.execute(new TransactionCallback<Void>() {
+      @Override
+      public Void doInTransaction(TransactionStatus status) {
+        List<History> found = historyDao.findBySeqNumberRange(appId, 0, 6);
+        Assert.assertEquals(6, found.size());
+        for (int i = 0; i < found.size(); i++) {
+          Assert.assertEquals(histories.get(i).toDto(), found.get(i).toDto());
+        }
+        found = historyDao.findBySeqNumberStart(appId, 3);
+        Assert.assertEquals(3, found.size());
+        Assert.assertEquals(histories.get(3).toDto(), found.get(0).toDto());
+        return null;
+      }
+    });
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void skipRolledBackHistoryTest() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    final Application app = transaction.execute(new TransactionCallback<Application>() {
+      @Override
+      public Application doInTransaction(TransactionStatus status) {
+        return generateApplication(null);
+      }
+    });
+    final String appId = app.getId().toString();
+    transaction.execute(new TransactionCallback<Void>() {
+      @Override
+      public Void doInTransaction(TransactionStatus status) {
+        generateHistory(app, 2);
+        Assert.assertEquals(2, historyDao.findBySeqNumberStart(appId, 0).size());
+        status.setRollbackOnly();
+        return null;
+      }
+    });
+    transaction.execute(new TransactionCallback<Void>() {
+      @Override
+      public Void doInTransaction(TransactionStatus status) {
+        Assert.assertTrue(historyDao.findBySeqNumberStart(appId, 0).isEmpty());
+        return null;
+      }
+    });
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void removeByApplicationIdTest() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    final List<History> histories = transaction.execute(new TransactionCallback<List<History>>() {
+      @Override
+      public List<History> doInTransaction(TransactionStatus status) {
+        return generateHistory(null, 3);
+      }
+    });
+    final String appId = histories.get(0).getApplication().getId().toString();
+    transaction.execute(new TransactionCallback<Void>() {
+      @Override
+      public Void doInTransaction(TransactionStatus status) {
+        Assert.assertEquals(3, historyDao.findBySeqNumberRange(appId, 0, 3).size());
+        historyDao.removeByApplicationId(appId);
+        return null;
+      }
+    });
+    transaction.execute(new TransactionCallback<Void>() {
+      @Override
+      public Void doInTransaction(TransactionStatus status) {
+        Assert.assertTrue(historyDao.findByAppId(appId).isEmpty());
+        Assert.assertTrue(historyDao.findBySeqNumberRange(appId, 0, 3).isEmpty());
+        return null;
+      }
+    });
   }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.common.dao.impl.sql;
+
+import org.kaaproject.kaa.common.dto.ChangeType;
+import org.kaaproject.kaa.server.common.dao.impl.ApplicationDao;
+import org.kaaproject.kaa.server.common.dao.impl.HistoryDao;
+import org.kaaproject.kaa.server.common.dao.impl.TenantDao;
+import org.kaaproject.kaa.server.common.dao.model.sql.Application;
+import org.kaaproject.kaa.server.common.dao.model.sql.Change;
+import org.kaaproject.kaa.server.common.dao.model.sql.History;
+import org.kaaproject.kaa.server.common.dao.model.sql.Tenant;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Compares reading application history as entities with the cached history ranges on the
+ * H2 test database. It is not run as part of the build; start it from the test classpath
+ * with optional arguments: history rows and range queries.
+ */
+public class HistoryRangeBenchmark {
+
+  private static final ChangeType[] CHANGE_TYPES = {ChangeType.ADD_CONF, ChangeType.ADD_PROF,
+      ChangeType.ADD_TOPIC, ChangeType.REMOVE_GROUP};
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args history rows, range queries
+   */
+  @SuppressWarnings("unchecked")
+  public static void main(String[] args) throws Exception {
+    final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    final int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+    GenericXmlApplicationContext context = new GenericXmlApplicationContext();
+    context.getEnvironment().setActiveProfiles("h2");
+    context.load("classpath:common-dao-test-context.xml");
+    context.refresh();
+    try {
+      final HistoryDao<History> historyDao = context.getBean(HistoryDao.class);
+      final ApplicationDao<Application> applicationDao = context.getBean(ApplicationDao.class);
+      final TenantDao<Tenant> tenantDao = context.getBean(TenantDao.class);
+      TransactionTemplate transaction =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+      final String appId = transaction.execute(new TransactionCallback<String>() {
+        @Override
+        public String doInTransaction(TransactionStatus status) {
+          Tenant tenant = new Tenant();
+          tenant.setName("Benchmark tenant");
+          tenant = tenantDao.save(tenant);
+          Application app = new Application();
+          app.setName("Benchmark application");
+          app.setTenant(tenant);
+          app.setApplicationToken(UUID.randomUUID().toString());
+          app.setSequenceNumber(rows);
+          app = applicationDao.save(app);
+          for (int i = 0; i < rows; i++) {
+            Change change = new Change();
+            change.setType(CHANGE_TYPES[i % CHANGE_TYPES.length]);
+            change.setConfigurationVersion(i % 3);
+            change.setConfigurationId((long) i);
+            History history = new History();
+            history.setApplication(app);
+            history.setSequenceNumber(i + 1);
+            history.setLastModifyTime(System.currentTimeMillis());
+            history.setChange(historyDao.save(change, Change.class));
+            historyDao.save(history);
+          }
+          return app.getStringId();
+        }
+      });
+
+      System.out.printf("history rows: %d, range queries: %d%n", rows, queries);
+      run("entities", transaction, queries, rows, new RangeQuery() {
+        @Override
+        public List<History> find(int startSeqNum, int endSeqNum) {
+          List<History> histories = historyDao.findByAppId(appId);
+          for (History history : histories) {
+            if (history.getSequenceNumber() > startSeqNum) {
+              history.toDto();
+            }
+          }
+          return histories;
+        }
+      });
+      run("cold ranges", transaction, 1, rows, new RangeQuery() {
+        @Override
+        public List<History> find(int startSeqNum, int endSeqNum) {
+          return toDto(historyDao.findBySeqNumberRange(appId, 0, endSeqNum));
+        }
+      });
+      run("cached ranges", transaction, queries, rows, new RangeQuery() {
+        @Override
+        public List<History> find(int startSeqNum, int endSeqNum) {
+          return toDto(historyDao.findBySeqNumberRange(appId, startSeqNum, endSeqNum));
+        }
+      });
+    } finally {
+      context.close();
+    }
+  }
+
+  private static void run(String name, TransactionTemplate transaction, int queries,
+                          final int rows, final RangeQuery query) {
+    final Random random = new Random(rows);
+    long start = System.nanoTime();
+    long found = 0;
+    for (int i = 0; i < queries; i++) {
+      found += transaction.execute(new TransactionCallback<Integer>() {
+        @Override
+        public Integer doInTransaction(TransactionStatus status) {
+          return query.find(random.nextInt(rows), rows).size();
+        }
+      });
+    }
+    double millis = (System.nanoTime() - start) / 1e6;
+    System.out.printf("%-14s %8.2f ms per query, %8d entries%n", name, millis / queries, found);
+  }
+
+  private static List<History> toDto(List<History> histories) {
+    for (History history : histories) {
+      history.toDto();
+    }
+    return histories;
+  }
+
+  private interface RangeQuery {
+    List<History> find(int startSeqNum, int endSeqNum);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.common.dao.impl.sql;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.ChangeType;
+import org.kaaproject.kaa.server.common.dao.model.sql.History;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HistoryRangeIndexTest {
+
+  private static final long APP_ID = 7;
+
+  @Test
+  public void findMissingRangesTest() {
+    HistoryRangeIndex index = new HistoryRangeIndex();
+    assertRanges(index.findMissingRanges(APP_ID, 0, 10), 0, 10);
+
+    index.putAll(APP_ID, entries(3, 4, 5, 8));
+    assertRanges(index.findMissingRanges(APP_ID, 0, 10), 0, 2, 5, 7, 8, 10);
+    assertRanges(index.findMissingRanges(APP_ID, 2, 5));
+    assertRanges(index.findMissingRanges(APP_ID, 4, 8), 5, 7);
+    assertRanges(index.findMissingRanges(APP_ID, 5, 5));
+    assertRanges(index.findMissingRanges(APP_ID + 1, 2, 5), 2, 5);
+  }
+
+  @Test
+  public void findMissingOpenRangeTest() {
+    HistoryRangeIndex index = new HistoryRangeIndex();
+    index.putAll(APP_ID, entries(1, 2, Integer.MAX_VALUE));
+    assertRanges(index.findMissingRanges(APP_ID, 0, Integer.MAX_VALUE),
+        2, Integer.MAX_VALUE - 1);
+    assertRanges(index.findMissingRanges(APP_ID, Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void findTest() {
+    HistoryRangeIndex index = new HistoryRangeIndex();
+    index.putAll(APP_ID, entries(4, 1, 3));
+    List<HistoryRangeIndex.Entry> found = index.find(APP_ID, 1, 4);
+    Assert.assertEquals(2, found.size());
+    Assert.assertEquals(3, found.get(0).getSequenceNumber());
+    Assert.assertEquals(4, found.get(1).getSequenceNumber());
+    Assert.assertTrue(index.find(APP_ID, 4, 4).isEmpty());
+
+    index.clear();
+    Assert.assertTrue(index.find(APP_ID, 0, 4).isEmpty());
+  }
+
+  @Test
+  public void leastRecentlyUsedApplicationIsEvictedTest() {
+    HistoryRangeIndex index = new HistoryRangeIndex(2, 10);
+    index.putAll(APP_ID, entries(1));
+    index.putAll(APP_ID + 1, entries(1));
+    index.find(APP_ID, 0, 1);
+    index.putAll(APP_ID + 2, entries(1));
+    Assert.assertEquals(1, index.find(APP_ID, 0, 1).size());
+    Assert.assertTrue(index.find(APP_ID + 1, 0, 1).isEmpty());
+    Assert.assertEquals(1, index.find(APP_ID + 2, 0, 1).size());
+  }
+
+  @Test
+  public void lowestSequenceNumbersAreEvictedTest() {
+    HistoryRangeIndex index = new HistoryRangeIndex(2, 3);
+    index.putAll(APP_ID, entries(1, 2, 3, 4, 5));
+    assertRanges(index.findMissingRanges(APP_ID, 0, 5), 0, 2);
+    Assert.assertEquals(3, index.find(APP_ID, 0, 5).size());
+  }
+
+  @Test
+  public void removeTest() {
+    HistoryRangeIndex index = new HistoryRangeIndex();
+    index.putAll(APP_ID, entries(1, 2));
+    index.putAll(APP_ID + 1, entries(1, 2));
+    index.remove(APP_ID);
+    assertRanges(index.findMissingRanges(APP_ID, 0, 2), 0, 2);
+    Assert.assertEquals(2, index.find(APP_ID + 1, 0, 2).size());
+  }
+
+  @Test
+  public void toHistoryTest() {
+    HistoryRangeIndex.Entry entry = new HistoryRangeIndex.Entry(11, 3, 1000L, 12,
+        ChangeType.ADD_PROF, 2, null, null, null, 13L);
+    History history = entry.toHistory(APP_ID);
+    Assert.assertEquals(Long.valueOf(11), history.getId());
+    Assert.assertEquals(3, history.getSequenceNumber());
+    Assert.assertEquals(1000L, history.getLastModifyTime());
+    Assert.assertEquals(Long.valueOf(APP_ID), history.getApplication().getId());
+    Assert.assertEquals(Long.valueOf(12), history.getChange().getId());
+    Assert.assertEquals(ChangeType.ADD_PROF, history.getChange().getType());
+    Assert.assertEquals(2, history.getChange().getConfigurationVersion());
+    Assert.assertEquals(Long.valueOf(13), history.getChange().getProfileFilterId());
+    Assert.assertNotSame(history, entry.toHistory(APP_ID));
+  }
+
+  private static List<HistoryRangeIndex.Entry> entries(int... seqNums) {
+    List<HistoryRangeIndex.Entry> entries = new ArrayList<>();
+    for (int seqNum : seqNums) {
+      entries.add(new HistoryRangeIndex.Entry(seqNum, seqNum, 0L, seqNum,
+          ChangeType.ADD_CONF, 1, null, null, 1L, null));
+    }
+    return entries;
+  }
+
+  private static void assertRanges(List<int[]> ranges, int... expected) {
+    List<Integer> actual = new ArrayList<>();
+    for (int[] range : ranges) {
+      actual.add(range[0]);
+      actual.add(range[1]);
+    }
+    List<Integer> expectedList = new ArrayList<>();
+    for (int bound : expected) {
+      expectedList.add(bound);
+    }
+    Assert.assertEquals(expectedList, actual);
+  }
+}
@@ -29,9 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public abstract class AbstractLogAppender<T extends SpecificRecordBase> implements LogAppender {
@@ -41,7 +41,7 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
   private static final int LOG_HEADER_VERSION = 1;
   private final Class<T> configurationClass;
 
-  private Map<String, GenericAvroConverter<GenericRecord>> converters = new HashMap<>();
+  private Map<String, GenericAvroConverter<GenericRecord>> converters = new ConcurrentHashMap<>();
 
   private String appenderId;
 
@@ -191,7 +191,10 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
         logEventPack.getLogSchema().getSchema());
     GenericAvroConverter<GenericRecord> headerConverter = getConverter(
         header.getSchema().toString());
+    GenericRecord decodedLog = null;
     try {
+      LOG.trace("Avro header record converter [{}]", headerConverter);
+      String encodedJsonLogHeader = headerConverter.encodeToJson(header);
       for (LogEvent logEvent : logEventPack.getEvents()) {
         LOG.debug("Convert log events [{}] to dto objects.", logEvent);
         if (logEvent == null || logEvent.getLogData() == null) {
@@ -199,9 +202,8 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
         }
         LOG.trace("Avro record converter [{}] with log data [{}]",
             eventConverter, logEvent.getLogData());
-        GenericRecord decodedLog = eventConverter.decodeBinary(logEvent.getLogData());
-        LOG.trace("Avro header record converter [{}]", headerConverter);
-        String encodedJsonLogHeader = headerConverter.encodeToJson(header);
+        // record is converted to json right away, so it is safe to reuse it for the next event
+        decodedLog = eventConverter.decodeBinary(logEvent.getLogData(), decodedLog);
         String encodedJsonLog = eventConverter.encodeToJson(decodedLog);
         events.add(new LogEventDto(encodedJsonLogHeader, encodedJsonLog));
       }
@@ -213,18 +215,22 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
   }
 
   /**
-   * Gets the converter.
+   * Gets the converter. Converters are thread safe and shared by all threads of the appender.
    *
    * @param schema the schema
    * @return the converter
    */
-  private GenericAvroConverter<GenericRecord> getConverter(String schema) {
+  protected GenericAvroConverter<GenericRecord> getConverter(String schema) {
     LOG.trace("Get converter for schema [{}]", schema);
     GenericAvroConverter<GenericRecord> genAvroConverter = converters.get(schema);
     if (genAvroConverter == null) {
       LOG.trace("Create new converter for schema [{}]", schema);
       genAvroConverter = new GenericAvroConverter<>(schema);
-      converters.put(schema, genAvroConverter);
+      GenericAvroConverter<GenericRecord> existing = converters.putIfAbsent(schema,
+          genAvroConverter);
+      if (existing != null) {
+        genAvroConverter = existing;
+      }
     }
     LOG.trace("Get converter [{}] from map.", genAvroConverter);
     return genAvroConverter;
@@ -16,6 +16,10 @@
 
 package org.kaaproject.kaa.server.common.nosql.cassandra.dao;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.ResultSet;
@@ -35,6 +39,8 @@ import org.springframework.beans.factory.annotation.Value;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbstractCassandraDao<T, K> {
 
@@ -143,6 +149,52 @@ public abstract class AbstractCassandraDao<T, K> {
     executeBatch(batchStatement);
   }
 
+  /**
+   * Execute independent statements asynchronously with at most <code>maxInFlight</code>
+   * of them running at a time, and wait until all of them complete.
+   * Unlike a batch, statements touching different partitions are not funneled
+   * through a single coordinator.
+   *
+   * @param statements  the statements to execute
+   * @param maxInFlight the maximum number of concurrently executing statements
+   */
+  protected void executeAsync(List<? extends Statement> statements, int maxInFlight) {
+    LOG.debug("Execute {} cassandra statements asynchronously", statements.size());
+    final Semaphore permits = new Semaphore(maxInFlight);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    try {
+      for (Statement statement : statements) {
+        permits.acquire();
+        if (failure.get() != null) {
+          permits.release();
+          break;
+        }
+        statement.setConsistencyLevel(getWriteConsistencyLevel());
+        Futures.addCallback(getSession().executeAsync(statement),
+            new FutureCallback<ResultSet>() {
+              @Override
+              public void onSuccess(ResultSet result) {
+                permits.release();
+              }
+
+              @Override
+              public void onFailure(Throwable throwable) {
+                failure.compareAndSet(null, throwable);
+                permits.release();
+              }
+            });
+      }
+      permits.acquire(maxInFlight);
+      permits.release(maxInFlight);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while executing cassandra statements", ex);
+    }
+    if (failure.get() != null) {
+      throw Throwables.propagate(failure.get());
+    }
+  }
+
   protected ResultSet execute(Statement statement, ConsistencyLevel consistencyLevel) {
     LOG.debug("Execute cassandra statement {}", statement);
     statement.setConsistencyLevel(
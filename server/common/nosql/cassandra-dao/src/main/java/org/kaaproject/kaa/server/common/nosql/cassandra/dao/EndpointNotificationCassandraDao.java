@@ -37,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -48,6 +49,12 @@ public class EndpointNotificationCassandraDao
   private static final Logger LOG =
       LoggerFactory.getLogger(EndpointNotificationCassandraDao.class);
 
+  /**
+   * Every notification of a bulk save goes to its own partition, so they are written as
+   * single-row inserts with a bounded number of requests in flight instead of one batch.
+   */
+  private static final int MAX_IN_FLIGHT_WRITES = 64;
+
   @Autowired
   private CassandraEpByAppIdDao cassandraEpByAppIdDao;
 
@@ -105,6 +112,20 @@ public class EndpointNotificationCassandraDao
     return endpointNotification;
   }
 
+  @Override
+  public List<CassandraEndpointNotification> saveAll(List<EndpointNotificationDto> dtos) {
+    List<CassandraEndpointNotification> endpointNotifications = new ArrayList<>(dtos.size());
+    List<Statement> statements = new ArrayList<>(dtos.size());
+    for (EndpointNotificationDto dto : dtos) {
+      CassandraEndpointNotification endpointNotification = new CassandraEndpointNotification(dto);
+      endpointNotifications.add(endpointNotification);
+      statements.add(getSaveQuery(endpointNotification));
+    }
+    LOG.debug("Save {} endpoint notifications", endpointNotifications.size());
+    executeAsync(statements, MAX_IN_FLIGHT_WRITES);
+    return endpointNotifications;
+  }
+
   @Override
   public CassandraEndpointNotification findById(String id) {
     LOG.debug("Try to find endpoint notifications by id {}", id);
@@ -44,6 +44,7 @@ import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.Cassand
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_SERVER_PROFILE_VERSION_PROPERTY;
 
 import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import com.datastax.driver.core.ConsistencyLevel;
@@ -81,10 +82,13 @@ import org.springframework.stereotype.Repository;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Repository(value = "endpointProfileDao")
@@ -94,6 +98,12 @@ public class EndpointProfileCassandraDao
 
   private static final Logger LOG = LoggerFactory.getLogger(EndpointProfileCassandraDao.class);
 
+  /**
+   * Large IN clauses put the whole fan-out on a single coordinator, so the bulk
+   * lookup is split into queries of at most this many key hashes.
+   */
+  private static final int MAX_KEY_HASHES_PER_QUERY = 100;
+
   @Autowired
   private CassandraEpByAppIdDao cassandraEpByAppIdDao;
   @Autowired
@@ -228,6 +238,25 @@ public class EndpointProfileCassandraDao
     return endpointProfile;
   }
 
+  @Override
+  public List<CassandraEndpointProfile> findByKeyHashes(Collection<byte[]> endpointKeyHashes) {
+    LOG.debug("Try to find endpoint profiles by [{}] key hashes", endpointKeyHashes.size());
+    List<ByteBuffer> keyHashes = new ArrayList<>(endpointKeyHashes.size());
+    for (byte[] endpointKeyHash : endpointKeyHashes) {
+      if (endpointKeyHash != null) {
+        keyHashes.add(getByteBuffer(endpointKeyHash));
+      }
+    }
+    List<CassandraEndpointProfile> profiles = new ArrayList<>(keyHashes.size());
+    for (List<ByteBuffer> part : Lists.partition(keyHashes, MAX_KEY_HASHES_PER_QUERY)) {
+      Statement select = select().from(getColumnFamilyName())
+          .where(in(EP_EP_KEY_HASH_PROPERTY, part.toArray()));
+      LOG.trace("Execute statements {}", select);
+      profiles.addAll(findListByStatement(select));
+    }
+    return profiles;
+  }
+
   @Override
   public EndpointProfileBodyDto findBodyByKeyHash(byte[] endpointKeyHash) {
     LOG.debug("Try to find endpoint profile body by key hash [{}]", endpointKeyHash);
@@ -354,13 +383,27 @@ public class EndpointProfileCassandraDao
     return endpointProfile;
   }
 
+  /**
+   * Loads the profiles of one page with a single multi-key read and returns them in the order of
+   * the given key hashes. Key hashes without a profile are skipped.
+   */
   private List<EndpointProfileDto> findEndpointProfilesList(ByteBuffer[] keyHashList,
                                                             String endpointGroupId) {
     List<EndpointProfileDto> cassandraEndpointProfileList = new ArrayList<>();
     LOG.debug("Found {} endpoint profiles by group id {}",
         keyHashList != null ? keyHashList.length : 0, endpointGroupId);
+    if (keyHashList == null || keyHashList.length == 0) {
+      return cassandraEndpointProfileList;
+    }
+    Statement select = select().from(getColumnFamilyName())
+        .where(in(EP_EP_KEY_HASH_PROPERTY, (Object[]) keyHashList));
+    LOG.trace("Execute statements {}", select);
+    Map<ByteBuffer, CassandraEndpointProfile> profiles = new HashMap<>();
+    for (CassandraEndpointProfile profile : findListByStatement(select)) {
+      profiles.put(profile.getEndpointKeyHash(), profile);
+    }
     for (ByteBuffer keyHash : keyHashList) {
-      CassandraEndpointProfile profile = findByKeyHash(getBytes(keyHash));
+      CassandraEndpointProfile profile = profiles.get(keyHash);
       if (profile != null) {
         cassandraEndpointProfileList.add(getDto(profile));
       } else {
@@ -375,11 +418,33 @@ public class EndpointProfileCassandraDao
     final List<EndpointProfileBodyDto> endpointProfilesBodyDto = new ArrayList<>();
     LOG.debug("Found {} endpoint profiles body by group id {}",
         keyHashList != null ? keyHashList.length : 0, endpointGroupId);
-
+    if (keyHashList == null || keyHashList.length == 0) {
+      return endpointProfilesBodyDto;
+    }
+    ResultSet resultSet = execute(select(
+        EP_EP_KEY_HASH_PROPERTY,
+        EP_PROFILE_PROPERTY,
+        EP_SERVER_PROFILE_PROPERTY,
+        EP_APP_ID_PROPERTY,
+        EP_PROFILE_VERSION_PROPERTY,
+        EP_SERVER_PROFILE_VERSION_PROPERTY)
+        .from(getColumnFamilyName())
+        .where(in(EP_EP_KEY_HASH_PROPERTY, (Object[]) keyHashList)));
+    Map<ByteBuffer, Row> rows = new HashMap<>();
+    for (Row row : resultSet) {
+      rows.put(row.getBytes(EP_EP_KEY_HASH_PROPERTY), row);
+    }
     for (ByteBuffer keyHash : keyHashList) {
-      EndpointProfileBodyDto endpointProfileBodyDto = findBodyByKeyHash(getBytes(keyHash));
-      if (endpointProfileBodyDto != null) {
-        endpointProfilesBodyDto.add(endpointProfileBodyDto);
+      byte[] endpointKeyHash = getBytes(keyHash);
+      Row row = rows.get(keyHash);
+      if (row != null) {
+        endpointProfilesBodyDto.add(new EndpointProfileBodyDto(
+            endpointKeyHash,
+            row.getString(EP_PROFILE_PROPERTY),
+            row.getString(EP_SERVER_PROFILE_PROPERTY),
+            row.getInt(EP_PROFILE_VERSION_PROPERTY),
+            row.getInt(EP_SERVER_PROFILE_VERSION_PROPERTY),
+            row.getString(EP_APP_ID_PROPERTY)));
       } else {
         LOG.debug("Can't find endpoint profile by id {}", keyHash);
       }
@@ -387,7 +452,6 @@ public class EndpointProfileCassandraDao
     return endpointProfilesBodyDto;
   }
 
-
   @Override
   public EndpointProfilesPageDto findByEndpointGroupId(PageLinkDto pageLink) {
     LOG.debug("Try to find endpoint profile by endpoint group id [{}]",
@@ -402,9 +466,11 @@ public class EndpointProfileCassandraDao
       keyHashList = cassandraEpByEndpointGroupIdDao.findEpByEndpointGroupId(pageLink);
     }
     cassandraEndpointProfileList = findEndpointProfilesList(
-        keyHashList, pageLink.getEndpointGroupId());
-    endpointProfilesPageDto = createNextPage(
-        cassandraEndpointProfileList, pageLink.getEndpointGroupId(), pageLink.getLimit());
+        getPageKeyHashes(keyHashList, pageLink.getLimit()), pageLink.getEndpointGroupId());
+    endpointProfilesPageDto = new EndpointProfilesPageDto();
+    endpointProfilesPageDto.setPageLinkDto(createNextPageLink(
+        keyHashList, pageLink.getEndpointGroupId(), pageLink.getLimit()));
+    endpointProfilesPageDto.setEndpointProfiles(cassandraEndpointProfileList);
     return endpointProfilesPageDto;
   }
 
@@ -420,12 +486,12 @@ public class EndpointProfileCassandraDao
     } else {
       keyHashList = cassandraEpByEndpointGroupIdDao.findEpByEndpointGroupId(pageLink);
     }
-    profilesBodyDto = findEndpointProfilesBodyList(keyHashList, pageLink.getEndpointGroupId());
-    if (profilesBodyDto == null) {
-      profilesBodyDto = Collections.emptyList();
-    }
-    EndpointProfilesBodyDto endpointProfilesBodyDto = createNextBodyPage(
-        profilesBodyDto, pageLink.getEndpointGroupId(), pageLink.getLimit());
+    profilesBodyDto = findEndpointProfilesBodyList(
+        getPageKeyHashes(keyHashList, pageLink.getLimit()), pageLink.getEndpointGroupId());
+    EndpointProfilesBodyDto endpointProfilesBodyDto = new EndpointProfilesBodyDto();
+    endpointProfilesBodyDto.setPageLinkDto(createNextPageLink(
+        keyHashList, pageLink.getEndpointGroupId(), pageLink.getLimit()));
+    endpointProfilesBodyDto.setEndpointProfilesBody(profilesBodyDto);
     return endpointProfilesBodyDto;
   }
 
@@ -517,52 +583,39 @@ public class EndpointProfileCassandraDao
     return keyHashArray;
   }
 
-  private EndpointProfilesPageDto createNextPage(
-          List<EndpointProfileDto> cassandraEndpointProfileList,
-          String endpointGroupId,
-          String limit
-  ) {
-    EndpointProfilesPageDto endpointProfilesPageDto = new EndpointProfilesPageDto();
-    PageLinkDto pageLinkDto = new PageLinkDto();
-    String next;
+  /**
+   * The key hash index is scanned for one key hash more than the page limit. Only the first
+   * <code>limit</code> of them belong to the page.
+   */
+  private static ByteBuffer[] getPageKeyHashes(ByteBuffer[] keyHashList, String limit) {
     int lim = Integer.valueOf(limit);
-    if (cassandraEndpointProfileList.size() == (lim + 1)) {
-      pageLinkDto.setEndpointGroupId(endpointGroupId);
-      pageLinkDto.setLimit(limit);
-      pageLinkDto.setOffset(Base64.encodeBase64URLSafeString(
-          cassandraEndpointProfileList.get(lim).getEndpointKeyHash()));
-      cassandraEndpointProfileList.remove(lim);
-      next = null;
-    } else {
-      next = DaoConstants.LAST_PAGE_MESSAGE;
+    if (keyHashList != null && keyHashList.length > lim) {
+      return Arrays.copyOf(keyHashList, lim);
     }
-    pageLinkDto.setNext(next);
-    endpointProfilesPageDto.setPageLinkDto(pageLinkDto);
-    endpointProfilesPageDto.setEndpointProfiles(cassandraEndpointProfileList);
-    return endpointProfilesPageDto;
+    return keyHashList;
   }
 
-  private EndpointProfilesBodyDto createNextBodyPage(List<EndpointProfileBodyDto> profilesBodyDto,
-                                                     String endpointGroupId,
-                                                     String limit) {
-    EndpointProfilesBodyDto endpointProfilesBodyDto = new EndpointProfilesBodyDto();
+  /**
+   * The next page starts at the first scanned key hash that is beyond the page limit. It is
+   * derived from the scanned key hashes rather than from the loaded profiles, so key hashes
+   * whose profiles are missing neither shorten the page link nor end the paging early.
+   */
+  private static PageLinkDto createNextPageLink(ByteBuffer[] keyHashList,
+                                                String endpointGroupId,
+                                                String limit) {
     PageLinkDto pageLinkDto = new PageLinkDto();
     String next;
     int lim = Integer.valueOf(limit);
-    if (profilesBodyDto.size() == (lim + 1)) {
+    if (keyHashList != null && keyHashList.length > lim) {
       pageLinkDto.setEndpointGroupId(endpointGroupId);
       pageLinkDto.setLimit(limit);
-      pageLinkDto.setOffset(
-          Base64.encodeBase64URLSafeString(profilesBodyDto.get(lim).getEndpointKeyHash()));
-      profilesBodyDto.remove(lim);
+      pageLinkDto.setOffset(Base64.encodeBase64URLSafeString(getBytes(keyHashList[lim])));
       next = null;
     } else {
       next = DaoConstants.LAST_PAGE_MESSAGE;
     }
     pageLinkDto.setNext(next);
-    endpointProfilesBodyDto.setPageLinkDto(pageLinkDto);
-    endpointProfilesBodyDto.setEndpointProfilesBody(profilesBodyDto);
-    return endpointProfilesBodyDto;
+    return pageLinkDto;
   }
 
   public EndpointUserCassandraDao getEndpointUserDao() {
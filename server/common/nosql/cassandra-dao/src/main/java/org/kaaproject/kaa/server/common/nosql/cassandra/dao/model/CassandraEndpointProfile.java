@@ -211,6 +211,11 @@ public final class CassandraEndpointProfile implements EndpointProfile, Serializ
     this.endpointKeyHash = endpointKeyHash;
   }
 
+  @Override
+  public byte[] getEndpointKeyHashBytes() {
+    return getBytes(endpointKeyHash);
+  }
+
   public String getEndpointUserId() {
     return endpointUserId;
   }
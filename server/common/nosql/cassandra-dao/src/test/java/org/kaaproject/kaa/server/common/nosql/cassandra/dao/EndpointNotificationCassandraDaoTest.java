@@ -22,6 +22,8 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.kaaproject.kaa.common.dto.EndpointNotificationDto;
+import org.kaaproject.kaa.common.dto.NotificationDto;
+import org.kaaproject.kaa.common.dto.NotificationTypeDto;
 import org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraEndpointNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +32,8 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 
@@ -74,6 +78,32 @@ public class EndpointNotificationCassandraDaoTest extends AbstractCassandraTest
     Assert.assertEquals(1, found.size());
   }
 
+  @Test
+  public void testSaveAll() throws Exception {
+    NotificationDto notification = new NotificationDto();
+    notification.setApplicationId(generateStringId());
+    notification.setSchemaId(generateStringId());
+    notification.setTopicId(generateStringId());
+    notification.setType(NotificationTypeDto.USER);
+    notification.setSecNum(-1);
+    notification.setBody(generateBytes());
+    notification.setLastTimeModify(new Date());
+    List<EndpointNotificationDto> dtos = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      EndpointNotificationDto dto = new EndpointNotificationDto();
+      dto.setEndpointKeyHash(generateBytes());
+      dto.setNotificationDto(notification);
+      dtos.add(dto);
+    }
+    List<CassandraEndpointNotification> saved = unicastNotificationDao.saveAll(dtos);
+    Assert.assertEquals(dtos.size(), saved.size());
+    for (EndpointNotificationDto dto : dtos) {
+      List<CassandraEndpointNotification> found = unicastNotificationDao.findNotificationsByKeyHash(dto.getEndpointKeyHash());
+      Assert.assertEquals(1, found.size());
+      Assert.assertEquals(notification.getTopicId(), found.get(0).getTopicId());
+    }
+  }
+
   @Test
   public void testBytesToStringConversation() {
     byte[] array = new byte[]{-16, 7, 51, -98, -75, -19, -82, 119, -51, 122, -125, -14, 22, 44, -28, -56, 26, 111, 115, 2};
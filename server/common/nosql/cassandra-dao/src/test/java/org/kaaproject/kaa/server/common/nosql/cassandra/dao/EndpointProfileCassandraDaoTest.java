@@ -16,6 +16,11 @@
 
 package org.kaaproject.kaa.server.common.nosql.cassandra.dao;
 
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_COLUMN_FAMILY_NAME;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_EP_KEY_HASH_PROPERTY;
+
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,6 +45,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -111,6 +117,59 @@ public class EndpointProfileCassandraDaoTest extends AbstractCassandraTest {
     Assert.assertEquals(lim, foundbyAppId.getEndpointProfilesBody().size());
   }
 
+  @Test
+  public void testPageByEndpointGroupIdWithMissingProfile() throws Exception {
+    String endpointGroupId = UUID.randomUUID().toString();
+    List<byte[]> keyHashes = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      List<EndpointGroupStateDto> groupState = new ArrayList<>();
+      groupState.add(new EndpointGroupStateDto(endpointGroupId, null, null));
+      byte[] keyHash = generateBytes();
+      EndpointProfileDto profileDto = generateEndpointProfileForTestUpdate(null, keyHash, groupState);
+      profileDto.setClientProfileBody("test profile");
+      profileDto.setServerProfileBody("test server-side profile");
+      endpointProfileDao.save(profileDto);
+      keyHashes.add(keyHash);
+    }
+    // Drop one profile but leave its key hash in the endpoint group index.
+    byte[] missing = keyHashes.remove(3);
+    endpointProfileDao.getSession().execute(QueryBuilder.delete().from(EP_COLUMN_FAMILY_NAME)
+        .where(QueryBuilder.eq(EP_EP_KEY_HASH_PROPERTY, ByteBuffer.wrap(missing))));
+
+    List<byte[]> found = new ArrayList<>();
+    int pages = 0;
+    PageLinkDto pageLink = new PageLinkDto(endpointGroupId, TEST_LIMIT, TEST_OFFSET);
+    do {
+      EndpointProfilesBodyDto page = endpointProfileDao.findBodyByEndpointGroupId(pageLink);
+      for (EndpointProfileBodyDto body : page.getEndpointProfilesBody()) {
+        Assert.assertEquals("test profile", body.getClientSideProfile());
+        found.add(body.getEndpointKeyHash());
+      }
+      pageLink = page.getPageLinkDto();
+      pages++;
+    } while (pageLink.getNext() == null);
+    Assert.assertEquals(3, pages);
+    Assert.assertEquals(keyHashes.size(), found.size());
+    for (byte[] keyHash : keyHashes) {
+      Assert.assertTrue(containsKeyHash(found, keyHash));
+    }
+
+    found.clear();
+    pages = 0;
+    pageLink = new PageLinkDto(endpointGroupId, TEST_LIMIT, TEST_OFFSET);
+    do {
+      EndpointProfilesPageDto page = endpointProfileDao.findByEndpointGroupId(pageLink);
+      for (EndpointProfileDto profile : page.getEndpointProfiles()) {
+        found.add(profile.getEndpointKeyHash());
+      }
+      pageLink = page.getPageLinkDto();
+      pages++;
+    } while (pageLink.getNext() == null);
+    Assert.assertEquals(3, pages);
+    Assert.assertEquals(keyHashes.size(), found.size());
+    Assert.assertFalse(containsKeyHash(found, missing));
+  }
+
   private PageLinkDto getPageLinkDto() {
     List<EndpointProfileDto> endpointProfileList = new ArrayList<>();
     for (int i = 0; i < GENERATED_PROFILES_COUNT; i++) {
@@ -120,6 +179,29 @@ public class EndpointProfileCassandraDaoTest extends AbstractCassandraTest {
     return new PageLinkDto(id, TEST_LIMIT, TEST_OFFSET);
   }
 
+  @Test
+  public void testFindByKeyHashes() throws Exception {
+    List<byte[]> keyHashes = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      keyHashes.add(generateEndpointProfile(null, null, null, null).getEndpointKeyHash());
+    }
+    keyHashes.add(generateBytes());
+    List<CassandraEndpointProfile> found = endpointProfileDao.findByKeyHashes(keyHashes);
+    Assert.assertEquals(150, found.size());
+    for (CassandraEndpointProfile profile : found) {
+      Assert.assertTrue(containsKeyHash(keyHashes, profile.getEndpointKeyHash().array()));
+    }
+  }
+
+  private static boolean containsKeyHash(List<byte[]> keyHashes, byte[] keyHash) {
+    for (byte[] candidate : keyHashes) {
+      if (Arrays.equals(candidate, keyHash)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Test
   public void testFindBodyByKeyHash() throws Exception {
     EndpointProfileDto expected = generateEndpointProfileWithEndpointGroupId(null);
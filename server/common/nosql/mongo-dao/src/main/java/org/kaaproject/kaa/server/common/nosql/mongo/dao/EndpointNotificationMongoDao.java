@@ -82,4 +82,15 @@ public class EndpointNotificationMongoDao
   public MongoEndpointNotification save(EndpointNotificationDto dto) {
     return save(new MongoEndpointNotification(dto));
   }
+
+  @Override
+  public List<MongoEndpointNotification> saveAll(List<EndpointNotificationDto> dtos) {
+    List<MongoEndpointNotification> endpointNotifications = new ArrayList<>(dtos.size());
+    for (EndpointNotificationDto dto : dtos) {
+      endpointNotifications.add(new MongoEndpointNotification(dto));
+    }
+    LOG.debug("Insert {} unicast notifications", endpointNotifications.size());
+    mongoTemplate.insert(endpointNotifications, getCollectionName());
+    return endpointNotifications;
+  }
 }
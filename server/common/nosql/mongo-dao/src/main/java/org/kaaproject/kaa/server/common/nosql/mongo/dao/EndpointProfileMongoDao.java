@@ -38,6 +38,8 @@ import static org.springframework.data.mongodb.core.query.Update.update;
 import com.mongodb.DBObject;
 import com.mongodb.util.JSON;
 
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang.StringUtils;
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
@@ -49,12 +51,14 @@ import org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoDaoUtil;
 import org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoEndpointProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Repository("endpointProfileDao")
@@ -80,20 +84,11 @@ public class EndpointProfileMongoDao
         pageLink.getEndpointGroupId());
     EndpointProfilesPageDto endpointProfilesPageDto = new EndpointProfilesPageDto();
     int lim = Integer.valueOf(pageLink.getLimit());
-    int offs = Integer.valueOf(pageLink.getOffset());
     List<MongoEndpointProfile> mongoEndpointProfileList = find(
-        query(new Criteria()
-            .orOperator(where(EP_GROUP_STATE + "." + ENDPOINT_GROUP_ID)
-                    .is(pageLink.getEndpointGroupId()),
-                where(EP_GROUP_STATE + "." + ENDPOINT_GROUP_ID)
-                    .is(pageLink.getEndpointGroupId())))
-            .skip(offs)
-            .limit(lim + 1));
+        createEndpointGroupPageQuery(pageLink, lim));
 
     if (mongoEndpointProfileList.size() == (lim + 1)) {
-      String offset = Integer.toString(lim + offs);
-      pageLink.setOffset(offset);
-      mongoEndpointProfileList.remove(lim);
+      setNextPageOffset(pageLink, mongoEndpointProfileList.remove(lim).getEndpointKeyHash());
     } else {
       pageLink.setNext(DaoConstants.LAST_PAGE_MESSAGE);
     }
@@ -108,15 +103,7 @@ public class EndpointProfileMongoDao
         pageLink.getEndpointGroupId());
     List<EndpointProfileBodyDto> profilesBody = new ArrayList<>();
     int lim = Integer.valueOf(pageLink.getLimit());
-    int offs = Integer.valueOf(pageLink.getOffset());
-    Query query = Query.query(
-        new Criteria()
-            .orOperator(
-                where(EP_GROUP_STATE + "." + ENDPOINT_GROUP_ID)
-                    .is(pageLink.getEndpointGroupId()),
-                where(EP_GROUP_STATE + "." + ENDPOINT_GROUP_ID)
-                    .is(pageLink.getEndpointGroupId())));
-    query.skip(offs).limit(lim + 1);
+    Query query = createEndpointGroupPageQuery(pageLink, lim);
     query.fields()
         .include(DaoConstants.PROFILE)
         .include(EP_SERVER_PROFILE_PROPERTY)
@@ -129,9 +116,7 @@ public class EndpointProfileMongoDao
         mongoTemplate.find(query, getDocumentClass()));
 
     if (endpointProfileDtoList.size() == (lim + 1)) {
-      String offset = Integer.toString(lim + offs);
-      pageLink.setOffset(offset);
-      endpointProfileDtoList.remove(lim);
+      setNextPageOffset(pageLink, endpointProfileDtoList.remove(lim).getEndpointKeyHash());
     } else {
       pageLink.setNext(DaoConstants.LAST_PAGE_MESSAGE);
     }
@@ -152,6 +137,37 @@ public class EndpointProfileMongoDao
     return endpointProfilesBodyDto;
   }
 
+  /**
+   * Builds a query for one page of endpoint profiles of the endpoint group. Pages are ordered by
+   * endpoint key hash and the offset is the key hash the page starts from, so every page is a
+   * range scan of the group/key hash index instead of a skip over all preceding profiles. Numeric
+   * offsets are still accepted for clients that paginate by position.
+   *
+   * @param pageLink the page link
+   * @param lim      the page size
+   * @return the query that selects up to <code>lim + 1</code> profiles
+   */
+  private Query createEndpointGroupPageQuery(PageLinkDto pageLink, int lim) {
+    String offset = pageLink.getOffset();
+    Criteria criteria = where(EP_GROUP_STATE + "." + ENDPOINT_GROUP_ID)
+        .is(pageLink.getEndpointGroupId());
+    Query query;
+    if (StringUtils.isBlank(offset) || StringUtils.isNumeric(offset)) {
+      query = query(criteria);
+      int offs = StringUtils.isBlank(offset) ? 0 : Integer.valueOf(offset);
+      if (offs > 0) {
+        query.skip(offs);
+      }
+    } else {
+      query = query(criteria.and(EP_ENDPOINT_KEY_HASH).gte(Base64.decodeBase64(offset)));
+    }
+    return query.with(new Sort(Sort.Direction.ASC, EP_ENDPOINT_KEY_HASH)).limit(lim + 1);
+  }
+
+  private void setNextPageOffset(PageLinkDto pageLink, byte[] nextEndpointKeyHash) {
+    pageLink.setOffset(Base64.encodeBase64URLSafeString(nextEndpointKeyHash));
+  }
+
   private Long findVersionByKey(byte[] endpointKeyHash) {
     LOG.debug("Find endpoint profile version by key hash [{}] ", endpointKeyHash);
     Long version = null;
@@ -179,6 +195,12 @@ public class EndpointProfileMongoDao
     return mongoTemplate.getConverter().read(getDocumentClass(), result);
   }
 
+  @Override
+  public List<MongoEndpointProfile> findByKeyHashes(Collection<byte[]> endpointKeyHashes) {
+    LOG.debug("Find endpoint profiles by [{}] endpoint key hashes", endpointKeyHashes.size());
+    return find(query(where(EP_ENDPOINT_KEY_HASH).in(endpointKeyHashes)));
+  }
+
   @Override
   public EndpointProfileBodyDto findBodyByKeyHash(byte[] endpointKeyHash) {
     LOG.debug("Find endpoint profile body by endpoint key hash [{}] ", endpointKeyHash);
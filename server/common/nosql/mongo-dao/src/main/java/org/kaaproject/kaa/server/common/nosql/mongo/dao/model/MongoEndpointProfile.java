@@ -53,6 +53,7 @@ import org.kaaproject.kaa.server.common.dao.impl.DaoUtil;
 import org.kaaproject.kaa.server.common.dao.model.EndpointProfile;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -62,6 +63,8 @@ import java.util.Arrays;
 import java.util.List;
 
 @Document(collection = ENDPOINT_PROFILE)
+@CompoundIndex(name = "group_state_endpoint_key_hash",
+    def = "{'group_state.endpoint_group_id': 1, 'endpoint_key_hash': 1}")
 public final class MongoEndpointProfile implements EndpointProfile, Serializable {
 
   private static final long serialVersionUID = -3227246639864687299L;
@@ -203,6 +206,11 @@ public final class MongoEndpointProfile implements EndpointProfile, Serializable
     this.endpointKeyHash = getArrayCopy(endpointKeyHash);
   }
 
+  @Override
+  public byte[] getEndpointKeyHashBytes() {
+    return endpointKeyHash;
+  }
+
   public String getEndpointUserId() {
     return endpointUserId;
   }
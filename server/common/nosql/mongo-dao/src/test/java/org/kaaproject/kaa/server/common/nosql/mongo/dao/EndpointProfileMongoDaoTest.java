@@ -42,7 +42,9 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -87,6 +89,24 @@ public class EndpointProfileMongoDaoTest extends AbstractMongoTest {
     Assert.assertEquals(endpointProfile, found.toDto());
   }
 
+  @Test
+  public void findByKeyHashesTest() {
+    List<byte[]> keyHashes = new ArrayList<>();
+    for (int i = 0; i < GENERATED_PROFILES_COUNT; i++) {
+      keyHashes.add(generateEndpointProfileWithGroupIdDto(TEST_ENDPOINT_GROUP_ID).getEndpointKeyHash());
+    }
+    keyHashes.add(UUID.randomUUID().toString().getBytes());
+    List<MongoEndpointProfile> found = endpointProfileDao.findByKeyHashes(keyHashes);
+    Assert.assertEquals(GENERATED_PROFILES_COUNT, found.size());
+    Set<ByteBuffer> foundHashes = new HashSet<>();
+    for (MongoEndpointProfile profile : found) {
+      foundHashes.add(ByteBuffer.wrap(profile.getEndpointKeyHash()));
+    }
+    for (byte[] keyHash : keyHashes.subList(0, GENERATED_PROFILES_COUNT)) {
+      Assert.assertTrue(foundHashes.contains(ByteBuffer.wrap(keyHash)));
+    }
+  }
+
   @Test
   public void findBodyByKeyHashTest() {
     EndpointProfileDto endpointProfile = generateEndpointProfileDto(null, null);
@@ -133,6 +153,28 @@ public class EndpointProfileMongoDaoTest extends AbstractMongoTest {
     Assert.assertEquals(lim, found.getEndpointProfiles().size());
   }
 
+  @Test
+  public void findBodyByEndpointGroupIdAllPagesTest() {
+    for (int i = 0; i < GENERATED_PROFILES_COUNT; i++) {
+      generateEndpointProfileWithGroupIdDto(TEST_ENDPOINT_GROUP_ID);
+    }
+    Set<ByteBuffer> keyHashes = new HashSet<>();
+    String offset = TEST_OFFSET;
+    int pages = 0;
+    EndpointProfilesBodyDto found;
+    do {
+      PageLinkDto pageLink = new PageLinkDto(TEST_ENDPOINT_GROUP_ID, TEST_LIMIT, offset);
+      found = endpointProfileDao.findBodyByEndpointGroupId(pageLink);
+      for (EndpointProfileBodyDto body : found.getEndpointProfilesBody()) {
+        Assert.assertTrue(keyHashes.add(ByteBuffer.wrap(body.getEndpointKeyHash())));
+      }
+      offset = found.getPageLinkDto().getOffset();
+      pages++;
+    } while (found.getPageLinkDto().getNext() == null);
+    Assert.assertEquals(2, pages);
+    Assert.assertEquals(GENERATED_PROFILES_COUNT, keyHashes.size());
+  }
+
   @Test
   public void findByEndpointGroupIdWithNfGroupStateTest() {
     for (int i = 0; i < GENERATED_PROFILES_COUNT; i++) {
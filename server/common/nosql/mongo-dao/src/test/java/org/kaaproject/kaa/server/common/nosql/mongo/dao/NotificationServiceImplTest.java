@@ -38,15 +38,21 @@ import org.kaaproject.kaa.common.dto.UpdateNotificationDto;
 import org.kaaproject.kaa.common.dto.VersionDto;
 import org.kaaproject.kaa.common.dto.ctl.CTLSchemaDto;
 import org.kaaproject.kaa.server.common.dao.exception.IncorrectParameterException;
+import org.kaaproject.kaa.server.common.dao.impl.EndpointNotificationDao;
+import org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoEndpointNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -56,6 +62,9 @@ public class NotificationServiceImplTest extends AbstractMongoTest {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NotificationServiceImplTest.class);
 
+  @Autowired
+  private EndpointNotificationDao<MongoEndpointNotification> unicastNotificationDao;
+
   @BeforeClass
   public static void init() throws Exception {
     MongoDBTestRunner.setUp();
@@ -242,6 +251,71 @@ public class NotificationServiceImplTest extends AbstractMongoTest {
     Assert.assertTrue(notifications.isEmpty());
   }
 
+  @Test
+  public void testSaveAllUnicastNotifications() {
+    NotificationDto notification = generateNotificationsDto(null, null, 1, null).get(0);
+    List<EndpointNotificationDto> dtos = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      EndpointNotificationDto dto = new EndpointNotificationDto();
+      dto.setEndpointKeyHash(generateString("TEST_KEY_HASH").getBytes());
+      dto.setNotificationDto(notification);
+      dtos.add(dto);
+    }
+    List<MongoEndpointNotification> saved = unicastNotificationDao.saveAll(dtos);
+    Assert.assertEquals(dtos.size(), saved.size());
+    for (EndpointNotificationDto dto : dtos) {
+      List<MongoEndpointNotification> found = unicastNotificationDao.findNotificationsByKeyHash(dto.getEndpointKeyHash());
+      Assert.assertEquals(1, found.size());
+      Assert.assertEquals(notification.getTopicId(), found.get(0).getNotification().getTopicId());
+    }
+  }
+
+  @Test
+  public void testSaveUnicastNotifications() {
+    NotificationSchemaDto schema = generateNotificationSchemaDto(null, NotificationTypeDto.USER);
+    TopicDto topic = generateTopicDto(schema.getApplicationId(), null);
+    List<byte[]> subscribed = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      subscribed.add(generateProfile(topic.getApplicationId(), Arrays.asList(topic.getId())).getEndpointKeyHash());
+    }
+    byte[] notSubscribed = generateProfile(topic.getApplicationId(), null).getEndpointKeyHash();
+    byte[] unknown = generateString("TEST_KEY_HASH").getBytes();
+    List<byte[]> keyHashes = new ArrayList<>(subscribed);
+    keyHashes.add(notSubscribed);
+    keyHashes.add(unknown);
+
+    NotificationDto notification = new NotificationDto();
+    notification.setSchemaId(schema.getId());
+    notification.setTopicId(topic.getId());
+    try {
+      notification.setBody(readSchemaFileAsString("dao/schema/testBaseData.json").getBytes("UTF-8"));
+    } catch (IOException ex) {
+      Assert.fail(ex.getMessage());
+    }
+    List<EndpointNotificationDto> saved = notificationService.saveUnicastNotifications(notification, keyHashes);
+    Assert.assertEquals(subscribed.size(), saved.size());
+    for (byte[] keyHash : subscribed) {
+      Assert.assertEquals(1, notificationService.findUnicastNotificationsByKeyHash(keyHash).size());
+    }
+    Assert.assertTrue(notificationService.findUnicastNotificationsByKeyHash(notSubscribed).isEmpty());
+    Assert.assertTrue(notificationService.findUnicastNotificationsByKeyHash(unknown).isEmpty());
+  }
+
+  private EndpointProfileDto generateProfile(String appId, List<String> topicIds) {
+    EndpointProfileDto profileDto = new EndpointProfileDto();
+    profileDto.setApplicationId(appId);
+    profileDto.setSubscriptions(topicIds);
+    profileDto.setEndpointKeyHash(generateString("TEST_KEY_HASH").getBytes());
+    profileDto.setServerProfileBody("{\"serverTitle\": \"SERVER_TEST\"}");
+    try {
+      profileDto.setClientProfileBody(readSchemaFileAsString(TEST_PROFILE_BODY_PATH));
+    } catch (IOException ex) {
+      Assert.fail(ex.getMessage());
+    }
+    profileDto.setSdkToken(UUID.randomUUID().toString());
+    return endpointService.saveEndpointProfile(profileDto);
+  }
+
   @Test(expected = IncorrectParameterException.class)
   public void testSaveInvalidNotificationSchema() {
     notificationService.saveNotificationSchema(new NotificationSchemaDto());
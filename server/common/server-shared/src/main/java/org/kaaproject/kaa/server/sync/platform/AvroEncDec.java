@@ -16,6 +16,7 @@
 
 package org.kaaproject.kaa.server.sync.platform;
 
+import org.apache.avro.io.BinaryData;
 import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
 import org.kaaproject.kaa.common.endpoint.gen.BootstrapSyncRequest;
@@ -105,6 +106,14 @@ public class AvroEncDec implements PlatformEncDec {
 
   private static final Logger LOG = LoggerFactory.getLogger(AvroEncDec.class);
 
+  /**
+   * Size of the leading fields of an encoded bootstrap response: request id, status, branch
+   * of the bootstrap response union and bootstrap request id. Each takes a single byte while
+   * it is zero.
+   */
+  private static final int BOOTSTRAP_RESPONSE_PREFIX_SIZE = 4;
+  private static final int MAX_INT_SIZE = 5;
+
   private final AvroByteArrayConverter<SyncRequest> clientSyncConverter;
   private final AvroByteArrayConverter<SyncResponse> serverSyncConverter;
 
@@ -712,4 +721,32 @@ public class AvroEncDec implements PlatformEncDec {
       throw new PlatformEncDecException(exception);
     }
   }
+
+  @Override
+  public BootstrapResponseTemplate encodeBootstrapResponse(Set<ProtocolConnectionData> protocols)
+      throws PlatformEncDecException {
+    ServerSync sync = new ServerSync();
+    sync.setStatus(SyncStatus.SUCCESS);
+    sync.setBootstrapSync(new BootstrapServerSync(0, protocols));
+    final byte[] template = encode(sync);
+    for (int i = 0; i < BOOTSTRAP_RESPONSE_PREFIX_SIZE; i++) {
+      if (template[i] != 0) {
+        throw new PlatformEncDecException("Unexpected layout of the encoded bootstrap response");
+      }
+    }
+    return new BootstrapResponseTemplate() {
+      @Override
+      public byte[] encode(int requestId, int bootstrapRequestId) {
+        byte[] prefix = new byte[MAX_INT_SIZE * 2 + 2];
+        int size = BinaryData.encodeInt(requestId, prefix, 0);
+        size += BinaryData.encodeInt(SyncResponseResultType.SUCCESS.ordinal(), prefix, size);
+        size += BinaryData.encodeInt(0, prefix, size);
+        size += BinaryData.encodeInt(bootstrapRequestId, prefix, size);
+        int suffixSize = template.length - BOOTSTRAP_RESPONSE_PREFIX_SIZE;
+        byte[] data = Arrays.copyOf(prefix, size + suffixSize);
+        System.arraycopy(template, BOOTSTRAP_RESPONSE_PREFIX_SIZE, data, size, suffixSize);
+        return data;
+      }
+    };
+  }
 }
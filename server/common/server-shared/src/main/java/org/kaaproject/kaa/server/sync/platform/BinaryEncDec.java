@@ -69,6 +69,7 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class is an implementation of {@link PlatformEncDec} that uses internal
@@ -112,6 +113,8 @@ public class BinaryEncDec implements PlatformEncDec {
   private static final int DEFAULT_BUFFER_SIZE = 128;
   private static final int SIZE_OF_INT = 4;
   private static final int EXTENSIONS_COUNT_POSITION = 6;
+  private static final int META_DATA_REQUEST_ID_POSITION = 16;
+  private static final int BOOTSTRAP_REQUEST_ID_POSITION = 32;
   private static final int MIN_SIZE_OF_MESSAGE_HEADER = 8;
   private static final int MIN_SIZE_OF_EXTENSION_HEADER = 8;
   private static final byte SUCCESS = 0x00;
@@ -310,6 +313,24 @@ public class BinaryEncDec implements PlatformEncDec {
     return result;
   }
 
+  @Override
+  public BootstrapResponseTemplate encodeBootstrapResponse(Set<ProtocolConnectionData> protocols)
+      throws PlatformEncDecException {
+    ServerSync sync = new ServerSync();
+    sync.setStatus(SyncStatus.SUCCESS);
+    sync.setBootstrapSync(new BootstrapServerSync(0, protocols));
+    final byte[] template = encode(sync);
+    return new BootstrapResponseTemplate() {
+      @Override
+      public byte[] encode(int requestId, int bootstrapRequestId) {
+        ByteBuffer data = ByteBuffer.wrap(Arrays.copyOf(template, template.length));
+        data.putInt(META_DATA_REQUEST_ID_POSITION, requestId);
+        data.putShort(BOOTSTRAP_REQUEST_ID_POSITION, (short) bootstrapRequestId);
+        return data.array();
+      }
+    };
+  }
+
   private void encode(GrowingByteBuffer buf, BootstrapServerSync bootstrapSync) {
     buildExtensionHeader(buf, BOOTSTRAP_EXTENSION_ID, NOTHING, NOTHING, 0);
     final int extPosition = buf.position();
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.sync.platform;
+
+/**
+ * A successful bootstrap response encoded in advance for a fixed list of protocol
+ * connection data. Only the request ids differ between the responses to different
+ * requests, so they are the only part encoded per request.
+ */
+public interface BootstrapResponseTemplate {
+
+  /**
+   * Encodes the response to the given request.
+   *
+   * @param requestId          the id of the client sync request
+   * @param bootstrapRequestId the id of the bootstrap sync request
+   * @return the encoded platform data
+   */
+  byte[] encode(int requestId, int bootstrapRequestId);
+
+}
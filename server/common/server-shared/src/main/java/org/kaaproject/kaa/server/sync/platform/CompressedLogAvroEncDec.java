@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.sync.platform;
+
+import org.kaaproject.kaa.common.Constants;
+import org.kaaproject.kaa.common.endpoint.compression.LogEntryCompressor;
+import org.kaaproject.kaa.server.sync.ClientSync;
+import org.kaaproject.kaa.server.sync.LogClientSync;
+import org.kaaproject.kaa.server.sync.LogEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Avro platform protocol with the raw configuration schema, in which every log entry of a
+ * log sync request carries a block of records compressed by {@link LogEntryCompressor}.
+ * Clients select it by sending
+ * {@link Constants#KAA_PLATFORM_PROTOCOL_AVRO_ID_V3} as the platform protocol id.
+ */
+@KaaPlatformProtocol
+public class CompressedLogAvroEncDec extends RawConfigurationSchemaAvroEncDec {
+
+  /**
+   * The maximum number of log records restored from all blocks of a single request.
+   */
+  static final int MAX_SYNC_RECORDS = 4 * LogEntryCompressor.MAX_BLOCK_RECORDS;
+
+  /**
+   * The maximum total size in bytes of the log records restored from a single request.
+   */
+  static final long MAX_SYNC_SIZE = 4 * LogEntryCompressor.MAX_BLOCK_SIZE;
+
+  @Override
+  public int getId() {
+    return Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V3;
+  }
+
+  @Override
+  public ClientSync decode(byte[] data) throws PlatformEncDecException {
+    ClientSync sync = super.decode(data);
+    LogClientSync logSync = sync != null ? sync.getLogSync() : null;
+    if (logSync != null && logSync.getLogEntries() != null) {
+      List<LogEntry> entries = new ArrayList<>();
+      long remainingSize = MAX_SYNC_SIZE;
+      for (LogEntry block : logSync.getLogEntries()) {
+        int maxRecords = Math.min(LogEntryCompressor.MAX_BLOCK_RECORDS,
+            MAX_SYNC_RECORDS - entries.size());
+        long maxSize = Math.min(LogEntryCompressor.MAX_BLOCK_SIZE, remainingSize);
+        try {
+          for (byte[] record : LogEntryCompressor.decompress(
+              toArray(block.getData()), maxRecords, maxSize)) {
+            entries.add(new LogEntry(ByteBuffer.wrap(record)));
+            remainingSize -= record.length;
+          }
+        } catch (IOException ex) {
+          throw new PlatformEncDecException(ex);
+        }
+      }
+      logSync.setLogEntries(entries);
+    }
+    return sync;
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+}
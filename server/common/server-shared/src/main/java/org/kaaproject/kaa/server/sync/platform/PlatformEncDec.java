@@ -18,6 +18,9 @@ package org.kaaproject.kaa.server.sync.platform;
 
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.ServerSync;
+import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
+
+import java.util.Set;
 
 /**
  * The PlatformEncDec is used to decode platform level data to
@@ -48,4 +51,15 @@ public interface PlatformEncDec {
    */
   byte[] encode(ServerSync sync) throws PlatformEncDecException;
 
+  /**
+   * Encodes a successful bootstrap response with the given protocol list once, so that it
+   * can be reused for the responses to different bootstrap requests.
+   *
+   * @param protocols the protocol list of the response
+   * @return the response template
+   * @throws PlatformEncDecException signals that encode exception has occurred.
+   */
+  BootstrapResponseTemplate encodeBootstrapResponse(Set<ProtocolConnectionData> protocols)
+      throws PlatformEncDecException;
+
 }
@@ -63,12 +63,12 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
   /**
    * SOCKET_TIMEOUT on opened connection in seconds.
    */
-  private static final long DEFAULT_SOCKET_TIMEOUT_CONNECTION_TO_NEIGHBOR = 20;
+  public static final long DEFAULT_SOCKET_TIMEOUT_CONNECTION_TO_NEIGHBOR = 20;
 
   /**
    * Default maximum number of event messages queue.
    */
-  private static final int DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH = 1024 * 1024;
+  public static final int DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH = 1024 * 1024;
 
   /**
    * ID of connection in thriftHost:thriftPort format.
@@ -92,7 +92,7 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
   /**
    * Real maximum number of event messages queue.
    */
-  private final int messageQueueLingth = DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH;
+  private final int messageQueueLingth;
 
 
   private ThriftFactory<OperationsThriftService.Iface> clientFactory;
@@ -123,9 +123,25 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
    */
   public NeighborConnection(ConnectionInfo connectionInfo, int maxNumberConnection,
                             long socketTimeout, T template) {
+    this(connectionInfo, maxNumberConnection, socketTimeout,
+        DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH, template);
+  }
+
+  /**
+   * Create new instance of <code>NeighborConnection</code>.
+   *
+   * @param connectionInfo is connection info
+   * @param maxNumberConnection os max number connection
+   * @param socketTimeout is socket timeout
+   * @param messageQueueLength is max number of messages waiting to be sent
+   * @param template is template
+   */
+  public NeighborConnection(ConnectionInfo connectionInfo, int maxNumberConnection,
+                            long socketTimeout, int messageQueueLength, T template) {
     this.connectionInfo = connectionInfo;
     this.maxNumberConnection = maxNumberConnection;
     this.socketTimeout = socketTimeout;
+    this.messageQueueLingth = messageQueueLength;
     this.template = template;
     this.id = Neighbors.getServerId(connectionInfo);
   }
@@ -229,6 +245,27 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
     }
   }
 
+  /**
+   * Queue messages for the neighbor operations server without waiting for free space.
+   * Messages that don't fit into the queue are dropped.
+   *
+   * @param messages a list of messages that will be sent to the neighbor server
+   * @return the number of dropped messages
+   */
+  public int offerMessages(Collection<V> messages) {
+    int dropped = 0;
+    for (V e : messages) {
+      if (!messageQueue.offer(e)) {
+        dropped++;
+      }
+    }
+    if (dropped > 0) {
+      LOG.warn("NeighborConnection [{}] event messages queue is full, {} of {} messages dropped",
+          getId(), dropped, messages.size());
+    }
+    return dropped;
+  }
+
   /**
    * Neighbor Operations Server ID getter.
    *
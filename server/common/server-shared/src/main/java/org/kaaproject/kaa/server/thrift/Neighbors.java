@@ -49,6 +49,8 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
 
   private final int maxNumberNeighborConnections;
 
+  private final int messageQueueLength;
+
   private final T template;
 
   private volatile String zkId;
@@ -58,9 +60,19 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
    * until node is set.
    */
   public Neighbors(KaaThriftService serviceType, T template, int maxNumberNeighborConnections) {
+    this(serviceType, template, maxNumberNeighborConnections,
+        NeighborConnection.DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH);
+  }
+
+  /**
+   * Create neighbors with bounded message queue per neighbor connection.
+   */
+  public Neighbors(KaaThriftService serviceType, T template, int maxNumberNeighborConnections,
+                   int messageQueueLength) {
     this.serviceType = serviceType;
     this.template = template;
     this.maxNumberNeighborConnections = maxNumberNeighborConnections;
+    this.messageQueueLength = messageQueueLength;
     this.neigbors = new ConcurrentHashMap<String, NeighborConnection<T, V>>();
   }
 
@@ -139,6 +151,19 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
     }
   }
 
+  /**
+   * Queue messages for all neighbors without blocking. Messages that don't fit into the queue
+   * of a neighbor are dropped for that neighbor.
+   *
+   * @param msgs <code>Collection</code> of messages
+   */
+  public void offerBroadcastMessages(Collection<V> msgs) {
+    for (NeighborConnection<T, V> neighbor : neigbors.values()) {
+      LOG.trace("Broadcasting to {} neighbor", neighbor);
+      neighbor.offerMessages(msgs);
+    }
+  }
+
   /**
    * Shutdown all neighbors connections and cancel timer task if exist.
    */
@@ -219,7 +244,9 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
     if (!zkId.equals(opId)) {
       LOG.trace("Adding {} to {}", opId, neigbors);
       neigbors.putIfAbsent(opId, new NeighborConnection<T, V>(opServer.getConnectionInfo(),
-          maxNumberNeighborConnections, template));
+          maxNumberNeighborConnections,
+          NeighborConnection.DEFAULT_SOCKET_TIMEOUT_CONNECTION_TO_NEIGHBOR,
+          messageQueueLength, template));
 
       neigbors.get(opId).start();
       LOG.info("Operations server {} added/updated to {} Neighbors list. Now {} neighbors",
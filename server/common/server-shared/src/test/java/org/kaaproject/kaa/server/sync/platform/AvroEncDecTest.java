@@ -49,11 +49,14 @@ import org.kaaproject.kaa.server.sync.SyncStatus;
 import org.kaaproject.kaa.server.sync.UserServerSync;
 import org.kaaproject.kaa.server.sync.UserVerifierErrorCode;
 import org.kaaproject.kaa.server.sync.bootstrap.BootstrapServerSync;
+import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
+import org.kaaproject.kaa.server.sync.bootstrap.ProtocolVersionId;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -378,5 +381,22 @@ public class AvroEncDecTest {
     method.invoke(avroEncDec, new UserSyncRequest());
   }
 
+  @Test
+  public void testEncodeBootstrapResponse() throws PlatformEncDecException {
+    AvroEncDec avroEncDec = new AvroEncDec();
+    Set<ProtocolConnectionData> protocols = new LinkedHashSet<>();
+    protocols.add(new ProtocolConnectionData(1, new ProtocolVersionId(2, 3), new byte[]{1, 2, 3}));
+    protocols.add(new ProtocolConnectionData(-4, new ProtocolVersionId(5, 6), new byte[5]));
+    BootstrapResponseTemplate template = avroEncDec.encodeBootstrapResponse(protocols);
+
+    int[][] requestIds = {{0, 0}, {42, 7}, {-1, 300}, {Integer.MAX_VALUE, Short.MAX_VALUE}};
+    for (int[] ids : requestIds) {
+      ServerSync sync = new ServerSync();
+      sync.setRequestId(ids[0]);
+      sync.setStatus(SyncStatus.SUCCESS);
+      sync.setBootstrapSync(new BootstrapServerSync(ids[1], protocols));
+      Assert.assertArrayEquals(avroEncDec.encode(sync), template.encode(ids[0], ids[1]));
+    }
+  }
 
 }
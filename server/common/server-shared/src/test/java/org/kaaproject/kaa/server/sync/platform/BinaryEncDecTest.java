@@ -40,6 +40,9 @@ import org.kaaproject.kaa.server.sync.SyncStatus;
 import org.kaaproject.kaa.server.sync.UserAttachNotification;
 import org.kaaproject.kaa.server.sync.UserClientSync;
 import org.kaaproject.kaa.server.sync.UserServerSync;
+import org.kaaproject.kaa.server.sync.bootstrap.BootstrapServerSync;
+import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
+import org.kaaproject.kaa.server.sync.bootstrap.ProtocolVersionId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +52,8 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class BinaryEncDecTest {
 
@@ -538,4 +543,22 @@ public class BinaryEncDecTest {
     }
     return outputStream.toByteArray();
   }
+
+  @Test
+  public void testEncodeBootstrapResponse() throws PlatformEncDecException {
+    Set<ProtocolConnectionData> protocols = new LinkedHashSet<>();
+    protocols.add(new ProtocolConnectionData(1, new ProtocolVersionId(2, 3), new byte[]{1, 2, 3}));
+    protocols.add(new ProtocolConnectionData(-4, new ProtocolVersionId(5, 6), new byte[5]));
+    BootstrapResponseTemplate template = encDec.encodeBootstrapResponse(protocols);
+
+    int[][] requestIds = {{0, 0}, {42, 7}, {-1, 300}, {Integer.MAX_VALUE, Short.MAX_VALUE}};
+    for (int[] ids : requestIds) {
+      ServerSync sync = new ServerSync();
+      sync.setRequestId(ids[0]);
+      sync.setStatus(SyncStatus.SUCCESS);
+      sync.setBootstrapSync(new BootstrapServerSync(ids[1], protocols));
+      Assert.assertArrayEquals(encDec.encode(sync), template.encode(ids[0], ids[1]));
+    }
+  }
+
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.sync.platform;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.Constants;
+import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.endpoint.compression.LogEntryCompressor;
+import org.kaaproject.kaa.common.endpoint.gen.LogEntry;
+import org.kaaproject.kaa.common.endpoint.gen.LogSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.SyncRequest;
+import org.kaaproject.kaa.server.sync.ClientSync;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+public class CompressedLogAvroEncDecTest {
+
+  private final AvroByteArrayConverter<SyncRequest> converter =
+      new AvroByteArrayConverter<>(SyncRequest.class);
+
+  @Test
+  public void getIdTest() {
+    Assert.assertEquals(Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V3,
+        new CompressedLogAvroEncDec().getId());
+  }
+
+  @Test
+  public void decodeCompressedLogEntriesTest() throws Exception {
+    List<byte[]> first = Arrays.asList(new byte[] {1, 2, 3}, new byte[] {4});
+    List<byte[]> second = Arrays.asList(new byte[] {5, 6});
+    List<LogEntry> blocks = new ArrayList<>();
+    blocks.add(new LogEntry(ByteBuffer.wrap(LogEntryCompressor.compress(first))));
+    blocks.add(new LogEntry(ByteBuffer.wrap(LogEntryCompressor.compress(second))));
+    SyncRequest request = new SyncRequest();
+    request.setRequestId(42);
+    request.setLogSyncRequest(new LogSyncRequest(7, blocks));
+
+    ClientSync sync = new CompressedLogAvroEncDec().decode(converter.toByteArray(request));
+
+    Assert.assertTrue(sync.isUseConfigurationRawSchema());
+    Assert.assertEquals(7, sync.getLogSync().getRequestId());
+    List<org.kaaproject.kaa.server.sync.LogEntry> entries = sync.getLogSync().getLogEntries();
+    Assert.assertEquals(3, entries.size());
+    Assert.assertEquals(ByteBuffer.wrap(new byte[] {1, 2, 3}), entries.get(0).getData());
+    Assert.assertEquals(ByteBuffer.wrap(new byte[] {4}), entries.get(1).getData());
+    Assert.assertEquals(ByteBuffer.wrap(new byte[] {5, 6}), entries.get(2).getData());
+  }
+
+  @Test
+  public void decodeWithoutLogSyncTest() throws Exception {
+    SyncRequest request = new SyncRequest();
+    request.setRequestId(42);
+    ClientSync sync = new CompressedLogAvroEncDec().decode(converter.toByteArray(request));
+    Assert.assertNull(sync.getLogSync());
+  }
+
+  @Test(expected = PlatformEncDecException.class)
+  public void decodeMalformedBlockTest() throws Exception {
+    SyncRequest request = new SyncRequest();
+    request.setRequestId(42);
+    request.setLogSyncRequest(new LogSyncRequest(7,
+        Arrays.asList(new LogEntry(ByteBuffer.wrap(new byte[] {1, 2, 3})))));
+    new CompressedLogAvroEncDec().decode(converter.toByteArray(request));
+  }
+
+  @Test(expected = PlatformEncDecException.class)
+  public void decodeZlibBombTest() throws Exception {
+    ByteArrayOutputStream block = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(block));
+    output.writeInt(1);
+    output.writeInt(Integer.MAX_VALUE);
+    byte[] zeros = new byte[64 * 1024];
+    for (int i = 0; i < 1024; i++) {
+      output.write(zeros);
+    }
+    output.close();
+    new CompressedLogAvroEncDec().decode(toRequest(Arrays.asList(block.toByteArray())));
+  }
+
+  @Test(expected = PlatformEncDecException.class)
+  public void decodeTooManyRecordsPerRequestTest() throws Exception {
+    List<byte[]> records = new ArrayList<>();
+    for (int i = 0; i < LogEntryCompressor.MAX_BLOCK_RECORDS; i++) {
+      records.add(new byte[0]);
+    }
+    byte[] block = LogEntryCompressor.compress(records);
+    List<byte[]> blocks = new ArrayList<>();
+    for (int i = 0; i <= CompressedLogAvroEncDec.MAX_SYNC_RECORDS / records.size(); i++) {
+      blocks.add(block);
+    }
+    new CompressedLogAvroEncDec().decode(toRequest(blocks));
+  }
+
+  private byte[] toRequest(List<byte[]> blocks) throws IOException {
+    List<LogEntry> entries = new ArrayList<>();
+    for (byte[] block : blocks) {
+      entries.add(new LogEntry(ByteBuffer.wrap(block)));
+    }
+    SyncRequest request = new SyncRequest();
+    request.setRequestId(42);
+    request.setLogSyncRequest(new LogSyncRequest(7, entries));
+    return converter.toByteArray(request);
+  }
+}
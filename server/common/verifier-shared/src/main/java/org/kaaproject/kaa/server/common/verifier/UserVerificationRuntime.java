@@ -0,0 +1,482 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.verifier;
+
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs access token checks of user verifiers on behalf of all applications.
+ *
+ * <p>Results are cached by verifier token, user id and hash of the access token: successful
+ * verifications for <code>successTtl</code> and rejected tokens for <code>failureTtl</code>
+ * milliseconds. Connection, remote and internal errors are not cached. Concurrent checks of
+ * the same token share a single verification, and at most
+ * <code>maxConcurrentVerifications</code> verifications run at the same time; others wait in
+ * a queue. A verification that doesn't complete within <code>verificationTimeout</code>
+ * milliseconds fails with an internal error.
+ */
+public class UserVerificationRuntime {
+
+  private static final Logger LOG = LoggerFactory.getLogger(UserVerificationRuntime.class);
+
+  private final int maxConcurrentVerifications;
+  private final int maxCachedResults;
+  private final long successTtl;
+  private final long failureTtl;
+  private final long verificationTimeout;
+  private final LongSupplier clock;
+  private final ScheduledExecutorService timer;
+
+  private final ConcurrentMap<VerificationKey, CachedResult> results = new ConcurrentHashMap<>();
+  private final Map<VerificationKey, Verification> pending = new HashMap<>();
+  private final Queue<Verification> queued = new ArrayDeque<>();
+  private final Map<String, Long> generations = new HashMap<>();
+  private int inFlight;
+  private boolean stopped;
+
+  /**
+   * Create new instance of <code>UserVerificationRuntime</code>.
+   *
+   * @param maxConcurrentVerifications the maximum number of verifications run concurrently
+   * @param maxCachedResults           the maximum number of cached results
+   * @param successTtl                 the time to live of successful results, in ms
+   * @param failureTtl                 the time to live of rejected tokens, in ms
+   * @param verificationTimeout        the timeout of a single verification, in ms
+   */
+  public UserVerificationRuntime(int maxConcurrentVerifications, int maxCachedResults,
+                                 long successTtl, long failureTtl, long verificationTimeout) {
+    this(maxConcurrentVerifications, maxCachedResults, successTtl, failureTtl,
+        verificationTimeout, System::currentTimeMillis);
+  }
+
+  UserVerificationRuntime(int maxConcurrentVerifications, int maxCachedResults,
+                          long successTtl, long failureTtl, long verificationTimeout,
+                          LongSupplier clock) {
+    this.maxConcurrentVerifications = maxConcurrentVerifications;
+    this.maxCachedResults = maxCachedResults;
+    this.successTtl = successTtl;
+    this.failureTtl = failureTtl;
+    this.verificationTimeout = verificationTimeout;
+    this.clock = clock;
+    this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "user-verification-timer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Verifies the access token of a user with the given verifier, or reports the cached
+   * result of a previous verification.
+   *
+   * @param verifierToken the token of the verifier
+   * @param verifier      the verifier
+   * @param userId        the user external id
+   * @param accessToken   the access token
+   * @param callback      the callback that receives the result
+   */
+  public void verify(String verifierToken, UserVerifier verifier, String userId,
+                     String accessToken, UserVerifierCallback callback) {
+    if (userId == null || accessToken == null) {
+      verifier.checkAccessToken(userId, accessToken, callback);
+      return;
+    }
+    VerificationKey key = new VerificationKey(
+        verifierToken, userId, EndpointObjectHash.fromSha1(accessToken));
+    VerificationResult cached = getCachedResult(key);
+    if (cached != null) {
+      LOG.trace("Reusing cached verification result {} of user {}", cached.type, userId);
+      cached.report(callback);
+      return;
+    }
+    Verification verification;
+    synchronized (this) {
+      if (stopped) {
+        verification = null;
+      } else {
+        verification = pending.get(key);
+        if (verification != null) {
+          LOG.trace("Joining pending verification of user {}", userId);
+          verification.callbacks.add(callback);
+          return;
+        }
+        cached = getCachedResult(key);
+        if (cached == null) {
+          verification = new Verification(key, verifier, accessToken,
+              generations.getOrDefault(verifierToken, 0L));
+          verification.callbacks.add(callback);
+          pending.put(key, verification);
+          if (inFlight < maxConcurrentVerifications) {
+            inFlight++;
+            verification.started = true;
+          } else {
+            queued.add(verification);
+            return;
+          }
+        }
+      }
+    }
+    if (cached != null) {
+      cached.report(callback);
+    } else if (verification == null) {
+      callback.onInternalError("User verification runtime is stopped");
+    } else {
+      start(verification);
+    }
+  }
+
+  /**
+   * Drops the cached results of the verifier, e.g. once its configuration is changed.
+   * Verifications that are already running still report to their callbacks, but their
+   * results are not cached and new checks don't join them. Queued verifications fail.
+   *
+   * @param verifierToken the token of the verifier
+   */
+  public void invalidate(String verifierToken) {
+    List<Verification> rejected = new ArrayList<>();
+    synchronized (this) {
+      generations.merge(verifierToken, 1L, Long::sum);
+      pending.keySet().removeIf(key -> key.verifierToken.equals(verifierToken));
+      Iterator<Verification> iterator = queued.iterator();
+      while (iterator.hasNext()) {
+        Verification verification = iterator.next();
+        if (verification.key.verifierToken.equals(verifierToken)) {
+          iterator.remove();
+          rejected.add(verification);
+        }
+      }
+      results.keySet().removeIf(key -> key.verifierToken.equals(verifierToken));
+    }
+    for (Verification verification : rejected) {
+      verification.onInternalError("User verifier is changed");
+    }
+  }
+
+  /**
+   * Fails the queued verifications and stops the runtime.
+   */
+  public void stop() {
+    List<Verification> rejected;
+    synchronized (this) {
+      stopped = true;
+      rejected = new ArrayList<>(queued);
+      queued.clear();
+      generations.clear();
+    }
+    for (Verification verification : rejected) {
+      verification.onInternalError("User verification runtime is stopped");
+    }
+    timer.shutdownNow();
+    results.clear();
+  }
+
+  private VerificationResult getCachedResult(VerificationKey key) {
+    CachedResult cached = results.get(key);
+    if (cached == null) {
+      return null;
+    }
+    if (cached.expiresAt > clock.getAsLong()) {
+      return cached.result;
+    }
+    results.remove(key, cached);
+    return null;
+  }
+
+  private void cacheResult(VerificationKey key, VerificationResult result) {
+    long ttl;
+    switch (result.type) {
+      case SUCCESS:
+        ttl = successTtl;
+        break;
+      case TOKEN_INVALID:
+      case TOKEN_EXPIRED:
+      case VERIFICATION_FAILURE:
+        ttl = failureTtl;
+        break;
+      default:
+        return;
+    }
+    if (ttl <= 0) {
+      return;
+    }
+    long now = clock.getAsLong();
+    if (results.size() >= maxCachedResults) {
+      Iterator<CachedResult> iterator = results.values().iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().expiresAt <= now) {
+          iterator.remove();
+        }
+      }
+      if (results.size() >= maxCachedResults) {
+        LOG.debug("Verification result cache is full, result is not cached");
+        return;
+      }
+    }
+    results.put(key, new CachedResult(result, now + ttl));
+  }
+
+  private void start(Verification verification) {
+    try {
+      verification.timeout = timer.schedule(
+          () -> verification.onInternalError("User verification timed out"),
+          verificationTimeout, TimeUnit.MILLISECONDS);
+    } catch (RuntimeException ex) {
+      LOG.debug("Unable to schedule verification timeout", ex);
+    }
+    try {
+      verification.verifier.checkAccessToken(
+          verification.key.userId, verification.accessToken, verification);
+    } catch (RuntimeException ex) {
+      LOG.warn("User verifier failed to check access token", ex);
+      verification.onInternalError(ex.getMessage());
+    }
+  }
+
+  private void complete(Verification verification, VerificationResult result) {
+    ScheduledFuture<?> timeout = verification.timeout;
+    if (timeout != null) {
+      timeout.cancel(false);
+    }
+    List<UserVerifierCallback> callbacks;
+    Verification next = null;
+    synchronized (this) {
+      // a result of the verifier configuration that was invalidated meanwhile is not cached
+      if (verification.generation == generations.getOrDefault(verification.key.verifierToken, 0L)) {
+        cacheResult(verification.key, result);
+      }
+      pending.remove(verification.key, verification);
+      callbacks = new ArrayList<>(verification.callbacks);
+      if (verification.started) {
+        next = queued.poll();
+        if (next != null) {
+          next.started = true;
+        } else {
+          inFlight--;
+        }
+      } else {
+        queued.remove(verification);
+      }
+    }
+    for (UserVerifierCallback callback : callbacks) {
+      try {
+        result.report(callback);
+      } catch (RuntimeException ex) {
+        LOG.warn("Failed to report user verification result", ex);
+      }
+    }
+    if (next != null) {
+      start(next);
+    }
+  }
+
+  private enum ResultType {
+    SUCCESS,
+    TOKEN_INVALID,
+    TOKEN_EXPIRED,
+    VERIFICATION_FAILURE,
+    INTERNAL_ERROR,
+    CONNECTION_ERROR,
+    REMOTE_ERROR
+  }
+
+  private static final class VerificationResult {
+    private final ResultType type;
+    private final String reason;
+
+    private VerificationResult(ResultType type, String reason) {
+      this.type = type;
+      this.reason = reason;
+    }
+
+    private void report(UserVerifierCallback callback) {
+      switch (type) {
+        case SUCCESS:
+          callback.onSuccess();
+          break;
+        case TOKEN_INVALID:
+          callback.onTokenInvalid();
+          break;
+        case TOKEN_EXPIRED:
+          callback.onTokenExpired();
+          break;
+        case VERIFICATION_FAILURE:
+          callback.onVerificationFailure(reason);
+          break;
+        case INTERNAL_ERROR:
+          if (reason != null) {
+            callback.onInternalError(reason);
+          } else {
+            callback.onInternalError();
+          }
+          break;
+        case CONNECTION_ERROR:
+          if (reason != null) {
+            callback.onConnectionError(reason);
+          } else {
+            callback.onConnectionError();
+          }
+          break;
+        default:
+          if (reason != null) {
+            callback.onRemoteError(reason);
+          } else {
+            callback.onRemoteError();
+          }
+          break;
+      }
+    }
+  }
+
+  private static final class CachedResult {
+    private final VerificationResult result;
+    private final long expiresAt;
+
+    private CachedResult(VerificationResult result, long expiresAt) {
+      this.result = result;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static final class VerificationKey {
+    private final String verifierToken;
+    private final String userId;
+    private final EndpointObjectHash tokenHash;
+
+    private VerificationKey(String verifierToken, String userId, EndpointObjectHash tokenHash) {
+      this.verifierToken = verifierToken;
+      this.userId = userId;
+      this.tokenHash = tokenHash;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = verifierToken.hashCode();
+      result = 31 * result + userId.hashCode();
+      return 31 * result + tokenHash.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof VerificationKey)) {
+        return false;
+      }
+      VerificationKey other = (VerificationKey) obj;
+      return verifierToken.equals(other.verifierToken) && userId.equals(other.userId)
+          && tokenHash.equals(other.tokenHash);
+    }
+  }
+
+  /**
+   * A verification in progress. It is passed to the verifier as the callback and reports
+   * the first result to all callbacks waiting for it.
+   */
+  private final class Verification implements UserVerifierCallback {
+    private final VerificationKey key;
+    private final UserVerifier verifier;
+    private final String accessToken;
+    private final List<UserVerifierCallback> callbacks = new ArrayList<>();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final long generation;
+    private boolean started;
+    private volatile ScheduledFuture<?> timeout;
+
+    private Verification(VerificationKey key, UserVerifier verifier, String accessToken,
+                         long generation) {
+      this.key = key;
+      this.verifier = verifier;
+      this.accessToken = accessToken;
+      this.generation = generation;
+    }
+
+    private void complete(ResultType type, String reason) {
+      if (completed.compareAndSet(false, true)) {
+        UserVerificationRuntime.this.complete(this, new VerificationResult(type, reason));
+      }
+    }
+
+    @Override
+    public void onSuccess() {
+      complete(ResultType.SUCCESS, null);
+    }
+
+    @Override
+    public void onTokenInvalid() {
+      complete(ResultType.TOKEN_INVALID, null);
+    }
+
+    @Override
+    public void onTokenExpired() {
+      complete(ResultType.TOKEN_EXPIRED, null);
+    }
+
+    @Override
+    public void onVerificationFailure(String reason) {
+      complete(ResultType.VERIFICATION_FAILURE, reason);
+    }
+
+    @Override
+    public void onInternalError() {
+      complete(ResultType.INTERNAL_ERROR, null);
+    }
+
+    @Override
+    public void onInternalError(String reason) {
+      complete(ResultType.INTERNAL_ERROR, reason);
+    }
+
+    @Override
+    public void onConnectionError() {
+      complete(ResultType.CONNECTION_ERROR, null);
+    }
+
+    @Override
+    public void onConnectionError(String reason) {
+      complete(ResultType.CONNECTION_ERROR, reason);
+    }
+
+    @Override
+    public void onRemoteError() {
+      complete(ResultType.REMOTE_ERROR, null);
+    }
+
+    @Override
+    public void onRemoteError(String reason) {
+      complete(ResultType.REMOTE_ERROR, reason);
+    }
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.verifier;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserVerificationRuntimeTest {
+
+  private static final String VERIFIER_TOKEN = "verifier";
+  private static final long SUCCESS_TTL = 1000;
+  private static final long FAILURE_TTL = 100;
+
+  private final AtomicLong time = new AtomicLong();
+  private StubVerifier verifier;
+  private UserVerificationRuntime runtime;
+
+  @Before
+  public void before() {
+    verifier = new StubVerifier();
+    runtime = new UserVerificationRuntime(2, 100, SUCCESS_TTL, FAILURE_TTL, 60000, time::get);
+  }
+
+  @After
+  public void after() {
+    runtime.stop();
+  }
+
+  @Test
+  public void shareConcurrentVerificationTest() {
+    List<ResultCallback> callbacks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ResultCallback callback = new ResultCallback();
+      callbacks.add(callback);
+      runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", callback);
+    }
+    Assert.assertEquals(1, verifier.requests.size());
+
+    verifier.requests.get(0).onSuccess();
+    for (ResultCallback callback : callbacks) {
+      Assert.assertEquals("success", callback.result);
+    }
+  }
+
+  @Test
+  public void cacheResultsTest() {
+    verify("user", "token").onSuccess();
+    verify("user", "invalid").onTokenInvalid();
+
+    ResultCallback success = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", success);
+    ResultCallback invalid = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "invalid", invalid);
+    Assert.assertEquals("success", success.result);
+    Assert.assertEquals("invalid", invalid.result);
+    Assert.assertEquals(2, verifier.requests.size());
+
+    time.set(FAILURE_TTL);
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", new ResultCallback());
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "invalid", new ResultCallback());
+    Assert.assertEquals(3, verifier.requests.size());
+
+    time.set(SUCCESS_TTL);
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", new ResultCallback());
+    Assert.assertEquals(4, verifier.requests.size());
+  }
+
+  @Test
+  public void doNotCacheErrorsTest() {
+    verify("user", "token").onConnectionError("timeout");
+    ResultCallback callback = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", callback);
+    Assert.assertEquals(2, verifier.requests.size());
+    verifier.requests.get(1).onRemoteError();
+    Assert.assertEquals("remote", callback.result);
+  }
+
+  @Test
+  public void keyResultsByVerifierUserAndTokenTest() {
+    verify("user", "token").onSuccess();
+    verify("user", "otherToken").onSuccess();
+    runtime.verify("otherVerifier", verifier, "user", "token", new ResultCallback());
+    runtime.verify(VERIFIER_TOKEN, verifier, "otherUser", "token", new ResultCallback());
+    Assert.assertEquals(4, verifier.requests.size());
+    verifier.requests.get(2).onSuccess();
+    verifier.requests.get(3).onSuccess();
+
+    runtime.invalidate(VERIFIER_TOKEN);
+    runtime.verify("otherVerifier", verifier, "user", "token", new ResultCallback());
+    Assert.assertEquals(4, verifier.requests.size());
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", new ResultCallback());
+    Assert.assertEquals(5, verifier.requests.size());
+  }
+
+  @Test
+  public void skipResultsStartedBeforeInvalidationTest() {
+    ResultCallback running = new ResultCallback();
+    ResultCallback queued = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user1", "token", running);
+    runtime.verify(VERIFIER_TOKEN, verifier, "user2", "token", new ResultCallback());
+    runtime.verify(VERIFIER_TOKEN, verifier, "user3", "token", queued);
+    Assert.assertEquals(2, verifier.requests.size());
+
+    runtime.invalidate(VERIFIER_TOKEN);
+    Assert.assertEquals("internal", queued.result);
+
+    ResultCallback joined = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user1", "token", joined);
+    Assert.assertEquals(2, verifier.requests.size());
+
+    verifier.requests.get(0).onSuccess();
+    Assert.assertEquals("success", running.result);
+    Assert.assertNull(joined.result);
+    Assert.assertEquals(3, verifier.requests.size());
+    verifier.requests.get(2).onTokenInvalid();
+    Assert.assertEquals("invalid", joined.result);
+
+    ResultCallback cached = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user1", "token", cached);
+    Assert.assertEquals(3, verifier.requests.size());
+    Assert.assertEquals("invalid", cached.result);
+  }
+
+  @Test
+  public void boundConcurrentVerificationsTest() {
+    ResultCallback queued = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user1", "token", new ResultCallback());
+    runtime.verify(VERIFIER_TOKEN, verifier, "user2", "token", new ResultCallback());
+    runtime.verify(VERIFIER_TOKEN, verifier, "user3", "token", queued);
+    Assert.assertEquals(2, verifier.requests.size());
+
+    verifier.requests.get(0).onSuccess();
+    Assert.assertEquals(3, verifier.requests.size());
+    verifier.requests.get(2).onTokenExpired();
+    Assert.assertEquals("expired", queued.result);
+  }
+
+  @Test
+  public void failStalledVerificationTest() throws Exception {
+    runtime.stop();
+    runtime = new UserVerificationRuntime(1, 100, SUCCESS_TTL, FAILURE_TTL, 10, time::get);
+    ResultCallback callback = new ResultCallback();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", callback);
+    Assert.assertTrue(callback.completed.await(10, TimeUnit.SECONDS));
+    Assert.assertEquals("internal", callback.result);
+
+    verifier.requests.get(0).onSuccess();
+    runtime.verify(VERIFIER_TOKEN, verifier, "user", "token", new ResultCallback());
+    Assert.assertEquals(2, verifier.requests.size());
+  }
+
+  private UserVerifierCallback verify(String userId, String accessToken) {
+    runtime.verify(VERIFIER_TOKEN, verifier, userId, accessToken, new ResultCallback());
+    return verifier.requests.get(verifier.requests.size() - 1);
+  }
+
+  /**
+   * Records the checks and leaves it to the test to complete them.
+   */
+  private static class StubVerifier implements UserVerifier {
+
+    private final List<UserVerifierCallback> requests = new ArrayList<>();
+
+    @Override
+    public void init(UserVerifierContext context) {
+    }
+
+    @Override
+    public void checkAccessToken(String userExternalId, String accessToken,
+                                 UserVerifierCallback callback) {
+      requests.add(callback);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+  }
+
+  private static class ResultCallback implements UserVerifierCallback {
+
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile String result;
+
+    private void complete(String result) {
+      this.result = result;
+      completed.countDown();
+    }
+
+    @Override
+    public void onSuccess() {
+      complete("success");
+    }
+
+    @Override
+    public void onTokenInvalid() {
+      complete("invalid");
+    }
+
+    @Override
+    public void onTokenExpired() {
+      complete("expired");
+    }
+
+    @Override
+    public void onVerificationFailure(String reason) {
+      complete("failure");
+    }
+
+    @Override
+    public void onInternalError() {
+      complete("internal");
+    }
+
+    @Override
+    public void onInternalError(String reason) {
+      complete("internal");
+    }
+
+    @Override
+    public void onConnectionError() {
+      complete("connection");
+    }
+
+    @Override
+    public void onConnectionError(String reason) {
+      complete("connection");
+    }
+
+    @Override
+    public void onRemoteError() {
+      complete("remote");
+    }
+
+    @Override
+    public void onRemoteError(String reason) {
+      complete("remote");
+    }
+  }
+}
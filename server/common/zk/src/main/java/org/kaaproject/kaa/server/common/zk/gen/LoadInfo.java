@@ -5,12 +5,18 @@
  */
 package org.kaaproject.kaa.server.common.zk.gen;
 
+/** Operations server load. Nodes read it without the writer schema, so records written before or after a field was added cannot be decoded by the other version; all nodes of a cluster must be upgraded together. */
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"LoadInfo\",\"namespace\":\"org.kaaproject.kaa.server.common.zk.gen\",\"fields\":[{\"name\":\"endpointCount\",\"type\":\"int\"},{\"name\":\"loadAverage\",\"type\":\"double\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"LoadInfo\",\"namespace\":\"org.kaaproject.kaa.server.common.zk.gen\",\"doc\":\"Operations server load. Nodes read it without the writer schema, so records written before or after a field was added cannot be decoded by the other version; all nodes of a cluster must be upgraded together.\",\"fields\":[{\"name\":\"endpointCount\",\"type\":\"int\"},{\"name\":\"loadAverage\",\"type\":\"double\"},{\"name\":\"syncRate\",\"type\":[\"null\",\"double\"],\"default\":null},{\"name\":\"syncLatencyP99\",\"type\":[\"null\",\"double\"],\"default\":null},{\"name\":\"mailboxDepth\",\"type\":[\"null\",\"double\"],\"default\":null},{\"name\":\"cpuLoad\",\"type\":[\"null\",\"double\"],\"default\":null},{\"name\":\"heapUsage\",\"type\":[\"null\",\"double\"],\"default\":null}]}");
   private int endpointCount;
   private double loadAverage;
+  private java.lang.Double syncRate;
+  private java.lang.Double syncLatencyP99;
+  private java.lang.Double mailboxDepth;
+  private java.lang.Double cpuLoad;
+  private java.lang.Double heapUsage;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -23,9 +29,14 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
   /**
    * All-args constructor.
    */
-  public LoadInfo(java.lang.Integer endpointCount, java.lang.Double loadAverage) {
+  public LoadInfo(java.lang.Integer endpointCount, java.lang.Double loadAverage, java.lang.Double syncRate, java.lang.Double syncLatencyP99, java.lang.Double mailboxDepth, java.lang.Double cpuLoad, java.lang.Double heapUsage) {
     this.endpointCount = endpointCount;
     this.loadAverage = loadAverage;
+    this.syncRate = syncRate;
+    this.syncLatencyP99 = syncLatencyP99;
+    this.mailboxDepth = mailboxDepth;
+    this.cpuLoad = cpuLoad;
+    this.heapUsage = heapUsage;
   }
 
   public static org.apache.avro.Schema getClassSchema() {
@@ -64,6 +75,16 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
         return endpointCount;
       case 1:
         return loadAverage;
+      case 2:
+        return syncRate;
+      case 3:
+        return syncLatencyP99;
+      case 4:
+        return mailboxDepth;
+      case 5:
+        return cpuLoad;
+      case 6:
+        return heapUsage;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -79,6 +100,21 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
       case 1:
         loadAverage = (java.lang.Double) value$;
         break;
+      case 2:
+        syncRate = (java.lang.Double) value$;
+        break;
+      case 3:
+        syncLatencyP99 = (java.lang.Double) value$;
+        break;
+      case 4:
+        mailboxDepth = (java.lang.Double) value$;
+        break;
+      case 5:
+        cpuLoad = (java.lang.Double) value$;
+        break;
+      case 6:
+        heapUsage = (java.lang.Double) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -116,6 +152,86 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
     this.loadAverage = value;
   }
 
+  /**
+   * Gets the value of the 'syncRate' field.
+   */
+  public java.lang.Double getSyncRate() {
+    return syncRate;
+  }
+
+  /**
+   * Sets the value of the 'syncRate' field.
+   *
+   * @param value the value to set.
+   */
+  public void setSyncRate(java.lang.Double value) {
+    this.syncRate = value;
+  }
+
+  /**
+   * Gets the value of the 'syncLatencyP99' field.
+   */
+  public java.lang.Double getSyncLatencyP99() {
+    return syncLatencyP99;
+  }
+
+  /**
+   * Sets the value of the 'syncLatencyP99' field.
+   *
+   * @param value the value to set.
+   */
+  public void setSyncLatencyP99(java.lang.Double value) {
+    this.syncLatencyP99 = value;
+  }
+
+  /**
+   * Gets the value of the 'mailboxDepth' field.
+   */
+  public java.lang.Double getMailboxDepth() {
+    return mailboxDepth;
+  }
+
+  /**
+   * Sets the value of the 'mailboxDepth' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMailboxDepth(java.lang.Double value) {
+    this.mailboxDepth = value;
+  }
+
+  /**
+   * Gets the value of the 'cpuLoad' field.
+   */
+  public java.lang.Double getCpuLoad() {
+    return cpuLoad;
+  }
+
+  /**
+   * Sets the value of the 'cpuLoad' field.
+   *
+   * @param value the value to set.
+   */
+  public void setCpuLoad(java.lang.Double value) {
+    this.cpuLoad = value;
+  }
+
+  /**
+   * Gets the value of the 'heapUsage' field.
+   */
+  public java.lang.Double getHeapUsage() {
+    return heapUsage;
+  }
+
+  /**
+   * Sets the value of the 'heapUsage' field.
+   *
+   * @param value the value to set.
+   */
+  public void setHeapUsage(java.lang.Double value) {
+    this.heapUsage = value;
+  }
+
   /**
    * RecordBuilder for LoadInfo instances.
    */
@@ -124,6 +240,11 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
 
     private int endpointCount;
     private double loadAverage;
+    private java.lang.Double syncRate;
+    private java.lang.Double syncLatencyP99;
+    private java.lang.Double mailboxDepth;
+    private java.lang.Double cpuLoad;
+    private java.lang.Double heapUsage;
 
     /**
      * Creates a new Builder
@@ -145,6 +266,26 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
         this.loadAverage = data().deepCopy(fields()[1].schema(), other.loadAverage);
         fieldSetFlags()[1] = true;
       }
+      if (isValidValue(fields()[2], other.syncRate)) {
+        this.syncRate = data().deepCopy(fields()[2].schema(), other.syncRate);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.syncLatencyP99)) {
+        this.syncLatencyP99 = data().deepCopy(fields()[3].schema(), other.syncLatencyP99);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.mailboxDepth)) {
+        this.mailboxDepth = data().deepCopy(fields()[4].schema(), other.mailboxDepth);
+        fieldSetFlags()[4] = true;
+      }
+      if (isValidValue(fields()[5], other.cpuLoad)) {
+        this.cpuLoad = data().deepCopy(fields()[5].schema(), other.cpuLoad);
+        fieldSetFlags()[5] = true;
+      }
+      if (isValidValue(fields()[6], other.heapUsage)) {
+        this.heapUsage = data().deepCopy(fields()[6].schema(), other.heapUsage);
+        fieldSetFlags()[6] = true;
+      }
     }
 
     /**
@@ -160,6 +301,26 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
         this.loadAverage = data().deepCopy(fields()[1].schema(), other.loadAverage);
         fieldSetFlags()[1] = true;
       }
+      if (isValidValue(fields()[2], other.syncRate)) {
+        this.syncRate = data().deepCopy(fields()[2].schema(), other.syncRate);
+        fieldSetFlags()[2] = true;
+      }
+      if (isValidValue(fields()[3], other.syncLatencyP99)) {
+        this.syncLatencyP99 = data().deepCopy(fields()[3].schema(), other.syncLatencyP99);
+        fieldSetFlags()[3] = true;
+      }
+      if (isValidValue(fields()[4], other.mailboxDepth)) {
+        this.mailboxDepth = data().deepCopy(fields()[4].schema(), other.mailboxDepth);
+        fieldSetFlags()[4] = true;
+      }
+      if (isValidValue(fields()[5], other.cpuLoad)) {
+        this.cpuLoad = data().deepCopy(fields()[5].schema(), other.cpuLoad);
+        fieldSetFlags()[5] = true;
+      }
+      if (isValidValue(fields()[6], other.heapUsage)) {
+        this.heapUsage = data().deepCopy(fields()[6].schema(), other.heapUsage);
+        fieldSetFlags()[6] = true;
+      }
     }
 
     /**
@@ -226,12 +387,182 @@ public class LoadInfo extends org.apache.avro.specific.SpecificRecordBase implem
       return this;
     }
 
+    /**
+     * Gets the value of the 'syncRate' field
+     */
+    public java.lang.Double getSyncRate() {
+      return syncRate;
+    }
+
+    /**
+     * Sets the value of the 'syncRate' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder setSyncRate(java.lang.Double value) {
+      validate(fields()[2], value);
+      this.syncRate = value;
+      fieldSetFlags()[2] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'syncRate' field has been set
+     */
+    public boolean hasSyncRate() {
+      return fieldSetFlags()[2];
+    }
+
+    /**
+     * Clears the value of the 'syncRate' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder clearSyncRate() {
+      syncRate = null;
+      fieldSetFlags()[2] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'syncLatencyP99' field
+     */
+    public java.lang.Double getSyncLatencyP99() {
+      return syncLatencyP99;
+    }
+
+    /**
+     * Sets the value of the 'syncLatencyP99' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder setSyncLatencyP99(java.lang.Double value) {
+      validate(fields()[3], value);
+      this.syncLatencyP99 = value;
+      fieldSetFlags()[3] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'syncLatencyP99' field has been set
+     */
+    public boolean hasSyncLatencyP99() {
+      return fieldSetFlags()[3];
+    }
+
+    /**
+     * Clears the value of the 'syncLatencyP99' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder clearSyncLatencyP99() {
+      syncLatencyP99 = null;
+      fieldSetFlags()[3] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'mailboxDepth' field
+     */
+    public java.lang.Double getMailboxDepth() {
+      return mailboxDepth;
+    }
+
+    /**
+     * Sets the value of the 'mailboxDepth' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder setMailboxDepth(java.lang.Double value) {
+      validate(fields()[4], value);
+      this.mailboxDepth = value;
+      fieldSetFlags()[4] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'mailboxDepth' field has been set
+     */
+    public boolean hasMailboxDepth() {
+      return fieldSetFlags()[4];
+    }
+
+    /**
+     * Clears the value of the 'mailboxDepth' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder clearMailboxDepth() {
+      mailboxDepth = null;
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'cpuLoad' field
+     */
+    public java.lang.Double getCpuLoad() {
+      return cpuLoad;
+    }
+
+    /**
+     * Sets the value of the 'cpuLoad' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder setCpuLoad(java.lang.Double value) {
+      validate(fields()[5], value);
+      this.cpuLoad = value;
+      fieldSetFlags()[5] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'cpuLoad' field has been set
+     */
+    public boolean hasCpuLoad() {
+      return fieldSetFlags()[5];
+    }
+
+    /**
+     * Clears the value of the 'cpuLoad' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder clearCpuLoad() {
+      cpuLoad = null;
+      fieldSetFlags()[5] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'heapUsage' field
+     */
+    public java.lang.Double getHeapUsage() {
+      return heapUsage;
+    }
+
+    /**
+     * Sets the value of the 'heapUsage' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder setHeapUsage(java.lang.Double value) {
+      validate(fields()[6], value);
+      this.heapUsage = value;
+      fieldSetFlags()[6] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'heapUsage' field has been set
+     */
+    public boolean hasHeapUsage() {
+      return fieldSetFlags()[6];
+    }
+
+    /**
+     * Clears the value of the 'heapUsage' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadInfo.Builder clearHeapUsage() {
+      heapUsage = null;
+      fieldSetFlags()[6] = false;
+      return this;
+    }
+
     @Override
     public LoadInfo build() {
       try {
         LoadInfo record = new LoadInfo();
         record.endpointCount = fieldSetFlags()[0] ? this.endpointCount : (java.lang.Integer) defaultValue(fields()[0]);
         record.loadAverage = fieldSetFlags()[1] ? this.loadAverage : (java.lang.Double) defaultValue(fields()[1]);
+        record.syncRate = fieldSetFlags()[2] ? this.syncRate : (java.lang.Double) defaultValue(fields()[2]);
+        record.syncLatencyP99 = fieldSetFlags()[3] ? this.syncLatencyP99 : (java.lang.Double) defaultValue(fields()[3]);
+        record.mailboxDepth = fieldSetFlags()[4] ? this.mailboxDepth : (java.lang.Double) defaultValue(fields()[4]);
+        record.cpuLoad = fieldSetFlags()[5] ? this.cpuLoad : (java.lang.Double) defaultValue(fields()[5]);
+        record.heapUsage = fieldSetFlags()[6] ? this.heapUsage : (java.lang.Double) defaultValue(fields()[6]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import org.kaaproject.kaa.common.Constants;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.Framer;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.KaaTcpProtocolException;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.listeners.ConnAckListener;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.listeners.DisconnectListener;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.listeners.SyncResponseListener;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.ConnAck;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.Connect;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.Disconnect;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.MessageFactory;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.MqttFrame;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.SyncRequest;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.SyncResponse;
+import org.kaaproject.kaa.common.endpoint.gen.SyncResponseResultType;
+import org.kaaproject.kaa.common.endpoint.security.MessageEncoderDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a single simulated endpoint over one KaaTcp connection.
+ *
+ * <p>The handler sends a Connect frame carrying the registration sync request as soon
+ * as the channel becomes active and, once the connection is accepted, issues one sync
+ * request per sync interval using the configured scenarios in round robin order.
+ */
+public class EndpointChannelHandler extends ChannelInboundHandlerAdapter
+    implements ConnAckListener, SyncResponseListener, DisconnectListener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EndpointChannelHandler.class);
+
+  private static final int KEEP_ALIVE = 200;
+  private static final int MAX_IN_FLIGHT = 8;
+
+  private final SimulatedEndpoint endpoint;
+  private final Options options;
+  private final SyncRequestFactory requestFactory;
+  private final LatencyStats stats;
+  private final Framer framer = new Framer();
+  private ChannelHandlerContext ctx;
+  private ScheduledFuture<?> syncTask;
+
+  /**
+   * Create new endpoint channel handler.
+   *
+   * @param endpoint       the simulated endpoint
+   * @param options        the load generator options
+   * @param requestFactory the sync request factory
+   * @param stats          the latency stats
+   */
+  public EndpointChannelHandler(SimulatedEndpoint endpoint, Options options,
+                                SyncRequestFactory requestFactory, LatencyStats stats) {
+    this.endpoint = endpoint;
+    this.options = options;
+    this.requestFactory = requestFactory;
+    this.stats = stats;
+    MessageFactory messageFactory = new MessageFactory(framer);
+    messageFactory.registerMessageListener((ConnAckListener) this);
+    messageFactory.registerMessageListener((SyncResponseListener) this);
+    messageFactory.registerMessageListener((DisconnectListener) this);
+  }
+
+  @Override
+  public void channelActive(ChannelHandlerContext ctx) throws Exception {
+    this.ctx = ctx;
+    stats.onConnected();
+    int requestId = startRequest(Scenario.REGISTRATION);
+    byte[] body = requestFactory.encode(endpoint, Scenario.REGISTRATION, requestId);
+    Connect connect;
+    if (endpoint.isEncrypted()) {
+      MessageEncoderDecoder encDec = endpoint.getEncDec();
+      byte[] sessionKey = encDec.getEncodedSessionKey();
+      connect = new Connect(KEEP_ALIVE, Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2,
+          sessionKey, encDec.encodeData(body), encDec.sign(sessionKey));
+    } else {
+      connect = new Connect(KEEP_ALIVE, Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID_V2,
+          null, body, null);
+    }
+    send(connect);
+    super.channelActive(ctx);
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    ByteBuf buf = (ByteBuf) msg;
+    try {
+      byte[] data = new byte[buf.readableBytes()];
+      buf.readBytes(data);
+      framer.pushBytes(data);
+    } catch (KaaTcpProtocolException ex) {
+      LOG.warn("[{}] Failed to decode frame", endpoint.getId(), ex);
+      stats.onError();
+      ctx.close();
+    } finally {
+      ReferenceCountUtil.release(msg);
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    if (syncTask != null) {
+      syncTask.cancel(false);
+    }
+    stats.onDisconnected();
+    super.channelInactive(ctx);
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+    LOG.debug("[{}] Channel failure", endpoint.getId(), cause);
+    stats.onError();
+    ctx.close();
+  }
+
+  @Override
+  public void onMessage(ConnAck message) {
+    if (message.getReturnCode() != ConnAck.ReturnCode.ACCEPTED) {
+      LOG.warn("[{}] Connection refused: {}", endpoint.getId(), message.getReturnCode());
+      stats.onError();
+      ctx.close();
+      return;
+    }
+    if (!options.getScenarios().isEmpty()) {
+      long initialDelay = ThreadLocalRandom.current().nextInt(options.getSyncInterval()) + 1;
+      syncTask = ctx.executor().scheduleAtFixedRate(this::sendSync, initialDelay,
+          options.getSyncInterval(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void onMessage(SyncResponse message) {
+    try {
+      byte[] body = message.getAvroObject();
+      if (message.isEncrypted()) {
+        body = endpoint.getEncDec().decodeData(body);
+      }
+      org.kaaproject.kaa.common.endpoint.gen.SyncResponse response =
+          requestFactory.decodeResponse(body);
+      SimulatedEndpoint.InFlightRequest request = endpoint.completeRequest(
+          response.getRequestId());
+      if (request == null) {
+        LOG.debug("[{}] Unexpected response id {}", endpoint.getId(), response.getRequestId());
+        return;
+      }
+      stats.record(request.getScenario(), System.nanoTime() - request.getStartNanos(),
+          response.getStatus() == SyncResponseResultType.SUCCESS);
+    } catch (Exception ex) {
+      LOG.warn("[{}] Failed to decode sync response", endpoint.getId(), ex);
+      stats.onError();
+    }
+  }
+
+  @Override
+  public void onMessage(Disconnect message) {
+    LOG.debug("[{}] Disconnected by server: {}", endpoint.getId(), message.getReason());
+    ctx.close();
+  }
+
+  private void sendSync() {
+    if (endpoint.getInFlightCount() >= MAX_IN_FLIGHT) {
+      return;
+    }
+    try {
+      Scenario scenario = endpoint.nextScenario(options);
+      int requestId = startRequest(scenario);
+      byte[] body = requestFactory.encode(endpoint, scenario, requestId);
+      if (endpoint.isEncrypted()) {
+        body = endpoint.getEncDec().encodeData(body);
+      }
+      send(new SyncRequest(body, false, endpoint.isEncrypted()));
+    } catch (Exception ex) {
+      LOG.warn("[{}] Failed to send sync request", endpoint.getId(), ex);
+      stats.onError();
+    }
+  }
+
+  /**
+   * Starts the request and schedules its timeout. A request without a response within the
+   * timeout is counted as an error and frees its in-flight slot, so a lost response does not
+   * throttle the endpoint for the rest of the run.
+   */
+  private int startRequest(Scenario scenario) {
+    int requestId = endpoint.startRequest(scenario);
+    ctx.executor().schedule(() -> expireRequest(requestId),
+        options.getRequestTimeout(), TimeUnit.MILLISECONDS);
+    return requestId;
+  }
+
+  private void expireRequest(int requestId) {
+    SimulatedEndpoint.InFlightRequest request = endpoint.completeRequest(requestId);
+    if (request != null) {
+      LOG.debug("[{}] Request {} ({}) timed out", endpoint.getId(), requestId,
+          request.getScenario());
+      stats.onError();
+    }
+  }
+
+  private void send(MqttFrame frame) {
+    ctx.writeAndFlush(Unpooled.wrappedBuffer(frame.getFrame()));
+  }
+}
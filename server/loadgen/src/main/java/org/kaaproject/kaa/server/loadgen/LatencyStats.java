@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects round trip latencies per {@link Scenario} and reports percentiles
+ * and throughput both for the last interval and for the whole run.
+ *
+ * <p>Recording is lock free and may be called from any event loop thread;
+ * reporting is expected to be done from a single thread.
+ */
+public class LatencyStats {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+  private final Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+  private final AtomicLong connected = new AtomicLong();
+  private final AtomicLong disconnected = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final long startTime;
+  private long lastReportTime;
+
+  /**
+   * Create new latency stats.
+   */
+  public LatencyStats() {
+    for (Scenario scenario : Scenario.values()) {
+      stats.put(scenario, new ScenarioStats());
+    }
+    startTime = System.nanoTime();
+    lastReportTime = startTime;
+  }
+
+  /**
+   * Records a completed request.
+   *
+   * @param scenario     the scenario of the request
+   * @param latencyNanos the round trip time in nanoseconds
+   * @param success      whether the server reported a successful sync
+   */
+  public void record(Scenario scenario, long latencyNanos, boolean success) {
+    ScenarioStats scenarioStats = stats.get(scenario);
+    scenarioStats.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    if (!success) {
+      scenarioStats.failures.incrementAndGet();
+    }
+  }
+
+  public void onConnected() {
+    connected.incrementAndGet();
+  }
+
+  public void onDisconnected() {
+    disconnected.incrementAndGet();
+  }
+
+  public void onError() {
+    errors.incrementAndGet();
+  }
+
+  public long getConnected() {
+    return connected.get();
+  }
+
+  public long getErrors() {
+    return errors.get();
+  }
+
+  /**
+   * Returns the cumulative histogram for the scenario as of the last report.
+   *
+   * @param scenario the scenario
+   * @return the cumulative histogram, values in microseconds
+   */
+  public Histogram getTotalHistogram(Scenario scenario) {
+    return stats.get(scenario).total;
+  }
+
+  /**
+   * Prints the latencies and throughput of the interval since the previous call.
+   *
+   * @param out the output stream
+   */
+  public void reportInterval(PrintStream out) {
+    long now = System.nanoTime();
+    double seconds = Math.max(1L, now - lastReportTime) / 1e9;
+    lastReportTime = now;
+    out.printf("--- interval %.1fs, connected %d, disconnected %d, errors %d%n",
+        seconds, connected.get(), disconnected.get(), errors.get());
+    for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+      ScenarioStats scenarioStats = entry.getValue();
+      scenarioStats.interval = scenarioStats.recorder.getIntervalHistogram(scenarioStats.interval);
+      scenarioStats.total.add(scenarioStats.interval);
+      print(out, entry.getKey(), scenarioStats.interval, seconds, scenarioStats.failures.get());
+    }
+  }
+
+  /**
+   * Prints the latencies and throughput of the whole run.
+   *
+   * @param out the output stream
+   */
+  public void reportTotal(PrintStream out) {
+    reportInterval(out);
+    double seconds = Math.max(1L, lastReportTime - startTime) / 1e9;
+    out.printf("=== total %.1fs%n", seconds);
+    for (Map.Entry<Scenario, ScenarioStats> entry : stats.entrySet()) {
+      print(out, entry.getKey(), entry.getValue().total, seconds,
+          entry.getValue().failures.get());
+    }
+  }
+
+  private static void print(PrintStream out, Scenario scenario, Histogram histogram,
+                            double seconds, long failures) {
+    long count = histogram.getTotalCount();
+    if (count == 0) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%-14s count=%d rate=%.1f/s failures=%d",
+        scenario.getKey(), count, count / seconds, failures));
+    for (double percentile : PERCENTILES) {
+      sb.append(String.format(" p%s=%.2fms", percentile,
+          histogram.getValueAtPercentile(percentile) / 1000.0));
+    }
+    sb.append(String.format(" max=%.2fms", histogram.getMaxValue() / 1000.0));
+    out.println(sb);
+  }
+
+  private static class ScenarioStats {
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final AtomicLong failures = new AtomicLong();
+    private Histogram interval;
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+import org.kaaproject.kaa.common.endpoint.security.KeyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.PublicKey;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint swarm load generator.
+ *
+ * <p>Opens one KaaTcp connection per simulated endpoint from a shared Netty event loop
+ * group, ramps connections up at the configured rate and reports latency percentiles
+ * and throughput per scenario.
+ */
+public class LoadGenerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LoadGenerator.class);
+
+  private static final int CONNECT_TIMEOUT = 10000;
+
+  private final Options options;
+  private final LatencyStats stats = new LatencyStats();
+  private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+  public LoadGenerator(Options options) {
+    this.options = options;
+  }
+
+  /**
+   * The entry point of the load generator.
+   *
+   * @param args the input options
+   */
+  public static void main(String[] args) throws Exception {
+    Options options = new Options();
+
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.charAt(0) == '-') {
+        String option = arg.substring(1, arg.length()).trim();
+        if (i >= args.length - 1) {
+          throw new IllegalArgumentException("Not found value after option -" + option);
+        }
+        String value = args[i + 1];
+        switch (option) {
+          case "h":
+            options.setHost(value);
+            break;
+          case "p":
+            options.setPort(Integer.parseInt(value));
+            break;
+          case "sdk":
+            options.setSdkToken(value);
+            break;
+          case "n":
+            options.setEndpoints(Integer.parseInt(value));
+            break;
+          case "rate":
+            options.setConnectRate(Integer.parseInt(value));
+            break;
+          case "d":
+            options.setDuration(Integer.parseInt(value));
+            break;
+          case "i":
+            options.setSyncInterval(Integer.parseInt(value));
+            break;
+          case "t":
+            options.setThreads(Integer.parseInt(value));
+            break;
+          case "s":
+            options.setScenarios(value);
+            break;
+          case "logs":
+            options.setLogRecords(Integer.parseInt(value));
+            break;
+          case "logSize":
+            options.setLogRecordSize(Integer.parseInt(value));
+            break;
+          case "event":
+            options.setEventClassFqn(value);
+            break;
+          case "key":
+            options.setServerPublicKey(value);
+            break;
+          case "profile":
+            options.setProfileBody(value);
+            break;
+          case "report":
+            options.setReportInterval(Integer.parseInt(value));
+            break;
+          case "timeout":
+            options.setRequestTimeout(Integer.parseInt(value));
+            break;
+          default:
+            throw new IllegalArgumentException("No such option: -" + option);
+        }
+      }
+    }
+
+    if (options.getSdkToken() == null) {
+      throw new IllegalArgumentException("SDK token is required, use -sdk <token>");
+    }
+
+    LOG.info(options.toString());
+    new LoadGenerator(options).run();
+  }
+
+  /**
+   * Runs the load for the configured duration and prints the report to stdout.
+   */
+  public void run() throws Exception {
+    PublicKey serverKey = options.isEncrypted()
+        ? KeyUtil.getPublic(new File(options.getServerPublicKey()))
+        : null;
+    byte[] profileBody = options.getProfileBody() != null
+        ? Files.readAllBytes(Paths.get(options.getProfileBody()))
+        : new byte[0];
+    SyncRequestFactory requestFactory = new SyncRequestFactory(options, profileBody);
+
+    // Key pairs are generated right before each endpoint connects, off the event loop, so the
+    // ramp up starts immediately and only connected endpoints hold their keys.
+    ScheduledExecutorService keyGenerator = Executors.newScheduledThreadPool(
+        Runtime.getRuntime().availableProcessors());
+    EventLoopGroup group = new NioEventLoopGroup(options.getThreads());
+    try {
+      Bootstrap bootstrap = new Bootstrap()
+          .group(group)
+          .channel(NioSocketChannel.class)
+          .option(ChannelOption.TCP_NODELAY, true)
+          .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT)
+          .remoteAddress(options.getHost(), options.getPort());
+
+      long connectPeriod = TimeUnit.SECONDS.toNanos(1) / Math.max(1, options.getConnectRate());
+      for (int i = 0; i < options.getEndpoints(); i++) {
+        int id = i;
+        keyGenerator.schedule(() -> {
+          try {
+            connect(bootstrap, new SimulatedEndpoint(id, KeyUtil.generateKeyPair(), serverKey),
+                requestFactory);
+          } catch (Exception ex) {
+            LOG.warn("[{}] Failed to generate endpoint key pair", id, ex);
+            stats.onError();
+          }
+        }, connectPeriod * id, TimeUnit.NANOSECONDS);
+      }
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getDuration());
+      long reportPeriod = TimeUnit.SECONDS.toMillis(Math.max(1, options.getReportInterval()));
+      while (System.nanoTime() < deadline) {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        Thread.sleep(Math.max(1L, Math.min(reportPeriod, remaining)));
+        if (System.nanoTime() < deadline) {
+          stats.reportInterval(System.out);
+        }
+      }
+      channels.close().awaitUninterruptibly();
+      stats.reportTotal(System.out);
+    } finally {
+      keyGenerator.shutdownNow();
+      group.shutdownGracefully().awaitUninterruptibly();
+    }
+  }
+
+  private void connect(Bootstrap bootstrap, SimulatedEndpoint endpoint,
+                       SyncRequestFactory requestFactory) {
+    ChannelFuture future = bootstrap.clone()
+        .handler(new ChannelInitializer<SocketChannel>() {
+          @Override
+          protected void initChannel(SocketChannel ch) throws Exception {
+            ch.pipeline().addLast(
+                new EndpointChannelHandler(endpoint, options, requestFactory, stats));
+          }
+        })
+        .connect();
+    channels.add(future.channel());
+    future.addListener((ChannelFutureListener) result -> {
+      if (!result.isSuccess()) {
+        LOG.debug("[{}] Failed to connect", endpoint.getId(), result.cause());
+        stats.onError();
+      }
+    });
+  }
+}
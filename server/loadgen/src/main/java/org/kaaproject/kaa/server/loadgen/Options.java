@@ -0,0 +1,218 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Load generator options.
+ */
+public class Options {
+
+  private String host = "localhost";
+  private int port = 9997;
+  private String sdkToken;
+  private int endpoints = 100;
+  private int connectRate = 50;
+  private int duration = 60;
+  private int syncInterval = 1000;
+  private int threads = Runtime.getRuntime().availableProcessors();
+  private int logRecords = 10;
+  private int logRecordSize = 64;
+  private int reportInterval = 10;
+  private int requestTimeout = 10000;
+  private String eventClassFqn;
+  private String serverPublicKey;
+  private String profileBody;
+  private List<Scenario> scenarios = new ArrayList<>();
+
+  /**
+   * Create options with the default set of scenarios.
+   */
+  public Options() {
+    Collections.addAll(scenarios, Scenario.PROFILE_UPDATE, Scenario.CONFIGURATION_SYNC,
+        Scenario.NOTIFICATION_SYNC, Scenario.LOG_UPLOAD);
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public String getSdkToken() {
+    return sdkToken;
+  }
+
+  public void setSdkToken(String sdkToken) {
+    this.sdkToken = sdkToken;
+  }
+
+  public int getEndpoints() {
+    return endpoints;
+  }
+
+  public void setEndpoints(int endpoints) {
+    this.endpoints = endpoints;
+  }
+
+  public int getConnectRate() {
+    return connectRate;
+  }
+
+  public void setConnectRate(int connectRate) {
+    this.connectRate = connectRate;
+  }
+
+  public int getDuration() {
+    return duration;
+  }
+
+  public void setDuration(int duration) {
+    this.duration = duration;
+  }
+
+  public int getSyncInterval() {
+    return syncInterval;
+  }
+
+  public void setSyncInterval(int syncInterval) {
+    this.syncInterval = syncInterval;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getLogRecords() {
+    return logRecords;
+  }
+
+  public void setLogRecords(int logRecords) {
+    this.logRecords = logRecords;
+  }
+
+  public int getLogRecordSize() {
+    return logRecordSize;
+  }
+
+  public void setLogRecordSize(int logRecordSize) {
+    this.logRecordSize = logRecordSize;
+  }
+
+  public int getReportInterval() {
+    return reportInterval;
+  }
+
+  public void setReportInterval(int reportInterval) {
+    this.reportInterval = reportInterval;
+  }
+
+  public int getRequestTimeout() {
+    return requestTimeout;
+  }
+
+  public void setRequestTimeout(int requestTimeout) {
+    this.requestTimeout = requestTimeout;
+  }
+
+  public String getEventClassFqn() {
+    return eventClassFqn;
+  }
+
+  public void setEventClassFqn(String eventClassFqn) {
+    this.eventClassFqn = eventClassFqn;
+  }
+
+  public String getServerPublicKey() {
+    return serverPublicKey;
+  }
+
+  public void setServerPublicKey(String serverPublicKey) {
+    this.serverPublicKey = serverPublicKey;
+  }
+
+  public String getProfileBody() {
+    return profileBody;
+  }
+
+  public void setProfileBody(String profileBody) {
+    this.profileBody = profileBody;
+  }
+
+  public List<Scenario> getScenarios() {
+    return scenarios;
+  }
+
+  /**
+   * Parses a comma separated list of scenario keys.
+   *
+   * @param scenarioKeys the scenario keys, i.e. "profile,log"
+   */
+  public void setScenarios(String scenarioKeys) {
+    List<Scenario> parsed = new ArrayList<>();
+    for (String key : scenarioKeys.split(",")) {
+      Scenario scenario = Scenario.fromKey(key);
+      if (scenario != Scenario.REGISTRATION) {
+        parsed.add(scenario);
+      }
+    }
+    this.scenarios = parsed;
+  }
+
+  public boolean isEncrypted() {
+    return serverPublicKey != null;
+  }
+
+  @Override
+  public String toString() {
+    return "Options{"
+        + "host='" + host + '\''
+        + ", port=" + port
+        + ", sdkToken='" + sdkToken + '\''
+        + ", endpoints=" + endpoints
+        + ", connectRate=" + connectRate
+        + ", duration=" + duration
+        + ", syncInterval=" + syncInterval
+        + ", threads=" + threads
+        + ", logRecords=" + logRecords
+        + ", logRecordSize=" + logRecordSize
+        + ", reportInterval=" + reportInterval
+        + ", requestTimeout=" + requestTimeout
+        + ", eventClassFqn='" + eventClassFqn + '\''
+        + ", serverPublicKey='" + serverPublicKey + '\''
+        + ", profileBody='" + profileBody + '\''
+        + ", scenarios=" + scenarios
+        + '}';
+  }
+}
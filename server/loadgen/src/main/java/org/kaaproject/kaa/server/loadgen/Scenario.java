@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+/**
+ * Traffic scenarios that a simulated endpoint can run against an operations server.
+ */
+public enum Scenario {
+
+  /** Initial connect with the endpoint public key and profile body. */
+  REGISTRATION("registration"),
+  /** Profile update with a new profile hash and body. */
+  PROFILE_UPDATE("profile"),
+  /** Configuration resync request. */
+  CONFIGURATION_SYNC("configuration"),
+  /** Notification topic list sync. */
+  NOTIFICATION_SYNC("notification"),
+  /** Upload of a batch of log records. */
+  LOG_UPLOAD("log"),
+  /** Event sequence number request with optional outgoing events. */
+  EVENTS("events");
+
+  private final String key;
+
+  Scenario(String key) {
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Finds the scenario by its command line key.
+   *
+   * @param key the scenario key
+   * @return the scenario
+   */
+  public static Scenario fromKey(String key) {
+    for (Scenario scenario : values()) {
+      if (scenario.key.equalsIgnoreCase(key.trim())) {
+        return scenario;
+      }
+    }
+    throw new IllegalArgumentException("No such scenario: " + key);
+  }
+}
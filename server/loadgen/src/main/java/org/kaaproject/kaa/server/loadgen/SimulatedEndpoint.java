@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import org.kaaproject.kaa.common.endpoint.security.MessageEncoderDecoder;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of a single simulated endpoint.
+ *
+ * <p>All mutable state except the in-flight request table is only touched from
+ * the event loop thread the endpoint channel is bound to.
+ */
+public class SimulatedEndpoint {
+
+  private final int id;
+  private final KeyPair keyPair;
+  private final EndpointObjectHash keyHash;
+  private final MessageEncoderDecoder encDec;
+  private final Map<Integer, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+  private int requestId;
+  private int profileVersion;
+  private int eventSeqNum;
+  private int scenarioIndex;
+
+  /**
+   * Create new simulated endpoint.
+   *
+   * @param id              the endpoint number within the swarm
+   * @param keyPair         the endpoint key pair
+   * @param serverPublicKey the operations server public key, null for unencrypted mode
+   */
+  public SimulatedEndpoint(int id, KeyPair keyPair, PublicKey serverPublicKey) {
+    this.id = id;
+    this.keyPair = keyPair;
+    this.keyHash = EndpointObjectHash.fromSha1(keyPair.getPublic().getEncoded());
+    this.encDec = serverPublicKey != null
+        ? new MessageEncoderDecoder(keyPair.getPrivate(), keyPair.getPublic(), serverPublicKey)
+        : null;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public KeyPair getKeyPair() {
+    return keyPair;
+  }
+
+  public EndpointObjectHash getKeyHash() {
+    return keyHash;
+  }
+
+  public MessageEncoderDecoder getEncDec() {
+    return encDec;
+  }
+
+  public boolean isEncrypted() {
+    return encDec != null;
+  }
+
+  /**
+   * Registers a new request as in-flight.
+   *
+   * @param scenario the request scenario
+   * @return the request id
+   */
+  public int startRequest(Scenario scenario) {
+    int nextId = ++requestId;
+    inFlight.put(nextId, new InFlightRequest(scenario, System.nanoTime()));
+    return nextId;
+  }
+
+  /**
+   * Completes the in-flight request.
+   *
+   * @param responseId the request id from the sync response
+   * @return the completed request or null if it is unknown
+   */
+  public InFlightRequest completeRequest(int responseId) {
+    return inFlight.remove(responseId);
+  }
+
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  public int nextProfileVersion() {
+    return ++profileVersion;
+  }
+
+  public int nextEventSeqNum() {
+    return ++eventSeqNum;
+  }
+
+  /**
+   * Picks the next scenario in round robin order.
+   *
+   * @param options the load generator options
+   * @return the next scenario
+   */
+  public Scenario nextScenario(Options options) {
+    Scenario scenario = options.getScenarios().get(scenarioIndex);
+    scenarioIndex = (scenarioIndex + 1) % options.getScenarios().size();
+    return scenario;
+  }
+
+  /**
+   * A request waiting for a sync response.
+   */
+  public static class InFlightRequest {
+    private final Scenario scenario;
+    private final long startNanos;
+
+    InFlightRequest(Scenario scenario, long startNanos) {
+      this.scenario = scenario;
+      this.startNanos = startNanos;
+    }
+
+    public Scenario getScenario() {
+      return scenario;
+    }
+
+    public long getStartNanos() {
+      return startNanos;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.endpoint.gen.ConfigurationSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.Event;
+import org.kaaproject.kaa.common.endpoint.gen.EventSequenceNumberRequest;
+import org.kaaproject.kaa.common.endpoint.gen.EventSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.LogEntry;
+import org.kaaproject.kaa.common.endpoint.gen.LogSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.NotificationSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.ProfileSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.SyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.SyncRequestMetaData;
+import org.kaaproject.kaa.common.endpoint.gen.SyncResponse;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds Avro encoded sync requests for the load generator scenarios.
+ *
+ * <p>The factory is shared by all event loop threads, Avro converters are kept per thread.
+ */
+public class SyncRequestFactory {
+
+  private static final long SYNC_TIMEOUT = 0L;
+
+  private final Options options;
+  private final byte[] profileBody;
+  private final byte[] logRecord;
+  private final ThreadLocal<AvroByteArrayConverter<SyncRequest>> requestConverter =
+      ThreadLocal.withInitial(() -> new AvroByteArrayConverter<>(SyncRequest.class));
+  private final ThreadLocal<AvroByteArrayConverter<SyncResponse>> responseConverter =
+      ThreadLocal.withInitial(() -> new AvroByteArrayConverter<>(SyncResponse.class));
+
+  /**
+   * Create new sync request factory.
+   *
+   * @param options     the load generator options
+   * @param profileBody the Avro binary encoded profile body
+   */
+  public SyncRequestFactory(Options options, byte[] profileBody) {
+    this.options = options;
+    this.profileBody = profileBody;
+    this.logRecord = new byte[options.getLogRecordSize()];
+    new Random(options.getLogRecordSize()).nextBytes(logRecord);
+  }
+
+  /**
+   * Builds the sync request for the scenario.
+   *
+   * @param endpoint  the simulated endpoint
+   * @param scenario  the scenario
+   * @param requestId the request id
+   * @return the sync request
+   */
+  public SyncRequest build(SimulatedEndpoint endpoint, Scenario scenario, int requestId) {
+    SyncRequest request = new SyncRequest();
+    request.setRequestId(requestId);
+    request.setSyncRequestMetaData(buildMetaData(endpoint, scenario));
+    switch (scenario) {
+      case REGISTRATION:
+        request.setProfileSyncRequest(new ProfileSyncRequest(
+            ByteBuffer.wrap(endpoint.getKeyPair().getPublic().getEncoded()),
+            ByteBuffer.wrap(profileBody), null));
+        break;
+      case PROFILE_UPDATE:
+        request.setProfileSyncRequest(new ProfileSyncRequest(
+            null, ByteBuffer.wrap(profileBody), null));
+        break;
+      case CONFIGURATION_SYNC:
+        request.setConfigurationSyncRequest(
+            new ConfigurationSyncRequest(ByteBuffer.wrap(new byte[0]), true));
+        break;
+      case NOTIFICATION_SYNC:
+        request.setNotificationSyncRequest(new NotificationSyncRequest(
+            0, Collections.emptyList(), null, null));
+        break;
+      case LOG_UPLOAD:
+        request.setLogSyncRequest(new LogSyncRequest(requestId, buildLogEntries()));
+        break;
+      case EVENTS:
+        request.setEventSyncRequest(buildEventSyncRequest(endpoint));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported scenario: " + scenario);
+    }
+    return request;
+  }
+
+  /**
+   * Builds and serializes the sync request for the scenario.
+   *
+   * @param endpoint  the simulated endpoint
+   * @param scenario  the scenario
+   * @param requestId the request id
+   * @return the Avro binary encoded sync request
+   * @throws IOException if serialization fails
+   */
+  public byte[] encode(SimulatedEndpoint endpoint, Scenario scenario, int requestId)
+      throws IOException {
+    return requestConverter.get().toByteArray(build(endpoint, scenario, requestId));
+  }
+
+  public SyncResponse decodeResponse(byte[] data) throws IOException {
+    return responseConverter.get().fromByteArray(data);
+  }
+
+  private SyncRequestMetaData buildMetaData(SimulatedEndpoint endpoint, Scenario scenario) {
+    SyncRequestMetaData metaData = new SyncRequestMetaData();
+    metaData.setSdkToken(options.getSdkToken());
+    metaData.setEndpointPublicKeyHash(ByteBuffer.wrap(endpoint.getKeyHash().getData()));
+    byte[] profileHash = scenario == Scenario.PROFILE_UPDATE
+        ? EndpointObjectHash.fromSha1(
+            (endpoint.getId() + ":" + endpoint.nextProfileVersion())
+                .getBytes(StandardCharsets.UTF_8)).getData()
+        : EndpointObjectHash.fromSha1(profileBody).getData();
+    metaData.setProfileHash(ByteBuffer.wrap(profileHash));
+    metaData.setTimeout(SYNC_TIMEOUT);
+    return metaData;
+  }
+
+  private List<LogEntry> buildLogEntries() {
+    List<LogEntry> entries = new ArrayList<>(options.getLogRecords());
+    for (int i = 0; i < options.getLogRecords(); i++) {
+      entries.add(new LogEntry(ByteBuffer.wrap(logRecord)));
+    }
+    return entries;
+  }
+
+  private EventSyncRequest buildEventSyncRequest(SimulatedEndpoint endpoint) {
+    EventSyncRequest request = new EventSyncRequest();
+    request.setEventSequenceNumberRequest(new EventSequenceNumberRequest());
+    if (options.getEventClassFqn() != null) {
+      Event event = new Event(endpoint.nextEventSeqNum(), options.getEventClassFqn(),
+          ByteBuffer.wrap(new byte[0]), null, null);
+      request.setEvents(Collections.singletonList(event));
+    }
+    return request;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyStatsTest {
+
+  @Test
+  public void percentilesTest() throws Exception {
+    LatencyStats stats = new LatencyStats();
+    for (int i = 1; i <= 100; i++) {
+      stats.record(Scenario.LOG_UPLOAD, TimeUnit.MILLISECONDS.toNanos(i), i != 100);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    stats.reportTotal(new PrintStream(out, true, "UTF-8"));
+
+    Assert.assertEquals(100, stats.getTotalHistogram(Scenario.LOG_UPLOAD).getTotalCount());
+    Assert.assertEquals(0, stats.getTotalHistogram(Scenario.EVENTS).getTotalCount());
+    long p50 = stats.getTotalHistogram(Scenario.LOG_UPLOAD).getValueAtPercentile(50.0);
+    Assert.assertEquals(50000, p50, 100);
+    String report = out.toString("UTF-8");
+    Assert.assertTrue(report.contains("log"));
+    Assert.assertTrue(report.contains("failures=1"));
+  }
+
+  @Test
+  public void intervalsAccumulateTest() {
+    LatencyStats stats = new LatencyStats();
+    PrintStream out = new PrintStream(new ByteArrayOutputStream());
+    stats.record(Scenario.PROFILE_UPDATE, 1000000L, true);
+    stats.reportInterval(out);
+    stats.record(Scenario.PROFILE_UPDATE, 2000000L, true);
+    stats.reportInterval(out);
+    Assert.assertEquals(2, stats.getTotalHistogram(Scenario.PROFILE_UPDATE).getTotalCount());
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.loadgen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.endpoint.gen.SyncRequest;
+import org.kaaproject.kaa.common.endpoint.security.KeyUtil;
+
+public class SyncRequestFactoryTest {
+
+  private Options options;
+  private SyncRequestFactory factory;
+  private SimulatedEndpoint endpoint;
+
+  @Before
+  public void before() throws Exception {
+    options = new Options();
+    options.setSdkToken("sdkToken");
+    options.setLogRecords(3);
+    options.setLogRecordSize(16);
+    options.setEventClassFqn("org.kaaproject.Event");
+    factory = new SyncRequestFactory(options, new byte[0]);
+    endpoint = new SimulatedEndpoint(1, KeyUtil.generateKeyPair(), null);
+  }
+
+  @Test
+  public void registrationRequestTest() throws Exception {
+    SyncRequest request = decode(factory.encode(endpoint, Scenario.REGISTRATION, 1));
+    Assert.assertEquals(1, request.getRequestId().intValue());
+    Assert.assertEquals("sdkToken", request.getSyncRequestMetaData().getSdkToken());
+    Assert.assertArrayEquals(endpoint.getKeyHash().getData(),
+        request.getSyncRequestMetaData().getEndpointPublicKeyHash().array());
+    Assert.assertArrayEquals(endpoint.getKeyPair().getPublic().getEncoded(),
+        request.getProfileSyncRequest().getEndpointPublicKey().array());
+  }
+
+  @Test
+  public void profileUpdateChangesProfileHashTest() throws Exception {
+    SyncRequest first = factory.build(endpoint, Scenario.PROFILE_UPDATE, 1);
+    SyncRequest second = factory.build(endpoint, Scenario.PROFILE_UPDATE, 2);
+    Assert.assertNull(first.getProfileSyncRequest().getEndpointPublicKey());
+    Assert.assertNotEquals(first.getSyncRequestMetaData().getProfileHash(),
+        second.getSyncRequestMetaData().getProfileHash());
+  }
+
+  @Test
+  public void logUploadTest() throws Exception {
+    SyncRequest request = decode(factory.encode(endpoint, Scenario.LOG_UPLOAD, 5));
+    Assert.assertEquals(5, request.getLogSyncRequest().getRequestId().intValue());
+    Assert.assertEquals(3, request.getLogSyncRequest().getLogEntries().size());
+    Assert.assertEquals(16, request.getLogSyncRequest().getLogEntries().get(0)
+        .getData().remaining());
+  }
+
+  @Test
+  public void eventsTest() throws Exception {
+    SyncRequest request = decode(factory.encode(endpoint, Scenario.EVENTS, 2));
+    Assert.assertNotNull(request.getEventSyncRequest().getEventSequenceNumberRequest());
+    Assert.assertEquals("org.kaaproject.Event",
+        request.getEventSyncRequest().getEvents().get(0).getEventClassFQN());
+  }
+
+  @Test
+  public void scenarioRoundRobinTest() {
+    options.setScenarios("configuration, notification,registration");
+    Assert.assertEquals(Scenario.CONFIGURATION_SYNC, endpoint.nextScenario(options));
+    Assert.assertEquals(Scenario.NOTIFICATION_SYNC, endpoint.nextScenario(options));
+    Assert.assertEquals(Scenario.CONFIGURATION_SYNC, endpoint.nextScenario(options));
+  }
+
+  private SyncRequest decode(byte[] data) throws Exception {
+    return new AvroByteArrayConverter<>(SyncRequest.class).fromByteArray(data);
+  }
+}
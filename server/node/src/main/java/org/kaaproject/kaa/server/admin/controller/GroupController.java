@@ -24,13 +24,24 @@ import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.codec.binary.Base64;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.kaaproject.kaa.common.dto.EndpointGroupDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.PageLinkDto;
 import org.kaaproject.kaa.common.dto.ProfileFilterDto;
 import org.kaaproject.kaa.common.dto.ProfileFilterRecordDto;
 import org.kaaproject.kaa.common.dto.ProfileVersionPairDto;
+import org.kaaproject.kaa.server.admin.services.util.Utils;
+import org.kaaproject.kaa.server.admin.servlet.ServletUtils;
 import org.kaaproject.kaa.server.admin.shared.services.KaaAdminServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,9 +55,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 @Api(value = "Grouping",
     description = "Provides function for manage groups",
@@ -64,6 +81,26 @@ public class GroupController extends AbstractAdminController {
 
   private static final String DEFAULT_OFFSET = "0";
 
+  private static final String EXPORT_PAGE_SIZE = "500";
+
+  private static final String EXPORT_FORMAT_JSON = "json";
+
+  private static final String EXPORT_FORMAT_AVRO = "avro";
+
+  private static final int BUFFER = 1024 * 100;
+
+  private static final ObjectMapper FORMATTER = new ObjectMapper();
+
+  private static final Schema EXPORT_SCHEMA = new Schema.Parser().parse(
+      "{\"type\":\"record\",\"name\":\"EndpointProfileBody\","
+          + "\"namespace\":\"org.kaaproject.kaa.server.admin.export\",\"fields\":["
+          + "{\"name\":\"endpointKeyHash\",\"type\":\"bytes\"},"
+          + "{\"name\":\"appId\",\"type\":[\"null\",\"string\"]},"
+          + "{\"name\":\"clientSideProfileVersion\",\"type\":\"int\"},"
+          + "{\"name\":\"clientSideProfile\",\"type\":[\"null\",\"string\"]},"
+          + "{\"name\":\"serverSideProfileVersion\",\"type\":\"int\"},"
+          + "{\"name\":\"serverSideProfile\",\"type\":[\"null\",\"string\"]}]}");
+
   /**
    * Gets all endpoint groups by application token.
    *
@@ -580,6 +617,128 @@ public class GroupController extends AbstractAdminController {
     return endpointProfilesBodyDto;
   }
 
+  //TODO move to ProfileController?
+  /**
+   * Streams all endpoint profile bodies of the endpoint group to the response. Profiles are read
+   * page by page in endpoint key hash order and written out as they arrive, so the export does not
+   * hold more than one page in memory regardless of the group size.
+   *
+   * @param endpointGroupId the endpoint group id
+   * @param format          the output format, either "json" (newline-delimited JSON) or "avro"
+   *                        (Avro object container file)
+   * @param request         the request
+   * @param response        the response
+   * @throws KaaAdminServiceException the kaa admin service exception
+   */
+  @ApiOperation(value = "Export endpoint profiles bodies based on endpoint group id",
+      notes = "Streams all endpoint profiles bodies of the endpoint group as newline-delimited "
+          + "JSON or as an Avro object container file. Only users with the TENANT_DEVELOPER or "
+          + "TENANT_USER role are allowed to request this information.")
+  @ApiResponses(value = {
+      @ApiResponse(code = 400, message = "Invalid endpointGroupId/format supplied"),
+      @ApiResponse(code = 401, message = "The user is not authenticated "
+          + "or invalid credentials were provided"),
+      @ApiResponse(code = 403, message = "The authenticated user does not "
+          + "have the required role (TENANT_DEVELOPER or TENANT_USER) or the Tenant ID "
+          + "of the application does not match the Tenant ID of the authenticated user"),
+      @ApiResponse(code = 404,
+          message = "Endpoint group with the specified endpointGroupId does not exist"),
+      @ApiResponse(code = 500,
+          message = "An unexpected error occurred on the server side")})
+  @RequestMapping(value = "endpointProfileBodyByGroupId/export", method = RequestMethod.GET)
+  @ResponseStatus(value = HttpStatus.OK)
+  public void exportEndpointProfileBodyByEndpointGroupId(
+      @ApiParam(name = "endpointGroupId",
+          value = "The id of the endpoint group.",
+          required = true)
+      @RequestParam(value = "endpointGroupId") String endpointGroupId,
+      @ApiParam(name = "format",
+          value = "The output format: \"json\" or \"avro\". (Optional parameter)",
+          defaultValue = EXPORT_FORMAT_JSON,
+          required = false)
+      @RequestParam(value = "format",
+          defaultValue = EXPORT_FORMAT_JSON,
+          required = false) String format,
+      HttpServletRequest request, HttpServletResponse response)
+      throws KaaAdminServiceException {
+    boolean avro = EXPORT_FORMAT_AVRO.equalsIgnoreCase(format);
+    if (!avro && !EXPORT_FORMAT_JSON.equalsIgnoreCase(format)) {
+      throw Utils.handleException(
+          new IllegalArgumentException("Unsupported export format: " + format));
+    }
+    EndpointProfilesBodyDto page = groupService.getEndpointProfileBodyByEndpointGroupId(
+        endpointGroupId, EXPORT_PAGE_SIZE, DEFAULT_OFFSET);
+    try {
+      response.setContentType(avro ? "avro/binary" : "application/x-ndjson");
+      ServletUtils.prepareDisposition(request, response,
+          "ep-group-" + endpointGroupId + "-profiles." + (avro ? "avro" : "json"));
+      response.setBufferSize(BUFFER);
+      OutputStream out = response.getOutputStream();
+      DataFileWriter<GenericRecord> avroWriter = null;
+      if (avro) {
+        avroWriter = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(EXPORT_SCHEMA));
+        avroWriter.create(EXPORT_SCHEMA, out);
+      }
+      while (true) {
+        if (page.hasEndpointBodies()) {
+          for (EndpointProfileBodyDto body : page.getEndpointProfilesBody()) {
+            if (avro) {
+              avroWriter.append(toExportRecord(body));
+            } else {
+              out.write(toExportJson(body));
+              out.write('\n');
+            }
+          }
+          if (avro) {
+            avroWriter.flush();
+          } else {
+            out.flush();
+          }
+        }
+        PageLinkDto pageLink = page.getPageLinkDto();
+        // A page may come back empty while later pages still have profiles, so only the page
+        // link decides when the export is complete.
+        if (pageLink == null || pageLink.getNext() != null) {
+          break;
+        }
+        page = groupService.getEndpointProfileBodyByEndpointGroupId(
+            endpointGroupId, EXPORT_PAGE_SIZE, pageLink.getOffset());
+      }
+      if (avro) {
+        avroWriter.close();
+      }
+      response.flushBuffer();
+    } catch (Exception ex) {
+      throw Utils.handleException(ex);
+    }
+  }
+
+  private static GenericRecord toExportRecord(EndpointProfileBodyDto body) {
+    GenericRecord record = new GenericData.Record(EXPORT_SCHEMA);
+    record.put("endpointKeyHash", ByteBuffer.wrap(body.getEndpointKeyHash()));
+    record.put("appId", body.getAppId());
+    record.put("clientSideProfileVersion", body.getClientSideProfileVersion());
+    record.put("clientSideProfile", body.getClientSideProfile());
+    record.put("serverSideProfileVersion", body.getServerSideProfileVersion());
+    record.put("serverSideProfile", body.getServerSideProfile());
+    return record;
+  }
+
+  private static byte[] toExportJson(EndpointProfileBodyDto body) throws IOException {
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("endpointKeyHash", Base64.encodeBase64String(body.getEndpointKeyHash()));
+    json.put("appId", body.getAppId());
+    json.put("clientSideProfileVersion", body.getClientSideProfileVersion());
+    json.put("clientSideProfile", parseProfile(body.getClientSideProfile()));
+    json.put("serverSideProfileVersion", body.getServerSideProfileVersion());
+    json.put("serverSideProfile", parseProfile(body.getServerSideProfile()));
+    return FORMATTER.writeValueAsBytes(json);
+  }
+
+  private static JsonNode parseProfile(String profile) throws IOException {
+    return profile == null || profile.isEmpty() ? null : FORMATTER.readTree(profile);
+  }
+
   private PageLinkDto createNext(PageLinkDto pageLink, HttpServletRequest request) {
     if (pageLink != null && pageLink.getNext() == null) {
       StringBuilder nextUrl = new StringBuilder();
@@ -27,7 +27,10 @@ import org.kaaproject.kaa.common.dto.NotificationDto;
 import org.kaaproject.kaa.common.dto.NotificationSchemaDto;
 import org.kaaproject.kaa.common.dto.TopicDto;
 import org.kaaproject.kaa.common.dto.VersionDto;
+import org.kaaproject.kaa.server.admin.services.UnicastNotificationService;
+import org.kaaproject.kaa.server.admin.services.util.Utils;
 import org.kaaproject.kaa.server.admin.shared.services.KaaAdminServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -40,6 +43,11 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 @Api(value = "Notifications",
@@ -48,6 +56,14 @@ import java.util.List;
 @Controller
 public class NotificationController extends AbstractAdminController {
 
+  private static final int UNICAST_NOTIFICATIONS_CHUNK_SIZE = 10000;
+
+  /**
+   * The unicast notification service of the REST API.
+   */
+  @Autowired
+  UnicastNotificationService unicastNotificationService;
+
   /**
    * Gets the notification schemas by application token.
    *
@@ -560,4 +576,130 @@ public class NotificationController extends AbstractAdminController {
     return notificationService.sendUnicastNotification(notification, clientKeyHash, data);
   }
 
+  /**
+   * Send unicast notification, with information from specific file, to each of the clients
+   * identified by endpoint key hashes from the endpointKeyHashes file. Key hashes are read
+   * from the file and sent in chunks, so the list may be arbitrary large.
+   *
+   * @param notification      the notification
+   * @param endpointKeyHashes the file with client key hashes, one per line
+   * @param file              the file
+   * @return the number of endpoints the notification is sent to
+   * @throws KaaAdminServiceException the kaa admin service exception
+   */
+  @ApiOperation(value = "Send unicast notifications",
+      notes = "Sends a unicast notification with the notification body from the specified "
+          + "file to each of the clients identified by key hashes from the endpointKeyHashes "
+          + "file. Clients that are not subscribed to the notification topic are skipped. "
+          + "Only users with the TENANT_DEVELOPER or TENANT_USER role are allowed to perform "
+          + "this operation.")
+  @ApiResponses(value = {
+      @ApiResponse(code = 400,
+          message = "The specified notification is not valid"),
+      @ApiResponse(code = 401,
+          message = "The user is not authenticated or invalid credentials were provided"),
+      @ApiResponse(code = 403,
+          message = "The authenticated user does not have the required role "
+              + "(TENANT_DEVELOPER or TENANT_USER) or the Tenant ID "
+              + "of the application does not match the Tenant ID of the authenticated user"),
+      @ApiResponse(code = 404,
+          message = "A file with the notification body or endpoint key hashes was not found in "
+              + "the form data or an application with the specified ID does "
+              + "not exist or a topic with the specified ID does not exist"),
+      @ApiResponse(code = 500, message = "An unexpected error occurred on the server side")})
+  @RequestMapping(value = "sendUnicastNotifications",
+      method = RequestMethod.POST,
+      consumes = {"multipart/mixed", "multipart/form-data"})
+  @ResponseBody
+  public int sendUnicastNotifications(
+      @ApiParam(name = "notification",
+          value = "NotificationDto body. Mandatory fields: applicationId, schemaId, topicId, type",
+          required = true)
+      @RequestPart("notification") NotificationDto notification,
+      @ApiParam(name = "endpointKeyHashes",
+          value = "A file with key hashes of the endpoints in Base64 URL safe format, one per line",
+          required = true)
+      @RequestPart("endpointKeyHashes") MultipartFile endpointKeyHashes,
+      @ApiParam(name = "file",
+          value = "A file with notification body according to the specified "
+              + "notification schema represented in json format",
+          required = true)
+      @RequestPart("file") MultipartFile file) throws KaaAdminServiceException {
+    byte[] data = getFileContent(file);
+    int sent = 0;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        endpointKeyHashes.getInputStream(), StandardCharsets.UTF_8))) {
+      List<String> chunk = new ArrayList<>(UNICAST_NOTIFICATIONS_CHUNK_SIZE);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty()) {
+          chunk.add(line);
+        }
+        if (chunk.size() == UNICAST_NOTIFICATIONS_CHUNK_SIZE) {
+          sent += unicastNotificationService.sendUnicastNotifications(notification, chunk, data);
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        sent += unicastNotificationService.sendUnicastNotifications(notification, chunk, data);
+      }
+    } catch (IOException ex) {
+      throw Utils.handleException(ex);
+    }
+    return sent;
+  }
+
+  /**
+   * Send unicast notification, with information from specific file, to each of the clients
+   * in the endpoint group.
+   *
+   * @param notification    the notification
+   * @param endpointGroupId the endpoint group id
+   * @param file            the file
+   * @return the number of endpoints the notification is sent to
+   * @throws KaaAdminServiceException the kaa admin service exception
+   */
+  @ApiOperation(value = "Send unicast notifications to endpoint group",
+      notes = "Sends a unicast notification with the notification body from the specified "
+          + "file to each of the clients in the endpoint group. Clients that are not "
+          + "subscribed to the notification topic are skipped. Only users with the "
+          + "TENANT_DEVELOPER or TENANT_USER role are allowed to perform this operation.")
+  @ApiResponses(value = {
+      @ApiResponse(code = 400,
+          message = "The specified notification is not valid"),
+      @ApiResponse(code = 401,
+          message = "The user is not authenticated or invalid credentials were provided"),
+      @ApiResponse(code = 403,
+          message = "The authenticated user does not have the required role "
+              + "(TENANT_DEVELOPER or TENANT_USER) or the Tenant ID "
+              + "of the application does not match the Tenant ID of the authenticated user"),
+      @ApiResponse(code = 404,
+          message = "A file with the notification body was not found in "
+              + "the form data or an application, a topic or an endpoint group "
+              + "with the specified ID does not exist"),
+      @ApiResponse(code = 500, message = "An unexpected error occurred on the server side")})
+  @RequestMapping(value = "sendUnicastNotificationsToEndpointGroup",
+      method = RequestMethod.POST,
+      consumes = {"multipart/mixed", "multipart/form-data"})
+  @ResponseBody
+  public int sendUnicastNotificationsToEndpointGroup(
+      @ApiParam(name = "notification",
+          value = "NotificationDto body. Mandatory fields: applicationId, schemaId, topicId, type",
+          required = true)
+      @RequestPart("notification") NotificationDto notification,
+      @ApiParam(name = "endpointGroupId",
+          value = "A unique endpoint group identifier",
+          required = true)
+      @RequestPart("endpointGroupId") String endpointGroupId,
+      @ApiParam(name = "file",
+          value = "A file with notification body according to the specified "
+              + "notification schema represented in json format",
+          required = true)
+      @RequestPart("file") MultipartFile file) throws KaaAdminServiceException {
+    byte[] data = getFileContent(file);
+    return unicastNotificationService.sendUnicastNotificationsToEndpointGroup(notification,
+        endpointGroupId, data);
+  }
+
 }
@@ -27,6 +27,7 @@ import org.apache.avro.generic.GenericRecord;
 import org.kaaproject.avro.ui.converter.FormAvroConverter;
 import org.kaaproject.avro.ui.shared.RecordField;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.common.dto.EndpointGroupDto;
 import org.kaaproject.kaa.common.dto.EndpointNotificationDto;
 import org.kaaproject.kaa.common.dto.KaaAuthorityDto;
 import org.kaaproject.kaa.common.dto.NotificationDto;
@@ -55,7 +56,8 @@ import java.util.Date;
 import java.util.List;
 
 @Service("notificationService")
-public class NotificationServiceImpl extends AbstractAdminService implements NotificationService {
+public class NotificationServiceImpl extends AbstractAdminService
+    implements NotificationService, UnicastNotificationService {
 
   /**
    * The Constant LOG.
@@ -341,6 +343,54 @@ public class NotificationServiceImpl extends AbstractAdminService implements Not
     }
   }
 
+  @Override
+  public int sendUnicastNotifications(NotificationDto notification,
+                                      List<String> clientKeyHashes,
+                                      byte[] body)
+      throws KaaAdminServiceException {
+    checkAuthority(KaaAuthorityDto.TENANT_DEVELOPER, KaaAuthorityDto.TENANT_USER);
+    try {
+      checkUnicastNotification(notification, body);
+      List<byte[]> endpointKeyHashes = new ArrayList<>(clientKeyHashes.size());
+      for (String clientKeyHash : clientKeyHashes) {
+        endpointKeyHashes.add(Base64.decode(clientKeyHash.getBytes(Charsets.UTF_8)));
+      }
+      return controlService.sendUnicastNotifications(notification, endpointKeyHashes);
+    } catch (Exception ex) {
+      throw Utils.handleException(ex);
+    }
+  }
+
+  @Override
+  public int sendUnicastNotificationsToEndpointGroup(NotificationDto notification,
+                                                     String endpointGroupId,
+                                                     byte[] body)
+      throws KaaAdminServiceException {
+    checkAuthority(KaaAuthorityDto.TENANT_DEVELOPER, KaaAuthorityDto.TENANT_USER);
+    try {
+      checkUnicastNotification(notification, body);
+      EndpointGroupDto endpointGroup = checkEndpointGroupId(endpointGroupId);
+      if (!notification.getApplicationId().equals(endpointGroup.getApplicationId())) {
+        throw new IllegalArgumentException(
+            "The endpoint group does not belong to the notification application.");
+      }
+      return controlService.sendUnicastNotificationsToEndpointGroup(notification,
+          endpointGroupId);
+    } catch (Exception ex) {
+      throw Utils.handleException(ex);
+    }
+  }
+
+  private void checkUnicastNotification(NotificationDto notification, byte[] body)
+      throws Exception {
+    checkExpiredDate(notification);
+    notification.setBody(body);
+    checkApplicationId(notification.getApplicationId());
+    TopicDto topic = controlService.getTopic(notification.getTopicId());
+    Utils.checkNotNull(topic);
+    checkApplicationId(topic.getApplicationId());
+  }
+
   private void checkTopicId(String topicId) throws IllegalArgumentException {
     if (isEmpty(topicId)) {
       throw new IllegalArgumentException("The topicId parameter is empty.");
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.admin.services;
+
+import org.kaaproject.kaa.common.dto.NotificationDto;
+import org.kaaproject.kaa.server.admin.shared.services.KaaAdminServiceException;
+
+import java.util.List;
+
+/**
+ * Sends one unicast notification body to many endpoints. It is used by the REST API only
+ * and is not a part of the admin UI RPC services.
+ */
+public interface UnicastNotificationService {
+
+  /**
+   * Send the unicast notification to each of the endpoints.
+   *
+   * @param notification    the notification
+   * @param clientKeyHashes the endpoint key hashes in Base64 URL safe format
+   * @param body            the notification body
+   * @return the number of endpoints the notification is sent to
+   * @throws KaaAdminServiceException the kaa admin service exception
+   */
+  int sendUnicastNotifications(NotificationDto notification, List<String> clientKeyHashes,
+                               byte[] body) throws KaaAdminServiceException;
+
+  /**
+   * Send the unicast notification to each of the endpoints in the endpoint group.
+   *
+   * @param notification    the notification
+   * @param endpointGroupId the endpoint group id
+   * @param body            the notification body
+   * @return the number of endpoints the notification is sent to
+   * @throws KaaAdminServiceException the kaa admin service exception
+   */
+  int sendUnicastNotificationsToEndpointGroup(NotificationDto notification,
+                                              String endpointGroupId,
+                                              byte[] body) throws KaaAdminServiceException;
+}
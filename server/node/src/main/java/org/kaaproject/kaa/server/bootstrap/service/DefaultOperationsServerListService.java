@@ -26,10 +26,14 @@ import org.kaaproject.kaa.server.common.zk.gen.VersionConnectionInfoPair;
 import org.kaaproject.kaa.server.common.zk.operations.OperationsNodeListener;
 import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
 import org.kaaproject.kaa.server.sync.bootstrap.ProtocolVersionId;
+import org.kaaproject.kaa.server.sync.platform.BootstrapResponseTemplate;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDec;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDecException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -55,7 +59,10 @@ public class DefaultOperationsServerListService
   private static final Logger LOG =
       LoggerFactory.getLogger(DefaultOperationsServerListService.class);
   private Map<String, OperationsNodeInfo> opsMap;
+  private volatile Map<String, Integer> priorities = new HashMap<>();
   private Memorizer<List<ProtocolVersionId>, Set<ProtocolConnectionData>> cache;
+  private volatile ConcurrentMap<ResponseKey, BootstrapResponseTemplate> responses =
+      new ConcurrentHashMap<>();
   private Object listenerLock = new Object();
 
   /**
@@ -104,6 +111,34 @@ public class DefaultOperationsServerListService
     }
   }
 
+  @Override
+  public BootstrapResponseTemplate getBootstrapResponse(List<ProtocolVersionId> keys,
+                                                        PlatformEncDec encDec)
+      throws PlatformEncDecException {
+    ConcurrentMap<ResponseKey, BootstrapResponseTemplate> current = responses;
+    ResponseKey key = new ResponseKey(encDec.getId(), keys);
+    BootstrapResponseTemplate response = current.get(key);
+    if (response == null) {
+      response = encDec.encodeBootstrapResponse(filter(keys));
+      BootstrapResponseTemplate existing = current.putIfAbsent(key, response);
+      if (existing != null) {
+        response = existing;
+      }
+    }
+    return response;
+  }
+
+  @Override
+  public void onPrioritiesUpdate(Map<String, Integer> priorities) {
+    synchronized (listenerLock) {
+      if (!priorities.equals(this.priorities)) {
+        LOG.info("Operations servers priorities updated: {}", priorities);
+        this.priorities = new HashMap<>(priorities);
+        clearCaches();
+      }
+    }
+  }
+
   @Override
   public void onNodeAdded(OperationsNodeInfo nodeInfo) {
     synchronized (listenerLock) {
@@ -129,7 +164,7 @@ public class DefaultOperationsServerListService
     LOG.info("Add/Update node {}", info);
     opsMap.put(getNameFromConnectionInfo(info.getConnectionInfo()), info);
     LOG.info("Cleanup cached responses");
-    cache.clear();
+    clearCaches();
   }
 
   private void removeNode(OperationsNodeInfo info) {
@@ -139,20 +174,38 @@ public class DefaultOperationsServerListService
       LOG.warn("Failed to remove node {}", info);
     }
     LOG.info("Cleanup cached responses");
+    clearCaches();
+  }
+
+  /**
+   * Replaces the cached filter results and encoded responses. Lookups that started before
+   * the replacement complete against the previous caches, which are then dropped.
+   */
+  private void clearCaches() {
     cache.clear();
+    responses = new ConcurrentHashMap<>();
   }
 
   protected Set<ProtocolConnectionData> filterProtocolInstances(List<ProtocolVersionId> keys) {
     Set<ProtocolConnectionData> result = new HashSet<>();
     for (ProtocolVersionId key : keys) {
-      for (OperationsNodeInfo node : opsMap.values()) {
+      Set<ProtocolConnectionData> available = new HashSet<>();
+      Set<ProtocolConnectionData> drained = new HashSet<>();
+      for (Map.Entry<String, OperationsNodeInfo> entry : opsMap.entrySet()) {
+        OperationsNodeInfo node = entry.getValue();
         for (TransportMetaData md : node.getTransports()) {
           if (md.getId() == key.getProtocolId() && md.getMinSupportedVersion() <= key.getVersion()
               && key.getVersion() <= md.getMaxSupportedVersion()) {
-            result.add(toProtocolConnectionData(node, md, key.getVersion()));
+            Integer priority = priorities.get(entry.getKey());
+            if (priority != null && priority <= 0) {
+              drained.add(toProtocolConnectionData(node, md, key.getVersion()));
+            } else {
+              available.add(toProtocolConnectionData(node, md, key.getVersion()));
+            }
           }
         }
       }
+      result.addAll(available.isEmpty() ? drained : available);
     }
     return result;
   }
@@ -178,7 +231,7 @@ public class DefaultOperationsServerListService
   }
 
   public class Memorizer<A, V> implements Computable<A, V> {
-    private final ConcurrentMap<A, Future<V>> cache = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<A, Future<V>> cache = new ConcurrentHashMap<>();
     private final Computable<A, V> computable;
 
     public Memorizer(Computable<A, V> computable) {
@@ -192,6 +245,7 @@ public class DefaultOperationsServerListService
      * @return computing result
      */
     public V compute(final A arg) throws InterruptedException {
+      ConcurrentMap<A, Future<V>> cache = this.cache;
       while (true) {
         Future<V> future = cache.get(arg);
         if (future == null) {
@@ -219,7 +273,34 @@ public class DefaultOperationsServerListService
     }
 
     public void clear() {
-      cache.clear();
+      cache = new ConcurrentHashMap<>();
+    }
+  }
+
+  private static final class ResponseKey {
+    private final int platformId;
+    private final List<ProtocolVersionId> keys;
+
+    private ResponseKey(int platformId, List<ProtocolVersionId> keys) {
+      this.platformId = platformId;
+      this.keys = keys;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * platformId + keys.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ResponseKey)) {
+        return false;
+      }
+      ResponseKey other = (ResponseKey) obj;
+      return platformId == other.platformId && keys.equals(other.keys);
     }
   }
 
@@ -17,10 +17,14 @@
 package org.kaaproject.kaa.server.bootstrap.service;
 
 import org.kaaproject.kaa.server.common.zk.bootstrap.BootstrapNode;
+import org.kaaproject.kaa.server.sync.platform.BootstrapResponseTemplate;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDec;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDecException;
 import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
 import org.kaaproject.kaa.server.sync.bootstrap.ProtocolVersionId;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -35,4 +39,26 @@ public interface OperationsServerListService {
 
   Set<ProtocolConnectionData> filter(List<ProtocolVersionId> keys);
 
+  /**
+   * Returns the bootstrap response with the result of {@link #filter(List)} encoded by the
+   * platform protocol. Encoded responses are cached until the list of Operations servers or
+   * their priorities change.
+   *
+   * @param keys   the protocol versions supported by the client
+   * @param encDec the platform protocol of the client
+   * @return the encoded response
+   * @throws PlatformEncDecException if the response can't be encoded
+   */
+  BootstrapResponseTemplate getBootstrapResponse(List<ProtocolVersionId> keys,
+                                                 PlatformEncDec encDec)
+      throws PlatformEncDecException;
+
+  /**
+   * Updates Operations servers priorities calculated by the load balancer. Servers with zero
+   * priority are not returned by {@link #filter(List)} while other servers are available.
+   *
+   * @param priorities the map of Operations server name, priority
+   */
+  void onPrioritiesUpdate(Map<String, Integer> priorities);
+
 }
@@ -17,13 +17,17 @@
 package org.kaaproject.kaa.server.bootstrap.service.thrift;
 
 import org.apache.thrift.TException;
+import org.kaaproject.kaa.server.bootstrap.service.OperationsServerListService;
 import org.kaaproject.kaa.server.common.thrift.gen.bootstrap.BootstrapThriftService;
 import org.kaaproject.kaa.server.common.thrift.gen.bootstrap.ThriftOperationsServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * BootstrapThriftServiceImpl Class.
@@ -38,6 +42,9 @@ public class BootstrapThriftServiceImpl implements
 
   private static final Logger LOG = LoggerFactory.getLogger(BootstrapThriftServiceImpl.class);
 
+  @Autowired
+  private OperationsServerListService operationsServerListService;
+
   /**
    * Thrift method to receive new list of Operations servers.
    *
@@ -51,7 +58,13 @@ public class BootstrapThriftServiceImpl implements
       throws TException {
     LOG.info("Operations server list update recived: now {} servers online:",
         operationsServersList.size());
-    //TODO: add usage of ops list priority in future releases.
+    Map<String, Integer> priorities = new HashMap<>();
+    for (ThriftOperationsServer server : operationsServersList) {
+      if (server.isSetPriority()) {
+        priorities.put(server.getId(), server.getPriority());
+      }
+    }
+    operationsServerListService.onPrioritiesUpdate(priorities);
   }
 
 }
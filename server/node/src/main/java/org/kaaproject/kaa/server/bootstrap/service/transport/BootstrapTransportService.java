@@ -20,11 +20,8 @@ import org.kaaproject.kaa.common.endpoint.security.MessageEncoderDecoder;
 import org.kaaproject.kaa.server.bootstrap.service.OperationsServerListService;
 import org.kaaproject.kaa.server.bootstrap.service.security.KeyStoreService;
 import org.kaaproject.kaa.server.sync.ClientSync;
-import org.kaaproject.kaa.server.sync.ServerSync;
-import org.kaaproject.kaa.server.sync.SyncStatus;
 import org.kaaproject.kaa.server.sync.bootstrap.BootstrapClientSync;
-import org.kaaproject.kaa.server.sync.bootstrap.BootstrapServerSync;
-import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
+import org.kaaproject.kaa.server.sync.platform.BootstrapResponseTemplate;
 import org.kaaproject.kaa.server.sync.platform.PlatformEncDec;
 import org.kaaproject.kaa.server.sync.platform.PlatformEncDecException;
 import org.kaaproject.kaa.server.sync.platform.PlatformLookup;
@@ -185,16 +182,13 @@ public class BootstrapTransportService
             ClientSync request = decodeRequest(message, crypt, platformEncDecMap);
             LOG.trace("Processing request {}", request);
             BootstrapClientSync bsRequest = request.getBootstrapSync();
-            Set<ProtocolConnectionData> transports = opsListService.filter(bsRequest.getKeys());
-            BootstrapServerSync bsResponse = new BootstrapServerSync(
-                bsRequest.getRequestId(), transports);
-            ServerSync response = new ServerSync();
-            response.setRequestId(request.getRequestId());
-            response.setStatus(SyncStatus.SUCCESS);
-            response.setBootstrapSync(bsResponse);
-            LOG.trace("Response {}", response);
-            encodeAndForward(message, crypt, platformEncDecMap, response);
-            LOG.trace("Response forwarded to specific transport {}", response);
+            BootstrapResponseTemplate response = opsListService.getBootstrapResponse(
+                bsRequest.getKeys(), getPlatformEncDec(platformEncDecMap, message.getPlatformId()));
+            byte[] responseData = response.encode(
+                request.getRequestId(), bsRequest.getRequestId());
+            encodeAndForward(message, crypt, responseData);
+            LOG.trace("Response forwarded to specific transport for request {}",
+                request.getRequestId());
           } catch (Exception ex) {
             processErrors(message.getChannelContext(), message.getErrorBuilder(), ex);
           }
@@ -202,12 +196,9 @@ public class BootstrapTransportService
 
         private void encodeAndForward(final SessionInitMessage message,
                                       MessageEncoderDecoder crypt,
-                                      Map<Integer, PlatformEncDec> platformEncDecMap,
-                                      ServerSync response)
-            throws PlatformEncDecException, GeneralSecurityException {
+                                      byte[] responseData)
+            throws GeneralSecurityException {
           MessageBuilder converter = message.getMessageBuilder();
-          byte[] responseData = encodePlatformLevelData(
-              platformEncDecMap, message.getPlatformId(), response);
           Object[] objects;
           if (message.isEncrypted()) {
             byte[] responseSignature = crypt.sign(responseData);
@@ -286,13 +277,12 @@ public class BootstrapTransportService
           return request;
         }
 
-        private byte[] encodePlatformLevelData(Map<Integer, PlatformEncDec> platformEncDecMap,
-                                               int platformId,
-                                               ServerSync sync)
+        private PlatformEncDec getPlatformEncDec(Map<Integer, PlatformEncDec> platformEncDecMap,
+                                                 int platformId)
             throws PlatformEncDecException {
           PlatformEncDec encDec = platformEncDecMap.get(platformId);
           if (encDec != null) {
-            return platformEncDecMap.get(platformId).encode(sync);
+            return encDec;
           } else {
             throw new PlatformEncDecException(
                 MessageFormat.format("Encoder for platform protocol [{0}] is not defined",
@@ -798,6 +798,31 @@ public interface ControlService {
   EndpointNotificationDto editUnicastNotification(EndpointNotificationDto notification)
       throws ControlServiceException;
 
+  /**
+   * Sends the unicast notification with the same body to each of the given endpoints.
+   * Endpoints that are not subscribed to the notification topic are skipped.
+   *
+   * @param notification      the notification
+   * @param endpointKeyHashes the endpoint key hashes
+   * @return the number of endpoints the notification is sent to
+   * @throws ControlServiceException the control service exception
+   */
+  int sendUnicastNotifications(NotificationDto notification, List<byte[]> endpointKeyHashes)
+      throws ControlServiceException;
+
+  /**
+   * Sends the unicast notification with the same body to each endpoint of the endpoint group.
+   * Endpoints that are not subscribed to the notification topic are skipped.
+   *
+   * @param notification    the notification
+   * @param endpointGroupId the endpoint group id
+   * @return the number of endpoints the notification is sent to
+   * @throws ControlServiceException the control service exception
+   */
+  int sendUnicastNotificationsToEndpointGroup(NotificationDto notification,
+                                              String endpointGroupId)
+      throws ControlServiceException;
+
   /**
    * Gets the unicast notifications by key hash.
    *
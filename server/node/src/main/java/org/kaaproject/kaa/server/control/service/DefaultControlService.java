@@ -91,6 +91,7 @@ import org.kaaproject.kaa.server.common.dao.ApplicationEventMapService;
 import org.kaaproject.kaa.server.common.dao.ApplicationService;
 import org.kaaproject.kaa.server.common.dao.ConfigurationService;
 import org.kaaproject.kaa.server.common.dao.CtlService;
+import org.kaaproject.kaa.server.common.dao.DaoConstants;
 import org.kaaproject.kaa.server.common.dao.EndpointRegistrationService;
 import org.kaaproject.kaa.server.common.dao.EndpointService;
 import org.kaaproject.kaa.server.common.dao.EventClassService;
@@ -121,6 +122,7 @@ import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftServerProfil
 import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftUnicastNotificationMessage;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.UserConfigurationUpdate;
 import org.kaaproject.kaa.server.common.zk.control.ControlNode;
+import org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo;
 import org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo;
 import org.kaaproject.kaa.server.common.zk.operations.OperationsNodeListener;
 import org.kaaproject.kaa.server.control.service.exception.ControlServiceException;
@@ -177,6 +179,11 @@ public class DefaultControlService implements ControlService {
    */
   private static final int DEFAULT_USER_HASH_PARTITIONS_SIZE = 10;
 
+  /**
+   * The Constant DEFAULT_UNICAST_NOTIFICATION_BATCH_SIZE.
+   */
+  private static final int DEFAULT_UNICAST_NOTIFICATION_BATCH_SIZE = 1000;
+
   /**
    * The Constant LOG.
    */
@@ -320,6 +327,12 @@ public class DefaultControlService implements ControlService {
   @Value("#{properties[user_hash_partitions]}")
   private int userHashPartitions = DEFAULT_USER_HASH_PARTITIONS_SIZE;
 
+  /**
+   * The number of endpoints processed at once by bulk unicast notification.
+   */
+  @Value("#{properties[unicast_notification_batch_size] ?: 1000}")
+  private int unicastNotificationBatchSize = DEFAULT_UNICAST_NOTIFICATION_BATCH_SIZE;
+
   /**
    * The neighbors.
    */
@@ -1569,18 +1582,7 @@ public class DefaultControlService implements ControlService {
 
     if (server != null) {
       ApplicationDto appDto = getApplication(updateNotification.getAppId());
-      ThriftUnicastNotificationMessage nf = new ThriftUnicastNotificationMessage();
-      nf.setAddress(
-          new ThriftEntityAddress(
-              appDto.getTenantId(),
-              appDto.getApplicationToken(),
-              ThriftClusterEntityType.ENDPOINT,
-              ByteBuffer.wrap(notificationDto.getEndpointKeyHash())
-          )
-      );
-
-      nf.setActorClassifier(ThriftActorClassifier.GLOBAL);
-      nf.setNotificationId(notificationDto.getId());
+      ThriftUnicastNotificationMessage nf = toUnicastNotificationMessage(appDto, notificationDto);
       if (LOG.isTraceEnabled()) {
         LOG.trace("Sending message {} to [{}]",
             nf, Neighbors.getServerId(server.getConnectionInfo()));
@@ -1592,6 +1594,104 @@ public class DefaultControlService implements ControlService {
     return updateNotification.getPayload();
   }
 
+  @Override
+  public int sendUnicastNotifications(NotificationDto notification,
+                                      List<byte[]> endpointKeyHashes)
+      throws ControlServiceException {
+    int sent = 0;
+    for (int from = 0; from < endpointKeyHashes.size(); from += unicastNotificationBatchSize) {
+      int to = Math.min(from + unicastNotificationBatchSize, endpointKeyHashes.size());
+      sent += sendUnicastNotifications(notificationService.saveUnicastNotifications(
+          notification, endpointKeyHashes.subList(from, to)));
+    }
+    return sent;
+  }
+
+  @Override
+  public int sendUnicastNotificationsToEndpointGroup(NotificationDto notification,
+                                                     String endpointGroupId)
+      throws ControlServiceException {
+    EndpointGroupDto endpointGroup = endpointService.findEndpointGroupById(endpointGroupId);
+    if (endpointGroup == null) {
+      throw new NotFoundException("Endpoint group not found!");
+    }
+    PageLinkDto pageLink = new PageLinkDto(endpointGroupId,
+        Integer.toString(unicastNotificationBatchSize), "0");
+    if (endpointGroup.getWeight() == 0) {
+      pageLink.setApplicationId(endpointGroup.getApplicationId());
+    }
+    int sent = 0;
+    while (true) {
+      EndpointProfilesPageDto page = endpointService.findEndpointProfileByEndpointGroupId(
+          pageLink);
+      if (page.hasEndpointProfiles()) {
+        sent += sendUnicastNotifications(notificationService.saveUnicastNotificationsForProfiles(
+            notification, page.getEndpointProfiles()));
+      }
+      PageLinkDto next = page.getPageLinkDto();
+      if (next == null || DaoConstants.LAST_PAGE_MESSAGE.equals(next.getNext())) {
+        break;
+      }
+      pageLink.setOffset(next.getOffset());
+    }
+    return sent;
+  }
+
+  /**
+   * Delivers saved unicast notifications, one batch per operations server.
+   *
+   * @param notifications the saved unicast notifications
+   * @return the number of notifications
+   */
+  private int sendUnicastNotifications(List<EndpointNotificationDto> notifications) {
+    if (notifications.isEmpty()) {
+      return 0;
+    }
+    checkNeighbors();
+
+    ApplicationDto appDto = getApplication(
+        notifications.get(0).getNotificationDto().getApplicationId());
+    Map<ConnectionInfo, List<OperationsServiceMsg>> messagesByServer = new HashMap<>();
+    for (EndpointNotificationDto notificationDto : notifications) {
+      String endpointId = Base64Util.encode(notificationDto.getEndpointKeyHash());
+      OperationsNodeInfo server = resolve(endpointId);
+      if (server != null) {
+        List<OperationsServiceMsg> messages = messagesByServer.get(server.getConnectionInfo());
+        if (messages == null) {
+          messages = new ArrayList<>();
+          messagesByServer.put(server.getConnectionInfo(), messages);
+        }
+        messages.add(OperationsServiceMsg.fromNotification(
+            toUnicastNotificationMessage(appDto, notificationDto)));
+      } else {
+        LOG.warn("Can't find server for endpoint [{}]", endpointId);
+      }
+    }
+    for (Map.Entry<ConnectionInfo, List<OperationsServiceMsg>> entry
+        : messagesByServer.entrySet()) {
+      LOG.debug("Sending {} unicast notifications to [{}]", entry.getValue().size(),
+          Neighbors.getServerId(entry.getKey()));
+      neighbors.sendMessages(entry.getKey(), entry.getValue());
+    }
+    return notifications.size();
+  }
+
+  private ThriftUnicastNotificationMessage toUnicastNotificationMessage(
+      ApplicationDto appDto, EndpointNotificationDto notificationDto) {
+    ThriftUnicastNotificationMessage nf = new ThriftUnicastNotificationMessage();
+    nf.setAddress(
+        new ThriftEntityAddress(
+            appDto.getTenantId(),
+            appDto.getApplicationToken(),
+            ThriftClusterEntityType.ENDPOINT,
+            ByteBuffer.wrap(notificationDto.getEndpointKeyHash())
+        )
+    );
+    nf.setActorClassifier(ThriftActorClassifier.GLOBAL);
+    nf.setNotificationId(notificationDto.getId());
+    return nf;
+  }
+
   @Override
   public EndpointProfileDto updateServerProfile(String endpointKeyHash, int version,
                                                 String serverProfile)
@@ -109,14 +109,13 @@ public class DynamicLoadManager implements OperationsNodeListener, BootstrapNode
         updateBootstrap(bootstrapNodeInfo);
       }
     }
-    if (loadDistributionService.getRebalancer() != null) {
+    Rebalancer rebalancer = loadDistributionService.getRebalancer();
+    if (rebalancer != null) {
       Map<Integer, OperationsServerLoadHistory> opsServerHistory = new HashMap<>();
       for (Integer accessPointId : opsServersMap.keySet()) {
         opsServerHistory.put(accessPointId, opsServersMap.get(accessPointId).history);
       }
-      Map<Integer, List<RedirectionRule>> rules = loadDistributionService
-          .getRebalancer()
-          .recalculate(opsServerHistory);
+      Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(opsServerHistory);
       LOG.trace("DynamicLoadManager recalculate() got {} redirection rules", rules.size());
       for (Integer accessPointId : rules.keySet()) {
         if (opsServersMap.containsKey(accessPointId)) {
@@ -127,7 +126,30 @@ public class DynamicLoadManager implements OperationsNodeListener, BootstrapNode
               + "but NO server available, skip setting rule.", accessPointId);
         }
       }
+      if (updateOpsServerPriorities(rebalancer.getOpsServerPriorities())) {
+        LOG.info("Operations servers priorities changed. Updating {} Bootstrap servers",
+            bootstrapsMap.size());
+        for (BootstrapNodeInfo bootstrapNodeInfo : bootstrapsMap.values()) {
+          updateBootstrap(bootstrapNodeInfo);
+        }
+      }
+    }
+  }
+
+  private boolean updateOpsServerPriorities(Map<Integer, Integer> priorities) {
+    boolean changed = false;
+    for (Map.Entry<Integer, OperationsServerMeta> entry : opsServersMap.entrySet()) {
+      Integer priority = priorities.get(entry.getKey());
+      int newPriority = priority != null ? priority : DEFAULT_PRIORITY;
+      ThriftOperationsServer opsServer = entry.getValue().opsServer;
+      if (opsServer.getPriority() != newPriority) {
+        LOG.debug("Operations server {} priority changed from {} to {}",
+            entry.getKey(), opsServer.getPriority(), newPriority);
+        opsServer.setPriority(newPriority);
+        changed = true;
+      }
     }
+    return changed;
   }
 
   /**
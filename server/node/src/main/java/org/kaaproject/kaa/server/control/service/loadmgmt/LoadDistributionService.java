@@ -24,6 +24,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
 /**
  * Load Distribution Service startup Class.
  *
@@ -33,6 +37,8 @@ import org.springframework.stereotype.Service;
 public class LoadDistributionService extends Thread {
   private static final Logger LOG = LoggerFactory.getLogger(LoadDistributionService.class);
 
+  private static final String DEFAULT_REBALANCER = "endpointCountRebalancer";
+
   /**
    * Synchronization object.
    */
@@ -65,11 +71,34 @@ public class LoadDistributionService extends Thread {
   private int opsServerHistoryTtl;
 
   /**
-   * The dynamic_mgmt.
+   * Bean name of the rebalancer to use.
+   */
+  @Value("#{properties[loadmgmt_rebalancer]}")
+  private String rebalancerName;
+
+  /**
+   * Available rebalancers, key - bean name.
    */
   @Autowired
+  private Map<String, Rebalancer> rebalancers;
+
+  /**
+   * The dynamic_mgmt.
+   */
   private Rebalancer rebalancer;
 
+  /**
+   * Resolves the configured rebalancer.
+   */
+  @PostConstruct
+  public void initRebalancer() {
+    rebalancer = rebalancerName != null ? rebalancers.get(rebalancerName) : null;
+    if (rebalancer == null) {
+      LOG.info("Rebalancer [{}] not found, using {}", rebalancerName, DEFAULT_REBALANCER);
+      rebalancer = rebalancers.get(DEFAULT_REBALANCER);
+    }
+  }
+
   /* (non-Javadoc)
    * @see java.lang.Thread#toString()
    */
@@ -79,6 +108,7 @@ public class LoadDistributionService extends Thread {
     sb.append("\nLoad Distribution Service properties:\n");
     sb.append("\trecalculation_period: " + recalculationPeriod + "\n");
     sb.append("\tops_server_history_ttl: " + opsServerHistoryTtl + "\n");
+    sb.append("\tloadmgmt_rebalancer: " + rebalancerName + "\n");
     return sb.toString();
   }
 
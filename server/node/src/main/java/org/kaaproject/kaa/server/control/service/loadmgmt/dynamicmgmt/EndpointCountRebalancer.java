@@ -25,6 +25,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -144,6 +145,11 @@ public class EndpointCountRebalancer implements Rebalancer {
     return result;
   }
 
+  @Override
+  public Map<Integer, Integer> getOpsServerPriorities() {
+    return Collections.emptyMap();
+  }
+
   private Map<Integer, Double> calculateWeights(
       Map<Integer, OperationsServerLoadHistory> opsServerLoadHistory, int targetLoad) {
 
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt;
+
+import org.kaaproject.kaa.server.common.thrift.gen.operations.RedirectionRule;
+import org.kaaproject.kaa.server.common.zk.gen.LoadInfo;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.OperationsServerLoadHistory.OperationsServerLoad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebalancer that compares Operations servers by their actual load instead of endpoint count.
+ *
+ * <p>Each server gets a load score: the weighted average of its endpoint count, sync rate,
+ * p99 sync latency, mailbox depth, CPU and heap usage, each divided by the cluster mean. Metrics
+ * that are not reported by every server are ignored. Scores are smoothed between recalculations.
+ * A server starts to shed load once its score exceeds the high watermark and keeps shedding until
+ * the score drops below the low watermark. Shedding servers redirect the excess part of their load
+ * to servers with a score below the cluster mean and are excluded from bootstrap responses.
+ */
+@Service
+public class LoadAwareRebalancer implements Rebalancer {
+  private static final Logger LOG = LoggerFactory.getLogger(LoadAwareRebalancer.class);
+
+  private static final double DEFAULT_HIGH_WATERMARK = 1.25;
+  private static final double DEFAULT_LOW_WATERMARK = 1.1;
+  private static final double DEFAULT_SMOOTHING = 0.5;
+  private static final double DEFAULT_MAX_INIT_REDIRECT = 0.75;
+  private static final double DEFAULT_MAX_SESSION_REDIRECT = 0.0;
+
+  private static final int BASE_PRIORITY = 10;
+  private static final int MAX_PRIORITY = 1000;
+
+  private static final double ENDPOINT_COUNT_WEIGHT = 1.0;
+  private static final double SYNC_RATE_WEIGHT = 1.0;
+  private static final double SYNC_LATENCY_WEIGHT = 1.0;
+  private static final double MAILBOX_DEPTH_WEIGHT = 1.0;
+  private static final double CPU_LOAD_WEIGHT = 1.0;
+  private static final double HEAP_USAGE_WEIGHT = 0.5;
+
+  private final AtomicLong ruleIdSeq = new AtomicLong();
+  private final Map<Integer, Double> smoothedScores = new HashMap<>();
+  private final Set<Integer> sheddingServers = new HashSet<>();
+  private Map<Integer, Integer> priorities = Collections.emptyMap();
+
+  /**
+   * Load score relative to the cluster mean above which a server starts to shed load.
+   */
+  @Value("#{properties[loadmgmt_load_high_watermark]}")
+  private double highWatermark = DEFAULT_HIGH_WATERMARK;
+
+  /**
+   * Load score relative to the cluster mean below which a server stops to shed load.
+   */
+  @Value("#{properties[loadmgmt_load_low_watermark]}")
+  private double lowWatermark = DEFAULT_LOW_WATERMARK;
+
+  /**
+   * Weight of the latest load score in the smoothed one, from 0 (exclusive) to 1.
+   */
+  @Value("#{properties[loadmgmt_load_smoothing]}")
+  private double smoothing = DEFAULT_SMOOTHING;
+
+  /**
+   * Maximum redirect probability for new sessions.
+   */
+  @Value("#{properties[loadmgmt_max_init_redirect_probability]}")
+  private double maxInitRedirectProbability = DEFAULT_MAX_INIT_REDIRECT;
+
+  /**
+   * Maximum redirect probability for existing sessions.
+   */
+  @Value("#{properties[loadmgmt_max_session_redirect_probability]}")
+  private double maxSessionRedirectProbability = DEFAULT_MAX_SESSION_REDIRECT;
+
+  /**
+   * Load mgmt data recalculation period.
+   */
+  @Value("#{properties[recalculation_period]}")
+  private int recalculationPeriod;
+
+  @Override
+  public Map<Integer, List<RedirectionRule>> recalculate(
+      Map<Integer, OperationsServerLoadHistory> opsServerLoadHistory) {
+
+    Map<Integer, List<RedirectionRule>> result = new HashMap<>();
+    smoothedScores.keySet().retainAll(opsServerLoadHistory.keySet());
+    sheddingServers.retainAll(opsServerLoadHistory.keySet());
+    if (opsServerLoadHistory.size() < 2) {
+      LOG.debug("No rebalancing for {} ops servers", opsServerLoadHistory.size());
+      priorities = Collections.emptyMap();
+      return result;
+    }
+
+    Map<Integer, LoadInfo> loads = new LinkedHashMap<>();
+    for (Entry<Integer, OperationsServerLoadHistory> entry : opsServerLoadHistory.entrySet()) {
+      loads.put(entry.getKey(), getLastLoadInfo(entry.getValue()));
+    }
+
+    Map<Integer, Double> scores = calculateScores(loads);
+    for (Entry<Integer, Double> score : scores.entrySet()) {
+      Double previous = smoothedScores.get(score.getKey());
+      double smoothed = previous == null
+          ? score.getValue()
+          : smoothing * score.getValue() + (1 - smoothing) * previous;
+      smoothedScores.put(score.getKey(), smoothed);
+      if (smoothed > highWatermark) {
+        sheddingServers.add(score.getKey());
+      } else if (smoothed < lowWatermark) {
+        sheddingServers.remove(score.getKey());
+      }
+      LOG.debug("Ops server {} load score is {}, smoothed {}, shedding {}", score.getKey(),
+          score.getValue(), smoothed, sheddingServers.contains(score.getKey()));
+    }
+
+    Map<Integer, Integer> newPriorities = new HashMap<>();
+    Map<Integer, Double> receiverShares = new LinkedHashMap<>();
+    double totalSpareCapacity = 0;
+    for (Integer accessPointId : scores.keySet()) {
+      double smoothed = smoothedScores.get(accessPointId);
+      if (sheddingServers.contains(accessPointId)) {
+        newPriorities.put(accessPointId, 0);
+        continue;
+      }
+      newPriorities.put(accessPointId, (int) Math.min(MAX_PRIORITY,
+          Math.round(BASE_PRIORITY / Math.max(smoothed, 1.0 / MAX_PRIORITY))));
+      if (smoothed < 1.0) {
+        receiverShares.put(accessPointId, 1.0 - smoothed);
+        totalSpareCapacity += 1.0 - smoothed;
+      }
+    }
+    priorities = Collections.unmodifiableMap(newPriorities);
+
+    if (sheddingServers.isEmpty() || receiverShares.isEmpty()) {
+      LOG.debug("No ops server needs to shed load");
+      return result;
+    }
+
+    for (Integer accessPointId : sheddingServers) {
+      double smoothed = smoothedScores.get(accessPointId);
+      double excess = (smoothed - 1.0) / smoothed;
+      List<RedirectionRule> redirectionRules = new ArrayList<>();
+      for (Entry<Integer, Double> receiver : receiverShares.entrySet()) {
+        double share = receiver.getValue() / totalSpareCapacity;
+        double initRedirectProbability = excess * share * maxInitRedirectProbability;
+        double sessionRedirectProbability = excess * share * maxSessionRedirectProbability;
+        if (initRedirectProbability > 0 || sessionRedirectProbability > 0) {
+          RedirectionRule rule = new RedirectionRule(receiver.getKey(),
+              ruleIdSeq.getAndIncrement(), initRedirectProbability,
+              sessionRedirectProbability, recalculationPeriod * 1000L);
+          LOG.debug("Calculated new rule for accessPointId: {} -> {}", accessPointId, rule);
+          redirectionRules.add(rule);
+        }
+      }
+      result.put(accessPointId, redirectionRules);
+    }
+    return result;
+  }
+
+  @Override
+  public Map<Integer, Integer> getOpsServerPriorities() {
+    return priorities;
+  }
+
+  private Map<Integer, Double> calculateScores(Map<Integer, LoadInfo> loads) {
+    Map<Integer, Double> scores = new LinkedHashMap<>();
+    for (Integer accessPointId : loads.keySet()) {
+      scores.put(accessPointId, 0.0);
+    }
+    double totalWeight = 0;
+    for (LoadMetric metric : LoadMetric.values()) {
+      double sum = 0;
+      boolean reportedByAll = true;
+      for (LoadInfo load : loads.values()) {
+        Double value = load != null ? metric.getValue(load) : null;
+        if (value == null || value < 0 || value.isNaN()) {
+          reportedByAll = false;
+          break;
+        }
+        sum += value;
+      }
+      if (!reportedByAll || sum <= 0) {
+        continue;
+      }
+      double mean = sum / loads.size();
+      for (Entry<Integer, LoadInfo> load : loads.entrySet()) {
+        double relative = metric.getValue(load.getValue()) / mean;
+        scores.put(load.getKey(), scores.get(load.getKey()) + metric.weight * relative);
+      }
+      totalWeight += metric.weight;
+    }
+    for (Entry<Integer, Double> score : scores.entrySet()) {
+      score.setValue(totalWeight > 0 ? score.getValue() / totalWeight : 1.0);
+    }
+    return scores;
+  }
+
+  private LoadInfo getLastLoadInfo(OperationsServerLoadHistory loadHistory) {
+    List<OperationsServerLoad> history = loadHistory.getHistory();
+    if (!history.isEmpty()) {
+      return history.get(history.size() - 1).getLoadInfo();
+    }
+    return null;
+  }
+
+  private enum LoadMetric {
+    ENDPOINT_COUNT(ENDPOINT_COUNT_WEIGHT) {
+      @Override
+      Double getValue(LoadInfo load) {
+        return load.getEndpointCount() != null ? load.getEndpointCount().doubleValue() : null;
+      }
+    },
+    SYNC_RATE(SYNC_RATE_WEIGHT) {
+      @Override
+      Double getValue(LoadInfo load) {
+        return load.getSyncRate();
+      }
+    },
+    SYNC_LATENCY(SYNC_LATENCY_WEIGHT) {
+      @Override
+      Double getValue(LoadInfo load) {
+        return load.getSyncLatencyP99();
+      }
+    },
+    MAILBOX_DEPTH(MAILBOX_DEPTH_WEIGHT) {
+      @Override
+      Double getValue(LoadInfo load) {
+        return load.getMailboxDepth();
+      }
+    },
+    CPU_LOAD(CPU_LOAD_WEIGHT) {
+      @Override
+      Double getValue(LoadInfo load) {
+        return load.getCpuLoad();
+      }
+    },
+    HEAP_USAGE(HEAP_USAGE_WEIGHT) {
+      @Override
+      Double getValue(LoadInfo load) {
+        return load.getHeapUsage();
+      }
+    };
+
+    private final double weight;
+
+    LoadMetric(double weight) {
+      this.weight = weight;
+    }
+
+    abstract Double getValue(LoadInfo load);
+  }
+}
@@ -34,4 +34,12 @@ public interface Rebalancer {
    */
   Map<Integer, List<RedirectionRule>> recalculate(
       Map<Integer, OperationsServerLoadHistory> opsServerLoadHistory);
+
+  /**
+   * Get Operations servers priorities calculated by the last recalculation. Bootstrap servers
+   * don't hand out Operations servers with zero priority while other servers are available.
+   *
+   * @return the map access point id, priority; empty if the rebalancer doesn't prioritize servers
+   */
+  Map<Integer, Integer> getOpsServerPriorities();
 }
@@ -17,27 +17,19 @@
 package org.kaaproject.kaa.server.control.service.zk;
 
 import org.apache.curator.framework.CuratorFramework;
-import org.apache.thrift.TException;
-import org.kaaproject.kaa.server.common.thrift.KaaThriftService;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
-import org.kaaproject.kaa.server.common.thrift.gen.operations.OperationsThriftService;
-import org.kaaproject.kaa.server.common.thrift.gen.operations.OperationsThriftService.Client;
-import org.kaaproject.kaa.server.common.thrift.util.ThriftActivity;
-import org.kaaproject.kaa.server.common.thrift.util.ThriftClient;
-import org.kaaproject.kaa.server.common.thrift.util.ThriftExecutor;
 import org.kaaproject.kaa.server.common.zk.control.ControlNode;
 import org.kaaproject.kaa.server.common.zk.gen.BootstrapNodeInfo;
 import org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo;
 import org.kaaproject.kaa.server.common.zk.gen.ControlNodeInfo;
-import org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo;
 import org.kaaproject.kaa.server.node.service.config.KaaNodeServerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 /**
@@ -49,6 +41,14 @@ public class ControlZkService {
 
   private static final Logger LOG = LoggerFactory.getLogger(ControlZkService.class);
 
+  private static final long DEFAULT_NOTIFICATION_COALESCE_WINDOW_MS = 100;
+
+  private static final int DEFAULT_MAX_PENDING_NOTIFICATIONS = 10000;
+
+  private static final int DEFAULT_NOTIFICATION_MAX_RETRIES = 3;
+
+  private static final long DEFAULT_NOTIFICATION_RETRY_BACKOFF_MS = 500;
+
   @Autowired
   private KaaNodeServerConfig kaaNodeServerConfig;
 
@@ -57,8 +57,22 @@ public class ControlZkService {
 
 
 
+  @Value("#{properties[notification_coalesce_window_ms] ?: 100}")
+  private long notificationCoalesceWindowMs = DEFAULT_NOTIFICATION_COALESCE_WINDOW_MS;
+
+  @Value("#{properties[max_pending_notifications] ?: 10000}")
+  private int maxPendingNotifications = DEFAULT_MAX_PENDING_NOTIFICATIONS;
+
+  @Value("#{properties[notification_max_retries] ?: 3}")
+  private int notificationMaxRetries = DEFAULT_NOTIFICATION_MAX_RETRIES;
+
+  @Value("#{properties[notification_retry_backoff_ms] ?: 500}")
+  private long notificationRetryBackoffMs = DEFAULT_NOTIFICATION_RETRY_BACKOFF_MS;
+
   private ControlNode controlZkNode;
 
+  private volatile OperationsNotificationChannel notificationChannel;
+
   /**
    * KaaNodeServerConfig getter.
    *
@@ -98,6 +112,10 @@ public class ControlZkService {
    */
   public void stop() {
     if (getNodeConfig().isZkEnabled()) {
+      if (notificationChannel != null) {
+        notificationChannel.shutdown();
+        notificationChannel = null;
+      }
       try {
         controlZkNode.close();
       } catch (IOException ex) {
@@ -107,49 +125,31 @@ public class ControlZkService {
   }
 
   /**
-   * Send endpoint notification.
+   * Send endpoint notification. Notifications are coalesced and sent in batches
+   * through persistent connections to operations nodes.
    *
    * @param thriftNotification the thrift notification
    */
   public void sendEndpointNotification(final Notification thriftNotification) {
     if (getNodeConfig().isZkEnabled()) {
-      List<OperationsNodeInfo> endpoints = controlZkNode.getCurrentOperationServerNodes();
-      for (OperationsNodeInfo endpoint : endpoints) {
-        String host = endpoint.getConnectionInfo().getThriftHost().toString();
-        int port = endpoint.getConnectionInfo().getThriftPort();
-        try {
-          ThriftClient<OperationsThriftService.Client> thriftClient = new ThriftClient<>(host, port,
-              KaaThriftService.OPERATIONS_SERVICE, OperationsThriftService.Client.class);
-          thriftClient.setThriftActivity(new ThriftActivity<OperationsThriftService.Client>() {
-            @Override
-            public void isSuccess(boolean activitySuccess) {
-              if (!activitySuccess) {
-                LOG.error("Sending notification to endpoint server failed.");
-              }
-            }
-
-            @Override
-            public void doInTemplate(Client template) {
-              try { // NOSONAR
-                template.onNotification(thriftNotification);
-              } catch (TException ex) {
-                LOG.error("Unexpected error occurred while send notification to endpoint server",
-                    ex);
-              }
-            }
-          });
-          ThriftExecutor.execute(thriftClient);
-        } catch (NoSuchMethodException
-            | SecurityException
-            | InstantiationException
-            | IllegalAccessException
-            | IllegalArgumentException
-            | InvocationTargetException ex) {
-          LOG.error("Unexpected error occurred while creating thrift connection"
-              + " to send notification to endpoint server", ex);
+      getNotificationChannel().send(thriftNotification);
+    }
+  }
+
+  private OperationsNotificationChannel getNotificationChannel() {
+    if (notificationChannel == null) {
+      synchronized (this) {
+        if (notificationChannel == null) {
+          OperationsNotificationChannel channel = new OperationsNotificationChannel(
+              notificationCoalesceWindowMs, maxPendingNotifications,
+              notificationMaxRetries, notificationRetryBackoffMs);
+          channel.start(new ConnectionInfo(getNodeConfig().getThriftHost(),
+              getNodeConfig().getThriftPort(), null), controlZkNode);
+          notificationChannel = channel;
         }
       }
     }
+    return notificationChannel;
   }
 
   /**
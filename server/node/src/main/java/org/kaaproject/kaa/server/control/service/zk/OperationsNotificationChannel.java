@@ -0,0 +1,313 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.control.service.zk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.thrift.TException;
+import org.kaaproject.kaa.server.common.thrift.KaaThriftService;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.OperationsThriftService.Iface;
+import org.kaaproject.kaa.server.common.zk.WorkerNodeTracker;
+import org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo;
+import org.kaaproject.kaa.server.thrift.NeighborTemplate;
+import org.kaaproject.kaa.server.thrift.Neighbors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers endpoint notifications from the control service to all operations nodes.
+ * Notifications are buffered for a short window, redundant ones are coalesced and the
+ * rest are pushed to every node through a single persistent connection, so each node
+ * receives them in order.
+ *
+ * <p>Callers never wait for the nodes: batches are handed to the node queues from the flush
+ * thread, a batch that doesn't fit into the queue of a node is dropped for that node, and
+ * failed sends are retried from a scheduler rather than on the connection worker.
+ */
+public class OperationsNotificationChannel {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OperationsNotificationChannel.class);
+
+  /**
+   * One connection per node keeps notifications ordered.
+   */
+  private static final int CONNECTIONS_PER_NODE = 1;
+
+  private static final long SHUTDOWN_TIMEOUT_MS = 1000;
+
+  private final Neighbors<NeighborTemplate<Notification>, Notification> neighbors;
+
+  private final long coalesceWindowMs;
+
+  private final int maxPendingNotifications;
+
+  private final int maxRetries;
+
+  private final long retryBackoffMs;
+
+  private final ScheduledExecutorService flushExecutor;
+
+  private final ScheduledExecutorService retryExecutor;
+
+  private final Map<Notification, Notification> pending = new LinkedHashMap<>();
+
+  private ScheduledFuture<?> flushTask;
+
+  /**
+   * Create a new instance of OperationsNotificationChannel.
+   *
+   * @param coalesceWindowMs        the time notifications are buffered before sending
+   * @param maxPendingNotifications the max number of buffered or queued notifications per node
+   * @param maxRetries              the max number of send retries
+   * @param retryBackoffMs          the initial delay between send retries, doubled on each retry
+   */
+  public OperationsNotificationChannel(long coalesceWindowMs, int maxPendingNotifications,
+                                       int maxRetries, long retryBackoffMs) {
+    this.coalesceWindowMs = coalesceWindowMs;
+    this.maxPendingNotifications = maxPendingNotifications;
+    this.maxRetries = maxRetries;
+    this.retryBackoffMs = retryBackoffMs;
+    this.neighbors = new Neighbors<NeighborTemplate<Notification>, Notification>(
+        KaaThriftService.OPERATIONS_SERVICE, new NotificationTemplate(),
+        CONNECTIONS_PER_NODE, maxPendingNotifications);
+    this.flushExecutor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("notification-flush-%d").setDaemon(true).build());
+    this.retryExecutor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("notification-retry-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Start tracking operations nodes.
+   *
+   * @param connectionInfo the connection info of this control node
+   * @param zkNode         the ZooKeeper node used to track operations nodes
+   */
+  public void start(ConnectionInfo connectionInfo, WorkerNodeTracker zkNode) {
+    neighbors.setZkNode(KaaThriftService.KAA_NODE_SERVICE, connectionInfo, zkNode);
+  }
+
+  /**
+   * Stop the channel, buffered notifications are handed to the nodes before stopping.
+   */
+  public void shutdown() {
+    flush();
+    flushExecutor.shutdown();
+    try {
+      flushExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    retryExecutor.shutdownNow();
+    neighbors.shutdown();
+  }
+
+  /**
+   * Schedule notification for delivery to all operations nodes. A pending notification
+   * that differs from this one only by sequence numbers is replaced by this one.
+   *
+   * @param notification the notification
+   */
+  public void send(Notification notification) {
+    synchronized (pending) {
+      Notification key = getCoalescingKey(notification);
+      if (pending.remove(key) != null) {
+        LOG.trace("Coalesced notification {}", notification);
+      }
+      pending.put(key, notification);
+      if (pending.size() >= maxPendingNotifications) {
+        sendPending();
+      } else if (flushTask == null) {
+        flushTask = flushExecutor.schedule(new Runnable() {
+          @Override
+          public void run() {
+            flush();
+          }
+        }, coalesceWindowMs, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Send buffered notifications without waiting for the end of the coalescing window.
+   */
+  public void flush() {
+    synchronized (pending) {
+      sendPending();
+    }
+  }
+
+  /**
+   * Drains the buffer and hands the batch to the flush thread. Batches are submitted in the
+   * order they are drained and the flush thread is single, so nodes still get them in order.
+   */
+  private void sendPending() {
+    if (flushTask != null) {
+      flushTask.cancel(false);
+      flushTask = null;
+    }
+    if (!pending.isEmpty()) {
+      final List<Notification> batch = new ArrayList<>(pending.values());
+      pending.clear();
+      if (flushExecutor.isShutdown()) {
+        LOG.warn("Dropping {} notifications, the channel is stopped", batch.size());
+        return;
+      }
+      flushExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          broadcast(batch);
+        }
+      });
+    }
+  }
+
+  void broadcast(List<Notification> batch) {
+    LOG.debug("Sending {} notifications to operations nodes", batch.size());
+    neighbors.offerBroadcastMessages(batch);
+  }
+
+  /**
+   * Notifications for the same entity and operation differ only by sequence numbers,
+   * so the latest one makes the previous ones redundant.
+   */
+  static Notification getCoalescingKey(Notification notification) {
+    Notification key = notification.deepCopy();
+    key.unsetAppSeqNumber();
+    key.unsetGroupSeqNumber();
+    key.unsetProfileFilterSeqNumber();
+    key.unsetConfigurationSeqNumber();
+    return key;
+  }
+
+  /**
+   * Sends notifications over the connection of a node. When a send fails, the rest of the
+   * batch and the batches that follow it are kept in a backlog that is retried from the
+   * retry scheduler, so the connection worker doesn't sleep and the order is kept.
+   */
+  class NotificationTemplate implements NeighborTemplate<Notification> {
+
+    private final Map<Iface, Backlog> backlogs = new ConcurrentHashMap<>();
+
+    @Override
+    public void process(Iface client, List<Notification> messages) throws TException {
+      Backlog backlog = backlogs.get(client);
+      if (backlog != null && backlog.append(messages)) {
+        return;
+      }
+      for (int i = 0; i < messages.size(); i++) {
+        try {
+          client.onNotification(messages.get(i));
+        } catch (TException ex) {
+          if (maxRetries <= 0) {
+            LOG.error("Dropping {} notifications", messages.size() - i, ex);
+            return;
+          }
+          LOG.warn("Failed to send notification, retry in {} ms", retryBackoffMs, ex);
+          backlog = new Backlog(client, messages.subList(i, messages.size()));
+          backlogs.put(client, backlog);
+          backlog.schedule(retryBackoffMs);
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void onServerError(String serverId, Exception ex) {
+      LOG.error("Can't send notification to {}", serverId, ex);
+    }
+
+    private final class Backlog implements Runnable {
+
+      private final Iface client;
+      private final LinkedList<Notification> notifications;
+      private int attempt = 1;
+      private boolean closed;
+
+      private Backlog(Iface client, List<Notification> notifications) {
+        this.client = client;
+        this.notifications = new LinkedList<>(notifications);
+      }
+
+      synchronized boolean append(List<Notification> messages) {
+        if (closed) {
+          return false;
+        }
+        notifications.addAll(messages);
+        return true;
+      }
+
+      void schedule(long delay) {
+        try {
+          retryExecutor.schedule(this, delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException ex) {
+          LOG.warn("Can't schedule notification retry", ex);
+          close();
+        }
+      }
+
+      @Override
+      public void run() {
+        while (true) {
+          Notification next;
+          synchronized (this) {
+            next = notifications.peek();
+            if (next == null) {
+              close();
+              return;
+            }
+          }
+          try {
+            client.onNotification(next);
+            synchronized (this) {
+              notifications.poll();
+            }
+            attempt = 0;
+          } catch (TException ex) {
+            if (attempt >= maxRetries) {
+              LOG.error("Dropping {} notifications after {} retries", close(), maxRetries, ex);
+              return;
+            }
+            long delay = retryBackoffMs << attempt++;
+            LOG.warn("Failed to send notification, retry in {} ms", delay, ex);
+            schedule(delay);
+            return;
+          }
+        }
+      }
+
+      private synchronized int close() {
+        closed = true;
+        backlogs.remove(client, this);
+        int dropped = notifications.size();
+        notifications.clear();
+        return dropped;
+      }
+    }
+  }
+}
@@ -16,15 +16,21 @@
 
 package org.kaaproject.kaa.server.node.service.thrift;
 
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
 import org.apache.thrift.TException;
 import org.kaaproject.kaa.server.common.thrift.cli.server.BaseCliThriftService;
+import org.kaaproject.kaa.server.common.thrift.cli.server.Command;
 import org.kaaproject.kaa.server.common.thrift.gen.node.KaaNodeThriftService;
 import org.kaaproject.kaa.server.node.service.initialization.InitializationService;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.PrintWriter;
+
 /**
  * The Class KaaNodeThriftServiceImpl.<br>
  * Implementation of Kaa Node Thrift Interface.
@@ -44,6 +50,12 @@ public class KaaNodeThriftServiceImpl extends BaseCliThriftService
   @Autowired
   private InitializationService kaaNodeInitializationService;
 
+  /**
+   * The metrics service.
+   */
+  @Autowired
+  private MetricsService metricsService;
+
   @Override
   protected String getServerShortName() {
     return "kaa-node";
@@ -51,7 +63,19 @@ public class KaaNodeThriftServiceImpl extends BaseCliThriftService
 
   @Override
   protected void initServiceCommands() {
-    // Do nothing
+    Command metricsCommand = new Command("metrics", "display sync stage timers") {
+      @Override
+      public void runCommand(CommandLine line, PrintWriter writer) {
+        if (metricsService.isEnabled()) {
+          metricsService.printTimers(writer, line.getOptionValue('f'));
+        } else {
+          writer.println("Metrics collection is disabled.");
+        }
+      }
+    };
+    metricsCommand.addOption(new Option("f", "filter", true,
+        "Display only timers whose name contains the filter, i.e. application token"));
+    addCommand(metricsCommand);
   }
 
   /*
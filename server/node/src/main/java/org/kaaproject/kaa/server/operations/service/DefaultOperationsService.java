@@ -42,6 +42,8 @@ import org.kaaproject.kaa.server.operations.service.cache.TopicListCacheEntry;
 import org.kaaproject.kaa.server.operations.service.delta.DeltaService;
 import org.kaaproject.kaa.server.operations.service.delta.HistoryDelta;
 import org.kaaproject.kaa.server.operations.service.history.HistoryDeltaService;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStage;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStageTimers;
 import org.kaaproject.kaa.server.operations.service.notification.NotificationDeltaService;
 import org.kaaproject.kaa.server.operations.service.profile.ProfileService;
 import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
@@ -114,6 +116,9 @@ public class DefaultOperationsService implements OperationsService {
   @Autowired
   EndpointService endpointService;
 
+  @Autowired
+  SyncStageTimers syncStageTimers;
+
   private String operationServerHash;
 
   /**
@@ -255,6 +260,7 @@ public class DefaultOperationsService implements OperationsService {
 
   @Override
   public SyncContext syncClientProfile(SyncContext context, ProfileClientSync profileSyncRequest) {
+    long start = System.nanoTime();
     EndpointProfileDto profile = context.getEndpointProfile();
 
     ClientSyncMetaData metaData = context.getMetaData();
@@ -301,6 +307,7 @@ public class DefaultOperationsService implements OperationsService {
 
     context.setNotificationVersion(profile);
 
+    syncStageTimers.record(SyncStage.PROFILE, metaData.getApplicationToken(), start);
     return context;
   }
 
@@ -423,10 +430,12 @@ public class DefaultOperationsService implements OperationsService {
   public SyncContext syncConfiguration(SyncContext context, ConfigurationClientSync request)
       throws GetDeltaException {
     if (request != null) {
-      GetDeltaResponse confResponse = calculateConfigurationDelta(
-          context.getMetaData().getApplicationToken(), request, context);
+      long start = System.nanoTime();
+      String appToken = context.getMetaData().getApplicationToken();
+      GetDeltaResponse confResponse = calculateConfigurationDelta(appToken, request, context);
       ConfigurationServerSync confSyncResponse = buildConfSyncResponse(confResponse);
       context.setConfigurationSyncResponse(confSyncResponse);
+      syncStageTimers.record(SyncStage.CONFIGURATION, appToken, start);
     }
     return context;
   }
@@ -458,9 +467,10 @@ public class DefaultOperationsService implements OperationsService {
   @Override
   public SyncContext syncNotification(SyncContext context, NotificationClientSync request) {
     if (request != null) {
+      long start = System.nanoTime();
+      String appToken = context.getMetaData().getApplicationToken();
       GetNotificationResponse notificationResponse = calculateNotificationDelta(
-          context.getMetaData().getApplicationToken(), request,
-          context);
+          appToken, request, context);
       context.setSubscriptionStates(notificationResponse.getSubscriptionStates());
       NotificationServerSync nfSyncResponse = buildNotificationSyncResponse(notificationResponse);
       context.setNotificationSyncResponse(nfSyncResponse);
@@ -476,6 +486,7 @@ public class DefaultOperationsService implements OperationsService {
               return updateFunction.apply(storedProfile);
             }));
       }
+      syncStageTimers.record(SyncStage.NOTIFICATION, appToken, start);
     }
     return context;
   }
@@ -688,16 +699,20 @@ public class DefaultOperationsService implements OperationsService {
                                     String applicationToken,
                                     EndpointProfileDto profile,
                                     int endSeqNumber) {
+    long start = System.nanoTime();
+    HistoryDelta historyDelta;
     if (isFirstRequest(profile)) {
       LOG.debug("[{}] Profile has no endpoint groups yet. Calculating full list", endpointKey);
-      return historyDeltaService.getDelta(profile, applicationToken, endSeqNumber);
+      historyDelta = historyDeltaService.getDelta(profile, applicationToken, endSeqNumber);
     } else {
       LOG.debug("[{}] Profile has endpoint groups. Calculating changes from {} to {}",
           endpointKey, profile.getSequenceNumber(),
           endSeqNumber);
-      return historyDeltaService.getDelta(
+      historyDelta = historyDeltaService.getDelta(
           profile, applicationToken, profile.getSequenceNumber(), endSeqNumber);
     }
+    syncStageTimers.record(SyncStage.HISTORY, applicationToken, start);
+    return historyDelta;
   }
 
   /*
@@ -18,17 +18,21 @@ package org.kaaproject.kaa.server.operations.service.akka;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigUtil;
 
 import org.kaaproject.kaa.server.common.dao.ApplicationService;
 import org.kaaproject.kaa.server.common.dao.CtlService;
+import org.kaaproject.kaa.server.common.verifier.UserVerificationRuntime;
 import org.kaaproject.kaa.server.node.service.credentials.CredentialsServiceLocator;
 import org.kaaproject.kaa.server.node.service.registration.RegistrationService;
 import org.kaaproject.kaa.server.operations.service.OperationsService;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
 import org.kaaproject.kaa.server.operations.service.cluster.ClusterService;
 import org.kaaproject.kaa.server.operations.service.event.EventService;
+import org.kaaproject.kaa.server.operations.service.logs.LogAppenderQueueOverflowPolicy;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
 import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStageTimers;
 import org.kaaproject.kaa.server.operations.service.notification.NotificationDeltaService;
 import org.kaaproject.kaa.server.operations.service.security.KeyStoreService;
 import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
@@ -46,10 +50,46 @@ public class AkkaContext {
 
   private static final String ENDPOINT_EVENT_TIMEOUT = "endpoint_event_timeout";
 
+  private static final String APPLICATION_ENDPOINT_SHARD_COUNT =
+      "application_endpoint_shard_count";
+
+  private static final String APPLICATION_ENDPOINT_SHARDS = "application_endpoint_shards";
+
+  private static final String STATUS_REQUEST_TIMEOUT = "status_request_timeout";
+
+  private static final String LOG_APPENDER_QUEUE_SIZE = "log_appender_queue_size";
+
+  private static final String LOG_APPENDER_QUEUE_OVERFLOW_POLICY =
+      "log_appender_queue_overflow_policy";
+
   private static final String IO_WORKER_COUNT_PROP_NAME = "io_worker_count";
 
+  private static final String USER_VERIFICATION_MAX_CONCURRENCY =
+      "user_verification_max_concurrency";
+
+  private static final String USER_VERIFICATION_CACHE_SIZE = "user_verification_cache_size";
+
+  private static final String USER_VERIFICATION_SUCCESS_TTL = "user_verification_success_ttl";
+
+  private static final String USER_VERIFICATION_FAILURE_TTL = "user_verification_failure_ttl";
+
+  private static final String USER_VERIFICATION_TIMEOUT = "user_verification_timeout";
+
+  private static final long DEFAULT_STATUS_REQUEST_TIMEOUT = 10000;
+
+  private static final int DEFAULT_USER_VERIFICATION_MAX_CONCURRENCY = 64;
+
+  private static final int DEFAULT_USER_VERIFICATION_CACHE_SIZE = 100000;
+
+  private static final long DEFAULT_USER_VERIFICATION_SUCCESS_TTL = 300000;
+
+  private static final long DEFAULT_USER_VERIFICATION_FAILURE_TTL = 30000;
+
+  private static final long DEFAULT_USER_VERIFICATION_TIMEOUT = 60000;
+
   private static final String AKKA_CONF_FILE_NAME = "akka.conf";
   private final Config config;
+  private final UserVerificationRuntime userVerificationRuntime;
   @Autowired
   private ClusterService clusterService;
   /**
@@ -79,6 +119,8 @@ public class AkkaContext {
   @Autowired
   private MetricsService metricsService;
   @Autowired
+  private SyncStageTimers syncStageTimers;
+  @Autowired
   private LogAppenderService logAppenderService;
   @Autowired
   private EndpointUserService endpointUserService;
@@ -94,6 +136,12 @@ public class AkkaContext {
 
   public AkkaContext() {
     config = ConfigFactory.parseResources(AKKA_CONF_FILE_NAME).withFallback(ConfigFactory.load());
+    userVerificationRuntime = new UserVerificationRuntime(
+        getInt(USER_VERIFICATION_MAX_CONCURRENCY, DEFAULT_USER_VERIFICATION_MAX_CONCURRENCY),
+        getInt(USER_VERIFICATION_CACHE_SIZE, DEFAULT_USER_VERIFICATION_CACHE_SIZE),
+        getLong(USER_VERIFICATION_SUCCESS_TTL, DEFAULT_USER_VERIFICATION_SUCCESS_TTL),
+        getLong(USER_VERIFICATION_FAILURE_TTL, DEFAULT_USER_VERIFICATION_FAILURE_TTL),
+        getLong(USER_VERIFICATION_TIMEOUT, DEFAULT_USER_VERIFICATION_TIMEOUT));
   }
 
   public Config getConfig() {
@@ -116,6 +164,76 @@ public class AkkaContext {
     return config.getLong(ENDPOINT_EVENT_TIMEOUT);
   }
 
+  /**
+   * Returns the count of endpoint shards for the application. Application
+   * specific value takes precedence over the default one.
+   *
+   * @param appToken the application token
+   * @return the count of endpoint shards
+   */
+  public int getEndpointShardCount(String appToken) {
+    String appPath = ConfigUtil.joinPath(APPLICATION_ENDPOINT_SHARDS, appToken);
+    if (config.hasPath(appPath)) {
+      return config.getInt(appPath);
+    } else if (config.hasPath(APPLICATION_ENDPOINT_SHARD_COUNT)) {
+      return config.getInt(APPLICATION_ENDPOINT_SHARD_COUNT);
+    } else {
+      return 1;
+    }
+  }
+
+  /**
+   * Returns the time an application actor waits for status responses of its
+   * endpoint shards before it replies with the counts collected so far.
+   *
+   * @return the status request timeout in ms
+   */
+  public long getStatusRequestTimeout() {
+    return config.hasPath(STATUS_REQUEST_TIMEOUT)
+        ? config.getLong(STATUS_REQUEST_TIMEOUT) : DEFAULT_STATUS_REQUEST_TIMEOUT;
+  }
+
+  /**
+   * Returns the max amount of log event packs queued per log appender. Zero
+   * means that log event packs are passed to appenders synchronously.
+   *
+   * @return the log appender queue size
+   */
+  public int getLogAppenderQueueSize() {
+    return config.hasPath(LOG_APPENDER_QUEUE_SIZE) ? config.getInt(LOG_APPENDER_QUEUE_SIZE) : 0;
+  }
+
+  /**
+   * Returns the policy that is applied when a log appender queue is full.
+   *
+   * @return the log appender queue overflow policy
+   */
+  public LogAppenderQueueOverflowPolicy getLogAppenderQueueOverflowPolicy() {
+    if (config.hasPath(LOG_APPENDER_QUEUE_OVERFLOW_POLICY)) {
+      return LogAppenderQueueOverflowPolicy.valueOf(
+          config.getString(LOG_APPENDER_QUEUE_OVERFLOW_POLICY));
+    } else {
+      return LogAppenderQueueOverflowPolicy.DROP_OPTIONAL;
+    }
+  }
+
+  /**
+   * Returns the runtime that runs and caches user verifications of all applications.
+   *
+   * @return the user verification runtime
+   */
+  public UserVerificationRuntime getUserVerificationRuntime() {
+    return userVerificationRuntime;
+  }
+
+  private int getInt(String path, int defaultValue) {
+    return config.hasPath(path) ? config.getInt(path) : defaultValue;
+  }
+
+  private long getLong(String path, long defaultValue) {
+    return config.hasPath(path) ? config.getLong(path) : defaultValue;
+  }
+
   public ClusterService getClusterService() {
     return clusterService;
   }
@@ -148,6 +266,10 @@ public class AkkaContext {
     return metricsService;
   }
 
+  public SyncStageTimers getSyncStageTimers() {
+    return syncStageTimers;
+  }
+
   public LogAppenderService getLogAppenderService() {
     return logAppenderService;
   }
@@ -52,6 +52,7 @@ public class DefaultAkkaService implements AkkaService {
   public static final String IO_DISPATCHER_NAME = "io-dispatcher";
   public static final String CORE_DISPATCHER_NAME = "core-dispatcher";
   public static final String USER_DISPATCHER_NAME = "user-dispatcher";
+  public static final String SHARD_DISPATCHER_NAME = "shard-dispatcher";
   public static final String ENDPOINT_DISPATCHER_NAME = "endpoint-dispatcher";
   public static final String LOG_DISPATCHER_NAME = "log-dispatcher";
   public static final String VERIFIER_DISPATCHER_NAME = "verifier-dispatcher";
@@ -172,6 +173,7 @@ public class DefaultAkkaService implements AkkaService {
     akka.stop(ioRouter);
     akka.stop(opsActor);
     akka.terminate();
+    context.getUserVerificationRuntime().stop();
   }
 
   @Override
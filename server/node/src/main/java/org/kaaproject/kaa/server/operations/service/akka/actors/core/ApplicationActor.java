@@ -16,8 +16,8 @@
 
 package org.kaaproject.kaa.server.operations.service.akka.actors.core;
 
-import static org.kaaproject.kaa.server.operations.service.akka.DefaultAkkaService.ENDPOINT_DISPATCHER_NAME;
 import static org.kaaproject.kaa.server.operations.service.akka.DefaultAkkaService.LOG_DISPATCHER_NAME;
+import static org.kaaproject.kaa.server.operations.service.akka.DefaultAkkaService.SHARD_DISPATCHER_NAME;
 import static org.kaaproject.kaa.server.operations.service.akka.DefaultAkkaService.TOPIC_DISPATCHER_NAME;
 import static org.kaaproject.kaa.server.operations.service.akka.DefaultAkkaService.VERIFIER_DISPATCHER_NAME;
 
@@ -31,30 +31,22 @@ import akka.japi.Creator;
 
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
-import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftEndpointDeregistrationMessage;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
-import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.global.GlobalEndpointActorCreator;
-import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local.LocalEndpointActorCreator;
 import org.kaaproject.kaa.server.operations.service.akka.actors.supervision.SupervisionStrategyFactory;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.EndpointAwareMessage;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.EndpointStopMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.lb.ClusterUpdateMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.LogEventPackMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.notification.ThriftNotificationMessage;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.ActorClassifier;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointActorMsg;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointAddress;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointClusterAddress;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointRouteMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.RouteMessage;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.RouteOperation;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.ThriftEndpointActorMsg;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.ApplicationActorStatusResponse;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.EndpointShardActorStatusResponse;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestState;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestTimeoutMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.topic.TopicSubscriptionMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventDeliveryMessage;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventDeliveryMessage.EventDeliveryStatus;
-import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventReceiveMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventSendMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserActionMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserActionRouteMessage;
@@ -64,10 +56,16 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.veri
 import org.kaaproject.kaa.server.transport.session.SessionAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 
 public class ApplicationActor extends UntypedActor {
@@ -76,21 +74,19 @@ public class ApplicationActor extends UntypedActor {
 
   private final AkkaContext context;
 
-  private final Map<EndpointObjectHash, GlobalEndpointActorMetaData> globalEndpointSessions;
   /**
-   * The endpoint sessions.
+   * The endpoint shards. Each shard owns endpoint actors of a subset of
+   * application endpoints.
    */
-  private final Map<EndpointObjectHash, LocalEndpointActorMetaData> localEndpointSessions;
+  private final ActorRef[] endpointShards;
 
-  private final Map<String, EndpointObjectHash> endpointActorMap;
+  private final Map<String, Integer> endpointShardIndexes;
 
   /**
    * The topic sessions.
    */
   private final Map<String, ActorRef> topicSessions;
 
-  private final String nodeId;
-
   private final String tenantId;
 
   private final String appToken;
@@ -99,6 +95,13 @@ public class ApplicationActor extends UntypedActor {
 
   private final Map<String, ActorRef> userVerifierSessions;
 
+  private final Map<UUID, StatusRequestState> statusRequestStatesMap;
+
+  /**
+   * Indexes of the endpoint shards that have not responded to a status request yet.
+   */
+  private final Map<UUID, Set<Integer>> statusRequestPendingShards;
+
   private ActorRef applicationLogActor;
 
   private ActorRef userVerifierActor;
@@ -111,15 +114,18 @@ public class ApplicationActor extends UntypedActor {
    */
   private ApplicationActor(AkkaContext context, String tenantId, String applicationToken) {
     this.context = context;
-    this.nodeId = context.getClusterService().getNodeId();
     this.tenantId = tenantId;
     this.appToken = applicationToken;
-    this.globalEndpointSessions = new HashMap<>();
-    this.localEndpointSessions = new HashMap<>();
-    this.endpointActorMap = new HashMap<>();
+    this.endpointShards = new ActorRef[Math.max(1, context.getEndpointShardCount(appToken))];
+    this.endpointShardIndexes = new HashMap<>();
     this.topicSessions = new HashMap<>();
     this.logsSessions = new HashMap<>();
     this.userVerifierSessions = new HashMap<>();
+    this.statusRequestStatesMap = new HashMap<>();
+    this.statusRequestPendingShards = new HashMap<>();
+    for (int i = 0; i < endpointShards.length; i++) {
+      endpointShards[i] = createEndpointShardActor(i);
+    }
     this.applicationLogActor = getOrCreateLogActor();
     this.userVerifierActor = getOrCreateUserVerifierActor();
   }
@@ -135,6 +141,20 @@ public class ApplicationActor extends UntypedActor {
     return topicId;
   }
 
+  /**
+   * Calculates the index of the endpoint shard that owns the endpoint.
+   *
+   * @param endpointKey the endpoint key hash
+   * @param shardCount  the total amount of shards
+   * @return the shard index
+   */
+  public static int getShardIndex(EndpointObjectHash endpointKey, int shardCount) {
+    if (shardCount <= 1) {
+      return 0;
+    }
+    return (endpointKey.hashCode() & Integer.MAX_VALUE) % shardCount;
+  }
+
   @Override
   public SupervisorStrategy supervisorStrategy() {
     return SupervisionStrategyFactory.createApplicationActorStrategy(context);
@@ -165,19 +185,20 @@ public class ApplicationActor extends UntypedActor {
       processTermination((Terminated) message);
     } else if (message instanceof ThriftNotificationMessage) {
       processThriftNotification((ThriftNotificationMessage) message);
-    } else if (message instanceof EndpointStopMessage) {
-      updateEndpointActor((EndpointStopMessage) message);
     } else if (message instanceof LogEventPackMessage) {
       processLogEventPackMessage((LogEventPackMessage) message);
     } else if (message instanceof UserVerificationRequestMessage) {
       processUserVerificationRequestMessage((UserVerificationRequestMessage) message);
     } else if (message instanceof EndpointUserActionMessage) {
-      processEndpointUserActionMessage((EndpointUserActionMessage) message, true);
+      processEndpointUserActionMessage((EndpointUserActionMessage) message);
     } else if (message instanceof EndpointUserActionRouteMessage) {
-      processEndpointUserActionMessage(((EndpointUserActionRouteMessage) message).getMessage(),
-          false);
+      processEndpointUserActionRouteMessage((EndpointUserActionRouteMessage) message);
     } else if (message instanceof StatusRequestMessage) {
       processStatusRequest((StatusRequestMessage) message);
+    } else if (message instanceof EndpointShardActorStatusResponse) {
+      processStatusResponse((EndpointShardActorStatusResponse) message);
+    } else if (message instanceof StatusRequestTimeoutMessage) {
+      processStatusRequestTimeout((StatusRequestTimeoutMessage) message);
     } else if (message instanceof ClusterUpdateMessage) {
       processClusterUpdate((ClusterUpdateMessage) message);
     } else if (message instanceof RouteMessage<?>) {
@@ -185,62 +206,23 @@ public class ApplicationActor extends UntypedActor {
     }
   }
 
-  private void processEndpointActorMsg(EndpointActorMsg message) {
-    EndpointAddress address = message.getAddress();
-    EndpointObjectHash endpointId = EndpointObjectHash.fromBytes(address.getEntityId());
-    ActorClassifier classifier = message.getClassifier();
-    if (classifier == ActorClassifier.APPLICATION) {
-      boolean processed = false;
-      if (message instanceof ThriftEndpointActorMsg<?>) {
-        processed = processCommonThriftEndpointActorMsg(
-            endpointId, (ThriftEndpointActorMsg<?>) message);
-      }
-      if (!processed) {
-        LOG.warn("[{}] Failed to lookup processor for endpoint msg {}.", endpointId, message);
-      }
-    } else {
-      EndpointActorMetaData actorMetaData = null;
-      if (classifier == ActorClassifier.GLOBAL) {
-        actorMetaData = globalEndpointSessions.get(endpointId);
-      } else if (classifier == ActorClassifier.LOCAL) {
-        actorMetaData = localEndpointSessions.get(endpointId);
-      }
-      if (actorMetaData != null) {
-        actorMetaData.actorRef.tell(message, context().self());
-      } else {
-        LOG.warn("[{}] Failed to lookup {} actor for endpoint.", endpointId, classifier.name());
-      }
-    }
+  private ActorRef getEndpointShard(EndpointObjectHash endpointKey) {
+    return endpointShards[getShardIndex(endpointKey, endpointShards.length)];
   }
 
-  private boolean processCommonThriftEndpointActorMsg(EndpointObjectHash endpointId,
-                                                      ThriftEndpointActorMsg<?> msg) {
-    if (msg.getMsg() instanceof ThriftEndpointDeregistrationMessage) {
-      forwardMessageQuietly(globalEndpointSessions.get(endpointId), msg);
-      forwardMessageQuietly(localEndpointSessions.get(endpointId), msg);
-      return true;
-    } else {
-      return false;
-    }
+  private void processEndpointActorMsg(EndpointActorMsg message) {
+    EndpointObjectHash endpointId = EndpointObjectHash.fromBytes(
+        message.getAddress().getEntityId());
+    getEndpointShard(endpointId).tell(message, self());
   }
 
-  private void forwardMessageQuietly(EndpointActorMetaData actorMetaData, Object msg) {
-    if (actorMetaData != null) {
-      actorMetaData.actorRef.tell(msg, context().self());
-    }
+  private void processClusterUpdate(ClusterUpdateMessage message) {
+    broadcastToEndpointShards(message);
   }
 
-  private void processClusterUpdate(ClusterUpdateMessage message) {
-    for (Entry<EndpointObjectHash, LocalEndpointActorMetaData> entry :
-        localEndpointSessions.entrySet()) {
-      String globalActorNodeId = getGlobalEndpointActorNodeId(entry.getKey());
-      if (!globalActorNodeId.equals(entry.getValue().globalActorNodeId)) {
-        entry.getValue().globalActorNodeId = globalActorNodeId;
-        notifyGlobalEndpointActor(entry.getKey(), globalActorNodeId);
-      }
-    }
-    for (GlobalEndpointActorMetaData entry : globalEndpointSessions.values()) {
-      entry.actorRef.tell(message, context().self());
+  private void broadcastToEndpointShards(Object message) {
+    for (ActorRef shard : endpointShards) {
+      shard.tell(message, self());
     }
   }
 
@@ -274,10 +256,72 @@ public class ApplicationActor extends UntypedActor {
 
   private void processStatusRequest(StatusRequestMessage message) {
     LOG.debug("[{}] Processing status request", message.getId());
-    int endpointCount = localEndpointSessions.size();
-    context().parent()
-        .tell(new ApplicationActorStatusResponse(message.getId(), endpointCount),
-            ActorRef.noSender());
+    statusRequestStatesMap.put(message.getId(),
+        new StatusRequestState(message, endpointShards.length));
+    Set<Integer> pendingShards = new HashSet<>();
+    for (int i = 0; i < endpointShards.length; i++) {
+      pendingShards.add(i);
+    }
+    statusRequestPendingShards.put(message.getId(), pendingShards);
+    broadcastToEndpointShards(new StatusRequestMessage(message.getId()));
+    context().system().scheduler().scheduleOnce(
+        Duration.create(context.getStatusRequestTimeout(), TimeUnit.MILLISECONDS), self(),
+        new StatusRequestTimeoutMessage(message.getId()), context().dispatcher(), self());
+  }
+
+  private void processStatusResponse(EndpointShardActorStatusResponse message) {
+    Set<Integer> pendingShards = statusRequestPendingShards.get(message.getRequestId());
+    if (pendingShards != null) {
+      if (pendingShards.remove(message.getShardIndex())) {
+        processShardStatusResponse(message);
+      }
+    } else {
+      LOG.warn("[{}] State for status request is not found", message.getRequestId());
+    }
+  }
+
+  /**
+   * Counts no endpoints for a terminated shard that has not responded yet, so
+   * the status request does not wait for a response that never comes.
+   *
+   * @param shardIndex the index of the terminated shard
+   */
+  private void processShardStatusFailure(int shardIndex) {
+    List<UUID> affectedRequests = new ArrayList<>();
+    for (Map.Entry<UUID, Set<Integer>> entry : statusRequestPendingShards.entrySet()) {
+      if (entry.getValue().remove(shardIndex)) {
+        affectedRequests.add(entry.getKey());
+      }
+    }
+    for (UUID requestId : affectedRequests) {
+      LOG.warn("[{}] Endpoint shard {} terminated before status response",
+          requestId, shardIndex);
+      processShardStatusResponse(new EndpointShardActorStatusResponse(requestId, shardIndex, 0));
+    }
+  }
+
+  private void processShardStatusResponse(EndpointShardActorStatusResponse message) {
+    StatusRequestState state = statusRequestStatesMap.get(message.getRequestId());
+    if (state != null && state.processResponse(message)) {
+      completeStatusRequest(message.getRequestId(), state);
+    }
+  }
+
+  private void processStatusRequestTimeout(StatusRequestTimeoutMessage message) {
+    StatusRequestState state = statusRequestStatesMap.get(message.getRequestId());
+    if (state != null) {
+      LOG.warn("[{}] Status request timed out, endpoint shards {} did not respond",
+          message.getRequestId(), statusRequestPendingShards.get(message.getRequestId()));
+      completeStatusRequest(message.getRequestId(), state);
+    }
+  }
+
+  private void completeStatusRequest(UUID requestId, StatusRequestState state) {
+    statusRequestStatesMap.remove(requestId);
+    statusRequestPendingShards.remove(requestId);
+    context().parent().tell(
+        new ApplicationActorStatusResponse(requestId, state.getEndpontCount()),
+        ActorRef.noSender());
   }
 
   /**
@@ -298,7 +342,7 @@ public class ApplicationActor extends UntypedActor {
       processUserVerifierNotificationMessage(message);
     } else {
       LOG.debug("[{}] Broadcasting message to all endpoints", appToken);
-      broadcastToAllEndpoints(message);
+      broadcastToEndpointShards(message);
     }
   }
 
@@ -333,17 +377,6 @@ public class ApplicationActor extends UntypedActor {
     return topicActor;
   }
 
-  /**
-   * Broadcast to all endpoints.
-   *
-   * @param message the message
-   */
-  private void broadcastToAllEndpoints(ThriftNotificationMessage message) {
-    for (LocalEndpointActorMetaData endpoint : localEndpointSessions.values()) {
-      endpoint.actorRef.tell(message, self());
-    }
-  }
-
   /**
    * Process endpoint aware message.
    *
@@ -358,10 +391,8 @@ public class ApplicationActor extends UntypedActor {
       processEndpointUserDeregistration((EndpointUserDisconnectMessage) message);
     } else if (message instanceof EndpointEventSendMessage) {
       processEndpointEventSendMessage((EndpointEventSendMessage) message);
-    } else if (message instanceof EndpointEventReceiveMessage) {
-      processEndpointEventReceiveMessage((EndpointEventReceiveMessage) message);
     } else {
-      processEndpointRequest(message);
+      getEndpointShard(message.getKey()).tell(message, self());
     }
   }
 
@@ -371,26 +402,7 @@ public class ApplicationActor extends UntypedActor {
    * @param message the message
    */
   private void processSessionAwareMessage(SessionAware message) {
-    LocalEndpointActorMetaData endpointMetaData = localEndpointSessions
-        .get(message.getSessionInfo().getKey());
-    if (endpointMetaData != null) {
-      endpointMetaData.actorRef.tell(message, self());
-    } else {
-      LOG.debug("[{}] Can't find endpoint actor that corresponds to {}",
-          appToken, message.getSessionInfo().getKey());
-    }
-  }
-
-  private void processEndpointEventReceiveMessage(EndpointEventReceiveMessage message) {
-    LocalEndpointActorMetaData endpointActor = localEndpointSessions.get(message.getKey());
-    if (endpointActor != null) {
-      endpointActor.actorRef.tell(message, self());
-    } else {
-      LOG.debug("[{}] Can't find endpoint actor that corresponds to {}",
-          appToken, message.getKey());
-      context().parent()
-          .tell(new EndpointEventDeliveryMessage(message, EventDeliveryStatus.FAILURE), self());
-    }
+    getEndpointShard(message.getSessionInfo().getKey()).tell(message, self());
   }
 
   private void processEndpointEventSendMessage(EndpointEventSendMessage message) {
@@ -431,107 +443,31 @@ public class ApplicationActor extends UntypedActor {
     context().parent().tell(message, self());
   }
 
-  /**
-   * Process session endpoint request.
-   *
-   * @param message the message
-   */
-  private void processEndpointRequest(EndpointAwareMessage message) {
-    LocalEndpointActorMetaData actorMetaData = localEndpointSessions.get(message.getKey());
-    if (actorMetaData == null) {
-      EndpointObjectHash endpointKey = message.getKey();
-      String endpointActorId = LocalEndpointActorCreator.generateActorKey();
-      LOG.debug("[{}] Creating actor with endpointKey: {}", appToken, endpointActorId);
-      String globalActorNodeId = getGlobalEndpointActorNodeId(endpointKey);
-      actorMetaData = new LocalEndpointActorMetaData(context()
-          .actorOf(Props
-              .create(new LocalEndpointActorCreator(
-                  context,
-                  endpointActorId,
-                  message.getAppToken(),
-                  message.getKey()
-              )).withDispatcher(ENDPOINT_DISPATCHER_NAME), endpointActorId),
-          endpointActorId, globalActorNodeId);
-      localEndpointSessions.put(message.getKey(), actorMetaData);
-      endpointActorMap.put(endpointActorId, message.getKey());
-      context().watch(actorMetaData.actorRef);
-      notifyGlobalEndpointActor(endpointKey, globalActorNodeId);
-    }
-    actorMetaData.actorRef.tell(message, self());
-  }
-
-  private String getGlobalEndpointActorNodeId(EndpointObjectHash endpointKey) {
-    return context.getClusterService().getEntityNode(endpointKey);
-  }
-
-  private void notifyGlobalEndpointActor(EndpointObjectHash endpointKey, String globalActorNodeId) {
-    notifyGlobalEndpointActor(endpointKey, globalActorNodeId, RouteOperation.ADD);
-  }
-
-  private void notifyGlobalEndpointActor(EndpointObjectHash endpointKey,
-                                         String globalActorNodeId, RouteOperation operation) {
-    EndpointRouteMessage msg = new EndpointRouteMessage(
-        new EndpointClusterAddress(nodeId, tenantId, appToken, endpointKey), operation);
-    if (globalActorNodeId.equals(nodeId)) {
-      processEndpointRouteMessage(msg);
-    } else {
-      context.getClusterService().sendRouteMessage(msg);
-    }
-  }
-
   private void processRouteMessage(RouteMessage<?> msg) {
     if (msg instanceof EndpointRouteMessage) {
-      processEndpointRouteMessage((EndpointRouteMessage) msg);
+      EndpointRouteMessage routeMessage = (EndpointRouteMessage) msg;
+      getEndpointShard(routeMessage.getAddress().getEndpointKey()).tell(routeMessage, self());
     }
   }
 
-  private void processEndpointRouteMessage(EndpointRouteMessage msg) {
-    EndpointObjectHash endpointKey = msg.getAddress().getEndpointKey();
-    GlobalEndpointActorMetaData actorMetaData = globalEndpointSessions.get(endpointKey);
-    if (actorMetaData == null) {
-      String endpointActorId = GlobalEndpointActorCreator.generateActorKey();
-      LOG.debug("[{}] Creating global endpoint actor for endpointKey: {}", appToken, endpointKey);
-      actorMetaData = new GlobalEndpointActorMetaData(
-          context().actorOf(Props.create(
-              new GlobalEndpointActorCreator(context, endpointActorId, appToken, endpointKey))
-              .withDispatcher(ENDPOINT_DISPATCHER_NAME), endpointActorId),
-          endpointActorId);
-      globalEndpointSessions.put(endpointKey, actorMetaData);
-      context().watch(actorMetaData.actorRef);
-    }
-    actorMetaData.actorRef.tell(msg, self());
+  private void processEndpointUserActionMessage(EndpointUserActionMessage message) {
+    getEndpointShard(message.getKey()).tell(message, self());
   }
 
-  private void processEndpointUserActionMessage(EndpointUserActionMessage message,
-                                                boolean escalate) {
-    LocalEndpointActorMetaData endpointMetaData = localEndpointSessions.get(message.getKey());
-    if (endpointMetaData != null) {
-      LOG.debug("[{}] Found affected endpoint and forwarding message to it", appToken);
-      endpointMetaData.actorRef.tell(message, self());
-    } else if (escalate) {
-      LOG.debug("[{}] Failed to fing affected endpoint in scope of current application."
+  /**
+   * Routes message that is either escalated by one of the endpoint shards
+   * or received from the tenant actor on behalf of another application.
+   *
+   * @param message the message
+   */
+  private void processEndpointUserActionRouteMessage(EndpointUserActionRouteMessage message) {
+    if (appToken.equals(message.getOriginalApplicationToken())) {
+      LOG.debug("[{}] Failed to find affected endpoint in scope of current application."
           + " Forwarding message to tenant actor", appToken);
-      EndpointUserActionRouteMessage routeMessage =
-          new EndpointUserActionRouteMessage(message, appToken);
-      context().parent().tell(routeMessage, self());
-    }
-  }
-
-  private void updateEndpointActor(EndpointStopMessage message) {
-    String actorKey = message.getActorKey();
-    EndpointObjectHash endpointKey = message.getEndpointKey();
-    LOG.debug("[{}] Stoping actor [{}] with [{}]", appToken, message.getActorKey(), endpointKey);
-    LocalEndpointActorMetaData endpointMetaData = localEndpointSessions.get(endpointKey);
-    if (endpointMetaData != null) {
-      if (actorKey.equals(endpointMetaData.actorId)) {
-        localEndpointSessions.remove(endpointKey);
-        LOG.debug("[{}] Removed actor [{}] from endpoint sessions map", appToken, actorKey);
-      }
+      context().parent().tell(message, self());
     } else {
-      LOG.warn("[{}] EndpointSession for actor {} is not found!", appToken, endpointKey);
+      getEndpointShard(message.getMessage().getKey()).tell(message, self());
     }
-    endpointActorMap.remove(actorKey);
-    message.getOriginator().tell(message, self());
   }
 
   /**
@@ -544,15 +480,12 @@ public class ApplicationActor extends UntypedActor {
     if (terminated instanceof LocalActorRef) {
       LocalActorRef localActor = (LocalActorRef) terminated;
       String name = localActor.path().name();
-      EndpointObjectHash endpointHash = endpointActorMap.remove(name);
-      if (endpointHash != null) {
-        LocalEndpointActorMetaData actorMetaData = localEndpointSessions.get(endpointHash);
-        if (actorMetaData != null && actorMetaData.actorRef.equals(localActor)) {
-          localEndpointSessions.remove(endpointHash);
-          LOG.debug("[{}] removed endpoint: {}", appToken, localActor);
-          notifyGlobalEndpointActor(endpointHash,
-              actorMetaData.globalActorNodeId, RouteOperation.DELETE);
-        }
+      Integer shardIndex = endpointShardIndexes.remove(name);
+      if (shardIndex != null) {
+        LOG.debug("[{}] removed endpoint shard: {}", appToken, localActor);
+        endpointShards[shardIndex] = createEndpointShardActor(shardIndex);
+        LOG.debug("[{}] created endpoint shard: {}", appToken, endpointShards[shardIndex]);
+        processShardStatusFailure(shardIndex);
       } else if (topicSessions.remove(name) != null) {
         LOG.debug("[{}] removed topic: {}", appToken, localActor);
       } else if (logsSessions.remove(name) != null) {
@@ -569,6 +502,17 @@ public class ApplicationActor extends UntypedActor {
     }
   }
 
+  private ActorRef createEndpointShardActor(int shardIndex) {
+    ActorRef shardActor = context().actorOf(
+        Props.create(new ApplicationEndpointShardActor.ActorCreator(
+            context, tenantId, appToken, shardIndex, endpointShards.length))
+            .withDispatcher(SHARD_DISPATCHER_NAME)
+    );
+    context().watch(shardActor);
+    endpointShardIndexes.put(shardActor.path().name(), shardIndex);
+    return shardActor;
+  }
+
   private ActorRef getOrCreateLogActor() {
     return getOrCreateLogActor(null);
   }
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import static org.kaaproject.kaa.server.operations.service.akka.DefaultAkkaService.ENDPOINT_DISPATCHER_NAME;
+
+import akka.actor.ActorRef;
+import akka.actor.LocalActorRef;
+import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.actor.Terminated;
+import akka.actor.UntypedActor;
+import akka.japi.Creator;
+
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftEndpointDeregistrationMessage;
+import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
+import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.global.GlobalEndpointActorCreator;
+import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local.LocalEndpointActorCreator;
+import org.kaaproject.kaa.server.operations.service.akka.actors.supervision.SupervisionStrategyFactory;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.EndpointAwareMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.EndpointStopMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.SyncRequestMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.lb.ClusterUpdateMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.notification.ThriftNotificationMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.ActorClassifier;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointActorMsg;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointAddress;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointClusterAddress;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.EndpointRouteMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.RouteOperation;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.ThriftEndpointActorMsg;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.EndpointShardActorStatusResponse;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.topic.TopicSubscriptionMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventDeliveryMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventDeliveryMessage.EventDeliveryStatus;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventReceiveMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventSendMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserActionMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserActionRouteMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserConnectMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserDisconnectMessage;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStage;
+import org.kaaproject.kaa.server.transport.session.SessionAware;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Owns the endpoint actors of a subset of application endpoints. The subset is
+ * determined by {@link ApplicationActor#getShardIndex(EndpointObjectHash, int)}.
+ * Messages that are not related to endpoint sessions (topics, logs, user
+ * verification, user events) are forwarded to the parent application actor.
+ */
+public class ApplicationEndpointShardActor extends UntypedActor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ApplicationEndpointShardActor.class);
+
+  private final AkkaContext context;
+
+  private final Map<EndpointObjectHash, GlobalEndpointActorMetaData> globalEndpointSessions;
+
+  private final Map<EndpointObjectHash, LocalEndpointActorMetaData> localEndpointSessions;
+
+  private final Map<String, EndpointObjectHash> endpointActorMap;
+
+  private final String nodeId;
+
+  private final String tenantId;
+
+  private final String appToken;
+
+  private final int shardIndex;
+
+  private final int shardCount;
+
+  /**
+   * Instantiates a new application endpoint shard actor.
+   *
+   * @param context    the context
+   * @param tenantId   the tenant id
+   * @param appToken   the application token
+   * @param shardIndex the index of this shard
+   * @param shardCount the total amount of shards of the application
+   */
+  private ApplicationEndpointShardActor(AkkaContext context, String tenantId, String appToken,
+                                        int shardIndex, int shardCount) {
+    this.context = context;
+    this.nodeId = context.getClusterService().getNodeId();
+    this.tenantId = tenantId;
+    this.appToken = appToken;
+    this.shardIndex = shardIndex;
+    this.shardCount = shardCount;
+    this.globalEndpointSessions = new HashMap<>();
+    this.localEndpointSessions = new HashMap<>();
+    this.endpointActorMap = new HashMap<>();
+  }
+
+  @Override
+  public SupervisorStrategy supervisorStrategy() {
+    return SupervisionStrategyFactory.createApplicationActorStrategy(context);
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see akka.actor.UntypedActor#onReceive(java.lang.Object)
+   */
+  @Override
+  public void onReceive(Object message) throws Exception {
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("[{}][{}] Received: {}", appToken, shardIndex, message);
+    } else {
+      LOG.debug("[{}][{}] Received: {}", appToken, shardIndex, message.getClass().getName());
+    }
+    if (message instanceof EndpointActorMsg) {
+      processEndpointActorMsg((EndpointActorMsg) message);
+    } else if (message instanceof SessionAware) {
+      processSessionAwareMessage((SessionAware) message);
+    } else if (message instanceof EndpointAwareMessage) {
+      processEndpointAwareMessage((EndpointAwareMessage) message);
+    } else if (message instanceof Terminated) {
+      processTermination((Terminated) message);
+    } else if (message instanceof ThriftNotificationMessage) {
+      broadcastToAllEndpoints((ThriftNotificationMessage) message);
+    } else if (message instanceof EndpointStopMessage) {
+      updateEndpointActor((EndpointStopMessage) message);
+    } else if (message instanceof EndpointUserActionMessage) {
+      processEndpointUserActionMessage((EndpointUserActionMessage) message, true);
+    } else if (message instanceof EndpointUserActionRouteMessage) {
+      processEndpointUserActionMessage(((EndpointUserActionRouteMessage) message).getMessage(),
+          false);
+    } else if (message instanceof StatusRequestMessage) {
+      processStatusRequest((StatusRequestMessage) message);
+    } else if (message instanceof ClusterUpdateMessage) {
+      processClusterUpdate((ClusterUpdateMessage) message);
+    } else if (message instanceof EndpointRouteMessage) {
+      processEndpointRouteMessage((EndpointRouteMessage) message);
+    } else {
+      forwardToApplication(message);
+    }
+  }
+
+  private boolean isOwned(EndpointObjectHash endpointKey) {
+    return ApplicationActor.getShardIndex(endpointKey, shardCount) == shardIndex;
+  }
+
+  private void forwardToApplication(Object message) {
+    context().parent().forward(message, context());
+  }
+
+  private void processEndpointActorMsg(EndpointActorMsg message) {
+    EndpointAddress address = message.getAddress();
+    EndpointObjectHash endpointId = EndpointObjectHash.fromBytes(address.getEntityId());
+    if (!isOwned(endpointId)) {
+      forwardToApplication(message);
+      return;
+    }
+    ActorClassifier classifier = message.getClassifier();
+    if (classifier == ActorClassifier.APPLICATION) {
+      boolean processed = false;
+      if (message instanceof ThriftEndpointActorMsg<?>) {
+        processed = processCommonThriftEndpointActorMsg(
+            endpointId, (ThriftEndpointActorMsg<?>) message);
+      }
+      if (!processed) {
+        LOG.warn("[{}] Failed to lookup processor for endpoint msg {}.", endpointId, message);
+      }
+    } else {
+      EndpointActorMetaData actorMetaData = null;
+      if (classifier == ActorClassifier.GLOBAL) {
+        actorMetaData = globalEndpointSessions.get(endpointId);
+      } else if (classifier == ActorClassifier.LOCAL) {
+        actorMetaData = localEndpointSessions.get(endpointId);
+      }
+      if (actorMetaData != null) {
+        actorMetaData.actorRef.tell(message, context().self());
+      } else {
+        LOG.warn("[{}] Failed to lookup {} actor for endpoint.", endpointId, classifier.name());
+      }
+    }
+  }
+
+  private boolean processCommonThriftEndpointActorMsg(EndpointObjectHash endpointId,
+                                                      ThriftEndpointActorMsg<?> msg) {
+    if (msg.getMsg() instanceof ThriftEndpointDeregistrationMessage) {
+      forwardMessageQuietly(globalEndpointSessions.get(endpointId), msg);
+      forwardMessageQuietly(localEndpointSessions.get(endpointId), msg);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  private void forwardMessageQuietly(EndpointActorMetaData actorMetaData, Object msg) {
+    if (actorMetaData != null) {
+      actorMetaData.actorRef.tell(msg, context().self());
+    }
+  }
+
+  private void processClusterUpdate(ClusterUpdateMessage message) {
+    for (Entry<EndpointObjectHash, LocalEndpointActorMetaData> entry :
+        localEndpointSessions.entrySet()) {
+      String globalActorNodeId = getGlobalEndpointActorNodeId(entry.getKey());
+      if (!globalActorNodeId.equals(entry.getValue().globalActorNodeId)) {
+        entry.getValue().globalActorNodeId = globalActorNodeId;
+        notifyGlobalEndpointActor(entry.getKey(), globalActorNodeId);
+      }
+    }
+    for (GlobalEndpointActorMetaData entry : globalEndpointSessions.values()) {
+      entry.actorRef.tell(message, context().self());
+    }
+  }
+
+  private void processStatusRequest(StatusRequestMessage message) {
+    LOG.debug("[{}][{}] Processing status request", message.getId(), shardIndex);
+    context().parent().tell(
+        new EndpointShardActorStatusResponse(message.getId(), shardIndex,
+            localEndpointSessions.size()),
+        ActorRef.noSender());
+  }
+
+  /**
+   * Broadcast to all endpoints of this shard.
+   *
+   * @param message the message
+   */
+  private void broadcastToAllEndpoints(ThriftNotificationMessage message) {
+    for (LocalEndpointActorMetaData endpoint : localEndpointSessions.values()) {
+      endpoint.actorRef.tell(message, self());
+    }
+  }
+
+  /**
+   * Process endpoint aware message. Messages that are addressed to topic or
+   * user actors are forwarded to the application actor.
+   *
+   * @param message the message
+   */
+  private void processEndpointAwareMessage(EndpointAwareMessage message) {
+    if (message instanceof TopicSubscriptionMessage
+        || message instanceof EndpointUserConnectMessage
+        || message instanceof EndpointUserDisconnectMessage
+        || message instanceof EndpointEventSendMessage) {
+      forwardToApplication(message);
+    } else if (!isOwned(message.getKey())) {
+      forwardToApplication(message);
+    } else if (message instanceof EndpointEventReceiveMessage) {
+      processEndpointEventReceiveMessage((EndpointEventReceiveMessage) message);
+    } else {
+      processEndpointRequest(message);
+    }
+  }
+
+  private void processSessionAwareMessage(SessionAware message) {
+    LocalEndpointActorMetaData endpointMetaData = localEndpointSessions
+        .get(message.getSessionInfo().getKey());
+    if (endpointMetaData != null) {
+      endpointMetaData.actorRef.tell(message, self());
+    } else {
+      LOG.debug("[{}][{}] Can't find endpoint actor that corresponds to {}",
+          appToken, shardIndex, message.getSessionInfo().getKey());
+    }
+  }
+
+  private void processEndpointEventReceiveMessage(EndpointEventReceiveMessage message) {
+    LocalEndpointActorMetaData endpointActor = localEndpointSessions.get(message.getKey());
+    if (endpointActor != null) {
+      endpointActor.actorRef.tell(message, self());
+    } else {
+      LOG.debug("[{}][{}] Can't find endpoint actor that corresponds to {}",
+          appToken, shardIndex, message.getKey());
+      context().parent()
+          .tell(new EndpointEventDeliveryMessage(message, EventDeliveryStatus.FAILURE), self());
+    }
+  }
+
+  /**
+   * Process session endpoint request.
+   *
+   * @param message the message
+   */
+  private void processEndpointRequest(EndpointAwareMessage message) {
+    if (message instanceof SyncRequestMessage) {
+      SyncRequestMessage syncRequest = (SyncRequestMessage) message;
+      context.getSyncStageTimers().record(SyncStage.ROUTING, appToken,
+          syncRequest.getChannelType(), syncRequest.getCreationTime());
+    }
+    LocalEndpointActorMetaData actorMetaData = localEndpointSessions.get(message.getKey());
+    if (actorMetaData == null) {
+      EndpointObjectHash endpointKey = message.getKey();
+      String endpointActorId = LocalEndpointActorCreator.generateActorKey();
+      LOG.debug("[{}][{}] Creating actor with endpointKey: {}",
+          appToken, shardIndex, endpointActorId);
+      String globalActorNodeId = getGlobalEndpointActorNodeId(endpointKey);
+      actorMetaData = new LocalEndpointActorMetaData(context()
+          .actorOf(Props
+              .create(new LocalEndpointActorCreator(
+                  context,
+                  endpointActorId,
+                  message.getAppToken(),
+                  message.getKey()
+              )).withDispatcher(ENDPOINT_DISPATCHER_NAME), endpointActorId),
+          endpointActorId, globalActorNodeId);
+      localEndpointSessions.put(message.getKey(), actorMetaData);
+      endpointActorMap.put(endpointActorId, message.getKey());
+      context().watch(actorMetaData.actorRef);
+      notifyGlobalEndpointActor(endpointKey, globalActorNodeId);
+    }
+    actorMetaData.actorRef.tell(message, self());
+  }
+
+  private String getGlobalEndpointActorNodeId(EndpointObjectHash endpointKey) {
+    return context.getClusterService().getEntityNode(endpointKey);
+  }
+
+  private void notifyGlobalEndpointActor(EndpointObjectHash endpointKey, String globalActorNodeId) {
+    notifyGlobalEndpointActor(endpointKey, globalActorNodeId, RouteOperation.ADD);
+  }
+
+  private void notifyGlobalEndpointActor(EndpointObjectHash endpointKey,
+                                         String globalActorNodeId, RouteOperation operation) {
+    EndpointRouteMessage msg = new EndpointRouteMessage(
+        new EndpointClusterAddress(nodeId, tenantId, appToken, endpointKey), operation);
+    if (globalActorNodeId.equals(nodeId)) {
+      processEndpointRouteMessage(msg);
+    } else {
+      context.getClusterService().sendRouteMessage(msg);
+    }
+  }
+
+  private void processEndpointRouteMessage(EndpointRouteMessage msg) {
+    EndpointObjectHash endpointKey = msg.getAddress().getEndpointKey();
+    GlobalEndpointActorMetaData actorMetaData = globalEndpointSessions.get(endpointKey);
+    if (actorMetaData == null) {
+      String endpointActorId = GlobalEndpointActorCreator.generateActorKey();
+      LOG.debug("[{}][{}] Creating global endpoint actor for endpointKey: {}",
+          appToken, shardIndex, endpointKey);
+      actorMetaData = new GlobalEndpointActorMetaData(
+          context().actorOf(Props.create(
+              new GlobalEndpointActorCreator(context, endpointActorId, appToken, endpointKey))
+              .withDispatcher(ENDPOINT_DISPATCHER_NAME), endpointActorId),
+          endpointActorId);
+      globalEndpointSessions.put(endpointKey, actorMetaData);
+      context().watch(actorMetaData.actorRef);
+    }
+    actorMetaData.actorRef.tell(msg, self());
+  }
+
+  private void processEndpointUserActionMessage(EndpointUserActionMessage message,
+                                                boolean escalate) {
+    if (!isOwned(message.getKey())) {
+      forwardToApplication(message);
+      return;
+    }
+    LocalEndpointActorMetaData endpointMetaData = localEndpointSessions.get(message.getKey());
+    if (endpointMetaData != null) {
+      LOG.debug("[{}][{}] Found affected endpoint and forwarding message to it",
+          appToken, shardIndex);
+      endpointMetaData.actorRef.tell(message, self());
+    } else if (escalate) {
+      LOG.debug("[{}][{}] Failed to find affected endpoint in scope of current application."
+          + " Forwarding message to tenant actor", appToken, shardIndex);
+      context().parent().tell(new EndpointUserActionRouteMessage(message, appToken), self());
+    }
+  }
+
+  private void updateEndpointActor(EndpointStopMessage message) {
+    String actorKey = message.getActorKey();
+    EndpointObjectHash endpointKey = message.getEndpointKey();
+    LOG.debug("[{}][{}] Stoping actor [{}] with [{}]",
+        appToken, shardIndex, message.getActorKey(), endpointKey);
+    LocalEndpointActorMetaData endpointMetaData = localEndpointSessions.get(endpointKey);
+    if (endpointMetaData != null) {
+      if (actorKey.equals(endpointMetaData.actorId)) {
+        localEndpointSessions.remove(endpointKey);
+        LOG.debug("[{}][{}] Removed actor [{}] from endpoint sessions map",
+            appToken, shardIndex, actorKey);
+      }
+    } else {
+      LOG.warn("[{}][{}] EndpointSession for actor {} is not found!",
+          appToken, shardIndex, endpointKey);
+    }
+    endpointActorMap.remove(actorKey);
+    message.getOriginator().tell(message, self());
+  }
+
+  /**
+   * Process termination.
+   *
+   * @param message the message
+   */
+  private void processTermination(Terminated message) {
+    ActorRef terminated = message.actor();
+    if (terminated instanceof LocalActorRef) {
+      LocalActorRef localActor = (LocalActorRef) terminated;
+      String name = localActor.path().name();
+      EndpointObjectHash endpointHash = endpointActorMap.remove(name);
+      if (endpointHash != null) {
+        LocalEndpointActorMetaData actorMetaData = localEndpointSessions.get(endpointHash);
+        if (actorMetaData != null && actorMetaData.actorRef.equals(localActor)) {
+          localEndpointSessions.remove(endpointHash);
+          LOG.debug("[{}][{}] removed endpoint: {}", appToken, shardIndex, localActor);
+          notifyGlobalEndpointActor(endpointHash,
+              actorMetaData.globalActorNodeId, RouteOperation.DELETE);
+        }
+      }
+    } else {
+      LOG.warn("remove commands for remote actors are not supported yet!");
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see akka.actor.UntypedActor#preStart()
+   */
+  @Override
+  public void preStart() {
+    LOG.info("[{}][{}] Starting ", appToken, shardIndex);
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see akka.actor.UntypedActor#postStop()
+   */
+  @Override
+  public void postStop() {
+    LOG.info("[{}][{}] Stoped ", appToken, shardIndex);
+  }
+
+
+  public static class ActorCreator implements Creator<ApplicationEndpointShardActor> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AkkaContext context;
+
+    private final String tenantId;
+
+    private final String appToken;
+
+    private final int shardIndex;
+
+    private final int shardCount;
+
+    /**
+     * Instantiates a new actor creator.
+     *
+     * @param context    the context
+     * @param tenantId   the tenant id
+     * @param appToken   the application token
+     * @param shardIndex the index of the shard
+     * @param shardCount the total amount of shards of the application
+     */
+    public ActorCreator(AkkaContext context, String tenantId, String appToken,
+                        int shardIndex, int shardCount) {
+      super();
+      this.context = context;
+      this.tenantId = tenantId;
+      this.appToken = appToken;
+      this.shardIndex = shardIndex;
+      this.shardCount = shardCount;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see akka.japi.Creator#create()
+     */
+    @Override
+    public ApplicationEndpointShardActor create() throws Exception {
+      return new ApplicationEndpointShardActor(context, tenantId, appToken, shardIndex,
+          shardCount);
+    }
+  }
+}
@@ -40,7 +40,9 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.Mult
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.SingleLogDeliveryCallback;
 import org.kaaproject.kaa.server.operations.service.cache.AppVersionKey;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
+import org.kaaproject.kaa.server.operations.service.logs.LogAppenderQueueOverflowPolicy;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
+import org.kaaproject.kaa.server.operations.service.logs.QueuedLogAppender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,6 +76,10 @@ public class ApplicationLogActorMessageProcessor {
 
   private final VoidCallback voidCallback;
 
+  private final int appenderQueueSize;
+
+  private final LogAppenderQueueOverflowPolicy appenderQueueOverflowPolicy;
+
   /**
    * Create a new instance of ApplicationLogActorMessageProcessor.
    *
@@ -95,8 +101,10 @@ public class ApplicationLogActorMessageProcessor {
     this.clientProfileSchemas = new HashMap<>();
     this.serverProfileSchemas = new HashMap<>();
     this.voidCallback = new VoidCallback();
+    this.appenderQueueSize = context.getLogAppenderQueueSize();
+    this.appenderQueueOverflowPolicy = context.getLogAppenderQueueOverflowPolicy();
     for (LogAppender appender : logAppenderService.getApplicationAppenders(applicationId)) {
-      logAppenders.put(appender.getAppenderId(), appender);
+      logAppenders.put(appender.getAppenderId(), wrapAppender(appender));
     }
   }
 
@@ -127,7 +135,7 @@ public class ApplicationLogActorMessageProcessor {
             String text = String.format("Failed to append logs using [%s] (ID: %s)",
                 appender.getName(), appender.getAppenderId());
             LOG.warn(text, cause);
-            sendErrorMessageToEndpoint(message, LogDeliveryErrorCode.APPENDER_INTERNAL_ERROR);
+            callback.onInternalError();
           }
         });
       }
@@ -172,6 +180,7 @@ public class ApplicationLogActorMessageProcessor {
           result.add(appender);
         }
       }
+      logAppendersCache.put(key, result);
     }
     return result;
   }
@@ -287,6 +296,18 @@ public class ApplicationLogActorMessageProcessor {
     }
   }
 
+  /**
+   * Wraps the appender into a {@link QueuedLogAppender} if appender queues are
+   * enabled, so that a slow appender does not block the actor thread.
+   */
+  private LogAppender wrapAppender(LogAppender appender) {
+    if (appenderQueueSize > 0) {
+      return new QueuedLogAppender(appender, appenderQueueSize, appenderQueueOverflowPolicy);
+    } else {
+      return appender;
+    }
+  }
+
   private LogAppender removeAppender(String appenderId) {
     logAppendersCache.clear();
     return logAppenders.remove(appenderId);
@@ -294,7 +315,7 @@ public class ApplicationLogActorMessageProcessor {
 
   private void addAppender(String appenderId, LogAppender logAppender) {
     logAppendersCache.clear();
-    logAppenders.put(appenderId, logAppender);
+    logAppenders.put(appenderId, wrapAppender(logAppender));
   }
 
   protected static final class VoidCallback implements LogDeliveryCallback {
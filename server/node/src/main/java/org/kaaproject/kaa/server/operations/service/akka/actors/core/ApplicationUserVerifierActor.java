@@ -45,7 +45,7 @@ public class ApplicationUserVerifierActor extends UntypedActor {
         .findAppByApplicationToken(applicationToken)
         .getId();
     this.messageProcessor = new ApplicationUserVerifierActorMessageProcessor(
-        context.getEndpointUserService(), applicationId
+        context.getEndpointUserService(), context.getUserVerificationRuntime(), applicationId
     );
   }
 
@@ -24,6 +24,7 @@ import akka.actor.ActorRef;
 
 import org.kaaproject.kaa.common.dto.user.UserVerifierDto;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
+import org.kaaproject.kaa.server.common.verifier.UserVerificationRuntime;
 import org.kaaproject.kaa.server.common.verifier.UserVerifier;
 import org.kaaproject.kaa.server.common.verifier.UserVerifierCallback;
 import org.kaaproject.kaa.server.common.verifier.UserVerifierContext;
@@ -47,15 +48,19 @@ public class ApplicationUserVerifierActorMessageProcessor {
 
   private final EndpointUserService endpointUserService;
 
+  private final UserVerificationRuntime userVerificationRuntime;
+
   private final String applicationId;
 
 
   private Map<String, UserVerifier> userVerifiers;
 
   ApplicationUserVerifierActorMessageProcessor(EndpointUserService endpointUserService,
+                                               UserVerificationRuntime userVerificationRuntime,
                                                String applicationId) {
     this.applicationId = applicationId;
     this.endpointUserService = endpointUserService;
+    this.userVerificationRuntime = userVerificationRuntime;
     initUserVerifiers();
   }
 
@@ -106,8 +111,8 @@ public class ApplicationUserVerifierActorMessageProcessor {
   public void verifyUser(UserVerificationRequestMessage message) {
     UserVerifier verifier = userVerifiers.get(message.getVerifierId());
     if (verifier != null) {
-      verifier.checkAccessToken(message.getUserId(), message.getAccessToken(),
-          new DefaultVerifierCallback(message));
+      userVerificationRuntime.verify(message.getVerifierId(), verifier, message.getUserId(),
+          message.getAccessToken(), new DefaultVerifierCallback(message));
     } else {
       LOG.debug("Failed to find verifier with token {}", message.getVerifierId());
       message.getOriginator()
@@ -163,6 +168,7 @@ public class ApplicationUserVerifierActorMessageProcessor {
     if (userVerifiers.containsKey(verifierToken)) {
       LOG.info("[{}] Stopping user verifier with token [{}].", applicationId, verifierToken);
       userVerifiers.remove(verifierToken).stop();
+      userVerificationRuntime.invalidate(verifierToken);
     } else {
       LOG.warn("[{}] Can't remove unregistered user verifier with token [{}]",
           applicationId, verifierToken);
@@ -62,6 +62,8 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.veri
 import org.kaaproject.kaa.server.operations.service.akka.messages.io.response.NettySessionResponseMessage;
 import org.kaaproject.kaa.server.operations.service.akka.utils.EntityConvertUtils;
 import org.kaaproject.kaa.server.operations.service.event.EventClassFamilyVersion;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStage;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStageTimers;
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.EndpointAttachResponse;
 import org.kaaproject.kaa.server.sync.EndpointDetachRequest;
@@ -108,6 +110,8 @@ public class LocalEndpointActorMessageProcessor
 
   private final Map<UUID, UserVerificationResponseMessage> userAttachResponseMap;
 
+  private final SyncStageTimers stageTimers;
+
   /**
    * All-args constructor.
    */
@@ -123,6 +127,7 @@ public class LocalEndpointActorMessageProcessor
         context.getLocalEndpointTimeout());
     this.logUploadResponseMap = new HashMap<>();
     this.userAttachResponseMap = new LinkedHashMap<>();
+    this.stageTimers = context.getSyncStageTimers();
   }
 
   /**
@@ -294,6 +299,9 @@ public class LocalEndpointActorMessageProcessor
   }
 
   private void sync(ActorContext context, SyncRequestMessage requestMessage) {
+    long syncStart = System.nanoTime();
+    stageTimers.record(SyncStage.ENDPOINT_MAILBOX, appToken,
+        requestMessage.getChannelType(), requestMessage.getCreationTime());
     try {
       state.setLastActivityTime(System.currentTimeMillis());
       long start = state.getLastActivityTime();
@@ -348,6 +356,9 @@ public class LocalEndpointActorMessageProcessor
     } catch (Exception ex) {
       LOG.error("[{}][{}] processEndpointRequest", endpointKey, actorKey, ex);
       sendReply(context, requestMessage, ex);
+    } finally {
+      stageTimers.record(SyncStage.ENDPOINT_SYNC, appToken,
+          requestMessage.getChannelType(), syncStart);
     }
   }
 
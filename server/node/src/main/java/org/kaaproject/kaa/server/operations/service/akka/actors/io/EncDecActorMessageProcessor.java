@@ -39,6 +39,8 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.io.response.Se
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
 import org.kaaproject.kaa.server.operations.service.metrics.MeterClient;
 import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStage;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStageTimers;
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.ClientSyncMetaData;
 import org.kaaproject.kaa.server.sync.RedirectServerSync;
@@ -91,6 +93,7 @@ public class EncDecActorMessageProcessor {
   private final MeterClient sessionResponseMeter;
   private final MeterClient redirectMeter;
   private final MeterClient errorMeter;
+  private final SyncStageTimers stageTimers;
 
   protected EncDecActorMessageProcessor(ActorRef epsActor,
                                         AkkaContext context,
@@ -115,6 +118,7 @@ public class EncDecActorMessageProcessor {
         "redirectMeter", Thread.currentThread().getName());
     this.errorMeter = metricsService.createMeter(
         "errorMeter", Thread.currentThread().getName());
+    this.stageTimers = context.getSyncStageTimers();
   }
 
   void decodeAndForward(ActorContext context, SessionInitMessage message) {
@@ -139,7 +143,13 @@ public class EncDecActorMessageProcessor {
     try {
       sessionResponseMeter.mark();
       if (message.getError() == null) {
+        SessionInfo session = message.getSessionInfo();
+        stageTimers.record(SyncStage.RESPONSE_MAILBOX, session.getApplicationToken(),
+            session.getChannelType(), message.getCreationTime());
+        long start = System.nanoTime();
         processSessionResponse(message);
+        stageTimers.record(SyncStage.ENCODE, session.getApplicationToken(),
+            session.getChannelType(), start);
       } else {
         processErrors(message.getChannelContext(), message.getErrorBuilder(), message.getError());
       }
@@ -216,11 +226,13 @@ public class EncDecActorMessageProcessor {
   private void processSessionInitRequest(ActorContext context, SessionInitMessage message)
       throws GeneralSecurityException, PlatformEncDecException,
       InvalidSdkTokenException, EndpointVerificationException {
+    long start = System.nanoTime();
     ClientSync request = decodeRequest(message);
     EndpointObjectHash key = getEndpointObjectHash(request);
     String sdkToken = getSdkToken(request);
     if (isSdkTokenValid(sdkToken)) {
       String appToken = getAppToken(sdkToken);
+      stageTimers.record(SyncStage.DECODE, appToken, message.getChannelType(), start);
       verifyEndpoint(key, appToken);
       SessionInfo session = new SessionInfo(
           message.getChannelUuid(), message.getPlatformId(), message.getChannelContext(),
@@ -304,8 +316,12 @@ public class EncDecActorMessageProcessor {
 
   private void processSessionRequest(ActorContext context, SessionAwareMessage message)
       throws GeneralSecurityException, PlatformEncDecException, InvalidSdkTokenException {
+    long start = System.nanoTime();
     ClientSync request = decodeRequest(message);
     if (isSdkTokenValid(message.getSessionInfo().getSdkToken())) {
+      SessionInfo session = message.getSessionInfo();
+      stageTimers.record(SyncStage.DECODE, session.getApplicationToken(),
+          session.getChannelType(), start);
       forwardToOpsActor(context, message.getSessionInfo(), request, message);
     } else {
       LOG.info("Invalid sdk token received: {}", message.getSessionInfo().getSdkToken());
@@ -58,6 +58,11 @@ public class SyncRequestMessage extends EndpointAwareMessage implements ChannelA
    */
   private final SessionInfo session;
 
+  /**
+   * The creation time as returned by {@link System#nanoTime()}.
+   */
+  private final long creationTime;
+
   /**
    * Instantiates a new sync request message.
    *
@@ -74,6 +79,7 @@ public class SyncRequestMessage extends EndpointAwareMessage implements ChannelA
     this.command = requestMessage;
     this.request = request;
     this.session = session;
+    this.creationTime = System.nanoTime();
   }
 
   /**
@@ -108,6 +114,10 @@ public class SyncRequestMessage extends EndpointAwareMessage implements ChannelA
     return command;
   }
 
+  public long getCreationTime() {
+    return creationTime;
+  }
+
   /**
    * Updates a request.
    */
@@ -18,12 +18,17 @@ package org.kaaproject.kaa.server.operations.service.akka.messages.core.logs;
 
 import akka.actor.ActorRef;
 
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryErrorCode;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MultiLogDeliveryCallback extends AbstractActorCallback {
 
   private final AtomicInteger appendersCount;
 
+  private final AtomicBoolean completed;
+
   /**
    * Instantiates a new actor log delivery callback.
    *
@@ -34,6 +39,7 @@ public class MultiLogDeliveryCallback extends AbstractActorCallback {
   public MultiLogDeliveryCallback(ActorRef actor, int requestId, int appendersCount) {
     super(actor, requestId);
     this.appendersCount = new AtomicInteger(appendersCount);
+    this.completed = new AtomicBoolean();
   }
 
   /*
@@ -45,8 +51,19 @@ public class MultiLogDeliveryCallback extends AbstractActorCallback {
    */
   @Override
   public void onSuccess() {
-    if (appendersCount.decrementAndGet() == 0) {
+    if (appendersCount.decrementAndGet() == 0 && completed.compareAndSet(false, true)) {
       sendSuccessToEndpoint();
     }
   }
+
+  /*
+   * The endpoint receives only the first failure, subsequent results of other
+   * appenders are ignored.
+   */
+  @Override
+  protected void sendFailureToEndpoint(LogDeliveryErrorCode errorCode) {
+    if (completed.compareAndSet(false, true)) {
+      super.sendFailureToEndpoint(errorCode);
+    }
+  }
 }
\ No newline at end of file
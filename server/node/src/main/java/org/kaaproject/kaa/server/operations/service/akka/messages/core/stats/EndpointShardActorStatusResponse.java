@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.messages.core.stats;
+
+import java.util.UUID;
+
+public class EndpointShardActorStatusResponse extends ActorStatusResponse {
+
+  private final int shardIndex;
+
+  public EndpointShardActorStatusResponse(UUID requestId, int shardIndex, int endpointCount) {
+    super(requestId, endpointCount);
+    this.shardIndex = shardIndex;
+  }
+
+  public int getShardIndex() {
+    return shardIndex;
+  }
+
+}
@@ -35,6 +35,7 @@ public class NettySessionResponseMessage implements SessionResponse {
   private final MessageBuilder messageBuilder;
   private final ErrorBuilder errorBuilder;
   private final Exception error;
+  private final long creationTime;
 
   public NettySessionResponseMessage(SessionInfo sessionInfo, ServerSync syncResponse,
                                      MessageBuilder messageBuilder,
@@ -53,6 +54,12 @@ public class NettySessionResponseMessage implements SessionResponse {
     this.error = error;
     this.messageBuilder = messageBuilder;
     this.errorBuilder = errorBuilder;
+    this.creationTime = System.nanoTime();
+  }
+
+  @Override
+  public long getCreationTime() {
+    return creationTime;
   }
 
   @Override
@@ -37,4 +37,11 @@ public interface SessionResponse extends ChannelAware, PlatformAware {
 
   ErrorBuilder getErrorBuilder();
 
+  /**
+   * Returns the response creation time as returned by {@link System#nanoTime()}.
+   *
+   * @return the creation time
+   */
+  long getCreationTime();
+
 }
@@ -385,7 +385,7 @@ public class DefaultDeltaService implements DeltaService {
 
     if (userConfiguration != null) {
       OverrideAlgorithm configurationMerger =
-          configurationOverrideFactory.createConfigurationOverrideAlgorithm();
+          configurationOverrideFactory.createTransientConfigurationOverrideAlgorithm();
       OverrideSchema overrideSchema = new OverrideSchema(
           latestConfigurationSchema.getOverrideSchema());
       try {
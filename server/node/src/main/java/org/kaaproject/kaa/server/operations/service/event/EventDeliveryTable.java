@@ -16,16 +16,29 @@
 
 package org.kaaproject.kaa.server.operations.service.event;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Tracks the delivery of events to route table addresses.
+ *
+ * <p>Addresses are interned to indices, and the delivery state of an event is kept in two
+ * bit sets over these indices, so registering a delivery attempt doesn't allocate per
+ * address. The indices are reclaimed once the table holds no events.
+ */
 public class EventDeliveryTable {
 
-  Map<EndpointEvent, Map<RouteTableAddress, DeliveryState>> data;
+  private final Map<EndpointEvent, DeliveryState> data;
+  private final RouteTableAddressIndex addressIndex;
 
+  /**
+   * Instantiates a new event delivery table.
+   */
   public EventDeliveryTable() {
     super();
     this.data = new HashMap<>();
+    this.addressIndex = new RouteTableAddressIndex();
   }
 
   /**
@@ -35,23 +48,42 @@ public class EventDeliveryTable {
    * @param addresses the destination of event
    */
   public void registerDeliveryAttempt(EndpointEvent event, RouteTableAddress... addresses) {
-    Map<RouteTableAddress, DeliveryState> attempts = data.get(event);
-    if (attempts == null) {
-      attempts = new HashMap<>();
-      data.put(event, attempts);
-    }
+    DeliveryState state = getOrCreate(event);
     for (RouteTableAddress address : addresses) {
-      attempts.put(address, DeliveryState.PENDING);
+      int index = addressIndex.intern(address);
+      state.started.set(index);
+      state.delivered.clear(index);
     }
   }
 
+  /**
+   * Checks whether the delivery of the event to the address was started.
+   *
+   * @param event the event to delivery
+   * @param address the destination of event
+   * @return true if a delivery attempt or success was registered and not failed since
+   */
   public boolean isDeliveryStarted(EndpointEvent event, RouteTableAddress address) {
-    Map<RouteTableAddress, DeliveryState> attempts = data.get(event);
-    return attempts != null && attempts.containsKey(address);
+    DeliveryState state = data.get(event);
+    if (state == null) {
+      return false;
+    }
+    int index = addressIndex.indexOf(address);
+    return index >= 0 && state.started.get(index);
   }
 
+  /**
+   * Removes the delivery state of the event.
+   *
+   * @param event the event
+   * @return true if the event was tracked
+   */
   public boolean clear(EndpointEvent event) {
-    return data.remove(event) != null;
+    boolean removed = data.remove(event) != null;
+    if (data.isEmpty()) {
+      addressIndex.clear();
+    }
+    return removed;
   }
 
   /**
@@ -61,12 +93,10 @@ public class EventDeliveryTable {
    * @param address the destination of event
    */
   public void registerDeliverySuccess(EndpointEvent event, RouteTableAddress address) {
-    Map<RouteTableAddress, DeliveryState> attempts = data.get(event);
-    if (attempts == null) {
-      attempts = new HashMap<>();
-      data.put(event, attempts);
-    }
-    attempts.put(address, DeliveryState.DELIVERED);
+    DeliveryState state = getOrCreate(event);
+    int index = addressIndex.intern(address);
+    state.started.set(index);
+    state.delivered.set(index);
   }
 
   /**
@@ -76,14 +106,30 @@ public class EventDeliveryTable {
    * @param address the destination of event
    */
   public void registerDeliveryFailure(EndpointEvent event, RouteTableAddress address) {
-    Map<RouteTableAddress, DeliveryState> attempts = data.get(event);
-    if (attempts != null) {
-      attempts.remove(address);
+    DeliveryState state = data.get(event);
+    if (state != null) {
+      int index = addressIndex.indexOf(address);
+      if (index >= 0) {
+        state.started.clear(index);
+        state.delivered.clear(index);
+      }
     }
   }
 
-  private static enum DeliveryState {
-    PENDING,
-    DELIVERED
+  private DeliveryState getOrCreate(EndpointEvent event) {
+    DeliveryState state = data.get(event);
+    if (state == null) {
+      state = new DeliveryState();
+      data.put(event, state);
+    }
+    return state;
+  }
+
+  /**
+   * The addresses the event is pending or delivered to, by address index.
+   */
+  private static final class DeliveryState {
+    private final BitSet started = new BitSet();
+    private final BitSet delivered = new BitSet();
   }
 }
@@ -19,6 +19,9 @@ package org.kaaproject.kaa.server.operations.service.event;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.server.common.Base64Util;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,11 +29,23 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+/**
+ * The event routes of a user.
+ *
+ * <p>Addresses are interned to indices, and the routes of each key are kept as a bit set
+ * of address indices. Resolving the recipients of an event unions the bit sets of its
+ * keys, so the lookup allocates a single bit set regardless of the number of endpoints.
+ */
 public class RouteTable {
 
-  private final Map<RouteTableKey, Map<String, RouteTableAddress>> routes;
+  private static final int[] NO_INDICES = new int[0];
+
+  private final RouteTableAddressIndex addressIndex;
+  private final Map<RouteTableKey, BitSet> routes;
+  private final Map<EndpointObjectHash, int[]> endpointAddresses;
   private final Map<RouteTableAddress, Set<String>> reportedAddressMap;
   private final Set<String> remoteServersSet;
   private final Map<RouteTableAddress, Set<RouteTableKey>> localAddressMap;
@@ -40,7 +55,9 @@ public class RouteTable {
    */
   public RouteTable() {
     super();
-    routes = new HashMap<RouteTableKey, Map<String, RouteTableAddress>>();
+    addressIndex = new RouteTableAddressIndex();
+    routes = new HashMap<>();
+    endpointAddresses = new HashMap<>();
     reportedAddressMap = new HashMap<>();
     remoteServersSet = new HashSet<>();
     localAddressMap = new HashMap<>();
@@ -53,12 +70,21 @@ public class RouteTable {
    * @param address the value of RouteTable associative array
    */
   public void add(RouteTableKey key, RouteTableAddress address) {
-    Map<String, RouteTableAddress> directionRoutes = routes.get(key);
+    BitSet directionRoutes = routes.get(key);
     if (directionRoutes == null) {
-      directionRoutes = new HashMap<>();
+      directionRoutes = new BitSet();
       routes.put(key, directionRoutes);
     }
-    directionRoutes.put(Base64Util.encode(address.getEndpointKey().getData()), address);
+    int index = addressIndex.indexOf(address);
+    if (index < 0) {
+      index = addressIndex.intern(address);
+      addEndpointAddress(address.getEndpointKey(), index);
+    }
+    // a key routes to a single address of an endpoint, the latest one
+    for (int other : getEndpointAddresses(address.getEndpointKey())) {
+      directionRoutes.clear(other);
+    }
+    directionRoutes.set(index);
 
     if (address.isLocal()) {
       Set<RouteTableKey> routeKeys = localAddressMap.get(address);
@@ -80,14 +106,14 @@ public class RouteTable {
    * @return collection of addresses
    */
   public Collection<RouteTableAddress> getRoutes(RouteTableKey key, String target) {
-    Map<String, RouteTableAddress> directionRoutes = routes.get(key);
+    BitSet directionRoutes = routes.get(key);
     if (directionRoutes != null) {
       if (target == null) {
-        return directionRoutes.values();
+        return new AddressSet(directionRoutes, false);
       } else {
-        RouteTableAddress address = directionRoutes.get(target);
-        if (address != null) {
-          return Collections.singletonList(address);
+        int index = findTarget(directionRoutes, getEndpointAddresses(target));
+        if (index >= 0) {
+          return Collections.singletonList(addressIndex.get(index));
         }
       }
     }
@@ -102,11 +128,22 @@ public class RouteTable {
    * @return set of addresses
    */
   public Set<RouteTableAddress> getRoutes(Set<RouteTableKey> keys, String target) {
-    Set<RouteTableAddress> result = new HashSet<>();
+    BitSet result = new BitSet(addressIndex.limit());
+    int[] targetAddresses = target != null ? getEndpointAddresses(target) : null;
     for (RouteTableKey key : keys) {
-      result.addAll(getRoutes(key, target));
+      BitSet directionRoutes = routes.get(key);
+      if (directionRoutes != null) {
+        if (targetAddresses == null) {
+          result.or(directionRoutes);
+        } else {
+          int index = findTarget(directionRoutes, targetAddresses);
+          if (index >= 0) {
+            result.set(index);
+          }
+        }
+      }
     }
-    return result;
+    return new AddressSet(result, true);
   }
 
   public Set<RouteTableAddress> getAllLocalRoutes() {
@@ -201,21 +238,10 @@ public class RouteTable {
   }
 
   private void clearRoutes(String serverId) {
-    Set<Entry<RouteTableKey, Map<String, RouteTableAddress>>> entrySet = routes.entrySet();
-    Iterator<Entry<RouteTableKey, Map<String, RouteTableAddress>>> iterator = entrySet.iterator();
-    while (iterator.hasNext()) {
-      Entry<RouteTableKey, Map<String, RouteTableAddress>> entry = iterator.next();
-      Map<String, RouteTableAddress> addressMap = entry.getValue();
-      Set<Entry<String, RouteTableAddress>> innerEntrySet = addressMap.entrySet();
-      Iterator<Entry<String, RouteTableAddress>> innerIterator = innerEntrySet.iterator();
-      while (innerIterator.hasNext()) {
-        Entry<String, RouteTableAddress> innerEntry = innerIterator.next();
-        if (serverId.equals(innerEntry.getValue().getServerId())) {
-          innerIterator.remove();
-        }
-      }
-      if (addressMap.isEmpty()) {
-        iterator.remove();
+    for (int index = 0; index < addressIndex.limit(); index++) {
+      RouteTableAddress address = addressIndex.get(index);
+      if (address != null && serverId.equals(address.getServerId())) {
+        removeRoutes(index);
       }
     }
   }
@@ -226,22 +252,8 @@ public class RouteTable {
    * @param endpoint endpoint object hash
    */
   private void clearRoutes(EndpointObjectHash endpoint) {
-    Set<Entry<RouteTableKey, Map<String, RouteTableAddress>>> entrySet = routes.entrySet();
-    Iterator<Entry<RouteTableKey, Map<String, RouteTableAddress>>> iterator = entrySet.iterator();
-    while (iterator.hasNext()) {
-      Entry<RouteTableKey, Map<String, RouteTableAddress>> entry = iterator.next();
-      Map<String, RouteTableAddress> addressMap = entry.getValue();
-      Set<Entry<String, RouteTableAddress>> innerEntrySet = addressMap.entrySet();
-      Iterator<Entry<String, RouteTableAddress>> innerIterator = innerEntrySet.iterator();
-      while (innerIterator.hasNext()) {
-        Entry<String, RouteTableAddress> innerEntry = innerIterator.next();
-        if (endpoint.equals(innerEntry.getValue().getEndpointKey())) {
-          innerIterator.remove();
-        }
-      }
-      if (addressMap.isEmpty()) {
-        iterator.remove();
-      }
+    for (int index : getEndpointAddresses(endpoint)) {
+      removeRoutes(index);
     }
   }
 
@@ -264,22 +276,135 @@ public class RouteTable {
    * @param address address
    */
   public void removeByAddress(RouteTableAddress address) {
-    Set<Entry<RouteTableKey, Map<String, RouteTableAddress>>> entrySet = routes.entrySet();
-    Iterator<Entry<RouteTableKey, Map<String, RouteTableAddress>>> iterator = entrySet.iterator();
+    int index = addressIndex.indexOf(address);
+    if (index >= 0) {
+      removeRoutes(index);
+    }
+  }
+
+  /**
+   * Removes the address from the routes of all keys and releases its index.
+   */
+  private void removeRoutes(int index) {
+    Iterator<BitSet> iterator = routes.values().iterator();
     while (iterator.hasNext()) {
-      Entry<RouteTableKey, Map<String, RouteTableAddress>> entry = iterator.next();
-      Map<String, RouteTableAddress> addressMap = entry.getValue();
-      Set<Entry<String, RouteTableAddress>> innerEntrySet = addressMap.entrySet();
-      Iterator<Entry<String, RouteTableAddress>> innerIterator = innerEntrySet.iterator();
-      while (innerIterator.hasNext()) {
-        Entry<String, RouteTableAddress> innerEntry = innerIterator.next();
-        if (address.equals(innerEntry.getValue())) {
-          innerIterator.remove();
+      BitSet directionRoutes = iterator.next();
+      directionRoutes.clear(index);
+      if (directionRoutes.isEmpty()) {
+        iterator.remove();
+      }
+    }
+    removeEndpointAddress(addressIndex.get(index).getEndpointKey(), index);
+    addressIndex.release(index);
+  }
+
+  private int findTarget(BitSet directionRoutes, int[] targetAddresses) {
+    for (int index : targetAddresses) {
+      if (directionRoutes.get(index)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private int[] getEndpointAddresses(String target) {
+    return getEndpointAddresses(EndpointObjectHash.fromBytes(Base64Util.decode(target)));
+  }
+
+  private int[] getEndpointAddresses(EndpointObjectHash endpoint) {
+    int[] indices = endpointAddresses.get(endpoint);
+    return indices != null ? indices : NO_INDICES;
+  }
+
+  private void addEndpointAddress(EndpointObjectHash endpoint, int index) {
+    int[] indices = getEndpointAddresses(endpoint);
+    int[] updated = Arrays.copyOf(indices, indices.length + 1);
+    updated[indices.length] = index;
+    endpointAddresses.put(endpoint, updated);
+  }
+
+  private void removeEndpointAddress(EndpointObjectHash endpoint, int index) {
+    int[] indices = getEndpointAddresses(endpoint);
+    for (int i = 0; i < indices.length; i++) {
+      if (indices[i] == index) {
+        if (indices.length == 1) {
+          endpointAddresses.remove(endpoint);
+        } else {
+          int[] updated = new int[indices.length - 1];
+          System.arraycopy(indices, 0, updated, 0, i);
+          System.arraycopy(indices, i + 1, updated, i, indices.length - i - 1);
+          endpointAddresses.put(endpoint, updated);
         }
+        return;
       }
-      if (addressMap.isEmpty()) {
-        iterator.remove();
+    }
+  }
+
+  /**
+   * A set of addresses backed by a bit set of address indices.
+   */
+  private final class AddressSet extends AbstractSet<RouteTableAddress> {
+
+    private final BitSet indices;
+    private final boolean mutable;
+
+    private AddressSet(BitSet indices, boolean mutable) {
+      this.indices = indices;
+      this.mutable = mutable;
+    }
+
+    @Override
+    public int size() {
+      return indices.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return indices.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+      if (!(obj instanceof RouteTableAddress)) {
+        return false;
       }
+      int index = addressIndex.indexOf((RouteTableAddress) obj);
+      return index >= 0 && indices.get(index);
+    }
+
+    @Override
+    public Iterator<RouteTableAddress> iterator() {
+      return new Iterator<RouteTableAddress>() {
+        private int next = indices.nextSetBit(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public RouteTableAddress next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          last = next;
+          next = indices.nextSetBit(next + 1);
+          return addressIndex.get(last);
+        }
+
+        @Override
+        public void remove() {
+          if (!mutable) {
+            throw new UnsupportedOperationException();
+          }
+          if (last < 0) {
+            throw new IllegalStateException();
+          }
+          indices.clear(last);
+          last = -1;
+        }
+      };
     }
   }
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.event;
+
+import java.util.Arrays;
+
+/**
+ * Assigns small integer indices to route table addresses, so that sets of addresses can be
+ * kept in bit sets instead of hash maps.
+ *
+ * <p>The lookup table is an open addressing hash table of <code>int</code> slots that
+ * refer to the address array, so interning and lookups don't allocate. Indices of released
+ * addresses are reused. The class is not thread-safe; it is owned by a single actor.
+ */
+final class RouteTableAddressIndex {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private RouteTableAddress[] addresses = new RouteTableAddress[INITIAL_CAPACITY];
+  private int[] slots = new int[INITIAL_CAPACITY * 2];
+  private int[] released = new int[INITIAL_CAPACITY];
+  private int releasedCount;
+  private int limit;
+  private int size;
+
+  /**
+   * Returns the index of the address, assigning a new one if the address is not known.
+   *
+   * @param address the address
+   * @return the index of the address
+   */
+  int intern(RouteTableAddress address) {
+    int mask = slots.length - 1;
+    int slot = slot(address, mask);
+    for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int index = slots[slot] - 1;
+      if (addresses[index].equals(address)) {
+        return index;
+      }
+    }
+    int index;
+    if (releasedCount > 0) {
+      index = released[--releasedCount];
+    } else {
+      index = limit++;
+      if (index == addresses.length) {
+        addresses = Arrays.copyOf(addresses, index * 2);
+      }
+    }
+    addresses[index] = address;
+    slots[slot] = index + 1;
+    if (++size * 2 > slots.length) {
+      rehash(slots.length * 2);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the index of the address.
+   *
+   * @param address the address
+   * @return the index of the address or -1 if the address is not known
+   */
+  int indexOf(RouteTableAddress address) {
+    int mask = slots.length - 1;
+    for (int slot = slot(address, mask); slots[slot] != 0; slot = (slot + 1) & mask) {
+      int index = slots[slot] - 1;
+      if (addresses[index].equals(address)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the address with the given index.
+   *
+   * @param index the index
+   * @return the address or null if the index is not assigned
+   */
+  RouteTableAddress get(int index) {
+    return index < limit ? addresses[index] : null;
+  }
+
+  /**
+   * Returns the upper bound of the assigned indices.
+   *
+   * @return the number of indices ever assigned since the last clear
+   */
+  int limit() {
+    return limit;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Forgets the address with the given index and makes the index available for reuse.
+   *
+   * @param index the index
+   */
+  void release(int index) {
+    RouteTableAddress address = get(index);
+    if (address == null) {
+      return;
+    }
+    int mask = slots.length - 1;
+    int gap = slot(address, mask);
+    while (slots[gap] != index + 1) {
+      gap = (gap + 1) & mask;
+    }
+    // backward shift deletion keeps the probe sequences of the following entries intact
+    for (int slot = (gap + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+      int home = slot(addresses[slots[slot] - 1], mask);
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        slots[gap] = slots[slot];
+        gap = slot;
+      }
+    }
+    slots[gap] = 0;
+    addresses[index] = null;
+    if (releasedCount == released.length) {
+      released = Arrays.copyOf(released, releasedCount * 2);
+    }
+    released[releasedCount++] = index;
+    size--;
+  }
+
+  /**
+   * Forgets all addresses.
+   */
+  void clear() {
+    Arrays.fill(addresses, 0, limit, null);
+    Arrays.fill(slots, 0);
+    releasedCount = 0;
+    limit = 0;
+    size = 0;
+  }
+
+  private void rehash(int capacity) {
+    slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int index = 0; index < limit; index++) {
+      if (addresses[index] != null) {
+        int slot = slot(addresses[index], mask);
+        while (slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+      }
+    }
+  }
+
+  private static int slot(RouteTableAddress address, int mask) {
+    int hash = address.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
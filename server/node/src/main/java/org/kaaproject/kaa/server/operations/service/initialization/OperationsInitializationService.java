@@ -210,7 +210,7 @@ public class OperationsInitializationService extends AbstractInitializationServi
     ByteBuffer keyData = ByteBuffer.wrap(operationsKeyStoreService.getPublicKey().getEncoded());
     nodeInfo.setConnectionInfo(new ConnectionInfo(getNodeConfig().getThriftHost(),
             getNodeConfig().getThriftPort(), keyData));
-    nodeInfo.setLoadInfo(new LoadInfo(DEFAULT_LOAD_INDEX, 1.0));
+    nodeInfo.setLoadInfo(new LoadInfo(DEFAULT_LOAD_INDEX, 1.0, null, null, null, null, null));
     nodeInfo.setTransports(new ArrayList<TransportMetaData>());
     operationsNode = new OperationsNode(nodeInfo, zkClient);
     try {
@@ -22,6 +22,7 @@ import org.kaaproject.kaa.server.common.zk.operations.OperationsNode;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaService;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaServiceStatus;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaStatusListener;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncLoadStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
 import java.lang.management.OperatingSystemMXBean;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -50,6 +52,9 @@ public class DefaultLoadBalancingService implements LoadBalancingService {
   @Autowired
   private AkkaService akkaService;
 
+  @Autowired
+  private SyncLoadStats syncLoadStats;
+
   @Value("#{properties[load_stats_update_frequency]}")
   private long loadStatsUpdateFrequency = DEFAULT_STATS_UPDATE_FREQUENCY;
 
@@ -93,12 +98,34 @@ public class DefaultLoadBalancingService implements LoadBalancingService {
     try {
       OperationsNodeInfo nodeInfo = operationsNode.getNodeInfo();
       OperatingSystemMXBean operatingSystemMxBean = ManagementFactory.getOperatingSystemMXBean();
+      SyncLoadStats.Snapshot syncLoad = syncLoadStats.snapshot();
       nodeInfo.setLoadInfo(new LoadInfo(
-          status.getEndpointCount(), operatingSystemMxBean.getSystemLoadAverage()));
+          status.getEndpointCount(), operatingSystemMxBean.getSystemLoadAverage(),
+          syncLoad.getSyncRate(), syncLoad.getSyncLatencyP99(), syncLoad.getMailboxDepth(),
+          getProcessCpuLoad(operatingSystemMxBean), getHeapUsage()));
       operationsNode.updateNodeData(nodeInfo);
       LOG.info("Updated load info: {}", nodeInfo.getLoadInfo());
     } catch (Exception ex) {
       LOG.error("Failed to report status update to control service", ex);
     }
   }
+
+  private static Double getProcessCpuLoad(OperatingSystemMXBean operatingSystemMxBean) {
+    if (operatingSystemMxBean instanceof com.sun.management.OperatingSystemMXBean) {
+      double cpuLoad = ((com.sun.management.OperatingSystemMXBean) operatingSystemMxBean)
+          .getProcessCpuLoad();
+      if (cpuLoad >= 0) {
+        return cpuLoad;
+      }
+    }
+    return null;
+  }
+
+  private static Double getHeapUsage() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    if (heap.getMax() > 0) {
+      return (double) heap.getUsed() / heap.getMax();
+    }
+    return null;
+  }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.logs;
+
+/**
+ * Defines how a {@link QueuedLogAppender} behaves when its queue is full.
+ */
+public enum LogAppenderQueueOverflowPolicy {
+
+  /**
+   * Block the caller until the queue has free space. Blocks the log actor of
+   * the application, so it should only be chosen explicitly.
+   */
+  BLOCK,
+
+  /**
+   * Drop log event packs of appenders that do not require delivery
+   * confirmation, report an internal error to the delivery callback of
+   * appenders that do, so the endpoint retries the delivery later. This is
+   * the default policy.
+   */
+  DROP_OPTIONAL,
+
+  /**
+   * Report an internal error to the delivery callback immediately.
+   */
+  FAIL_FAST
+}
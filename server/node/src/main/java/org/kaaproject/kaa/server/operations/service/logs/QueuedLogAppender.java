@@ -0,0 +1,259 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.logs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log appender decorator that performs {@link LogAppender#doAppend} calls of
+ * the underlying appender on a dedicated thread using a bounded queue. Thus a
+ * slow appender does not delay other appenders of the same application.
+ */
+public class QueuedLogAppender implements LogAppender {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QueuedLogAppender.class);
+
+  private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private static final long ENQUEUE_RECHECK_MILLIS = 100;
+
+  private final LogAppender delegate;
+
+  private final LogAppenderQueueOverflowPolicy overflowPolicy;
+
+  private final BlockingQueue<Runnable> queue;
+
+  private final ThreadPoolExecutor executor;
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  private final long closeTimeoutMillis;
+
+  /**
+   * Create a new instance of QueuedLogAppender.
+   *
+   * @param delegate       the underlying log appender
+   * @param queueSize      the max amount of pending log event packs
+   * @param overflowPolicy the policy that is applied when the queue is full
+   */
+  public QueuedLogAppender(LogAppender delegate, int queueSize,
+                           LogAppenderQueueOverflowPolicy overflowPolicy) {
+    this(delegate, queueSize, overflowPolicy, CLOSE_TIMEOUT_MILLIS);
+  }
+
+  QueuedLogAppender(LogAppender delegate, int queueSize,
+                    LogAppenderQueueOverflowPolicy overflowPolicy, long closeTimeoutMillis) {
+    this.delegate = delegate;
+    this.closeTimeoutMillis = closeTimeoutMillis;
+    this.overflowPolicy = overflowPolicy != null
+        ? overflowPolicy : LogAppenderQueueOverflowPolicy.DROP_OPTIONAL;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue,
+        new ThreadFactoryBuilder()
+            .setNameFormat("log-appender-" + delegate.getAppenderId() + "-%d")
+            .setDaemon(true)
+            .build(),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.executor.prestartCoreThread();
+  }
+
+  public LogAppender getDelegate() {
+    return delegate;
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  @Override
+  public void doAppend(LogEventPack logEventPack, LogDeliveryCallback listener) {
+    Runnable task = new AppendTask(logEventPack, listener);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException ex) {
+      processOverflow(task, listener);
+    }
+  }
+
+  private void processOverflow(Runnable task, LogDeliveryCallback listener) {
+    if (executor.isShutdown()) {
+      LOG.warn("[{}] Appender is closed, rejecting log event pack", delegate.getAppenderId());
+      listener.onInternalError();
+      return;
+    }
+    switch (overflowPolicy) {
+      case FAIL_FAST:
+        LOG.debug("[{}] Appender queue is full, rejecting log event pack",
+            delegate.getAppenderId());
+        listener.onInternalError();
+        break;
+      case DROP_OPTIONAL:
+        if (!delegate.isDeliveryConfirmationRequired()) {
+          long dropped = droppedCount.incrementAndGet();
+          LOG.debug("[{}] Appender queue is full, dropped {} log event packs so far",
+              delegate.getAppenderId(), dropped);
+        } else {
+          LOG.debug("[{}] Appender queue is full, rejecting log event pack",
+              delegate.getAppenderId());
+          listener.onInternalError();
+        }
+        break;
+      case BLOCK:
+        enqueue(task, listener);
+        break;
+      default:
+        listener.onInternalError();
+        break;
+    }
+  }
+
+  private void enqueue(Runnable task, LogDeliveryCallback listener) {
+    try {
+      while (!executor.isShutdown()) {
+        if (queue.offer(task, ENQUEUE_RECHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+          // the executor may have been closed while the task was being queued,
+          // in which case nothing is going to take it from the queue
+          if (!executor.isShutdown() || !queue.remove(task)) {
+            return;
+          }
+          break;
+        }
+      }
+      LOG.warn("[{}] Appender is closed, rejecting log event pack", delegate.getAppenderId());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      LOG.warn("[{}] Interrupted while waiting for appender queue", delegate.getAppenderId());
+    }
+    listener.onInternalError();
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public void setName(String name) {
+    delegate.setName(name);
+  }
+
+  @Override
+  public String getAppenderId() {
+    return delegate.getAppenderId();
+  }
+
+  @Override
+  public void setAppenderId(String appenderId) {
+    delegate.setAppenderId(appenderId);
+  }
+
+  @Override
+  public void setApplicationToken(String applicationToken) {
+    delegate.setApplicationToken(applicationToken);
+  }
+
+  @Override
+  public void init(LogAppenderDto appender) {
+    delegate.init(appender);
+  }
+
+  @Override
+  public boolean isSchemaVersionSupported(int version) {
+    return delegate.isSchemaVersionSupported(version);
+  }
+
+  @Override
+  public boolean isDeliveryConfirmationRequired() {
+    return delegate.isDeliveryConfirmationRequired();
+  }
+
+  /**
+   * Stops accepting log event packs and closes the underlying appender on a separate
+   * thread once the pending packs are passed to it, so the caller is not blocked.
+   * Packs that are still pending after the close timeout are failed.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    Thread closer = new Thread(this::awaitAndClose,
+        "log-appender-" + delegate.getAppenderId() + "-close");
+    closer.setDaemon(true);
+    closer.start();
+  }
+
+  private void awaitAndClose() {
+    try {
+      if (!executor.awaitTermination(closeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        failPending();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      failPending();
+    }
+    delegate.close();
+  }
+
+  private void failPending() {
+    List<Runnable> pending = executor.shutdownNow();
+    LOG.warn("[{}] {} log event packs were not appended before close",
+        delegate.getAppenderId(), pending.size());
+    for (Runnable task : pending) {
+      ((AppendTask) task).listener.onInternalError();
+    }
+  }
+
+  private class AppendTask implements Runnable {
+
+    private final LogEventPack logEventPack;
+    private final LogDeliveryCallback listener;
+
+    private AppendTask(LogEventPack logEventPack, LogDeliveryCallback listener) {
+      this.logEventPack = logEventPack;
+      this.listener = listener;
+    }
+
+    @Override
+    public void run() {
+      try {
+        delegate.doAppend(logEventPack, listener);
+      } catch (Exception cause) {
+        LOG.warn("Failed to append logs using [{}] (ID: {})",
+            delegate.getName(), delegate.getAppenderId(), cause);
+        listener.onInternalError();
+      }
+    }
+  }
+}
@@ -21,12 +21,16 @@ import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Slf4jReporter;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.PrintWriter;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -60,6 +64,39 @@ public class DefaultMerticsService implements MetricsService {
     };
   }
 
+  @Override
+  public TimerClient createTimer(String name, String... names) {
+    final Timer timer = metrics.timer(MetricRegistry.name(name, names));
+    return new TimerClient() {
+      @Override
+      public void update(long duration, TimeUnit unit) {
+        if (enabled) {
+          timer.update(duration, unit);
+        } else {
+          LOG.trace(METRICS_COLLECTION_IS_DISABLED);
+        }
+      }
+    };
+  }
+
+  @Override
+  public void printTimers(PrintWriter writer, String filter) {
+    double msFactor = 1.0 / TimeUnit.MILLISECONDS.toNanos(1);
+    writer.println(String.format("%-80s %10s %10s %10s %10s %10s %10s",
+        "TIMER", "COUNT", "RATE/1M", "MEAN(ms)", "P50(ms)", "P99(ms)", "MAX(ms)"));
+    for (Map.Entry<String, Timer> entry : metrics.getTimers().entrySet()) {
+      if (filter != null && !filter.isEmpty() && !entry.getKey().contains(filter)) {
+        continue;
+      }
+      Timer timer = entry.getValue();
+      Snapshot snapshot = timer.getSnapshot();
+      writer.println(String.format("%-80s %10d %10.2f %10.3f %10.3f %10.3f %10.3f",
+          entry.getKey(), timer.getCount(), timer.getOneMinuteRate(),
+          snapshot.getMean() * msFactor, snapshot.getMedian() * msFactor,
+          snapshot.get99thPercentile() * msFactor, snapshot.getMax() * msFactor));
+    }
+  }
+
   @Override
   public boolean isEnabled() {
     return enabled;
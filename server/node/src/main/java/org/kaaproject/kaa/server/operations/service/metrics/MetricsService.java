@@ -16,11 +16,22 @@
 
 package org.kaaproject.kaa.server.operations.service.metrics;
 
+import java.io.PrintWriter;
 
 public interface MetricsService {
 
   MeterClient createMeter(String name, String... names);
 
+  TimerClient createTimer(String name, String... names);
+
+  /**
+   * Prints a snapshot of all timers whose name contains the filter.
+   *
+   * @param writer the writer
+   * @param filter the name filter, null or empty to print all timers
+   */
+  void printTimers(PrintWriter writer, String filter);
+
   boolean isEnabled();
 
   void setEnabled(boolean enabled);
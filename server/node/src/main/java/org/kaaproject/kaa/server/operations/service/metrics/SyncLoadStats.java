@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.operations.service.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates endpoint sync load of this node between two consecutive {@link #snapshot()} calls.
+ *
+ * <p>Unlike {@link SyncStageTimers}, the statistics are collected regardless of whether metrics
+ * collection is enabled, because they are published to ZooKeeper and used for load balancing.
+ * Latencies are kept in a log-linear histogram with four buckets per power of two, so the
+ * reported percentile is accurate to 25%.
+ */
+@Component
+public class SyncLoadStats {
+
+  private static final int SUB_BUCKETS = 4;
+  private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+  private final LongAdder syncCount = new LongAdder();
+  private final LongAdder mailboxWaitNanos = new LongAdder();
+  private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+
+  private long lastSnapshotNanos = System.nanoTime();
+
+  /**
+   * Records the time a sync request spent in the endpoint actor mailbox.
+   *
+   * @param waitNanos the wait time in nanoseconds
+   */
+  public void recordMailboxWait(long waitNanos) {
+    if (waitNanos > 0) {
+      mailboxWaitNanos.add(waitNanos);
+    }
+  }
+
+  /**
+   * Records a processed sync request.
+   *
+   * @param durationNanos the sync processing time in nanoseconds
+   */
+  public void recordSync(long durationNanos) {
+    syncCount.increment();
+    latencyBuckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(durationNanos)));
+  }
+
+  /**
+   * Returns the statistics collected since the previous call and starts a new interval.
+   *
+   * @return the load snapshot
+   */
+  public synchronized Snapshot snapshot() {
+    long now = System.nanoTime();
+    double intervalSeconds = Math.max(now - lastSnapshotNanos, 1L) / 1e9;
+    lastSnapshotNanos = now;
+
+    long count = syncCount.sumThenReset();
+    long waitNanos = mailboxWaitNanos.sumThenReset();
+    long[] buckets = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = latencyBuckets.getAndSet(i, 0);
+      total += buckets[i];
+    }
+
+    double p99Millis = 0.0;
+    if (total > 0) {
+      long threshold = (long) Math.ceil(total * 0.99);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i];
+        if (seen >= threshold) {
+          p99Millis = upperBoundOf(i) / 1000.0;
+          break;
+        }
+      }
+    }
+    // Little's law: the average number of queued requests equals
+    // the arrival rate multiplied by the average time spent in the queue.
+    double mailboxDepth = waitNanos / 1e9 / intervalSeconds;
+    return new Snapshot(count / intervalSeconds, p99Millis, mailboxDepth);
+  }
+
+  static int bucketOf(long micros) {
+    if (micros < SUB_BUCKETS) {
+      return (int) Math.max(micros, 0);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+    return Math.min((exponent - 1) * SUB_BUCKETS + subBucket, BUCKETS - 1);
+  }
+
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + 1;
+    int subBucket = bucket % SUB_BUCKETS;
+    return ((SUB_BUCKETS + subBucket + 1L) << (exponent - 2)) - 1;
+  }
+
+  public static final class Snapshot {
+
+    private final double syncRate;
+    private final double syncLatencyP99;
+    private final double mailboxDepth;
+
+    Snapshot(double syncRate, double syncLatencyP99, double mailboxDepth) {
+      this.syncRate = syncRate;
+      this.syncLatencyP99 = syncLatencyP99;
+      this.mailboxDepth = mailboxDepth;
+    }
+
+    /**
+     * Returns processed sync requests per second.
+     */
+    public double getSyncRate() {
+      return syncRate;
+    }
+
+    /**
+     * Returns the 99th percentile of sync processing time in milliseconds.
+     */
+    public double getSyncLatencyP99() {
+      return syncLatencyP99;
+    }
+
+    /**
+     * Returns the average number of sync requests waiting in endpoint actor mailboxes.
+     */
+    public double getMailboxDepth() {
+      return mailboxDepth;
+    }
+  }
+}
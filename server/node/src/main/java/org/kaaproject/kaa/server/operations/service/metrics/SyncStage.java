@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.metrics;
+
+/**
+ * Stages of the endpoint sync pipeline that are timed by {@link SyncStageTimers}.
+ */
+public enum SyncStage {
+
+  /** Decryption and platform level decoding of the request in the EncDec actor. */
+  DECODE("decode"),
+  /** Time from request decoding until the application shard actor picks the request up. */
+  ROUTING("routing"),
+  /** Time from request decoding until the endpoint actor picks the request up. */
+  ENDPOINT_MAILBOX("endpoint-mailbox"),
+  /** Profile registration, update or lookup, including the endpoint group state sync. */
+  PROFILE("profile"),
+  /** Endpoint group history calculation. */
+  HISTORY("history"),
+  /** Configuration delta calculation. */
+  CONFIGURATION("configuration-delta"),
+  /** Notification delta calculation. */
+  NOTIFICATION("notification-delta"),
+  /** Whole sync processing inside the endpoint actor. */
+  ENDPOINT_SYNC("endpoint-sync"),
+  /** Time from the endpoint actor reply until the EncDec actor picks the response up. */
+  RESPONSE_MAILBOX("response-mailbox"),
+  /** Platform level encoding and encryption of the response. */
+  ENCODE("encode");
+
+  private final String metricName;
+
+  SyncStage(String metricName) {
+    this.metricName = metricName;
+  }
+
+  public String getMetricName() {
+    return metricName;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.metrics;
+
+import org.kaaproject.kaa.server.transport.channel.ChannelType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration of sync pipeline stages, tagged by application and channel type.
+ *
+ * <p>Timers are resolved once per application, stage and channel type and then kept in
+ * a flat array, so recording a stage is an array lookup plus a timer update. Nothing is
+ * recorded while metrics collection is disabled, except for the endpoint mailbox and endpoint
+ * sync stages that always feed {@link SyncLoadStats}.
+ */
+@Component
+public class SyncStageTimers {
+
+  public static final String TIMER_PREFIX = "sync";
+
+  private static final String UNKNOWN_APPLICATION = "unknown";
+  private static final String ANY_CHANNEL = "any";
+  private static final int CHANNEL_SLOTS = ChannelType.values().length + 1;
+
+  private final ConcurrentMap<String, TimerClient[]> applicationTimers =
+      new ConcurrentHashMap<>();
+
+  @Autowired
+  private MetricsService metricsService;
+
+  @Autowired
+  private SyncLoadStats loadStats;
+
+  public SyncStageTimers() {
+  }
+
+  public SyncStageTimers(MetricsService metricsService) {
+    this(metricsService, new SyncLoadStats());
+  }
+
+  public SyncStageTimers(MetricsService metricsService, SyncLoadStats loadStats) {
+    this.metricsService = metricsService;
+    this.loadStats = loadStats;
+  }
+
+  /**
+   * Records the stage duration for a stage that is not bound to a channel.
+   *
+   * @param stage      the sync stage
+   * @param appToken   the application token
+   * @param startNanos the stage start time as returned by {@link System#nanoTime()}
+   */
+  public void record(SyncStage stage, String appToken, long startNanos) {
+    record(stage, appToken, null, startNanos);
+  }
+
+  /**
+   * Records the stage duration.
+   *
+   * @param stage       the sync stage
+   * @param appToken    the application token
+   * @param channelType the channel type of the request, may be null
+   * @param startNanos  the stage start time as returned by {@link System#nanoTime()}
+   */
+  public void record(SyncStage stage, String appToken, ChannelType channelType,
+                     long startNanos) {
+    if (stage == SyncStage.ENDPOINT_MAILBOX) {
+      loadStats.recordMailboxWait(System.nanoTime() - startNanos);
+    } else if (stage == SyncStage.ENDPOINT_SYNC) {
+      loadStats.recordSync(System.nanoTime() - startNanos);
+    }
+    if (!metricsService.isEnabled()) {
+      return;
+    }
+    long duration = System.nanoTime() - startNanos;
+    String application = appToken != null ? appToken : UNKNOWN_APPLICATION;
+    TimerClient[] timers = applicationTimers.get(application);
+    if (timers == null) {
+      timers = applicationTimers.computeIfAbsent(application,
+          key -> new TimerClient[SyncStage.values().length * CHANNEL_SLOTS]);
+    }
+    int channelSlot = channelType != null ? channelType.ordinal() : CHANNEL_SLOTS - 1;
+    int index = stage.ordinal() * CHANNEL_SLOTS + channelSlot;
+    TimerClient timer = timers[index];
+    if (timer == null) {
+      // Concurrent resolution is harmless: the registry returns the same timer.
+      timer = metricsService.createTimer(TIMER_PREFIX, stage.getMetricName(), application,
+          channelType != null ? channelType.name().toLowerCase(Locale.ENGLISH) : ANY_CHANNEL);
+      timers[index] = timer;
+    }
+    timer.update(duration, TimeUnit.NANOSECONDS);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.admin.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
+import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
+import org.kaaproject.kaa.common.dto.PageLinkDto;
+import org.kaaproject.kaa.server.admin.shared.services.GroupService;
+import org.kaaproject.kaa.server.common.dao.DaoConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class GroupControllerTest {
+
+  private static final String ENDPOINT_GROUP_ID = "1";
+
+  private GroupController groupController;
+  private GroupService groupService;
+
+  @Before
+  public void before() {
+    groupService = mock(GroupService.class);
+    groupController = new GroupController();
+    groupController.groupService = groupService;
+  }
+
+  @Test
+  public void exportFollowsKeysetPagesTest() throws Exception {
+    when(groupService.getEndpointProfileBodyByEndpointGroupId(ENDPOINT_GROUP_ID, "500", "0"))
+        .thenReturn(page("key2", body(0), body(1)));
+    // Every profile of the second page is missing, but the key set continues.
+    when(groupService.getEndpointProfileBodyByEndpointGroupId(ENDPOINT_GROUP_ID, "500", "key2"))
+        .thenReturn(page("key3"));
+    when(groupService.getEndpointProfileBodyByEndpointGroupId(ENDPOINT_GROUP_ID, "500", "key3"))
+        .thenReturn(page(null, body(3)));
+
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("user-agent", "test");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    groupController.exportEndpointProfileBodyByEndpointGroupId(
+        ENDPOINT_GROUP_ID, "json", request, response);
+
+    String[] lines = response.getContentAsString().split("\n");
+    Assert.assertEquals(3, lines.length);
+    Assert.assertTrue(lines[2].contains("\"clientSideProfileVersion\":3"));
+    verify(groupService).getEndpointProfileBodyByEndpointGroupId(ENDPOINT_GROUP_ID, "500", "key3");
+  }
+
+  private static EndpointProfileBodyDto body(int version) {
+    return new EndpointProfileBodyDto(new byte[]{(byte) version}, "{}", "{}", version, version,
+        "app");
+  }
+
+  private static EndpointProfilesBodyDto page(String nextOffset,
+                                              EndpointProfileBodyDto... bodies) {
+    PageLinkDto pageLink = new PageLinkDto(ENDPOINT_GROUP_ID, "500", nextOffset);
+    if (nextOffset == null) {
+      pageLink.setNext(DaoConstants.LAST_PAGE_MESSAGE);
+    }
+    List<EndpointProfileBodyDto> profiles = new ArrayList<>(Arrays.asList(bodies));
+    EndpointProfilesBodyDto page = new EndpointProfilesBodyDto();
+    page.setPageLinkDto(pageLink);
+    page.setEndpointProfilesBody(profiles);
+    return page;
+  }
+}
@@ -19,6 +19,7 @@ package org.kaaproject.kaa.server.bootstrap.service;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.kaaproject.kaa.server.common.zk.ServerNameUtil;
 import org.kaaproject.kaa.server.common.zk.bootstrap.BootstrapNode;
 import org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo;
 import org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo;
@@ -26,6 +27,10 @@ import org.kaaproject.kaa.server.common.zk.gen.TransportMetaData;
 import org.kaaproject.kaa.server.common.zk.gen.VersionConnectionInfoPair;
 import org.kaaproject.kaa.server.sync.bootstrap.ProtocolConnectionData;
 import org.kaaproject.kaa.server.sync.bootstrap.ProtocolVersionId;
+import org.kaaproject.kaa.server.sync.platform.BootstrapResponseTemplate;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDec;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDecException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -98,6 +103,26 @@ public class DefaultOperationsServerListServiceTest {
     Assert.assertEquals(0, result.size());
   }
 
+  @Test
+  public void testFilterSkipsDrainedServers() {
+    OperationsNodeInfo nodeInfo = new OperationsNodeInfo();
+    nodeInfo.setConnectionInfo(new ConnectionInfo("localhost", 8001, ByteBuffer.wrap(new byte[0])));
+    nodeInfo.setTransports(Collections.singletonList(new TransportMetaData(1, 42, 42,
+        Collections.singletonList(new VersionConnectionInfoPair(42, ByteBuffer.wrap("test".getBytes()))))));
+    service.onNodeAdded(nodeInfo);
+    List<ProtocolVersionId> keys = Collections.singletonList(new ProtocolVersionId(1, 42));
+    Assert.assertEquals(2, service.filter(keys).size());
+
+    service.onPrioritiesUpdate(Collections.singletonMap("localhost:8000", 0));
+    Set<ProtocolConnectionData> result = service.filter(keys);
+    Assert.assertEquals(1, result.size());
+    Assert.assertEquals(ServerNameUtil.crc32(nodeInfo.getConnectionInfo()), result.iterator().next().getAccessPointId());
+
+    service.onPrioritiesUpdate(Collections.singletonMap("localhost:8001", 0));
+    result = service.filter(Collections.singletonList(new ProtocolVersionId(2, 73)));
+    Assert.assertEquals(1, result.size());
+  }
+
   @Test(expected = RuntimeException.class)
   public void filterInterrupted() throws InterruptedException {
     DefaultOperationsServerListService.Memorizer memorizer = Mockito.mock(DefaultOperationsServerListService.Memorizer.class);
@@ -134,4 +159,34 @@ public class DefaultOperationsServerListServiceTest {
     Mockito.verify(opsMap, Mockito.only()).remove(Mockito.anyString());
     Mockito.verify(memorizer, Mockito.only()).clear();
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBootstrapResponseCache() throws PlatformEncDecException {
+    PlatformEncDec encDec = Mockito.mock(PlatformEncDec.class);
+    Mockito.when(encDec.getId()).thenReturn(1);
+    Mockito.when(encDec.encodeBootstrapResponse(Mockito.anySet()))
+        .thenReturn(Mockito.mock(BootstrapResponseTemplate.class));
+    List<ProtocolVersionId> keys = Collections.singletonList(new ProtocolVersionId(1, 42));
+
+    BootstrapResponseTemplate response = service.getBootstrapResponse(keys, encDec);
+    Assert.assertSame(response, service.getBootstrapResponse(
+        Collections.singletonList(new ProtocolVersionId(1, 42)), encDec));
+    Mockito.verify(encDec, Mockito.times(1)).encodeBootstrapResponse(Mockito.anySet());
+
+    PlatformEncDec otherEncDec = Mockito.mock(PlatformEncDec.class);
+    Mockito.when(otherEncDec.getId()).thenReturn(2);
+    service.getBootstrapResponse(keys, otherEncDec);
+    Mockito.verify(otherEncDec).encodeBootstrapResponse(service.filter(keys));
+
+    OperationsNodeInfo nodeInfo = new OperationsNodeInfo();
+    nodeInfo.setConnectionInfo(new ConnectionInfo("localhost", 8001, ByteBuffer.wrap(new byte[0])));
+    nodeInfo.setTransports(Collections.singletonList(new TransportMetaData(1, 42, 42,
+        Collections.singletonList(new VersionConnectionInfoPair(42, ByteBuffer.wrap("test".getBytes()))))));
+    service.onNodeAdded(nodeInfo);
+    service.getBootstrapResponse(keys, encDec);
+    ArgumentCaptor<Set> protocols = ArgumentCaptor.forClass(Set.class);
+    Mockito.verify(encDec, Mockito.times(2)).encodeBootstrapResponse(protocols.capture());
+    Assert.assertEquals(2, protocols.getValue().size());
+  }
 }
@@ -23,9 +23,15 @@ import static org.junit.Assert.assertNotNull;
 
 import org.apache.thrift.TException;
 import org.junit.Test;
+import org.kaaproject.kaa.server.bootstrap.service.OperationsServerListService;
 import org.kaaproject.kaa.server.common.thrift.gen.bootstrap.ThriftOperationsServer;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Andrey Panasenko <apanasenko@cybervisiontech.com>
@@ -39,10 +45,26 @@ public class BootstrapThriftServiceImplTest {
   public void testOnOperationsServerListUpdate() {
     BootstrapThriftServiceImpl b = new BootstrapThriftServiceImpl();
     assertNotNull(b);
+    OperationsServerListService listService = Mockito.mock(OperationsServerListService.class);
+    ReflectionTestUtils.setField(b, "operationsServerListService", listService);
     try {
       b.onOperationsServerListUpdate(Collections.<ThriftOperationsServer>emptyList());
     } catch (TException e) {
       e.printStackTrace();
     }
+    Mockito.verify(listService).onPrioritiesUpdate(Collections.<String, Integer>emptyMap());
+  }
+
+  @Test
+  public void testOnOperationsServerListUpdatePriorities() throws TException {
+    BootstrapThriftServiceImpl b = new BootstrapThriftServiceImpl();
+    OperationsServerListService listService = Mockito.mock(OperationsServerListService.class);
+    ReflectionTestUtils.setField(b, "operationsServerListService", listService);
+    b.onOperationsServerListUpdate(Arrays.asList(new ThriftOperationsServer("localhost:9090", 0),
+        new ThriftOperationsServer("localhost:9091", 10)));
+    Map<String, Integer> expected = new HashMap<>();
+    expected.put("localhost:9090", 0);
+    expected.put("localhost:9091", 10);
+    Mockito.verify(listService).onPrioritiesUpdate(expected);
   }
 }
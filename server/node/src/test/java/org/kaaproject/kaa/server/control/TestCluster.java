@@ -188,7 +188,7 @@ public class TestCluster {
     OperationsNodeInfo nodeInfo = new OperationsNodeInfo();
     ByteBuffer testKeyData = ByteBuffer.wrap(new byte[]{10, 11, 12, 45, 34, 23, 67, 89, 66, 12});
     nodeInfo.setConnectionInfo(new ConnectionInfo(OPERATIONS_NODE_HOST, 10090, testKeyData));
-    nodeInfo.setLoadInfo(new LoadInfo(1, 1.0));
+    nodeInfo.setLoadInfo(new LoadInfo(1, 1.0, null, null, null, null, null));
     nodeInfo.setTimeStarted(System.currentTimeMillis());
     nodeInfo.setTransports(new ArrayList<TransportMetaData>());
     return nodeInfo;
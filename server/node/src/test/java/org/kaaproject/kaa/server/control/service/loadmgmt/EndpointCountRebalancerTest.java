@@ -76,19 +76,19 @@ public class EndpointCountRebalancerTest {
 
     Integer server1 = "dns1".hashCode();
     OperationsServerLoadHistory server1History = new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE);
-    server1History.addOpsServerLoad(new LoadInfo(100000, 1.0));
+    server1History.addOpsServerLoad(new LoadInfo(100000, 1.0, null, null, null, null, null));
 
     Integer server2 = "dns2".hashCode();
     OperationsServerLoadHistory server2History = new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE);
-    server2History.addOpsServerLoad(new LoadInfo(40000, 1.0));
+    server2History.addOpsServerLoad(new LoadInfo(40000, 1.0, null, null, null, null, null));
 
     Integer server3 = "dns3".hashCode();
     OperationsServerLoadHistory server3History = new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE);
-    server3History.addOpsServerLoad(new LoadInfo(10000, 1.0));
+    server3History.addOpsServerLoad(new LoadInfo(10000, 1.0, null, null, null, null, null));
 
     Integer server4 = "dns4".hashCode();
     OperationsServerLoadHistory server4History = new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE);
-    server4History.addOpsServerLoad(new LoadInfo(10000, 1.0));
+    server4History.addOpsServerLoad(new LoadInfo(10000, 1.0, null, null, null, null, null));
 
 
     Map<Integer, OperationsServerLoadHistory> serversHistory = new LinkedHashMap<Integer, OperationsServerLoadHistory>();
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.control.service.loadmgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.RedirectionRule;
+import org.kaaproject.kaa.server.common.zk.gen.LoadInfo;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.LoadAwareRebalancer;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.OperationsServerLoadHistory;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.Rebalancer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoadAwareRebalancerTest {
+
+  private static final long MAX_HISTORY_TIME_LIVE = 300000;
+
+  private final Integer server1 = "dns1".hashCode();
+  private final Integer server2 = "dns2".hashCode();
+  private final Integer server3 = "dns3".hashCode();
+
+  private Map<Integer, OperationsServerLoadHistory> serversHistory;
+
+  @Before
+  public void before() {
+    serversHistory = new LinkedHashMap<>();
+    serversHistory.put(server1, new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE));
+    serversHistory.put(server2, new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE));
+    serversHistory.put(server3, new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE));
+  }
+
+  @Test
+  public void testRecalculateStandalone() {
+    Rebalancer rebalancer = new LoadAwareRebalancer();
+    serversHistory.remove(server2);
+    serversHistory.remove(server3);
+    serversHistory.get(server1).addOpsServerLoad(load(1000, 500.0, 50.0, 5.0, 0.9, 0.6));
+    assertEquals(0, rebalancer.recalculate(serversHistory).size());
+    assertEquals(0, rebalancer.getOpsServerPriorities().size());
+  }
+
+  /**
+   * Servers have the same endpoint count, but the first one processes five times more syncs.
+   */
+  @Test
+  public void testRecalculateEqualEndpointCounts() {
+    Rebalancer rebalancer = new LoadAwareRebalancer();
+    serversHistory.get(server1).addOpsServerLoad(load(1000, 500.0, 50.0, 5.0, 0.9, 0.6));
+    serversHistory.get(server2).addOpsServerLoad(load(1000, 100.0, 10.0, 1.0, 0.3, 0.6));
+    serversHistory.get(server3).addOpsServerLoad(load(1000, 100.0, 10.0, 1.0, 0.3, 0.6));
+
+    Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(serversHistory);
+    assertEquals(1, rules.size());
+    List<RedirectionRule> serverRules = rules.get(server1);
+    assertNotNull(serverRules);
+    assertEquals(2, serverRules.size());
+    assertEquals(server2.intValue(), serverRules.get(0).getAccessPointId());
+    assertEquals(server3.intValue(), serverRules.get(1).getAccessPointId());
+    assertEquals(serverRules.get(0).getInitRedirectProbability(),
+        serverRules.get(1).getInitRedirectProbability(), 0.0001);
+    assertTrue(serverRules.get(0).getInitRedirectProbability() > 0.1);
+    assertTrue(serverRules.get(0).getInitRedirectProbability() < 0.375);
+    assertEquals(0.0, serverRules.get(0).getSessionRedirectProbability(), 0.0);
+
+    Map<Integer, Integer> priorities = rebalancer.getOpsServerPriorities();
+    assertEquals(0, priorities.get(server1).intValue());
+    assertTrue(priorities.get(server2) > 10);
+    assertEquals(priorities.get(server2), priorities.get(server3));
+  }
+
+  @Test
+  public void testRecalculateEndpointCountOnly() {
+    Rebalancer rebalancer = new LoadAwareRebalancer();
+    serversHistory.get(server1).addOpsServerLoad(load(3000, null, null, null, null, null));
+    serversHistory.get(server2).addOpsServerLoad(load(1000, 100.0, 10.0, 1.0, 0.3, 0.6));
+    serversHistory.get(server3).addOpsServerLoad(load(1000, 100.0, 10.0, 1.0, 0.3, 0.6));
+
+    Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(serversHistory);
+    assertEquals(1, rules.size());
+    assertEquals(2, rules.get(server1).size());
+  }
+
+  @Test
+  public void testRecalculateHysteresis() {
+    Rebalancer rebalancer = new LoadAwareRebalancer();
+    serversHistory.get(server1).addOpsServerLoad(load(1000, 500.0, 50.0, 5.0, 0.9, 0.6));
+    serversHistory.get(server2).addOpsServerLoad(load(1000, 100.0, 10.0, 1.0, 0.3, 0.6));
+    serversHistory.get(server3).addOpsServerLoad(load(1000, 100.0, 10.0, 1.0, 0.3, 0.6));
+    assertEquals(1, rebalancer.recalculate(serversHistory).size());
+
+    for (OperationsServerLoadHistory history : serversHistory.values()) {
+      history.addOpsServerLoad(load(1000, 200.0, 20.0, 2.0, 0.5, 0.6));
+    }
+    // Smoothed load score of the first server is still above the high watermark.
+    assertEquals(1, rebalancer.recalculate(serversHistory).size());
+    // Smoothed load score of the first server is between the watermarks.
+    assertEquals(1, rebalancer.recalculate(serversHistory).size());
+    // Smoothed load score of the first server is below the low watermark.
+    assertEquals(0, rebalancer.recalculate(serversHistory).size());
+    assertTrue(rebalancer.getOpsServerPriorities().get(server1) > 0);
+  }
+
+  private static LoadInfo load(int endpointCount, Double syncRate, Double syncLatencyP99,
+                               Double mailboxDepth, Double cpuLoad, Double heapUsage) {
+    return new LoadInfo(endpointCount, 1.0, syncRate, syncLatencyP99, mailboxDepth, cpuLoad,
+        heapUsage);
+  }
+}
@@ -365,7 +365,7 @@ public class TestDynamicLoadManagerIT {
     OperationsNodeInfo nodeInfo = new OperationsNodeInfo();
     nodeInfo.setTimeStarted(System.currentTimeMillis());
     nodeInfo.setTransports(new ArrayList<TransportMetaData>());
-    nodeInfo.setLoadInfo(new LoadInfo(loadInfo, 1.0));
+    nodeInfo.setLoadInfo(new LoadInfo(loadInfo, 1.0, null, null, null, null, null));
     nodeInfo.setConnectionInfo(new ConnectionInfo(thriftHost, thriftPort, publicKey));
     return nodeInfo;
   }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.control.service.zk;
+
+import org.apache.thrift.TException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.Operation;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.OperationsThriftService.Iface;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OperationsNotificationChannelTest {
+
+  @Test
+  public void coalescingKeyIgnoresSeqNumbersTest() {
+    Notification first = createGroupNotification("group1", 1);
+    Notification second = createGroupNotification("group1", 2);
+    Notification other = createGroupNotification("group2", 3);
+
+    Assert.assertNotEquals(first, second);
+    Assert.assertEquals(OperationsNotificationChannel.getCoalescingKey(first),
+        OperationsNotificationChannel.getCoalescingKey(second));
+    Assert.assertNotEquals(OperationsNotificationChannel.getCoalescingKey(first),
+        OperationsNotificationChannel.getCoalescingKey(other));
+    Assert.assertEquals(1, first.getAppSeqNumber());
+  }
+
+  @Test
+  public void sendWithoutOperationsNodesTest() {
+    final List<List<Notification>> batches = Collections.synchronizedList(new ArrayList<List<Notification>>());
+    OperationsNotificationChannel channel = new OperationsNotificationChannel(10000, 2, 1, 1) {
+      @Override
+      void broadcast(List<Notification> batch) {
+        batches.add(batch);
+        super.broadcast(batch);
+      }
+    };
+    channel.send(createGroupNotification("group1", 1));
+    channel.send(createGroupNotification("group1", 2));
+    channel.send(createGroupNotification("group2", 3));
+    channel.send(createGroupNotification("group3", 4));
+    channel.flush();
+    channel.shutdown();
+
+    Assert.assertEquals(2, batches.size());
+    Assert.assertEquals(Arrays.asList(createGroupNotification("group1", 2),
+        createGroupNotification("group2", 3)), batches.get(0));
+    Assert.assertEquals(Arrays.asList(createGroupNotification("group3", 4)), batches.get(1));
+  }
+
+  @Test
+  public void retryWithoutBlockingWorkerTest() throws Exception {
+    long backoffMs = 500;
+    OperationsNotificationChannel channel = new OperationsNotificationChannel(10000, 10, 3, backoffMs);
+    OperationsNotificationChannel.NotificationTemplate template = channel.new NotificationTemplate();
+    final Notification first = createGroupNotification("group1", 1);
+    Notification second = createGroupNotification("group2", 2);
+    Notification third = createGroupNotification("group3", 3);
+    final List<Notification> delivered = Collections.synchronizedList(new ArrayList<Notification>());
+    final AtomicBoolean failed = new AtomicBoolean();
+    Iface client = Mockito.mock(Iface.class);
+    Mockito.doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        Notification notification = (Notification) invocation.getArguments()[0];
+        if (notification.equals(first) && failed.compareAndSet(false, true)) {
+          throw new TException("Node is not available");
+        }
+        delivered.add(notification);
+        return null;
+      }
+    }).when(client).onNotification(Mockito.any(Notification.class));
+
+    long start = System.currentTimeMillis();
+    template.process(client, Arrays.asList(first, second));
+    template.process(client, Arrays.asList(third));
+    Assert.assertTrue(System.currentTimeMillis() - start < backoffMs);
+    Assert.assertTrue(delivered.isEmpty());
+
+    long deadline = System.currentTimeMillis() + 10 * backoffMs;
+    while (delivered.size() < 3 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    Assert.assertEquals(Arrays.asList(first, second, third), delivered);
+    channel.shutdown();
+  }
+
+  private Notification createGroupNotification(String groupId, int seqNumber) {
+    Notification notification = new Notification();
+    notification.setAppId("app");
+    notification.setAppSeqNumber(seqNumber);
+    notification.setGroupId(groupId);
+    notification.setGroupSeqNumber(seqNumber);
+    notification.setOp(Operation.UPDATE);
+    return notification;
+  }
+}
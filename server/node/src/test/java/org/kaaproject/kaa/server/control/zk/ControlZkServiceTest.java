@@ -136,7 +136,7 @@ public class ControlZkServiceTest {
     ReflectionTestUtils.setField(zkService,  "controlZkNode", controlZKNode);
 
     List<OperationsNodeInfo> endpointNodes = Arrays.asList(
-        new OperationsNodeInfo(new ConnectionInfo("host1", 123, null), new LoadInfo(1, 1.0), System.currentTimeMillis(), new ArrayList<TransportMetaData>()));
+        new OperationsNodeInfo(new ConnectionInfo("host1", 123, null), new LoadInfo(1, 1.0, null, null, null, null, null), System.currentTimeMillis(), new ArrayList<TransportMetaData>()));
 
 
     Mockito.when(controlZKNode.getCurrentOperationServerNodes()).thenReturn(endpointNodes);
@@ -154,6 +154,7 @@ public class ControlZkServiceTest {
     zkServiceStubbed.sendEndpointNotification(notification);
 
     Thread.sleep(2000);
+    zkService.stop();
   }
 
   /**
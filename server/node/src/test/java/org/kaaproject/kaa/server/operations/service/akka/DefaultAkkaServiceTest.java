@@ -115,6 +115,7 @@ import org.kaaproject.kaa.server.operations.service.event.UserRouteInfo;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
 import org.kaaproject.kaa.server.operations.service.metrics.MeterClient;
 import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.kaaproject.kaa.server.operations.service.metrics.SyncStageTimers;
 import org.kaaproject.kaa.server.operations.service.notification.NotificationDeltaService;
 import org.kaaproject.kaa.server.operations.service.security.KeyStoreService;
 import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
@@ -244,6 +245,7 @@ public class DefaultAkkaServiceTest {
     ReflectionTestUtils.setField(context, "clusterService", clusterService);
     ReflectionTestUtils.setField(context, "cacheService", cacheService);
     ReflectionTestUtils.setField(context, "metricsService", metricsService);
+    ReflectionTestUtils.setField(context, "syncStageTimers", new SyncStageTimers(metricsService));
     ReflectionTestUtils.setField(context, "operationsKeyStoreService", operationsKeyStoreService);
     ReflectionTestUtils.setField(context, "operationsService", operationsService);
     ReflectionTestUtils.setField(context, "notificationDeltaService", notificationDeltaService);
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.testkit.JavaTestKit;
+
+import com.typesafe.config.ConfigFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.ApplicationDto;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.common.dao.ApplicationService;
+import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.ApplicationActorStatusResponse;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestMessage;
+import org.kaaproject.kaa.server.operations.service.cluster.ClusterService;
+import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
+import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+public class ApplicationActorTest {
+
+  private static final String APP_TOKEN = "app_token";
+
+  @Test
+  public void testGetShardIndexSingleShard() {
+    EndpointObjectHash endpointKey = EndpointObjectHash.fromSha1("endpoint");
+    Assert.assertEquals(0, ApplicationActor.getShardIndex(endpointKey, 1));
+    Assert.assertEquals(0, ApplicationActor.getShardIndex(endpointKey, 0));
+  }
+
+  @Test
+  public void testGetShardIndexIsStableAndInRange() {
+    int shardCount = 8;
+    int[] distribution = new int[shardCount];
+    for (int i = 0; i < 1000; i++) {
+      EndpointObjectHash endpointKey = EndpointObjectHash.fromSha1("endpoint" + i);
+      int shardIndex = ApplicationActor.getShardIndex(endpointKey, shardCount);
+      Assert.assertTrue(shardIndex >= 0 && shardIndex < shardCount);
+      Assert.assertEquals(shardIndex, ApplicationActor.getShardIndex(
+          EndpointObjectHash.fromBytes(endpointKey.getData()), shardCount));
+      distribution[shardIndex]++;
+    }
+    for (int count : distribution) {
+      Assert.assertTrue(count > 0);
+    }
+  }
+
+  @Test
+  public void testStatusRequestIsAggregatedAcrossShards() {
+    ActorSystem system = ActorSystem.create("testStatusRequest",
+        ConfigFactory.parseResources("akka.conf").withFallback(ConfigFactory.load()));
+    try {
+      AkkaContext context = mock(AkkaContext.class);
+      when(context.getEndpointShardCount(APP_TOKEN)).thenReturn(3);
+      // Long enough for the reply to only come from the responses of all shards
+      when(context.getStatusRequestTimeout()).thenReturn(TimeUnit.MINUTES.toMillis(1));
+      when(context.getClusterService()).thenReturn(mock(ClusterService.class));
+      ApplicationDto application = new ApplicationDto();
+      application.setId("1");
+      ApplicationService applicationService = mock(ApplicationService.class);
+      when(applicationService.findAppByApplicationToken(APP_TOKEN)).thenReturn(application);
+      when(context.getApplicationService()).thenReturn(applicationService);
+      when(context.getLogAppenderService()).thenReturn(mock(LogAppenderService.class));
+      when(context.getEndpointUserService()).thenReturn(mock(EndpointUserService.class));
+
+      JavaTestKit probe = new JavaTestKit(system);
+      ActorRef tenant = system.actorOf(Props.create(TenantStub.class, context, probe.getRef()));
+      UUID requestId = UUID.randomUUID();
+      tenant.tell(new StatusRequestMessage(requestId), ActorRef.noSender());
+
+      ApplicationActorStatusResponse response = probe.expectMsgClass(
+          FiniteDuration.create(10, TimeUnit.SECONDS), ApplicationActorStatusResponse.class);
+      Assert.assertEquals(requestId, response.getRequestId());
+      Assert.assertEquals(0, response.getEndpointCount());
+      probe.expectNoMsg(FiniteDuration.create(100, TimeUnit.MILLISECONDS));
+    } finally {
+      JavaTestKit.shutdownActorSystem(system);
+    }
+  }
+
+  /**
+   * Parent of the application actor under test, forwards its status responses to the probe.
+   */
+  public static class TenantStub extends UntypedActor {
+
+    private final ActorRef probe;
+    private final ActorRef application;
+
+    public TenantStub(AkkaContext context, ActorRef probe) {
+      this.probe = probe;
+      this.application = getContext().actorOf(Props.create(
+          new ApplicationActor.ActorCreator(context, "tenant_id", APP_TOKEN)));
+    }
+
+    @Override
+    public void onReceive(Object message) throws Exception {
+      if (message instanceof ApplicationActorStatusResponse) {
+        probe.tell(message, self());
+      } else {
+        application.tell(message, self());
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.event;
+
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.sync.Event;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Measures the fan-out of events through the route and delivery tables of a user actor:
+ * route lookup over the recipient keys followed by the delivery bookkeeping of every
+ * recipient. It is not run as part of the build; start it from the test classpath with
+ * optional arguments: endpoints, keys and events.
+ */
+public class EventFanOutBenchmark {
+
+  private static final String APP_TOKEN = "APP_TOKEN";
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args endpoints, route keys, events
+   */
+  public static void main(String[] args) {
+    int endpoints = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int keys = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int events = args.length > 2 ? Integer.parseInt(args[2]) : 200000;
+
+    RouteTable routeTable = new RouteTable();
+    Set<RouteTableKey> recipientKeys = new HashSet<>();
+    for (int k = 0; k < keys; k++) {
+      RouteTableKey key = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion("ECF" + k, 1));
+      recipientKeys.add(key);
+      for (int i = 0; i < endpoints; i++) {
+        EndpointObjectHash endpoint = EndpointObjectHash.fromSha1("endpoint" + i);
+        routeTable.add(key, i % 2 == 0
+            ? new RouteTableAddress(endpoint, APP_TOKEN)
+            : new RouteTableAddress(endpoint, APP_TOKEN, "server" + i % 4));
+      }
+    }
+    EndpointObjectHash sender = EndpointObjectHash.fromSha1("sender");
+
+    System.out.printf("endpoints: %d, keys: %d, events: %d%n", endpoints, keys, events);
+    run(routeTable, recipientKeys, sender, events / 10);
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    long deliveries = run(routeTable, recipientKeys, sender, events);
+    long elapsed = System.nanoTime() - start;
+    long allocated = allocatedBytes() - allocatedBefore;
+    System.out.printf("%.0f events/s, %.0f deliveries/s, %d bytes allocated per event%n",
+        events * 1e9 / elapsed, deliveries * 1e9 / elapsed, allocated / events);
+  }
+
+  private static long run(RouteTable routeTable, Set<RouteTableKey> recipientKeys,
+                          EndpointObjectHash sender, int events) {
+    EventDeliveryTable deliveryTable = new EventDeliveryTable();
+    long deliveries = 0;
+    for (int i = 0; i < events; i++) {
+      EndpointEvent event = new EndpointEvent(sender,
+          new Event(i, "fqn", ByteBuffer.wrap(new byte[0]), null, null));
+      for (RouteTableAddress recipient : routeTable.getRoutes(recipientKeys, null)) {
+        if (!deliveryTable.isDeliveryStarted(event, recipient)) {
+          deliveryTable.registerDeliveryAttempt(event, recipient);
+          deliveryTable.registerDeliverySuccess(event, recipient);
+          deliveries++;
+        }
+      }
+      deliveryTable.clear(event);
+    }
+    return deliveries;
+  }
+
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
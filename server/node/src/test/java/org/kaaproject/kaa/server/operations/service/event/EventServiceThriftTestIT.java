@@ -449,7 +449,7 @@ public class EventServiceThriftTestIT {
       ByteBuffer keyData = ByteBuffer.wrap(new byte[]{45, 45, 45, 45, 45});
       ConnectionInfo connectionInfo = new ConnectionInfo(thriftHost, thriftPort, keyData);
       nodeInfo.setConnectionInfo(connectionInfo);
-      nodeInfo.setLoadInfo(new LoadInfo(1, 1.0));
+      nodeInfo.setLoadInfo(new LoadInfo(1, 1.0, null, null, null, null, null));
       nodeInfo.setTransports(new ArrayList<TransportMetaData>());
       String zkHostPortList = "localhost:" + ZK_PORT;
       CuratorFramework zkClient = CuratorFrameworkFactory.newClient(zkHostPortList, new RetryUntilElapsed(3000, 1000));
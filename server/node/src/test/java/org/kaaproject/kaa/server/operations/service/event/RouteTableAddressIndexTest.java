@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class RouteTableAddressIndexTest {
+
+  private static final String APP_TOKEN = "APP_TOKEN";
+
+  @Test
+  public void testInternAndRelease() {
+    RouteTableAddressIndex index = new RouteTableAddressIndex();
+    RouteTableAddress first = address(1);
+    RouteTableAddress second = address(2);
+
+    int firstIndex = index.intern(first);
+    int secondIndex = index.intern(second);
+    Assert.assertNotEquals(firstIndex, secondIndex);
+    Assert.assertEquals(firstIndex, index.intern(address(1)));
+    Assert.assertEquals(secondIndex, index.indexOf(address(2)));
+    Assert.assertEquals(first, index.get(firstIndex));
+
+    index.release(firstIndex);
+    Assert.assertEquals(-1, index.indexOf(first));
+    Assert.assertNull(index.get(firstIndex));
+    Assert.assertEquals(secondIndex, index.indexOf(second));
+    Assert.assertEquals(firstIndex, index.intern(address(3)));
+    Assert.assertEquals(2, index.size());
+
+    index.clear();
+    Assert.assertEquals(-1, index.indexOf(second));
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(0, index.limit());
+  }
+
+  @Test
+  public void testRandomOperations() {
+    RouteTableAddressIndex index = new RouteTableAddressIndex();
+    Map<RouteTableAddress, Integer> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      RouteTableAddress address = address(random.nextInt(500));
+      if (random.nextInt(3) == 0) {
+        Integer assigned = expected.remove(address);
+        if (assigned != null) {
+          index.release(assigned);
+        }
+      } else {
+        int assigned = index.intern(address);
+        Integer previous = expected.put(address, assigned);
+        Assert.assertTrue(previous == null || previous == assigned);
+      }
+      Assert.assertEquals(expected.size(), index.size());
+    }
+    for (int i = 0; i < 500; i++) {
+      RouteTableAddress address = address(i);
+      Integer assigned = expected.get(address);
+      Assert.assertEquals(assigned != null ? assigned : -1, index.indexOf(address));
+    }
+  }
+
+  private static RouteTableAddress address(int id) {
+    return new RouteTableAddress(EndpointObjectHash.fromSha1("endpoint" + id), APP_TOKEN,
+        id % 2 == 0 ? null : "server" + id % 5);
+  }
+}
@@ -20,8 +20,13 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.common.Base64Util;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 
 public class RouteTableTest {
 
@@ -143,4 +148,73 @@ public class RouteTableTest {
     Assert.assertFalse(testTable.isDeliveryRequired(SERVER1, localAddress));
   }
 
+  @Test
+  public void testGetRoutesByTarget() {
+    RouteTableKey key = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
+    EndpointObjectHash endpoint2 = EndpointObjectHash.fromSha1("endpoint2");
+    RouteTableAddress localAddress = new RouteTableAddress(endpoint, APP_TOKEN);
+    RouteTableAddress remoteAddress = new RouteTableAddress(endpoint2, APP_TOKEN, SERVER1);
+    testTable.add(key, localAddress);
+    testTable.add(key, remoteAddress);
+
+    String target = Base64Util.encode(endpoint2.getData());
+    Assert.assertEquals(Collections.singletonList(remoteAddress), testTable.getRoutes(key, target));
+    Assert.assertEquals(Collections.singleton(remoteAddress),
+        testTable.getRoutes(Collections.singleton(key), target));
+    Assert.assertEquals(2, testTable.getRoutes(key, null).size());
+    Assert.assertTrue(testTable.getRoutes(key, Base64Util.encode(EndpointObjectHash.fromSha1("unknown")
+        .getData())).isEmpty());
+  }
+
+  @Test
+  public void testReplaceEndpointAddress() {
+    RouteTableKey key = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
+    RouteTableKey otherKey = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 2));
+    RouteTableAddress remoteAddress = new RouteTableAddress(endpoint, APP_TOKEN, SERVER1);
+    RouteTableAddress localAddress = new RouteTableAddress(endpoint, APP_TOKEN);
+    testTable.add(key, remoteAddress);
+    testTable.add(otherKey, remoteAddress);
+    testTable.add(key, localAddress);
+
+    Assert.assertEquals(Collections.singleton(localAddress),
+        new HashSet<>(testTable.getRoutes(key, null)));
+    Assert.assertEquals(Collections.singleton(remoteAddress),
+        new HashSet<>(testTable.getRoutes(otherKey, null)));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(localAddress, remoteAddress)),
+        testTable.getRoutes(new HashSet<>(Arrays.asList(key, otherKey)), null));
+  }
+
+  @Test
+  public void testRemoveFromResult() {
+    RouteTableKey key = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
+    RouteTableAddress localAddress = new RouteTableAddress(endpoint, APP_TOKEN);
+    RouteTableAddress remoteAddress = new RouteTableAddress(EndpointObjectHash.fromSha1("endpoint2"),
+        APP_TOKEN, SERVER1);
+    testTable.add(key, localAddress);
+    testTable.add(key, remoteAddress);
+
+    Set<RouteTableAddress> routes = testTable.getRoutes(Collections.singleton(key), null);
+    Iterator<RouteTableAddress> iterator = routes.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isLocal()) {
+        iterator.remove();
+      }
+    }
+    Assert.assertEquals(Collections.singleton(remoteAddress), routes);
+    Assert.assertEquals(2, testTable.getRoutes(key, null).size());
+  }
+
+  @Test
+  public void testReuseReleasedAddresses() {
+    RouteTableKey key = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
+    for (int i = 0; i < 100; i++) {
+      RouteTableAddress address = new RouteTableAddress(EndpointObjectHash.fromSha1("endpoint" + i),
+          APP_TOKEN, SERVER1);
+      testTable.add(key, address);
+      Assert.assertEquals(Collections.singleton(address), new HashSet<>(testTable.getRoutes(key, null)));
+      testTable.removeByAddress(address);
+    }
+    Assert.assertTrue(testTable.getRoutes(key, null).isEmpty());
+  }
+
 }
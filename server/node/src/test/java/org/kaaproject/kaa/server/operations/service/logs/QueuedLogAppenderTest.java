@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.logs;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class QueuedLogAppenderTest {
+
+  private static final long TIMEOUT = 1000;
+
+  private LogAppender delegate;
+  private CountDownLatch appendLatch;
+  private QueuedLogAppender appender;
+
+  @Before
+  public void before() {
+    delegate = mock(LogAppender.class);
+    when(delegate.getAppenderId()).thenReturn("appender_id");
+    appendLatch = new CountDownLatch(1);
+    Mockito.doAnswer(invocation -> {
+      appendLatch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+      return null;
+    }).when(delegate).doAppend(Mockito.any(LogEventPack.class),
+        Mockito.any(LogDeliveryCallback.class));
+  }
+
+  @After
+  public void after() {
+    appendLatch.countDown();
+    if (appender != null) {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void appendIsPerformedAsynchronouslyTest() {
+    appender = new QueuedLogAppender(delegate, 1, LogAppenderQueueOverflowPolicy.BLOCK);
+    LogEventPack pack = mock(LogEventPack.class);
+    LogDeliveryCallback callback = mock(LogDeliveryCallback.class);
+
+    appender.doAppend(pack, callback);
+    appendLatch.countDown();
+
+    verify(delegate, timeout(TIMEOUT)).doAppend(pack, callback);
+  }
+
+  @Test
+  public void failFastPolicyTest() {
+    appender = new QueuedLogAppender(delegate, 1, LogAppenderQueueOverflowPolicy.FAIL_FAST);
+    LogDeliveryCallback callback = mock(LogDeliveryCallback.class);
+
+    // The first pack is being appended, the second one is queued
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    verify(delegate, timeout(TIMEOUT)).doAppend(Mockito.any(LogEventPack.class),
+        Mockito.any(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), callback);
+
+    verify(callback).onInternalError();
+  }
+
+  @Test
+  public void dropOptionalPolicyTest() {
+    when(delegate.isDeliveryConfirmationRequired()).thenReturn(Boolean.FALSE);
+    appender = new QueuedLogAppender(delegate, 1, LogAppenderQueueOverflowPolicy.DROP_OPTIONAL);
+    LogDeliveryCallback callback = mock(LogDeliveryCallback.class);
+
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    verify(delegate, timeout(TIMEOUT)).doAppend(Mockito.any(LogEventPack.class),
+        Mockito.any(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), callback);
+
+    Assert.assertEquals(1, appender.getDroppedCount());
+    verify(callback, never()).onInternalError();
+  }
+
+  @Test
+  public void dropOptionalPolicyRejectsConfirmedTest() {
+    when(delegate.isDeliveryConfirmationRequired()).thenReturn(Boolean.TRUE);
+    appender = new QueuedLogAppender(delegate, 1, null);
+    LogDeliveryCallback callback = mock(LogDeliveryCallback.class);
+
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    verify(delegate, timeout(TIMEOUT)).doAppend(Mockito.any(LogEventPack.class),
+        Mockito.any(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    // Must not block the caller although the queue is full
+    appender.doAppend(mock(LogEventPack.class), callback);
+
+    Assert.assertEquals(0, appender.getDroppedCount());
+    verify(callback).onInternalError();
+  }
+
+  @Test
+  public void closeTest() {
+    appender = new QueuedLogAppender(delegate, 1, LogAppenderQueueOverflowPolicy.BLOCK);
+    appendLatch.countDown();
+    appender.close();
+    verify(delegate, timeout(TIMEOUT)).close();
+    appender = null;
+  }
+
+  @Test
+  public void closeFailsPendingPacksTest() {
+    appender = new QueuedLogAppender(delegate, 1, LogAppenderQueueOverflowPolicy.BLOCK, 100);
+    LogDeliveryCallback callback = mock(LogDeliveryCallback.class);
+
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    verify(delegate, timeout(TIMEOUT)).doAppend(Mockito.any(LogEventPack.class),
+        Mockito.any(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), callback);
+    // Must return while the first pack is still being appended
+    appender.close();
+
+    verify(callback, timeout(TIMEOUT)).onInternalError();
+    verify(delegate, timeout(TIMEOUT)).close();
+    appender = null;
+  }
+
+  @Test
+  public void blockPolicyFailsPackQueuedOnCloseTest() throws Exception {
+    appender = new QueuedLogAppender(delegate, 1, LogAppenderQueueOverflowPolicy.BLOCK, 100);
+    LogDeliveryCallback callback = mock(LogDeliveryCallback.class);
+
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    verify(delegate, timeout(TIMEOUT)).doAppend(Mockito.any(LogEventPack.class),
+        Mockito.any(LogDeliveryCallback.class));
+    appender.doAppend(mock(LogEventPack.class), mock(LogDeliveryCallback.class));
+    // The queue is full, so this pack waits for a free slot
+    Thread blocked = new Thread(() -> appender.doAppend(mock(LogEventPack.class), callback));
+    blocked.start();
+    appender.close();
+
+    blocked.join(TIMEOUT);
+    Assert.assertFalse(blocked.isAlive());
+    verify(callback, timeout(TIMEOUT)).onInternalError();
+    appender = null;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.transport.channel.ChannelType;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+public class SyncStageTimersTest {
+
+  private static final String APP_TOKEN = "app1";
+
+  private DefaultMerticsService metricsService;
+  private SyncStageTimers timers;
+
+  @Before
+  public void before() {
+    metricsService = new DefaultMerticsService();
+    timers = new SyncStageTimers(metricsService);
+  }
+
+  @Test
+  public void recordTaggedByApplicationAndChannelTest() {
+    metricsService.setEnabled(true);
+    long start = System.nanoTime();
+    timers.record(SyncStage.DECODE, APP_TOKEN, ChannelType.ASYNC, start);
+    timers.record(SyncStage.DECODE, APP_TOKEN, ChannelType.ASYNC, start);
+    timers.record(SyncStage.PROFILE, APP_TOKEN, start);
+    timers.record(SyncStage.PROFILE, null, start);
+
+    String report = print(null);
+    Assert.assertTrue(report.contains("sync.decode.app1.async"));
+    Assert.assertTrue(report.contains("sync.profile.app1.any"));
+    Assert.assertTrue(report.contains("sync.profile.unknown.any"));
+
+    String filtered = print("decode");
+    Assert.assertTrue(filtered.contains("sync.decode.app1.async"));
+    Assert.assertFalse(filtered.contains("sync.profile"));
+  }
+
+  @Test
+  public void disabledMetricsAreNotRecordedTest() {
+    metricsService.setEnabled(false);
+    timers.record(SyncStage.ENCODE, APP_TOKEN, ChannelType.SYNC, System.nanoTime());
+    Assert.assertFalse(print(null).contains("sync.encode"));
+  }
+
+  private String print(String filter) {
+    StringWriter out = new StringWriter();
+    PrintWriter writer = new PrintWriter(out);
+    metricsService.printTimers(writer, filter);
+    writer.flush();
+    return out.toString();
+  }
+}
@@ -43,6 +43,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 
 /**
  * Implementation of Kaa http transport.
@@ -53,6 +54,12 @@ public class HttpTransport extends AbstractKaaTransport<AvroHttpConfig> {
 
   private static final Logger LOG = LoggerFactory.getLogger(HttpTransport.class);
   private static final int SUPPORTED_VERSION = 1;
+  private static final String LARGE_BODY_THRESHOLD_PROP_NAME =
+      "transport_http_large_body_threshold";
+  private static final String MAX_LARGE_BODY_REQUESTS_PROP_NAME =
+      "transport_http_max_large_body_requests";
+  private static final String DEFAULT_LARGE_BODY_THRESHOLD = "65536";
+  private static final String DEFAULT_MAX_LARGE_BODY_REQUESTS = "64";
 
   private AbstractNettyServer netty;
 
@@ -81,6 +88,10 @@ public class HttpTransport extends AbstractKaaTransport<AvroHttpConfig> {
     processors.add(new LongSyncCommandFactory());
     final CommandFactory<HttpRequest, HttpResponse> factory = new CommandFactory<>(processors);
     final int maxBodySize = configuration.getMaxBodySize();
+    final int largeBodyThreshold = Integer.parseInt(context.getCommonProperties()
+        .getProperty(LARGE_BODY_THRESHOLD_PROP_NAME, DEFAULT_LARGE_BODY_THRESHOLD));
+    final Semaphore largeBodyPermits = new Semaphore(Integer.parseInt(context.getCommonProperties()
+        .getProperty(MAX_LARGE_BODY_REQUESTS_PROP_NAME, DEFAULT_MAX_LARGE_BODY_REQUESTS)));
 
     this.netty = new AbstractNettyServer(configuration.getBindInterface(),
         configuration.getBindPort()) {
@@ -100,7 +111,8 @@ public class HttpTransport extends AbstractKaaTransport<AvroHttpConfig> {
 
           @Override
           protected ChannelHandler getRequestDecoder() {
-            return new RequestDecoder(factory);
+            return new RequestDecoder(factory, getClientMaxBodySize(), largeBodyThreshold,
+                largeBodyPermits);
           }
         };
       }
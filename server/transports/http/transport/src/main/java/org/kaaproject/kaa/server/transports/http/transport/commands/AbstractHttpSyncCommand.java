@@ -27,12 +27,15 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.multipart.Attribute;
 import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
 import io.netty.handler.codec.http.multipart.HttpDataFactory;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder.EndOfDataDecoderException;
 import io.netty.handler.codec.http.multipart.InterfaceHttpData;
 import io.netty.handler.codec.http.multipart.InterfaceHttpData.HttpDataType;
 
@@ -47,8 +50,6 @@ import org.kaaproject.kaa.server.transports.http.transport.netty.AbstractCommand
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
-import java.util.Arrays;
-import java.util.List;
 
 
 public abstract class AbstractHttpSyncCommand extends AbstractCommand {
@@ -70,6 +71,10 @@ public abstract class AbstractHttpSyncCommand extends AbstractCommand {
 
   private int nextProtocol = Constants.KAA_PLATFORM_PROTOCOL_AVRO_ID;
 
+  private HttpPostRequestDecoder decoder;
+
+  private int multipartSize;
+
   /**
    * Instantiates a new abstract operations command.
    */
@@ -98,51 +103,102 @@ public abstract class AbstractHttpSyncCommand extends AbstractCommand {
   public void parse() throws Exception {
     LOG.trace("CommandName: " + COMMAND_NAME + ": Parse..");
     HttpDataFactory factory = new DefaultHttpDataFactory(DefaultHttpDataFactory.MINSIZE);
-    HttpPostRequestDecoder decoder = new HttpPostRequestDecoder(factory, getRequest());
+    decoder = new HttpPostRequestDecoder(factory, getRequest());
     if (decoder.isMultipart()) {
       LOG.trace("Chunked: " + HttpHeaders.isTransferEncodingChunked(getRequest()));
       LOG.trace(": Multipart..");
-      List<InterfaceHttpData> datas = decoder.getBodyHttpDatas();
-      if (!datas.isEmpty()) {
-        for (InterfaceHttpData data : datas) {
-          LOG.trace("Multipart1 name " + data.getName() + " type " + data.getHttpDataType().name());
-          if (data.getHttpDataType() == HttpDataType.Attribute) {
-            Attribute attribute = (Attribute) data;
-            if (CommonEpConstans.REQUEST_SIGNATURE_ATTR_NAME.equals(data.getName())) {
-              requestSignature = attribute.get();
-              if (LOG.isTraceEnabled()) {
-                LOG.trace("Multipart name " + data.getName() + " type "
-                    + data.getHttpDataType().name() + " Signature set. size: "
-                    + requestSignature.length);
-                LOG.trace(MessageEncoderDecoder.bytesToHex(requestSignature));
-              }
-
-            } else if (CommonEpConstans.REQUEST_KEY_ATTR_NAME.equals(data.getName())) {
-              requestKey = attribute.get();
-              if (LOG.isTraceEnabled()) {
-                LOG.trace("Multipart name " + data.getName() + " type "
-                    + data.getHttpDataType().name() + " requestKey set. size: "
-                    + requestKey.length);
-                LOG.trace(MessageEncoderDecoder.bytesToHex(requestKey));
-              }
-            } else if (CommonEpConstans.REQUEST_DATA_ATTR_NAME.equals(data.getName())) {
-              requestData = attribute.get();
-              if (LOG.isTraceEnabled()) {
-                LOG.trace("Multipart name " + data.getName() + " type "
-                    + data.getHttpDataType().name() + " requestData set. size: "
-                    + requestData.length);
-                LOG.trace(MessageEncoderDecoder.bytesToHex(requestData));
-              }
-            } else if (CommonEpConstans.NEXT_PROTOCOL_ATTR_NAME.equals(data.getName())) {
-              nextProtocol = ByteBuffer.wrap(attribute.get()).getInt();
-              LOG.trace("[{}] next protocol is {}", getSessionUuid(), nextProtocol);
-            }
-          }
+      if (getRequest() instanceof LastHttpContent) {
+        readAvailableData();
+        finishParse();
+      }
+    } else {
+      releaseDecoder();
+    }
+  }
+
+  @Override
+  public void offer(HttpContent content) throws Exception {
+    if (decoder == null) {
+      return;
+    }
+    decoder.offer(content);
+    readAvailableData();
+    if (content instanceof LastHttpContent) {
+      finishParse();
+    }
+  }
+
+  @Override
+  public void release() {
+    releaseDecoder();
+    super.release();
+  }
+
+  private void readAvailableData() throws IOException {
+    try {
+      while (decoder.hasNext()) {
+        InterfaceHttpData data = decoder.next();
+        try {
+          readData(data);
+        } finally {
+          decoder.removeHttpDataFromClean(data);
+          data.release();
         }
-      } else {
-        LOG.error("Multipart.. size 0");
-        throw new BadRequestException("HTTP Request inccorect, multiprat size is 0");
       }
+    } catch (EndOfDataDecoderException ex) {
+      LOG.trace("[{}] End of multipart data", getSessionUuid());
+    }
+  }
+
+  private void readData(InterfaceHttpData data) throws IOException {
+    multipartSize++;
+    LOG.trace("Multipart1 name " + data.getName() + " type " + data.getHttpDataType().name());
+    if (data.getHttpDataType() == HttpDataType.Attribute) {
+      Attribute attribute = (Attribute) data;
+      if (CommonEpConstans.REQUEST_SIGNATURE_ATTR_NAME.equals(data.getName())) {
+        requestSignature = attribute.get();
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("Multipart name " + data.getName() + " type "
+              + data.getHttpDataType().name() + " Signature set. size: "
+              + requestSignature.length);
+          LOG.trace(MessageEncoderDecoder.bytesToHex(requestSignature));
+        }
+
+      } else if (CommonEpConstans.REQUEST_KEY_ATTR_NAME.equals(data.getName())) {
+        requestKey = attribute.get();
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("Multipart name " + data.getName() + " type "
+              + data.getHttpDataType().name() + " requestKey set. size: "
+              + requestKey.length);
+          LOG.trace(MessageEncoderDecoder.bytesToHex(requestKey));
+        }
+      } else if (CommonEpConstans.REQUEST_DATA_ATTR_NAME.equals(data.getName())) {
+        requestData = attribute.get();
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("Multipart name " + data.getName() + " type "
+              + data.getHttpDataType().name() + " requestData set. size: "
+              + requestData.length);
+          LOG.trace(MessageEncoderDecoder.bytesToHex(requestData));
+        }
+      } else if (CommonEpConstans.NEXT_PROTOCOL_ATTR_NAME.equals(data.getName())) {
+        nextProtocol = ByteBuffer.wrap(attribute.get()).getInt();
+        LOG.trace("[{}] next protocol is {}", getSessionUuid(), nextProtocol);
+      }
+    }
+  }
+
+  private void finishParse() throws BadRequestException {
+    releaseDecoder();
+    if (multipartSize == 0) {
+      LOG.error("Multipart.. size 0");
+      throw new BadRequestException("HTTP Request inccorect, multiprat size is 0");
+    }
+  }
+
+  private void releaseDecoder() {
+    if (decoder != null) {
+      decoder.destroy();
+      decoder = null;
     }
   }
 
@@ -194,13 +250,12 @@ public abstract class AbstractHttpSyncCommand extends AbstractCommand {
   public HttpResponse getResponse() {
     LOG.trace("CommandName: " + COMMAND_NAME + ": getHttpResponse..");
 
-    ByteBuf data = Unpooled.copiedBuffer(responseBody);
-    LOG.warn("Response data: {}", Arrays.toString(data.array()));
+    ByteBuf data = Unpooled.wrappedBuffer(responseBody);
     FullHttpResponse httpResponse = new DefaultFullHttpResponse(HTTP_1_1, OK, data);
 
     httpResponse.headers().set(CONTENT_TYPE, CommonEpConstans.RESPONSE_CONTENT_TYPE);
     httpResponse.headers().set(CONTENT_LENGTH, data.readableBytes());
-    LOG.warn("Response size: {}", data.readableBytes());
+    LOG.trace("Response size: {}", data.readableBytes());
     httpResponse
         .headers()
         .set(CommonEpConstans.RESPONSE_TYPE, CommonEpConstans.RESPONSE_TYPE_OPERATION);
@@ -16,6 +16,7 @@
 
 package org.kaaproject.kaa.server.transports.http.transport.netty;
 
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 
@@ -25,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * AbstractCommand abstract Class.
@@ -32,9 +34,11 @@ import java.util.concurrent.Callable;
  * AbstractCommand implements callable interface and used from DefaultHandler to
  * decode HTTP request, process command in Executor and encode HTTP response.
  * Following flow is applied:
- * parse() - decode HTTP request in Netty inbound pipeline flow
+ * parse() - decode HTTP request headers in Netty inbound pipeline flow
+ * offer() - decode HTTP request body chunks in Netty inbound pipeline flow
  * process() - process command in executor thread
- * getHttpResponse() - encode HTTP response in Netty outbound pipeline flow.
+ * getHttpResponse() - encode HTTP response in Netty outbound pipeline flow
+ * release() - release resources held by the command once the response is written.
  *
  * @author Andrey Panasenko
  */
@@ -57,6 +61,8 @@ public abstract class AbstractCommand
 
   private int commandId;
 
+  private final AtomicReference<Runnable> releaseHook = new AtomicReference<>();
+
   /**
    * Default CommandProcessor Class constructor.
    */
@@ -116,6 +122,36 @@ public abstract class AbstractCommand
    */
   public abstract void parse() throws Exception; //NOSONAR
 
+  /**
+   * offer() - used to decode next chunk of HTTP request body. Called after parse()
+   * for every received chunk, the last one is a LastHttpContent.
+   *
+   * @param content - HTTP request body chunk
+   * @throws Exception - if HTTP request body parse failed.
+   */
+  public void offer(HttpContent content) throws Exception { //NOSONAR
+    // Nothing to do
+  }
+
+  /**
+   * Sets the action performed once on {@link #release()}.
+   *
+   * @param releaseHook - release action
+   */
+  public void setReleaseHook(Runnable releaseHook) {
+    this.releaseHook.set(releaseHook);
+  }
+
+  /**
+   * release() - free resources held by the command. Safe to call several times.
+   */
+  public void release() {
+    Runnable hook = releaseHook.getAndSet(null);
+    if (hook != null) {
+      hook.run();
+    }
+  }
+
   /**
    * process() - is run in executor thread and process requests.
    *
@@ -21,6 +21,7 @@ import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
 import io.netty.buffer.Unpooled;
@@ -55,6 +56,8 @@ public class DefaultExceptionHandler extends ChannelInboundHandlerAdapter {
     HttpResponseStatus status;
     if (cause instanceof BadRequestException) {
       status = BAD_REQUEST;
+    } else if (cause instanceof ServerBusyException) {
+      status = SERVICE_UNAVAILABLE;
     } else {
       status = INTERNAL_SERVER_ERROR;
     }
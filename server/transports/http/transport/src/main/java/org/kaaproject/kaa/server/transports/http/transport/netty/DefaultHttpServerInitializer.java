@@ -20,7 +20,6 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
 import io.netty.util.Attribute;
@@ -68,7 +67,6 @@ public abstract class DefaultHttpServerInitializer extends ChannelInitializer<So
     uuidAttr.set(uuid);
 
     p.addLast("httpDecoder", new HttpRequestDecoder());
-    p.addLast("httpAggregator", new HttpObjectAggregator(getClientMaxBodySize()));
     p.addLast("httpDecoderAux", getRequestDecoder());
     p.addLast("httpEncoder", new HttpResponseEncoder());
     p.addLast("httpEncoderAux", new ResponseEncoder());
@@ -78,6 +76,12 @@ public abstract class DefaultHttpServerInitializer extends ChannelInitializer<So
 
   protected abstract int getClientMaxBodySize();
 
+  /**
+   * Request body is not aggregated in the pipeline, so the returned handler is
+   * responsible for enforcing {@link #getClientMaxBodySize()} on the streamed chunks.
+   *
+   * @return request decoder handler
+   */
   protected abstract ChannelHandler getRequestDecoder();
 
   protected abstract ChannelHandler getMainHandler(UUID uuid);
@@ -19,10 +19,13 @@ package org.kaaproject.kaa.server.transports.http.transport.netty;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.util.Attribute;
 
 import org.kaaproject.kaa.server.common.server.AbstractNettyServer;
@@ -32,11 +35,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 
 /**
  * RequestDecoder Class. ChannelInboundHandler for HttpObject in Netty pipeline.
  * On channelRead0() check HTTP METHOD POST, and find CommandProcessor for HTTP
- * request URI. Then pass CommandProcessor to next handler in pipeline.
+ * request URI. Request body chunks are passed to the CommandProcessor as they
+ * arrive, and once the last chunk is received the CommandProcessor is passed
+ * to next handler in pipeline.
+ *
+ * <p>Body size is limited by maxBodySize. Requests with body larger than
+ * largeBodyThreshold are admitted only while a permit of the shared
+ * largeBodyPermits semaphore is available, otherwise request is rejected with
+ * {@link ServerBusyException}. The permit is returned when the command is released.
  *
  * @author Andrey Panasenko
  */
@@ -45,9 +56,47 @@ public class RequestDecoder extends SimpleChannelInboundHandler<HttpObject> {
 
   private final CommandFactory<HttpRequest, HttpResponse> commandFactory;
 
+  private final long maxBodySize;
+
+  private final long largeBodyThreshold;
+
+  private final Semaphore largeBodyPermits;
+
+  /**
+   * Command which body is being received.
+   */
+  private AbstractCommand pendingCommand;
+
+  private long pendingBodySize;
+
+  /**
+   * Last command passed to next handler, released on channel close in case
+   * the response was never written.
+   */
+  private AbstractCommand inFlightCommand;
+
+  private boolean pendingLargeBody;
+
   public RequestDecoder(CommandFactory<HttpRequest, HttpResponse> commandFactory) {
+    this(commandFactory, Long.MAX_VALUE, Long.MAX_VALUE, null);
+  }
+
+  /**
+   * Create a new instance of RequestDecoder.
+   *
+   * @param commandFactory     the command factory
+   * @param maxBodySize        the maximum size of request body
+   * @param largeBodyThreshold the body size from which request is treated as large
+   * @param largeBodyPermits   the permits for large requests shared between channels,
+   *                           null for no limit
+   */
+  public RequestDecoder(CommandFactory<HttpRequest, HttpResponse> commandFactory,
+                        long maxBodySize, long largeBodyThreshold, Semaphore largeBodyPermits) {
     super();
     this.commandFactory = commandFactory;
+    this.maxBodySize = maxBodySize;
+    this.largeBodyThreshold = largeBodyThreshold;
+    this.largeBodyPermits = largeBodyPermits;
   }
 
   @Override
@@ -55,31 +104,94 @@ public class RequestDecoder extends SimpleChannelInboundHandler<HttpObject> {
 
     DecoderResult result = httpObject.getDecoderResult();
     if (!result.isSuccess()) {
+      releasePendingCommand();
       throw new BadRequestException(result.cause());
     }
 
     Attribute<UUID> sessionUuidAttr = ctx.channel().attr(AbstractNettyServer.UUID_KEY);
 
-    if (httpObject instanceof HttpRequest) {
-      HttpRequest httpRequest = (HttpRequest) httpObject;
-      LOG.trace("Session: {} got valid HTTP request:\n{}",
-              sessionUuidAttr.get().toString(), httpRequest.headers().toString());
-      if (httpRequest.getMethod().equals(HttpMethod.POST)) {
-        String uri = httpRequest.getUri();
-        AbstractCommand cp = (AbstractCommand) commandFactory.getCommandProcessor(uri);
-        cp.setSessionUuid(sessionUuidAttr.get());
-        cp.setRequest(httpRequest);
-        cp.parse();
-        ctx.fireChannelRead(cp);
+    try {
+      if (httpObject instanceof HttpRequest) {
+        HttpRequest httpRequest = (HttpRequest) httpObject;
+        LOG.trace("Session: {} got valid HTTP request:\n{}",
+                sessionUuidAttr.get().toString(), httpRequest.headers().toString());
+        if (httpRequest.getMethod().equals(HttpMethod.POST)) {
+          processRequest(sessionUuidAttr.get(), httpRequest);
+        } else {
+          LOG.error("Got invalid HTTP method: expecting only POST");
+          throw new BadRequestException(
+                  "Incorrect method " + httpRequest.getMethod().toString() + ", expected POST"
+          );
+        }
+        if (httpRequest instanceof LastHttpContent) {
+          completeRequest(ctx);
+        }
+      } else if (httpObject instanceof HttpContent && pendingCommand != null) {
+        HttpContent content = (HttpContent) httpObject;
+        pendingBodySize += content.content().readableBytes();
+        checkBodySize(pendingBodySize);
+        pendingCommand.offer(content);
+        if (content instanceof LastHttpContent) {
+          completeRequest(ctx);
+        }
       } else {
-        LOG.error("Got invalid HTTP method: expecting only POST");
-        throw new BadRequestException(
-                "Incorrect method " + httpRequest.getMethod().toString() + ", expected POST"
-        );
+        LOG.warn("Session: {} got invalid HTTP object:\n{}",
+                sessionUuidAttr.get().toString(), httpObject);
+      }
+    } catch (Exception ex) {
+      releasePendingCommand();
+      throw ex;
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    releasePendingCommand();
+    if (inFlightCommand != null) {
+      inFlightCommand.release();
+      inFlightCommand = null;
+    }
+    super.channelInactive(ctx);
+  }
+
+  private void processRequest(UUID sessionUuid, HttpRequest httpRequest) throws Exception {
+    releasePendingCommand();
+    String uri = httpRequest.getUri();
+    AbstractCommand cp = (AbstractCommand) commandFactory.getCommandProcessor(uri);
+    cp.setSessionUuid(sessionUuid);
+    cp.setRequest(httpRequest);
+    pendingCommand = cp;
+    pendingBodySize = 0;
+    pendingLargeBody = false;
+    checkBodySize(HttpHeaders.getContentLength(httpRequest, 0));
+    cp.parse();
+  }
+
+  private void checkBodySize(long bodySize) throws BadRequestException, ServerBusyException {
+    if (bodySize > maxBodySize) {
+      throw new BadRequestException(
+              "HTTP request body size exceeds " + maxBodySize + " bytes");
+    }
+    if (bodySize > largeBodyThreshold && !pendingLargeBody && largeBodyPermits != null) {
+      if (!largeBodyPermits.tryAcquire()) {
+        throw new ServerBusyException("Too many large HTTP requests are in progress");
       }
-    } else {
-      LOG.warn("Session: {} got invalid HTTP object:\n{}",
-              sessionUuidAttr.get().toString(), httpObject);
+      pendingLargeBody = true;
+      pendingCommand.setReleaseHook(largeBodyPermits::release);
+    }
+  }
+
+  private void completeRequest(ChannelHandlerContext ctx) {
+    AbstractCommand cp = pendingCommand;
+    pendingCommand = null;
+    inFlightCommand = cp;
+    ctx.fireChannelRead(cp);
+  }
+
+  private void releasePendingCommand() {
+    if (pendingCommand != null) {
+      pendingCommand.release();
+      pendingCommand = null;
     }
   }
 }
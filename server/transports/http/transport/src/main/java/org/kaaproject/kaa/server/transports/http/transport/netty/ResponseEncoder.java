@@ -58,7 +58,12 @@ public class ResponseEncoder extends ChannelOutboundHandlerAdapter {
 
     AbstractCommand cp = (AbstractCommand) msg;
 
-    HttpResponse httpResponse = cp.getResponse();
+    HttpResponse httpResponse;
+    try {
+      httpResponse = cp.getResponse();
+    } finally {
+      cp.release();
+    }
 
     ChannelFuture future = ctx.writeAndFlush(httpResponse, promise);
     if (!HttpHeaders.isKeepAlive(httpResponse)) {
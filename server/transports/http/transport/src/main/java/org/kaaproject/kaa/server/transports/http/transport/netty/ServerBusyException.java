@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.transports.http.transport.netty;
+
+/**
+ * Class ServerBusyException. Thrown when the server has no capacity left to
+ * accept the request, e.g. too many large request bodies are already in flight.
+ */
+public class ServerBusyException extends Exception {
+
+  private static final long serialVersionUID = -2478214542731386716L;
+
+  /**
+   * ServerBusyException constructor.
+   *
+   * @param message - description cause of error
+   */
+  public ServerBusyException(final String message) {
+    super(message);
+  }
+}
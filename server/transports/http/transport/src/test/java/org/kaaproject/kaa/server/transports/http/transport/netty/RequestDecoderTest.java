@@ -22,40 +22,43 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.util.Attribute;
 
+import org.junit.Assert;
 import org.junit.Before;
-import org.junit.BeforeClass;
 import org.junit.Test;
 import org.kaaproject.kaa.server.common.server.AbstractNettyServer;
 import org.kaaproject.kaa.server.common.server.BadRequestException;
 import org.kaaproject.kaa.server.common.server.CommandFactory;
 
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 
 public class RequestDecoderTest {
-  private static RequestDecoder requestDecoder;
+  private CommandFactory commandFactory;
+  private AbstractCommand abstractCommand;
+  private RequestDecoder requestDecoder;
   private ChannelHandlerContext channelHandlerContext;
 
   @SuppressWarnings("unchecked")
-  @BeforeClass
-  public static void before() throws Exception {
-    CommandFactory commandFactory = mock(CommandFactory.class);
-    AbstractCommand abstractCommand = mock(AbstractCommand.class);
+  @Before
+  public void setUp() throws Exception {
+    commandFactory = mock(CommandFactory.class);
+    abstractCommand = mock(AbstractCommand.class);
     when(commandFactory.getCommandProcessor(any(String.class))).thenReturn(abstractCommand);
     requestDecoder = new RequestDecoder(commandFactory);
-  }
-
-  @SuppressWarnings("unchecked")
-  @Before
-  public void setUp() {
     channelHandlerContext = mock(ChannelHandlerContext.class);
     Channel channel = mock(Channel.class);
     Attribute attribute = mock(Attribute.class);
@@ -75,7 +78,66 @@ public class RequestDecoderTest {
   public void httpPostRequestTest() throws Exception {
     HttpObject request = createHttpRequestMock(HttpMethod.POST, true, HttpRequest.class);
     requestDecoder.channelRead0(channelHandlerContext, request);
-    verify(channelHandlerContext).fireChannelRead(any(Object.class));
+    verify(channelHandlerContext, never()).fireChannelRead(any(Object.class));
+    requestDecoder.channelRead0(channelHandlerContext, LastHttpContent.EMPTY_LAST_CONTENT);
+    verify(channelHandlerContext).fireChannelRead(abstractCommand);
+  }
+
+  @Test
+  public void chunkedBodyTest() throws Exception {
+    HttpObject request = createHttpRequestMock(HttpMethod.POST, true, HttpRequest.class);
+    HttpContent content = new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10]));
+    LastHttpContent lastContent = new DefaultLastHttpContent(
+        Unpooled.wrappedBuffer(new byte[10]));
+    requestDecoder.channelRead0(channelHandlerContext, request);
+    requestDecoder.channelRead0(channelHandlerContext, content);
+    requestDecoder.channelRead0(channelHandlerContext, lastContent);
+    verify(abstractCommand).parse();
+    verify(abstractCommand).offer(content);
+    verify(abstractCommand).offer(lastContent);
+    verify(channelHandlerContext).fireChannelRead(abstractCommand);
+  }
+
+  @Test
+  public void bodySizeLimitTest() throws Exception {
+    requestDecoder = new RequestDecoder(commandFactory, 15, Long.MAX_VALUE, null);
+    HttpObject request = createHttpRequestMock(HttpMethod.POST, true, HttpRequest.class);
+    requestDecoder.channelRead0(channelHandlerContext, request);
+    requestDecoder.channelRead0(channelHandlerContext,
+        new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10])));
+    try {
+      requestDecoder.channelRead0(channelHandlerContext,
+          new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10])));
+      Assert.fail("Body size limit is not enforced");
+    } catch (BadRequestException ex) {
+      verify(abstractCommand).release();
+    }
+    verify(channelHandlerContext, never()).fireChannelRead(any(Object.class));
+  }
+
+  @Test
+  public void largeBodyLimitTest() throws Exception {
+    Semaphore largeBodyPermits = new Semaphore(1);
+    requestDecoder = new RequestDecoder(commandFactory, Long.MAX_VALUE, 5, largeBodyPermits);
+    RequestDecoder otherChannelDecoder = new RequestDecoder(commandFactory, Long.MAX_VALUE, 5,
+        largeBodyPermits);
+
+    requestDecoder.channelRead0(channelHandlerContext,
+        createHttpRequestMock(HttpMethod.POST, true, HttpRequest.class));
+    requestDecoder.channelRead0(channelHandlerContext,
+        new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10])));
+    Assert.assertEquals(0, largeBodyPermits.availablePermits());
+    verify(abstractCommand).setReleaseHook(any(Runnable.class));
+
+    otherChannelDecoder.channelRead0(channelHandlerContext,
+        createHttpRequestMock(HttpMethod.POST, true, HttpRequest.class));
+    try {
+      otherChannelDecoder.channelRead0(channelHandlerContext,
+          new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[10])));
+      Assert.fail("Large body limit is not enforced");
+    } catch (ServerBusyException ex) {
+      Assert.assertEquals(0, largeBodyPermits.availablePermits());
+    }
   }
 
   @Test(expected = BadRequestException.class)
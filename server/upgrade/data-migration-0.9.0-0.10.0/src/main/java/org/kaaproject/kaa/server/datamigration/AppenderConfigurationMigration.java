@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.commons.dbutils.QueryRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites stored log appender configurations that were serialized before new fields were
+ * appended to the appender configuration schema.
+ *
+ * <p>Configurations are stored as binary Avro without the schema they were written with, so
+ * appenders and the admin service can only decode configurations written with the current
+ * schema. A legacy configuration is decoded with the schema it was written with, the appended
+ * fields take their {@code by_default} values and the result is encoded with the current schema.
+ * Configurations that already match the current schema are left as is, so the migration can be
+ * run more than once.
+ */
+public class AppenderConfigurationMigration {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AppenderConfigurationMigration.class);
+
+  private static final String SCHEMA_RESOURCE_PATH = "/appenders/";
+  private static final String DEFAULT_VALUE_PROPERTY = "by_default";
+
+  private final Connection connection;
+  private final QueryRunner runner = new QueryRunner();
+  private final Map<String, ConfigurationSchemas> schemas = new LinkedHashMap<>();
+
+  /**
+   * Create new instance of object that responsible for migration log appender configurations.
+   *
+   * @param connection the connection to relational database
+   * @throws IOException if an appender configuration schema can't be loaded
+   */
+  public AppenderConfigurationMigration(Connection connection) throws IOException {
+    this.connection = connection;
+    register("org.kaaproject.kaa.server.appenders.file.appender.FileSystemLogAppender",
+        "file-appender-config.avsc",
+        "fileFormat", "groupCommitMaxRecords", "retentionMaxTotalSize", "syncOnCommit");
+    register("org.kaaproject.kaa.server.appenders.flume.appender.FlumeLogAppender",
+        "flume-appender-config.avsc",
+        "maxBatchSize", "maxBatchDelay");
+    register("org.kaaproject.kaa.server.appenders.kafka.appender.KafkaLogAppender",
+        "kafka-appender-config.avsc",
+        "valueFormat", "lingerMs", "batchSize");
+    register("org.kaaproject.kaa.server.appenders.couchbase.appender.CouchbaseLogAppender",
+        "couchbase-appender-config.avsc",
+        "maxInFlightDocuments", "persistTo");
+    register("org.kaaproject.kaa.server.appenders.oraclenosql.appender.OracleNoSqlLogAppender",
+        "oracle-nosql-appender-config.avsc",
+        "maxInFlightBatches");
+  }
+
+  /**
+   * Rewrite the legacy configurations of all known appenders.
+   *
+   * @throws SQLException the sql exception
+   */
+  public void transform() throws SQLException {
+    for (Map.Entry<String, ConfigurationSchemas> entry : schemas.entrySet()) {
+      Map<Long, byte[]> configurations = runner.query(connection,
+          "select id, raw_configuration from plugin where plugin_class_name = ?",
+          rs -> {
+            Map<Long, byte[]> result = new LinkedHashMap<>();
+            while (rs.next()) {
+              result.put(rs.getLong("id"), rs.getBytes("raw_configuration"));
+            }
+            return result;
+          }, entry.getKey());
+
+      int migrated = 0;
+      for (Map.Entry<Long, byte[]> configuration : configurations.entrySet()) {
+        byte[] rawConfiguration;
+        try {
+          rawConfiguration = entry.getValue().migrate(configuration.getValue());
+        } catch (IOException | RuntimeException ex) {
+          LOG.warn("Unable to migrate configuration of plugin {}", configuration.getKey(), ex);
+          continue;
+        }
+        if (rawConfiguration != null) {
+          runner.update(connection, "update plugin set raw_configuration = ? where id = ?",
+              rawConfiguration, configuration.getKey());
+          migrated++;
+        }
+      }
+      LOG.info("Migrated {} of {} configurations of {}",
+          migrated, configurations.size(), entry.getKey());
+    }
+  }
+
+  private void register(String pluginClassName, String schemaResource, String... appendedFields)
+      throws IOException {
+    Schema schema;
+    try (InputStream in = AppenderConfigurationMigration.class.getResourceAsStream(
+        SCHEMA_RESOURCE_PATH + schemaResource)) {
+      if (in == null) {
+        throw new IOException("Schema resource " + schemaResource + " is not found");
+      }
+      schema = new Schema.Parser().parse(in);
+    }
+    schemas.put(pluginClassName, new ConfigurationSchemas(schema, appendedFields));
+  }
+
+  static final class ConfigurationSchemas {
+
+    private final Schema current;
+    private final Schema legacy;
+
+    ConfigurationSchemas(Schema schema, String... appendedFields) {
+      Set<String> appended = new HashSet<>(Arrays.asList(appendedFields));
+      List<Field> currentFields = new ArrayList<>();
+      List<Field> legacyFields = new ArrayList<>();
+      for (Field field : schema.getFields()) {
+        if (appended.contains(field.name())) {
+          currentFields.add(new Field(field.name(), field.schema(), field.doc(),
+              field.getJsonProp(DEFAULT_VALUE_PROPERTY)));
+        } else {
+          currentFields.add(new Field(field.name(), field.schema(), field.doc(), null));
+          legacyFields.add(new Field(field.name(), field.schema(), field.doc(), null));
+        }
+      }
+      current = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(),
+          false);
+      current.setFields(currentFields);
+      legacy = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(),
+          false);
+      legacy.setFields(legacyFields);
+    }
+
+    /**
+     * Convert a configuration written with the legacy schema to the current one.
+     *
+     * @param rawConfiguration the stored configuration
+     * @return the configuration encoded with the current schema, or null if the stored one
+     *         already matches it
+     * @throws IOException if the configuration matches neither schema
+     */
+    byte[] migrate(byte[] rawConfiguration) throws IOException {
+      if (matchesCurrent(rawConfiguration)) {
+        return null;
+      }
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(rawConfiguration, null);
+      GenericRecord record = new GenericDatumReader<GenericRecord>(legacy, current)
+          .read(null, decoder);
+      if (!decoder.isEnd()) {
+        throw new IOException("Configuration doesn't match the legacy schema");
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+      new GenericDatumWriter<GenericRecord>(current).write(record, encoder);
+      encoder.flush();
+      return out.toByteArray();
+    }
+
+    private boolean matchesCurrent(byte[] rawConfiguration) {
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(rawConfiguration, null);
+      try {
+        new GenericDatumReader<GenericRecord>(current).read(null, decoder);
+        return decoder.isEnd();
+      } catch (IOException | RuntimeException ex) {
+        return false;
+      }
+    }
+  }
+}
@@ -24,25 +24,42 @@ import com.datastax.driver.core.Session;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 
 import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.kaaproject.kaa.server.datamigration.chunk.CheckpointStore;
+import org.kaaproject.kaa.server.datamigration.chunk.ChunkedMigration;
+import org.kaaproject.kaa.server.datamigration.chunk.MongoChunkSource;
 import org.kaaproject.kaa.server.datamigration.utils.Options;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class EndpointProfileMigration {
   private String host;
   private String dbName;
   private String nosql;
+  private CheckpointStore checkpointStore;
+  private int chunkSize;
+  private int workers;
 
 
   /**
    * Create new instance of object that responsible for migration endpoint profiles.
    *
-   * @param options the options
+   * @param checkpointStore the store of the migration progress
+   * @param options         the options
    */
-  public EndpointProfileMigration(Options options) {
+  public EndpointProfileMigration(CheckpointStore checkpointStore, Options options) {
     dbName = options.getDbName();
     this.host = options.getHost();
     this.nosql = options.getNoSql();
+    this.checkpointStore = checkpointStore;
+    this.chunkSize = options.getChunkSize();
+    this.workers = options.getWorkers();
   }
 
   /**
@@ -54,7 +71,17 @@ public class EndpointProfileMigration {
     MongoClient client = new MongoClient(host);
     MongoDatabase database = client.getDatabase(dbName);
     MongoCollection<Document> endpointProfile = database.getCollection("endpoint_profile");
-    endpointProfile.updateMany(new Document(), eq("$set", eq("use_raw_schema", false)));
+    new ChunkedMigration<>("endpoint_profile.use_raw_schema",
+        new MongoChunkSource<>(endpointProfile, ObjectId.class, new Document("_id", 1)),
+        documents -> {
+          List<WriteModel<Document>> updates = new ArrayList<>(documents.size());
+          for (Document document : documents) {
+            updates.add(new UpdateOneModel<>(eq("_id", document.get("_id")),
+                eq("$set", eq("use_raw_schema", false))));
+          }
+          endpointProfile.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }, checkpointStore, chunkSize, workers).run();
+    client.close();
 
     //cassandra
     Cluster cluster = Cluster.builder().addContactPoint(host).build();
@@ -19,6 +19,8 @@ package org.kaaproject.kaa.server.datamigration;
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.dbutils.QueryRunner;
 import org.kaaproject.kaa.server.common.core.algorithms.generation.ConfigurationGenerationException;
+import org.kaaproject.kaa.server.datamigration.chunk.CheckpointStore;
+import org.kaaproject.kaa.server.datamigration.chunk.JdbcCheckpointStore;
 import org.kaaproject.kaa.server.datamigration.model.Ctl;
 import org.kaaproject.kaa.server.datamigration.model.Schema;
 import org.kaaproject.kaa.server.datamigration.utils.BaseSchemaIdCounter;
@@ -33,6 +35,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import javax.sql.DataSource;
 
 public class MigrateData {
 
@@ -76,6 +79,12 @@ public class MigrateData {
           case "url":
             options.setJdbcUrl(args[i + 1]);
             break;
+          case "workers":
+            options.setWorkers(Integer.parseInt(args[i + 1]));
+            break;
+          case "chunk":
+            options.setChunkSize(Integer.parseInt(args[i + 1]));
+            break;
           default:
             throw new IllegalArgumentException("No such option: -" + option);
         }
@@ -86,17 +95,23 @@ public class MigrateData {
 
     try {
       List<Schema> schemas = new ArrayList<>();
-      conn = DataSources.getDataSource(options).getConnection();
+      DataSource dataSource = DataSources.getDataSource(options);
+      conn = dataSource.getConnection();
       QueryRunner runner = new QueryRunner();
       Long maxId = runner.query(conn, "select max(id) as max_id from base_schems",
           rs -> rs.next() ? rs.getLong("max_id") : null);
 
       BaseSchemaIdCounter.setInitValue(maxId);
 
-      final UpdateUuidsMigration updateUuidsMigration = new UpdateUuidsMigration(conn, options);
+      CheckpointStore checkpointStore = new JdbcCheckpointStore(dataSource);
+      final UpdateUuidsMigration updateUuidsMigration =
+          new UpdateUuidsMigration(dataSource, checkpointStore, options);
 
       final EndpointProfileMigration endpointProfileMigration =
-          new EndpointProfileMigration(options);
+          new EndpointProfileMigration(checkpointStore, options);
+
+      final AppenderConfigurationMigration appenderConfigurationMigration =
+          new AppenderConfigurationMigration(conn);
 
       List<AbstractCtlMigration> migrationList = new ArrayList<>();
       migrationList.add(new CtlConfigurationMigration(conn));
@@ -111,6 +126,9 @@ public class MigrateData {
       updateUuidsMigration.transform();
       endpointProfileMigration.transform();
 
+      // rewrite appender configurations stored with legacy schemas
+      appenderConfigurationMigration.transform();
+
       //before phase
       for (AbstractCtlMigration m : migrationList) {
         m.beforeTransform();
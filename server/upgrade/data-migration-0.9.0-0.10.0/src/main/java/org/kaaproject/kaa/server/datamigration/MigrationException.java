@@ -22,5 +22,8 @@ public class MigrationException extends RuntimeException {
     super(message);
   }
 
+  public MigrationException(String message, Throwable cause) {
+    super(message, cause);
+  }
 
 }
@@ -28,10 +28,12 @@ import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.mongodb.MongoClient;
-import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.ResultSetHandler;
@@ -39,35 +41,51 @@ import org.apache.commons.dbutils.handlers.BeanListHandler;
 import org.bson.Document;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.kaaproject.kaa.server.datamigration.chunk.CheckpointStore;
+import org.kaaproject.kaa.server.datamigration.chunk.ChunkedMigration;
+import org.kaaproject.kaa.server.datamigration.chunk.JdbcChunkSource;
+import org.kaaproject.kaa.server.datamigration.chunk.MigrationStats;
+import org.kaaproject.kaa.server.datamigration.chunk.MongoChunkSource;
 import org.kaaproject.kaa.server.datamigration.model.Configuration;
 import org.kaaproject.kaa.server.datamigration.utils.Options;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import javax.sql.DataSource;
 
 public class UpdateUuidsMigration {
-  private Connection connection;
+  private DataSource dataSource;
+  private CheckpointStore checkpointStore;
   private MongoClient client;
   private Cluster cluster;
   private String dbName;
   private String nosql;
+  private int chunkSize;
+  private int workers;
 
   /**
    * Create a new instance of UpdateUuidsMigration.
    *
-   * @param connection the connection to relational database
-   * @param options    the options for configuring NoSQL databases
+   * @param dataSource      the data source of relational database
+   * @param checkpointStore the store of the migration progress
+   * @param options         the options for configuring NoSQL databases
    */
-  public UpdateUuidsMigration(Connection connection, Options options) {
-    this.connection = connection;
+  public UpdateUuidsMigration(DataSource dataSource, CheckpointStore checkpointStore,
+                              Options options) {
+    this.dataSource = dataSource;
+    this.checkpointStore = checkpointStore;
     client = new MongoClient(options.getHost());
     cluster = Cluster.builder()
         .addContactPoint(options.getHost())
         .build();
     dbName = options.getDbName();
     this.nosql = options.getNoSql();
+    this.chunkSize = options.getChunkSize();
+    this.workers = options.getWorkers();
   }
 
   /**
@@ -75,36 +93,13 @@ public class UpdateUuidsMigration {
    *
    */
   public void transform() throws IOException, SQLException {
-    QueryRunner run = new QueryRunner();
-    ResultSetHandler<List<Configuration>> rsHandler = new BeanListHandler<>(Configuration.class);
-    List<Configuration> configs = run.query(connection, "SELECT * FROM configuration", rsHandler);
-    for (Configuration config : configs) {
-      JsonNode json = new ObjectMapper().readTree(config.getConfigurationBody());
-      JsonNode jsonEncoded = encodeUuids(json);
-      byte[] encodedConfigurationBody = jsonEncoded.toString().getBytes();
-
-      int updates = run.update(connection,
-          "UPDATE configuration SET configuration_body=? WHERE id=?",
-          encodedConfigurationBody, config.getId()
-      );
-      if (updates != 1) {
-        System.err.println("Error: failed to update configuration: " + config);
-      }
-    }
+    transformConfigurations(dataSource, checkpointStore, chunkSize, workers);
 
     if (nosql.equals(Options.DEFAULT_NO_SQL)) {
       MongoDatabase database = client.getDatabase(dbName);
-      MongoCollection<Document> userConfiguration = database.getCollection("user_configuration");
-      FindIterable<Document> documents = userConfiguration.find();
-      for (Document d : documents) {
-        String body = (String) d.get("body");
-        JsonNode json = new ObjectMapper().readTree(body);
-        JsonNode jsonEncoded = encodeUuids(json);
-        userConfiguration.updateOne(
-            Filters.eq("_id", d.get("_id")),
-            Filters.eq("$set", Filters.eq("body", jsonEncoded))
-        );
-      }
+      transformUserConfigurations(database.getCollection("user_configuration"),
+          checkpointStore, chunkSize, workers);
+      client.close();
 
     } else {
       Session session = cluster.connect(dbName);
@@ -136,4 +131,65 @@ public class UpdateUuidsMigration {
 
   }
 
+  /**
+   * Changes the encoding of uuids in the configurations of the relational database. The
+   * chunks are safe to process again after a crash, as uuids that are already encoded are
+   * left as they are.
+   */
+  static MigrationStats transformConfigurations(DataSource dataSource,
+                                                CheckpointStore checkpointStore,
+                                                int chunkSize, int workers) {
+    ResultSetHandler<List<Configuration>> rsHandler = new BeanListHandler<>(Configuration.class);
+    return new ChunkedMigration<>("configuration.uuids",
+        new JdbcChunkSource<>(dataSource, "configuration", "id",
+            "id, configuration_body as configurationBody", rsHandler, Configuration::getId),
+        configs -> updateConfigurations(dataSource, configs), checkpointStore, chunkSize, workers)
+        .run();
+  }
+
+  /**
+   * Changes the encoding of uuids in the user configurations of MongoDB. The chunks are safe
+   * to process again after a crash, as uuids that are already encoded are left as they are.
+   */
+  static MigrationStats transformUserConfigurations(MongoCollection<Document> userConfiguration,
+                                                    CheckpointStore checkpointStore,
+                                                    int chunkSize, int workers) {
+    return new ChunkedMigration<>("user_configuration.uuids",
+        new MongoChunkSource<>(userConfiguration, String.class),
+        documents -> {
+          List<WriteModel<Document>> updates = new ArrayList<>(documents.size());
+          for (Document d : documents) {
+            String body = (String) d.get("body");
+            JsonNode json = new ObjectMapper().readTree(body);
+            JsonNode jsonEncoded = encodeUuids(json);
+            updates.add(new UpdateOneModel<>(
+                Filters.eq("_id", d.get("_id")),
+                Filters.eq("$set", Filters.eq("body", jsonEncoded.toString()))
+            ));
+          }
+          userConfiguration.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }, checkpointStore, chunkSize, workers).run();
+  }
+
+  private static void updateConfigurations(DataSource dataSource, List<Configuration> configs)
+      throws IOException, SQLException {
+    Object[][] params = new Object[configs.size()][];
+    for (int i = 0; i < configs.size(); i++) {
+      Configuration config = configs.get(i);
+      JsonNode json = new ObjectMapper().readTree(config.getConfigurationBody());
+      JsonNode jsonEncoded = encodeUuids(json);
+      params[i] = new Object[] {jsonEncoded.toString().getBytes(), config.getId()};
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      int[] updates = new QueryRunner().batch(connection,
+          "UPDATE configuration SET configuration_body=? WHERE id=?", params);
+      connection.commit();
+      for (int i = 0; i < updates.length; i++) {
+        if (updates[i] != 1 && updates[i] != Statement.SUCCESS_NO_INFO) {
+          System.err.println("Error: failed to update configuration: " + configs.get(i));
+        }
+      }
+    }
+  }
+
 }
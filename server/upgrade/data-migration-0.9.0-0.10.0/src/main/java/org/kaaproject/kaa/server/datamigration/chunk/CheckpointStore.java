@@ -0,0 +1,33 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+/**
+ * Keeps the progress of chunked migrations between runs.
+ */
+public interface CheckpointStore {
+
+  /**
+   * Loads the saved state of the migration.
+   *
+   * @param migration the name of the migration
+   * @return the state or null if the migration has not been started yet
+   */
+  String load(String migration);
+
+  void save(String migration, String state);
+}
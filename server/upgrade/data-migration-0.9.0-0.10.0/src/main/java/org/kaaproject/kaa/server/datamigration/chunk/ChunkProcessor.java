@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import java.util.List;
+
+/**
+ * Migrates a chunk of rows. Chunks are processed concurrently by several workers, so
+ * the processor must be thread-safe.
+ *
+ * @param <R> the type of the rows
+ */
+public interface ChunkProcessor<R> {
+
+  void process(List<R> rows) throws Exception;
+}
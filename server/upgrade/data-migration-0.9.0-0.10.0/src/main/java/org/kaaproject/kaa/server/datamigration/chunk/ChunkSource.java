@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import java.util.List;
+
+/**
+ * Reads the rows of a table or collection in chunks ordered by a unique key, so that a
+ * migration can continue after the last key it has processed.
+ *
+ * @param <K> the type of the key
+ * @param <R> the type of the rows
+ */
+public interface ChunkSource<K extends Comparable<K>, R> {
+
+  /**
+   * Reads the next chunk of rows.
+   *
+   * @param after the key after which the chunk starts, or null to start from the first row
+   * @param size  the maximum number of rows in the chunk
+   * @return the rows ordered by key, or an empty list if there are no more rows
+   * @throws Exception if the rows can't be read
+   */
+  List<R> nextChunk(K after, int size) throws Exception;
+
+  K keyOf(R row);
+
+  /**
+   * Converts the key to a string that is stored in migration checkpoints.
+   */
+  String encodeKey(K key);
+
+  K decodeKey(String key);
+}
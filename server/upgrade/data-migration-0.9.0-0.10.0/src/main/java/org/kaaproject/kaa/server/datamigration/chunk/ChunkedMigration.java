@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import org.kaaproject.kaa.server.datamigration.MigrationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Migrates the rows of a chunk source in parallel, keyset-paginated chunks and keeps its
+ * progress in a checkpoint store, so that a failed or interrupted migration continues
+ * where it stopped instead of starting over.
+ *
+ * <p>Chunks are read in key order by the calling thread and processed by a fixed pool of
+ * workers; at most twice as many chunks as workers are held in memory. A chunk covers the
+ * keys after the last key of the previous chunk up to and including its own last key. The
+ * checkpoint keeps the watermark, below which all chunks are completed, and the ranges of
+ * the chunks completed beyond it. A resumed run skips both.
+ *
+ * <p>The checkpoint is saved after a chunk is processed, so a chunk that is processed
+ * right before a crash may be processed again by the next run. Processors must therefore
+ * be idempotent.
+ *
+ * @param <K> the type of the row keys
+ * @param <R> the type of the rows
+ */
+public class ChunkedMigration<K extends Comparable<K>, R> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ChunkedMigration.class);
+
+  private static final String DONE = "done";
+  private static final String RUNNING = "running";
+  private static final long PROGRESS_LOG_PERIOD = 10000;
+
+  private final String name;
+  private final ChunkSource<K, R> source;
+  private final ChunkProcessor<R> processor;
+  private final CheckpointStore checkpointStore;
+  private final int chunkSize;
+  private final int workers;
+
+  private final NavigableMap<K, K> completed = new TreeMap<>();
+  private final AtomicReference<Exception> failure = new AtomicReference<>();
+  private K watermark;
+  private long rows;
+  private long startTime;
+  private long lastProgressLog;
+
+  /**
+   * Create new instance of <code>ChunkedMigration</code>.
+   *
+   * @param name            the name of the migration, used as the checkpoint key
+   * @param source          the source of the rows
+   * @param processor       the processor that migrates the chunks
+   * @param checkpointStore the store of the migration progress
+   * @param chunkSize       the maximum number of rows in a chunk
+   * @param workers         the number of chunks processed concurrently
+   */
+  public ChunkedMigration(String name, ChunkSource<K, R> source, ChunkProcessor<R> processor,
+                          CheckpointStore checkpointStore, int chunkSize, int workers) {
+    if (chunkSize < 1 || workers < 1) {
+      throw new IllegalArgumentException("Chunk size and number of workers must be positive");
+    }
+    this.name = name;
+    this.source = source;
+    this.processor = processor;
+    this.checkpointStore = checkpointStore;
+    this.chunkSize = chunkSize;
+    this.workers = workers;
+  }
+
+  /**
+   * Runs the migration from its last checkpoint.
+   *
+   * @return the statistics of this run
+   * @throws MigrationException if a chunk can't be read or processed; the progress made
+   *                            so far is saved
+   */
+  public MigrationStats run() {
+    String state = checkpointStore.load(name);
+    if (state != null && state.startsWith(DONE)) {
+      LOG.info("Migration {} is already completed", name);
+      return new MigrationStats(name, 0, 0);
+    }
+    restore(state);
+    NavigableMap<K, K> recorded = Collections.unmodifiableNavigableMap(new TreeMap<>(completed));
+    if (watermark != null || !recorded.isEmpty()) {
+      LOG.info("Resuming migration {} after {} with {} completed ranges",
+          name, watermark, recorded.size());
+    }
+
+    startTime = System.currentTimeMillis();
+    lastProgressLog = startTime;
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    Semaphore permits = new Semaphore(workers * 2);
+    boolean finished = false;
+    try {
+      K cursor = watermark;
+      while (failure.get() == null) {
+        K recordedEnd = cursor != null ? recorded.get(cursor) : null;
+        if (recordedEnd != null) {
+          cursor = recordedEnd;
+          continue;
+        }
+        List<R> chunk = source.nextChunk(cursor, chunkSize);
+        K next = cursor != null ? recorded.higherKey(cursor) : firstKey(recorded);
+        if (next != null) {
+          chunk = truncate(chunk, next);
+        }
+        if (chunk.isEmpty()) {
+          if (next == null) {
+            finished = true;
+            break;
+          }
+          complete(cursor, next, 0);
+          cursor = next;
+          continue;
+        }
+        permits.acquire();
+        final K from = cursor;
+        final K to = source.keyOf(chunk.get(chunk.size() - 1));
+        final List<R> rows = chunk;
+        executor.execute(() -> {
+          try {
+            if (failure.get() == null) {
+              processor.process(rows);
+              complete(from, to, rows.size());
+            }
+          } catch (Exception ex) {
+            failure.compareAndSet(null, ex);
+          } finally {
+            permits.release();
+          }
+        });
+        cursor = to;
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, ex);
+    } catch (Exception ex) {
+      failure.compareAndSet(null, ex);
+    } finally {
+      shutdown(executor);
+    }
+
+    Exception cause = failure.get();
+    long millis = System.currentTimeMillis() - startTime;
+    synchronized (this) {
+      if (cause == null && finished) {
+        checkpointStore.save(name, DONE);
+      } else {
+        save();
+      }
+    }
+    if (cause != null) {
+      throw new MigrationException("Migration " + name + " failed after " + rows
+          + " rows, progress is saved", cause);
+    }
+    MigrationStats stats = new MigrationStats(name, rows, millis);
+    LOG.info("Migration {} completed: {}", name, stats);
+    return stats;
+  }
+
+  private synchronized void complete(K from, K to, int count) {
+    if (from == null) {
+      watermark = to;
+    } else {
+      completed.put(from, to);
+    }
+    K end;
+    while (watermark != null && (end = completed.remove(watermark)) != null) {
+      watermark = end;
+    }
+    rows += count;
+    save();
+    long now = System.currentTimeMillis();
+    if (now - lastProgressLog >= PROGRESS_LOG_PERIOD) {
+      lastProgressLog = now;
+      LOG.info("Migration {}: {} rows, {} rows/sec", name, rows,
+          new MigrationStats(name, rows, now - startTime).rowsPerSecond());
+    }
+  }
+
+  private void save() {
+    StringBuilder state = new StringBuilder(RUNNING).append('\n');
+    if (watermark != null) {
+      state.append(source.encodeKey(watermark));
+    }
+    for (Map.Entry<K, K> range : completed.entrySet()) {
+      state.append('\n').append(source.encodeKey(range.getKey()))
+          .append('\t').append(source.encodeKey(range.getValue()));
+    }
+    checkpointStore.save(name, state.toString());
+  }
+
+  private void restore(String state) {
+    if (state == null) {
+      return;
+    }
+    String[] lines = state.split("\n");
+    if (lines.length > 1 && !lines[1].isEmpty()) {
+      watermark = source.decodeKey(lines[1]);
+    }
+    for (int i = 2; i < lines.length; i++) {
+      int separator = lines[i].indexOf('\t');
+      completed.put(source.decodeKey(lines[i].substring(0, separator)),
+          source.decodeKey(lines[i].substring(separator + 1)));
+    }
+  }
+
+  private List<R> truncate(List<R> chunk, K last) {
+    for (int i = 0; i < chunk.size(); i++) {
+      if (source.keyOf(chunk.get(i)).compareTo(last) > 0) {
+        return new ArrayList<>(chunk.subList(0, i));
+      }
+    }
+    return chunk;
+  }
+
+  private static <K> K firstKey(NavigableMap<K, K> map) {
+    return map.isEmpty() ? null : map.firstKey();
+  }
+
+  private void shutdown(ExecutorService executor) {
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(PROGRESS_LOG_PERIOD, TimeUnit.MILLISECONDS)) {
+        LOG.info("Waiting for chunks of migration {} to complete", name);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, ex);
+    }
+  }
+}
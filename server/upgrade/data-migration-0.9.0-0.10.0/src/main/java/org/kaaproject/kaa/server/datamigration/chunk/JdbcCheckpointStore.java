@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.kaaproject.kaa.server.datamigration.MigrationException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+/**
+ * Stores migration checkpoints in the <code>migration_checkpoint</code> table of the
+ * relational database. Every checkpoint is committed in its own transaction.
+ */
+public class JdbcCheckpointStore implements CheckpointStore {
+
+  private static final String TABLE_NAME = "migration_checkpoint";
+
+  private final DataSource dataSource;
+  private final QueryRunner runner = new QueryRunner();
+
+  /**
+   * Create new instance of <code>JdbcCheckpointStore</code> and the checkpoint table if it
+   * doesn't exist.
+   *
+   * @param dataSource the data source of the relational database
+   * @throws SQLException the sql exception
+   */
+  public JdbcCheckpointStore(DataSource dataSource) throws SQLException {
+    this.dataSource = dataSource;
+    try (Connection connection = dataSource.getConnection()) {
+      runner.update(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME
+          + " (name VARCHAR(255) NOT NULL PRIMARY KEY, state TEXT NOT NULL)");
+      commit(connection);
+    }
+  }
+
+  @Override
+  public String load(String migration) {
+    try (Connection connection = dataSource.getConnection()) {
+      return runner.query(connection, "SELECT state FROM " + TABLE_NAME + " WHERE name=?",
+          rs -> rs.next() ? rs.getString("state") : null, migration);
+    } catch (SQLException ex) {
+      throw new MigrationException("Failed to load checkpoint of " + migration, ex);
+    }
+  }
+
+  @Override
+  public void save(String migration, String state) {
+    try (Connection connection = dataSource.getConnection()) {
+      int updated = runner.update(connection,
+          "UPDATE " + TABLE_NAME + " SET state=? WHERE name=?", state, migration);
+      if (updated == 0) {
+        runner.update(connection,
+            "INSERT INTO " + TABLE_NAME + " (name, state) VALUES (?, ?)", migration, state);
+      }
+      commit(connection);
+    } catch (SQLException ex) {
+      throw new MigrationException("Failed to save checkpoint of " + migration, ex);
+    }
+  }
+
+  private static void commit(Connection connection) throws SQLException {
+    if (!connection.getAutoCommit()) {
+      connection.commit();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.ResultSetHandler;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.function.Function;
+import javax.sql.DataSource;
+
+/**
+ * Reads the rows of a relational table in chunks ordered by a numeric key column.
+ *
+ * @param <R> the type of the rows
+ */
+public class JdbcChunkSource<R> implements ChunkSource<Long, R> {
+
+  private final DataSource dataSource;
+  private final String query;
+  private final ResultSetHandler<List<R>> handler;
+  private final Function<R, Long> keyFunction;
+
+  /**
+   * Create new instance of <code>JdbcChunkSource</code> that reads all columns.
+   *
+   * @param dataSource  the data source of the relational database
+   * @param table       the table name
+   * @param keyColumn   the name of the unique numeric key column
+   * @param handler     the handler that converts result sets to rows
+   * @param keyFunction the function that returns the key of a row
+   */
+  public JdbcChunkSource(DataSource dataSource, String table, String keyColumn,
+                         ResultSetHandler<List<R>> handler, Function<R, Long> keyFunction) {
+    this(dataSource, table, keyColumn, "*", handler, keyFunction);
+  }
+
+  /**
+   * Create new instance of <code>JdbcChunkSource</code>.
+   *
+   * @param dataSource  the data source of the relational database
+   * @param table       the table name
+   * @param keyColumn   the name of the unique numeric key column
+   * @param columns     the select list, e.g. columns aliased to the bean properties of the rows
+   * @param handler     the handler that converts result sets to rows
+   * @param keyFunction the function that returns the key of a row
+   */
+  public JdbcChunkSource(DataSource dataSource, String table, String keyColumn, String columns,
+                         ResultSetHandler<List<R>> handler, Function<R, Long> keyFunction) {
+    this.dataSource = dataSource;
+    this.query = "SELECT " + columns + " FROM " + table + " WHERE " + keyColumn
+        + " > ? ORDER BY " + keyColumn + " LIMIT ?";
+    this.handler = handler;
+    this.keyFunction = keyFunction;
+  }
+
+  @Override
+  public List<R> nextChunk(Long after, int size) throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      return new QueryRunner().query(connection, query, handler,
+          after != null ? after : Long.MIN_VALUE, size);
+    }
+  }
+
+  @Override
+  public Long keyOf(R row) {
+    return keyFunction.apply(row);
+  }
+
+  @Override
+  public String encodeKey(Long key) {
+    return key.toString();
+  }
+
+  @Override
+  public Long decodeKey(String key) {
+    return Long.valueOf(key);
+  }
+}
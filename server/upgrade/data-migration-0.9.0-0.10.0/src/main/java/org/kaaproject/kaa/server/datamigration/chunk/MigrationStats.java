@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+/**
+ * The result of a chunked migration run.
+ */
+public final class MigrationStats {
+
+  private final String name;
+  private final long rows;
+  private final long millis;
+
+  /**
+   * Create new instance of <code>MigrationStats</code>.
+   *
+   * @param name   the name of the migration
+   * @param rows   the number of rows migrated by the run
+   * @param millis the duration of the run in milliseconds
+   */
+  public MigrationStats(String name, long rows, long millis) {
+    this.name = name;
+    this.rows = rows;
+    this.millis = millis;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public long getMillis() {
+    return millis;
+  }
+
+  public double rowsPerSecond() {
+    return millis > 0 ? rows * 1000.0 / millis : rows;
+  }
+
+  @Override
+  public String toString() {
+    return "MigrationStats{"
+        + "name='" + name + '\''
+        + ", rows=" + rows
+        + ", millis=" + millis
+        + ", rowsPerSecond=" + String.format("%.1f", rowsPerSecond()) + '}';
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import static com.mongodb.client.model.Filters.gt;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.kaaproject.kaa.server.datamigration.MigrationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the documents of a MongoDB collection in chunks ordered by <code>_id</code>.
+ *
+ * @param <K> the type of the document ids
+ */
+public class MongoChunkSource<K extends Comparable<K>> implements ChunkSource<K, Document> {
+
+  private static final String ID = "_id";
+
+  private final MongoCollection<Document> collection;
+  private final Class<K> keyType;
+  private final Bson projection;
+
+  public MongoChunkSource(MongoCollection<Document> collection, Class<K> keyType) {
+    this(collection, keyType, null);
+  }
+
+  /**
+   * Create new instance of <code>MongoChunkSource</code>.
+   *
+   * @param collection the collection
+   * @param keyType    the type of the document ids
+   * @param projection the fields to read, or null to read whole documents
+   */
+  public MongoChunkSource(MongoCollection<Document> collection, Class<K> keyType,
+                          Bson projection) {
+    this.collection = collection;
+    this.keyType = keyType;
+    this.projection = projection;
+  }
+
+  @Override
+  public List<Document> nextChunk(K after, int size) {
+    FindIterable<Document> documents = after != null
+        ? collection.find(gt(ID, after)) : collection.find();
+    if (projection != null) {
+      documents = documents.projection(projection);
+    }
+    return documents.sort(new Document(ID, 1)).limit(size).into(new ArrayList<>(size));
+  }
+
+  @Override
+  public K keyOf(Document row) {
+    return toKey(row.get(ID));
+  }
+
+  @Override
+  public String encodeKey(K key) {
+    return new Document(ID, key).toJson();
+  }
+
+  @Override
+  public K decodeKey(String key) {
+    return toKey(Document.parse(key).get(ID));
+  }
+
+  private K toKey(Object id) {
+    if (!keyType.isInstance(id)) {
+      throw new MigrationException("Expected " + ID + " of type " + keyType.getSimpleName()
+          + " in collection " + collection.getNamespace() + " but found "
+          + (id != null ? id.getClass().getSimpleName() + " " + id : "no " + ID));
+    }
+    return keyType.cast(id);
+  }
+}
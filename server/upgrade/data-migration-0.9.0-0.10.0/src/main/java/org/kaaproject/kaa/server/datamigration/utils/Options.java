@@ -25,6 +25,8 @@ public final class Options {
   public static final String DEFAULT_NO_SQL = "mongo";
   public static final String DEFAULT_DRIVER_CLASS_NAME = "org.mariadb.jdbc.Driver";
   public static final String DEFAULT_JDBC_URL = "jdbc:mysql:failover://localhost:3333/kaa";
+  public static final int DEFAULT_WORKERS = 4;
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
 
   private String username = DEFAULT_USER_NAME;
   private String password = DEFAULT_PASSWORD;
@@ -33,6 +35,8 @@ public final class Options {
   private String noSql = DEFAULT_NO_SQL;
   private String driverClassName = DEFAULT_DRIVER_CLASS_NAME;
   private String jdbcUrl = DEFAULT_JDBC_URL;
+  private int workers = DEFAULT_WORKERS;
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
 
   public String getUsername() {
     return username;
@@ -90,6 +94,22 @@ public final class Options {
     this.jdbcUrl = jdbcUrl;
   }
 
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
   @Override
   public String toString() {
     return "Options{"
@@ -98,6 +118,8 @@ public final class Options {
         + ", dbName='" + dbName + '\''
         + ", host='" + host + '\''
         + ", driverClassName='" + driverClassName + '\''
-        + ", jdbcUrl='" + jdbcUrl + '\'' + '}';
+        + ", jdbcUrl='" + jdbcUrl + '\''
+        + ", workers=" + workers
+        + ", chunkSize=" + chunkSize + '}';
   }
 }
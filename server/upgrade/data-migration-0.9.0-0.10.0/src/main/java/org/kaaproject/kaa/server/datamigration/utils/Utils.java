@@ -26,10 +26,14 @@ public final class Utils {
 
   private static final String UUID_FIELD = "__uuid";
   private static final String UUID_VALUE = "org.kaaproject.configuration.uuidT";
+  private static final int UUID_SIZE = 16;
+  private static final int ENCODED_UUID_LENGTH = 24;
 
 
   /**
    * Change encoding of uuids  from <b>latin1 (ISO-8859-1)</b> to <b>base64</b>.
+   * Uuids that are already encoded are left as they are, so a json can be processed again
+   * by a resumed migration.
    *
    * @param json the json that should be processed
    * @return the json with changed uuids
@@ -40,8 +44,10 @@ public final class Utils {
       JsonNode jsonNode = json.get(UUID_FIELD);
       if (jsonNode.has(UUID_VALUE)) {
         String value = jsonNode.get(UUID_VALUE).asText();
-        String encodedValue = Base64.getEncoder().encodeToString(value.getBytes("ISO-8859-1"));
-        ((ObjectNode) jsonNode).put(UUID_VALUE, encodedValue);
+        if (!isEncoded(value)) {
+          String encodedValue = Base64.getEncoder().encodeToString(value.getBytes("ISO-8859-1"));
+          ((ObjectNode) jsonNode).put(UUID_VALUE, encodedValue);
+        }
       }
     }
 
@@ -54,4 +60,19 @@ public final class Utils {
     return json;
   }
 
+  /**
+   * Checks whether the uuid is already base64 encoded. A latin1 uuid has 16 characters, while
+   * its base64 form has 24, so the two can't be confused.
+   */
+  private static boolean isEncoded(String value) {
+    if (value.length() != ENCODED_UUID_LENGTH) {
+      return false;
+    }
+    try {
+      return Base64.getDecoder().decode(value).length == UUID_SIZE;
+    } catch (IllegalArgumentException ex) {
+      return false;
+    }
+  }
+
 }
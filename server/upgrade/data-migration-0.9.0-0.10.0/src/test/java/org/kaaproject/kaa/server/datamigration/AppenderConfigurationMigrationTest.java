@@ -0,0 +1,231 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.commons.dbutils.QueryRunner;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+
+public class AppenderConfigurationMigrationTest {
+
+  private static final String FILE_APPENDER =
+      "org.kaaproject.kaa.server.appenders.file.appender.FileSystemLogAppender";
+  private static final String FLUME_APPENDER =
+      "org.kaaproject.kaa.server.appenders.flume.appender.FlumeLogAppender";
+  private static final String FLUME_NODES =
+      "org.kaaproject.kaa.server.appenders.flume.config.gen.FlumeNodes";
+  private static final String KAFKA_APPENDER =
+      "org.kaaproject.kaa.server.appenders.kafka.appender.KafkaLogAppender";
+  private static final String KAFKA_CONFIG =
+      "org.kaaproject.kaa.server.appenders.kafka.config.gen.";
+  private static final String COUCHBASE_APPENDER =
+      "org.kaaproject.kaa.server.appenders.couchbase.appender.CouchbaseLogAppender";
+  private static final String ORACLE_NOSQL_APPENDER =
+      "org.kaaproject.kaa.server.appenders.oraclenosql.appender.OracleNoSqlLogAppender";
+
+  private final QueryRunner runner = new QueryRunner();
+
+  private Connection connection;
+
+  /**
+   * Creates an in-memory plugin table.
+   */
+  @Before
+  public void before() throws Exception {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:plugins");
+    connection = dataSource.getConnection();
+    runner.update(connection, "CREATE TABLE plugin (id BIGINT PRIMARY KEY, "
+        + "plugin_class_name VARCHAR(255), raw_configuration VARBINARY(10000))");
+  }
+
+  @After
+  public void after() throws Exception {
+    runner.update(connection, "DROP TABLE plugin");
+    connection.close();
+  }
+
+  @Test
+  public void migrateFileAppenderConfigurationTest() throws Exception {
+    insert(1L, FILE_APPENDER, encode(schema("/appenders/file-appender-config-legacy.avsc"),
+        "{\"publicKey\": \"key\", \"logsRootPath\": \"/logs\", "
+        + "\"rollingFileNamePatern\": \"log.%d.log\", \"rollingMaxHistory\": 7, "
+        + "\"triggerMaxFileSize\": \"2GB\", \"encoderPattern\": \"%msg%n\"}"));
+
+    new AppenderConfigurationMigration(connection).transform();
+
+    GenericRecord configuration = decode(schema("/appenders/file-appender-config.avsc"), 1L);
+    Assert.assertEquals("/logs", configuration.get("logsRootPath").toString());
+    Assert.assertEquals(7, configuration.get("rollingMaxHistory"));
+    Assert.assertEquals("%msg%n", configuration.get("encoderPattern").toString());
+    Assert.assertEquals("TEXT", configuration.get("fileFormat").toString());
+    Assert.assertEquals(4096, configuration.get("groupCommitMaxRecords"));
+    Assert.assertEquals("10GB", configuration.get("retentionMaxTotalSize").toString());
+    Assert.assertEquals(true, configuration.get("syncOnCommit"));
+  }
+
+  @Test
+  public void migrateFlumeAppenderConfigurationTest() throws Exception {
+    insert(1L, FLUME_APPENDER, encode(schema("/appenders/flume-appender-config-legacy.avsc"),
+        "{\"executorThreadPoolSize\": 3, \"callbackThreadPoolSize\": 2, "
+        + "\"clientsThreadPoolSize\": 2, \"includeClientProfile\": {\"boolean\": true}, "
+        + "\"includeServerProfile\": null, \"flumeEventFormat\": \"GENERIC\", "
+        + "\"hostsBalancing\": {\"" + FLUME_NODES + "\": "
+        + "{\"flumeNodes\": [{\"host\": \"flume1\", \"port\": 7070}, "
+        + "{\"host\": \"flume2\", \"port\": 7071}]}}}"));
+
+    new AppenderConfigurationMigration(connection).transform();
+
+    GenericRecord configuration = decode(schema("/appenders/flume-appender-config.avsc"), 1L);
+    Assert.assertEquals(3, configuration.get("executorThreadPoolSize"));
+    Assert.assertEquals(true, configuration.get("includeClientProfile"));
+    Assert.assertEquals("GENERIC", configuration.get("flumeEventFormat").toString());
+    GenericRecord hosts = (GenericRecord) configuration.get("hostsBalancing");
+    Assert.assertEquals("FlumeNodes", hosts.getSchema().getName());
+    Assert.assertEquals(1000, configuration.get("maxBatchSize"));
+    Assert.assertEquals(10, configuration.get("maxBatchDelay"));
+  }
+
+  @Test
+  public void migrateKafkaAppenderConfigurationTest() throws Exception {
+    insert(1L, KAFKA_APPENDER, encode(schema("/appenders/kafka-appender-config-legacy.avsc"),
+        "{\"kafkaServers\": [{\"host\": \"kafka1\", \"port\": 9092}], "
+        + "\"topic\": \"logs\", \"useDefaultPartitioner\": false, \"partitionCount\": 4, "
+        + "\"kafkaKeyType\": {\"" + KAFKA_CONFIG + "KafkaKeyType\": \"UUID\"}, "
+        + "\"executorThreadPoolSize\": 2, \"bufferMemorySize\": 1048576, "
+        + "\"kafkaCompression\": {\"" + KAFKA_CONFIG + "KafkaCompression\": \"GZIP\"}, "
+        + "\"kafkaAcknowledgement\": null, \"retries\": 3}"));
+
+    new AppenderConfigurationMigration(connection).transform();
+
+    GenericRecord configuration = decode(schema("/appenders/kafka-appender-config.avsc"), 1L);
+    Assert.assertEquals("logs", configuration.get("topic").toString());
+    Assert.assertEquals(4, configuration.get("partitionCount"));
+    Assert.assertEquals("UUID", configuration.get("kafkaKeyType").toString());
+    Assert.assertEquals(1048576L, configuration.get("bufferMemorySize"));
+    Assert.assertEquals("GZIP", configuration.get("kafkaCompression").toString());
+    Assert.assertNull(configuration.get("kafkaAcknowledgement"));
+    Assert.assertEquals(3, configuration.get("retries"));
+    Assert.assertEquals("JSON", configuration.get("valueFormat").toString());
+    Assert.assertEquals(5, configuration.get("lingerMs"));
+    Assert.assertEquals(16384, configuration.get("batchSize"));
+  }
+
+  @Test
+  public void migrateCouchbaseAppenderConfigurationTest() throws Exception {
+    insert(1L, COUCHBASE_APPENDER,
+        encode(schema("/appenders/couchbase-appender-config-legacy.avsc"),
+        "{\"couchbaseServerUris\": [{\"serverUri\": \"http://couchbase:8091\"}], "
+        + "\"bucket\": \"logs\", \"password\": {\"string\": \"secret\"}}"));
+
+    new AppenderConfigurationMigration(connection).transform();
+
+    GenericRecord configuration = decode(schema("/appenders/couchbase-appender-config.avsc"), 1L);
+    Assert.assertEquals("logs", configuration.get("bucket").toString());
+    Assert.assertEquals("secret", configuration.get("password").toString());
+    Assert.assertEquals(1024, configuration.get("maxInFlightDocuments"));
+    Assert.assertEquals("NONE", configuration.get("persistTo").toString());
+  }
+
+  @Test
+  public void migrateOracleNoSqlAppenderConfigurationTest() throws Exception {
+    insert(1L, ORACLE_NOSQL_APPENDER,
+        encode(schema("/appenders/oracle-nosql-appender-config-legacy.avsc"),
+        "{\"storeName\": \"logs\", \"kvStoreNodes\": [{\"host\": \"kv1\", \"port\": 5000}], "
+        + "\"username\": null, \"walletDir\": null, \"pwdFile\": null, "
+        + "\"securityFile\": null, \"transport\": null, \"ssl\": null, "
+        + "\"sslCipherSuites\": null, \"sslProtocols\": null, "
+        + "\"sslHostnameVerifier\": null, \"sslTrustStore\": null, "
+        + "\"sslTrustStoreType\": {\"string\": \"JKS\"}}"));
+
+    new AppenderConfigurationMigration(connection).transform();
+
+    GenericRecord configuration =
+        decode(schema("/appenders/oracle-nosql-appender-config.avsc"), 1L);
+    Assert.assertEquals("logs", configuration.get("storeName").toString());
+    Assert.assertEquals("JKS", configuration.get("sslTrustStoreType").toString());
+    Assert.assertEquals(4, configuration.get("maxInFlightBatches"));
+  }
+
+  @Test
+  public void keepCurrentConfigurationTest() throws Exception {
+    Schema schema = schema("/appenders/file-appender-config.avsc");
+    byte[] current = encode(schema,
+        "{\"publicKey\": \"key\", \"logsRootPath\": \"/logs\", "
+        + "\"rollingFileNamePatern\": \"log.%d.log\", \"rollingMaxHistory\": 7, "
+        + "\"triggerMaxFileSize\": \"2GB\", \"encoderPattern\": \"%msg%n\", "
+        + "\"fileFormat\": \"SEGMENTED_BINARY\", \"groupCommitMaxRecords\": 16, "
+        + "\"retentionMaxTotalSize\": \"1GB\", \"syncOnCommit\": false}");
+    insert(1L, FILE_APPENDER, current);
+
+    new AppenderConfigurationMigration(connection).transform();
+    new AppenderConfigurationMigration(connection).transform();
+
+    Assert.assertArrayEquals(current, select(1L));
+    Assert.assertEquals("SEGMENTED_BINARY", decode(schema, 1L).get("fileFormat").toString());
+  }
+
+  private void insert(long id, String pluginClassName, byte[] rawConfiguration) throws Exception {
+    runner.update(connection,
+        "INSERT INTO plugin (id, plugin_class_name, raw_configuration) VALUES (?, ?, ?)",
+        id, pluginClassName, rawConfiguration);
+  }
+
+  private byte[] select(long id) throws Exception {
+    return runner.query(connection, "SELECT raw_configuration FROM plugin WHERE id = ?",
+        rs -> rs.next() ? rs.getBytes("raw_configuration") : null, id);
+  }
+
+  private GenericRecord decode(Schema schema, long id) throws Exception {
+    BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(select(id), null);
+    GenericRecord record = new GenericDatumReader<GenericRecord>(schema).read(null, decoder);
+    Assert.assertTrue(decoder.isEnd());
+    return record;
+  }
+
+  private static byte[] encode(Schema schema, String json) throws IOException {
+    GenericRecord record = new GenericDatumReader<GenericRecord>(schema)
+        .read(null, DecoderFactory.get().jsonDecoder(schema, json));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  private static Schema schema(String resource) throws IOException {
+    try (InputStream in = AppenderConfigurationMigrationTest.class.getResourceAsStream(resource)) {
+      return new Schema.Parser().parse(in);
+    }
+  }
+}
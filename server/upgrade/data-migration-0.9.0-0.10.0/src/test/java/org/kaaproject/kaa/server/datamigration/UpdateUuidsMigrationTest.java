@@ -0,0 +1,219 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.kaa.server.datamigration;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodProcess;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.bson.Document;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kaaproject.kaa.server.datamigration.chunk.CheckpointStore;
+import org.kaaproject.kaa.server.datamigration.chunk.JdbcCheckpointStore;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+public class UpdateUuidsMigrationTest {
+
+  private static final int PORT = 27719;
+  private static final int ROWS = 500;
+  private static final String UUID_FIELD = "__uuid";
+  private static final String UUID_VALUE = "org.kaaproject.configuration.uuidT";
+
+  private static MongodExecutable mongodExecutable;
+  private static MongodProcess mongod;
+  private static MongoClient client;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final List<byte[]> uuids = new ArrayList<>();
+
+  private JdbcDataSource dataSource;
+  private Connection keepAlive;
+  private JdbcCheckpointStore checkpointStore;
+
+  /**
+   * Starts an embedded MongoDB server.
+   */
+  @BeforeClass
+  public static void setUp() throws Exception {
+    mongodExecutable = MongodStarter.getDefaultInstance().prepare(new MongodConfigBuilder()
+        .version(Version.Main.V2_4)
+        .net(new Net(PORT, Network.localhostIsIPv6()))
+        .build());
+    mongod = mongodExecutable.start();
+    client = new MongoClient("localhost", PORT);
+  }
+
+  /**
+   * Stops the embedded MongoDB server.
+   */
+  @AfterClass
+  public static void tearDown() throws Exception {
+    client.close();
+    mongod.stop();
+    mongodExecutable.stop();
+  }
+
+  /**
+   * Creates the random uuids and an in-memory checkpoint table.
+   */
+  @Before
+  public void before() throws Exception {
+    Random random = new Random(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      byte[] uuid = new byte[16];
+      random.nextBytes(uuid);
+      uuids.add(uuid);
+    }
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:uuids");
+    keepAlive = dataSource.getConnection();
+    checkpointStore = new JdbcCheckpointStore(dataSource);
+  }
+
+  @After
+  public void after() throws Exception {
+    keepAlive.close();
+  }
+
+  @Test
+  public void resumeConfigurationsAfterCrashTest() throws Exception {
+    QueryRunner runner = new QueryRunner();
+    runner.update(keepAlive,
+        "CREATE TABLE configuration (id BIGINT PRIMARY KEY, configuration_body BLOB)");
+    for (int i = 0; i < ROWS; i++) {
+      runner.update(keepAlive, "INSERT INTO configuration (id, configuration_body) VALUES (?, ?)",
+          i + 1, body(i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    try {
+      UpdateUuidsMigration.transformConfigurations(dataSource, crashingStore(), 16, 4);
+      Assert.fail("Exception expected");
+    } catch (MigrationException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+    UpdateUuidsMigration.transformConfigurations(dataSource, checkpointStore, 16, 4);
+
+    List<byte[]> bodies = runner.query(keepAlive,
+        "SELECT configuration_body FROM configuration ORDER BY id", rs -> {
+          List<byte[]> result = new ArrayList<>();
+          while (rs.next()) {
+            result.add(rs.getBytes(1));
+          }
+          return result;
+        });
+    Assert.assertEquals(ROWS, bodies.size());
+    for (int i = 0; i < ROWS; i++) {
+      assertEncoded(i, mapper.readTree(bodies.get(i)));
+    }
+  }
+
+  @Test
+  public void resumeUserConfigurationsAfterCrashTest() throws Exception {
+    MongoCollection<Document> collection =
+        client.getDatabase("kaa").getCollection("user_configuration");
+    collection.drop();
+    for (int i = 0; i < ROWS; i++) {
+      collection.insertOne(new Document("_id", String.format("user%05d", i))
+          .append("body", body(i)));
+    }
+
+    try {
+      UpdateUuidsMigration.transformUserConfigurations(collection, crashingStore(), 16, 4);
+      Assert.fail("Exception expected");
+    } catch (MigrationException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+    UpdateUuidsMigration.transformUserConfigurations(collection, checkpointStore, 16, 4);
+
+    for (int i = 0; i < ROWS; i++) {
+      Document document = collection.find(new Document("_id", String.format("user%05d", i)))
+          .first();
+      assertEncoded(i, mapper.readTree(document.getString("body")));
+    }
+  }
+
+  /**
+   * Returns a checkpoint store that fails like a crash once a few chunks are completed:
+   * the failing save and all later ones are lost, so the chunks processed meanwhile are
+   * not recorded and are processed again by the next run.
+   */
+  private CheckpointStore crashingStore() {
+    return new CheckpointStore() {
+      private int saves;
+      private boolean crashed;
+
+      @Override
+      public synchronized String load(String migration) {
+        return checkpointStore.load(migration);
+      }
+
+      @Override
+      public synchronized void save(String migration, String state) {
+        if (crashed) {
+          return;
+        }
+        if (++saves > 5) {
+          crashed = true;
+          throw new IllegalStateException("Injected crash");
+        }
+        checkpointStore.save(migration, state);
+      }
+    };
+  }
+
+  private String body(int index) throws Exception {
+    String uuid = new String(uuids.get(index), StandardCharsets.ISO_8859_1);
+    ObjectNode root = mapper.createObjectNode();
+    root.putObject(UUID_FIELD).put(UUID_VALUE, uuid);
+    ObjectNode item = root.putObject("item");
+    item.put("index", index);
+    item.putObject(UUID_FIELD).put(UUID_VALUE, uuid);
+    return mapper.writeValueAsString(root);
+  }
+
+  private void assertEncoded(int index, JsonNode json) {
+    String expected = Base64.getEncoder().encodeToString(uuids.get(index));
+    Assert.assertEquals("Row " + index, expected,
+        json.get(UUID_FIELD).get(UUID_VALUE).getTextValue());
+    Assert.assertEquals("Row " + index, expected,
+        json.get("item").get(UUID_FIELD).get(UUID_VALUE).getTextValue());
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.datamigration.MigrationException;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkedMigrationTest {
+
+  private static final String MIGRATION = "item.test";
+  private static final int ROWS = 1000;
+
+  private static final ResultSetHandler<List<Long>> IDS = rs -> {
+    List<Long> ids = new ArrayList<>();
+    while (rs.next()) {
+      ids.add(rs.getLong("id"));
+    }
+    return ids;
+  };
+
+  private final Map<Long, AtomicInteger> processed = new ConcurrentHashMap<>();
+
+  private JdbcDataSource dataSource;
+  private Connection keepAlive;
+  private JdbcCheckpointStore checkpointStore;
+  private JdbcChunkSource<Long> source;
+
+  /**
+   * Creates an in-memory table with sparse ids.
+   */
+  @Before
+  public void before() throws Exception {
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:migration");
+    keepAlive = dataSource.getConnection();
+    QueryRunner runner = new QueryRunner();
+    runner.update(keepAlive, "CREATE TABLE item (id BIGINT PRIMARY KEY)");
+    for (long id = 1; id <= ROWS; id++) {
+      runner.update(keepAlive, "INSERT INTO item (id) VALUES (?)", id * 3);
+    }
+    checkpointStore = new JdbcCheckpointStore(dataSource);
+    source = new JdbcChunkSource<>(dataSource, "item", "id", IDS, id -> id);
+  }
+
+  @After
+  public void after() throws Exception {
+    keepAlive.close();
+  }
+
+  @Test
+  public void migrateAllRowsTest() throws Exception {
+    MigrationStats stats = new ChunkedMigration<>(MIGRATION, source, this::process,
+        checkpointStore, 64, 4).run();
+
+    Assert.assertEquals(ROWS, stats.getRows());
+    assertProcessedOnce();
+    Assert.assertEquals("done", checkpointStore.load(MIGRATION));
+  }
+
+  @Test
+  public void resumeAfterFailureTest() throws Exception {
+    AtomicInteger failures = new AtomicInteger();
+    try {
+      new ChunkedMigration<Long, Long>(MIGRATION, source, rows -> {
+        if (rows.contains(1500L) && failures.getAndIncrement() == 0) {
+          throw new IllegalStateException("Injected failure");
+        }
+        process(rows);
+      }, checkpointStore, 10, 4).run();
+      Assert.fail("Exception expected");
+    } catch (MigrationException ex) {
+      Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+    Assert.assertFalse(processed.containsKey(1500L));
+    Assert.assertTrue(checkpointStore.load(MIGRATION).startsWith("running"));
+    int processedBefore = processed.size();
+
+    MigrationStats stats = new ChunkedMigration<>(MIGRATION, source, this::process,
+        checkpointStore, 7, 3).run();
+    Assert.assertEquals(ROWS - processedBefore, stats.getRows());
+    assertProcessedOnce();
+
+    stats = new ChunkedMigration<>(MIGRATION, source, this::process, checkpointStore, 7, 3).run();
+    Assert.assertEquals(0, stats.getRows());
+    assertProcessedOnce();
+  }
+
+  @Test
+  public void saveCheckpointTest() throws Exception {
+    checkpointStore.save(MIGRATION, "running\n30");
+    checkpointStore.save(MIGRATION, "running\n60\n90\t120");
+    Assert.assertEquals("running\n60\n90\t120", checkpointStore.load(MIGRATION));
+    Assert.assertNull(checkpointStore.load("unknown"));
+  }
+
+  private void process(List<Long> rows) {
+    for (Long id : rows) {
+      processed.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+    }
+  }
+
+  private void assertProcessedOnce() {
+    Assert.assertEquals(ROWS, processed.size());
+    for (Map.Entry<Long, AtomicInteger> entry : processed.entrySet()) {
+      Assert.assertEquals("Row " + entry.getKey(), 1, entry.getValue().get());
+    }
+  }
+}
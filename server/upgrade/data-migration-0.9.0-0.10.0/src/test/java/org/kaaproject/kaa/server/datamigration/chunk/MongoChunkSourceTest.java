@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.datamigration.chunk;
+
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCollection;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodProcess;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kaaproject.kaa.server.datamigration.MigrationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MongoChunkSourceTest {
+
+  private static final int PORT = 27718;
+
+  private static MongodExecutable mongodExecutable;
+  private static MongodProcess mongod;
+  private static MongoClient client;
+  private static MongoCollection<Document> collection;
+
+  /**
+   * Starts an embedded MongoDB server with a collection of documents.
+   */
+  @BeforeClass
+  public static void setUp() throws Exception {
+    mongodExecutable = MongodStarter.getDefaultInstance().prepare(new MongodConfigBuilder()
+        .version(Version.Main.V2_4)
+        .net(new Net(PORT, Network.localhostIsIPv6()))
+        .build());
+    mongod = mongodExecutable.start();
+    client = new MongoClient("localhost", PORT);
+    collection = client.getDatabase("kaa").getCollection("endpoint_profile");
+    for (int i = 0; i < 25; i++) {
+      collection.insertOne(new Document("index", i));
+    }
+  }
+
+  /**
+   * Stops the embedded MongoDB server.
+   */
+  @AfterClass
+  public static void tearDown() throws Exception {
+    client.close();
+    mongod.stop();
+    mongodExecutable.stop();
+  }
+
+  @Test
+  public void readChunksTest() throws Exception {
+    MongoChunkSource<ObjectId> source = new MongoChunkSource<>(collection, ObjectId.class,
+        new Document("_id", 1));
+    List<ObjectId> ids = new ArrayList<>();
+    ObjectId after = null;
+    for (List<Document> chunk = source.nextChunk(after, 10); !chunk.isEmpty();
+         chunk = source.nextChunk(after, 10)) {
+      Assert.assertTrue(chunk.size() <= 10);
+      for (Document document : chunk) {
+        Assert.assertFalse(document.containsKey("index"));
+        ids.add(source.keyOf(document));
+      }
+      after = source.keyOf(chunk.get(chunk.size() - 1));
+    }
+    Assert.assertEquals(25, ids.size());
+    for (int i = 1; i < ids.size(); i++) {
+      Assert.assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+    }
+  }
+
+  @Test
+  public void rejectUnexpectedIdTypeTest() throws Exception {
+    MongoCollection<Document> strings = client.getDatabase("kaa").getCollection("string_ids");
+    strings.insertOne(new Document("_id", "first"));
+    MongoChunkSource<ObjectId> source = new MongoChunkSource<>(strings, ObjectId.class);
+    try {
+      source.keyOf(source.nextChunk(null, 10).get(0));
+      Assert.fail("Exception expected");
+    } catch (MigrationException ex) {
+      Assert.assertTrue(ex.getMessage().contains("ObjectId"));
+      Assert.assertTrue(ex.getMessage().contains("String"));
+    }
+  }
+
+  @Test
+  public void encodeKeyTest() throws Exception {
+    MongoChunkSource<ObjectId> objectIds = new MongoChunkSource<>(collection, ObjectId.class);
+    ObjectId objectId = new ObjectId();
+    Assert.assertEquals(objectId, objectIds.decodeKey(objectIds.encodeKey(objectId)));
+
+    MongoChunkSource<String> strings = new MongoChunkSource<>(collection, String.class);
+    String key = "user\ttoken\n1";
+    Assert.assertEquals(key, strings.decodeKey(strings.encodeKey(key)));
+    Assert.assertFalse(strings.encodeKey(key).contains("\t"));
+    Assert.assertFalse(strings.encodeKey(key).contains("\n"));
+  }
+}